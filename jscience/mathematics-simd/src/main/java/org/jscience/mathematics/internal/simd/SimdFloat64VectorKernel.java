@@ -0,0 +1,167 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import org.jscience.mathematics.internal.linear.Float64VectorKernel;
+
+/**
+ * <p> This class provides the SIMD implementation of the
+ *     {@link Float64VectorKernel float vectors kernel} based on the
+ *     <code>jdk.incubator.vector</code> API; the preferred species of the
+ *     platform is used (e.g. 8 lanes with AVX-512).</p>
+ *
+ * <p> Contiguous operands (unit increment) are processed by vector
+ *     instructions, the remaining elements and the strided operands by
+ *     the scalar implementation.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SimdFloat64VectorKernel extends Float64VectorKernel {
+
+    /**
+     * Holds the vector species.
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Holds the number of lanes.
+     */
+    private static final int LANES = SPECIES.length();
+
+    /**
+     * Default constructor (instantiated by reflection).
+     */
+    public SimdFloat64VectorKernel() {
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public double dot(int n, double[] x, int xOffset, int xInc, double[] y,
+            int yOffset, int yInc) {
+        if ((xInc != 1) || (yInc != 1))
+            return super.dot(n, x, xOffset, xInc, y, yOffset, yInc);
+        final int bound = SPECIES.loopBound(n);
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i + LANES < bound; i += 2 * LANES) { // Two accumulators.
+            acc0 = DoubleVector.fromArray(SPECIES, x, xOffset + i).fma(
+                    DoubleVector.fromArray(SPECIES, y, yOffset + i), acc0);
+            acc1 = DoubleVector.fromArray(SPECIES, x, xOffset + i + LANES)
+                    .fma(DoubleVector.fromArray(SPECIES, y, yOffset + i
+                            + LANES), acc1);
+        }
+        for (; i < bound; i += LANES) {
+            acc0 = DoubleVector.fromArray(SPECIES, x, xOffset + i).fma(
+                    DoubleVector.fromArray(SPECIES, y, yOffset + i), acc0);
+        }
+        double sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            sum += x[xOffset + i] * y[yOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquares(int n, double[] x, int xOffset, int xInc) {
+        if (xInc != 1)
+            return super.sumOfSquares(n, x, xOffset, xInc);
+        final int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+            acc = v.fma(v, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; i++) {
+            double v = x[xOffset + i];
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(int n, double a, double[] x, int xOffset, int xInc,
+            double[] y, int yOffset, int yInc) {
+        if ((xInc != 1) || (yInc != 1)) {
+            super.axpy(n, a, x, xOffset, xInc, y, yOffset, yInc);
+            return;
+        }
+        final int bound = SPECIES.loopBound(n);
+        DoubleVector va = DoubleVector.broadcast(SPECIES, a);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i).fma(va,
+                    DoubleVector.fromArray(SPECIES, y, yOffset + i)).intoArray(
+                    y, yOffset + i);
+        }
+        for (; i < n; i++) {
+            y[yOffset + i] += a * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void scale(int n, double a, double[] x, int xOffset, int xInc) {
+        if (xInc != 1) {
+            super.scale(n, a, x, xOffset, xInc);
+            return;
+        }
+        final int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i).mul(a).intoArray(x,
+                    xOffset + i);
+        }
+        for (; i < n; i++) {
+            x[xOffset + i] *= a;
+        }
+    }
+
+    @Override
+    public void combine(int n, double a, double[] x, int xOffset, int xInc,
+            double b, double[] y, int yOffset, int yInc, double[] z,
+            int zOffset) {
+        if ((xInc != 1) || ((y != null) && (yInc != 1))) {
+            super.combine(n, a, x, xOffset, xInc, b, y, yOffset, yInc, z,
+                    zOffset);
+            return;
+        }
+        final int bound = SPECIES.loopBound(n);
+        int i = 0;
+        if (y == null) {
+            for (; i < bound; i += LANES) {
+                DoubleVector.fromArray(SPECIES, x, xOffset + i).mul(a)
+                        .intoArray(z, zOffset + i);
+            }
+            for (; i < n; i++) {
+                z[zOffset + i] = a * x[xOffset + i];
+            }
+        } else {
+            DoubleVector va = DoubleVector.broadcast(SPECIES, a);
+            for (; i < bound; i += LANES) {
+                DoubleVector.fromArray(SPECIES, y, yOffset + i).mul(b).add(
+                        DoubleVector.fromArray(SPECIES, x, xOffset + i)
+                                .mul(va)).intoArray(z, zOffset + i);
+            }
+            for (; i < n; i++) {
+                z[zOffset + i] = a * x[xOffset + i] + b * y[yOffset + i];
+            }
+        }
+    }
+}
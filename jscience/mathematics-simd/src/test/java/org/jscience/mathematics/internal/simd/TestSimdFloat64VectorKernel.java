@@ -0,0 +1,82 @@
+package org.jscience.mathematics.internal.simd;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.internal.linear.Float64VectorKernel;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Vectors;
+
+/**
+ * Checks the SIMD kernel against the scalar implementation (lengths not
+ * multiple of the number of lanes, offsets and strided operands).
+ */
+public class TestSimdFloat64VectorKernel extends TestCase {
+
+    private static final double EPSILON = 1e-12;
+
+    private final Random _random = new Random(0);
+
+    private final Float64VectorKernel _scalar = new Float64VectorKernel() {};
+
+    private final Float64VectorKernel _simd = new SimdFloat64VectorKernel();
+
+    public void testSelected() {
+        assertTrue(Float64VectorKernel.getInstance().isVectorized());
+        FloatVector v = Vectors.floatVector(random(37));
+        assertEquals(Math.sqrt(v.times(v).doubleValue()), v.normValue(),
+                EPSILON);
+    }
+
+    public void testReductions() {
+        for (int n = 0; n < 70; n++) {
+            double[] x = random(n + 3);
+            double[] y = random(2 * n + 1);
+            assertEquals(_scalar.dot(n, x, 3, 1, y, 1, 1), _simd.dot(n, x, 3,
+                    1, y, 1, 1), EPSILON);
+            assertEquals(_scalar.dot(n, x, 3, 1, y, 0, 2), _simd.dot(n, x, 3,
+                    1, y, 0, 2), EPSILON);
+            assertEquals(_scalar.sumOfSquares(n, x, 2, 1), _simd.sumOfSquares(
+                    n, x, 2, 1), EPSILON);
+        }
+    }
+
+    public void testUpdates() {
+        for (int n = 0; n < 70; n++) {
+            double[] x = random(n + 1);
+            double[] y = random(n + 2);
+            double[] y1 = y.clone();
+            double[] y2 = y.clone();
+            _scalar.axpy(n, 0.7, x, 1, 1, y1, 2, 1);
+            _simd.axpy(n, 0.7, x, 1, 1, y2, 2, 1);
+            assertEquals(y1, y2);
+            _scalar.scale(n, -1.5, y1, 1, 1);
+            _simd.scale(n, -1.5, y2, 1, 1);
+            assertEquals(y1, y2);
+            double[] z1 = new double[n];
+            double[] z2 = new double[n];
+            _scalar.combine(n, 2.0, x, 1, 1, -3.0, y, 2, 1, z1, 0);
+            _simd.combine(n, 2.0, x, 1, 1, -3.0, y, 2, 1, z2, 0);
+            assertEquals(z1, z2);
+            _scalar.combine(n, 2.0, x, 1, 1, 0.0, null, 0, 0, z1, 0);
+            _simd.combine(n, 2.0, x, 1, 1, 0.0, null, 0, 0, z2, 0);
+            assertEquals(z1, z2);
+        }
+    }
+
+    private void assertEquals(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], EPSILON);
+        }
+    }
+
+    private double[] random(int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = _random.nextDouble() - 0.5;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Comparator;
+import java.util.List;
+
+import javolution.util.FastTable;
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class holds the generic operations of the
+ *     {@link Matrix matrix} implementations. Sub-classes override these
+ *     operations to return their own type (and often for performance).</p>
+ *
+ * <p> The elimination based operations ({@link #determinant},
+ *     {@link #inverse}, {@link #solve(Matrix)}) are delegated to the
+ *     elimination engine of {@link org.jscience.mathematics.internal.vector}
+ *     (fraction-free for exact fields, with pivoting otherwise).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public abstract class AbstractMatrix<F extends Field<F>> implements Matrix<F> {
+
+    /**
+     * Default constructor.
+     */
+    protected AbstractMatrix() {
+    }
+
+    @Override
+    public boolean isSquare() {
+        return getRowDimension() == getColumnDimension();
+    }
+
+    @Override
+    public F trace() {
+        F sum = this.get(0, 0);
+        for (int i = Math.min(getColumnDimension(), getRowDimension()); --i > 0;) {
+            sum = sum.plus(get(i, i));
+        }
+        return sum;
+    }
+
+    @Override
+    public F determinant() {
+        return toElimination(this).determinant();
+    }
+
+    @Override
+    public int rank() {
+        return toElimination(this).rank();
+    }
+
+    @Override
+    public F cofactor(int i, int j) {
+        FastTable<Index> rows = new FastTable<Index>();
+        FastTable<Index> columns = new FastTable<Index>();
+        for (int ii = 0, m = getRowDimension(); ii < m; ii++) {
+            if (ii == i)
+                continue; // Don't include row i.
+            rows.add(Index.valueOf(ii));
+        }
+        for (int jj = 0, n = getColumnDimension(); jj < n; jj++) {
+            if (jj == j)
+                continue; // Don't include column j.
+            columns.add(Index.valueOf(jj));
+        }
+        return this.getSubMatrix(rows, columns).determinant();
+    }
+
+    @Override
+    public Matrix<F> getSubMatrix(int fromRow, int toRow, int fromColumn,
+            int toColumn) {
+        return getSubMatrix(range(fromRow, toRow, getRowDimension()), range(
+                fromColumn, toColumn, getColumnDimension()));
+    }
+
+    @Override
+    public Matrix<F> adjoint() {
+        final int m = getRowDimension();
+        final int n = getColumnDimension();
+        Object[] elements = new Object[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                F cofactor = this.cofactor(i, j);
+                elements[j * m + i] = ((i + j) % 2 == 0) ? cofactor : cofactor
+                        .opposite(); // Transposed.
+            }
+        }
+        return new DenseMatrixImpl<F>(n, m, elements, 0, m, 1);
+    }
+
+    @Override
+    public Matrix<F> inverse() {
+        return fromElimination(toElimination(this).inverse());
+    }
+
+    @Override
+    public Matrix<F> divide(Matrix<F> that) {
+        return this.times(that.inverse());
+    }
+
+    @Override
+    public Matrix<F> pseudoInverse() {
+        if (isSquare())
+            return this.inverse();
+        return fromElimination(toElimination(this).pseudoInverse());
+    }
+
+    @Override
+    public Vector<F> solve(Vector<F> y) {
+        return solve(y.asColumn()).getColumn(0);
+    }
+
+    @Override
+    public Matrix<F> solve(Matrix<F> y) {
+        if (getRowDimension() != y.getRowDimension())
+            throw new DimensionException();
+        return fromElimination(toElimination(this).solve(toElimination(y)));
+    }
+
+    @Override
+    public Matrix<F> pow(int exp) {
+        if (exp > 0) {
+            Matrix<F> pow2 = this;
+            Matrix<F> result = null;
+            while (exp >= 1) { // Iteration.
+                if ((exp & 1) == 1) {
+                    result = (result == null) ? pow2 : result.times(pow2);
+                }
+                exp >>>= 1;
+                if (exp != 0) {
+                    pow2 = pow2.times(pow2);
+                }
+            }
+            return result;
+        } else if (exp == 0) {
+            return this.times(this.inverse()); // Identity.
+        } else {
+            return this.pow(-exp).inverse();
+        }
+    }
+
+    @Override
+    public Matrix<F> minus(Matrix<F> that) {
+        return this.plus(that.opposite());
+    }
+
+    @Override
+    public boolean equals(Matrix<F> that, Comparator<? super F> cmp) {
+        if (this == that)
+            return true;
+        final int m = this.getRowDimension();
+        final int n = this.getColumnDimension();
+        if ((that.getRowDimension() != m) || (that.getColumnDimension() != n))
+            return false;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                if (cmp.compare(this.get(i, j), that.get(i, j)) != 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object that) {
+        if (this == that)
+            return true;
+        if (!(that instanceof Matrix))
+            return false;
+        Matrix<F> M = (Matrix<F>) that;
+        final int m = this.getRowDimension();
+        final int n = this.getColumnDimension();
+        if ((M.getRowDimension() != m) || (M.getColumnDimension() != n))
+            return false;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                if (!this.get(i, j).equals(M.get(i, j)))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0, m = getRowDimension(); i < m; i++) {
+            for (int j = 0, n = getColumnDimension(); j < n; j++) {
+                hash = 31 * hash + get(i, j).hashCode();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the textual representation of this matrix (list of rows).
+     *
+     * @return <code>{getRow(0), getRow(1), ...}</code>
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        for (int i = 0, m = getRowDimension(); i < m; i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append(getRow(i));
+        }
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public Matrix<F> value() {
+        return this;
+    }
+
+    /**
+     * Returns the matrix of the elimination engine having the same elements
+     * as the specified matrix.
+     *
+     * @param that the matrix to convert.
+     * @return the equivalent elimination matrix.
+     */
+    @SuppressWarnings("unchecked")
+    static <F extends Field<F>> org.jscience.mathematics.internal.vector.DenseMatrix<F> toElimination(
+            Matrix<F> that) {
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        Field<?>[][] elements = new Field<?>[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                elements[i][j] = that.get(i, j);
+            }
+        }
+        return org.jscience.mathematics.internal.vector.DenseMatrix
+                .valueOf((F[][]) elements);
+    }
+
+    /**
+     * Returns the dense matrix having the same elements as the specified
+     * elimination matrix.
+     *
+     * @param that the elimination matrix.
+     * @return the equivalent dense matrix.
+     */
+    static <F extends Field<F>> DenseMatrixImpl<F> fromElimination(
+            org.jscience.mathematics.internal.vector.Matrix<F> that) {
+        final int m = that.getNumberOfRows();
+        final int n = that.getNumberOfColumns();
+        Object[] elements = new Object[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                elements[i * n + j] = that.get(i, j);
+            }
+        }
+        return new DenseMatrixImpl<F>(m, n, elements, 0, n, 1);
+    }
+
+    /**
+     * Indicates that indices are not equally spaced (see {@link #step}).
+     */
+    static final int IRREGULAR = Integer.MIN_VALUE;
+
+    /**
+     * Returns the constant difference between consecutive indices of the
+     * specified list, the indices being checked to be in the range
+     * <code>[0..size[</code>.
+     *
+     * @param indices the indices.
+     * @param size the size of the range.
+     * @return the index step (<code>0</code> for a single index) or
+     *         {@link #IRREGULAR} if the list is empty or its indices are not
+     *         equally spaced.
+     * @throws IndexOutOfBoundsException if an index is out of range.
+     */
+    static int step(List<Index> indices, int size) {
+        final int length = indices.size();
+        if (length == 0)
+            return IRREGULAR;
+        final int first = indices.get(0).intValue();
+        AbstractVector.checkIndex(first, size);
+        if (length == 1)
+            return 0;
+        final int step = indices.get(1).intValue() - first;
+        for (int i = 2; i < length; i++) {
+            if (indices.get(i).intValue() - indices.get(i - 1).intValue() != step)
+                return IRREGULAR;
+        }
+        // Equally spaced, the last index bounds the others.
+        AbstractVector.checkIndex(indices.get(length - 1).intValue(), size);
+        return step;
+    }
+
+    /**
+     * Checks the specified range and returns its indices.
+     *
+     * @param from the first index (inclusive).
+     * @param to the last index (exclusive).
+     * @param size the size of the range.
+     * @return the indices <code>[from..to[</code>
+     * @throws IndexOutOfBoundsException if
+     *         <code>(from &lt; 0) || (from &gt; to) || (to &gt; size)</code>
+     */
+    static List<Index> range(int from, int to, int size) {
+        checkRange(from, to, size);
+        FastTable<Index> indices = new FastTable<Index>();
+        for (int i = from; i < to; i++) {
+            indices.add(Index.valueOf(i));
+        }
+        return indices;
+    }
+
+    /**
+     * Checks that the specified range is within <code>[0..size]</code>.
+     *
+     * @param from the first index (inclusive).
+     * @param to the last index (exclusive).
+     * @param size the size of the range.
+     * @throws IndexOutOfBoundsException if
+     *         <code>(from &lt; 0) || (from &gt; to) || (to &gt; size)</code>
+     */
+    static void checkRange(int from, int to, int size) {
+        if ((from < 0) || (from > to) || (to > size))
+            throw new IndexOutOfBoundsException("range: [" + from + ".."
+                    + to + "[, size: " + size);
+    }
+}
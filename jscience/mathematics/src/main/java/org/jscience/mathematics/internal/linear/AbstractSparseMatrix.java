@@ -0,0 +1,462 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.SparseVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class holds the structure of the compressed sparse matrices,
+ *     either compressed sparse row (CSR) or compressed sparse column (CSC),
+ *     see {@link SparseKernel}. Sub-classes hold the values (generic
+ *     elements or <code>double</code>) in an array parallel to the
+ *     {@link #_indices indices}.</p>
+ *
+ * <p> The {@link #transpose transpose} of a CSR matrix is the CSC matrix
+ *     sharing the same arrays (no copy). The conversions between CSR and
+ *     CSC ({@link #toRowMajor}, {@link #toColumnMajor}) are performed in
+ *     <code>O(nnz)</code>; rows of CSR matrices and columns of CSC matrices
+ *     are extracted in <code>O(nnz)</code> of the row/column.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public abstract class AbstractSparseMatrix<F extends Field<F>> extends
+        AbstractMatrix<F> implements SparseMatrix<F> {
+
+    /**
+     * Holds the number of rows.
+     */
+    final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    final int _n;
+
+    /**
+     * Indicates if the slices are columns (CSC) or rows (CSR).
+     */
+    final boolean _columnMajor;
+
+    /**
+     * Holds the slices pointers (never modified).
+     */
+    final int[] _pointers;
+
+    /**
+     * Holds the sorted minor indices of each slice (never modified).
+     */
+    final int[] _indices;
+
+    /**
+     * Holds the zero element.
+     */
+    final F _zero;
+
+    /**
+     * Creates a sparse matrix having the specified structure.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param columnMajor <code>true</code> for CSC; <code>false</code> for
+     *        CSR.
+     * @param pointers the slices pointers (shared).
+     * @param indices the minor indices (shared).
+     * @param zero the zero element.
+     */
+    AbstractSparseMatrix(int m, int n, boolean columnMajor, int[] pointers,
+            int[] indices, F zero) {
+        _m = m;
+        _n = n;
+        _columnMajor = columnMajor;
+        _pointers = pointers;
+        _indices = indices;
+        _zero = zero;
+    }
+
+    /**
+     * Returns the non-zero element at the specified position.
+     *
+     * @param k the position in the values array.
+     * @return the corresponding element.
+     */
+    abstract F value(int k);
+
+    /**
+     * Returns a matrix of the same kind holding the specified structure,
+     * the value at the position <code>k</code> being the value of this
+     * matrix at the position <code>positions[k]</code>.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param columnMajor the kind of structure.
+     * @param pointers the slices pointers.
+     * @param indices the minor indices.
+     * @param positions the positions of the values in this matrix.
+     * @return the new matrix.
+     */
+    abstract AbstractSparseMatrix<F> gather(int m, int n, boolean columnMajor,
+            int[] pointers, int[] indices, int[] positions);
+
+    /**
+     * Returns a sparse matrix of the same kind equivalent to the specified
+     * matrix.
+     *
+     * @param that the matrix to convert.
+     * @return <code>that</code> or the equivalent sparse matrix.
+     */
+    abstract AbstractSparseMatrix<F> toSparse(Matrix<F> that);
+
+    @Override
+    public int getRowDimension() {
+        return _m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    /**
+     * Returns the zero element of this matrix.
+     *
+     * @return the element of this matrix which is not stored.
+     */
+    public F getZero() {
+        return _zero;
+    }
+
+    /**
+     * Indicates if this matrix is stored column by column (CSC).
+     *
+     * @return <code>true</code> for CSC; <code>false</code> for CSR.
+     */
+    public boolean isColumnMajor() {
+        return _columnMajor;
+    }
+
+    /**
+     * Returns the number of elements stored (non-zero elements).
+     *
+     * @return the number of non-zero elements.
+     */
+    public int getNonZeroCount() {
+        return _pointers[majors()];
+    }
+
+    /**
+     * Returns the number of slices (rows for CSR, columns for CSC).
+     */
+    final int majors() {
+        return _columnMajor ? _n : _m;
+    }
+
+    /**
+     * Returns the slices dimension (columns for CSR, rows for CSC).
+     */
+    final int minors() {
+        return _columnMajor ? _m : _n;
+    }
+
+    /**
+     * Returns the position of the element <code>[i, j]</code> or
+     * <code>-1</code> if this element is zero.
+     */
+    final int position(int i, int j) {
+        int p = _columnMajor ? j : i;
+        return SparseKernel.search(_indices, _pointers[p], _pointers[p + 1],
+                _columnMajor ? i : j);
+    }
+
+    @Override
+    public F get(int i, int j) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        int k = position(i, j);
+        return (k < 0) ? _zero : value(k);
+    }
+
+    /**
+     * Returns this matrix stored row by row (CSR).
+     *
+     * @return <code>this</code> or the CSR matrix having the same elements
+     *         (<code>O(nnz)</code>).
+     */
+    public AbstractSparseMatrix<F> toRowMajor() {
+        return _columnMajor ? convert() : this;
+    }
+
+    /**
+     * Returns this matrix stored column by column (CSC).
+     *
+     * @return <code>this</code> or the CSC matrix having the same elements
+     *         (<code>O(nnz)</code>).
+     */
+    public AbstractSparseMatrix<F> toColumnMajor() {
+        return _columnMajor ? this : convert();
+    }
+
+    /**
+     * Returns the same matrix with the other kind of structure.
+     */
+    private AbstractSparseMatrix<F> convert() {
+        final int majors = majors();
+        final int minors = minors();
+        int[] pointers = new int[minors + 1];
+        int[] indices = new int[getNonZeroCount()];
+        int[] positions = SparseKernel.transpose(majors, minors, _pointers,
+                _indices, pointers, indices);
+        return gather(_m, _n, !_columnMajor, pointers, indices, positions);
+    }
+
+    @Override
+    public SparseVector<F> getRow(int i) {
+        AbstractVector.checkIndex(i, _m);
+        return _columnMajor ? minorVector(i) : majorVector(i);
+    }
+
+    @Override
+    public SparseVector<F> getColumn(int j) {
+        AbstractVector.checkIndex(j, _n);
+        return _columnMajor ? majorVector(j) : minorVector(j);
+    }
+
+    /**
+     * Returns the slice <code>p</code> (<code>O(nnz)</code> of the slice).
+     */
+    SparseVectorImpl<F> majorVector(int p) {
+        final int start = _pointers[p];
+        final int nnz = _pointers[p + 1] - start;
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        System.arraycopy(_indices, start, indices, 0, nnz);
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = value(start + k);
+        }
+        return new SparseVectorImpl<F>(minors(), _zero, indices, elements);
+    }
+
+    /**
+     * Returns the elements of minor index <code>q</code> (binary search in
+     * every slice).
+     */
+    SparseVectorImpl<F> minorVector(int q) {
+        final int majors = majors();
+        int[] indices = new int[majors];
+        Object[] elements = new Object[majors];
+        int nnz = 0;
+        for (int p = 0; p < majors; p++) {
+            int k = SparseKernel.search(_indices, _pointers[p],
+                    _pointers[p + 1], q);
+            if (k < 0)
+                continue;
+            indices[nnz] = p;
+            elements[nnz++] = value(k);
+        }
+        return new SparseVectorImpl<F>(majors, _zero, resize(indices, nnz),
+                resize(elements, nnz));
+    }
+
+    @Override
+    public SparseVector<F> getDiagonal() {
+        final int n = Math.min(_m, _n);
+        int[] indices = new int[n];
+        Object[] elements = new Object[n];
+        int nnz = 0;
+        for (int i = 0; i < n; i++) {
+            int k = position(i, i);
+            if (k < 0)
+                continue;
+            indices[nnz] = i;
+            elements[nnz++] = value(k);
+        }
+        return new SparseVectorImpl<F>(n, _zero, resize(indices, nnz),
+                resize(elements, nnz));
+    }
+
+    @Override
+    public SparseMatrix<F> getSubMatrix(int fromRow, int toRow,
+            int fromColumn, int toColumn) {
+        return getSubMatrix(range(fromRow, toRow, _m), range(fromColumn,
+                toColumn, _n));
+    }
+
+    @Override
+    public SparseMatrix<F> getSubMatrix(List<Index> rows, List<Index> columns) {
+        final int m = rows.size();
+        final int n = columns.size();
+        // Maps each column of this matrix to its columns in the sub-matrix.
+        int[] first = new int[_n];
+        int[] next = new int[n];
+        for (int j = 0; j < _n; j++) {
+            first[j] = -1;
+        }
+        for (int j = n; --j >= 0;) {
+            int jj = columns.get(j).intValue();
+            AbstractVector.checkIndex(jj, _n);
+            next[j] = first[jj];
+            first[jj] = j;
+        }
+        AbstractSparseMatrix<F> csr = toRowMajor();
+        int[] rowIndices = new int[16];
+        int[] columnIndices = new int[16];
+        int[] positions = new int[16];
+        int nnz = 0;
+        for (int i = 0; i < m; i++) {
+            int ii = rows.get(i).intValue();
+            AbstractVector.checkIndex(ii, _m);
+            for (int k = csr._pointers[ii], end = csr._pointers[ii + 1]; k < end; k++) {
+                for (int j = first[csr._indices[k]]; j >= 0; j = next[j]) {
+                    if (nnz == positions.length) {
+                        rowIndices = resize(rowIndices, 2 * nnz);
+                        columnIndices = resize(columnIndices, 2 * nnz);
+                        positions = resize(positions, 2 * nnz);
+                    }
+                    rowIndices[nnz] = i;
+                    columnIndices[nnz] = j;
+                    positions[nnz++] = k;
+                }
+            }
+        }
+        int[] pointers = new int[m + 1];
+        int[] indices = new int[nnz];
+        int[] order = SparseKernel.compress(m, n, nnz, rowIndices,
+                columnIndices, pointers, indices);
+        for (int k = 0; k < nnz; k++) {
+            order[k] = positions[order[k]];
+        }
+        return csr.gather(m, n, false, pointers, indices, order);
+    }
+
+    @Override
+    public SparseMatrix<F> minus(Matrix<F> that) {
+        return this.plus(that.opposite());
+    }
+
+    @Override
+    public SparseMatrix<F> inverse() {
+        return toSparse(super.inverse());
+    }
+
+    @Override
+    public SparseMatrix<F> divide(Matrix<F> that) {
+        return this.times(that.inverse());
+    }
+
+    @Override
+    public SparseMatrix<F> pseudoInverse() {
+        return toSparse(super.pseudoInverse());
+    }
+
+    @Override
+    public SparseMatrix<F> adjoint() {
+        return toSparse(super.adjoint());
+    }
+
+    @Override
+    public SparseVector<F> solve(Vector<F> y) {
+        return SparseVectorImpl.valueOf(super.solve(y), _zero);
+    }
+
+    @Override
+    public SparseMatrix<F> solve(Matrix<F> y) {
+        return toSparse(super.solve(y));
+    }
+
+    @Override
+    public SparseMatrix<F> pow(int exp) {
+        return toSparse(super.pow(exp));
+    }
+
+    @Override
+    public SparseVector<F> vectorization() {
+        AbstractSparseMatrix<F> csc = toColumnMajor();
+        final int nnz = csc.getNonZeroCount();
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        for (int j = 0; j < _n; j++) {
+            for (int k = csc._pointers[j], end = csc._pointers[j + 1]; k < end; k++) {
+                indices[k] = j * _m + csc._indices[k];
+                elements[k] = csc.value(k);
+            }
+        }
+        return new SparseVectorImpl<F>(_m * _n, _zero, indices, elements);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object that) {
+        if (this == that)
+            return true;
+        if (!(that instanceof AbstractSparseMatrix))
+            return super.equals(that);
+        AbstractSparseMatrix<F> a = this.toRowMajor();
+        AbstractSparseMatrix<F> b = ((AbstractSparseMatrix<F>) that)
+                .toRowMajor();
+        if ((a._m != b._m) || (a._n != b._n))
+            return false;
+        final int nnz = a.getNonZeroCount();
+        if (nnz != b.getNonZeroCount())
+            return super.equals(that); // Explicit zeros.
+        for (int i = 0; i <= a._m; i++) {
+            if (a._pointers[i] != b._pointers[i])
+                return super.equals(that);
+        }
+        for (int k = 0; k < nnz; k++) {
+            if (a._indices[k] != b._indices[k])
+                return super.equals(that);
+        }
+        for (int k = 0; k < nnz; k++) {
+            if (!a.value(k).equals(b.value(k)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns an array holding the first elements of the specified array.
+     */
+    static int[] resize(int[] array, int length) {
+        if (array.length == length)
+            return array;
+        int[] tmp = new int[length];
+        System.arraycopy(array, 0, tmp, 0, Math.min(length, array.length));
+        return tmp;
+    }
+
+    /**
+     * Returns an array holding the first elements of the specified array.
+     */
+    static Object[] resize(Object[] array, int length) {
+        if (array.length == length)
+            return array;
+        Object[] tmp = new Object[length];
+        System.arraycopy(array, 0, tmp, 0, Math.min(length, array.length));
+        return tmp;
+    }
+
+    /**
+     * Returns an array holding the first elements of the specified array.
+     */
+    static double[] resize(double[] array, int length) {
+        if (array.length == length)
+            return array;
+        double[] tmp = new double[length];
+        System.arraycopy(array, 0, tmp, 0, Math.min(length, array.length));
+        return tmp;
+    }
+}
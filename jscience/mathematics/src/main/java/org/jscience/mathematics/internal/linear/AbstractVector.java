@@ -0,0 +1,122 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Comparator;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class holds the operations common to all the
+ *     {@link Vector vector} implementations (equality, hash code and
+ *     textual representation).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public abstract class AbstractVector<F extends Field<F>> implements Vector<F> {
+
+    /**
+     * Default constructor.
+     */
+    protected AbstractVector() {
+    }
+
+    @Override
+    public boolean equals(Vector<F> that, Comparator<? super F> cmp) {
+        if (this == that)
+            return true;
+        final int n = this.getDimension();
+        if (that.getDimension() != n)
+            return false;
+        for (int i = 0; i < n; i++) {
+            if (cmp.compare(this.get(i), that.get(i)) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object that) {
+        if (this == that)
+            return true;
+        if (!(that instanceof Vector))
+            return false;
+        Vector<F> v = (Vector<F>) that;
+        final int n = this.getDimension();
+        if (v.getDimension() != n)
+            return false;
+        for (int i = 0; i < n; i++) {
+            if (!this.get(i).equals(v.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0, n = getDimension(); i < n; i++) {
+            hash = 31 * hash + get(i).hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the textual representation of this vector (list of
+     * elements).
+     *
+     * @return <code>{get(0), get(1), ...}</code>
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        for (int i = 0, n = getDimension(); i < n; i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append(get(i));
+        }
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public Vector<F> value() {
+        return this;
+    }
+
+    /**
+     * Checks that the specified dimension is the one expected.
+     *
+     * @param expected the expected dimension.
+     * @param actual the actual dimension.
+     * @throws DimensionException if <code>expected != actual</code>
+     */
+    static void checkDimension(int expected, int actual) {
+        if (expected != actual)
+            throw new DimensionException(actual + " instead of " + expected);
+    }
+
+    /**
+     * Checks that the specified index is in the range
+     * <code>[0..size[</code>.
+     *
+     * @param i the index.
+     * @param size the size of the range.
+     * @throws IndexOutOfBoundsException if <code>(i &lt; 0) || (i &gt;= size)</code>
+     */
+    static void checkIndex(int i, int size) {
+        if ((i < 0) || (i >= size))
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+    }
+}
@@ -0,0 +1,674 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jscience.mathematics.linear.ComplexMatrix;
+import org.jscience.mathematics.linear.ComplexVector;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Complex;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class encodes and decodes matrices and vectors of 64 bits
+ *     floating points real or complex numbers in a compact binary format
+ *     (all values little-endian):
+ *     <pre>
+ *     offset  size  field
+ *          0     4  magic number ("JSMB")
+ *          4     2  version ({@link #VERSION})
+ *          6     1  object (0: matrix, 1: vector)
+ *          7     1  storage (0: dense, 1: CSR, 2: CSC, 3: sparse vector)
+ *          8     1  elements (0: real, 1: complex)
+ *          9     7  reserved (zero)
+ *         16     4  number of rows (or vector dimension)
+ *         20     4  number of columns (zero for vectors)
+ *         24     8  number of non-zero elements (zero if dense)
+ *         32        payload
+ *     </pre>
+ *     Dense payloads are the values in row-major order; sparse payloads are
+ *     the pointers (CSR/CSC only) and the indices (<code>int</code>), padded
+ *     to a multiple of 8 bytes, followed by the non-zero values. Complex
+ *     values are stored as all the real parts followed by all the
+ *     imaginary parts (split storage of {@link ComplexMatrixImpl}).
+ *     The <code>double</code> values are always 8-byte aligned, hence
+ *     transferred in bulk from/to {@link java.nio.DoubleBuffer} views
+ *     (e.g. of a mapped file).</p>
+ *
+ * <p> The codec reads from (or writes to) a byte buffer, refilled from
+ *     (or drained to) a channel if any. Channels are never read beyond
+ *     the end of the object decoded; objects of a newer version are
+ *     rejected.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class BinaryCodec {
+
+    /**
+     * Holds the magic number ("JSMB" little-endian).
+     */
+    public static final int MAGIC = 0x424D534A;
+
+    /**
+     * Holds the current version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Holds the header size (bytes).
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Holds the size of the buffers used with channels.
+     */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int MATRIX = 0;
+
+    private static final int VECTOR = 1;
+
+    private static final int DENSE = 0;
+
+    private static final int CSR = 1;
+
+    private static final int CSC = 2;
+
+    private static final int SPARSE = 3;
+
+    private static final int REAL = 0;
+
+    private static final int COMPLEX = 1;
+
+    /**
+     * Holds the buffer (little-endian).
+     */
+    private final ByteBuffer _buffer;
+
+    /**
+     * Holds the channel read (or <code>null</code>).
+     */
+    private final ReadableByteChannel _in;
+
+    /**
+     * Holds the channel written (or <code>null</code>).
+     */
+    private final WritableByteChannel _out;
+
+    /**
+     * Holds the number of bytes read or written.
+     */
+    private long _count;
+
+    /**
+     * Creates a codec reading from or writing to the specified buffer only
+     * (its byte order is set to little-endian).
+     *
+     * @param buffer the buffer.
+     */
+    public BinaryCodec(ByteBuffer buffer) {
+        this(buffer.order(ByteOrder.LITTLE_ENDIAN), null, null);
+    }
+
+    /**
+     * Creates a codec reading from the specified channel.
+     *
+     * @param in the channel read (not closed by this codec).
+     */
+    public BinaryCodec(ReadableByteChannel in) {
+        this((ByteBuffer) ByteBuffer.allocate(BUFFER_SIZE).order(
+                ByteOrder.LITTLE_ENDIAN).flip(), in, null);
+    }
+
+    /**
+     * Creates a codec writing to the specified channel.
+     *
+     * @param out the channel written (not closed by this codec).
+     */
+    public BinaryCodec(WritableByteChannel out) {
+        this(ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN),
+                null, out);
+    }
+
+    private BinaryCodec(ByteBuffer buffer, ReadableByteChannel in,
+            WritableByteChannel out) {
+        _buffer = buffer;
+        _in = in;
+        _out = out;
+    }
+
+    /**
+     * Returns the number of bytes of the specified matrix once encoded.
+     *
+     * @param matrix the matrix.
+     * @return the encoded size.
+     * @throws IllegalArgumentException if the elements are not real or
+     *         complex numbers.
+     */
+    public static long sizeOf(Matrix<?> matrix) {
+        final int m = matrix.getRowDimension();
+        final int n = matrix.getColumnDimension();
+        int width = isComplex(matrix) ? 16 : 8;
+        if (!(matrix instanceof AbstractSparseMatrix))
+            return HEADER_SIZE + (long) m * n * width;
+        AbstractSparseMatrix<?> S = (AbstractSparseMatrix<?>) matrix;
+        int majors = S._columnMajor ? n : m;
+        long nnz = S._pointers[majors];
+        return HEADER_SIZE + pad(4L * (majors + 1 + nnz)) + nnz * width;
+    }
+
+    /**
+     * Returns the number of bytes of the specified vector once encoded.
+     *
+     * @param vector the vector.
+     * @return the encoded size.
+     * @throws IllegalArgumentException if the elements are not real or
+     *         complex numbers.
+     */
+    public static long sizeOf(Vector<?> vector) {
+        int width = isComplex(vector) ? 16 : 8;
+        if (!(vector instanceof SparseVectorImpl))
+            return HEADER_SIZE + (long) vector.getDimension() * width;
+        long nnz = ((SparseVectorImpl<?>) vector)._indices.length;
+        return HEADER_SIZE + pad(4L * nnz) + nnz * width;
+    }
+
+    /**
+     * Returns the number of bytes read or written so far.
+     *
+     * @return the number of bytes.
+     */
+    public long getCount() {
+        return _count;
+    }
+
+    /**
+     * Writes the specified matrix (and flushes the buffer if a channel is
+     * written).
+     *
+     * @param matrix the matrix of real ({@link Float64}) or complex
+     *        numbers.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the elements are not real or
+     *         complex numbers.
+     * @throws BufferOverflowException if there is no channel and the
+     *         buffer is too small.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Matrix<?> matrix) throws IOException {
+        final int m = matrix.getRowDimension();
+        final int n = matrix.getColumnDimension();
+        final boolean complex = isComplex(matrix);
+        if (matrix instanceof AbstractSparseMatrix) {
+            AbstractSparseMatrix<?> S = (AbstractSparseMatrix<?>) matrix;
+            final int majors = S._columnMajor ? n : m;
+            final int nnz = S._pointers[majors];
+            header(MATRIX, S._columnMajor ? CSC : CSR, complex, m, n, nnz);
+            putInts(S._pointers, 0, majors + 1);
+            putInts(S._indices, 0, nnz);
+            padding();
+            if (S instanceof FloatSparseMatrixImpl) {
+                putDoubles(((FloatSparseMatrixImpl) S)._values, 0, nnz, 1);
+            } else {
+                putElements(((SparseMatrixImpl<?>) S)._elements, nnz, complex);
+            }
+        } else if (complex) {
+            header(MATRIX, DENSE, true, m, n, 0);
+            ComplexMatrixImpl C = ComplexMatrixImpl
+                    .valueOf((Matrix<Complex>) matrix);
+            for (int i = 0; i < m; i++) {
+                putDoubles(C._real, C._offset + i * C._rowStride, n,
+                        C._colStride);
+            }
+            for (int i = 0; i < m; i++) {
+                putDoubles(C._imaginary, C._offset + i * C._rowStride, n,
+                        C._colStride);
+            }
+        } else {
+            header(MATRIX, DENSE, false, m, n, 0);
+            if (matrix instanceof FloatMatrixImpl) {
+                FloatMatrixImpl F = (FloatMatrixImpl) matrix;
+                for (int i = 0; i < m; i++) {
+                    putDoubles(F._values, F._offset + i * F._rowStride, n,
+                            F._colStride);
+                }
+            } else if (matrix instanceof FloatMatrix) { // No copy (e.g. mapped).
+                FloatMatrix F = (FloatMatrix) matrix;
+                for (int i = 0; i < m; i++) {
+                    for (int j = 0; j < n; j++) {
+                        putDouble(F.getValue(i, j));
+                    }
+                }
+            } else {
+                for (int i = 0; i < m; i++) {
+                    for (int j = 0; j < n; j++) {
+                        putDouble(((Float64) matrix.get(i, j)).doubleValue());
+                    }
+                }
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Writes the specified vector (and flushes the buffer if a channel is
+     * written).
+     *
+     * @param vector the vector of real ({@link Float64}) or complex
+     *        numbers.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the elements are not real or
+     *         complex numbers.
+     * @throws BufferOverflowException if there is no channel and the
+     *         buffer is too small.
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Vector<?> vector) throws IOException {
+        final int n = vector.getDimension();
+        final boolean complex = isComplex(vector);
+        if (vector instanceof SparseVectorImpl) {
+            SparseVectorImpl<?> S = (SparseVectorImpl<?>) vector;
+            final int nnz = S._indices.length;
+            header(VECTOR, SPARSE, complex, n, 0, nnz);
+            putInts(S._indices, 0, nnz);
+            padding();
+            putElements(S._elements, nnz, complex);
+        } else if (complex) {
+            header(VECTOR, DENSE, true, n, 0, 0);
+            ComplexVectorImpl C = ComplexVectorImpl
+                    .valueOf((Vector<Complex>) vector);
+            putDoubles(C._real, C._offset, n, C._stride);
+            putDoubles(C._imaginary, C._offset, n, C._stride);
+        } else {
+            header(VECTOR, DENSE, false, n, 0, 0);
+            FloatVectorImpl F = FloatVectorImpl.valueOf((Vector<Float64>) vector);
+            putDoubles(F._values, F._offset, n, F._stride);
+        }
+        flush();
+    }
+
+    /**
+     * Reads a matrix; the elements are {@link Float64} or {@link Complex}
+     * numbers, sparse matrices are returned in their original format (CSR
+     * or CSC).
+     *
+     * @return the matrix read.
+     * @throws IOException if an I/O error occurs or the content is not a
+     *         valid matrix.
+     * @throws BufferUnderflowException if there is no channel and the
+     *         buffer is incomplete.
+     */
+    public Matrix<?> readMatrix() throws IOException {
+        int[] header = header(MATRIX);
+        final int storage = header[0];
+        final boolean complex = header[1] == COMPLEX;
+        final int m = header[2];
+        final int n = header[3];
+        final int nnz = header[4];
+        if (storage == DENSE) {
+            if ((long) m * n > Integer.MAX_VALUE)
+                throw new IOException(m + "x" + n + " matrix too large");
+            double[] re = getDoubles(m * n);
+            if (complex)
+                return new ComplexMatrixImpl(m, n, re, getDoubles(m * n), 0,
+                        n, 1);
+            return FloatMatrixImpl.wrap(m, n, re);
+        }
+        if ((storage != CSR) && (storage != CSC))
+            throw new IOException("Invalid matrix storage " + storage);
+        final boolean columnMajor = storage == CSC;
+        final int majors = columnMajor ? n : m;
+        int[] pointers = getInts(majors + 1);
+        int[] indices = getInts(nnz);
+        skipPadding();
+        try {
+            SparseKernel.check(majors, columnMajor ? m : n, pointers, indices);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (pointers[majors] != nnz)
+            throw new IOException("Invalid pointers");
+        if (complex)
+            return new SparseMatrixImpl<Complex>(m, n, columnMajor, pointers,
+                    indices, getComplexes(nnz), Complex.ZERO);
+        return new FloatSparseMatrixImpl(m, n, columnMajor, pointers,
+                indices, getDoubles(nnz));
+    }
+
+    /**
+     * Reads a vector; the elements are {@link Float64} or {@link Complex}
+     * numbers.
+     *
+     * @return the vector read.
+     * @throws IOException if an I/O error occurs or the content is not a
+     *         valid vector.
+     * @throws BufferUnderflowException if there is no channel and the
+     *         buffer is incomplete.
+     */
+    public Vector<?> readVector() throws IOException {
+        int[] header = header(VECTOR);
+        final int storage = header[0];
+        final boolean complex = header[1] == COMPLEX;
+        final int n = header[2];
+        final int nnz = header[4];
+        if (storage == DENSE) {
+            double[] re = getDoubles(n);
+            if (complex)
+                return new ComplexVectorImpl(re, getDoubles(n), 0, 1, n);
+            return new FloatVectorImpl(re, 0, 1, n);
+        }
+        if (storage != SPARSE)
+            throw new IOException("Invalid vector storage " + storage);
+        int[] indices = getInts(nnz);
+        skipPadding();
+        try {
+            SparseKernel.check(1, n, new int[] { 0, nnz }, indices);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (complex)
+            return new SparseVectorImpl<Complex>(n, Complex.ZERO, indices,
+                    getComplexes(nnz));
+        double[] values = getDoubles(nnz);
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = Float64.valueOf(values[k]);
+        }
+        return new SparseVectorImpl<Float64>(n, Float64.ZERO, indices,
+                elements);
+    }
+
+    /**
+     * Indicates if the elements of the specified matrix are complex
+     * numbers.
+     */
+    private static boolean isComplex(Matrix<?> matrix) {
+        if (matrix instanceof FloatMatrix)
+            return false;
+        if (matrix instanceof ComplexMatrix)
+            return true;
+        Object sample = (matrix instanceof AbstractSparseMatrix) ? ((AbstractSparseMatrix<?>) matrix)._zero
+                : ((matrix.getRowDimension() == 0) || (matrix
+                        .getColumnDimension() == 0)) ? null : matrix.get(0, 0);
+        return isComplex(sample);
+    }
+
+    /**
+     * Indicates if the elements of the specified vector are complex
+     * numbers.
+     */
+    private static boolean isComplex(Vector<?> vector) {
+        if (vector instanceof FloatVector)
+            return false;
+        if (vector instanceof ComplexVector)
+            return true;
+        Object sample = (vector instanceof SparseVector) ? ((SparseVector<?>) vector)
+                .getZero()
+                : (vector.getDimension() == 0) ? null : vector.get(0);
+        return isComplex(sample);
+    }
+
+    /**
+     * Indicates if the specified element is a complex number.
+     */
+    private static boolean isComplex(Object sample) {
+        if (sample instanceof Complex)
+            return true;
+        if ((sample == null) || (sample instanceof Float64))
+            return false;
+        throw new IllegalArgumentException(sample.getClass()
+                + " elements are not real or complex numbers");
+    }
+
+    /**
+     * Returns the specified size rounded up to a multiple of 8.
+     */
+    private static long pad(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Writes the header.
+     */
+    private void header(int object, int storage, boolean complex, int rows,
+            int columns, int nnz) throws IOException {
+        reserve(HEADER_SIZE);
+        _buffer.putInt(MAGIC);
+        _buffer.putShort((short) VERSION);
+        _buffer.put((byte) object);
+        _buffer.put((byte) storage);
+        _buffer.put((byte) (complex ? COMPLEX : REAL));
+        for (int i = 0; i < 7; i++) {
+            _buffer.put((byte) 0);
+        }
+        _buffer.putInt(rows);
+        _buffer.putInt(columns);
+        _buffer.putLong(nnz);
+        _count += HEADER_SIZE;
+    }
+
+    /**
+     * Reads the header and returns the storage, the element kind, the
+     * dimensions and the number of non-zero elements.
+     */
+    private int[] header(int object) throws IOException {
+        require(HEADER_SIZE, HEADER_SIZE);
+        if (_buffer.getInt() != MAGIC)
+            throw new IOException("Not a binary matrix/vector");
+        int version = _buffer.getShort();
+        if ((version < 1) || (version > VERSION))
+            throw new IOException("Unsupported version " + version);
+        int kind = _buffer.get();
+        int storage = _buffer.get();
+        int elements = _buffer.get();
+        _buffer.position(_buffer.position() + 7);
+        int rows = _buffer.getInt();
+        int columns = _buffer.getInt();
+        long nnz = _buffer.getLong();
+        _count += HEADER_SIZE;
+        if (kind != object)
+            throw new IOException((kind == VECTOR) ? "Vector found"
+                    : "Matrix found");
+        if ((elements != REAL) && (elements != COMPLEX))
+            throw new IOException("Invalid elements " + elements);
+        if ((rows < 0) || (columns < 0) || (nnz < 0)
+                || (nnz > Integer.MAX_VALUE))
+            throw new IOException("Invalid dimensions");
+        return new int[] { storage, elements, rows, columns, (int) nnz };
+    }
+
+    /**
+     * Writes the padding to the next multiple of 8 bytes.
+     */
+    private void padding() throws IOException {
+        int size = (int) (pad(_count) - _count);
+        reserve(size);
+        for (int i = 0; i < size; i++) {
+            _buffer.put((byte) 0);
+        }
+        _count += size;
+    }
+
+    /**
+     * Skips the padding to the next multiple of 8 bytes.
+     */
+    private void skipPadding() throws IOException {
+        int size = (int) (pad(_count) - _count);
+        require(size, size);
+        _buffer.position(_buffer.position() + size);
+        _count += size;
+    }
+
+    /**
+     * Writes the specified value.
+     */
+    private void putDouble(double value) throws IOException {
+        reserve(8);
+        _buffer.putDouble(value);
+        _count += 8;
+    }
+
+    /**
+     * Writes the specified values (bulk transfer if contiguous).
+     */
+    private void putDoubles(double[] values, int offset, int length,
+            int stride) throws IOException {
+        if (stride != 1) {
+            for (int i = 0, k = offset; i < length; i++, k += stride) {
+                putDouble(values[k]);
+            }
+            return;
+        }
+        while (length > 0) {
+            reserve(8);
+            int count = Math.min(length, _buffer.remaining() >> 3);
+            _buffer.asDoubleBuffer().put(values, offset, count);
+            _buffer.position(_buffer.position() + (count << 3));
+            _count += count << 3;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the specified values (bulk transfer).
+     */
+    private void putInts(int[] values, int offset, int length)
+            throws IOException {
+        while (length > 0) {
+            reserve(4);
+            int count = Math.min(length, _buffer.remaining() >> 2);
+            _buffer.asIntBuffer().put(values, offset, count);
+            _buffer.position(_buffer.position() + (count << 2));
+            _count += count << 2;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the specified real or complex elements (real parts first).
+     */
+    private void putElements(Object[] elements, int nnz, boolean complex)
+            throws IOException {
+        for (int k = 0; k < nnz; k++) {
+            putDouble(complex ? ((Complex) elements[k]).getReal()
+                    : ((Float64) elements[k]).doubleValue());
+        }
+        if (!complex)
+            return;
+        for (int k = 0; k < nnz; k++) {
+            putDouble(((Complex) elements[k]).getImaginary());
+        }
+    }
+
+    /**
+     * Reads the specified number of values (bulk transfer).
+     */
+    private double[] getDoubles(int length) throws IOException {
+        double[] values = new double[length];
+        for (int offset = 0; offset < length;) {
+            require(8, (long) (length - offset) << 3);
+            int count = Math.min(length - offset, _buffer.remaining() >> 3);
+            _buffer.asDoubleBuffer().get(values, offset, count);
+            _buffer.position(_buffer.position() + (count << 3));
+            _count += count << 3;
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * Reads the specified number of values (bulk transfer).
+     */
+    private int[] getInts(int length) throws IOException {
+        int[] values = new int[length];
+        for (int offset = 0; offset < length;) {
+            require(4, (long) (length - offset) << 2);
+            int count = Math.min(length - offset, _buffer.remaining() >> 2);
+            _buffer.asIntBuffer().get(values, offset, count);
+            _buffer.position(_buffer.position() + (count << 2));
+            _count += count << 2;
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * Reads the specified number of complex elements.
+     */
+    private Object[] getComplexes(int nnz) throws IOException {
+        double[] re = getDoubles(nnz);
+        double[] im = getDoubles(nnz);
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = Complex.valueOf(re[k], im[k]);
+        }
+        return elements;
+    }
+
+    /**
+     * Ensures that the specified number of bytes can be written, draining
+     * the buffer to the channel if necessary.
+     */
+    private void reserve(int size) throws IOException {
+        if (_buffer.remaining() >= size)
+            return;
+        if (_out == null)
+            throw new BufferOverflowException();
+        flush();
+    }
+
+    /**
+     * Writes the content of the buffer to the channel (if any).
+     */
+    private void flush() throws IOException {
+        if (_out == null)
+            return;
+        _buffer.flip();
+        while (_buffer.hasRemaining()) {
+            _out.write(_buffer);
+        }
+        _buffer.clear();
+    }
+
+    /**
+     * Ensures that the specified number of bytes can be read, refilling
+     * the buffer from the channel if necessary; no more than the bytes
+     * wanted (remaining bytes of the current section) are read from the
+     * channel, which is then positioned at the end of the object once
+     * decoded.
+     */
+    private void require(int size, long wanted) throws IOException {
+        if (_buffer.remaining() >= size)
+            return;
+        if (_in == null)
+            throw new BufferUnderflowException();
+        _buffer.compact();
+        _buffer.limit((int) Math.min(_buffer.capacity(), wanted));
+        while (_buffer.position() < size) {
+            if (_in.read(_buffer) < 0)
+                throw new EOFException("Unexpected end of channel");
+        }
+        _buffer.flip();
+    }
+}
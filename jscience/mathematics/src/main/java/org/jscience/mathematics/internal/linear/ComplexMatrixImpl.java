@@ -0,0 +1,458 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.ComplexMatrix;
+import org.jscience.mathematics.linear.ComplexVector;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Complex;
+
+/**
+ * <p> This class represents a dense matrix of 64 bits floating points
+ *     complex numbers; the real and imaginary parts are stored in two
+ *     distinct <code>double</code> arrays (split storage) sharing the same
+ *     offset and row/column strides (row-major when created). The
+ *     {@link #transpose transpose}, the {@link #getRow rows}, the
+ *     {@link #getColumn columns}, the {@link #getDiagonal diagonal} and the
+ *     {@link #getSubMatrix(int, int, int, int) sub-matrices} (ranges or
+ *     equally spaced indices) are views sharing these arrays (no copy).</p>
+ *
+ * <p> The split storage allows for the matrix product to be calculated
+ *     with four real products by the {@link Float64Kernel}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class ComplexMatrixImpl extends AbstractMatrix<Complex> implements
+        ComplexMatrix {
+
+    /**
+     * Holds the real parts (never modified once the matrix is created).
+     */
+    final double[] _real;
+
+    /**
+     * Holds the imaginary parts (never modified once the matrix is created).
+     */
+    final double[] _imaginary;
+
+    /**
+     * Holds the index of the element <code>[0,0]</code>.
+     */
+    final int _offset;
+
+    /**
+     * Holds the index increment between two consecutive rows.
+     */
+    final int _rowStride;
+
+    /**
+     * Holds the index increment between two consecutive columns.
+     */
+    final int _colStride;
+
+    /**
+     * Holds the number of rows.
+     */
+    final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    final int _n;
+
+    /**
+     * Creates a matrix view over the specified real and imaginary parts.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param real the real parts (shared).
+     * @param imaginary the imaginary parts (shared).
+     * @param offset the index of the element <code>[0,0]</code>.
+     * @param rowStride the index increment between two consecutive rows.
+     * @param colStride the index increment between two consecutive columns.
+     */
+    ComplexMatrixImpl(int m, int n, double[] real, double[] imaginary,
+            int offset, int rowStride, int colStride) {
+        _m = m;
+        _n = n;
+        _real = real;
+        _imaginary = imaginary;
+        _offset = offset;
+        _rowStride = rowStride;
+        _colStride = colStride;
+    }
+
+    /**
+     * Returns a matrix holding the specified row vectors.
+     *
+     * @param rows the row vectors.
+     * @return the matrix having the specified rows.
+     * @throws DimensionException if the rows do not have the same dimension.
+     */
+    public static ComplexMatrixImpl valueOf(Vector<Complex>... rows) {
+        final int m = rows.length;
+        final int n = (m == 0) ? 0 : rows[0].getDimension();
+        double[] real = new double[m * n];
+        double[] imaginary = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            ComplexVectorImpl row = ComplexVectorImpl.valueOf(rows[i]);
+            AbstractVector.checkDimension(n, row._dimension);
+            for (int j = 0; j < n; j++) {
+                int index = row._offset + j * row._stride;
+                real[i * n + j] = row._real[index];
+                imaginary[i * n + j] = row._imaginary[index];
+            }
+        }
+        return new ComplexMatrixImpl(m, n, real, imaginary, 0, n, 1);
+    }
+
+    /**
+     * Returns a complex matrix equivalent to the specified matrix.
+     *
+     * @param that the matrix to convert.
+     * @return <code>that</code> or a complex matrix holding the same values.
+     */
+    public static ComplexMatrixImpl valueOf(Matrix<Complex> that) {
+        if (that instanceof ComplexMatrixImpl)
+            return (ComplexMatrixImpl) that;
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        double[] real = new double[m * n];
+        double[] imaginary = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                Complex e = that.get(i, j);
+                real[i * n + j] = e.getReal();
+                imaginary[i * n + j] = e.getImaginary();
+            }
+        }
+        return new ComplexMatrixImpl(m, n, real, imaginary, 0, n, 1);
+    }
+
+    @Override
+    public int getRowDimension() {
+        return _m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    @Override
+    public double getRealValue(int i, int j) {
+        return _real[index(i, j)];
+    }
+
+    @Override
+    public double getImaginaryValue(int i, int j) {
+        return _imaginary[index(i, j)];
+    }
+
+    @Override
+    public Complex get(int i, int j) {
+        int index = index(i, j);
+        return Complex.valueOf(_real[index], _imaginary[index]);
+    }
+
+    /**
+     * Returns the array index of the element at the specified position.
+     */
+    private int index(int i, int j) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        return _offset + i * _rowStride + j * _colStride;
+    }
+
+    @Override
+    public ComplexVector getRow(int i) {
+        AbstractVector.checkIndex(i, _m);
+        return new ComplexVectorImpl(_real, _imaginary, _offset + i
+                * _rowStride, _colStride, _n);
+    }
+
+    @Override
+    public ComplexVector getColumn(int j) {
+        AbstractVector.checkIndex(j, _n);
+        return new ComplexVectorImpl(_real, _imaginary, _offset + j
+                * _colStride, _rowStride, _m);
+    }
+
+    @Override
+    public ComplexVector getDiagonal() {
+        return new ComplexVectorImpl(_real, _imaginary, _offset, _rowStride
+                + _colStride, Math.min(_m, _n));
+    }
+
+    @Override
+    public ComplexMatrix getSubMatrix(List<Index> rows, List<Index> columns) {
+        final int m = rows.size();
+        final int n = columns.size();
+        int rowStep = step(rows, _m);
+        int colStep = step(columns, _n);
+        if ((rowStep != IRREGULAR) && (colStep != IRREGULAR))
+            return new ComplexMatrixImpl(m, n, _real, _imaginary, index(rows
+                    .get(0).intValue(), columns.get(0).intValue()), rowStep
+                    * _rowStride, colStep * _colStride); // View.
+        double[] real = new double[m * n];
+        double[] imaginary = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                int index = index(rows.get(i).intValue(), columns.get(j)
+                        .intValue());
+                real[i * n + j] = _real[index];
+                imaginary[i * n + j] = _imaginary[index];
+            }
+        }
+        return new ComplexMatrixImpl(m, n, real, imaginary, 0, n, 1);
+    }
+
+    @Override
+    public ComplexMatrix getSubMatrix(int fromRow, int toRow, int fromColumn,
+            int toColumn) {
+        checkRange(fromRow, toRow, _m);
+        checkRange(fromColumn, toColumn, _n);
+        return new ComplexMatrixImpl(toRow - fromRow, toColumn - fromColumn,
+                _real, _imaginary, _offset + fromRow * _rowStride + fromColumn
+                        * _colStride, _rowStride, _colStride);
+    }
+
+    @Override
+    public ComplexMatrix opposite() {
+        return combine(-1.0, 0.0, null, 0.0);
+    }
+
+    @Override
+    public ComplexMatrix plus(Matrix<Complex> that) {
+        return combine(1.0, 0.0, that, 1.0);
+    }
+
+    @Override
+    public ComplexMatrix minus(Matrix<Complex> that) {
+        return combine(1.0, 0.0, that, -1.0);
+    }
+
+    @Override
+    public ComplexMatrix times(Complex k) {
+        return combine(k.getReal(), k.getImaginary(), null, 0.0);
+    }
+
+    /**
+     * Returns <code>k · this + l · that</code> (<code>that</code> being
+     * ignored if <code>null</code>).
+     */
+    private ComplexMatrix combine(final double kRe, final double kIm,
+            Matrix<Complex> that, final double l) {
+        final ComplexMatrixImpl M;
+        if (that != null) {
+            if ((that.getRowDimension() != _m)
+                    || (that.getColumnDimension() != _n))
+                throw new DimensionException();
+            M = ComplexMatrixImpl.valueOf(that);
+        } else {
+            M = null;
+        }
+        final double[] real = new double[_m * _n];
+        final double[] imaginary = new double[_m * _n];
+        Scheduler.execute(_m, 4L * _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    for (int j = 0; j < _n; j++) {
+                        int index = _offset + i * _rowStride + j * _colStride;
+                        double re = _real[index];
+                        double im = _imaginary[index];
+                        double resultRe = kRe * re - kIm * im;
+                        double resultIm = kRe * im + kIm * re;
+                        if (M != null) {
+                            int mIndex = M._offset + i * M._rowStride + j
+                                    * M._colStride;
+                            resultRe += l * M._real[mIndex];
+                            resultIm += l * M._imaginary[mIndex];
+                        }
+                        real[i * _n + j] = resultRe;
+                        imaginary[i * _n + j] = resultIm;
+                    }
+                }
+            }
+        });
+        return new ComplexMatrixImpl(_m, _n, real, imaginary, 0, _n, 1);
+    }
+
+    @Override
+    public ComplexVector times(Vector<Complex> v) {
+        AbstractVector.checkDimension(_n, v.getDimension());
+        final ComplexVectorImpl V = ComplexVectorImpl.valueOf(v);
+        final double[] real = new double[_m];
+        final double[] imaginary = new double[_m];
+        Scheduler.execute(_m, 8L * _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    double sumRe = 0;
+                    double sumIm = 0;
+                    for (int j = 0; j < _n; j++) {
+                        int index = _offset + i * _rowStride + j * _colStride;
+                        int vIndex = V._offset + j * V._stride;
+                        double re = _real[index];
+                        double im = _imaginary[index];
+                        double vRe = V._real[vIndex];
+                        double vIm = V._imaginary[vIndex];
+                        sumRe += re * vRe - im * vIm;
+                        sumIm += re * vIm + im * vRe;
+                    }
+                    real[i] = sumRe;
+                    imaginary[i] = sumIm;
+                }
+            }
+        });
+        return new ComplexVectorImpl(real, imaginary, 0, 1, _m);
+    }
+
+    @Override
+    public ComplexMatrix times(Matrix<Complex> that) {
+        if (that.getRowDimension() != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        ComplexMatrixImpl M = ComplexMatrixImpl.valueOf(that);
+        final int p = M._n;
+        double[] real = new double[_m * p];
+        double[] imaginary = new double[_m * p];
+        // (Ar + i·Ai)·(Br + i·Bi) = (Ar·Br - Ai·Bi) + i·(Ar·Bi + Ai·Br)
+        Float64Kernel.multiply(_m, _n, p, 1.0, _real, _offset, _rowStride,
+                _colStride, M._real, M._offset, M._rowStride, M._colStride,
+                0.0, real, 0, p);
+        Float64Kernel.multiply(_m, _n, p, -1.0, _imaginary, _offset,
+                _rowStride, _colStride, M._imaginary, M._offset, M._rowStride,
+                M._colStride, 1.0, real, 0, p);
+        Float64Kernel.multiply(_m, _n, p, 1.0, _real, _offset, _rowStride,
+                _colStride, M._imaginary, M._offset, M._rowStride,
+                M._colStride, 0.0, imaginary, 0, p);
+        Float64Kernel.multiply(_m, _n, p, 1.0, _imaginary, _offset,
+                _rowStride, _colStride, M._real, M._offset, M._rowStride,
+                M._colStride, 1.0, imaginary, 0, p);
+        return new ComplexMatrixImpl(_m, p, real, imaginary, 0, p, 1);
+    }
+
+    @Override
+    public ComplexMatrix inverse() {
+        return ComplexMatrixImpl.valueOf(super.inverse());
+    }
+
+    @Override
+    public ComplexMatrix divide(Matrix<Complex> that) {
+        return this.times(that.inverse());
+    }
+
+    @Override
+    public ComplexMatrix pseudoInverse() {
+        return ComplexMatrixImpl.valueOf(super.pseudoInverse());
+    }
+
+    @Override
+    public ComplexMatrix transpose() {
+        return new ComplexMatrixImpl(_n, _m, _real, _imaginary, _offset,
+                _colStride, _rowStride);
+    }
+
+    @Override
+    public ComplexMatrix adjoint() {
+        return ComplexMatrixImpl.valueOf(super.adjoint());
+    }
+
+    @Override
+    public ComplexVector solve(Vector<Complex> y) {
+        return ComplexVectorImpl.valueOf(super.solve(y));
+    }
+
+    @Override
+    public ComplexMatrix solve(Matrix<Complex> y) {
+        return ComplexMatrixImpl.valueOf(super.solve(y));
+    }
+
+    @Override
+    public ComplexMatrix pow(int exp) {
+        return ComplexMatrixImpl.valueOf(super.pow(exp));
+    }
+
+    @Override
+    public ComplexMatrix tensor(Matrix<Complex> that) {
+        // If this is a m-by-n matrix and that is a p-by-q matrix,
+        // then the Kronecker product is the mp-by-nq block.
+        ComplexMatrixImpl M = ComplexMatrixImpl.valueOf(that);
+        final int p = M._m;
+        final int q = M._n;
+        final int columns = _n * q;
+        double[] real = new double[_m * p * columns];
+        double[] imaginary = new double[_m * p * columns];
+        for (int i0 = 0; i0 < _m; i0++) {
+            for (int j0 = 0; j0 < _n; j0++) {
+                int index = _offset + i0 * _rowStride + j0 * _colStride;
+                double re = _real[index];
+                double im = _imaginary[index];
+                for (int i1 = 0; i1 < p; i1++) {
+                    for (int j1 = 0; j1 < q; j1++) {
+                        int mIndex = M._offset + i1 * M._rowStride + j1
+                                * M._colStride;
+                        int k = (i0 * p + i1) * columns + j0 * q + j1;
+                        real[k] = re * M._real[mIndex] - im
+                                * M._imaginary[mIndex];
+                        imaginary[k] = re * M._imaginary[mIndex] + im
+                                * M._real[mIndex];
+                    }
+                }
+            }
+        }
+        return new ComplexMatrixImpl(_m * p, columns, real, imaginary, 0,
+                columns, 1);
+    }
+
+    @Override
+    public ComplexVector vectorization() {
+        double[] real = new double[_m * _n];
+        double[] imaginary = new double[_m * _n];
+        for (int j = 0; j < _n; j++) { // For each column.
+            for (int i = 0; i < _m; i++) {
+                int index = _offset + i * _rowStride + j * _colStride;
+                real[j * _m + i] = _real[index];
+                imaginary[j * _m + i] = _imaginary[index];
+            }
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, _m * _n);
+    }
+
+    @Override
+    public ComplexMatrixImpl copy() {
+        double[] real = new double[_m * _n];
+        double[] imaginary = new double[_m * _n];
+        for (int i = 0; i < _m; i++) {
+            for (int j = 0; j < _n; j++) {
+                int index = _offset + i * _rowStride + j * _colStride;
+                real[i * _n + j] = _real[index];
+                imaginary[i * _n + j] = _imaginary[index];
+            }
+        }
+        return new ComplexMatrixImpl(_m, _n, real, imaginary, 0, _n, 1);
+    }
+
+    @Override
+    public void export() {
+        // Values are always held in global memory.
+    }
+}
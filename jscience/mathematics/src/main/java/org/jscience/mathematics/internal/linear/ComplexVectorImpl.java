@@ -0,0 +1,337 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.FastTable;
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.ComplexMatrix;
+import org.jscience.mathematics.linear.ComplexVector;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Complex;
+
+/**
+ * <p> This class represents a dense vector of 64 bits floating points
+ *     complex numbers; the real and imaginary parts are stored in two
+ *     distinct <code>double</code> arrays (split storage) sharing the same
+ *     offset and stride. The rows, columns and diagonal of
+ *     {@link ComplexMatrixImpl complex matrices} are vectors sharing the
+ *     matrix arrays (no copy).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class ComplexVectorImpl extends AbstractVector<Complex> implements
+        ComplexVector {
+
+    /**
+     * Holds the real parts (never modified once the vector is created).
+     */
+    final double[] _real;
+
+    /**
+     * Holds the imaginary parts (never modified once the vector is created).
+     */
+    final double[] _imaginary;
+
+    /**
+     * Holds the index of the first element.
+     */
+    final int _offset;
+
+    /**
+     * Holds the index increment between two consecutive elements.
+     */
+    final int _stride;
+
+    /**
+     * Holds the dimension.
+     */
+    final int _dimension;
+
+    /**
+     * Creates a vector view over the specified real and imaginary parts.
+     *
+     * @param real the real parts (shared).
+     * @param imaginary the imaginary parts (shared).
+     * @param offset the index of the first element.
+     * @param stride the index increment between two consecutive elements.
+     * @param dimension the vector dimension.
+     */
+    ComplexVectorImpl(double[] real, double[] imaginary, int offset,
+            int stride, int dimension) {
+        _real = real;
+        _imaginary = imaginary;
+        _offset = offset;
+        _stride = stride;
+        _dimension = dimension;
+    }
+
+    /**
+     * Returns a vector holding the specified real and imaginary values.
+     *
+     * @param realValues the real parts (copied).
+     * @param imaginaryValues the imaginary parts (copied).
+     * @return the corresponding complex vector.
+     * @throws DimensionException if the arrays have different length.
+     */
+    public static ComplexVectorImpl valueOf(double[] realValues,
+            double[] imaginaryValues) {
+        checkDimension(realValues.length, imaginaryValues.length);
+        return new ComplexVectorImpl(realValues.clone(),
+                imaginaryValues.clone(), 0, 1, realValues.length);
+    }
+
+    /**
+     * Returns a vector holding the specified complex elements.
+     *
+     * @param elements the vector elements.
+     * @return the vector having the specified elements.
+     */
+    public static ComplexVectorImpl valueOf(Complex... elements) {
+        final int n = elements.length;
+        double[] real = new double[n];
+        double[] imaginary = new double[n];
+        for (int i = 0; i < n; i++) {
+            real[i] = elements[i].getReal();
+            imaginary[i] = elements[i].getImaginary();
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, n);
+    }
+
+    /**
+     * Returns a complex vector equivalent to the specified vector.
+     *
+     * @param that the vector to convert.
+     * @return <code>that</code> or a complex vector holding the same values.
+     */
+    public static ComplexVectorImpl valueOf(Vector<Complex> that) {
+        if (that instanceof ComplexVectorImpl)
+            return (ComplexVectorImpl) that;
+        final int n = that.getDimension();
+        double[] real = new double[n];
+        double[] imaginary = new double[n];
+        for (int i = 0; i < n; i++) {
+            Complex e = that.get(i);
+            real[i] = e.getReal();
+            imaginary[i] = e.getImaginary();
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, n);
+    }
+
+    @Override
+    public double getRealValue(int i) {
+        checkIndex(i, _dimension);
+        return _real[_offset + i * _stride];
+    }
+
+    @Override
+    public double getImaginaryValue(int i) {
+        checkIndex(i, _dimension);
+        return _imaginary[_offset + i * _stride];
+    }
+
+    @Override
+    public Complex get(int i) {
+        checkIndex(i, _dimension);
+        int index = _offset + i * _stride;
+        return Complex.valueOf(_real[index], _imaginary[index]);
+    }
+
+    @Override
+    public int getDimension() {
+        return _dimension;
+    }
+
+    @Override
+    public FastTable<Complex> getData() {
+        FastTable<Complex> data = new FastTable<Complex>();
+        for (int i = 0, index = _offset; i < _dimension; i++, index += _stride) {
+            data.add(Complex.valueOf(_real[index], _imaginary[index]));
+        }
+        return data.unmodifiable();
+    }
+
+    @Override
+    public double normValue() {
+        double normSquare = 0;
+        for (int i = 0, index = _offset; i < _dimension; i++, index += _stride) {
+            double re = _real[index];
+            double im = _imaginary[index];
+            normSquare += re * re + im * im;
+        }
+        return Math.sqrt(normSquare);
+    }
+
+    @Override
+    public Complex norm() {
+        return Complex.valueOf(normValue(), 0.0);
+    }
+
+    @Override
+    public ComplexMatrix asColumn() {
+        return new ComplexMatrixImpl(_dimension, 1, _real, _imaginary,
+                _offset, _stride, _stride);
+    }
+
+    @Override
+    public ComplexMatrix asRow() {
+        return new ComplexMatrixImpl(1, _dimension, _real, _imaginary,
+                _offset, _stride * _dimension, _stride);
+    }
+
+    @Override
+    public ComplexMatrix asDiagonal() {
+        final int n = _dimension;
+        double[] real = new double[n * n];
+        double[] imaginary = new double[n * n];
+        for (int i = 0, index = _offset; i < n; i++, index += _stride) {
+            real[i * n + i] = _real[index];
+            imaginary[i * n + i] = _imaginary[index];
+        }
+        return new ComplexMatrixImpl(n, n, real, imaginary, 0, n, 1);
+    }
+
+    @Override
+    public ComplexVector getSubVector(List<Index> indices) {
+        final int n = indices.size();
+        double[] real = new double[n];
+        double[] imaginary = new double[n];
+        for (int i = 0; i < n; i++) {
+            int j = indices.get(i).intValue();
+            checkIndex(j, _dimension);
+            real[i] = _real[_offset + j * _stride];
+            imaginary[i] = _imaginary[_offset + j * _stride];
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, n);
+    }
+
+    @Override
+    public ComplexVector cross(Vector<Complex> that) {
+        if ((_dimension != 3) || (that.getDimension() != 3))
+            throw new DimensionException(
+                    "The cross product of two vectors requires "
+                            + "3-dimensional vectors");
+        Complex x = get(1).times(that.get(2)).minus(get(2).times(that.get(1)));
+        Complex y = get(2).times(that.get(0)).minus(get(0).times(that.get(2)));
+        Complex z = get(0).times(that.get(1)).minus(get(1).times(that.get(0)));
+        return valueOf(x, y, z);
+    }
+
+    @Override
+    public ComplexVector opposite() {
+        double[] real = new double[_dimension];
+        double[] imaginary = new double[_dimension];
+        for (int i = 0, index = _offset; i < _dimension; i++, index += _stride) {
+            real[i] = -_real[index];
+            imaginary[i] = -_imaginary[index];
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, _dimension);
+    }
+
+    @Override
+    public ComplexVector plus(Vector<Complex> that) {
+        return plus(that, 1.0);
+    }
+
+    @Override
+    public ComplexVector minus(Vector<Complex> that) {
+        return plus(that, -1.0);
+    }
+
+    /**
+     * Returns <code>this + k · that</code>.
+     */
+    private ComplexVector plus(Vector<Complex> that, double k) {
+        checkDimension(_dimension, that.getDimension());
+        ComplexVectorImpl v = ComplexVectorImpl.valueOf(that);
+        double[] real = new double[_dimension];
+        double[] imaginary = new double[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            int index = _offset + i * _stride;
+            int vIndex = v._offset + i * v._stride;
+            real[i] = _real[index] + k * v._real[vIndex];
+            imaginary[i] = _imaginary[index] + k * v._imaginary[vIndex];
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, _dimension);
+    }
+
+    @Override
+    public ComplexVector times(Complex k) {
+        final double kr = k.getReal();
+        final double ki = k.getImaginary();
+        double[] real = new double[_dimension];
+        double[] imaginary = new double[_dimension];
+        for (int i = 0, index = _offset; i < _dimension; i++, index += _stride) {
+            double re = _real[index];
+            double im = _imaginary[index];
+            real[i] = re * kr - im * ki;
+            imaginary[i] = re * ki + im * kr;
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, _dimension);
+    }
+
+    @Override
+    public Complex times(Vector<Complex> that) {
+        checkDimension(_dimension, that.getDimension());
+        ComplexVectorImpl v = ComplexVectorImpl.valueOf(that);
+        double sumRe = 0;
+        double sumIm = 0;
+        for (int i = 0; i < _dimension; i++) {
+            int index = _offset + i * _stride;
+            int vIndex = v._offset + i * v._stride;
+            double re = _real[index];
+            double im = _imaginary[index];
+            double vRe = v._real[vIndex];
+            double vIm = v._imaginary[vIndex];
+            sumRe += re * vRe - im * vIm;
+            sumIm += re * vIm + im * vRe;
+        }
+        return Complex.valueOf(sumRe, sumIm);
+    }
+
+    @Override
+    public ComplexMatrix tensor(Vector<Complex> that) {
+        ComplexVectorImpl v = ComplexVectorImpl.valueOf(that);
+        final int m = _dimension;
+        final int n = v._dimension;
+        double[] real = new double[m * n];
+        double[] imaginary = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            double re = _real[_offset + i * _stride];
+            double im = _imaginary[_offset + i * _stride];
+            for (int j = 0; j < n; j++) {
+                double vRe = v._real[v._offset + j * v._stride];
+                double vIm = v._imaginary[v._offset + j * v._stride];
+                real[i * n + j] = re * vRe - im * vIm;
+                imaginary[i * n + j] = re * vIm + im * vRe;
+            }
+        }
+        return new ComplexMatrixImpl(m, n, real, imaginary, 0, n, 1);
+    }
+
+    @Override
+    public ComplexVectorImpl copy() {
+        double[] real = new double[_dimension];
+        double[] imaginary = new double[_dimension];
+        for (int i = 0, index = _offset; i < _dimension; i++, index += _stride) {
+            real[i] = _real[index];
+            imaginary[i] = _imaginary[index];
+        }
+        return new ComplexVectorImpl(real, imaginary, 0, 1, _dimension);
+    }
+
+    @Override
+    public void export() {
+        // Values are always held in global memory.
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.lang.Configurable;
+import javolution.util.Index;
+
+import org.jscience.mathematics.internal.vector.LocalSettings;
+import org.jscience.mathematics.linear.DenseMatrix;
+import org.jscience.mathematics.linear.DenseVector;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class represents a dense matrix of generic elements stored in
+ *     a single array with an offset and row/column strides (row-major
+ *     when created). The {@link #transpose transpose}, the
+ *     {@link #getRow rows}, the {@link #getColumn columns}, the
+ *     {@link #getDiagonal diagonal} and the
+ *     {@link #getSubMatrix(int, int, int, int) sub-matrices} (ranges or
+ *     equally spaced indices) are views sharing this array.</p>
+ *
+ * <p> Operations on large matrices are executed concurrently by the
+ *     {@link Scheduler}. The product of large matrices is calculated
+ *     using the Strassen-Winograd recursion (7 products of half size
+ *     instead of 8, executed concurrently) down to
+ *     {@link #WINOGRAD_THRESHOLD}; the saving in field multiplications
+ *     (<code>O(n<sup>2.81</sup>)</code>) outweighs the additional field
+ *     additions for elements such as
+ *     {@link org.jscience.mathematics.number.Rational Rational} or
+ *     {@link org.jscience.mathematics.number.Real Real}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class DenseMatrixImpl<F extends Field<F>> extends AbstractMatrix<F>
+        implements DenseMatrix<F> {
+
+    /**
+     * Holds the minimum dimension (rows and columns of both operands) for
+     * which the matrices product uses the Strassen-Winograd recursion
+     * (default <code>64</code>); the classical product is used below.
+     */
+    public static final Configurable<Integer> WINOGRAD_THRESHOLD = new Configurable<Integer>(
+            64) {};
+
+    /**
+     * Holds the elements (never modified once the matrix is created).
+     */
+    final Object[] _elements;
+
+    /**
+     * Holds the index of the element <code>[0,0]</code>.
+     */
+    final int _offset;
+
+    /**
+     * Holds the index increment between two consecutive rows.
+     */
+    final int _rowStride;
+
+    /**
+     * Holds the index increment between two consecutive columns.
+     */
+    final int _colStride;
+
+    /**
+     * Holds the number of rows.
+     */
+    final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    final int _n;
+
+    /**
+     * Creates a matrix view over the specified elements.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param elements the elements (shared).
+     * @param offset the index of the element <code>[0,0]</code>.
+     * @param rowStride the index increment between two consecutive rows.
+     * @param colStride the index increment between two consecutive columns.
+     */
+    DenseMatrixImpl(int m, int n, Object[] elements, int offset, int rowStride,
+            int colStride) {
+        _m = m;
+        _n = n;
+        _elements = elements;
+        _offset = offset;
+        _rowStride = rowStride;
+        _colStride = colStride;
+    }
+
+    /**
+     * Returns a dense matrix holding the specified row vectors.
+     *
+     * @param rows the row vectors.
+     * @return the matrix having the specified rows.
+     * @throws DimensionException if the rows do not have the same dimension.
+     */
+    public static <F extends Field<F>> DenseMatrixImpl<F> valueOf(
+            Vector<F>... rows) {
+        final int m = rows.length;
+        final int n = (m == 0) ? 0 : rows[0].getDimension();
+        Object[] elements = new Object[m * n];
+        for (int i = 0; i < m; i++) {
+            Vector<F> row = rows[i];
+            AbstractVector.checkDimension(n, row.getDimension());
+            for (int j = 0; j < n; j++) {
+                elements[i * n + j] = row.get(j);
+            }
+        }
+        return new DenseMatrixImpl<F>(m, n, elements, 0, n, 1);
+    }
+
+    /**
+     * Returns a dense matrix equivalent to the specified matrix.
+     *
+     * @param that the matrix to convert.
+     * @return <code>that</code> or a dense matrix holding the same elements.
+     */
+    public static <F extends Field<F>> DenseMatrixImpl<F> valueOf(Matrix<F> that) {
+        if (that instanceof DenseMatrixImpl)
+            return (DenseMatrixImpl<F>) that;
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        Object[] elements = new Object[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                elements[i * n + j] = that.get(i, j);
+            }
+        }
+        return new DenseMatrixImpl<F>(m, n, elements, 0, n, 1);
+    }
+
+    @Override
+    public int getRowDimension() {
+        return _m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    @Override
+    public F get(int i, int j) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        return element(i, j);
+    }
+
+    /**
+     * Returns the element at the specified position (no bound check).
+     */
+    @SuppressWarnings("unchecked")
+    F element(int i, int j) {
+        return (F) _elements[_offset + i * _rowStride + j * _colStride];
+    }
+
+    @Override
+    public DenseVector<F> getRow(int i) {
+        AbstractVector.checkIndex(i, _m);
+        return new DenseVectorImpl<F>(_elements, _offset + i * _rowStride,
+                _colStride, _n);
+    }
+
+    @Override
+    public DenseVector<F> getColumn(int j) {
+        AbstractVector.checkIndex(j, _n);
+        return new DenseVectorImpl<F>(_elements, _offset + j * _colStride,
+                _rowStride, _m);
+    }
+
+    @Override
+    public DenseVector<F> getDiagonal() {
+        return new DenseVectorImpl<F>(_elements, _offset, _rowStride
+                + _colStride, Math.min(_m, _n));
+    }
+
+    @Override
+    public DenseMatrix<F> getSubMatrix(List<Index> rows, List<Index> columns) {
+        final int m = rows.size();
+        final int n = columns.size();
+        int rowStep = step(rows, _m);
+        int colStep = step(columns, _n);
+        if ((rowStep != IRREGULAR) && (colStep != IRREGULAR))
+            return new DenseMatrixImpl<F>(m, n, _elements, _offset
+                    + rows.get(0).intValue() * _rowStride
+                    + columns.get(0).intValue() * _colStride, rowStep
+                    * _rowStride, colStep * _colStride); // View.
+        Object[] elements = new Object[m * n];
+        for (int i = 0; i < m; i++) {
+            int ii = rows.get(i).intValue();
+            AbstractVector.checkIndex(ii, _m);
+            for (int j = 0; j < n; j++) {
+                int jj = columns.get(j).intValue();
+                AbstractVector.checkIndex(jj, _n);
+                elements[i * n + j] = element(ii, jj);
+            }
+        }
+        return new DenseMatrixImpl<F>(m, n, elements, 0, n, 1);
+    }
+
+    @Override
+    public DenseMatrix<F> getSubMatrix(int fromRow, int toRow,
+            int fromColumn, int toColumn) {
+        checkRange(fromRow, toRow, _m);
+        checkRange(fromColumn, toColumn, _n);
+        return new DenseMatrixImpl<F>(toRow - fromRow, toColumn - fromColumn,
+                _elements, _offset + fromRow * _rowStride + fromColumn
+                        * _colStride, _rowStride, _colStride);
+    }
+
+    @Override
+    public DenseMatrix<F> opposite() {
+        final Object[] elements = new Object[_m * _n];
+        forEachRow(_m, (long) _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    for (int j = 0; j < _n; j++) {
+                        elements[i * _n + j] = element(i, j).opposite();
+                    }
+                }
+            }
+        });
+        return new DenseMatrixImpl<F>(_m, _n, elements, 0, _n, 1);
+    }
+
+    @Override
+    public DenseMatrix<F> plus(Matrix<F> that) {
+        return plus(that, false);
+    }
+
+    @Override
+    public DenseMatrix<F> minus(Matrix<F> that) {
+        return plus(that, true);
+    }
+
+    /**
+     * Returns <code>this + that</code> or <code>this - that</code>.
+     */
+    private DenseMatrixImpl<F> plus(Matrix<F> that, final boolean minus) {
+        if ((that.getRowDimension() != _m) || (that.getColumnDimension() != _n))
+            throw new DimensionException();
+        final DenseMatrixImpl<F> M = DenseMatrixImpl.valueOf(that);
+        final Object[] elements = new Object[_m * _n];
+        forEachRow(_m, (long) _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    for (int j = 0; j < _n; j++) {
+                        F e = M.element(i, j);
+                        elements[i * _n + j] = element(i, j).plus(
+                                minus ? e.opposite() : e);
+                    }
+                }
+            }
+        });
+        return new DenseMatrixImpl<F>(_m, _n, elements, 0, _n, 1);
+    }
+
+    @Override
+    public DenseMatrix<F> times(final F k) {
+        final Object[] elements = new Object[_m * _n];
+        forEachRow(_m, (long) _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    for (int j = 0; j < _n; j++) {
+                        elements[i * _n + j] = element(i, j).times(k);
+                    }
+                }
+            }
+        });
+        return new DenseMatrixImpl<F>(_m, _n, elements, 0, _n, 1);
+    }
+
+    @Override
+    public DenseVector<F> times(Vector<F> v) {
+        AbstractVector.checkDimension(_n, v.getDimension());
+        final DenseVectorImpl<F> V = DenseVectorImpl.valueOf(v);
+        final Object[] elements = new Object[_m];
+        forEachRow(_m, 2L * _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    F sum = element(i, 0).times(V.element(0));
+                    for (int j = 1; j < _n; j++) {
+                        sum = sum.plus(element(i, j).times(V.element(j)));
+                    }
+                    elements[i] = sum;
+                }
+            }
+        });
+        return new DenseVectorImpl<F>(elements, 0, 1, _m);
+    }
+
+    @Override
+    public DenseMatrix<F> times(Matrix<F> that) {
+        if (that.getRowDimension() != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        return times(DenseMatrixImpl.valueOf(that), WINOGRAD_THRESHOLD.get());
+    }
+
+    /**
+     * Returns the product of this matrix by the specified one using the
+     * Strassen-Winograd recursion if all dimensions are greater or equal
+     * to the specified threshold; odd dimensions are handled by peeling
+     * the last row/column off.
+     */
+    @SuppressWarnings("unchecked")
+    private DenseMatrixImpl<F> times(final DenseMatrixImpl<F> that,
+            final int threshold) {
+        final int m = _m;
+        final int n = _n;
+        final int p = that._n;
+        if ((m < threshold) || (n < threshold) || (p < threshold)
+                || (threshold < 2))
+            return classicalTimes(that, 0, m, 0, n, 0, p);
+        final int hm = m / 2;
+        final int hn = n / 2;
+        final int hp = p / 2;
+        DenseMatrixImpl<F> A11 = block(0, hm, 0, hn);
+        DenseMatrixImpl<F> A12 = block(0, hm, hn, 2 * hn);
+        DenseMatrixImpl<F> A21 = block(hm, 2 * hm, 0, hn);
+        DenseMatrixImpl<F> A22 = block(hm, 2 * hm, hn, 2 * hn);
+        DenseMatrixImpl<F> B11 = that.block(0, hn, 0, hp);
+        DenseMatrixImpl<F> B12 = that.block(0, hn, hp, 2 * hp);
+        DenseMatrixImpl<F> B21 = that.block(hn, 2 * hn, 0, hp);
+        DenseMatrixImpl<F> B22 = that.block(hn, 2 * hn, hp, 2 * hp);
+        DenseMatrixImpl<F> S1 = A21.plus(A22, false);
+        DenseMatrixImpl<F> S2 = S1.plus(A11, true);
+        DenseMatrixImpl<F> S3 = A11.plus(A21, true);
+        DenseMatrixImpl<F> S4 = A12.plus(S2, true);
+        DenseMatrixImpl<F> T1 = B12.plus(B11, true);
+        DenseMatrixImpl<F> T2 = B22.plus(T1, true);
+        DenseMatrixImpl<F> T3 = B22.plus(B12, true);
+        DenseMatrixImpl<F> T4 = T2.plus(B21, true);
+        final DenseMatrixImpl<F>[] left = new DenseMatrixImpl[] { A11, A12,
+                S4, A22, S1, S2, S3 };
+        final DenseMatrixImpl<F>[] right = new DenseMatrixImpl[] { B11, B21,
+                B22, T4, T1, T2, T3 };
+        final DenseMatrixImpl<F>[] P = new DenseMatrixImpl[7];
+        forEachRow(7, 2L * m * n * p, new Scheduler.Task() { // Sub-products.
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    P[i] = left[i].times(right[i], threshold);
+                }
+            }
+        });
+        DenseMatrixImpl<F> U2 = P[0].plus(P[5], false);
+        DenseMatrixImpl<F> U3 = U2.plus(P[6], false);
+        DenseMatrixImpl<F> U4 = U2.plus(P[4], false);
+        DenseMatrixImpl<F> C11 = P[0].plus(P[1], false);
+        DenseMatrixImpl<F> C12 = U4.plus(P[2], false);
+        DenseMatrixImpl<F> C21 = U3.plus(P[3], true);
+        DenseMatrixImpl<F> C22 = U3.plus(P[4], false);
+        final Object[] elements = new Object[m * p];
+        copy(C11, elements, 0, p);
+        copy(C12, elements, hp, p);
+        copy(C21, elements, hm * p, p);
+        copy(C22, elements, hm * p + hp, p);
+        DenseMatrixImpl<F> C = new DenseMatrixImpl<F>(m, p, elements, 0, p, 1);
+        if ((n & 1) != 0) { // Adds the product of the last column/row.
+            DenseMatrixImpl<F> R = block(0, 2 * hm, n - 1, n).classicalTimes(
+                    that.block(n - 1, n, 0, 2 * hp), 0, 2 * hm, 0, 1, 0, 2 * hp);
+            for (int i = 0; i < 2 * hm; i++) {
+                for (int j = 0; j < 2 * hp; j++) {
+                    elements[i * p + j] = C.element(i, j).plus(R.element(i, j));
+                }
+            }
+        }
+        if ((p & 1) != 0) { // Last column.
+            copy(classicalTimes(that, 0, 2 * hm, 0, n, p - 1, p), elements,
+                    p - 1, p);
+        }
+        if ((m & 1) != 0) { // Last row.
+            copy(classicalTimes(that, m - 1, m, 0, n, 0, p), elements, (m - 1)
+                    * p, p);
+        }
+        return C;
+    }
+
+    /**
+     * Returns the classical product of the block
+     * <code>[fromRow, toRow[ x [fromK, toK[</code> of this matrix by the
+     * block <code>[fromK, toK[ x [fromColumn, toColumn[</code> of the
+     * specified matrix.
+     */
+    private DenseMatrixImpl<F> classicalTimes(final DenseMatrixImpl<F> that,
+            final int fromRow, int toRow, final int fromK, final int toK,
+            final int fromColumn, int toColumn) {
+        final int m = toRow - fromRow;
+        final int p = toColumn - fromColumn;
+        final Object[] elements = new Object[m * p];
+        forEachRow(m, 2L * m * (toK - fromK) * p, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    final int ii = fromRow + i;
+                    for (int j = 0; j < p; j++) {
+                        final int jj = fromColumn + j;
+                        F sum = element(ii, fromK).times(that.element(fromK, jj));
+                        for (int k = fromK + 1; k < toK; k++) {
+                            sum = sum.plus(element(ii, k).times(
+                                    that.element(k, jj)));
+                        }
+                        elements[i * p + j] = sum;
+                    }
+                }
+            }
+        });
+        return new DenseMatrixImpl<F>(m, p, elements, 0, p, 1);
+    }
+
+    /**
+     * Returns a view over the specified block of this matrix (no check).
+     */
+    private DenseMatrixImpl<F> block(int fromRow, int toRow, int fromColumn,
+            int toColumn) {
+        return new DenseMatrixImpl<F>(toRow - fromRow, toColumn - fromColumn,
+                _elements, _offset + fromRow * _rowStride + fromColumn
+                        * _colStride, _rowStride, _colStride);
+    }
+
+    /**
+     * Copies the specified matrix elements into the specified row-major
+     * array.
+     */
+    private static <F extends Field<F>> void copy(DenseMatrixImpl<F> M,
+            Object[] elements, int offset, int rowStride) {
+        for (int i = 0; i < M._m; i++) {
+            for (int j = 0; j < M._n; j++) {
+                elements[offset + i * rowStride + j] = M.element(i, j);
+            }
+        }
+    }
+
+    @Override
+    public DenseMatrix<F> inverse() {
+        return (DenseMatrix<F>) super.inverse();
+    }
+
+    @Override
+    public DenseMatrix<F> divide(Matrix<F> that) {
+        return this.times(that.inverse());
+    }
+
+    @Override
+    public DenseMatrix<F> pseudoInverse() {
+        return DenseMatrixImpl.valueOf(super.pseudoInverse());
+    }
+
+    @Override
+    public DenseMatrix<F> transpose() {
+        return new DenseMatrixImpl<F>(_n, _m, _elements, _offset, _colStride,
+                _rowStride);
+    }
+
+    @Override
+    public DenseMatrix<F> adjoint() {
+        return (DenseMatrix<F>) super.adjoint();
+    }
+
+    @Override
+    public DenseVector<F> solve(Vector<F> y) {
+        return DenseVectorImpl.valueOf(super.solve(y));
+    }
+
+    @Override
+    public DenseMatrix<F> solve(Matrix<F> y) {
+        return (DenseMatrix<F>) super.solve(y);
+    }
+
+    @Override
+    public DenseMatrix<F> pow(int exp) {
+        return DenseMatrixImpl.valueOf(super.pow(exp));
+    }
+
+    @Override
+    public DenseMatrix<F> tensor(Matrix<F> that) {
+        // If this is a m-by-n matrix and that is a p-by-q matrix,
+        // then the Kronecker product is the mp-by-nq block.
+        final int p = that.getRowDimension();
+        final int q = that.getColumnDimension();
+        final int columns = _n * q;
+        Object[] elements = new Object[_m * p * columns];
+        for (int i0 = 0; i0 < _m; i0++) {
+            for (int j0 = 0; j0 < _n; j0++) {
+                F e = element(i0, j0);
+                for (int i1 = 0; i1 < p; i1++) {
+                    for (int j1 = 0; j1 < q; j1++) {
+                        elements[(i0 * p + i1) * columns + j0 * q + j1] = e
+                                .times(that.get(i1, j1));
+                    }
+                }
+            }
+        }
+        return new DenseMatrixImpl<F>(_m * p, columns, elements, 0, columns, 1);
+    }
+
+    @Override
+    public DenseVector<F> vectorization() {
+        Object[] elements = new Object[_m * _n];
+        for (int j = 0; j < _n; j++) { // For each column.
+            for (int i = 0; i < _m; i++) {
+                elements[j * _m + i] = element(i, j);
+            }
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, _m * _n);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DenseMatrixImpl<F> copy() {
+        Object[] elements = new Object[_m * _n];
+        for (int i = 0; i < _m; i++) {
+            for (int j = 0; j < _n; j++) {
+                elements[i * _n + j] = (F) element(i, j).copy();
+            }
+        }
+        return new DenseMatrixImpl<F>(_m, _n, elements, 0, _n, 1);
+    }
+
+    /**
+     * Executes the specified task for the rows <code>[0, m)</code>,
+     * concurrently if the number of field operations is large enough;
+     * helper threads use the local settings of the calling thread.
+     *
+     * @param m the number of rows.
+     * @param operations the number of field operations.
+     * @param task the row task.
+     */
+    private static void forEachRow(int m, long operations,
+            final Scheduler.Task task) {
+        final long cost = operations * Scheduler.FIELD_OPERATION_COST;
+        if (!Scheduler.isParallel(cost)) {
+            task.run(0, m);
+            return;
+        }
+        final LocalSettings settings = LocalSettings.current();
+        Scheduler.execute(m, cost, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                boolean entered = settings.enter();
+                try {
+                    task.run(start, end);
+                } finally {
+                    settings.exit(entered);
+                }
+            }
+        });
+    }
+}
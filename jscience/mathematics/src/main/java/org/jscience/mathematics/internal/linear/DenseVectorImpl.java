@@ -0,0 +1,259 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.FastTable;
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.DenseMatrix;
+import org.jscience.mathematics.linear.DenseVector;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class represents a dense vector of generic elements stored
+ *     in an array with an offset and a stride; the rows, columns and
+ *     diagonal of {@link DenseMatrixImpl dense matrices} are vectors
+ *     sharing the matrix array (no copy).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class DenseVectorImpl<F extends Field<F>> extends AbstractVector<F>
+        implements DenseVector<F> {
+
+    /**
+     * Holds the elements (never modified once the vector is created).
+     */
+    final Object[] _elements;
+
+    /**
+     * Holds the index of the first element.
+     */
+    final int _offset;
+
+    /**
+     * Holds the index increment between two consecutive elements.
+     */
+    final int _stride;
+
+    /**
+     * Holds the dimension.
+     */
+    final int _dimension;
+
+    /**
+     * Creates a vector view over the specified elements.
+     *
+     * @param elements the elements (shared).
+     * @param offset the index of the first element.
+     * @param stride the index increment between two consecutive elements.
+     * @param dimension the vector dimension.
+     */
+    DenseVectorImpl(Object[] elements, int offset, int stride, int dimension) {
+        _elements = elements;
+        _offset = offset;
+        _stride = stride;
+        _dimension = dimension;
+    }
+
+    /**
+     * Returns a dense vector holding the specified elements.
+     *
+     * @param elements the vector elements.
+     * @return the vector having the specified elements.
+     */
+    public static <F extends Field<F>> DenseVectorImpl<F> valueOf(F... elements) {
+        return new DenseVectorImpl<F>(elements.clone(), 0, 1, elements.length);
+    }
+
+    /**
+     * Returns a dense vector equivalent to the specified vector.
+     *
+     * @param that the vector to convert.
+     * @return <code>that</code> or a dense vector holding the same elements.
+     */
+    public static <F extends Field<F>> DenseVectorImpl<F> valueOf(Vector<F> that) {
+        if (that instanceof DenseVectorImpl)
+            return (DenseVectorImpl<F>) that;
+        final int n = that.getDimension();
+        Object[] elements = new Object[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = that.get(i);
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, n);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public F get(int i) {
+        checkIndex(i, _dimension);
+        return (F) _elements[_offset + i * _stride];
+    }
+
+    /**
+     * Returns the element at the specified index (no bound check).
+     */
+    @SuppressWarnings("unchecked")
+    F element(int i) {
+        return (F) _elements[_offset + i * _stride];
+    }
+
+    @Override
+    public int getDimension() {
+        return _dimension;
+    }
+
+    @Override
+    public FastTable<F> getData() {
+        FastTable<F> data = new FastTable<F>();
+        for (int i = 0; i < _dimension; i++) {
+            data.add(element(i));
+        }
+        return data.unmodifiable();
+    }
+
+    @Override
+    public DenseMatrix<F> asColumn() {
+        return new DenseMatrixImpl<F>(_dimension, 1, _elements, _offset,
+                _stride, _stride);
+    }
+
+    @Override
+    public DenseMatrix<F> asRow() {
+        return new DenseMatrixImpl<F>(1, _dimension, _elements, _offset,
+                _stride * _dimension, _stride);
+    }
+
+    @Override
+    public DenseMatrix<F> asDiagonal() {
+        final int n = _dimension;
+        Object[] elements = new Object[n * n];
+        if (n != 0) {
+            F zero = zero(element(0));
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = zero;
+            }
+            for (int i = 0; i < n; i++) {
+                elements[i * n + i] = element(i);
+            }
+        }
+        return new DenseMatrixImpl<F>(n, n, elements, 0, n, 1);
+    }
+
+    @Override
+    public DenseVector<F> getSubVector(List<Index> indices) {
+        final int n = indices.size();
+        Object[] elements = new Object[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = get(indices.get(i).intValue());
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, n);
+    }
+
+    @Override
+    public DenseVector<F> cross(Vector<F> that) {
+        if ((_dimension != 3) || (that.getDimension() != 3))
+            throw new DimensionException(
+                    "The cross product of two vectors requires "
+                            + "3-dimensional vectors");
+        F x = element(1).times(that.get(2)).plus(
+                (element(2).times(that.get(1))).opposite());
+        F y = element(2).times(that.get(0)).plus(
+                (element(0).times(that.get(2))).opposite());
+        F z = element(0).times(that.get(1)).plus(
+                (element(1).times(that.get(0))).opposite());
+        return new DenseVectorImpl<F>(new Object[] { x, y, z }, 0, 1, 3);
+    }
+
+    @Override
+    public DenseVector<F> opposite() {
+        Object[] elements = new Object[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            elements[i] = element(i).opposite();
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, _dimension);
+    }
+
+    @Override
+    public DenseVector<F> plus(Vector<F> that) {
+        checkDimension(_dimension, that.getDimension());
+        Object[] elements = new Object[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            elements[i] = element(i).plus(that.get(i));
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, _dimension);
+    }
+
+    @Override
+    public DenseVector<F> minus(Vector<F> that) {
+        checkDimension(_dimension, that.getDimension());
+        Object[] elements = new Object[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            elements[i] = element(i).plus(that.get(i).opposite());
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, _dimension);
+    }
+
+    @Override
+    public DenseVector<F> times(F k) {
+        Object[] elements = new Object[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            elements[i] = element(i).times(k);
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, _dimension);
+    }
+
+    @Override
+    public F times(Vector<F> that) {
+        checkDimension(_dimension, that.getDimension());
+        F sum = element(0).times(that.get(0));
+        for (int i = 1; i < _dimension; i++) {
+            sum = sum.plus(element(i).times(that.get(i)));
+        }
+        return sum;
+    }
+
+    @Override
+    public DenseMatrix<F> tensor(Vector<F> that) {
+        final int m = _dimension;
+        final int n = that.getDimension();
+        Object[] elements = new Object[m * n];
+        for (int i = 0; i < m; i++) {
+            F e = element(i);
+            for (int j = 0; j < n; j++) {
+                elements[i * n + j] = e.times(that.get(j));
+            }
+        }
+        return new DenseMatrixImpl<F>(m, n, elements, 0, n, 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DenseVectorImpl<F> copy() {
+        Object[] elements = new Object[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            elements[i] = (F) element(i).copy();
+        }
+        return new DenseVectorImpl<F>(elements, 0, 1, _dimension);
+    }
+
+    /**
+     * Returns the zero element of the field of the specified element.
+     *
+     * @param e any element.
+     * @return <code>e + (-e)</code>
+     */
+    static <F extends Field<F>> F zero(F e) {
+        return e.plus(e.opposite());
+    }
+}
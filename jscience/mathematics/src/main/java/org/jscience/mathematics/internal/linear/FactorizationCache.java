@@ -0,0 +1,277 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javolution.lang.Configurable;
+
+/**
+ * <p> This class holds the factorizations (LU, QR, Cholesky...) of
+ *     immutable matrices, keyed by the identity of the matrix and the class
+ *     of the factorization. Solving the same matrix against many right-hand
+ *     sides (or calculating its inverse or determinant) factorizes it only
+ *     once.</p>
+ *
+ * <p> Matrices are weakly referenced: an entry is discarded as soon as its
+ *     matrix is garbage collected. At most {@link #CAPACITY} entries are
+ *     kept, the least recently used being evicted first. The factorizations
+ *     must not reference their matrix (they hold copies of its values).
+ *     Only instances of immutable classes can be cached; the factorization
+ *     calculated for a mutable matrix would become stale. Matrices found
+ *     singular are {@link #putSingular marked} so that they are not
+ *     factorized again.</p>
+ *
+ * <p> This class is thread-safe; concurrent misses upon the same matrix
+ *     may factorize it more than once (the factorization being performed
+ *     outside of any lock).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class FactorizationCache {
+
+    /**
+     * Holds the maximum number of factorizations cached (default
+     * <code>64</code>, <code>0</code> disables the cache). A reduced capacity
+     * takes effect upon the next insertion.
+     */
+    public static final Configurable<Integer> CAPACITY = new Configurable<Integer>(
+            64) {};
+
+    /**
+     * Holds the factorizations (least recently used first).
+     */
+    private static final LinkedHashMap<Key, Object> ENTRIES = new LinkedHashMap<Key, Object>(
+            16, 0.75f, true);
+
+    /**
+     * Holds the keys whose matrix has been garbage collected.
+     */
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<Object>();
+
+    /**
+     * Holds the marker cached in place of the factorization of a singular
+     * matrix.
+     */
+    private static final Object SINGULAR = new Object();
+
+    /**
+     * Holds the number of factorizations found.
+     */
+    private static final AtomicLong HITS = new AtomicLong();
+
+    /**
+     * Holds the number of factorizations not found.
+     */
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    /**
+     * Holds the number of factorizations evicted (capacity exceeded).
+     */
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    /**
+     * Returns the factorization of the specified kind cached for the
+     * specified matrix.
+     *
+     * @param matrix the immutable matrix.
+     * @param kind the class of the factorization.
+     * @return the factorization or <code>null</code> if none (miss).
+     * @throws ArithmeticException if the matrix has been found singular
+     *         (hit).
+     */
+    public static <T> T get(Object matrix, Class<T> kind) {
+        Object factorization;
+        synchronized (ENTRIES) {
+            purge();
+            factorization = ENTRIES.get(new Key(matrix, kind, null));
+        }
+        if (factorization == null) {
+            MISSES.incrementAndGet();
+            return null;
+        }
+        HITS.incrementAndGet();
+        if (factorization == SINGULAR)
+            throw new ArithmeticException("Singular matrix");
+        return kind.cast(factorization);
+    }
+
+    /**
+     * Caches the specified factorization of the specified matrix.
+     *
+     * @param matrix the immutable matrix.
+     * @param kind the class of the factorization.
+     * @param factorization the factorization of <code>matrix</code> (not
+     *        referencing <code>matrix</code>).
+     * @return <code>factorization</code>
+     */
+    public static <T> T put(Object matrix, Class<T> kind, T factorization) {
+        synchronized (ENTRIES) {
+            purge();
+            ENTRIES.put(new Key(matrix, kind, COLLECTED), factorization);
+            evict();
+        }
+        return factorization;
+    }
+
+    /**
+     * Marks the specified matrix as singular for the specified kind of
+     * factorization; subsequent {@link #get lookups} throw
+     * <code>ArithmeticException</code> instead of returning
+     * <code>null</code>.
+     *
+     * @param matrix the immutable singular matrix.
+     * @param kind the class of the factorization which failed.
+     */
+    public static void putSingular(Object matrix, Class<?> kind) {
+        synchronized (ENTRIES) {
+            purge();
+            ENTRIES.put(new Key(matrix, kind, COLLECTED), SINGULAR);
+            evict();
+        }
+    }
+
+    /**
+     * Returns the number of factorizations found in the cache.
+     *
+     * @return the number of hits since the last reset.
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * Returns the number of factorizations not found in the cache.
+     *
+     * @return the number of misses since the last reset.
+     */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * Returns the number of factorizations evicted because the capacity was
+     * exceeded.
+     *
+     * @return the number of evictions since the last reset.
+     */
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    /**
+     * Returns the number of factorizations currently cached.
+     *
+     * @return the number of entries.
+     */
+    public static int size() {
+        synchronized (ENTRIES) {
+            purge();
+            return ENTRIES.size();
+        }
+    }
+
+    /**
+     * Removes all the factorizations cached (the statistics are kept).
+     */
+    public static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+            while (COLLECTED.poll() != null) {
+                // Discards.
+            }
+        }
+    }
+
+    /**
+     * Resets the hits, misses and evictions counts.
+     */
+    public static void resetStatistics() {
+        HITS.set(0);
+        MISSES.set(0);
+        EVICTIONS.set(0);
+    }
+
+    /**
+     * Removes the entries whose matrix has been garbage collected.
+     */
+    private static void purge() {
+        for (Reference<?> ref; (ref = COLLECTED.poll()) != null;) {
+            ENTRIES.remove(ref);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries exceeding the capacity.
+     */
+    private static void evict() {
+        final int capacity = Math.max(CAPACITY.get(), 0);
+        for (Iterator<Map.Entry<Key, Object>> i = ENTRIES.entrySet()
+                .iterator(); (ENTRIES.size() > capacity) && i.hasNext();) {
+            i.next();
+            i.remove();
+            EVICTIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * The weak reference to a matrix identifying a factorization.
+     */
+    private static final class Key extends WeakReference<Object> {
+
+        /**
+         * Holds the class of the factorization.
+         */
+        private final Class<?> _kind;
+
+        /**
+         * Holds the hash code (the matrix may be collected).
+         */
+        private final int _hash;
+
+        /**
+         * Creates a key for the specified matrix and kind.
+         */
+        Key(Object matrix, Class<?> kind, ReferenceQueue<Object> queue) {
+            super(matrix, queue);
+            _kind = kind;
+            _hash = 31 * System.identityHashCode(matrix) + kind.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key that = (Key) obj;
+            Object matrix = this.get();
+            return (matrix != null) && (matrix == that.get())
+                    && (this._kind == that._kind);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hash;
+        }
+    }
+
+    /**
+     * Default constructor (private, utility class).
+     */
+    private FactorizationCache() {
+    }
+}
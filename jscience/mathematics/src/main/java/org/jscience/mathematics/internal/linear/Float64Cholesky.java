@@ -0,0 +1,336 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+/**
+ * <p> This class represents the Cholesky decomposition <code>A = L·Lᵀ</code>
+ *     of a symmetric positive definite matrix of <code>double</code> values
+ *     (only the lower triangle of <code>A</code> is read).</p>
+ *
+ * <p> Matrices given as full row-major arrays are factorized in place by a
+ *     blocked right-looking algorithm: each panel of {@link #BLOCK_SIZE}
+ *     columns is factorized element by element and the lower triangle of
+ *     the trailing sub-matrix is updated by independent {@link
+ *     Float64Kernel#multiply GEMM} calls (one per block of columns,
+ *     executed concurrently by the {@link Scheduler}). Matrices given in
+ *     packed storage (lower triangle by rows, <code>n(n+1)/2</code> values)
+ *     are factorized in place row by row, each element being a dot product
+ *     of contiguous rows.</p>
+ *
+ * <p> In both cases the factor is kept in packed storage (half the memory
+ *     of the full matrix); solving and the (log-)determinant reuse it.
+ *     The decomposition performs half the operations of the {@link
+ *     Float64LU LU decomposition}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Float64Cholesky {
+
+    /**
+     * Holds the number of columns of the panels.
+     */
+    public static final int BLOCK_SIZE = 64;
+
+    /**
+     * Holds the dimension.
+     */
+    private final int _n;
+
+    /**
+     * Holds the factor <code>L</code> in packed storage (the element
+     * <code>(i, j)</code>, <code>j &lt;= i</code>, is at the position
+     * <code>i(i+1)/2 + j</code>).
+     */
+    private final double[] _packed;
+
+    /**
+     * Creates a decomposition holding the specified packed factor.
+     */
+    private Float64Cholesky(int n, double[] packed) {
+        _n = n;
+        _packed = packed;
+    }
+
+    /**
+     * Returns the decomposition of the specified symmetric positive
+     * definite matrix (the values are not modified).
+     *
+     * @param n the dimension.
+     * @param values the row-major values (<code>n * n</code>, only the
+     *        lower triangle is read).
+     * @return the Cholesky decomposition.
+     * @throws IllegalArgumentException if <code>values.length != n * n</code>
+     * @throws ArithmeticException if the matrix is not positive definite.
+     */
+    public static Float64Cholesky valueOf(int n, double[] values) {
+        return Float64Cholesky.wrap(n, values.clone());
+    }
+
+    /**
+     * Returns the decomposition of the specified symmetric positive
+     * definite matrix, the values being used as work array (no copy).
+     *
+     * @param n the dimension.
+     * @param values the row-major values (<code>n * n</code>, only the
+     *        lower triangle is read) overwritten.
+     * @return the Cholesky decomposition.
+     * @throws IllegalArgumentException if <code>values.length != n * n</code>
+     * @throws ArithmeticException if the matrix is not positive definite.
+     */
+    public static Float64Cholesky wrap(int n, double[] values) {
+        if (values.length != n * n)
+            throw new IllegalArgumentException(values.length
+                    + " values for a " + n + "x" + n + " matrix");
+        factorize(n, values);
+        double[] packed = new double[n * (n + 1) / 2];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(values, i * n, packed, i * (i + 1) / 2, i + 1);
+        }
+        return new Float64Cholesky(n, packed);
+    }
+
+    /**
+     * Returns the decomposition of the specified symmetric positive
+     * definite matrix in packed storage, the factor replacing the values
+     * (no copy).
+     *
+     * @param n the dimension.
+     * @param packed the lower triangle by rows (<code>n(n+1)/2</code>
+     *        values) replaced by the factor.
+     * @return the Cholesky decomposition.
+     * @throws IllegalArgumentException if the number of values is not
+     *         <code>n(n+1)/2</code>
+     * @throws ArithmeticException if the matrix is not positive definite.
+     */
+    public static Float64Cholesky wrapPacked(int n, double[] packed) {
+        if (packed.length != n * (n + 1) / 2)
+            throw new IllegalArgumentException(packed.length
+                    + " packed values for a " + n + "x" + n + " matrix");
+        for (int i = 0; i < n; i++) {
+            final int ri = i * (i + 1) / 2;
+            for (int j = 0; j <= i; j++) {
+                final int rj = j * (j + 1) / 2;
+                double sum = packed[ri + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= packed[ri + k] * packed[rj + k];
+                }
+                if (j < i) {
+                    packed[ri + j] = sum / packed[rj + j];
+                } else {
+                    if (!(sum > 0))
+                        throw new ArithmeticException(
+                                "Matrix not positive definite (pivot " + i + ")");
+                    packed[ri + i] = Math.sqrt(sum);
+                }
+            }
+        }
+        return new Float64Cholesky(n, packed);
+    }
+
+    /**
+     * Factorizes the lower triangle of the specified row-major array
+     * (blocked, right-looking).
+     */
+    private static void factorize(final int n, final double[] a) {
+        for (int j = 0; j < n; j += BLOCK_SIZE) {
+            final int k0 = j;
+            final int k1 = Math.min(k0 + BLOCK_SIZE, n);
+            final int kb = k1 - k0;
+            factorizePanel(n, a, k0, k1);
+            if (k1 == n)
+                break;
+            // Lower(A22) = Lower(A22) - L21 · L21ᵀ, by blocks of columns.
+            final int blocks = (n - k1 + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            long cost = (long) (n - k1) * (n - k1) * kb;
+            Scheduler.execute(blocks, cost, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    for (int b = start; b < end; b++) {
+                        int j0 = k1 + b * BLOCK_SIZE;
+                        int jb = Math.min(BLOCK_SIZE, n - j0);
+                        Float64Kernel.multiply(n - j0, kb, jb, -1.0, a, j0
+                                * n + k0, n, 1, a, j0 * n + k0, 1, n, 1.0, a,
+                                j0 * n + j0, n);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Factorizes the columns <code>[k0, k1)</code> of the rows
+     * <code>[k0, n)</code> (unblocked).
+     */
+    private static void factorizePanel(int n, double[] a, int k0, int k1) {
+        for (int j = k0; j < k1; j++) {
+            double d = a[j * n + j];
+            if (!(d > 0))
+                throw new ArithmeticException(
+                        "Matrix not positive definite (pivot " + j + ")");
+            double ljj = Math.sqrt(d);
+            a[j * n + j] = ljj;
+            double inv = 1.0 / ljj;
+            for (int i = j + 1; i < n; i++) {
+                a[i * n + j] *= inv;
+            }
+            for (int c = j + 1; c < k1; c++) {
+                double lcj = a[c * n + j];
+                if (lcj == 0.0)
+                    continue;
+                for (int i = c; i < n; i++) {
+                    a[i * n + c] -= a[i * n + j] * lcj;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the dimension of the decomposed matrix.
+     *
+     * @return the number of rows (and columns).
+     */
+    public int getDimension() {
+        return _n;
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code> for
+     * the specified right-hand sides (forward and backward substitutions
+     * upon the packed factor).
+     *
+     * @param p the number of right-hand sides (columns of <code>B</code>).
+     * @param b the row-major values of <code>B</code> (<code>n * p</code>).
+     * @return the row-major values of <code>X</code> (new array).
+     * @throws IllegalArgumentException if <code>b.length != n * p</code>
+     */
+    public double[] solve(int p, double[] b) {
+        if (b.length != _n * p)
+            throw new IllegalArgumentException(b.length + " values for a "
+                    + _n + "x" + p + " matrix");
+        double[] x = b.clone();
+        substitute(p, x);
+        return x;
+    }
+
+    /**
+     * Solves <code>L · Lᵀ · X = B</code> in place.
+     */
+    private void substitute(int p, double[] x) {
+        final int n = _n;
+        final double[] l = _packed;
+        // Forward: L · Y = B
+        for (int i = 0; i < n; i++) {
+            final int ri = i * (i + 1) / 2;
+            for (int k = 0; k < i; k++) {
+                axpy(-l[ri + k], x, k * p, x, i * p, p);
+            }
+            scale(1.0 / l[ri + i], x, i * p, p);
+        }
+        // Backward: Lᵀ · X = Y
+        for (int i = n - 1; i >= 0; i--) {
+            final int ri = i * (i + 1) / 2;
+            scale(1.0 / l[ri + i], x, i * p, p);
+            for (int k = 0; k < i; k++) {
+                axpy(-l[ri + k], x, i * p, x, k * p, p);
+            }
+        }
+    }
+
+    /**
+     * Calculates <code>y[yOffset..] += alpha · x[xOffset..]</code> for
+     * <code>length</code> values.
+     */
+    private static void axpy(double alpha, double[] x, int xOffset,
+            double[] y, int yOffset, int length) {
+        if (alpha == 0.0)
+            return;
+        for (int j = 0; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    /**
+     * Multiplies <code>length</code> values of <code>x</code> by
+     * <code>alpha</code>.
+     */
+    private static void scale(double alpha, double[] x, int offset, int length) {
+        for (int j = offset, end = offset + length; j < end; j++) {
+            x[j] *= alpha;
+        }
+    }
+
+    /**
+     * Returns the inverse of the decomposed matrix.
+     *
+     * @return the row-major values of <code>inv(A)</code> (new array).
+     */
+    public double[] inverse() {
+        final int n = _n;
+        double[] x = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            x[i * n + i] = 1.0;
+        }
+        substitute(n, x);
+        return x;
+    }
+
+    /**
+     * Returns the determinant of the decomposed matrix.
+     *
+     * @return <code>det(A)</code> (may overflow, see {@link #logDeterminant})
+     */
+    public double determinant() {
+        double product = 1.0;
+        for (int i = 0; i < _n; i++) {
+            double lii = _packed[i * (i + 1) / 2 + i];
+            product *= lii * lii;
+        }
+        return product;
+    }
+
+    /**
+     * Returns the natural logarithm of the determinant of the decomposed
+     * matrix (no overflow).
+     *
+     * @return <code>log(det(A)) = 2 · Σ log(L[i][i])</code>
+     */
+    public double logDeterminant() {
+        double sum = 0.0;
+        for (int i = 0; i < _n; i++) {
+            sum += Math.log(_packed[i * (i + 1) / 2 + i]);
+        }
+        return 2.0 * sum;
+    }
+
+    /**
+     * Returns the factor <code>L</code> (lower triangular).
+     *
+     * @return the row-major values of <code>L</code> (new array).
+     */
+    public double[] getLower() {
+        final int n = _n;
+        double[] l = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(_packed, i * (i + 1) / 2, l, i * n, i + 1);
+        }
+        return l;
+    }
+
+    /**
+     * Returns the factor <code>L</code> in packed storage (lower triangle
+     * by rows).
+     *
+     * @return the <code>n(n+1)/2</code> packed values (not a copy).
+     */
+    public double[] getPacked() {
+        return _packed;
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+/**
+ * <p> This class represents the eigen decomposition <code>A = V·Λ·Vᵀ</code>
+ *     of a symmetric matrix of <code>double</code> values, calculated in
+ *     place upon a row-major array.</p>
+ *
+ * <p> The matrix is first reduced to a tridiagonal form by Householder
+ *     reflections (symmetric rank-2 updates of the trailing rows, executed
+ *     concurrently by the {@link Scheduler} for large matrices), then
+ *     diagonalized by the implicit QL algorithm with Wilkinson shifts.
+ *     The eigenvectors are accumulated in the source array as rows (each
+ *     plane rotation combines two contiguous rows); if only the
+ *     eigenvalues are requested the accumulation (about two thirds of the
+ *     <code>9n³</code> operations) is skipped.</p>
+ *
+ * <p> The eigenvalues are sorted in ascending order.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Float64Eigen {
+
+    /**
+     * Holds the maximum number of QL iterations per eigenvalue.
+     */
+    private static final int MAX_ITERATIONS = 30;
+
+    /**
+     * Holds the dimension.
+     */
+    private final int _n;
+
+    /**
+     * Holds the eigenvalues (ascending).
+     */
+    private final double[] _values;
+
+    /**
+     * Holds the eigenvectors as rows, row-major (<code>null</code> if not
+     * calculated).
+     */
+    private final double[] _vectors;
+
+    /**
+     * Creates the eigen decomposition of the specified symmetric matrix.
+     */
+    private Float64Eigen(int n, double[] a, boolean vectors) {
+        _n = n;
+        _values = new double[n];
+        _vectors = vectors ? a : null;
+        if (n == 0)
+            return;
+        double[] e = new double[n];
+        tridiagonalize(n, a, _values, e, vectors);
+        diagonalize(n, _values, e, _vectors);
+    }
+
+    /**
+     * Returns the eigen decomposition of the specified symmetric matrix
+     * (the values are copied).
+     *
+     * @param n the dimension.
+     * @param values the row-major values (<code>n * n</code>).
+     * @param vectors indicates if the eigenvectors are calculated.
+     * @return the eigen decomposition.
+     * @throws IllegalArgumentException if <code>values.length != n * n</code>
+     * @throws ArithmeticException if the QL iterations do not converge.
+     */
+    public static Float64Eigen valueOf(int n, double[] values,
+            boolean vectors) {
+        return Float64Eigen.wrap(n, values.clone(), vectors);
+    }
+
+    /**
+     * Returns the eigen decomposition of the specified symmetric matrix,
+     * the values being overwritten (by the eigenvectors if requested).
+     *
+     * @param n the dimension.
+     * @param values the row-major values (<code>n * n</code>), the
+     *        symmetry is assumed (not checked).
+     * @param vectors indicates if the eigenvectors are calculated.
+     * @return the eigen decomposition.
+     * @throws IllegalArgumentException if <code>values.length != n * n</code>
+     * @throws ArithmeticException if the QL iterations do not converge.
+     */
+    public static Float64Eigen wrap(int n, double[] values, boolean vectors) {
+        if (values.length != n * n)
+            throw new IllegalArgumentException(values.length
+                    + " values for a " + n + "x" + n + " matrix");
+        return new Float64Eigen(n, values, vectors);
+    }
+
+    /**
+     * Reduces the specified matrix to the tridiagonal form
+     * <code>T = Qᵀ·A·Q</code> (diagonal <code>d</code>, sub-diagonal
+     * <code>e</code>) and replaces it by <code>Qᵀ</code> if requested.
+     */
+    private static void tridiagonalize(final int n, final double[] a,
+            double[] d, double[] e, boolean vectors) {
+        double[] tau = new double[n];
+        final double[] v = new double[n];
+        final double[] w = new double[n];
+        for (int k = 0; k < n - 2; k++) {
+            // The row k holds the column k below the diagonal (symmetry).
+            final int k1 = k + 1;
+            d[k] = a[k * n + k];
+            double norm2 = 0.0;
+            for (int j = k + 2; j < n; j++) {
+                norm2 += a[k * n + j] * a[k * n + j];
+            }
+            double alpha = a[k * n + k1];
+            if (norm2 == 0.0) {
+                e[k] = alpha;
+                continue; // tau = 0, H = I
+            }
+            double beta = Math.sqrt(alpha * alpha + norm2);
+            if (alpha > 0) {
+                beta = -beta;
+            }
+            final double t = (beta - alpha) / beta;
+            tau[k] = t;
+            e[k] = beta;
+            double scale = 1.0 / (alpha - beta);
+            v[k1] = 1.0;
+            for (int j = k + 2; j < n; j++) {
+                v[j] = a[k * n + j] * scale;
+                a[k * n + j] = v[j]; // Stored for the accumulation.
+            }
+            // p = tau·A'·v (rows of the trailing matrix).
+            final int size = n - k1;
+            Scheduler.execute(size, 2L * size * size, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    for (int i = k1 + start; i < k1 + end; i++) {
+                        double sum = 0.0;
+                        for (int j = k1, ij = i * n + k1; j < n; j++) {
+                            sum += a[ij++] * v[j];
+                        }
+                        w[i] = t * sum;
+                    }
+                }
+            });
+            // w = p - (tau/2)·(pᵀ·v)·v
+            double pv = 0.0;
+            for (int i = k1; i < n; i++) {
+                pv += w[i] * v[i];
+            }
+            final double kk = 0.5 * t * pv;
+            for (int i = k1; i < n; i++) {
+                w[i] -= kk * v[i];
+            }
+            // A' = A' - v·wᵀ - w·vᵀ
+            Scheduler.execute(size, 4L * size * size, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    for (int i = k1 + start; i < k1 + end; i++) {
+                        final double vi = v[i];
+                        final double wi = w[i];
+                        for (int j = k1, ij = i * n + k1; j < n; j++) {
+                            a[ij++] -= vi * w[j] + wi * v[j];
+                        }
+                    }
+                }
+            });
+        }
+        if (n >= 2) {
+            d[n - 2] = a[(n - 2) * n + n - 2];
+            e[n - 2] = a[(n - 2) * n + n - 1];
+        }
+        d[n - 1] = a[n * n - 1];
+        e[n - 1] = 0.0;
+        if (vectors) {
+            accumulate(n, a, tau, v);
+        }
+    }
+
+    /**
+     * Replaces the reflections vectors stored in the rows of the specified
+     * matrix by <code>Qᵀ = H(n-3)...H(0)</code> (backward accumulation, the
+     * active part growing from the bottom-right corner).
+     */
+    private static void accumulate(final int n, final double[] a,
+            double[] tau, final double[] p) {
+        for (int k = n - 1; k >= 0; k--) {
+            final int k1 = k + 1;
+            // Row and column k1 of Qᵀ are those of the identity.
+            if (k1 < n) {
+                for (int j = 0; j < n; j++) {
+                    a[k1 * n + j] = 0.0;
+                }
+                a[k1 * n + k1] = 1.0;
+                for (int i = k1 + 1; i < n; i++) {
+                    a[i * n + k1] = 0.0;
+                }
+            }
+            if ((k > n - 3) || (tau[k] == 0.0))
+                continue;
+            // W = W·H(k), v(k) stored in the row k (implicit leading one).
+            final double t = tau[k];
+            final int vOffset = k * n; // v[j] = a[vOffset + j], j > k1
+            final int size = n - k1;
+            Scheduler.execute(size, 4L * size * size, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    for (int i = k1 + start; i < k1 + end; i++) {
+                        final int row = i * n;
+                        double sum = a[row + k1];
+                        for (int j = k1 + 1; j < n; j++) {
+                            sum += a[row + j] * a[vOffset + j];
+                        }
+                        sum *= t;
+                        a[row + k1] -= sum;
+                        for (int j = k1 + 1; j < n; j++) {
+                            a[row + j] -= sum * a[vOffset + j];
+                        }
+                    }
+                }
+            });
+        }
+        for (int j = 0; j < n; j++) { // Row and column 0.
+            a[j] = 0.0;
+            a[j * n] = 0.0;
+        }
+        a[0] = 1.0;
+    }
+
+    /**
+     * Diagonalizes the specified tridiagonal matrix (implicit QL), the
+     * rotations being applied to the rows of <code>z</code> (if any).
+     */
+    private static void diagonalize(int n, double[] d, double[] e,
+            double[] z) {
+        final double eps = Math.ulp(1.0);
+        double f = 0.0;
+        double tst1 = 0.0;
+        for (int l = 0; l < n; l++) {
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n) {
+                if (Math.abs(e[m]) <= eps * tst1)
+                    break;
+                m++;
+            }
+            if (m > l) {
+                int iter = 0;
+                do {
+                    if (++iter > MAX_ITERATIONS)
+                        throw new ArithmeticException(
+                                "No convergence for the eigenvalue " + l);
+                    // Wilkinson shift.
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0 * e[l]);
+                    double r = hypot(p, 1.0);
+                    if (p < 0) {
+                        r = -r;
+                    }
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+                    // Implicit QL transformation.
+                    p = d[m];
+                    double c = 1.0, c2 = c, c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0.0, s2 = 0.0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        if (z != null) {
+                            rotate(z, n, i, i + 1, c, s);
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > eps * tst1);
+            }
+            d[l] += f;
+            e[l] = 0.0;
+        }
+        // Sorts eigenvalues (and vectors) in ascending order.
+        for (int i = 0; i < n - 1; i++) {
+            int k = i;
+            double p = d[i];
+            for (int j = i + 1; j < n; j++) {
+                if (d[j] < p) {
+                    k = j;
+                    p = d[j];
+                }
+            }
+            if (k != i) {
+                d[k] = d[i];
+                d[i] = p;
+                if (z != null) {
+                    for (int j = 0, ij = i * n, kj = k * n; j < n; j++) {
+                        double tmp = z[ij];
+                        z[ij++] = z[kj];
+                        z[kj++] = tmp;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a plane rotation to the rows <code>i</code> and
+     * <code>k</code> of the specified matrix
+     * (<code>z[k] = s·z[i] + c·z[k]; z[i] = c·z[i] - s·z[k]</code>).
+     */
+    private static void rotate(double[] z, int n, int i, int k, double c,
+            double s) {
+        for (int j = 0, ij = i * n, kj = k * n; j < n; j++, ij++, kj++) {
+            double h = z[kj];
+            z[kj] = s * z[ij] + c * h;
+            z[ij] = c * z[ij] - s * h;
+        }
+    }
+
+    /**
+     * Returns <code>sqrt(a² + b²)</code> without overflow.
+     */
+    static double hypot(double a, double b) {
+        double absA = Math.abs(a);
+        double absB = Math.abs(b);
+        if (absA > absB) {
+            double r = b / a;
+            return absA * Math.sqrt(1.0 + r * r);
+        }
+        if (absB == 0.0)
+            return 0.0;
+        double r = a / b;
+        return absB * Math.sqrt(1.0 + r * r);
+    }
+
+    /**
+     * Returns the dimension of the decomposed matrix.
+     *
+     * @return the number of rows (and columns).
+     */
+    public int getDimension() {
+        return _n;
+    }
+
+    /**
+     * Returns the eigenvalues in ascending order.
+     *
+     * @return the eigenvalues (new array).
+     */
+    public double[] getEigenvalues() {
+        return _values.clone();
+    }
+
+    /**
+     * Indicates if the eigenvectors have been calculated.
+     *
+     * @return <code>true</code> if the eigenvectors are available;
+     *         <code>false</code> if only the eigenvalues are.
+     */
+    public boolean hasEigenvectors() {
+        return _vectors != null;
+    }
+
+    /**
+     * Returns the orthonormal eigenvectors as rows (the eigenvector
+     * <code>i</code> of the eigenvalue <code>i</code> is the row
+     * <code>i</code>), i.e. the matrix <code>Vᵀ</code>.
+     *
+     * @return the row-major values of <code>Vᵀ</code> (not a copy).
+     * @throws IllegalStateException if only the eigenvalues have been
+     *         calculated.
+     */
+    public double[] getEigenvectorRows() {
+        if (_vectors == null)
+            throw new IllegalStateException("Eigenvectors not calculated");
+        return _vectors;
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+/**
+ * <p> This class holds the dense kernels operating on 64 bits floating
+ *     point elements stored in contiguous <code>double[]</code> arrays.</p>
+ *
+ * <p> Matrices operands are described by an array, the offset of their
+ *     first element and their row/column strides; element <code>(i,j)</code>
+ *     of <code>A</code> is <code>a[aOffset + i * aRowStride + j * aColStride]</code>.
+ *     Row-major, column-major (transposed) and sub-matrices views are then
+ *     supported without copy.</p>
+ *
+ * <p> The {@link #multiply multiplication} kernel is cache-blocked:
+ *     the left operand is packed by blocks of <code>MC x KC</code> elements
+ *     (sized for the L2 cache) and the right operand by panels of
+ *     <code>KC x NC</code> elements, a <code>4 x 4</code> register
+ *     micro-kernel iterates over the packed data sequentially (L1 cache).
+ *     The packing buffers are thread-local, no allocation is performed
+ *     once they have been created. Large products are split in tiles of
+ *     the result executed concurrently by the {@link Scheduler}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://en.wikipedia.org/wiki/General_Matrix_Multiply">
+ *      Wikipedia: General Matrix Multiply</a>
+ */
+public final class Float64Kernel {
+
+    /**
+     * Holds the number of rows of the register block.
+     */
+    private static final int MR = 4;
+
+    /**
+     * Holds the number of columns of the register block.
+     */
+    private static final int NR = 4;
+
+    /**
+     * Holds the inner dimension of the packed blocks.
+     */
+    private static final int KC = 256;
+
+    /**
+     * Holds the number of rows of the packed left block (L2 resident).
+     */
+    private static final int MC = 128;
+
+    /**
+     * Holds the number of columns of the packed right panel.
+     */
+    private static final int NC = 2048;
+
+    /**
+     * Holds the number of multiply-add below which the packing is not
+     * worth it.
+     */
+    private static final int PACKING_THRESHOLD = 32 * 32 * 32;
+
+    /**
+     * Holds the thread-local packing buffers.
+     */
+    private static final ThreadLocal<double[][]> BUFFERS = new ThreadLocal<double[][]>() {
+
+        @Override
+        protected double[][] initialValue() {
+            return new double[][] { new double[MC * KC], new double[KC * NC] };
+        }
+    };
+
+    /**
+     * Default constructor (private for utility class).
+     */
+    private Float64Kernel() {
+    }
+
+    /**
+     * Calculates <code>C = alpha · A · B + beta · C</code> with
+     * <code>A</code> a <code>m x n</code> matrix, <code>B</code> a
+     * <code>n x p</code> matrix and <code>C</code> a <code>m x p</code>
+     * row-major matrix.
+     *
+     * @param m the number of rows of <code>A</code> and <code>C</code>.
+     * @param n the number of columns of <code>A</code> (rows of <code>B</code>).
+     * @param p the number of columns of <code>B</code> and <code>C</code>.
+     * @param alpha the scaling factor of the product.
+     * @param a the left operand elements.
+     * @param aOffset the index of <code>A(0,0)</code>.
+     * @param aRowStride the index increment between two rows of <code>A</code>.
+     * @param aColStride the index increment between two columns of <code>A</code>.
+     * @param b the right operand elements.
+     * @param bOffset the index of <code>B(0,0)</code>.
+     * @param bRowStride the index increment between two rows of <code>B</code>.
+     * @param bColStride the index increment between two columns of <code>B</code>.
+     * @param beta the scaling factor of <code>C</code> (if <code>0</code>
+     *        the initial content of <code>C</code> is ignored).
+     * @param c the result elements.
+     * @param cOffset the index of <code>C(0,0)</code>.
+     * @param cRowStride the index increment between two rows of <code>C</code>.
+     */
+    public static void multiply(final int m, final int n, final int p,
+            final double alpha, final double[] a, final int aOffset,
+            final int aRowStride, final int aColStride, final double[] b,
+            final int bOffset, final int bRowStride, final int bColStride,
+            double beta, final double[] c, final int cOffset,
+            final int cRowStride) {
+        scale(m, p, beta, c, cOffset, cRowStride);
+        if ((m == 0) || (n == 0) || (p == 0) || (alpha == 0.0))
+            return;
+        if ((long) m * n * p < PACKING_THRESHOLD) {
+            multiplySmall(m, n, p, alpha, a, aOffset, aRowStride, aColStride,
+                    b, bOffset, bRowStride, bColStride, c, cOffset, cRowStride);
+            return;
+        }
+        final long cost = 2L * m * n * p;
+        if (!Scheduler.isParallel(cost)) {
+            multiplyBlocked(m, n, p, alpha, a, aOffset, aRowStride, aColStride,
+                    b, bOffset, bRowStride, bColStride, c, cOffset, cRowStride);
+            return;
+        }
+        // Splits the result in tiles (about square to limit the packing).
+        final int target = Scheduler.CONCURRENCY.get() * 4;
+        int rowTiles = (int) Math.ceil(Math.sqrt((double) target * m / p));
+        rowTiles = Math.max(1, Math.min(rowTiles, (m + MR - 1) / MR));
+        final int tileRows = roundUp((m + rowTiles - 1) / rowTiles, MR);
+        int colTiles = (target + rowTiles - 1) / rowTiles;
+        colTiles = Math.max(1, Math.min(colTiles, (p + NR - 1) / NR));
+        final int tileCols = roundUp((p + colTiles - 1) / colTiles, NR);
+        final int columns = (p + tileCols - 1) / tileCols;
+        final int tiles = ((m + tileRows - 1) / tileRows) * columns;
+        Scheduler.execute(tiles, cost, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int t = start; t < end; t++) {
+                    final int i0 = (t / columns) * tileRows;
+                    final int j0 = (t % columns) * tileCols;
+                    multiplyBlocked(Math.min(tileRows, m - i0), n,
+                            Math.min(tileCols, p - j0), alpha,
+                            a, aOffset + i0 * aRowStride, aRowStride, aColStride,
+                            b, bOffset + j0 * bColStride, bRowStride, bColStride,
+                            c, cOffset + i0 * cRowStride + j0, cRowStride);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convenience method equivalent to <code>multiply(m, n, p, 1.0, a, 0, n, 1,
+     * b, 0, p, 1, 0.0, c, 0, p)</code> (contiguous row-major operands).
+     *
+     * @param m the number of rows of <code>A</code> and <code>C</code>.
+     * @param n the number of columns of <code>A</code> (rows of <code>B</code>).
+     * @param p the number of columns of <code>B</code> and <code>C</code>.
+     * @param a the left operand elements (row-major).
+     * @param b the right operand elements (row-major).
+     * @param c the result elements (row-major).
+     */
+    public static void multiply(int m, int n, int p, double[] a, double[] b,
+            double[] c) {
+        multiply(m, n, p, 1.0, a, 0, n, 1, b, 0, p, 1, 0.0, c, 0, p);
+    }
+
+    /**
+     * Accumulates <code>alpha · A · B</code> into <code>C</code> (blocked,
+     * sequential).
+     */
+    private static void multiplyBlocked(int m, int n, int p, double alpha,
+            double[] a, int aOffset, int aRowStride, int aColStride,
+            double[] b, int bOffset, int bRowStride, int bColStride,
+            double[] c, int cOffset, int cRowStride) {
+        double[][] buffers = BUFFERS.get();
+        double[] ap = buffers[0];
+        double[] bp = buffers[1];
+        for (int jc = 0; jc < p; jc += NC) {
+            final int nc = Math.min(NC, p - jc);
+            for (int pc = 0; pc < n; pc += KC) {
+                final int kc = Math.min(KC, n - pc);
+                packRight(kc, nc, b, bOffset + pc * bRowStride + jc * bColStride,
+                        bRowStride, bColStride, bp);
+                for (int ic = 0; ic < m; ic += MC) {
+                    final int mc = Math.min(MC, m - ic);
+                    packLeft(mc, kc, alpha, a, aOffset + ic * aRowStride + pc
+                            * aColStride, aRowStride, aColStride, ap);
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        final int nr = Math.min(NR, nc - jr);
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            final int mr = Math.min(MR, mc - ir);
+                            microKernel(kc, ap, ir * kc, bp, jr * kc, c,
+                                    cOffset + (ic + ir) * cRowStride + jc + jr,
+                                    cRowStride, mr, nr);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest multiple of <code>block</code> greater or equal
+     * to the specified value.
+     */
+    private static int roundUp(int value, int block) {
+        return ((value + block - 1) / block) * block;
+    }
+
+    /**
+     * Sets <code>C = beta · C</code>.
+     */
+    private static void scale(int m, int p, double beta, double[] c,
+            int cOffset, int cRowStride) {
+        if (beta == 1.0)
+            return;
+        for (int i = 0; i < m; i++) {
+            final int offset = cOffset + i * cRowStride;
+            if (beta == 0.0) {
+                for (int j = 0; j < p; j++) {
+                    c[offset + j] = 0.0;
+                }
+            } else {
+                for (int j = 0; j < p; j++) {
+                    c[offset + j] *= beta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Non-blocked multiplication for small operands (i-k-j loop order).
+     */
+    private static void multiplySmall(int m, int n, int p, double alpha,
+            double[] a, int aOffset, int aRowStride, int aColStride,
+            double[] b, int bOffset, int bRowStride, int bColStride,
+            double[] c, int cOffset, int cRowStride) {
+        for (int i = 0; i < m; i++) {
+            final int ci = cOffset + i * cRowStride;
+            for (int k = 0; k < n; k++) {
+                final double aik = alpha * a[aOffset + i * aRowStride + k * aColStride];
+                final int bk = bOffset + k * bRowStride;
+                for (int j = 0; j < p; j++) {
+                    c[ci + j] += aik * b[bk + j * bColStride];
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs a <code>mc x kc</code> block of the left operand (scaled by
+     * alpha) into panels of <code>MR</code> rows, each panel being stored
+     * column after column (zero padded).
+     */
+    private static void packLeft(int mc, int kc, double alpha, double[] a,
+            int offset, int rowStride, int colStride, double[] ap) {
+        int index = 0;
+        for (int ir = 0; ir < mc; ir += MR) {
+            final int mr = Math.min(MR, mc - ir);
+            final int rowOffset = offset + ir * rowStride;
+            for (int k = 0; k < kc; k++) {
+                final int ak = rowOffset + k * colStride;
+                for (int r = 0; r < mr; r++) {
+                    ap[index++] = alpha * a[ak + r * rowStride];
+                }
+                for (int r = mr; r < MR; r++) {
+                    ap[index++] = 0.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs a <code>kc x nc</code> panel of the right operand into
+     * slivers of <code>NR</code> columns, each sliver being stored row
+     * after row (zero padded).
+     */
+    private static void packRight(int kc, int nc, double[] b, int offset,
+            int rowStride, int colStride, double[] bp) {
+        int index = 0;
+        for (int jr = 0; jr < nc; jr += NR) {
+            final int nr = Math.min(NR, nc - jr);
+            final int colOffset = offset + jr * colStride;
+            for (int k = 0; k < kc; k++) {
+                final int bk = colOffset + k * rowStride;
+                for (int s = 0; s < nr; s++) {
+                    bp[index++] = b[bk + s * colStride];
+                }
+                for (int s = nr; s < NR; s++) {
+                    bp[index++] = 0.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulates the product of a packed <code>MR x kc</code> sliver by a
+     * packed <code>kc x NR</code> sliver into <code>C</code> (only the
+     * <code>mr x nr</code> valid elements are updated).
+     */
+    private static void microKernel(int kc, double[] ap, int aIndex,
+            double[] bp, int bIndex, double[] c, int cIndex, int cRowStride,
+            int mr, int nr) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for (int k = 0; k < kc; k++) {
+            final double a0 = ap[aIndex];
+            final double a1 = ap[aIndex + 1];
+            final double a2 = ap[aIndex + 2];
+            final double a3 = ap[aIndex + 3];
+            final double b0 = bp[bIndex];
+            final double b1 = bp[bIndex + 1];
+            final double b2 = bp[bIndex + 2];
+            final double b3 = bp[bIndex + 3];
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+            aIndex += MR;
+            bIndex += NR;
+        }
+        if ((mr == MR) && (nr == NR)) { // Full block.
+            int i = cIndex;
+            c[i] += c00; c[i + 1] += c01; c[i + 2] += c02; c[i + 3] += c03;
+            i += cRowStride;
+            c[i] += c10; c[i + 1] += c11; c[i + 2] += c12; c[i + 3] += c13;
+            i += cRowStride;
+            c[i] += c20; c[i + 1] += c21; c[i + 2] += c22; c[i + 3] += c23;
+            i += cRowStride;
+            c[i] += c30; c[i + 1] += c31; c[i + 2] += c32; c[i + 3] += c33;
+            return;
+        }
+        addRow(c, cIndex, nr, c00, c01, c02, c03);
+        if (mr > 1) {
+            addRow(c, cIndex + cRowStride, nr, c10, c11, c12, c13);
+        }
+        if (mr > 2) {
+            addRow(c, cIndex + 2 * cRowStride, nr, c20, c21, c22, c23);
+        }
+        if (mr > 3) {
+            addRow(c, cIndex + 3 * cRowStride, nr, c30, c31, c32, c33);
+        }
+    }
+
+    /**
+     * Adds the <code>nr</code> first values specified to <code>C</code>.
+     */
+    private static void addRow(double[] c, int index, int nr, double v0,
+            double v1, double v2, double v3) {
+        c[index] += v0;
+        if (nr > 1) {
+            c[index + 1] += v1;
+        }
+        if (nr > 2) {
+            c[index + 2] += v2;
+        }
+        if (nr > 3) {
+            c[index + 3] += v3;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+/**
+ * <p> This class represents the LU decomposition with partial pivoting
+ *     <code>P·A = L·U</code> of a square matrix of <code>double</code>
+ *     values, calculated in place upon a row-major array.</p>
+ *
+ * <p> The factorization is right-looking and blocked: each panel of
+ *     {@link #BLOCK_SIZE} columns is factorized element by element, the
+ *     corresponding rows of <code>U</code> are obtained by a triangular
+ *     solve and the trailing sub-matrix is updated by the {@link
+ *     Float64Kernel#multiply GEMM kernel} (concurrent for large matrices),
+ *     which performs most of the <code>2n³/3</code> operations. Solving
+ *     for many right-hand sides is blocked the same way.</p>
+ *
+ * <p> Rows are exchanged to bring the largest absolute value of each
+ *     column on the diagonal. Singular matrices are decomposed (a zero
+ *     pivot leaves its column unchanged); their determinant is zero and
+ *     their inverse or solutions hold infinite or NaN values.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Float64LU {
+
+    /**
+     * Holds the number of columns of the panels.
+     */
+    public static final int BLOCK_SIZE = 64;
+
+    /**
+     * Holds the dimension.
+     */
+    private final int _n;
+
+    /**
+     * Holds the merged factors (<code>L</code> strictly below the diagonal,
+     * unit diagonal implicit; <code>U</code> on and above), row-major.
+     */
+    private final double[] _lu;
+
+    /**
+     * Holds the source row of each row of the factors.
+     */
+    private final int[] _pivots;
+
+    /**
+     * Holds the number of row exchanges.
+     */
+    private int _permutationCount;
+
+    /**
+     * Creates the decomposition of the specified matrix.
+     */
+    private Float64LU(int n, double[] lu) {
+        _n = n;
+        _lu = lu;
+        _pivots = new int[n];
+        for (int i = 0; i < n; i++) {
+            _pivots[i] = i;
+        }
+        factorize();
+    }
+
+    /**
+     * Returns the decomposition of the specified square matrix (the
+     * values are copied).
+     *
+     * @param n the dimension.
+     * @param values the row-major values (<code>n * n</code>).
+     * @return the LU decomposition.
+     * @throws IllegalArgumentException if <code>values.length != n * n</code>
+     */
+    public static Float64LU valueOf(int n, double[] values) {
+        return Float64LU.wrap(n, values.clone());
+    }
+
+    /**
+     * Returns the decomposition of the specified square matrix, the values
+     * being overwritten by the factors (no copy).
+     *
+     * @param n the dimension.
+     * @param values the row-major values (<code>n * n</code>) replaced
+     *        by the factors.
+     * @return the LU decomposition.
+     * @throws IllegalArgumentException if <code>values.length != n * n</code>
+     */
+    public static Float64LU wrap(int n, double[] values) {
+        if (values.length != n * n)
+            throw new IllegalArgumentException(values.length
+                    + " values for a " + n + "x" + n + " matrix");
+        return new Float64LU(n, values);
+    }
+
+    /**
+     * Calculates the factors (blocked, right-looking).
+     */
+    private void factorize() {
+        final int n = _n;
+        final double[] a = _lu;
+        for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+            final int kb = Math.min(BLOCK_SIZE, n - k0);
+            final int k1 = k0 + kb;
+            factorizePanel(k0, k1);
+            if (k1 == n)
+                break;
+            // U12 = inv(L11) · A12 (unit lower triangular solve).
+            for (int k = k0; k < k1; k++) {
+                for (int i = k + 1; i < k1; i++) {
+                    double l = a[i * n + k];
+                    if (l == 0.0)
+                        continue;
+                    for (int j = k1, ij = i * n + k1, kj = k * n + k1; j < n; j++) {
+                        a[ij++] -= l * a[kj++];
+                    }
+                }
+            }
+            // A22 = A22 - L21 · U12
+            Float64Kernel.multiply(n - k1, kb, n - k1, -1.0, a, k1 * n + k0,
+                    n, 1, a, k0 * n + k1, n, 1, 1.0, a, k1 * n + k1, n);
+        }
+    }
+
+    /**
+     * Factorizes the columns <code>[k0, k1)</code> of the rows
+     * <code>[k0, n)</code> (unblocked), rows being exchanged entirely.
+     */
+    private void factorizePanel(int k0, int k1) {
+        final int n = _n;
+        final double[] a = _lu;
+        for (int k = k0; k < k1; k++) {
+            int pivot = k;
+            double max = Math.abs(a[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double abs = Math.abs(a[i * n + k]);
+                if (abs > max) {
+                    max = abs;
+                    pivot = i;
+                }
+            }
+            if (pivot != k) {
+                swapRows(a, n, pivot, k);
+                int tmp = _pivots[pivot];
+                _pivots[pivot] = _pivots[k];
+                _pivots[k] = tmp;
+                _permutationCount++;
+            }
+            double ukk = a[k * n + k];
+            if (ukk == 0.0)
+                continue; // Singular, the column is already eliminated.
+            double inv = 1.0 / ukk;
+            for (int i = k + 1; i < n; i++) {
+                double l = a[i * n + k] * inv;
+                a[i * n + k] = l;
+                if (l == 0.0)
+                    continue;
+                for (int j = k + 1, ij = i * n + k + 1, kj = k * n + k + 1; j < k1; j++) {
+                    a[ij++] -= l * a[kj++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Exchanges two rows of the specified row-major array.
+     */
+    private static void swapRows(double[] a, int n, int i, int k) {
+        for (int j = 0, ij = i * n, kj = k * n; j < n; j++, ij++, kj++) {
+            double tmp = a[ij];
+            a[ij] = a[kj];
+            a[kj] = tmp;
+        }
+    }
+
+    /**
+     * Returns the dimension of the decomposed matrix.
+     *
+     * @return the number of rows (and columns).
+     */
+    public int getDimension() {
+        return _n;
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code> for
+     * the specified right-hand sides.
+     *
+     * @param p the number of right-hand sides (columns of <code>B</code>).
+     * @param b the row-major values of <code>B</code> (<code>n * p</code>).
+     * @return the row-major values of <code>X</code> (new array).
+     * @throws IllegalArgumentException if <code>b.length != n * p</code>
+     */
+    public double[] solve(int p, double[] b) {
+        if (b.length != _n * p)
+            throw new IllegalArgumentException(b.length + " values for a "
+                    + _n + "x" + p + " matrix");
+        double[] x = new double[_n * p];
+        for (int i = 0; i < _n; i++) {
+            System.arraycopy(b, _pivots[i] * p, x, i * p, p);
+        }
+        substitute(p, x);
+        return x;
+    }
+
+    /**
+     * Solves <code>L · U · X = Y</code> in place (<code>Y</code> being
+     * already permuted), blocked by {@link #BLOCK_SIZE} rows.
+     */
+    private void substitute(int p, double[] x) {
+        final int n = _n;
+        final double[] a = _lu;
+        // Forward: L · Z = Y
+        for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+            final int k1 = Math.min(k0 + BLOCK_SIZE, n);
+            for (int k = k0; k < k1; k++) {
+                for (int i = k + 1; i < k1; i++) {
+                    axpy(-a[i * n + k], x, k * p, x, i * p, p);
+                }
+            }
+            if (k1 < n) { // X2 = X2 - L21 · X1
+                Float64Kernel.multiply(n - k1, k1 - k0, p, -1.0, a, k1 * n
+                        + k0, n, 1, x, k0 * p, p, 1, 1.0, x, k1 * p, p);
+            }
+        }
+        // Backward: U · X = Z
+        for (int k1 = n; k1 > 0; k1 -= BLOCK_SIZE) {
+            final int k0 = Math.max(k1 - BLOCK_SIZE, 0);
+            for (int k = k1 - 1; k >= k0; k--) {
+                double inv = 1.0 / a[k * n + k];
+                for (int j = k * p, end = j + p; j < end; j++) {
+                    x[j] *= inv;
+                }
+                for (int i = k0; i < k; i++) {
+                    axpy(-a[i * n + k], x, k * p, x, i * p, p);
+                }
+            }
+            if (k0 > 0) { // X0 = X0 - U01 · X1
+                Float64Kernel.multiply(k0, k1 - k0, p, -1.0, a, k0, n, 1, x,
+                        k0 * p, p, 1, 1.0, x, 0, p);
+            }
+        }
+    }
+
+    /**
+     * Calculates <code>y[yOffset..] += alpha · x[xOffset..]</code> for
+     * <code>length</code> values.
+     */
+    private static void axpy(double alpha, double[] x, int xOffset,
+            double[] y, int yOffset, int length) {
+        if (alpha == 0.0)
+            return;
+        for (int j = 0; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    /**
+     * Returns the inverse of the decomposed matrix.
+     *
+     * @return the row-major values of <code>inv(A)</code> (new array).
+     */
+    public double[] inverse() {
+        final int n = _n;
+        double[] x = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            x[i * n + _pivots[i]] = 1.0; // Permuted identity.
+        }
+        substitute(n, x);
+        return x;
+    }
+
+    /**
+     * Returns the determinant of the decomposed matrix.
+     *
+     * @return <code>det(A)</code>
+     */
+    public double determinant() {
+        double product = 1.0;
+        for (int i = 0; i < _n; i++) {
+            product *= _lu[i * _n + i];
+        }
+        return ((_permutationCount & 1) == 0) ? product : -product;
+    }
+
+    /**
+     * Indicates if the decomposed matrix is singular (zero pivot).
+     *
+     * @return <code>true</code> if a diagonal element of <code>U</code> is
+     *         zero; <code>false</code> otherwise.
+     */
+    public boolean isSingular() {
+        for (int i = 0; i < _n; i++) {
+            if (_lu[i * _n + i] == 0.0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lower factor <code>L</code> (unit diagonal).
+     *
+     * @return the row-major values of <code>L</code> (new array).
+     */
+    public double[] getLower() {
+        final int n = _n;
+        double[] l = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(_lu, i * n, l, i * n, i);
+            l[i * n + i] = 1.0;
+        }
+        return l;
+    }
+
+    /**
+     * Returns the upper factor <code>U</code>.
+     *
+     * @return the row-major values of <code>U</code> (new array).
+     */
+    public double[] getUpper() {
+        final int n = _n;
+        double[] u = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(_lu, i * n + i, u, i * n + i, n - i);
+        }
+        return u;
+    }
+
+    /**
+     * Returns the factors merged in a single array (<code>L</code> below
+     * the diagonal, <code>U</code> on and above).
+     *
+     * @return the row-major values of the factors (not a copy).
+     */
+    public double[] getLU() {
+        return _lu;
+    }
+
+    /**
+     * Returns the source row of each row of the factors
+     * (<code>(P·A)[i] = A[pivots[i]]</code>).
+     *
+     * @return the pivots (new array).
+     */
+    public int[] getPivots() {
+        return _pivots.clone();
+    }
+
+    /**
+     * Returns the number of row exchanges performed.
+     *
+     * @return the number of permutations (determinant sign).
+     */
+    public int getPermutationCount() {
+        return _permutationCount;
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+/**
+ * <p> This class represents the QR decomposition <code>A = Q·R</code> of a
+ *     <code>m x n</code> matrix of <code>double</code> values
+ *     (<code>m &gt;= n</code>) by Householder reflections, calculated in
+ *     place upon a row-major array.</p>
+ *
+ * <p> The factorization is blocked: the reflections of each panel of
+ *     {@link #BLOCK_SIZE} columns are accumulated in the compact form
+ *     <code>I - V·T·Vᵀ</code> and applied to the trailing sub-matrix by
+ *     {@link Float64Kernel#multiply GEMM} calls (concurrent for large
+ *     matrices). Unlike the normal equations <code>Aᵀ·A·x = Aᵀ·b</code>,
+ *     the least squares {@link #solve solutions} do not square the
+ *     condition number of <code>A</code>.</p>
+ *
+ * <p> Tall-skinny problems are better served by the static {@link
+ *     #leastSquares leastSquares} method which reads the matrix only once:
+ *     chunks of rows small enough to stay in cache are triangularized
+ *     independently (concurrently) and their triangular factors are
+ *     reduced the same way (TSQR).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Float64QR {
+
+    /**
+     * Holds the number of columns of the panels.
+     */
+    public static final int BLOCK_SIZE = 32;
+
+    /**
+     * Holds the maximum number of values of the chunks of rows
+     * triangularized independently by {@link #leastSquares leastSquares}.
+     */
+    public static final int CHUNK_SIZE = 32768;
+
+    /**
+     * Holds the number of rows.
+     */
+    private final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    private final int _n;
+
+    /**
+     * Holds the factors (<code>R</code> on and above the diagonal, the
+     * Householder vectors below with implicit unit first element),
+     * row-major.
+     */
+    private final double[] _qr;
+
+    /**
+     * Holds the scaling factors of the Householder reflections
+     * <code>H = I - tau·v·vᵀ</code>.
+     */
+    private final double[] _tau;
+
+    /**
+     * Creates the decomposition of the specified matrix.
+     */
+    private Float64QR(int m, int n, double[] qr) {
+        _m = m;
+        _n = n;
+        _qr = qr;
+        _tau = new double[n];
+        factorize(m, n, qr, _tau);
+    }
+
+    /**
+     * Returns the decomposition of the specified matrix (the values are
+     * copied).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns (<code>n &lt;= m</code>).
+     * @param values the row-major values (<code>m * n</code>).
+     * @return the QR decomposition.
+     * @throws IllegalArgumentException if <code>values.length != m * n</code>
+     *         or <code>m &lt; n</code>
+     */
+    public static Float64QR valueOf(int m, int n, double[] values) {
+        return Float64QR.wrap(m, n, values.clone());
+    }
+
+    /**
+     * Returns the decomposition of the specified matrix, the values being
+     * overwritten by the factors (no copy).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns (<code>n &lt;= m</code>).
+     * @param values the row-major values (<code>m * n</code>) replaced by
+     *        the factors.
+     * @return the QR decomposition.
+     * @throws IllegalArgumentException if <code>values.length != m * n</code>
+     *         or <code>m &lt; n</code>
+     */
+    public static Float64QR wrap(int m, int n, double[] values) {
+        if (values.length != m * n)
+            throw new IllegalArgumentException(values.length
+                    + " values for a " + m + "x" + n + " matrix");
+        if (m < n)
+            throw new IllegalArgumentException("More columns (" + n
+                    + ") than rows (" + m + ")");
+        return new Float64QR(m, n, values);
+    }
+
+    /**
+     * Returns the least squares solution <code>X</code> minimizing
+     * <code>|A · X - B|</code> reading the operands only once (see class
+     * description). The operands are not modified.
+     *
+     * @param m the number of rows of <code>A</code> and <code>B</code>.
+     * @param n the number of columns of <code>A</code> (<code>n &lt;= m</code>).
+     * @param a the row-major values of <code>A</code> (<code>m * n</code>).
+     * @param p the number of columns of <code>B</code>.
+     * @param b the row-major values of <code>B</code> (<code>m * p</code>).
+     * @return the row-major values of <code>X</code> (<code>n * p</code>).
+     * @throws IllegalArgumentException if the arrays lengths do not match
+     *         or <code>m &lt; n</code>
+     */
+    public static double[] leastSquares(int m, int n, double[] a, int p,
+            double[] b) {
+        if ((a.length != m * n) || (b.length != m * p))
+            throw new IllegalArgumentException(a.length + " and " + b.length
+                    + " values for " + m + "x" + n + " and " + m + "x" + p
+                    + " matrices");
+        if (m < n)
+            throw new IllegalArgumentException("More columns (" + n
+                    + ") than rows (" + m + ")");
+        final int q = n + p;
+        double[] r = triangle(m, n, a, p, b); // R of [A | B]
+        double[] x = new double[n * p];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(r, i * q + n, x, i * p, p);
+        }
+        backSubstitute(n, r, q, p, x);
+        return x;
+    }
+
+    /**
+     * Returns the <code>q x q</code> upper triangular factor of the
+     * matrix <code>[A | B]</code> (<code>q = n + p</code>).
+     */
+    private static double[] triangle(final int m, final int n,
+            final double[] a, final int p, final double[] b) {
+        final int q = n + p;
+        final int rows = Math.max(2 * q, CHUNK_SIZE / q);
+        if (m < 2 * rows) { // Direct.
+            double[] w = gather(0, m, n, a, p, b);
+            factorize(m, q, w, new double[q]);
+            double[] r = new double[q * q];
+            upper(m, q, w, r, 0);
+            return r;
+        }
+        final int chunks = m / rows; // The last chunk has the remaining rows.
+        final double[] stacked = new double[chunks * q * q];
+        Scheduler.execute(chunks, 2L * m * q * q, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                double[] tau = new double[q];
+                for (int c = start; c < end; c++) {
+                    int i0 = c * rows;
+                    int i1 = (c == chunks - 1) ? m : i0 + rows;
+                    double[] w = gather(i0, i1, n, a, p, b);
+                    factorize(i1 - i0, q, w, tau);
+                    upper(i1 - i0, q, w, stacked, c * q * q);
+                }
+            }
+        });
+        return triangle(chunks * q, q, stacked, 0, null);
+    }
+
+    /**
+     * Returns the rows <code>[i0, i1)</code> of <code>[A | B]</code>.
+     */
+    private static double[] gather(int i0, int i1, int n, double[] a, int p,
+            double[] b) {
+        final int q = n + p;
+        double[] w = new double[(i1 - i0) * q];
+        for (int i = i0; i < i1; i++) {
+            System.arraycopy(a, i * n, w, (i - i0) * q, n);
+            if (p > 0) {
+                System.arraycopy(b, i * p, w, (i - i0) * q + n, p);
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Copies the upper triangle of the <code>q</code> first rows of the
+     * specified factors.
+     */
+    private static void upper(int m, int q, double[] qr, double[] r,
+            int offset) {
+        for (int i = 0, rows = Math.min(m, q); i < rows; i++) {
+            System.arraycopy(qr, i * q + i, r, offset + i * q + i, q - i);
+        }
+    }
+
+    /**
+     * Calculates the factors (blocked).
+     */
+    private static void factorize(int m, int n, double[] a, double[] tau) {
+        for (int k0 = 0, k = Math.min(m, n); k0 < k; k0 += BLOCK_SIZE) {
+            final int k1 = Math.min(k0 + BLOCK_SIZE, n);
+            factorizePanel(m, n, a, tau, k0, k1);
+            if (k1 < n) { // A2 = Qᵀ · A2
+                apply(m, n, a, tau, k0, k1, true, a, k0 * n + k1, n, n - k1);
+            }
+        }
+    }
+
+    /**
+     * Factorizes the columns <code>[k0, k1)</code> of the rows
+     * <code>[k0, m)</code> (unblocked).
+     */
+    private static void factorizePanel(int m, int n, double[] a,
+            double[] tau, int k0, int k1) {
+        double[] w = new double[k1 - k0];
+        for (int j = k0; j < k1; j++) {
+            double norm2 = 0.0;
+            for (int i = j + 1; i < m; i++) {
+                double v = a[i * n + j];
+                norm2 += v * v;
+            }
+            if (norm2 == 0.0) {
+                tau[j] = 0.0; // H = I
+                continue;
+            }
+            double alpha = a[j * n + j];
+            double beta = Math.sqrt(alpha * alpha + norm2);
+            if (alpha > 0) {
+                beta = -beta;
+            }
+            tau[j] = (beta - alpha) / beta;
+            double scale = 1.0 / (alpha - beta);
+            for (int i = j + 1; i < m; i++) {
+                a[i * n + j] *= scale;
+            }
+            a[j * n + j] = beta;
+            // Applies H to the remaining columns of the panel (by rows).
+            final int c0 = j + 1;
+            final int cn = k1 - c0;
+            if (cn == 0)
+                continue;
+            System.arraycopy(a, j * n + c0, w, 0, cn);
+            for (int i = j + 1; i < m; i++) {
+                double v = a[i * n + j];
+                if (v == 0.0)
+                    continue;
+                for (int c = 0, ic = i * n + c0; c < cn; c++) {
+                    w[c] += v * a[ic++];
+                }
+            }
+            for (int c = 0; c < cn; c++) {
+                w[c] *= tau[j];
+                a[j * n + c0 + c] -= w[c];
+            }
+            for (int i = j + 1; i < m; i++) {
+                double v = a[i * n + j];
+                if (v == 0.0)
+                    continue;
+                for (int c = 0, ic = i * n + c0; c < cn; c++) {
+                    a[ic++] -= v * w[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies the rows <code>[k0, m)</code> of the specified
+     * <code>C</code> matrix by the product <code>H(k0)...H(k1-1)</code> of
+     * the panel reflections (or its transpose) in the compact form
+     * <code>I - V·T·Vᵀ</code>.
+     */
+    private static void apply(int m, int n, double[] a, double[] tau,
+            int k0, int k1, boolean transposed, double[] c, int cOffset,
+            int cRowStride, int p) {
+        final int kb = k1 - k0;
+        final int mv = m - k0;
+        // V, explicit (unit lower trapezoidal).
+        double[] v = new double[mv * kb];
+        for (int i = 0; i < mv; i++) {
+            final int len = Math.min(i, kb);
+            System.arraycopy(a, (k0 + i) * n + k0, v, i * kb, len);
+            if (i < kb) {
+                v[i * kb + i] = 1.0;
+            }
+        }
+        // T upper triangular: T[0..j)[j] = -tau[j] · T[0..j)[0..j) · Vᵀ·v(j)
+        double[] s = new double[kb * kb];
+        Float64Kernel.multiply(kb, mv, kb, 1.0, v, 0, 1, kb, v, 0, kb, 1, 0.0,
+                s, 0, kb);
+        double[] t = new double[kb * kb];
+        for (int j = 0; j < kb; j++) {
+            final double tj = tau[k0 + j];
+            t[j * kb + j] = tj;
+            for (int i = 0; i < j; i++) {
+                double sum = 0.0;
+                for (int l = i; l < j; l++) {
+                    sum += t[i * kb + l] * s[l * kb + j];
+                }
+                t[i * kb + j] = -tj * sum;
+            }
+        }
+        // W = Vᵀ · C
+        double[] w = new double[kb * p];
+        Float64Kernel.multiply(kb, mv, p, 1.0, v, 0, 1, kb, c, cOffset,
+                cRowStride, 1, 0.0, w, 0, p);
+        // W = Tᵀ · W or T · W (in place).
+        if (transposed) {
+            for (int i = kb - 1; i >= 0; i--) {
+                for (int col = 0; col < p; col++) {
+                    double sum = 0.0;
+                    for (int l = 0; l <= i; l++) {
+                        sum += t[l * kb + i] * w[l * p + col];
+                    }
+                    w[i * p + col] = sum;
+                }
+            }
+        } else {
+            for (int i = 0; i < kb; i++) {
+                for (int col = 0; col < p; col++) {
+                    double sum = 0.0;
+                    for (int l = i; l < kb; l++) {
+                        sum += t[i * kb + l] * w[l * p + col];
+                    }
+                    w[i * p + col] = sum;
+                }
+            }
+        }
+        // C = C - V · W
+        Float64Kernel.multiply(mv, kb, p, -1.0, v, 0, kb, 1, w, 0, p, 1, 1.0,
+                c, cOffset, cRowStride);
+    }
+
+    /**
+     * Solves <code>R · X = Y</code> in place (<code>R</code> upper
+     * triangular in the <code>n</code> first rows of <code>r</code>).
+     */
+    private static void backSubstitute(int n, double[] r, int rRowStride,
+            int p, double[] x) {
+        for (int i = n - 1; i >= 0; i--) {
+            for (int k = i + 1; k < n; k++) {
+                double rik = r[i * rRowStride + k];
+                if (rik == 0.0)
+                    continue;
+                for (int j = 0, ij = i * p, kj = k * p; j < p; j++) {
+                    x[ij++] -= rik * x[kj++];
+                }
+            }
+            double inv = 1.0 / r[i * rRowStride + i];
+            for (int j = i * p, end = j + p; j < end; j++) {
+                x[j] *= inv;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows of the decomposed matrix.
+     *
+     * @return <code>m</code>
+     */
+    public int getRowDimension() {
+        return _m;
+    }
+
+    /**
+     * Returns the number of columns of the decomposed matrix.
+     *
+     * @return <code>n</code>
+     */
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    /**
+     * Indicates if the decomposed matrix has full column rank (no zero
+     * element on the diagonal of <code>R</code>). Least squares solutions
+     * of rank deficient matrices hold infinite or NaN values.
+     *
+     * @return <code>true</code> if the columns are linearly independent;
+     *         <code>false</code> otherwise.
+     */
+    public boolean isFullRank() {
+        for (int i = 0; i < _n; i++) {
+            if (_qr[i * _n + i] == 0.0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the least squares solution <code>X</code> minimizing
+     * <code>|A · X - B|</code> (<code>X = inv(R) · Qᵀ · B</code>).
+     *
+     * @param p the number of columns of <code>B</code>.
+     * @param b the row-major values of <code>B</code> (<code>m * p</code>).
+     * @return the row-major values of <code>X</code> (<code>n * p</code>,
+     *         new array).
+     * @throws IllegalArgumentException if <code>b.length != m * p</code>
+     */
+    public double[] solve(int p, double[] b) {
+        if (b.length != _m * p)
+            throw new IllegalArgumentException(b.length + " values for a "
+                    + _m + "x" + p + " matrix");
+        double[] y = b.clone();
+        for (int k0 = 0; k0 < _n; k0 += BLOCK_SIZE) {
+            apply(_m, _n, _qr, _tau, k0, Math.min(k0 + BLOCK_SIZE, _n), true,
+                    y, k0 * p, p, p);
+        }
+        double[] x = new double[_n * p];
+        System.arraycopy(y, 0, x, 0, _n * p);
+        backSubstitute(_n, _qr, _n, p, x);
+        return x;
+    }
+
+    /**
+     * Returns the minimum norm solution <code>X</code> of the
+     * under-determined system <code>Aᵀ · X = B</code>
+     * (<code>X = Q · inv(Rᵀ) · B</code>).
+     *
+     * @param p the number of columns of <code>B</code>.
+     * @param b the row-major values of <code>B</code> (<code>n * p</code>).
+     * @return the row-major values of <code>X</code> (<code>m * p</code>,
+     *         new array).
+     * @throws IllegalArgumentException if <code>b.length != n * p</code>
+     */
+    public double[] solveTransposed(int p, double[] b) {
+        if (b.length != _n * p)
+            throw new IllegalArgumentException(b.length + " values for a "
+                    + _n + "x" + p + " matrix");
+        final int n = _n;
+        double[] x = new double[_m * p];
+        System.arraycopy(b, 0, x, 0, n * p);
+        // Forward: Rᵀ · Z = B
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < i; k++) {
+                double rki = _qr[k * n + i];
+                if (rki == 0.0)
+                    continue;
+                for (int j = 0, ij = i * p, kj = k * p; j < p; j++) {
+                    x[ij++] -= rki * x[kj++];
+                }
+            }
+            double inv = 1.0 / _qr[i * n + i];
+            for (int j = i * p, end = j + p; j < end; j++) {
+                x[j] *= inv;
+            }
+        }
+        multiplyQ(p, x); // X = Q · [Z; 0]
+        return x;
+    }
+
+    /**
+     * Multiplies the specified <code>m x p</code> matrix by <code>Q</code>
+     * in place.
+     */
+    private void multiplyQ(int p, double[] x) {
+        for (int k0 = ((_n - 1) / BLOCK_SIZE) * BLOCK_SIZE; k0 >= 0; k0 -= BLOCK_SIZE) {
+            apply(_m, _n, _qr, _tau, k0, Math.min(k0 + BLOCK_SIZE, _n), false,
+                    x, k0 * p, p, p);
+        }
+    }
+
+    /**
+     * Returns the pseudo-inverse of the decomposed matrix
+     * (<code>inv(R) · Qᵀ</code>).
+     *
+     * @return the row-major values of the <code>n x m</code> pseudo-inverse
+     *         (new array).
+     */
+    public double[] pseudoInverse() {
+        final int m = _m;
+        final int n = _n;
+        double[] q = getQ();
+        double[] x = new double[n * m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                x[j * m + i] = q[i * n + j];
+            }
+        }
+        backSubstitute(n, _qr, n, m, x);
+        return x;
+    }
+
+    /**
+     * Returns the upper triangular factor <code>R</code>.
+     *
+     * @return the row-major values of <code>R</code> (<code>n * n</code>,
+     *         new array).
+     */
+    public double[] getR() {
+        final int n = _n;
+        double[] r = new double[n * n];
+        upper(n, n, _qr, r, 0);
+        return r;
+    }
+
+    /**
+     * Returns the orthonormal factor <code>Q</code> (thin, the
+     * <code>n</code> first columns only).
+     *
+     * @return the row-major values of <code>Q</code> (<code>m * n</code>,
+     *         new array).
+     */
+    public double[] getQ() {
+        double[] q = new double[_m * _n];
+        for (int i = 0; i < _n; i++) {
+            q[i * _n + i] = 1.0;
+        }
+        multiplyQ(_n, q);
+        return q;
+    }
+}
@@ -0,0 +1,592 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+/**
+ * <p> This class represents the singular value decomposition
+ *     <code>A = U·Σ·Vᵀ</code> of a <code>m x n</code> matrix of
+ *     <code>double</code> values (thin form, <code>k = min(m, n)</code>
+ *     singular values).</p>
+ *
+ * <p> The matrix is reduced in place to a bidiagonal form by Householder
+ *     reflections (Golub-Kahan), then diagonalized by the implicit shifted
+ *     QR algorithm on the bidiagonal. The singular vectors are accumulated
+ *     transposed (<code>Uᵀ</code> and <code>Vᵀ</code>, each plane rotation
+ *     combining two contiguous rows); if only the singular values are
+ *     requested the accumulation is skipped and no other matrix is
+ *     allocated. Matrices having more columns than rows are decomposed
+ *     through their transpose.</p>
+ *
+ * <p> The singular values are sorted in descending order.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Float64SVD {
+
+    /**
+     * Holds the maximum number of QR iterations per singular value.
+     */
+    private static final int MAX_ITERATIONS = 75;
+
+    /**
+     * Holds the number of rows.
+     */
+    private final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    private final int _n;
+
+    /**
+     * Holds the singular values (descending).
+     */
+    private final double[] _values;
+
+    /**
+     * Holds the left singular vectors as rows (<code>Uᵀ</code>,
+     * <code>k x m</code>) or <code>null</code>.
+     */
+    private final double[] _ut;
+
+    /**
+     * Holds the right singular vectors as rows (<code>Vᵀ</code>,
+     * <code>k x n</code>) or <code>null</code>.
+     */
+    private final double[] _vt;
+
+    /**
+     * Creates the decomposition of the specified tall matrix (or of the
+     * transpose of the source matrix if <code>transposed</code>).
+     */
+    private Float64SVD(int m, int n, double[] a, boolean vectors,
+            boolean transposed) {
+        _m = transposed ? n : m;
+        _n = transposed ? m : n;
+        _values = new double[n];
+        double[] ut = vectors ? new double[n * m] : null;
+        double[] vt = vectors ? new double[n * n] : null;
+        if (n > 0) {
+            decompose(m, n, a, _values, ut, vt);
+        }
+        _ut = transposed ? vt : ut;
+        _vt = transposed ? ut : vt;
+    }
+
+    /**
+     * Returns the singular value decomposition of the specified matrix
+     * (the values are copied).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param values the row-major values (<code>m * n</code>).
+     * @param vectors indicates if the singular vectors are calculated.
+     * @return the singular value decomposition.
+     * @throws IllegalArgumentException if <code>values.length != m * n</code>
+     * @throws ArithmeticException if the QR iterations do not converge.
+     */
+    public static Float64SVD valueOf(int m, int n, double[] values,
+            boolean vectors) {
+        return Float64SVD.wrap(m, n, values.clone(), vectors);
+    }
+
+    /**
+     * Returns the singular value decomposition of the specified matrix, the
+     * values being used as work array (no copy if <code>m &gt;= n</code>).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param values the row-major values (<code>m * n</code>) overwritten.
+     * @param vectors indicates if the singular vectors are calculated.
+     * @return the singular value decomposition.
+     * @throws IllegalArgumentException if <code>values.length != m * n</code>
+     * @throws ArithmeticException if the QR iterations do not converge.
+     */
+    public static Float64SVD wrap(int m, int n, double[] values,
+            boolean vectors) {
+        if (values.length != m * n)
+            throw new IllegalArgumentException(values.length
+                    + " values for a " + m + "x" + n + " matrix");
+        if (m >= n)
+            return new Float64SVD(m, n, values, vectors, false);
+        double[] transpose = new double[n * m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                transpose[j * m + i] = values[i * n + j];
+            }
+        }
+        return new Float64SVD(n, m, transpose, vectors, true);
+    }
+
+    /**
+     * Decomposes the specified <code>m x n</code> matrix
+     * (<code>m &gt;= n</code>).
+     */
+    private static void decompose(int m, int n, double[] a, double[] s,
+            double[] ut, double[] vt) {
+        final boolean vectors = (ut != null);
+        double[] e = new double[n];
+        double[] work = new double[Math.max(m, n)];
+        final int nct = Math.min(m - 1, n);
+        final int nrt = Math.max(0, Math.min(n - 2, m));
+        // Bidiagonalization (the rows of A are accessed contiguously).
+        for (int k = 0, kmax = Math.max(nct, nrt); k < kmax; k++) {
+            if (k < nct) { // Column k reflection, s[k] diagonal.
+                double norm = 0.0;
+                for (int i = k; i < m; i++) {
+                    norm = Float64Eigen.hypot(norm, a[i * n + k]);
+                }
+                if (norm != 0.0) {
+                    if (a[k * n + k] < 0.0) {
+                        norm = -norm;
+                    }
+                    for (int i = k; i < m; i++) {
+                        a[i * n + k] /= norm;
+                    }
+                    a[k * n + k] += 1.0;
+                    // Applies to the columns k+1...
+                    for (int j = k + 1; j < n; j++) {
+                        work[j] = 0.0;
+                    }
+                    for (int i = k; i < m; i++) {
+                        final double aik = a[i * n + k];
+                        if (aik == 0.0)
+                            continue;
+                        for (int j = k + 1, ij = i * n + k + 1; j < n; j++) {
+                            work[j] += aik * a[ij++];
+                        }
+                    }
+                    final double akk = a[k * n + k];
+                    for (int j = k + 1; j < n; j++) {
+                        work[j] = -work[j] / akk;
+                    }
+                    for (int i = k; i < m; i++) {
+                        final double aik = a[i * n + k];
+                        if (aik == 0.0)
+                            continue;
+                        for (int j = k + 1, ij = i * n + k + 1; j < n; j++) {
+                            a[ij++] += work[j] * aik;
+                        }
+                    }
+                }
+                s[k] = -norm;
+            }
+            for (int j = k + 1; j < n; j++) {
+                e[j] = a[k * n + j];
+            }
+            if (vectors && (k < nct)) {
+                for (int i = k; i < m; i++) {
+                    ut[k * m + i] = a[i * n + k];
+                }
+            }
+            if (k < nrt) { // Row k reflection, e[k] super-diagonal.
+                double norm = 0.0;
+                for (int i = k + 1; i < n; i++) {
+                    norm = Float64Eigen.hypot(norm, e[i]);
+                }
+                if (norm != 0.0) {
+                    if (e[k + 1] < 0.0) {
+                        norm = -norm;
+                    }
+                    for (int i = k + 1; i < n; i++) {
+                        e[i] /= norm;
+                    }
+                    e[k + 1] += 1.0;
+                }
+                e[k] = -norm;
+                if ((k + 1 < m) && (norm != 0.0)) {
+                    for (int i = k + 1; i < m; i++) {
+                        double sum = 0.0;
+                        for (int j = k + 1, ij = i * n + k + 1; j < n; j++) {
+                            sum += e[j] * a[ij++];
+                        }
+                        work[i] = sum;
+                    }
+                    final double ek1 = e[k + 1];
+                    for (int i = k + 1; i < m; i++) {
+                        final double t = work[i] / ek1;
+                        for (int j = k + 1, ij = i * n + k + 1; j < n; j++) {
+                            a[ij++] -= t * e[j];
+                        }
+                    }
+                }
+                if (vectors) {
+                    for (int i = k + 1; i < n; i++) {
+                        vt[k * n + i] = e[i];
+                    }
+                }
+            }
+        }
+        // Final bidiagonal matrix of order p.
+        int p = Math.min(n, m + 1);
+        if (nct < n) {
+            s[nct] = a[nct * n + nct];
+        }
+        if (m < p) {
+            s[p - 1] = 0.0;
+        }
+        if (nrt + 1 < p) {
+            e[nrt] = a[nrt * n + p - 1];
+        }
+        e[p - 1] = 0.0;
+        if (vectors) {
+            generateU(m, n, nct, s, ut);
+            generateV(n, nrt, e, vt);
+        }
+        iterate(m, n, p, s, e, ut, vt);
+    }
+
+    /**
+     * Generates <code>Uᵀ</code> from the column reflections.
+     */
+    private static void generateU(int m, int n, int nct, double[] s,
+            double[] ut) {
+        for (int j = nct; j < n; j++) {
+            for (int i = 0; i < m; i++) {
+                ut[j * m + i] = 0.0;
+            }
+            ut[j * m + j] = 1.0;
+        }
+        for (int k = nct - 1; k >= 0; k--) {
+            final int uk = k * m;
+            if (s[k] != 0.0) {
+                for (int j = k + 1; j < n; j++) {
+                    final int uj = j * m;
+                    double t = 0.0;
+                    for (int i = k; i < m; i++) {
+                        t += ut[uk + i] * ut[uj + i];
+                    }
+                    t = -t / ut[uk + k];
+                    for (int i = k; i < m; i++) {
+                        ut[uj + i] += t * ut[uk + i];
+                    }
+                }
+                for (int i = k; i < m; i++) {
+                    ut[uk + i] = -ut[uk + i];
+                }
+                ut[uk + k] += 1.0;
+                for (int i = 0; i < k; i++) {
+                    ut[uk + i] = 0.0;
+                }
+            } else {
+                for (int i = 0; i < m; i++) {
+                    ut[uk + i] = 0.0;
+                }
+                ut[uk + k] = 1.0;
+            }
+        }
+    }
+
+    /**
+     * Generates <code>Vᵀ</code> from the row reflections.
+     */
+    private static void generateV(int n, int nrt, double[] e, double[] vt) {
+        for (int k = n - 1; k >= 0; k--) {
+            final int vk = k * n;
+            if ((k < nrt) && (e[k] != 0.0)) {
+                for (int j = k + 1; j < n; j++) {
+                    final int vj = j * n;
+                    double t = 0.0;
+                    for (int i = k + 1; i < n; i++) {
+                        t += vt[vk + i] * vt[vj + i];
+                    }
+                    t = -t / vt[vk + k + 1];
+                    for (int i = k + 1; i < n; i++) {
+                        vt[vj + i] += t * vt[vk + i];
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                vt[vk + i] = 0.0;
+            }
+            vt[vk + k] = 1.0;
+        }
+    }
+
+    /**
+     * Diagonalizes the bidiagonal matrix (diagonal <code>s</code>,
+     * super-diagonal <code>e</code>) by implicit shifted QR iterations.
+     */
+    private static void iterate(int m, int n, int p, double[] s, double[] e,
+            double[] ut, double[] vt) {
+        final double eps = Math.ulp(1.0);
+        final double tiny = Math.pow(2.0, -966.0);
+        final int pp = p - 1;
+        int iter = 0;
+        while (p > 0) {
+            // Negligible elements: kase 1 (s[p-1]), 2 (s[k]), 3 (QR step),
+            // 4 (convergence).
+            int k;
+            for (k = p - 2; k >= 0; k--) {
+                if (Math.abs(e[k]) <= tiny + eps
+                        * (Math.abs(s[k]) + Math.abs(s[k + 1]))) {
+                    e[k] = 0.0;
+                    break;
+                }
+            }
+            int kase;
+            if (k == p - 2) {
+                kase = 4;
+            } else {
+                int ks;
+                for (ks = p - 1; ks > k; ks--) {
+                    double t = (ks != p ? Math.abs(e[ks]) : 0.0)
+                            + (ks != k + 1 ? Math.abs(e[ks - 1]) : 0.0);
+                    if (Math.abs(s[ks]) <= tiny + eps * t) {
+                        s[ks] = 0.0;
+                        break;
+                    }
+                }
+                if (ks == k) {
+                    kase = 3;
+                } else if (ks == p - 1) {
+                    kase = 1;
+                } else {
+                    kase = 2;
+                    k = ks;
+                }
+            }
+            k++;
+            switch (kase) {
+            case 1: { // Deflates negligible s[p-1].
+                double f = e[p - 2];
+                e[p - 2] = 0.0;
+                for (int j = p - 2; j >= k; j--) {
+                    double t = Float64Eigen.hypot(s[j], f);
+                    double cs = s[j] / t;
+                    double sn = f / t;
+                    s[j] = t;
+                    if (j != k) {
+                        f = -sn * e[j - 1];
+                        e[j - 1] = cs * e[j - 1];
+                    }
+                    if (vt != null) {
+                        rotate(vt, n, j, p - 1, cs, sn);
+                    }
+                }
+            }
+                break;
+            case 2: { // Splits at negligible s[k-1].
+                double f = e[k - 1];
+                e[k - 1] = 0.0;
+                for (int j = k; j < p; j++) {
+                    double t = Float64Eigen.hypot(s[j], f);
+                    double cs = s[j] / t;
+                    double sn = f / t;
+                    s[j] = t;
+                    f = -sn * e[j];
+                    e[j] = cs * e[j];
+                    if (ut != null) {
+                        rotate(ut, m, j, k - 1, cs, sn);
+                    }
+                }
+            }
+                break;
+            case 3: { // QR step.
+                if (++iter > MAX_ITERATIONS)
+                    throw new ArithmeticException(
+                            "No convergence for the singular value " + (p - 1));
+                double scale = Math.max(Math.max(Math.max(Math.max(Math
+                        .abs(s[p - 1]), Math.abs(s[p - 2])), Math
+                        .abs(e[p - 2])), Math.abs(s[k])), Math.abs(e[k]));
+                double sp = s[p - 1] / scale;
+                double spm1 = s[p - 2] / scale;
+                double epm1 = e[p - 2] / scale;
+                double sk = s[k] / scale;
+                double ek = e[k] / scale;
+                double b = ((spm1 + sp) * (spm1 - sp) + epm1 * epm1) / 2.0;
+                double c = (sp * epm1) * (sp * epm1);
+                double shift = 0.0;
+                if ((b != 0.0) || (c != 0.0)) {
+                    shift = Math.sqrt(b * b + c);
+                    if (b < 0.0) {
+                        shift = -shift;
+                    }
+                    shift = c / (b + shift);
+                }
+                double f = (sk + sp) * (sk - sp) + shift;
+                double g = sk * ek;
+                for (int j = k; j < p - 1; j++) { // Chases zeros.
+                    double t = Float64Eigen.hypot(f, g);
+                    double cs = f / t;
+                    double sn = g / t;
+                    if (j != k) {
+                        e[j - 1] = t;
+                    }
+                    f = cs * s[j] + sn * e[j];
+                    e[j] = cs * e[j] - sn * s[j];
+                    g = sn * s[j + 1];
+                    s[j + 1] = cs * s[j + 1];
+                    if (vt != null) {
+                        rotate(vt, n, j, j + 1, cs, sn);
+                    }
+                    t = Float64Eigen.hypot(f, g);
+                    cs = f / t;
+                    sn = g / t;
+                    s[j] = t;
+                    f = cs * e[j] + sn * s[j + 1];
+                    s[j + 1] = -sn * e[j] + cs * s[j + 1];
+                    g = sn * e[j + 1];
+                    e[j + 1] = cs * e[j + 1];
+                    if ((ut != null) && (j < m - 1)) {
+                        rotate(ut, m, j, j + 1, cs, sn);
+                    }
+                }
+                e[p - 2] = f;
+            }
+                break;
+            default: { // Convergence.
+                if (s[k] <= 0.0) { // Makes the singular value positive.
+                    s[k] = (s[k] < 0.0) ? -s[k] : 0.0;
+                    if (vt != null) {
+                        for (int i = 0, ki = k * n; i <= pp; i++) {
+                            vt[ki++] *= -1.0;
+                        }
+                    }
+                }
+                while (k < pp) { // Orders the singular values.
+                    if (s[k] >= s[k + 1])
+                        break;
+                    double t = s[k];
+                    s[k] = s[k + 1];
+                    s[k + 1] = t;
+                    if (vt != null) {
+                        swapRows(vt, n, k, k + 1);
+                    }
+                    if ((ut != null) && (k < m - 1)) {
+                        swapRows(ut, m, k, k + 1);
+                    }
+                    k++;
+                }
+                iter = 0;
+                p--;
+            }
+            }
+        }
+    }
+
+    /**
+     * Applies a plane rotation to the rows <code>i</code> and
+     * <code>k</code> (<code>z[i] = c·z[i] + s·z[k]; z[k] = c·z[k] - s·z[i]</code>).
+     */
+    private static void rotate(double[] z, int length, int i, int k,
+            double c, double s) {
+        for (int j = 0, ij = i * length, kj = k * length; j < length; j++, ij++, kj++) {
+            double t = c * z[ij] + s * z[kj];
+            z[kj] = c * z[kj] - s * z[ij];
+            z[ij] = t;
+        }
+    }
+
+    /**
+     * Exchanges two rows of the specified row-major array.
+     */
+    private static void swapRows(double[] z, int length, int i, int k) {
+        for (int j = 0, ij = i * length, kj = k * length; j < length; j++) {
+            double tmp = z[ij];
+            z[ij++] = z[kj];
+            z[kj++] = tmp;
+        }
+    }
+
+    /**
+     * Returns the number of rows of the decomposed matrix.
+     *
+     * @return <code>m</code>
+     */
+    public int getRowDimension() {
+        return _m;
+    }
+
+    /**
+     * Returns the number of columns of the decomposed matrix.
+     *
+     * @return <code>n</code>
+     */
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    /**
+     * Returns the singular values in descending order.
+     *
+     * @return the <code>min(m, n)</code> singular values (new array).
+     */
+    public double[] getSingularValues() {
+        return _values.clone();
+    }
+
+    /**
+     * Indicates if the singular vectors have been calculated.
+     *
+     * @return <code>true</code> if the singular vectors are available;
+     *         <code>false</code> if only the singular values are.
+     */
+    public boolean hasSingularVectors() {
+        return _ut != null;
+    }
+
+    /**
+     * Returns the left singular vectors as rows (<code>Uᵀ</code>).
+     *
+     * @return the row-major values of <code>Uᵀ</code>
+     *         (<code>min(m, n) x m</code>, not a copy).
+     * @throws IllegalStateException if only the singular values have been
+     *         calculated.
+     */
+    public double[] getLeftVectorRows() {
+        if (_ut == null)
+            throw new IllegalStateException("Singular vectors not calculated");
+        return _ut;
+    }
+
+    /**
+     * Returns the right singular vectors as rows (<code>Vᵀ</code>).
+     *
+     * @return the row-major values of <code>Vᵀ</code>
+     *         (<code>min(m, n) x n</code>, not a copy).
+     * @throws IllegalStateException if only the singular values have been
+     *         calculated.
+     */
+    public double[] getRightVectorRows() {
+        if (_vt == null)
+            throw new IllegalStateException("Singular vectors not calculated");
+        return _vt;
+    }
+
+    /**
+     * Returns the two norm condition number of the decomposed matrix.
+     *
+     * @return <code>max(Σ) / min(Σ)</code>
+     */
+    public double conditionNumber() {
+        final int k = _values.length;
+        return (k == 0) ? 1.0 : _values[0] / _values[k - 1];
+    }
+
+    /**
+     * Returns the numerical rank of the decomposed matrix.
+     *
+     * @return the number of singular values greater than
+     *         <code>max(m, n) · max(Σ) · ulp(1)</code>
+     */
+    public int rank() {
+        if (_values.length == 0)
+            return 0;
+        double tol = Math.max(_m, _n) * _values[0] * Math.ulp(1.0);
+        int r = 0;
+        for (int i = 0; i < _values.length; i++) {
+            if (_values[i] > tol) {
+                r++;
+            }
+        }
+        return r;
+    }
+}
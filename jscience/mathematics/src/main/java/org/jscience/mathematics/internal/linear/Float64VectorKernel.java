@@ -0,0 +1,207 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.lang.reflect.InvocationTargetException;
+
+import javolution.context.LogContext;
+import javolution.lang.Configurable;
+
+/**
+ * <p> This class holds the level 1 kernels (dot product, norm, axpy,
+ *     linear combinations) of the float vectors. The operands are
+ *     <code>double</code> arrays with an offset and an increment, the result
+ *     of the combinations is written contiguously.</p>
+ *
+ * <p> This class provides the scalar implementation. A SIMD implementation
+ *     (<code>jscience-mathematics-simd</code> artifact, based on the
+ *     <code>jdk.incubator.vector</code> API) is {@link #getInstance selected}
+ *     at run-time if present in the class path and if the JVM supports it
+ *     (option <code>--add-modules jdk.incubator.vector</code>); otherwise
+ *     this scalar implementation is used.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class Float64VectorKernel {
+
+    /**
+     * Indicates if the SIMD implementation is used when available
+     * (default <code>true</code>).
+     */
+    public static final Configurable<Boolean> VECTORIZED = new Configurable<Boolean>(
+            true) {};
+
+    /**
+     * Holds the class name of the SIMD implementation.
+     */
+    static final String SIMD_CLASS_NAME = "org.jscience.mathematics.internal.simd.SimdFloat64VectorKernel";
+
+    /**
+     * Holds the scalar implementation.
+     */
+    private static final Float64VectorKernel SCALAR = new Float64VectorKernel();
+
+    /**
+     * Holds the SIMD implementation or <code>null</code> if not available.
+     */
+    private static final Float64VectorKernel SIMD = load(SIMD_CLASS_NAME);
+
+    /**
+     * Default constructor (for sub-classes).
+     */
+    protected Float64VectorKernel() {
+    }
+
+    /**
+     * Returns the kernel implementation to use; the SIMD implementation if
+     * available and {@link #VECTORIZED enabled}; the scalar one otherwise.
+     *
+     * @return the current kernel implementation.
+     */
+    public static Float64VectorKernel getInstance() {
+        return ((SIMD != null) && VECTORIZED.get()) ? SIMD : SCALAR;
+    }
+
+    /**
+     * Indicates if this kernel uses SIMD instructions.
+     *
+     * @return <code>false</code> for the scalar implementation.
+     */
+    public boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * Returns the dot product <code>x · y</code>.
+     *
+     * @param n the number of elements.
+     * @param x the first operand.
+     * @param xOffset the index of the first element of <code>x</code>.
+     * @param xInc the increment between two elements of <code>x</code>.
+     * @param y the second operand.
+     * @param yOffset the index of the first element of <code>y</code>.
+     * @param yInc the increment between two elements of <code>y</code>.
+     * @return <code>sum(x[i] * y[i])</code>
+     */
+    public double dot(int n, double[] x, int xOffset, int xInc, double[] y,
+            int yOffset, int yInc) {
+        double sum = 0.0;
+        for (int i = 0, k = xOffset, l = yOffset; i < n; i++, k += xInc, l += yInc) {
+            sum += x[k] * y[l];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of the squares <code>x · x</code>.
+     *
+     * @param n the number of elements.
+     * @param x the operand.
+     * @param xOffset the index of the first element of <code>x</code>.
+     * @param xInc the increment between two elements of <code>x</code>.
+     * @return <code>sum(x[i] * x[i])</code>
+     */
+    public double sumOfSquares(int n, double[] x, int xOffset, int xInc) {
+        double sum = 0.0;
+        for (int i = 0, k = xOffset; i < n; i++, k += xInc) {
+            sum += x[k] * x[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Calculates <code>y = y + a · x</code> in place.
+     *
+     * @param n the number of elements.
+     * @param a the coefficient.
+     * @param x the vector added.
+     * @param xOffset the index of the first element of <code>x</code>.
+     * @param xInc the increment between two elements of <code>x</code>.
+     * @param y the vector modified.
+     * @param yOffset the index of the first element of <code>y</code>.
+     * @param yInc the increment between two elements of <code>y</code>.
+     */
+    public void axpy(int n, double a, double[] x, int xOffset, int xInc,
+            double[] y, int yOffset, int yInc) {
+        for (int i = 0, k = xOffset, l = yOffset; i < n; i++, k += xInc, l += yInc) {
+            y[l] += a * x[k];
+        }
+    }
+
+    /**
+     * Calculates <code>x = a · x</code> in place.
+     *
+     * @param n the number of elements.
+     * @param a the coefficient.
+     * @param x the vector modified.
+     * @param xOffset the index of the first element of <code>x</code>.
+     * @param xInc the increment between two elements of <code>x</code>.
+     */
+    public void scale(int n, double a, double[] x, int xOffset, int xInc) {
+        for (int i = 0, k = xOffset; i < n; i++, k += xInc) {
+            x[k] *= a;
+        }
+    }
+
+    /**
+     * Calculates the linear combination <code>z = a · x + b · y</code>
+     * (<code>y</code> ignored if <code>null</code>), <code>z</code> being
+     * contiguous.
+     *
+     * @param n the number of elements.
+     * @param a the coefficient of <code>x</code>.
+     * @param x the first operand.
+     * @param xOffset the index of the first element of <code>x</code>.
+     * @param xInc the increment between two elements of <code>x</code>.
+     * @param b the coefficient of <code>y</code>.
+     * @param y the second operand or <code>null</code>.
+     * @param yOffset the index of the first element of <code>y</code>.
+     * @param yInc the increment between two elements of <code>y</code>.
+     * @param z the result (can be one of the operands if contiguous with
+     *        the same offset).
+     * @param zOffset the index of the first element of <code>z</code>.
+     */
+    public void combine(int n, double a, double[] x, int xOffset, int xInc,
+            double b, double[] y, int yOffset, int yInc, double[] z,
+            int zOffset) {
+        if (y == null) {
+            for (int i = 0, k = xOffset; i < n; i++, k += xInc) {
+                z[zOffset + i] = a * x[k];
+            }
+        } else {
+            for (int i = 0, k = xOffset, l = yOffset; i < n; i++, k += xInc, l += yInc) {
+                z[zOffset + i] = a * x[k] + b * y[l];
+            }
+        }
+    }
+
+    /**
+     * Loads the specified kernel implementation.
+     *
+     * @return the kernel or <code>null</code> if not available.
+     */
+    private static Float64VectorKernel load(String className) {
+        try {
+            Class<?> cls = Class.forName(className);
+            return (Float64VectorKernel) cls.getDeclaredConstructor()
+                    .newInstance();
+        } catch (ClassNotFoundException e) {
+            return null; // Optional artifact not in the class path.
+        } catch (InvocationTargetException e) { // Constructor failure.
+            LogContext.info("SIMD kernel not available (", e.getCause(),
+                    "), scalar kernel used.");
+            return null;
+        } catch (Throwable error) { // Vector API not supported (LinkageError).
+            LogContext.info("SIMD kernel not available (", error,
+                    "), scalar kernel used.");
+            return null;
+        }
+    }
+}
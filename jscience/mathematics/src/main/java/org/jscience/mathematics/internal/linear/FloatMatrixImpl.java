@@ -0,0 +1,575 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents a dense matrix of 64 bits floating points
+ *     numbers stored in a single <code>double</code> array with an offset
+ *     and row/column strides (row-major when created). The
+ *     {@link #transpose transpose}, the {@link #getRow rows}, the
+ *     {@link #getColumn columns}, the {@link #getDiagonal diagonal} and the
+ *     {@link #getSubMatrix(int, int, int, int) sub-matrices} (ranges or
+ *     equally spaced indices) are views sharing this array (no copy).</p>
+ *
+ * <p> Matrix products are calculated by the {@link Float64Kernel} directly
+ *     upon the operands arrays (whatever their strides); operations on
+ *     large matrices are executed concurrently by the {@link Scheduler}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class FloatMatrixImpl extends AbstractMatrix<Float64> implements
+        FloatMatrix {
+
+    /**
+     * Holds the values (never modified once the matrix is created).
+     */
+    final double[] _values;
+
+    /**
+     * Holds the index of the value <code>[0,0]</code>.
+     */
+    final int _offset;
+
+    /**
+     * Holds the index increment between two consecutive rows.
+     */
+    final int _rowStride;
+
+    /**
+     * Holds the index increment between two consecutive columns.
+     */
+    final int _colStride;
+
+    /**
+     * Holds the number of rows.
+     */
+    final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    final int _n;
+
+    /**
+     * Creates a matrix view over the specified values.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param values the values (shared).
+     * @param offset the index of the value <code>[0,0]</code>.
+     * @param rowStride the index increment between two consecutive rows.
+     * @param colStride the index increment between two consecutive columns.
+     */
+    FloatMatrixImpl(int m, int n, double[] values, int offset, int rowStride,
+            int colStride) {
+        _m = m;
+        _n = n;
+        _values = values;
+        _offset = offset;
+        _rowStride = rowStride;
+        _colStride = colStride;
+    }
+
+    /**
+     * Returns a matrix holding the specified row-major <code>double</code>
+     * values (not copied). The caller gives up the ownership of the array:
+     * the values must not be modified afterward since the factorizations of
+     * the matrix are {@link FactorizationCache cached} by identity (they would
+     * become stale). Writers sharing the array, such as
+     * {@link MutableFloatMatrixImpl#freeze}, copy it before modifying it.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param values the row-major values (<code>m * n</code>), not modified
+     *        by the caller afterward.
+     * @return the corresponding matrix.
+     */
+    public static FloatMatrixImpl wrap(int m, int n, double[] values) {
+        if (values.length != m * n)
+            throw new DimensionException(values.length + " values for a " + m
+                    + "x" + n + " matrix");
+        return new FloatMatrixImpl(m, n, values, 0, n, 1);
+    }
+
+    /**
+     * Returns a matrix holding the specified <code>double</code> values
+     * (first dimension being the rows).
+     *
+     * @param values the matrix values.
+     * @return the matrix having the specified values.
+     * @throws DimensionException if rows have different length.
+     */
+    public static FloatMatrixImpl valueOf(double[][] values) {
+        final int m = values.length;
+        final int n = (m == 0) ? 0 : values[0].length;
+        double[] array = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            AbstractVector.checkDimension(n, values[i].length);
+            System.arraycopy(values[i], 0, array, i * n, n);
+        }
+        return new FloatMatrixImpl(m, n, array, 0, n, 1);
+    }
+
+    /**
+     * Returns a matrix holding the specified row vectors.
+     *
+     * @param rows the row vectors.
+     * @return the matrix having the specified rows.
+     * @throws DimensionException if the rows do not have the same dimension.
+     */
+    public static FloatMatrixImpl valueOf(Vector<Float64>... rows) {
+        final int m = rows.length;
+        final int n = (m == 0) ? 0 : rows[0].getDimension();
+        double[] values = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            FloatVectorImpl row = FloatVectorImpl.valueOf(rows[i]);
+            AbstractVector.checkDimension(n, row._dimension);
+            for (int j = 0; j < n; j++) {
+                values[i * n + j] = row.value(j);
+            }
+        }
+        return new FloatMatrixImpl(m, n, values, 0, n, 1);
+    }
+
+    /**
+     * Returns a float matrix equivalent to the specified matrix.
+     *
+     * @param that the matrix to convert.
+     * @return <code>that</code> or a float matrix holding the same values.
+     */
+    public static FloatMatrixImpl valueOf(Matrix<Float64> that) {
+        if (that instanceof FloatMatrixImpl)
+            return (FloatMatrixImpl) that;
+        if (that instanceof LazyFloatMatrix)
+            return ((LazyFloatMatrix) that).evaluate();
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        double[] values = new double[m * n];
+        if (that instanceof FloatMatrix) {
+            FloatMatrix M = (FloatMatrix) that;
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < n; j++) {
+                    values[i * n + j] = M.getValue(i, j);
+                }
+            }
+        } else {
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < n; j++) {
+                    values[i * n + j] = that.get(i, j).doubleValue();
+                }
+            }
+        }
+        return new FloatMatrixImpl(m, n, values, 0, n, 1);
+    }
+
+    @Override
+    public int getRowDimension() {
+        return _m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    @Override
+    public double getValue(int i, int j) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        return _values[_offset + i * _rowStride + j * _colStride];
+    }
+
+    /**
+     * Returns the value at the specified position (no bound check).
+     */
+    double value(int i, int j) {
+        return _values[_offset + i * _rowStride + j * _colStride];
+    }
+
+    @Override
+    public Float64 get(int i, int j) {
+        return Float64.valueOf(getValue(i, j));
+    }
+
+    /**
+     * Returns a contiguous row-major copy of the values of this matrix.
+     *
+     * @return the values of this matrix.
+     */
+    public double[] toArray() {
+        double[] values = new double[_m * _n];
+        for (int i = 0; i < _m; i++) {
+            for (int j = 0; j < _n; j++) {
+                values[i * _n + j] = value(i, j);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public FloatVector getRow(int i) {
+        AbstractVector.checkIndex(i, _m);
+        return new FloatVectorImpl(_values, _offset + i * _rowStride,
+                _colStride, _n);
+    }
+
+    @Override
+    public FloatVector getColumn(int j) {
+        AbstractVector.checkIndex(j, _n);
+        return new FloatVectorImpl(_values, _offset + j * _colStride,
+                _rowStride, _m);
+    }
+
+    @Override
+    public FloatVector getDiagonal() {
+        return new FloatVectorImpl(_values, _offset, _rowStride + _colStride,
+                Math.min(_m, _n));
+    }
+
+    @Override
+    public FloatMatrix getSubMatrix(List<Index> rows, List<Index> columns) {
+        final int m = rows.size();
+        final int n = columns.size();
+        int rowStep = step(rows, _m);
+        int colStep = step(columns, _n);
+        if ((rowStep != IRREGULAR) && (colStep != IRREGULAR))
+            return new FloatMatrixImpl(m, n, _values, _offset
+                    + rows.get(0).intValue() * _rowStride
+                    + columns.get(0).intValue() * _colStride, rowStep
+                    * _rowStride, colStep * _colStride); // View.
+        double[] values = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            int ii = rows.get(i).intValue();
+            AbstractVector.checkIndex(ii, _m);
+            for (int j = 0; j < n; j++) {
+                int jj = columns.get(j).intValue();
+                AbstractVector.checkIndex(jj, _n);
+                values[i * n + j] = value(ii, jj);
+            }
+        }
+        return new FloatMatrixImpl(m, n, values, 0, n, 1);
+    }
+
+    @Override
+    public FloatMatrix getSubMatrix(int fromRow, int toRow, int fromColumn,
+            int toColumn) {
+        checkRange(fromRow, toRow, _m);
+        checkRange(fromColumn, toColumn, _n);
+        return new FloatMatrixImpl(toRow - fromRow, toColumn - fromColumn,
+                _values, _offset + fromRow * _rowStride + fromColumn
+                        * _colStride, _rowStride, _colStride);
+    }
+
+    @Override
+    public FloatMatrix opposite() {
+        return combine(-1.0, null, 0.0);
+    }
+
+    @Override
+    public FloatMatrix plus(Matrix<Float64> that) {
+        return combine(1.0, that, 1.0);
+    }
+
+    @Override
+    public FloatMatrix minus(Matrix<Float64> that) {
+        return combine(1.0, that, -1.0);
+    }
+
+    @Override
+    public FloatMatrix times(Float64 k) {
+        return combine(k.doubleValue(), null, 0.0);
+    }
+
+    /**
+     * Calculates <code>y = this · x</code> (no allocation).
+     *
+     * @param x the multiplier values (<code>n</code>).
+     * @param y the array receiving the result (<code>m</code>).
+     * @throws DimensionException if the arrays are too small.
+     */
+    public void times(double[] x, double[] y) {
+        if (x.length < _n)
+            throw new DimensionException(x.length + " instead of " + _n);
+        if (y.length < _m)
+            throw new DimensionException(y.length + " instead of " + _m);
+        Float64Kernel.multiply(_m, _n, 1, 1.0, _values, _offset, _rowStride,
+                _colStride, x, 0, 1, 1, 0.0, y, 0, 1);
+    }
+
+    /**
+     * Equivalent to <code>this.times(Float64.valueOf(k))</code>
+     *
+     * @param k the coefficient.
+     * @return <code>this * k</code>
+     */
+    public FloatMatrix times(double k) {
+        return combine(k, null, 0.0);
+    }
+
+    /**
+     * Returns <code>k · this + l · that</code> (<code>that</code> being
+     * ignored if <code>null</code>).
+     */
+    private FloatMatrix combine(final double k, Matrix<Float64> that,
+            final double l) {
+        final FloatMatrixImpl M;
+        if (that != null) {
+            if ((that.getRowDimension() != _m)
+                    || (that.getColumnDimension() != _n))
+                throw new DimensionException();
+            M = FloatMatrixImpl.valueOf(that);
+        } else {
+            M = null;
+        }
+        final double[] values = new double[_m * _n];
+        Scheduler.execute(_m, (long) _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    int index = i * _n;
+                    if (M == null) {
+                        for (int j = 0; j < _n; j++) {
+                            values[index++] = k * value(i, j);
+                        }
+                    } else {
+                        for (int j = 0; j < _n; j++) {
+                            values[index++] = k * value(i, j) + l
+                                    * M.value(i, j);
+                        }
+                    }
+                }
+            }
+        });
+        return new FloatMatrixImpl(_m, _n, values, 0, _n, 1);
+    }
+
+    @Override
+    public FloatVector times(Vector<Float64> v) {
+        AbstractVector.checkDimension(_n, v.getDimension());
+        final FloatVectorImpl V = FloatVectorImpl.valueOf(v);
+        final double[] values = new double[_m];
+        Scheduler.execute(_m, 2L * _m * _n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    double sum = 0;
+                    for (int j = 0; j < _n; j++) {
+                        sum += value(i, j) * V.value(j);
+                    }
+                    values[i] = sum;
+                }
+            }
+        });
+        return new FloatVectorImpl(values, 0, 1, _m);
+    }
+
+    @Override
+    public FloatMatrix times(Matrix<Float64> that) {
+        if (that.getRowDimension() != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        FloatMatrixImpl M = FloatMatrixImpl.valueOf(that);
+        final int p = M._n;
+        double[] values = new double[_m * p];
+        Float64Kernel.multiply(_m, _n, p, 1.0, _values, _offset, _rowStride,
+                _colStride, M._values, M._offset, M._rowStride, M._colStride,
+                0.0, values, 0, p);
+        return new FloatMatrixImpl(_m, p, values, 0, p, 1);
+    }
+
+    /**
+     * Returns the blocked LU decomposition of this square matrix (calculated
+     * once, see {@link FactorizationCache}).
+     */
+    private Float64LU lu() {
+        if (_m != _n)
+            throw new DimensionException("Matrix not square");
+        Float64LU lu = FactorizationCache.get(this, Float64LU.class);
+        if (lu != null)
+            return lu;
+        return FactorizationCache.put(this, Float64LU.class, Float64LU.wrap(
+                _n, toArray()));
+    }
+
+    @Override
+    public Float64 determinant() {
+        return Float64.valueOf(lu().determinant());
+    }
+
+    @Override
+    public int rank() {
+        return Float64SVD.wrap(_m, _n, toArray(), false).rank();
+    }
+
+    @Override
+    public FloatMatrix inverse() {
+        return new FloatMatrixImpl(_n, _n, lu().inverse(), 0, _n, 1);
+    }
+
+    @Override
+    public FloatMatrix divide(Matrix<Float64> that) {
+        return this.times(that.inverse());
+    }
+
+    /**
+     * Returns the Householder QR decomposition of this matrix (or of its
+     * transpose if this matrix has more columns than rows), calculated once
+     * (see {@link FactorizationCache}).
+     */
+    private Float64QR qr() {
+        Float64QR qr = FactorizationCache.get(this, Float64QR.class);
+        if (qr != null)
+            return qr;
+        qr = (_m >= _n) ? Float64QR.wrap(_m, _n, toArray()) : Float64QR.wrap(
+                _n, _m, ((FloatMatrixImpl) transpose()).toArray());
+        return FactorizationCache.put(this, Float64QR.class, qr);
+    }
+
+    @Override
+    public FloatMatrix pseudoInverse() {
+        if (_m == _n)
+            return inverse();
+        FloatMatrixImpl pinv = new FloatMatrixImpl(Math.min(_m, _n), Math.max(
+                _m, _n), qr().pseudoInverse(), 0, Math.max(_m, _n), 1);
+        return (_m > _n) ? pinv : pinv.transpose();
+    }
+
+    @Override
+    public FloatMatrix transpose() {
+        return new FloatMatrixImpl(_n, _m, _values, _offset, _colStride,
+                _rowStride);
+    }
+
+    @Override
+    public FloatMatrix adjoint() {
+        return FloatMatrixImpl.valueOf(super.adjoint());
+    }
+
+    @Override
+    public FloatVector solve(Vector<Float64> y) {
+        FloatVectorImpl v = FloatVectorImpl.valueOf(y);
+        if (v._dimension != _m)
+            throw new DimensionException("Vector dimension " + v._dimension
+                    + " instead of " + _m);
+        double[] b = new double[_m];
+        for (int i = 0; i < _m; i++) {
+            b[i] = v.value(i);
+        }
+        return new FloatVectorImpl(solve(1, b), 0, 1, _n);
+    }
+
+    @Override
+    public FloatMatrix solve(Matrix<Float64> y) {
+        FloatMatrixImpl B = FloatMatrixImpl.valueOf(y);
+        if (B._m != _m)
+            throw new DimensionException("Matrix has " + B._m
+                    + " rows instead of " + _m);
+        return new FloatMatrixImpl(_n, B._n, solve(B._n, B.toArray()), 0,
+                B._n, 1);
+    }
+
+    /**
+     * Returns the solution of <code>this · X = B</code>: exact (LU) if
+     * this matrix is square, least squares if it has more rows than columns
+     * and minimum norm otherwise. The decompositions are reused by the
+     * subsequent solves.
+     */
+    private double[] solve(int p, double[] b) {
+        if (_m == _n)
+            return lu().solve(p, b);
+        if (_m > _n)
+            return qr().solve(p, b);
+        return qr().solveTransposed(p, b);
+    }
+
+    @Override
+    public FloatMatrix pow(int exp) {
+        return FloatMatrixImpl.valueOf(super.pow(exp));
+    }
+
+    @Override
+    public Float64 trace() {
+        double sum = 0;
+        for (int i = 0, n = Math.min(_m, _n); i < n; i++) {
+            sum += value(i, i);
+        }
+        return Float64.valueOf(sum);
+    }
+
+    @Override
+    public FloatMatrix tensor(Matrix<Float64> that) {
+        // If this is a m-by-n matrix and that is a p-by-q matrix,
+        // then the Kronecker product is the mp-by-nq block.
+        FloatMatrixImpl M = FloatMatrixImpl.valueOf(that);
+        final int p = M._m;
+        final int q = M._n;
+        final int columns = _n * q;
+        double[] values = new double[_m * p * columns];
+        for (int i0 = 0; i0 < _m; i0++) {
+            for (int j0 = 0; j0 < _n; j0++) {
+                double e = value(i0, j0);
+                for (int i1 = 0; i1 < p; i1++) {
+                    for (int j1 = 0; j1 < q; j1++) {
+                        values[(i0 * p + i1) * columns + j0 * q + j1] = e
+                                * M.value(i1, j1);
+                    }
+                }
+            }
+        }
+        return new FloatMatrixImpl(_m * p, columns, values, 0, columns, 1);
+    }
+
+    @Override
+    public FloatVector vectorization() {
+        double[] values = new double[_m * _n];
+        for (int j = 0; j < _n; j++) { // For each column.
+            for (int i = 0; i < _m; i++) {
+                values[j * _m + i] = value(i, j);
+            }
+        }
+        return new FloatVectorImpl(values, 0, 1, _m * _n);
+    }
+
+    @Override
+    public int hashCode() { // Consistent with Float64.hashCode()
+        int hash = 1;
+        for (int i = 0; i < _m; i++) {
+            for (int j = 0; j < _n; j++) {
+                long bits = Double.doubleToLongBits(value(i, j));
+                hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public FloatMatrixImpl copy() {
+        return new FloatMatrixImpl(_m, _n, toArray(), 0, _n, 1);
+    }
+
+    @Override
+    public void export() {
+        // Values are always held in global memory.
+    }
+}
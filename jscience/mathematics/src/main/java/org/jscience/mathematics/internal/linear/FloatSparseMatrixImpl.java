@@ -0,0 +1,501 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.SparseVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents a compressed sparse matrix (CSR or CSC) of
+ *     64 bits floating points numbers, the non-zero values being held in
+ *     a <code>double</code> array parallel to the minor indices (about
+ *     12 bytes per non-zero element).</p>
+ *
+ * <p> Square systems are solved (and determinants calculated) by the
+ *     {@link SparseFloat64LU sparse LU decomposition} without conversion
+ *     to a dense matrix; singular matrices fall back to the dense
+ *     elimination.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class FloatSparseMatrixImpl extends AbstractSparseMatrix<Float64> {
+
+    /**
+     * Holds the non-zero values (never modified).
+     */
+    final double[] _values;
+
+    /**
+     * Creates a sparse matrix having the specified structure and values.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param columnMajor <code>true</code> for CSC; <code>false</code> for
+     *        CSR.
+     * @param pointers the slices pointers (shared).
+     * @param indices the minor indices (shared).
+     * @param values the non-zero values (shared).
+     */
+    FloatSparseMatrixImpl(int m, int n, boolean columnMajor, int[] pointers,
+            int[] indices, double[] values) {
+        super(m, n, columnMajor, pointers, indices, Float64.ZERO);
+        _values = values;
+    }
+
+    /**
+     * Returns the CSR matrix having the specified structure and values
+     * (arrays are copied).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param rowPointers the rows pointers (<code>m + 1</code>).
+     * @param columnIndices the column indices (sorted for each row).
+     * @param values the non-zero values.
+     * @return the corresponding matrix.
+     * @throws IllegalArgumentException if the structure is not valid.
+     */
+    public static FloatSparseMatrixImpl valueOf(int m, int n,
+            int[] rowPointers, int[] columnIndices, double[] values) {
+        SparseKernel.check(m, n, rowPointers, columnIndices);
+        final int nnz = rowPointers[m];
+        if (values.length < nnz)
+            throw new IllegalArgumentException(values.length
+                    + " values for " + nnz + " indices");
+        return new FloatSparseMatrixImpl(m, n, false, rowPointers.clone(),
+                resize(columnIndices.clone(), nnz), resize(values.clone(),
+                        nnz));
+    }
+
+    /**
+     * Returns the CSR matrix having the specified rows.
+     *
+     * @param rows the rows.
+     * @return the corresponding matrix.
+     * @throws DimensionException if the rows do not have the same dimension.
+     */
+    public static FloatSparseMatrixImpl valueOf(Vector<Float64>... rows) {
+        return FloatSparseMatrixImpl.valueOf(SparseMatrixImpl.valueOf(
+                Float64.ZERO, rows));
+    }
+
+    /**
+     * Returns a float sparse matrix equivalent to the specified matrix.
+     *
+     * @param that the matrix to convert.
+     * @return <code>that</code> or a CSR matrix holding the non-zero
+     *         values of <code>that</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public static FloatSparseMatrixImpl valueOf(Matrix<Float64> that) {
+        if (that instanceof FloatSparseMatrixImpl)
+            return (FloatSparseMatrixImpl) that;
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        int[] pointers = new int[m + 1];
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        int nnz = 0;
+        AbstractSparseMatrix<Float64> csr = (that instanceof AbstractSparseMatrix) ? ((AbstractSparseMatrix<Float64>) that)
+                .toRowMajor() : null;
+        FloatMatrix M = (that instanceof FloatMatrix) ? (FloatMatrix) that
+                : null;
+        for (int i = 0; i < m; i++) {
+            int start = (csr != null) ? csr._pointers[i] : 0;
+            int end = (csr != null) ? csr._pointers[i + 1] : n;
+            for (int k = start; k < end; k++) {
+                int j = (csr != null) ? csr._indices[k] : k;
+                double value = (csr != null) ? csr.value(k).doubleValue()
+                        : (M != null) ? M.getValue(i, j) : that.get(i, j)
+                                .doubleValue();
+                if (value == 0.0)
+                    continue;
+                if (nnz == indices.length) {
+                    indices = resize(indices, 2 * nnz);
+                    values = resize(values, 2 * nnz);
+                }
+                indices[nnz] = j;
+                values[nnz++] = value;
+            }
+            pointers[i + 1] = nnz;
+        }
+        return new FloatSparseMatrixImpl(m, n, false, pointers, resize(
+                indices, nnz), resize(values, nnz));
+    }
+
+    /**
+     * Returns the <code>double</code> value of the element
+     * <code>[i, j]</code>.
+     *
+     * @param i the row index.
+     * @param j the column index.
+     * @return <code>get(i, j).doubleValue()</code>
+     */
+    public double getValue(int i, int j) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        int k = position(i, j);
+        return (k < 0) ? 0.0 : _values[k];
+    }
+
+    @Override
+    Float64 value(int k) {
+        return Float64.valueOf(_values[k]);
+    }
+
+    @Override
+    FloatSparseMatrixImpl gather(int m, int n, boolean columnMajor,
+            int[] pointers, int[] indices, int[] positions) {
+        double[] values = new double[positions.length];
+        for (int k = 0; k < positions.length; k++) {
+            values[k] = _values[positions[k]];
+        }
+        return new FloatSparseMatrixImpl(m, n, columnMajor, pointers,
+                indices, values);
+    }
+
+    @Override
+    FloatSparseMatrixImpl toSparse(Matrix<Float64> that) {
+        return FloatSparseMatrixImpl.valueOf(that);
+    }
+
+    @Override
+    public FloatSparseMatrixImpl toRowMajor() {
+        return (FloatSparseMatrixImpl) super.toRowMajor();
+    }
+
+    @Override
+    public FloatSparseMatrixImpl toColumnMajor() {
+        return (FloatSparseMatrixImpl) super.toColumnMajor();
+    }
+
+    @Override
+    public SparseMatrix<Float64> opposite() {
+        return times(-1.0);
+    }
+
+    @Override
+    public SparseMatrix<Float64> plus(Matrix<Float64> that) {
+        return combine(that, 1.0);
+    }
+
+    @Override
+    public SparseMatrix<Float64> minus(Matrix<Float64> that) {
+        return combine(that, -1.0);
+    }
+
+    /**
+     * Returns <code>this + l · that</code>.
+     */
+    private FloatSparseMatrixImpl combine(Matrix<Float64> that, double l) {
+        if ((that.getRowDimension() != _m) || (that.getColumnDimension() != _n))
+            throw new DimensionException();
+        FloatSparseMatrixImpl a = this.toRowMajor();
+        FloatSparseMatrixImpl b = FloatSparseMatrixImpl.valueOf(that)
+                .toRowMajor();
+        final int capacity = a.getNonZeroCount() + b.getNonZeroCount();
+        int[] pointers = new int[_m + 1];
+        int[] indices = new int[capacity];
+        double[] values = new double[capacity];
+        int nnz = 0;
+        for (int i = 0; i < _m; i++) {
+            int k = a._pointers[i];
+            int kEnd = a._pointers[i + 1];
+            int h = b._pointers[i];
+            int hEnd = b._pointers[i + 1];
+            while ((k < kEnd) || (h < hEnd)) {
+                int jA = (k < kEnd) ? a._indices[k] : Integer.MAX_VALUE;
+                int jB = (h < hEnd) ? b._indices[h] : Integer.MAX_VALUE;
+                double value;
+                if (jA < jB) {
+                    value = a._values[k++];
+                } else if (jB < jA) {
+                    value = l * b._values[h++];
+                } else {
+                    value = a._values[k++] + l * b._values[h++];
+                    if (value == 0.0)
+                        continue;
+                }
+                indices[nnz] = Math.min(jA, jB);
+                values[nnz++] = value;
+            }
+            pointers[i + 1] = nnz;
+        }
+        return new FloatSparseMatrixImpl(_m, _n, false, pointers, resize(
+                indices, nnz), resize(values, nnz));
+    }
+
+    @Override
+    public SparseMatrix<Float64> times(Float64 k) {
+        return times(k.doubleValue());
+    }
+
+    /**
+     * Equivalent to <code>this.times(Float64.valueOf(k))</code>
+     *
+     * @param k the coefficient.
+     * @return <code>this * k</code>
+     */
+    public FloatSparseMatrixImpl times(double k) {
+        final int nnz = getNonZeroCount();
+        double[] values = new double[nnz];
+        for (int i = 0; i < nnz; i++) {
+            values[i] = k * _values[i];
+        }
+        return new FloatSparseMatrixImpl(_m, _n, _columnMajor, _pointers,
+                _indices, values);
+    }
+
+    @Override
+    public SparseVector<Float64> times(Vector<Float64> v) {
+        double[] y = new double[_m];
+        multiply(v, y);
+        return toSparseVector(y);
+    }
+
+    @Override
+    public void times(Vector<Float64> v, Float64[] result) {
+        if (result.length < _m)
+            throw new DimensionException(result.length + " instead of " + _m);
+        double[] y = new double[_m];
+        multiply(v, y);
+        for (int i = 0; i < _m; i++) {
+            result[i] = Float64.valueOf(y[i]);
+        }
+    }
+
+    /**
+     * Calculates <code>y = this · x</code> (no allocation). Rows of large
+     * CSR matrices are processed concurrently, each thread receiving about
+     * the same number of non-zero values.
+     *
+     * @param x the multiplier values (<code>n</code>).
+     * @param y the array receiving the result (<code>m</code>).
+     * @throws DimensionException if the arrays are too small.
+     */
+    public void times(double[] x, double[] y) {
+        if (x.length < _n)
+            throw new DimensionException(x.length + " instead of " + _n);
+        if (y.length < _m)
+            throw new DimensionException(y.length + " instead of " + _m);
+        if (_columnMajor) {
+            SparseKernel.multiplyColumns(_m, _n, _pointers, _indices, _values,
+                    x, 0, 1, y, 0);
+        } else {
+            SparseKernel.multiply(_m, _pointers, _indices, _values, x, 0, 1, y,
+                    0);
+        }
+    }
+
+    /**
+     * Calculates <code>y = this · v</code> directly upon the values of
+     * <code>v</code> if <code>v</code> is a float vector.
+     */
+    private void multiply(Vector<Float64> v, double[] y) {
+        AbstractVector.checkDimension(_n, v.getDimension());
+        FloatVectorImpl x = FloatVectorImpl.valueOf(v);
+        if (_columnMajor) {
+            SparseKernel.multiplyColumns(_m, _n, _pointers, _indices, _values,
+                    x._values, x._offset, x._stride, y, 0);
+        } else {
+            SparseKernel.multiply(_m, _pointers, _indices, _values, x._values,
+                    x._offset, x._stride, y, 0);
+        }
+    }
+
+    /**
+     * Returns the product of this matrix with the specified matrix
+     * (Gustavson's algorithm, see {@link SparseKernel}).
+     */
+    @Override
+    public SparseMatrix<Float64> times(Matrix<Float64> that) {
+        if (that.getRowDimension() != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        FloatSparseMatrixImpl a = this.toRowMajor();
+        FloatSparseMatrixImpl b = FloatSparseMatrixImpl.valueOf(that)
+                .toRowMajor();
+        final int p = b._n;
+        int[] pointers = new int[_m + 1];
+        int nnz = SparseKernel.multiplySymbolic(_m, p, a._pointers,
+                a._indices, b._pointers, b._indices, pointers);
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+        SparseKernel.multiplyNumeric(_m, p, a._pointers, a._indices,
+                a._values, b._pointers, b._indices, b._values, pointers,
+                indices, values);
+        nnz = SparseKernel.compact(_m, pointers, indices, values);
+        return new FloatSparseMatrixImpl(_m, p, false, pointers, resize(
+                indices, nnz), resize(values, nnz));
+    }
+
+    @Override
+    public FloatSparseMatrixImpl transpose() {
+        return new FloatSparseMatrixImpl(_n, _m, !_columnMajor, _pointers,
+                _indices, _values);
+    }
+
+    @Override
+    public Float64 trace() {
+        double sum = 0;
+        for (int i = 0, n = Math.min(_m, _n); i < n; i++) {
+            int k = position(i, i);
+            if (k >= 0) {
+                sum += _values[k];
+            }
+        }
+        return Float64.valueOf(sum);
+    }
+
+    @Override
+    public SparseMatrix<Float64> tensor(Matrix<Float64> that) {
+        // If this is a m-by-n matrix and that is a p-by-q matrix,
+        // then the Kronecker product is the mp-by-nq block.
+        FloatSparseMatrixImpl a = this.toRowMajor();
+        FloatSparseMatrixImpl b = FloatSparseMatrixImpl.valueOf(that)
+                .toRowMajor();
+        final int p = b._m;
+        final int q = b._n;
+        final int nnz = a.getNonZeroCount() * b.getNonZeroCount();
+        int[] pointers = new int[_m * p + 1];
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+        int count = 0;
+        for (int i0 = 0; i0 < _m; i0++) {
+            for (int i1 = 0; i1 < p; i1++) {
+                for (int k = a._pointers[i0]; k < a._pointers[i0 + 1]; k++) {
+                    double e = a._values[k];
+                    int offset = a._indices[k] * q;
+                    for (int h = b._pointers[i1]; h < b._pointers[i1 + 1]; h++) {
+                        indices[count] = offset + b._indices[h];
+                        values[count++] = e * b._values[h];
+                    }
+                }
+                pointers[i0 * p + i1 + 1] = count;
+            }
+        }
+        return new FloatSparseMatrixImpl(_m * p, _n * q, false, pointers,
+                indices, values);
+    }
+
+    /**
+     * Returns the sparse LU decomposition of this matrix (columns ordered
+     * by approximate minimum degree, calculated once, see
+     * {@link SparseFloat64LU#valueOf(FloatSparseMatrixImpl)}) or
+     * <code>null</code> if this matrix is not square or is singular.
+     */
+    private SparseFloat64LU lu() {
+        if (_m != _n)
+            return null;
+        try {
+            return SparseFloat64LU.valueOf(this);
+        } catch (ArithmeticException e) {
+            return null; // Singular.
+        }
+    }
+
+    @Override
+    public Float64 determinant() {
+        SparseFloat64LU lu = lu();
+        if (lu == null)
+            return super.determinant();
+        return Float64.valueOf(lu.determinant());
+    }
+
+    @Override
+    public SparseMatrix<Float64> inverse() {
+        SparseFloat64LU lu = lu();
+        if (lu == null)
+            return super.inverse();
+        double[] identity = new double[_n * _n];
+        for (int i = 0; i < _n; i++) {
+            identity[i * _n + i] = 1.0;
+        }
+        return FloatSparseMatrixImpl.valueOf(FloatMatrixImpl.wrap(_n, _n, lu
+                .solve(_n, identity)));
+    }
+
+    @Override
+    public SparseVector<Float64> solve(Vector<Float64> y) {
+        SparseFloat64LU lu = lu();
+        if (lu == null)
+            return super.solve(y);
+        if (y.getDimension() != _m)
+            throw new DimensionException("Vector dimension "
+                    + y.getDimension() + " instead of " + _m);
+        return toSparseVector(lu.solve(1, FloatVectorImpl.valueOf(y)
+                .toArray()));
+    }
+
+    @Override
+    public SparseMatrix<Float64> solve(Matrix<Float64> y) {
+        SparseFloat64LU lu = lu();
+        if (lu == null)
+            return super.solve(y);
+        FloatMatrixImpl B = FloatMatrixImpl.valueOf(y);
+        if (B._m != _m)
+            throw new DimensionException("Matrix has " + B._m
+                    + " rows instead of " + _m);
+        return FloatSparseMatrixImpl.valueOf(FloatMatrixImpl.wrap(_n, B._n,
+                lu.solve(B._n, B.toArray())));
+    }
+
+    @Override
+    public int hashCode() { // Consistent with Float64.hashCode()
+        FloatSparseMatrixImpl csr = toRowMajor();
+        int hash = 1;
+        for (int i = 0; i < _m; i++) {
+            int k = csr._pointers[i];
+            for (int j = 0; j < _n; j++) {
+                double value = 0.0;
+                if ((k < csr._pointers[i + 1]) && (csr._indices[k] == j)) {
+                    value = csr._values[k++];
+                }
+                long bits = Double.doubleToLongBits(value);
+                hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public FloatSparseMatrixImpl copy() {
+        return new FloatSparseMatrixImpl(_m, _n, _columnMajor,
+                _pointers.clone(), _indices.clone(), _values.clone());
+    }
+
+    /**
+     * Returns the sparse vector holding the non-zero values specified.
+     */
+    static SparseVectorImpl<Float64> toSparseVector(double[] values) {
+        final int n = values.length;
+        int nnz = 0;
+        for (int i = 0; i < n; i++) {
+            if (values[i] != 0.0) {
+                nnz++;
+            }
+        }
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        for (int i = 0, k = 0; i < n; i++) {
+            if (values[i] != 0.0) {
+                indices[k] = i;
+                elements[k++] = Float64.valueOf(values[i]);
+            }
+        }
+        return new SparseVectorImpl<Float64>(n, Float64.ZERO, indices,
+                elements);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.FastTable;
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents a dense vector of 64 bits floating points
+ *     numbers stored in a <code>double</code> array with an offset and a
+ *     stride; the rows, columns and diagonal of
+ *     {@link FloatMatrixImpl float matrices} are vectors sharing the matrix
+ *     array (no copy).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class FloatVectorImpl extends AbstractVector<Float64> implements
+        FloatVector {
+
+    /**
+     * Holds the values (never modified once the vector is created).
+     */
+    final double[] _values;
+
+    /**
+     * Holds the index of the first value.
+     */
+    final int _offset;
+
+    /**
+     * Holds the index increment between two consecutive values.
+     */
+    final int _stride;
+
+    /**
+     * Holds the dimension.
+     */
+    final int _dimension;
+
+    /**
+     * Creates a vector view over the specified values.
+     *
+     * @param values the values (shared).
+     * @param offset the index of the first value.
+     * @param stride the index increment between two consecutive values.
+     * @param dimension the vector dimension.
+     */
+    FloatVectorImpl(double[] values, int offset, int stride, int dimension) {
+        _values = values;
+        _offset = offset;
+        _stride = stride;
+        _dimension = dimension;
+    }
+
+    /**
+     * Returns a vector holding the specified <code>double</code> values.
+     *
+     * @param values the vector values (copied).
+     * @return the vector having the specified values.
+     */
+    public static FloatVectorImpl valueOf(double... values) {
+        return new FloatVectorImpl(values.clone(), 0, 1, values.length);
+    }
+
+    /**
+     * Returns a vector holding the specified elements.
+     *
+     * @param elements the vector elements.
+     * @return the vector having the specified elements.
+     */
+    public static FloatVectorImpl valueOf(Float64... elements) {
+        double[] values = new double[elements.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = elements[i].doubleValue();
+        }
+        return new FloatVectorImpl(values, 0, 1, values.length);
+    }
+
+    /**
+     * Returns a float vector equivalent to the specified vector.
+     *
+     * @param that the vector to convert.
+     * @return <code>that</code> or a float vector holding the same values.
+     */
+    public static FloatVectorImpl valueOf(Vector<Float64> that) {
+        if (that instanceof FloatVectorImpl)
+            return (FloatVectorImpl) that;
+        final int n = that.getDimension();
+        double[] values = new double[n];
+        if (that instanceof FloatVector) {
+            FloatVector v = (FloatVector) that;
+            for (int i = 0; i < n; i++) {
+                values[i] = v.getValue(i);
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                values[i] = that.get(i).doubleValue();
+            }
+        }
+        return new FloatVectorImpl(values, 0, 1, n);
+    }
+
+    @Override
+    public double getValue(int i) {
+        checkIndex(i, _dimension);
+        return _values[_offset + i * _stride];
+    }
+
+    /**
+     * Returns the value at the specified index (no bound check).
+     */
+    double value(int i) {
+        return _values[_offset + i * _stride];
+    }
+
+    @Override
+    public Float64 get(int i) {
+        return Float64.valueOf(getValue(i));
+    }
+
+    @Override
+    public int getDimension() {
+        return _dimension;
+    }
+
+    /**
+     * Returns a contiguous copy of the values of this vector.
+     *
+     * @return the values of this vector.
+     */
+    public double[] toArray() {
+        double[] values = new double[_dimension];
+        for (int i = 0; i < _dimension; i++) {
+            values[i] = value(i);
+        }
+        return values;
+    }
+
+    @Override
+    public FastTable<Float64> getData() {
+        FastTable<Float64> data = new FastTable<Float64>();
+        for (int i = 0; i < _dimension; i++) {
+            data.add(Float64.valueOf(value(i)));
+        }
+        return data.unmodifiable();
+    }
+
+    @Override
+    public double normValue() {
+        return Math.sqrt(Float64VectorKernel.getInstance().sumOfSquares(
+                _dimension, _values, _offset, _stride));
+    }
+
+    @Override
+    public Float64 norm() {
+        return Float64.valueOf(normValue());
+    }
+
+    @Override
+    public FloatMatrix asColumn() {
+        return new FloatMatrixImpl(_dimension, 1, _values, _offset, _stride,
+                _stride);
+    }
+
+    @Override
+    public FloatMatrix asRow() {
+        return new FloatMatrixImpl(1, _dimension, _values, _offset, _stride
+                * _dimension, _stride);
+    }
+
+    @Override
+    public FloatMatrix asDiagonal() {
+        final int n = _dimension;
+        double[] values = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            values[i * n + i] = value(i);
+        }
+        return new FloatMatrixImpl(n, n, values, 0, n, 1);
+    }
+
+    @Override
+    public FloatVector getSubVector(List<Index> indices) {
+        final int n = indices.size();
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = getValue(indices.get(i).intValue());
+        }
+        return new FloatVectorImpl(values, 0, 1, n);
+    }
+
+    @Override
+    public FloatVector cross(Vector<Float64> that) {
+        if ((_dimension != 3) || (that.getDimension() != 3))
+            throw new DimensionException(
+                    "The cross product of two vectors requires "
+                            + "3-dimensional vectors");
+        FloatVectorImpl v = FloatVectorImpl.valueOf(that);
+        double x = value(1) * v.value(2) - value(2) * v.value(1);
+        double y = value(2) * v.value(0) - value(0) * v.value(2);
+        double z = value(0) * v.value(1) - value(1) * v.value(0);
+        return new FloatVectorImpl(new double[] { x, y, z }, 0, 1, 3);
+    }
+
+    @Override
+    public FloatVector opposite() {
+        return times(-1.0);
+    }
+
+    @Override
+    public FloatVector plus(Vector<Float64> that) {
+        return plus(that, 1.0);
+    }
+
+    @Override
+    public FloatVector minus(Vector<Float64> that) {
+        return plus(that, -1.0);
+    }
+
+    /**
+     * Returns <code>this + k · that</code>.
+     */
+    private FloatVector plus(Vector<Float64> that, double k) {
+        checkDimension(_dimension, that.getDimension());
+        FloatVectorImpl v = FloatVectorImpl.valueOf(that);
+        double[] values = new double[_dimension];
+        Float64VectorKernel.getInstance().combine(_dimension, 1.0, _values,
+                _offset, _stride, k, v._values, v._offset, v._stride, values, 0);
+        return new FloatVectorImpl(values, 0, 1, _dimension);
+    }
+
+    @Override
+    public FloatVector times(Float64 k) {
+        return times(k.doubleValue());
+    }
+
+    /**
+     * Equivalent to <code>this.times(Float64.valueOf(k))</code>
+     *
+     * @param k the coefficient.
+     * @return <code>this * k</code>
+     */
+    public FloatVector times(double k) {
+        double[] values = new double[_dimension];
+        Float64VectorKernel.getInstance().combine(_dimension, k, _values,
+                _offset, _stride, 0.0, null, 0, 0, values, 0);
+        return new FloatVectorImpl(values, 0, 1, _dimension);
+    }
+
+    @Override
+    public Float64 times(Vector<Float64> that) {
+        checkDimension(_dimension, that.getDimension());
+        FloatVectorImpl v = FloatVectorImpl.valueOf(that);
+        return Float64.valueOf(Float64VectorKernel.getInstance().dot(
+                _dimension, _values, _offset, _stride, v._values, v._offset,
+                v._stride));
+    }
+
+    @Override
+    public FloatMatrix tensor(Vector<Float64> that) {
+        FloatVectorImpl v = FloatVectorImpl.valueOf(that);
+        final int m = _dimension;
+        final int n = v._dimension;
+        double[] values = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            double e = value(i);
+            for (int j = 0; j < n; j++) {
+                values[i * n + j] = e * v.value(j);
+            }
+        }
+        return new FloatMatrixImpl(m, n, values, 0, n, 1);
+    }
+
+    @Override
+    public int hashCode() { // Consistent with Float64.hashCode()
+        int hash = 1;
+        for (int i = 0; i < _dimension; i++) {
+            long bits = Double.doubleToLongBits(value(i));
+            hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+        }
+        return hash;
+    }
+
+    @Override
+    public FloatVectorImpl copy() {
+        return new FloatVectorImpl(toArray(), 0, 1, _dimension);
+    }
+
+    @Override
+    public void export() {
+        // Values are always held in global memory.
+    }
+}
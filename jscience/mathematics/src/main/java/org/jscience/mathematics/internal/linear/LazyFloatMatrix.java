@@ -0,0 +1,570 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents an unevaluated expression of dense matrices of
+ *     64 bits floating points numbers: a linear combination
+ *     <code>Σ cᵢ·Tᵢ</code> whose terms are matrices (possibly transposed
+ *     views) or chains of matrix products.</p>
+ *
+ * <p> The {@link #plus plus}, {@link #minus minus}, {@link #times(Float64)
+ *     scaling}, {@link #opposite opposite}, {@link #transpose transpose}
+ *     and {@link #times(Matrix) product} operations only build the
+ *     expression (no array allocated). The expression is evaluated when an
+ *     element is read or any other operation is performed: all the matrix
+ *     terms are combined in a single concurrent pass over the result and
+ *     each chain of products is calculated in the order minimizing the
+ *     number of multiplications (dynamic programming upon the dimensions),
+ *     its last product being accumulated directly into the result. The
+ *     evaluated matrix is kept (evaluation is performed at most once).</p>
+ *
+ * <p> The product of an expression by a vector is calculated without
+ *     evaluating the expression (products chains are applied to the vector
+ *     from right to left).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class LazyFloatMatrix extends AbstractMatrix<Float64> implements
+        FloatMatrix {
+
+    /**
+     * Holds the number of rows.
+     */
+    private final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    private final int _n;
+
+    /**
+     * Holds the coefficients of the terms.
+     */
+    private final double[] _coefficients;
+
+    /**
+     * Holds the terms ({@link FloatMatrixImpl} or {@link Chain}).
+     */
+    private final Object[] _terms;
+
+    /**
+     * Holds the evaluated matrix (<code>null</code> until evaluated).
+     */
+    private volatile FloatMatrixImpl _value;
+
+    /**
+     * Creates the expression <code>Σ coefficients[i]·terms[i]</code>.
+     */
+    private LazyFloatMatrix(int m, int n, double[] coefficients,
+            Object[] terms) {
+        _m = m;
+        _n = n;
+        _coefficients = coefficients;
+        _terms = terms;
+    }
+
+    /**
+     * Returns the lazy expression of the specified matrix (the matrix
+     * itself if it is already an expression).
+     *
+     * @param that the matrix.
+     * @return the expression holding the specified matrix.
+     */
+    public static LazyFloatMatrix valueOf(Matrix<Float64> that) {
+        if (that instanceof LazyFloatMatrix)
+            return (LazyFloatMatrix) that;
+        FloatMatrixImpl M = FloatMatrixImpl.valueOf(that);
+        return new LazyFloatMatrix(M._m, M._n, new double[] { 1.0 },
+                new Object[] { M });
+    }
+
+    /**
+     * Returns the evaluated matrix.
+     *
+     * @return the value of this expression.
+     */
+    public FloatMatrixImpl evaluate() {
+        FloatMatrixImpl value = _value;
+        if (value == null) {
+            value = FloatMatrixImpl.wrap(_m, _n, values());
+            _value = value;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the row-major values of this linear combination.
+     */
+    private double[] values() {
+        final double[] coefficients = _coefficients;
+        final Object[] terms = _terms;
+        final int m = _m;
+        final int n = _n;
+        final double[] values = new double[m * n];
+        int count = 0;
+        for (int t = 0; t < terms.length; t++) {
+            if (terms[t] instanceof FloatMatrixImpl) {
+                count++;
+            }
+        }
+        final FloatMatrixImpl[] matrices = new FloatMatrixImpl[count];
+        final double[] factors = new double[count];
+        for (int t = 0, i = 0; t < terms.length; t++) {
+            if (terms[t] instanceof FloatMatrixImpl) {
+                matrices[i] = (FloatMatrixImpl) terms[t];
+                factors[i++] = coefficients[t];
+            }
+        }
+        if (count > 0) { // Single pass for all the matrix terms.
+            Scheduler.execute(m, (long) m * n * count, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    for (int i = start; i < end; i++) {
+                        final int row = i * n;
+                        for (int t = 0; t < matrices.length; t++) {
+                            final FloatMatrixImpl M = matrices[t];
+                            final double[] v = M._values;
+                            final int stride = M._colStride;
+                            final double c = factors[t];
+                            int k = M._offset + i * M._rowStride;
+                            if (t == 0) {
+                                for (int j = 0; j < n; j++, k += stride) {
+                                    values[row + j] = c * v[k];
+                                }
+                            } else {
+                                for (int j = 0; j < n; j++, k += stride) {
+                                    values[row + j] += c * v[k];
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        for (int t = 0; t < terms.length; t++) { // Accumulates the products.
+            if (terms[t] instanceof Chain) {
+                ((Chain) terms[t]).multiply(coefficients[t], values,
+                        (count > 0) ? 1.0 : 0.0);
+                count++;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the concatenation of the terms of this expression and of the
+     * specified expression scaled by <code>l</code>.
+     */
+    private LazyFloatMatrix combine(Matrix<Float64> that, double l) {
+        if ((that.getRowDimension() != _m)
+                || (that.getColumnDimension() != _n))
+            throw new DimensionException();
+        LazyFloatMatrix M = LazyFloatMatrix.valueOf(that);
+        final int size = _terms.length;
+        double[] coefficients = new double[size + M._terms.length];
+        Object[] terms = new Object[coefficients.length];
+        System.arraycopy(_coefficients, 0, coefficients, 0, size);
+        System.arraycopy(_terms, 0, terms, 0, size);
+        for (int t = 0; t < M._terms.length; t++) {
+            coefficients[size + t] = l * M._coefficients[t];
+            terms[size + t] = M._terms[t];
+        }
+        return new LazyFloatMatrix(_m, _n, coefficients, terms);
+    }
+
+    /**
+     * Returns this expression scaled by <code>k</code>.
+     */
+    private LazyFloatMatrix scale(double k) {
+        double[] coefficients = new double[_coefficients.length];
+        for (int t = 0; t < coefficients.length; t++) {
+            coefficients[t] = k * _coefficients[t];
+        }
+        return new LazyFloatMatrix(_m, _n, coefficients, _terms);
+    }
+
+    @Override
+    public LazyFloatMatrix opposite() {
+        return scale(-1.0);
+    }
+
+    @Override
+    public LazyFloatMatrix plus(Matrix<Float64> that) {
+        return combine(that, 1.0);
+    }
+
+    @Override
+    public LazyFloatMatrix minus(Matrix<Float64> that) {
+        return combine(that, -1.0);
+    }
+
+    @Override
+    public LazyFloatMatrix times(Float64 k) {
+        return scale(k.doubleValue());
+    }
+
+    /**
+     * Equivalent to <code>this.times(Float64.valueOf(k))</code>
+     *
+     * @param k the coefficient.
+     * @return <code>this * k</code>
+     */
+    public LazyFloatMatrix times(double k) {
+        return scale(k);
+    }
+
+    @Override
+    public LazyFloatMatrix transpose() {
+        Object[] terms = new Object[_terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            terms[t] = (_terms[t] instanceof Chain) ? ((Chain) _terms[t])
+                    .transpose() : transpose((FloatMatrixImpl) _terms[t]);
+        }
+        return new LazyFloatMatrix(_n, _m, _coefficients, terms);
+    }
+
+    @Override
+    public LazyFloatMatrix times(Matrix<Float64> that) {
+        if (that.getRowDimension() != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        LazyFloatMatrix M = LazyFloatMatrix.valueOf(that);
+        Object[] left = factors(this);
+        Object[] right = factors(M);
+        Object[] factors = new Object[left.length + right.length];
+        System.arraycopy(left, 0, factors, 0, left.length);
+        System.arraycopy(right, 0, factors, left.length, right.length);
+        double k = ((_terms.length == 1) ? _coefficients[0] : 1.0)
+                * ((M._terms.length == 1) ? M._coefficients[0] : 1.0);
+        return new LazyFloatMatrix(_m, M._n, new double[] { k },
+                new Object[] { new Chain(factors) });
+    }
+
+    /**
+     * Returns the factors of the specified expression when used in a
+     * product (the coefficient of a single term being factored out).
+     */
+    private static Object[] factors(LazyFloatMatrix that) {
+        if (that._terms.length != 1)
+            return new Object[] { that };
+        Object term = that._terms[0];
+        return (term instanceof Chain) ? ((Chain) term)._factors
+                : new Object[] { term };
+    }
+
+    @Override
+    public FloatVector times(Vector<Float64> v) {
+        AbstractVector.checkDimension(_n, v.getDimension());
+        FloatVectorImpl V = FloatVectorImpl.valueOf(v);
+        double[] x = new double[_n];
+        for (int j = 0; j < _n; j++) {
+            x[j] = V.value(j);
+        }
+        double[] y = new double[_m];
+        times(x, y);
+        return new FloatVectorImpl(y, 0, 1, _m);
+    }
+
+    /**
+     * Calculates <code>y = this · x</code> without evaluating this
+     * expression (unless already evaluated).
+     *
+     * @param x the multiplier values (<code>n</code>).
+     * @param y the array receiving the result (<code>m</code>).
+     */
+    public void times(double[] x, double[] y) {
+        if (_value != null) {
+            _value.times(x, y);
+            return;
+        }
+        double[] tmp = (_terms.length > 1) ? new double[_m] : y;
+        for (int t = 0; t < _terms.length; t++) {
+            if (_terms[t] instanceof Chain) {
+                ((Chain) _terms[t]).times(x, tmp);
+            } else {
+                ((FloatMatrixImpl) _terms[t]).times(x, tmp);
+            }
+            final double c = _coefficients[t];
+            if (t == 0) {
+                for (int i = 0; i < _m; i++) {
+                    y[i] = c * tmp[i];
+                }
+            } else {
+                for (int i = 0; i < _m; i++) {
+                    y[i] += c * tmp[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the transposed view of the specified matrix.
+     */
+    static FloatMatrixImpl transpose(FloatMatrixImpl that) {
+        return new FloatMatrixImpl(that._n, that._m, that._values,
+                that._offset, that._colStride, that._rowStride);
+    }
+
+    /**
+     * Holds a chain of matrix products; factors are {@link FloatMatrixImpl}
+     * or {@link LazyFloatMatrix} (combinations evaluated with the chain).
+     */
+    private static final class Chain {
+
+        /**
+         * Holds the factors.
+         */
+        final Object[] _factors;
+
+        /**
+         * Creates the chain of the specified factors.
+         */
+        Chain(Object[] factors) {
+            _factors = factors;
+        }
+
+        /**
+         * Returns the transposed chain (factors transposed in reverse
+         * order).
+         */
+        Chain transpose() {
+            final int k = _factors.length;
+            Object[] factors = new Object[k];
+            for (int i = 0; i < k; i++) {
+                Object factor = _factors[k - 1 - i];
+                factors[i] = (factor instanceof LazyFloatMatrix) ?
+                        ((LazyFloatMatrix) factor).transpose()
+                        : LazyFloatMatrix.transpose((FloatMatrixImpl) factor);
+            }
+            return new Chain(factors);
+        }
+
+        /**
+         * Calculates <code>y = chain · x</code> from right to left.
+         */
+        void times(double[] x, double[] y) {
+            double[] v = x;
+            for (int i = _factors.length - 1; i >= 0; i--) {
+                Object factor = _factors[i];
+                int m = (factor instanceof LazyFloatMatrix) ?
+                        ((LazyFloatMatrix) factor)._m
+                        : ((FloatMatrixImpl) factor)._m;
+                double[] w = (i == 0) ? y : new double[m];
+                if (factor instanceof LazyFloatMatrix) {
+                    ((LazyFloatMatrix) factor).times(v, w);
+                } else {
+                    ((FloatMatrixImpl) factor).times(v, w);
+                }
+                v = w;
+            }
+        }
+
+        /**
+         * Calculates <code>C = alpha · chain + beta · C</code> (row-major
+         * values), the products being performed in optimal order.
+         */
+        void multiply(double alpha, double[] C, double beta) {
+            final int k = _factors.length;
+            FloatMatrixImpl[] matrices = new FloatMatrixImpl[k];
+            for (int i = 0; i < k; i++) {
+                Object factor = _factors[i];
+                matrices[i] = (factor instanceof LazyFloatMatrix) ?
+                        ((LazyFloatMatrix) factor).evaluate()
+                        : (FloatMatrixImpl) factor;
+            }
+            int[][] split = order(matrices);
+            FloatMatrixImpl A = product(matrices, split, 0, split[0][k - 1]);
+            FloatMatrixImpl B = product(matrices, split,
+                    split[0][k - 1] + 1, k - 1);
+            Float64Kernel.multiply(A._m, A._n, B._n, alpha, A._values,
+                    A._offset, A._rowStride, A._colStride, B._values,
+                    B._offset, B._rowStride, B._colStride, beta, C, 0, B._n);
+        }
+
+        /**
+         * Returns the optimal splits of the matrix chain (classic dynamic
+         * programming upon the dimensions): the product of the factors
+         * <code>i..j</code> is split after the factor
+         * <code>split[i][j]</code>.
+         */
+        private static int[][] order(FloatMatrixImpl[] matrices) {
+            final int k = matrices.length;
+            long[] p = new long[k + 1];
+            for (int i = 0; i < k; i++) {
+                p[i] = matrices[i]._m;
+            }
+            p[k] = matrices[k - 1]._n;
+            long[][] cost = new long[k][k];
+            int[][] split = new int[k][k];
+            for (int length = 2; length <= k; length++) {
+                for (int i = 0; i + length <= k; i++) {
+                    int j = i + length - 1;
+                    cost[i][j] = Long.MAX_VALUE;
+                    for (int s = i; s < j; s++) {
+                        long c = cost[i][s] + cost[s + 1][j] + p[i]
+                                * p[s + 1] * p[j + 1];
+                        if (c < cost[i][j]) {
+                            cost[i][j] = c;
+                            split[i][j] = s;
+                        }
+                    }
+                }
+            }
+            return split;
+        }
+
+        /**
+         * Returns the product of the factors <code>i..j</code>.
+         */
+        private static FloatMatrixImpl product(FloatMatrixImpl[] matrices,
+                int[][] split, int i, int j) {
+            if (i == j)
+                return matrices[i];
+            FloatMatrixImpl A = product(matrices, split, i, split[i][j]);
+            FloatMatrixImpl B = product(matrices, split, split[i][j] + 1, j);
+            return (FloatMatrixImpl) A.times(B);
+        }
+    }
+
+    @Override
+    public int getRowDimension() {
+        return _m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    @Override
+    public double getValue(int i, int j) {
+        return evaluate().getValue(i, j);
+    }
+
+    @Override
+    public Float64 get(int i, int j) {
+        return evaluate().get(i, j);
+    }
+
+    @Override
+    public FloatVector getRow(int i) {
+        return evaluate().getRow(i);
+    }
+
+    @Override
+    public FloatVector getColumn(int j) {
+        return evaluate().getColumn(j);
+    }
+
+    @Override
+    public FloatVector getDiagonal() {
+        return evaluate().getDiagonal();
+    }
+
+    @Override
+    public FloatMatrix getSubMatrix(List<Index> rows, List<Index> columns) {
+        return evaluate().getSubMatrix(rows, columns);
+    }
+
+    @Override
+    public FloatMatrix getSubMatrix(int fromRow, int toRow, int fromColumn,
+            int toColumn) {
+        return evaluate().getSubMatrix(fromRow, toRow, fromColumn, toColumn);
+    }
+
+    @Override
+    public FloatMatrix inverse() {
+        return evaluate().inverse();
+    }
+
+    @Override
+    public FloatMatrix divide(Matrix<Float64> that) {
+        return times(that.inverse());
+    }
+
+    @Override
+    public FloatMatrix pseudoInverse() {
+        return evaluate().pseudoInverse();
+    }
+
+    @Override
+    public Float64 determinant() {
+        return evaluate().determinant();
+    }
+
+    @Override
+    public int rank() {
+        return evaluate().rank();
+    }
+
+    @Override
+    public FloatMatrix adjoint() {
+        return evaluate().adjoint();
+    }
+
+    @Override
+    public FloatVector solve(Vector<Float64> y) {
+        return evaluate().solve(y);
+    }
+
+    @Override
+    public FloatMatrix solve(Matrix<Float64> y) {
+        return evaluate().solve(y);
+    }
+
+    @Override
+    public FloatMatrix pow(int exp) {
+        return evaluate().pow(exp);
+    }
+
+    @Override
+    public Float64 trace() {
+        return evaluate().trace();
+    }
+
+    @Override
+    public FloatMatrix tensor(Matrix<Float64> that) {
+        return evaluate().tensor(that);
+    }
+
+    @Override
+    public FloatVector vectorization() {
+        return evaluate().vectorization();
+    }
+
+    @Override
+    public int hashCode() {
+        return evaluate().hashCode();
+    }
+
+    @Override
+    public FloatMatrixImpl copy() {
+        return evaluate().copy();
+    }
+
+    @Override
+    public void export() {
+        // Values are always held in global memory.
+    }
+}
@@ -0,0 +1,681 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import javolution.lang.Configurable;
+import javolution.util.Index;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.MappedFloatMatrix;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents a dense matrix of 64 bits floating points
+ *     numbers held in a file of {@link MappedTiles mapped tiles}.</p>
+ *
+ * <p> Operations are performed tile by tile, the tiles being processed
+ *     concurrently by the {@link Scheduler}: each thread holds at most
+ *     three tiles on the heap (<code>3 · 8 · tile²</code> bytes, 1.5 MB
+ *     for the default {@link #TILE_SIZE}). The product of two tiles is
+ *     calculated by the {@link Float64Kernel}, the LU decomposition by
+ *     {@link TiledFloat64LU} (kept until this matrix is modified).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class MappedFloatMatrixImpl extends AbstractMatrix<Float64>
+        implements MappedFloatMatrix {
+
+    /**
+     * Holds the tile size of the matrices created (default <code>256</code>,
+     * tiles of 512 KB). Opened matrices keep the tile size of their file.
+     */
+    public static final Configurable<Integer> TILE_SIZE = new Configurable<Integer>(
+            256) {};
+
+    /**
+     * Holds the tiles.
+     */
+    final MappedTiles _tiles;
+
+    /**
+     * Holds the LU decomposition (<code>null</code> if not calculated).
+     */
+    private volatile TiledFloat64LU _lu;
+
+    /**
+     * Creates a matrix held in the specified tiles.
+     */
+    private MappedFloatMatrixImpl(MappedTiles tiles) {
+        _tiles = tiles;
+    }
+
+    /**
+     * Returns a new matrix of the specified dimensions (all values zero)
+     * held in the specified file.
+     *
+     * @param file the file (replaced if it exists).
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @return the corresponding matrix.
+     * @throws IOException if the file cannot be created.
+     */
+    public static MappedFloatMatrixImpl create(File file, int m, int n)
+            throws IOException {
+        return new MappedFloatMatrixImpl(MappedTiles.create(file, m, n,
+                TILE_SIZE.get(), false));
+    }
+
+    /**
+     * Returns the matrix held in the specified file (no value read).
+     *
+     * @param file the file previously created.
+     * @return the corresponding matrix (read-only if the file cannot be
+     *         written).
+     * @throws IOException if the file cannot be read or is not a matrix
+     *         file.
+     */
+    public static MappedFloatMatrixImpl open(File file) throws IOException {
+        return new MappedFloatMatrixImpl(MappedTiles.open(file));
+    }
+
+    /**
+     * Returns a new matrix held in a temporary file.
+     */
+    private static MappedFloatMatrixImpl temporary(int m, int n, int tile) {
+        try {
+            return new MappedFloatMatrixImpl(MappedTiles.create(MappedTiles
+                    .temporaryFile(), m, n, tile, true));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create temporary matrix", e);
+        }
+    }
+
+    @Override
+    public int getRowDimension() {
+        return _tiles._m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _tiles._n;
+    }
+
+    @Override
+    public File getFile() {
+        return _tiles.getFile();
+    }
+
+    @Override
+    public int getTileSize() {
+        return _tiles._tile;
+    }
+
+    @Override
+    public double getValue(int i, int j) {
+        AbstractVector.checkIndex(i, _tiles._m);
+        AbstractVector.checkIndex(j, _tiles._n);
+        return _tiles.get(i, j);
+    }
+
+    @Override
+    public Float64 get(int i, int j) {
+        return Float64.valueOf(getValue(i, j));
+    }
+
+    @Override
+    public MappedFloatMatrixImpl setValue(int i, int j, double value) {
+        AbstractVector.checkIndex(i, _tiles._m);
+        AbstractVector.checkIndex(j, _tiles._n);
+        _tiles.set(i, j, value);
+        modified();
+        return this;
+    }
+
+    @Override
+    public MappedFloatMatrixImpl set(final Matrix<Float64> that) {
+        checkDimensions(that);
+        final Matrix<Float64> M = operand(that);
+        final int T = _tiles._tile;
+        final int columns = _tiles._tileCols;
+        Scheduler.execute((int) _tiles.tileCount(), (long) _tiles._m
+                * _tiles._n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                double[] t = new double[T * T];
+                for (int k = start; k < end; k++) {
+                    readTile(M, k / columns, k % columns, t);
+                    _tiles.writeTile(k / columns, k % columns, t);
+                }
+            }
+        });
+        modified();
+        return this;
+    }
+
+    /**
+     * Returns a contiguous row-major copy of the values of this matrix.
+     *
+     * @return the values of this matrix (on the heap).
+     */
+    public double[] toArray() {
+        final int m = _tiles._m;
+        final int n = _tiles._n;
+        final int T = _tiles._tile;
+        final double[] values = new double[m * n];
+        final int columns = _tiles._tileCols;
+        Scheduler.execute((int) _tiles.tileCount(), (long) m * n,
+                new Scheduler.Task() {
+
+                    @Override
+                    public void run(int start, int end) {
+                        double[] t = new double[T * T];
+                        for (int k = start; k < end; k++) {
+                            int I = k / columns;
+                            int J = k % columns;
+                            _tiles.readTile(I, J, t);
+                            for (int r = 0, rows = _tiles.rows(I); r < rows; r++) {
+                                System.arraycopy(t, r * T, values, (I * T + r)
+                                        * n + J * T, _tiles.cols(J));
+                            }
+                        }
+                    }
+                });
+        return values;
+    }
+
+    @Override
+    public FloatVector getRow(int i) {
+        AbstractVector.checkIndex(i, _tiles._m);
+        double[] values = new double[_tiles._n];
+        for (int j = 0; j < values.length; j++) {
+            values[j] = _tiles.get(i, j);
+        }
+        return new FloatVectorImpl(values, 0, 1, values.length);
+    }
+
+    @Override
+    public FloatVector getColumn(int j) {
+        AbstractVector.checkIndex(j, _tiles._n);
+        double[] values = new double[_tiles._m];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = _tiles.get(i, j);
+        }
+        return new FloatVectorImpl(values, 0, 1, values.length);
+    }
+
+    @Override
+    public FloatVector getDiagonal() {
+        double[] values = new double[Math.min(_tiles._m, _tiles._n)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = _tiles.get(i, i);
+        }
+        return new FloatVectorImpl(values, 0, 1, values.length);
+    }
+
+    @Override
+    public FloatMatrix getSubMatrix(List<Index> rows, List<Index> columns) {
+        final int m = rows.size();
+        final int n = columns.size();
+        double[] values = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            int ii = rows.get(i).intValue();
+            AbstractVector.checkIndex(ii, _tiles._m);
+            for (int j = 0; j < n; j++) {
+                int jj = columns.get(j).intValue();
+                AbstractVector.checkIndex(jj, _tiles._n);
+                values[i * n + j] = _tiles.get(ii, jj);
+            }
+        }
+        return FloatMatrixImpl.wrap(m, n, values);
+    }
+
+    @Override
+    public FloatMatrix getSubMatrix(int fromRow, int toRow, int fromColumn,
+            int toColumn) {
+        checkRange(fromRow, toRow, _tiles._m);
+        checkRange(fromColumn, toColumn, _tiles._n);
+        final int m = toRow - fromRow;
+        final int n = toColumn - fromColumn;
+        double[] values = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i * n + j] = _tiles.get(fromRow + i, fromColumn + j);
+            }
+        }
+        return FloatMatrixImpl.wrap(m, n, values);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl opposite() {
+        return combine(-1.0, null, 0.0);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl plus(Matrix<Float64> that) {
+        checkDimensions(that);
+        return combine(1.0, that, 1.0);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl minus(Matrix<Float64> that) {
+        checkDimensions(that);
+        return combine(1.0, that, -1.0);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl times(Float64 k) {
+        return combine(k.doubleValue(), null, 0.0);
+    }
+
+    /**
+     * Returns <code>a · this + b · that</code> (<code>that</code> ignored
+     * if <code>null</code>) held in a temporary file.
+     */
+    private MappedFloatMatrixImpl combine(final double a,
+            Matrix<Float64> that, final double b) {
+        final MappedTiles C = temporary(_tiles._m, _tiles._n, _tiles._tile)._tiles;
+        final Matrix<Float64> M = (that == null) ? null : operand(that);
+        final int T = _tiles._tile;
+        final int columns = _tiles._tileCols;
+        Scheduler.execute((int) _tiles.tileCount(), 2L * _tiles._m
+                * _tiles._n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                double[] t = new double[T * T];
+                double[] u = (M == null) ? null : new double[T * T];
+                for (int k = start; k < end; k++) {
+                    int I = k / columns;
+                    int J = k % columns;
+                    _tiles.readTile(I, J, t);
+                    if (M == null) {
+                        for (int i = 0; i < t.length; i++) {
+                            t[i] *= a;
+                        }
+                    } else {
+                        readTile(M, I, J, u);
+                        for (int i = 0; i < t.length; i++) {
+                            t[i] = a * t[i] + b * u[i];
+                        }
+                    }
+                    C.writeTile(I, J, t);
+                }
+            }
+        });
+        return new MappedFloatMatrixImpl(C);
+    }
+
+    @Override
+    public FloatVector times(Vector<Float64> v) {
+        final int n = _tiles._n;
+        final int T = _tiles._tile;
+        final FloatVectorImpl V = FloatVectorImpl.valueOf(v);
+        AbstractVector.checkDimension(n, V._dimension);
+        final double[] x = new double[_tiles._tileCols * T];
+        for (int j = 0; j < n; j++) {
+            x[j] = V.value(j);
+        }
+        final double[] y = new double[_tiles._tileRows * T];
+        Scheduler.execute(_tiles._tileRows, 2L * _tiles._m * n,
+                new Scheduler.Task() {
+
+                    @Override
+                    public void run(int start, int end) {
+                        double[] t = new double[T * T];
+                        for (int I = start; I < end; I++) {
+                            for (int J = 0; J < _tiles._tileCols; J++) {
+                                _tiles.readTile(I, J, t);
+                                for (int r = 0; r < T; r++) {
+                                    double sum = 0;
+                                    for (int c = 0, rc = r * T, j = J * T; c < T; c++) {
+                                        sum += t[rc++] * x[j++];
+                                    }
+                                    y[I * T + r] += sum;
+                                }
+                            }
+                        }
+                    }
+                });
+        return new FloatVectorImpl(y, 0, 1, _tiles._m);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl times(Matrix<Float64> that) {
+        checkProduct(that);
+        return times(that, temporary(_tiles._m, that.getColumnDimension(),
+                _tiles._tile)._tiles);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl times(Matrix<Float64> that, File file)
+            throws IOException {
+        checkProduct(that);
+        return times(that, MappedTiles.create(file, _tiles._m, that
+                .getColumnDimension(), _tiles._tile, false));
+    }
+
+    /**
+     * Calculates the product of this matrix by the specified one into the
+     * specified tiles: each tile of the result accumulates the products of
+     * a row of tiles of this matrix by a column of tiles of the
+     * multiplier.
+     */
+    private MappedFloatMatrixImpl times(Matrix<Float64> that,
+            final MappedTiles C) {
+        final Matrix<Float64> B = operand(that);
+        final int T = _tiles._tile;
+        final int inner = _tiles._tileCols;
+        final int columns = C._tileCols;
+        Scheduler.execute((int) C.tileCount(), 2L * _tiles._m * _tiles._n
+                * C._n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                double[] a = new double[T * T];
+                double[] b = new double[T * T];
+                double[] c = new double[T * T];
+                for (int k = start; k < end; k++) {
+                    int I = k / columns;
+                    int J = k % columns;
+                    for (int K = 0; K < inner; K++) {
+                        _tiles.readTile(I, K, a);
+                        readTile(B, K, J, b);
+                        Float64Kernel.multiply(T, T, T, 1.0, a, 0, T, 1, b, 0,
+                                T, 1, (K == 0) ? 0.0 : 1.0, c, 0, T);
+                    }
+                    if (inner == 0) {
+                        Arrays.fill(c, 0.0);
+                    }
+                    C.writeTile(I, J, c);
+                }
+            }
+        });
+        return new MappedFloatMatrixImpl(C);
+    }
+
+    @Override
+    public Float64 determinant() {
+        return Float64.valueOf(lu().determinant());
+    }
+
+    @Override
+    public int rank() {
+        return heap().rank();
+    }
+
+    @Override
+    public MappedFloatMatrixImpl inverse() {
+        final TiledFloat64LU lu = lu();
+        final int n = _tiles._n;
+        final int T = _tiles._tile;
+        final MappedTiles R = temporary(n, n, T)._tiles;
+        double[] t = new double[T * T];
+        for (int J = 0; J < R._tileCols; J++) { // Solves by columns of tiles.
+            final int p = R.cols(J);
+            double[] b = new double[n * p];
+            for (int c = 0; c < p; c++) {
+                b[(J * T + c) * p + c] = 1.0;
+            }
+            lu.solve(p, b);
+            for (int I = 0; I < R._tileRows; I++) {
+                Arrays.fill(t, 0.0);
+                for (int r = 0, rows = R.rows(I); r < rows; r++) {
+                    System.arraycopy(b, (I * T + r) * p, t, r * T, p);
+                }
+                R.writeTile(I, J, t);
+            }
+        }
+        return new MappedFloatMatrixImpl(R);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl divide(Matrix<Float64> that) {
+        return this.times(that.inverse());
+    }
+
+    @Override
+    public FloatMatrix pseudoInverse() {
+        if (_tiles._m == _tiles._n)
+            return inverse();
+        return heap().pseudoInverse();
+    }
+
+    @Override
+    public MappedFloatMatrixImpl transpose() {
+        final int T = _tiles._tile;
+        final MappedTiles R = temporary(_tiles._n, _tiles._m, T)._tiles;
+        final int columns = _tiles._tileCols;
+        Scheduler.execute((int) _tiles.tileCount(), (long) _tiles._m
+                * _tiles._n, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                double[] t = new double[T * T];
+                double[] u = new double[T * T];
+                for (int k = start; k < end; k++) {
+                    int I = k / columns;
+                    int J = k % columns;
+                    _tiles.readTile(I, J, t);
+                    for (int r = 0; r < T; r++) {
+                        for (int c = 0; c < T; c++) {
+                            u[c * T + r] = t[r * T + c];
+                        }
+                    }
+                    R.writeTile(J, I, u);
+                }
+            }
+        });
+        return new MappedFloatMatrixImpl(R);
+    }
+
+    @Override
+    public FloatMatrix adjoint() {
+        return heap().adjoint();
+    }
+
+    @Override
+    public FloatVector solve(Vector<Float64> y) {
+        if (_tiles._m != _tiles._n)
+            return heap().solve(y);
+        FloatVectorImpl v = FloatVectorImpl.valueOf(y);
+        if (v._dimension != _tiles._m)
+            throw new DimensionException("Vector dimension " + v._dimension
+                    + " instead of " + _tiles._m);
+        double[] b = new double[_tiles._m];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = v.value(i);
+        }
+        lu().solve(1, b);
+        return new FloatVectorImpl(b, 0, 1, b.length);
+    }
+
+    @Override
+    public FloatMatrix solve(Matrix<Float64> y) {
+        if (_tiles._m != _tiles._n)
+            return heap().solve(y);
+        FloatMatrixImpl B = FloatMatrixImpl.valueOf(y);
+        if (B._m != _tiles._m)
+            throw new DimensionException("Matrix has " + B._m
+                    + " rows instead of " + _tiles._m);
+        double[] b = B.toArray();
+        lu().solve(B._n, b);
+        return FloatMatrixImpl.wrap(_tiles._n, B._n, b);
+    }
+
+    @Override
+    public MappedFloatMatrixImpl pow(int exp) {
+        return (MappedFloatMatrixImpl) super.pow(exp);
+    }
+
+    @Override
+    public Float64 trace() {
+        double sum = 0;
+        for (int i = 0, n = Math.min(_tiles._m, _tiles._n); i < n; i++) {
+            sum += _tiles.get(i, i);
+        }
+        return Float64.valueOf(sum);
+    }
+
+    @Override
+    public FloatMatrix tensor(Matrix<Float64> that) {
+        return heap().tensor(that);
+    }
+
+    @Override
+    public FloatVector vectorization() {
+        return heap().vectorization();
+    }
+
+    @Override
+    public MappedFloatMatrixImpl copy() {
+        try {
+            return new MappedFloatMatrixImpl(_tiles.copy());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot copy " + getFile(), e);
+        }
+    }
+
+    @Override
+    public void export() {
+        // Values are held in the file mapping.
+    }
+
+    @Override
+    public void flush() {
+        _tiles.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        modified();
+        _tiles.close();
+    }
+
+    /**
+     * Returns the LU decomposition of this matrix (calculated once).
+     */
+    private TiledFloat64LU lu() {
+        if (_tiles._m != _tiles._n)
+            throw new DimensionException("Matrix not square");
+        TiledFloat64LU lu = _lu;
+        if (lu == null) {
+            synchronized (this) {
+                lu = _lu;
+                if (lu == null) {
+                    try {
+                        lu = TiledFloat64LU.valueOf(_tiles);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(
+                                "Cannot decompose " + getFile(), e);
+                    }
+                    _lu = lu;
+                }
+            }
+        }
+        return lu;
+    }
+
+    /**
+     * Discards the LU decomposition (its temporary file is deleted).
+     */
+    private void modified() {
+        TiledFloat64LU lu = _lu;
+        if (lu == null)
+            return;
+        _lu = null;
+        try {
+            lu.close();
+        } catch (IOException e) {
+            // Temporary file deleted at exit.
+        }
+    }
+
+    /**
+     * Returns this matrix on the heap.
+     */
+    private FloatMatrixImpl heap() {
+        return FloatMatrixImpl.wrap(_tiles._m, _tiles._n, toArray());
+    }
+
+    /**
+     * Returns the specified matrix in a form whose tiles can be read
+     * efficiently (mapped matrix or float matrix).
+     */
+    private static Matrix<Float64> operand(Matrix<Float64> that) {
+        if (that instanceof MappedFloatMatrixImpl)
+            return that;
+        return FloatMatrixImpl.valueOf(that);
+    }
+
+    /**
+     * Reads the specified tile (tiles of this matrix size) of the
+     * specified operand, padded with zeros.
+     */
+    private void readTile(Matrix<Float64> M, int I, int J, double[] values) {
+        final int T = _tiles._tile;
+        if (M instanceof MappedFloatMatrixImpl) {
+            MappedTiles tiles = ((MappedFloatMatrixImpl) M)._tiles;
+            if (tiles._tile == T) {
+                tiles.readTile(I, J, values);
+                return;
+            }
+        }
+        Arrays.fill(values, 0.0);
+        final int rows = Math.min(T, M.getRowDimension() - I * T);
+        final int cols = Math.min(T, M.getColumnDimension() - J * T);
+        if (M instanceof FloatMatrixImpl) {
+            FloatMatrixImpl F = (FloatMatrixImpl) M;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    values[r * T + c] = F.value(I * T + r, J * T + c);
+                }
+            }
+        } else {
+            MappedTiles tiles = ((MappedFloatMatrixImpl) M)._tiles;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    values[r * T + c] = tiles.get(I * T + r, J * T + c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the specified matrix has the same dimensions as this
+     * matrix.
+     */
+    private void checkDimensions(Matrix<Float64> that) {
+        if ((that.getRowDimension() != _tiles._m)
+                || (that.getColumnDimension() != _tiles._n))
+            throw new DimensionException(that.getRowDimension() + "x"
+                    + that.getColumnDimension() + " matrix instead of "
+                    + _tiles._m + "x" + _tiles._n);
+    }
+
+    /**
+     * Checks that this matrix can be multiplied by the specified matrix.
+     */
+    private void checkProduct(Matrix<Float64> that) {
+        if (that.getRowDimension() != _tiles._n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+    }
+}
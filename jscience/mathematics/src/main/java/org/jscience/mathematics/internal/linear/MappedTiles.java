@@ -0,0 +1,439 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p> This class represents the <code>double</code> values of a matrix
+ *     stored in a file as square tiles and accessed through memory
+ *     mappings.</p>
+ *
+ * <p> The file holds a header of {@link #HEADER_SIZE} bytes followed by
+ *     the tiles (row-major order of tiles, each tile being row-major and
+ *     complete, the tiles on the last row/column being padded with
+ *     zeros). The file is mapped by segments of whole tiles (less than
+ *     {@link #SEGMENT_SIZE} bytes) upon first access; the operating system
+ *     pages the segments in and out, only the tiles being processed are
+ *     copied to the heap.</p>
+ *
+ * <p> Reading/writing distinct elements or tiles concurrently is
+ *     thread-safe.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+final class MappedTiles {
+
+    /**
+     * Holds the header size in bytes (magic number, version, byte order,
+     * dimensions and tile size).
+     */
+    static final int HEADER_SIZE = 64;
+
+    /**
+     * Holds the file magic number (<code>"JSMT"</code>).
+     */
+    static final int MAGIC = 0x4A534D54;
+
+    /**
+     * Holds the file format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Holds the maximum size in bytes of a mapped segment.
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * Holds the file.
+     */
+    private final File _file;
+
+    /**
+     * Holds the file channel.
+     */
+    private final FileChannel _channel;
+
+    /**
+     * Holds the random access file (closed with the channel).
+     */
+    private final RandomAccessFile _raf;
+
+    /**
+     * Indicates if the file is deleted when closed.
+     */
+    private final boolean _temporary;
+
+    /**
+     * Indicates if the file is mapped read-only.
+     */
+    private final boolean _readOnly;
+
+    /**
+     * Holds the byte order of the values.
+     */
+    private final ByteOrder _order;
+
+    /**
+     * Holds the number of rows.
+     */
+    final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    final int _n;
+
+    /**
+     * Holds the tile size (number of rows and columns of a tile).
+     */
+    final int _tile;
+
+    /**
+     * Holds the number of tiles rows.
+     */
+    final int _tileRows;
+
+    /**
+     * Holds the number of tiles columns.
+     */
+    final int _tileCols;
+
+    /**
+     * Holds the number of tiles per segment.
+     */
+    private final int _tilesPerSegment;
+
+    /**
+     * Holds the mapped segments (<code>null</code> until mapped).
+     */
+    private final MappedByteBuffer[] _mapped;
+
+    /**
+     * Holds the values views of the mapped segments.
+     */
+    private final AtomicReferenceArray<DoubleBuffer> _segments;
+
+    /**
+     * Creates the tiles storage of the specified opened file.
+     */
+    private MappedTiles(File file, RandomAccessFile raf, boolean temporary,
+            boolean readOnly, ByteOrder order, int m, int n, int tile) {
+        _file = file;
+        _raf = raf;
+        _channel = raf.getChannel();
+        _temporary = temporary;
+        _readOnly = readOnly;
+        _order = order;
+        _m = m;
+        _n = n;
+        _tile = tile;
+        _tileRows = (m + tile - 1) / tile;
+        _tileCols = (n + tile - 1) / tile;
+        _tilesPerSegment = (int) Math.max(1, SEGMENT_SIZE / tileBytes());
+        int segments = (int) ((tileCount() + _tilesPerSegment - 1) / _tilesPerSegment);
+        _mapped = new MappedByteBuffer[segments];
+        _segments = new AtomicReferenceArray<DoubleBuffer>(segments);
+    }
+
+    /**
+     * Creates a new file holding a zero matrix (sparse file, no value
+     * written).
+     *
+     * @param file the file (replaced if it exists).
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param tile the tile size.
+     * @param temporary indicates if the file is deleted when closed.
+     * @return the corresponding storage.
+     * @throws IOException if the file cannot be created.
+     */
+    static MappedTiles create(File file, int m, int n, int tile,
+            boolean temporary) throws IOException {
+        if ((m < 0) || (n < 0) || (tile <= 0))
+            throw new IllegalArgumentException("Invalid dimensions " + m + "x"
+                    + n + " (tile " + tile + ")");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            ByteOrder order = ByteOrder.nativeOrder();
+            MappedTiles tiles = new MappedTiles(file, raf, temporary, false,
+                    order, m, n, tile);
+            raf.setLength(0);
+            raf.setLength(HEADER_SIZE + tiles.tileCount() * tiles.tileBytes());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE); // Big endian.
+            header.putInt(MAGIC).putInt(VERSION).putInt(
+                    order == ByteOrder.BIG_ENDIAN ? 0 : 1).putInt(m).putInt(n)
+                    .putInt(tile);
+            header.rewind();
+            tiles._channel.write(header, 0);
+            return tiles;
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing file (read-only if the file cannot be written).
+     *
+     * @param file the file.
+     * @return the corresponding storage.
+     * @throws IOException if the file cannot be read or is not a tiled
+     *         matrix file.
+     */
+    static MappedTiles open(File file) throws IOException {
+        boolean readOnly = !file.canWrite();
+        RandomAccessFile raf = new RandomAccessFile(file, readOnly ? "r"
+                : "rw");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (raf.getChannel().read(header, header.position()) < 0)
+                    throw new IOException(file + ": truncated header");
+            }
+            header.rewind();
+            if (header.getInt() != MAGIC)
+                throw new IOException(file + ": not a tiled matrix file");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException(file + ": unsupported version "
+                        + version);
+            ByteOrder order = (header.getInt() == 0) ? ByteOrder.BIG_ENDIAN
+                    : ByteOrder.LITTLE_ENDIAN;
+            int m = header.getInt();
+            int n = header.getInt();
+            int tile = header.getInt();
+            if ((m < 0) || (n < 0) || (tile <= 0))
+                throw new IOException(file + ": invalid header");
+            MappedTiles tiles = new MappedTiles(file, raf, false, readOnly,
+                    order, m, n, tile);
+            if (raf.length() < HEADER_SIZE + tiles.tileCount()
+                    * tiles.tileBytes())
+                throw new IOException(file + ": truncated data");
+            return tiles;
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a temporary copy of this storage (file copied by the
+     * operating system, not through the heap).
+     *
+     * @return the copy (deleted when closed).
+     * @throws IOException if the copy fails.
+     */
+    MappedTiles copy() throws IOException {
+        MappedTiles copy = create(temporaryFile(), _m, _n, _tile, true);
+        if (copy._order != _order) { // Values have to be converted.
+            double[] buffer = new double[_tile * _tile];
+            for (int I = 0; I < _tileRows; I++) {
+                for (int J = 0; J < _tileCols; J++) {
+                    readTile(I, J, buffer);
+                    copy.writeTile(I, J, buffer);
+                }
+            }
+            return copy;
+        }
+        long size = tileCount() * tileBytes();
+        for (long done = 0; done < size;) {
+            done += _channel.transferTo(HEADER_SIZE + done, size - done,
+                    copy._channel.position(HEADER_SIZE + done));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a new temporary file (deleted at exit if not deleted before).
+     *
+     * @return the temporary file.
+     * @throws IOException if the file cannot be created.
+     */
+    static File temporaryFile() throws IOException {
+        File file = File.createTempFile("jscience", ".tiles");
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Returns the file.
+     */
+    File getFile() {
+        return _file;
+    }
+
+    /**
+     * Returns the number of tiles.
+     */
+    long tileCount() {
+        return (long) _tileRows * _tileCols;
+    }
+
+    /**
+     * Returns the size of a tile in bytes.
+     */
+    long tileBytes() {
+        return (long) _tile * _tile * 8;
+    }
+
+    /**
+     * Returns the number of rows of the specified row of tiles.
+     */
+    int rows(int I) {
+        return Math.min(_tile, _m - I * _tile);
+    }
+
+    /**
+     * Returns the number of columns of the specified column of tiles.
+     */
+    int cols(int J) {
+        return Math.min(_tile, _n - J * _tile);
+    }
+
+    /**
+     * Returns the value at the specified position (no bound check).
+     */
+    double get(int i, int j) {
+        long t = (long) (i / _tile) * _tileCols + j / _tile;
+        return segment(t).get(index(t) + (i % _tile) * _tile + j % _tile);
+    }
+
+    /**
+     * Sets the value at the specified position (no bound check).
+     */
+    void set(int i, int j, double value) {
+        long t = (long) (i / _tile) * _tileCols + j / _tile;
+        segment(t).put(index(t) + (i % _tile) * _tile + j % _tile, value);
+    }
+
+    /**
+     * Copies the specified tile into the specified array (row-major,
+     * <code>tile * tile</code> values).
+     */
+    void readTile(int I, int J, double[] values) {
+        readTile(I, J, values, 0);
+    }
+
+    /**
+     * Copies the specified tile into the specified array (row-major,
+     * <code>tile * tile</code> values starting at the specified offset).
+     */
+    void readTile(int I, int J, double[] values, int offset) {
+        long t = (long) I * _tileCols + J;
+        DoubleBuffer buffer = segment(t).duplicate();
+        buffer.position(index(t));
+        buffer.get(values, offset, _tile * _tile);
+    }
+
+    /**
+     * Copies the specified array (row-major, <code>tile * tile</code>
+     * values) into the specified tile.
+     */
+    void writeTile(int I, int J, double[] values) {
+        writeTile(I, J, values, 0);
+    }
+
+    /**
+     * Copies the specified array (row-major, <code>tile * tile</code>
+     * values starting at the specified offset) into the specified tile.
+     */
+    void writeTile(int I, int J, double[] values, int offset) {
+        long t = (long) I * _tileCols + J;
+        DoubleBuffer buffer = segment(t).duplicate();
+        buffer.position(index(t));
+        buffer.put(values, offset, _tile * _tile);
+    }
+
+    /**
+     * Exchanges two rows for all the columns except those of the specified
+     * column of tiles.
+     */
+    void swapRows(int i, int k, int excludedTileColumn) {
+        for (int J = 0; J < _tileCols; J++) {
+            if (J == excludedTileColumn)
+                continue;
+            for (int j = J * _tile, end = j + cols(J); j < end; j++) {
+                double tmp = get(i, j);
+                set(i, j, get(k, j));
+                set(k, j, tmp);
+            }
+        }
+    }
+
+    /**
+     * Writes the modified values to the file.
+     */
+    void force() {
+        synchronized (_mapped) {
+            if (_readOnly)
+                return;
+            for (int s = 0; s < _mapped.length; s++) {
+                if (_mapped[s] != null) {
+                    _mapped[s].force();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the file (deleted if temporary); the mappings remain valid
+     * until garbage collected.
+     */
+    void close() throws IOException {
+        _raf.close();
+        if (_temporary) {
+            _file.delete();
+        }
+    }
+
+    /**
+     * Returns the index of the first value of the specified tile in its
+     * segment.
+     */
+    private int index(long t) {
+        return (int) (t % _tilesPerSegment) * _tile * _tile;
+    }
+
+    /**
+     * Returns the segment holding the specified tile (mapped if
+     * necessary).
+     */
+    private DoubleBuffer segment(long t) {
+        int s = (int) (t / _tilesPerSegment);
+        DoubleBuffer segment = _segments.get(s);
+        if (segment != null)
+            return segment;
+        synchronized (_mapped) {
+            if (_segments.get(s) == null) {
+                long first = (long) s * _tilesPerSegment;
+                long count = Math.min(_tilesPerSegment, tileCount() - first);
+                try {
+                    _mapped[s] = _channel.map(_readOnly ? FileChannel.MapMode.READ_ONLY
+                            : FileChannel.MapMode.READ_WRITE, HEADER_SIZE
+                            + first * tileBytes(), count * tileBytes());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot map " + _file, e);
+                }
+                _segments.set(s, _mapped[s].order(_order).asDoubleBuffer());
+            }
+            return _segments.get(s);
+        }
+    }
+}
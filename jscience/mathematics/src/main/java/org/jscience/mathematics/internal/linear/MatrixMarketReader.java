@@ -0,0 +1,499 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.number.Complex;
+
+/**
+ * <p> This class reads matrices in the Matrix Market exchange format
+ *     (<code>coordinate</code> and <code>array</code> formats;
+ *     <code>real</code>, <code>integer</code>, <code>complex</code> and
+ *     <code>pattern</code> fields; <code>general</code>,
+ *     <code>symmetric</code>, <code>skew-symmetric</code> and
+ *     <code>hermitian</code> symmetries).</p>
+ *
+ * <p> The bytes are read from the channel through a single buffer and
+ *     the numbers are parsed in place: the coordinates and values go
+ *     directly to primitive arrays, then the coordinates are
+ *     {@link SparseKernel#compress compressed} (CSR or CSC) in
+ *     <code>O(nnz)</code>. Decimal numbers having at most 15 significant
+ *     digits and a small exponent (e.g. <code>-0.125</code>,
+ *     <code>3.5e-7</code>) are converted exactly by a single floating point
+ *     operation; others are converted by {@link Double#parseDouble}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class MatrixMarketReader {
+
+    /**
+     * Holds the size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Holds the powers of ten exactly representable.
+     */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3,
+            1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+            1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Holds the largest mantissa exactly representable.
+     */
+    private static final long MAX_EXACT = 1L << 53;
+
+    private static final int GENERAL = 0;
+
+    private static final int SYMMETRIC = 1;
+
+    private static final int SKEW_SYMMETRIC = 2;
+
+    private static final int HERMITIAN = 3;
+
+    /**
+     * Holds the channel read.
+     */
+    private final ReadableByteChannel _in;
+
+    /**
+     * Holds the read buffer.
+     */
+    private final ByteBuffer _buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Holds the bytes of the read buffer.
+     */
+    private final byte[] _bytes = _buffer.array();
+
+    /**
+     * Holds the position of the next byte in the buffer.
+     */
+    private int _position;
+
+    /**
+     * Holds the number of bytes in the buffer.
+     */
+    private int _limit;
+
+    /**
+     * Holds the characters of the current token.
+     */
+    private char[] _token = new char[32];
+
+    /**
+     * Holds the length of the current token.
+     */
+    private int _length;
+
+    /**
+     * Holds the current line number.
+     */
+    private long _line = 1;
+
+    /**
+     * Creates a reader for the specified channel.
+     *
+     * @param in the channel read (not closed by this reader).
+     */
+    public MatrixMarketReader(ReadableByteChannel in) {
+        _in = in;
+    }
+
+    /**
+     * Reads the next matrix. Coordinate matrices are returned as sparse
+     * matrices, array matrices as dense matrices; real, integer and
+     * pattern matrices have {@link org.jscience.mathematics.number.Float64
+     * Float64} elements, complex matrices {@link Complex} elements.
+     *
+     * @param columnMajor <code>true</code> if coordinate matrices are
+     *        returned in compressed sparse column format; <code>false</code>
+     *        for compressed sparse row format.
+     * @return the matrix read.
+     * @throws IOException if an I/O error occurs or the content is not
+     *         valid.
+     */
+    public Matrix<?> read(boolean columnMajor) throws IOException {
+        String banner = readLine();
+        String[] header = banner.trim().toLowerCase().split("\\s+");
+        if ((header.length != 5) || !header[0].equals("%%matrixmarket")
+                || !header[1].equals("matrix"))
+            throw error("Invalid header " + banner);
+        boolean coordinate = header[2].equals("coordinate");
+        if (!coordinate && !header[2].equals("array"))
+            throw error("Unknown format " + header[2]);
+        String field = header[3];
+        boolean complex = field.equals("complex");
+        boolean pattern = field.equals("pattern");
+        if (!complex && !pattern && !field.equals("real")
+                && !field.equals("double") && !field.equals("integer"))
+            throw error("Unknown field " + field);
+        if (pattern && !coordinate)
+            throw error("Pattern field for array format");
+        int symmetry = symmetry(header[4]);
+        if ((symmetry == HERMITIAN) && !complex)
+            throw error("Hermitian matrix not complex");
+        skipComments();
+        int m = readInt();
+        int n = readInt();
+        if ((m < 0) || (n < 0))
+            throw error("Invalid dimensions " + m + "x" + n);
+        if ((symmetry != GENERAL) && (m != n))
+            throw error("Symmetric matrix not square");
+        return coordinate ? readCoordinate(m, n, complex, pattern, symmetry,
+                columnMajor) : readArray(m, n, complex, symmetry);
+    }
+
+    /**
+     * Reads the entries of a coordinate matrix.
+     */
+    private Matrix<?> readCoordinate(int m, int n, boolean complex,
+            boolean pattern, int symmetry, boolean columnMajor)
+            throws IOException {
+        int nnz = readInt();
+        if (nnz < 0)
+            throw error("Invalid number of entries " + nnz);
+        int[] rows = new int[nnz];
+        int[] cols = new int[nnz];
+        double[] re = new double[nnz];
+        double[] im = complex ? new double[nnz] : null;
+        int offDiagonal = 0;
+        for (int k = 0; k < nnz; k++) {
+            int i = readInt() - 1;
+            int j = readInt() - 1;
+            if ((i < 0) || (i >= m) || (j < 0) || (j >= n))
+                throw error("Entry (" + (i + 1) + ", " + (j + 1)
+                        + ") out of range");
+            rows[k] = i;
+            cols[k] = j;
+            re[k] = pattern ? 1.0 : readDouble();
+            if (complex) {
+                im[k] = readDouble();
+            }
+            if (i != j) {
+                offDiagonal++;
+            }
+        }
+        int size = nnz;
+        if (symmetry != GENERAL) { // Adds the upper triangle.
+            size += offDiagonal;
+            rows = AbstractSparseMatrix.resize(rows, size);
+            cols = AbstractSparseMatrix.resize(cols, size);
+            re = AbstractSparseMatrix.resize(re, size);
+            im = complex ? AbstractSparseMatrix.resize(im, size) : null;
+            for (int k = 0, t = nnz; k < nnz; k++) {
+                if (rows[k] == cols[k])
+                    continue;
+                rows[t] = cols[k];
+                cols[t] = rows[k];
+                re[t] = (symmetry == SKEW_SYMMETRIC) ? -re[k] : re[k];
+                if (complex) {
+                    im[t] = (symmetry == SYMMETRIC) ? im[k] : -im[k];
+                }
+                t++;
+            }
+        }
+        final int majors = columnMajor ? n : m;
+        int[] pointers = new int[majors + 1];
+        int[] indices = new int[size];
+        int[] positions;
+        try {
+            positions = columnMajor ? SparseKernel.compress(n, m, size, cols,
+                    rows, pointers, indices) : SparseKernel.compress(m, n,
+                    size, rows, cols, pointers, indices);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        rows = null;
+        cols = null;
+        if (complex) {
+            Object[] elements = new Object[size];
+            for (int t = 0; t < size; t++) {
+                elements[t] = Complex.valueOf(re[positions[t]],
+                        im[positions[t]]);
+            }
+            return new SparseMatrixImpl<Complex>(m, n, columnMajor, pointers,
+                    indices, elements, Complex.ZERO);
+        }
+        double[] values = new double[size];
+        for (int t = 0; t < size; t++) {
+            values[t] = re[positions[t]];
+        }
+        return new FloatSparseMatrixImpl(m, n, columnMajor, pointers,
+                indices, values);
+    }
+
+    /**
+     * Reads the values of an array matrix (column-major order, lower
+     * triangle only for symmetric matrices).
+     */
+    private Matrix<?> readArray(int m, int n, boolean complex, int symmetry)
+            throws IOException {
+        if ((long) m * n > Integer.MAX_VALUE)
+            throw error(m + "x" + n + " matrix too large");
+        double[] re = new double[m * n];
+        double[] im = complex ? new double[m * n] : null;
+        for (int j = 0; j < n; j++) {
+            int from = (symmetry == GENERAL) ? 0
+                    : (symmetry == SKEW_SYMMETRIC) ? j + 1 : j;
+            for (int i = from; i < m; i++) {
+                double x = readDouble();
+                double y = complex ? readDouble() : 0.0;
+                re[i * n + j] = x;
+                if (complex) {
+                    im[i * n + j] = y;
+                }
+                if ((symmetry == GENERAL) || (i == j))
+                    continue;
+                re[j * n + i] = (symmetry == SKEW_SYMMETRIC) ? -x : x;
+                if (complex) {
+                    im[j * n + i] = (symmetry == SYMMETRIC) ? y : -y;
+                }
+            }
+        }
+        if (complex)
+            return new ComplexMatrixImpl(m, n, re, im, 0, n, 1);
+        return FloatMatrixImpl.wrap(m, n, re);
+    }
+
+    /**
+     * Returns the symmetry having the specified name.
+     */
+    private int symmetry(String name) throws IOException {
+        if (name.equals("general"))
+            return GENERAL;
+        if (name.equals("symmetric"))
+            return SYMMETRIC;
+        if (name.equals("skew-symmetric"))
+            return SKEW_SYMMETRIC;
+        if (name.equals("hermitian"))
+            return HERMITIAN;
+        throw error("Unknown symmetry " + name);
+    }
+
+    /**
+     * Returns the next byte or <code>-1</code> at the end of the channel.
+     */
+    private int next() throws IOException {
+        if (_position == _limit) {
+            _buffer.clear();
+            int count;
+            do {
+                count = _in.read(_buffer);
+            } while (count == 0);
+            if (count < 0)
+                return -1;
+            _position = 0;
+            _limit = count;
+        }
+        return _bytes[_position++] & 0xFF;
+    }
+
+    /**
+     * Reads the remaining of the current line.
+     */
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = next(); (c != '\n') && (c >= 0); c = next()) {
+            line.append((char) c);
+        }
+        _line++;
+        return line.toString();
+    }
+
+    /**
+     * Skips the blank lines and the comment lines.
+     */
+    private void skipComments() throws IOException {
+        while (true) {
+            int c = next();
+            while ((c == ' ') || (c == '\t') || (c == '\r')) {
+                c = next();
+            }
+            if (c == '%') {
+                while ((c != '\n') && (c >= 0)) {
+                    c = next();
+                }
+            }
+            if (c == '\n') {
+                _line++;
+                continue;
+            }
+            if (c >= 0) {
+                _position--; // The byte is still in the buffer.
+            }
+            return;
+        }
+    }
+
+    /**
+     * Reads the next token (sequence of non-blank characters).
+     */
+    private void token() throws IOException {
+        int c = next();
+        while ((c == ' ') || (c == '\t') || (c == '\r') || (c == '\n')) {
+            if (c == '\n') {
+                _line++;
+            }
+            c = next();
+        }
+        if (c < 0)
+            throw new EOFException("Line " + _line
+                    + ": unexpected end of file");
+        _length = 0;
+        while (c > ' ') {
+            if (_length == _token.length) {
+                char[] tmp = new char[_length * 2];
+                System.arraycopy(_token, 0, tmp, 0, _length);
+                _token = tmp;
+            }
+            _token[_length++] = (char) c;
+            c = next();
+        }
+        if (c == '\n') {
+            _line++;
+        }
+    }
+
+    /**
+     * Reads the next integer.
+     */
+    private int readInt() throws IOException {
+        token();
+        int k = 0;
+        boolean negative = false;
+        if ((_token[0] == '-') || (_token[0] == '+')) {
+            negative = _token[0] == '-';
+            k++;
+        }
+        if (k == _length)
+            throw invalid();
+        long value = 0;
+        for (; k < _length; k++) {
+            int digit = _token[k] - '0';
+            if ((digit < 0) || (digit > 9))
+                throw invalid();
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE)
+                throw invalid();
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Reads the next floating point number.
+     */
+    private double readDouble() throws IOException {
+        token();
+        double value = parse();
+        if (value == value)
+            return value;
+        try { // Not in the exact domain (or NaN).
+            return Double.parseDouble(new String(_token, 0, _length));
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * Returns the value of the current token if calculated exactly
+     * (Clinger's fast path), or <code>NaN</code>.
+     */
+    private double parse() {
+        int k = 0;
+        boolean negative = false;
+        if ((_token[0] == '-') || (_token[0] == '+')) {
+            negative = _token[0] == '-';
+            k++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int zeros = 0; // Pending zeros (trailing zeros are not significant).
+        int digits = 0;
+        boolean point = false;
+        boolean any = false;
+        for (; k < _length; k++) {
+            char c = _token[k];
+            if ((c >= '0') && (c <= '9')) {
+                any = true;
+                if (point) {
+                    exponent--;
+                }
+                if (c == '0') {
+                    zeros++;
+                    continue;
+                }
+                if (mantissa == 0) {
+                    zeros = 0; // Leading zeros.
+                }
+                digits += zeros + 1;
+                if (digits > 15)
+                    return Double.NaN;
+                for (; zeros > 0; zeros--) {
+                    mantissa *= 10;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            } else if ((c == '.') && !point) {
+                point = true;
+            } else if ((c == 'e') || (c == 'E')) {
+                break;
+            } else
+                return Double.NaN;
+        }
+        if (!any)
+            return Double.NaN;
+        exponent += (mantissa == 0) ? 0 : zeros;
+        if (k < _length) { // Exponent.
+            k++;
+            boolean negativeExponent = false;
+            if ((k < _length)
+                    && ((_token[k] == '-') || (_token[k] == '+'))) {
+                negativeExponent = _token[k] == '-';
+                k++;
+            }
+            if (k == _length)
+                return Double.NaN;
+            int e = 0;
+            for (; k < _length; k++) {
+                int digit = _token[k] - '0';
+                if ((digit < 0) || (digit > 9) || (e > 1000))
+                    return Double.NaN;
+                e = e * 10 + digit;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (mantissa == 0)
+            return negative ? -0.0 : 0.0;
+        if ((mantissa >= MAX_EXACT) || (exponent < -22) || (exponent > 22))
+            return Double.NaN;
+        double value = (exponent >= 0) ? mantissa * POWERS_OF_TEN[exponent]
+                : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the exception for an invalid number.
+     */
+    private IOException invalid() {
+        return error("Invalid number " + new String(_token, 0, _length));
+    }
+
+    /**
+     * Returns the exception for the specified error at the current line.
+     */
+    private IOException error(String message) {
+        return new IOException("Line " + _line + ": " + message);
+    }
+}
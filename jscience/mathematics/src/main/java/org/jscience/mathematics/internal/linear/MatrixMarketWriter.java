@@ -0,0 +1,257 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.number.Complex;
+
+/**
+ * <p> This class writes matrices in the Matrix Market exchange format:
+ *     sparse matrices in <code>coordinate</code> format (entries in the
+ *     order of their compressed structure), others in <code>array</code>
+ *     format; <code>real</code> or <code>complex</code> field,
+ *     <code>general</code> symmetry.</p>
+ *
+ * <p> The entries are formatted directly into a single buffer written to
+ *     the channel when full; integral values (e.g. indices, pattern or
+ *     integer matrices) are formatted without allocation, others by
+ *     {@link Double#toString(double)} (shortest representation read back
+ *     exactly).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class MatrixMarketWriter {
+
+    /**
+     * Holds the size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Holds the largest magnitude of the integral values formatted as
+     * integers.
+     */
+    private static final double MAX_INTEGRAL = 1e15;
+
+    /**
+     * Holds the channel written.
+     */
+    private final WritableByteChannel _out;
+
+    /**
+     * Holds the write buffer.
+     */
+    private final ByteBuffer _buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Holds the bytes of the write buffer.
+     */
+    private final byte[] _bytes = _buffer.array();
+
+    /**
+     * Holds the number of bytes in the buffer.
+     */
+    private int _position;
+
+    /**
+     * Holds the digits of the integer being formatted.
+     */
+    private final byte[] _digits = new byte[20];
+
+    /**
+     * Creates a writer for the specified channel.
+     *
+     * @param out the channel written (not closed by this writer).
+     */
+    public MatrixMarketWriter(WritableByteChannel out) {
+        _out = out;
+    }
+
+    /**
+     * Writes the specified matrix and flushes the buffer.
+     *
+     * @param matrix the matrix of real or complex numbers.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the elements are not real or
+     *         complex numbers.
+     */
+    public void write(Matrix<?> matrix) throws IOException {
+        final int m = matrix.getRowDimension();
+        final int n = matrix.getColumnDimension();
+        Object sample = (matrix instanceof AbstractSparseMatrix) ? ((AbstractSparseMatrix<?>) matrix)._zero
+                : ((m == 0) || (n == 0)) ? null : matrix.get(0, 0);
+        boolean complex = sample instanceof Complex;
+        if ((sample != null) && !(sample instanceof Number))
+            throw new IllegalArgumentException(sample.getClass()
+                    + " elements are not real or complex numbers");
+        boolean sparse = matrix instanceof AbstractSparseMatrix;
+        write("%%MatrixMarket matrix ");
+        write(sparse ? "coordinate " : "array ");
+        write(complex ? "complex general\n" : "real general\n");
+        writeLong(m);
+        write(' ');
+        writeLong(n);
+        if (sparse) {
+            writeCoordinate((AbstractSparseMatrix<?>) matrix, complex);
+        } else {
+            write('\n');
+            writeArray(matrix, complex);
+        }
+        flush();
+    }
+
+    /**
+     * Writes the number of entries and the entries of the specified sparse
+     * matrix.
+     */
+    private void writeCoordinate(AbstractSparseMatrix<?> S, boolean complex)
+            throws IOException {
+        final int majors = S._columnMajor ? S._n : S._m;
+        final int nnz = S._pointers[majors];
+        write(' ');
+        writeLong(nnz);
+        write('\n');
+        double[] values = (S instanceof FloatSparseMatrixImpl) ? ((FloatSparseMatrixImpl) S)._values
+                : null;
+        for (int p = 0; p < majors; p++) {
+            for (int k = S._pointers[p], end = S._pointers[p + 1]; k < end; k++) {
+                int q = S._indices[k];
+                writeLong((S._columnMajor ? q : p) + 1);
+                write(' ');
+                writeLong((S._columnMajor ? p : q) + 1);
+                write(' ');
+                if (values != null) {
+                    writeDouble(values[k]);
+                } else {
+                    writeElement(S.value(k), complex);
+                }
+                write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the values of the specified matrix in column-major order.
+     */
+    private void writeArray(Matrix<?> matrix, boolean complex)
+            throws IOException {
+        final int m = matrix.getRowDimension();
+        final int n = matrix.getColumnDimension();
+        FloatMatrix F = (matrix instanceof FloatMatrix) ? (FloatMatrix) matrix
+                : null;
+        ComplexMatrixImpl C = (matrix instanceof ComplexMatrixImpl) ? (ComplexMatrixImpl) matrix
+                : null;
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < m; i++) {
+                if (F != null) {
+                    writeDouble(F.getValue(i, j));
+                } else if (C != null) {
+                    int k = C._offset + i * C._rowStride + j * C._colStride;
+                    writeDouble(C._real[k]);
+                    write(' ');
+                    writeDouble(C._imaginary[k]);
+                } else {
+                    writeElement(matrix.get(i, j), complex);
+                }
+                write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the specified element (real or complex number).
+     */
+    private void writeElement(Object element, boolean complex)
+            throws IOException {
+        if (complex) {
+            Complex z = (Complex) element;
+            writeDouble(z.getReal());
+            write(' ');
+            writeDouble(z.getImaginary());
+        } else {
+            writeDouble(((Number) element).doubleValue());
+        }
+    }
+
+    /**
+     * Writes the specified floating point number.
+     */
+    private void writeDouble(double value) throws IOException {
+        if ((value == (long) value) && (Math.abs(value) < MAX_INTEGRAL)
+                && ((value != 0.0) || (1 / value > 0))) {
+            writeLong((long) value);
+        } else {
+            write(Double.toString(value));
+        }
+    }
+
+    /**
+     * Writes the specified integer.
+     */
+    private void writeLong(long value) throws IOException {
+        reserve(_digits.length + 1);
+        if (value < 0) {
+            _bytes[_position++] = '-';
+            value = -value;
+        }
+        int count = 0;
+        do {
+            _digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            _bytes[_position++] = _digits[--count];
+        }
+    }
+
+    /**
+     * Writes the specified ASCII characters.
+     */
+    private void write(String ascii) throws IOException {
+        reserve(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            _bytes[_position++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    /**
+     * Writes the specified ASCII character.
+     */
+    private void write(char c) throws IOException {
+        reserve(1);
+        _bytes[_position++] = (byte) c;
+    }
+
+    /**
+     * Ensures that the buffer has room for the specified number of bytes.
+     */
+    private void reserve(int count) throws IOException {
+        if (_position + count > BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the content of the buffer to the channel.
+     */
+    private void flush() throws IOException {
+        _buffer.clear();
+        _buffer.limit(_position);
+        while (_buffer.hasRemaining()) {
+            _out.write(_buffer);
+        }
+        _position = 0;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.MutableFloatMatrix;
+import org.jscience.mathematics.linear.MutableFloatVector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents a mutable dense matrix of 64 bits floating
+ *     points numbers held in a row-major <code>double</code> array; the
+ *     array is shared with the matrices {@link #freeze frozen} and copied
+ *     by the next modification (copy-on-write).</p>
+ *
+ * <p> Products are calculated by the {@link Float64Kernel} directly into
+ *     the destination array.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class MutableFloatMatrixImpl implements MutableFloatMatrix {
+
+    /**
+     * Holds the number of rows.
+     */
+    final int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    final int _n;
+
+    /**
+     * Holds the row-major values.
+     */
+    double[] _values;
+
+    /**
+     * Indicates if the values are shared with a frozen matrix.
+     */
+    private boolean _frozen;
+
+    /**
+     * Creates a mutable matrix holding the specified row-major values
+     * (not copied).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param values the row-major values (<code>m * n</code>).
+     * @throws DimensionException if <code>values.length != m * n</code>
+     */
+    public MutableFloatMatrixImpl(int m, int n, double[] values) {
+        if (values.length != m * n)
+            throw new DimensionException(values.length + " values for a " + m
+                    + "x" + n + " matrix");
+        _m = m;
+        _n = n;
+        _values = values;
+    }
+
+    /**
+     * Returns a mutable matrix holding the values of the specified matrix.
+     *
+     * @param that the matrix whose values are copied.
+     * @return the corresponding mutable matrix.
+     */
+    public static MutableFloatMatrixImpl valueOf(Matrix<Float64> that) {
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        return new MutableFloatMatrixImpl(m, n, new double[m * n]).set(that);
+    }
+
+    /**
+     * Returns the values for writing (copied if shared).
+     */
+    private double[] writable() {
+        if (_frozen) {
+            _values = _values.clone();
+            _frozen = false;
+        }
+        return _values;
+    }
+
+    @Override
+    public int getRowDimension() {
+        return _m;
+    }
+
+    @Override
+    public int getColumnDimension() {
+        return _n;
+    }
+
+    @Override
+    public double getValue(int i, int j) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        return _values[i * _n + j];
+    }
+
+    @Override
+    public MutableFloatMatrixImpl setValue(int i, int j, double value) {
+        AbstractVector.checkIndex(i, _m);
+        AbstractVector.checkIndex(j, _n);
+        writable()[i * _n + j] = value;
+        return this;
+    }
+
+    @Override
+    public MutableFloatMatrixImpl fill(double value) {
+        Arrays.fill(writable(), value);
+        return this;
+    }
+
+    @Override
+    public MutableFloatMatrixImpl set(Matrix<Float64> that) {
+        return axpy(1.0, that, 0.0);
+    }
+
+    @Override
+    public MutableFloatMatrixImpl set(MutableFloatMatrix that) {
+        MutableFloatMatrixImpl M = valueOf(that);
+        checkDimensions(M);
+        if (M._values != _values) {
+            System.arraycopy(M._values, 0, writable(), 0, _values.length);
+        }
+        return this;
+    }
+
+    @Override
+    public MutableFloatMatrixImpl scale(double k) {
+        double[] y = writable();
+        Float64VectorKernel.getInstance().scale(y.length, k, y, 0, 1);
+        return this;
+    }
+
+    @Override
+    public MutableFloatMatrixImpl axpy(double a, Matrix<Float64> X) {
+        return axpy(a, X, 1.0);
+    }
+
+    /**
+     * Calculates <code>this = a · X + b · this</code> (<code>this</code>
+     * ignored if <code>b == 0</code>).
+     */
+    private MutableFloatMatrixImpl axpy(double a, Matrix<Float64> X, double b) {
+        if ((X.getRowDimension() != _m) || (X.getColumnDimension() != _n))
+            throw new DimensionException();
+        double[] y = writable();
+        if (X instanceof FloatMatrixImpl) {
+            FloatMatrixImpl M = (FloatMatrixImpl) X;
+            final double[] values = M._values;
+            final int stride = M._colStride;
+            for (int i = 0, index = 0; i < _m; i++) {
+                int k = M._offset + i * M._rowStride;
+                for (int j = 0; j < _n; j++, k += stride, index++) {
+                    y[index] = (b == 0.0) ? a * values[k] : a * values[k] + b
+                            * y[index];
+                }
+            }
+        } else {
+            for (int i = 0, index = 0; i < _m; i++) {
+                for (int j = 0; j < _n; j++, index++) {
+                    double xij = X.get(i, j).doubleValue();
+                    y[index] = (b == 0.0) ? a * xij : a * xij + b * y[index];
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public MutableFloatMatrixImpl axpy(double a, MutableFloatMatrix X) {
+        MutableFloatMatrixImpl M = valueOf(X);
+        checkDimensions(M);
+        double[] values = M._values;
+        double[] y = writable();
+        Float64VectorKernel.getInstance().axpy(y.length, a, values, 0, 1, y,
+                0, 1);
+        return this;
+    }
+
+    @Override
+    public MutableFloatMatrix addTo(MutableFloatMatrix dst) {
+        return dst.axpy(1.0, this);
+    }
+
+    @Override
+    public MutableFloatVector multiplyInto(MutableFloatVector x,
+            MutableFloatVector dst) {
+        if (x == dst)
+            throw new IllegalArgumentException("Multiplier cannot be the result");
+        double[] v = MutableFloatVectorImpl.values(x);
+        AbstractVector.checkDimension(_n, v.length);
+        AbstractVector.checkDimension(_m, dst.getDimension());
+        if (dst instanceof MutableFloatVectorImpl) {
+            Float64Kernel.multiply(_m, _n, 1, 1.0, _values, 0, _n, 1, v, 0, 1,
+                    1, 0.0, ((MutableFloatVectorImpl) dst).writable(), 0, 1);
+        } else {
+            for (int i = 0; i < _m; i++) {
+                double sum = 0.0;
+                for (int j = 0; j < _n; j++) {
+                    sum += _values[i * _n + j] * v[j];
+                }
+                dst.setValue(i, sum);
+            }
+        }
+        return dst;
+    }
+
+    @Override
+    public MutableFloatMatrix multiplyInto(MutableFloatMatrix B,
+            MutableFloatMatrix dst) {
+        if ((dst == this) || (dst == B))
+            throw new IllegalArgumentException("Operand cannot be the result");
+        MutableFloatMatrixImpl M = valueOf(B);
+        if (M._m != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        final int p = M._n;
+        if ((dst.getRowDimension() != _m) || (dst.getColumnDimension() != p))
+            throw new DimensionException();
+        if (dst instanceof MutableFloatMatrixImpl) {
+            Float64Kernel.multiply(_m, _n, p, 1.0, _values, 0, _n, 1,
+                    M._values, 0, p, 1, 0.0,
+                    ((MutableFloatMatrixImpl) dst).writable(), 0, p);
+        } else {
+            double[] values = new double[_m * p];
+            Float64Kernel.multiply(_m, _n, p, _values, M._values, values);
+            dst.set(FloatMatrixImpl.wrap(_m, p, values));
+        }
+        return dst;
+    }
+
+    @Override
+    public FloatMatrix freeze() {
+        _frozen = true;
+        return FloatMatrixImpl.wrap(_m, _n, _values);
+    }
+
+    /**
+     * Checks that the specified matrix has the same dimensions.
+     */
+    private void checkDimensions(MutableFloatMatrixImpl that) {
+        if ((that._m != _m) || (that._n != _n))
+            throw new DimensionException(that._m + "x" + that._n
+                    + " matrix instead of " + _m + "x" + _n);
+    }
+
+    /**
+     * Returns the specified mutable matrix or a copy as an instance of this
+     * class.
+     */
+    private static MutableFloatMatrixImpl valueOf(MutableFloatMatrix that) {
+        if (that instanceof MutableFloatMatrixImpl)
+            return (MutableFloatMatrixImpl) that;
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        double[] values = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i * n + j] = that.getValue(i, j);
+            }
+        }
+        return new MutableFloatMatrixImpl(m, n, values);
+    }
+
+    @Override
+    public String toString() {
+        return FloatMatrixImpl.wrap(_m, _n, _values).toString();
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.MutableFloatVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class represents a mutable vector of 64 bits floating points
+ *     numbers held in a contiguous <code>double</code> array; the array is
+ *     shared with the vectors {@link #freeze frozen} and copied by the next
+ *     modification (copy-on-write).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class MutableFloatVectorImpl implements MutableFloatVector {
+
+    /**
+     * Holds the values.
+     */
+    double[] _values;
+
+    /**
+     * Indicates if the values are shared with a frozen vector.
+     */
+    private boolean _frozen;
+
+    /**
+     * Creates a mutable vector holding the specified values (not copied).
+     *
+     * @param values the values.
+     */
+    public MutableFloatVectorImpl(double[] values) {
+        _values = values;
+    }
+
+    /**
+     * Returns a mutable vector holding the values of the specified vector.
+     *
+     * @param that the vector whose values are copied.
+     * @return the corresponding mutable vector.
+     */
+    public static MutableFloatVectorImpl valueOf(Vector<Float64> that) {
+        return new MutableFloatVectorImpl(new double[that.getDimension()])
+                .set(that);
+    }
+
+    /**
+     * Returns the values for writing (copied if shared).
+     */
+    double[] writable() {
+        if (_frozen) {
+            _values = _values.clone();
+            _frozen = false;
+        }
+        return _values;
+    }
+
+    @Override
+    public int getDimension() {
+        return _values.length;
+    }
+
+    @Override
+    public double getValue(int i) {
+        AbstractVector.checkIndex(i, _values.length);
+        return _values[i];
+    }
+
+    @Override
+    public MutableFloatVectorImpl setValue(int i, double value) {
+        AbstractVector.checkIndex(i, _values.length);
+        writable()[i] = value;
+        return this;
+    }
+
+    @Override
+    public MutableFloatVectorImpl fill(double value) {
+        Arrays.fill(writable(), value);
+        return this;
+    }
+
+    @Override
+    public MutableFloatVectorImpl set(Vector<Float64> that) {
+        return axpy(1.0, that, 0.0);
+    }
+
+    @Override
+    public MutableFloatVectorImpl set(MutableFloatVector that) {
+        double[] x = values(that);
+        AbstractVector.checkDimension(_values.length, x.length);
+        if (x != _values) {
+            System.arraycopy(x, 0, writable(), 0, x.length);
+        }
+        return this;
+    }
+
+    @Override
+    public MutableFloatVectorImpl scale(double k) {
+        double[] y = writable();
+        Float64VectorKernel.getInstance().scale(y.length, k, y, 0, 1);
+        return this;
+    }
+
+    @Override
+    public MutableFloatVectorImpl axpy(double a, Vector<Float64> x) {
+        return axpy(a, x, 1.0);
+    }
+
+    /**
+     * Calculates <code>this = a · x + b · this</code> (<code>this</code>
+     * ignored if <code>b == 0</code>).
+     */
+    private MutableFloatVectorImpl axpy(double a, Vector<Float64> x, double b) {
+        final int n = _values.length;
+        AbstractVector.checkDimension(n, x.getDimension());
+        double[] y = writable();
+        if (x instanceof FloatVectorImpl) {
+            FloatVectorImpl v = (FloatVectorImpl) x;
+            Float64VectorKernel.getInstance().combine(n, a, v._values,
+                    v._offset, v._stride, b, (b == 0.0) ? null : y, 0, 1, y, 0);
+        } else if (x instanceof FloatVector) {
+            FloatVector v = (FloatVector) x;
+            for (int i = 0; i < n; i++) {
+                y[i] = (b == 0.0) ? a * v.getValue(i) : a * v.getValue(i) + b
+                        * y[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                double xi = x.get(i).doubleValue();
+                y[i] = (b == 0.0) ? a * xi : a * xi + b * y[i];
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public MutableFloatVectorImpl axpy(double a, MutableFloatVector x) {
+        double[] values = values(x);
+        AbstractVector.checkDimension(_values.length, values.length);
+        double[] y = writable();
+        Float64VectorKernel.getInstance().axpy(y.length, a, values, 0, 1, y,
+                0, 1);
+        return this;
+    }
+
+    @Override
+    public MutableFloatVector addTo(MutableFloatVector dst) {
+        return dst.axpy(1.0, this);
+    }
+
+    @Override
+    public MutableFloatVectorImpl setProduct(Matrix<Float64> A,
+            MutableFloatVector x) {
+        if (x == this)
+            throw new IllegalArgumentException("Multiplier cannot be the result");
+        final int m = A.getRowDimension();
+        final int n = A.getColumnDimension();
+        AbstractVector.checkDimension(m, _values.length);
+        double[] v = values(x);
+        AbstractVector.checkDimension(n, v.length);
+        double[] y = writable();
+        if (A instanceof FloatMatrixImpl) {
+            ((FloatMatrixImpl) A).times(v, y);
+        } else if (A instanceof FloatSparseMatrixImpl) {
+            ((FloatSparseMatrixImpl) A).times(v, y);
+        } else if (A instanceof LazyFloatMatrix) {
+            ((LazyFloatMatrix) A).times(v, y);
+        } else {
+            for (int i = 0; i < m; i++) {
+                double sum = 0.0;
+                for (int j = 0; j < n; j++) {
+                    sum += A.get(i, j).doubleValue() * v[j];
+                }
+                y[i] = sum;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public double dot(MutableFloatVector that) {
+        double[] values = values(that);
+        AbstractVector.checkDimension(_values.length, values.length);
+        return Float64VectorKernel.getInstance().dot(values.length, _values, 0,
+                1, values, 0, 1);
+    }
+
+    @Override
+    public double normValue() {
+        return Math.sqrt(dot(this));
+    }
+
+    @Override
+    public FloatVector freeze() {
+        _frozen = true;
+        return new FloatVectorImpl(_values, 0, 1, _values.length);
+    }
+
+    /**
+     * Returns the current values of the specified mutable vector (no copy
+     * for instances of this class).
+     */
+    static double[] values(MutableFloatVector that) {
+        if (that instanceof MutableFloatVectorImpl)
+            return ((MutableFloatVectorImpl) that)._values;
+        double[] values = new double[that.getDimension()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = that.getValue(i);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(_values);
+    }
+}
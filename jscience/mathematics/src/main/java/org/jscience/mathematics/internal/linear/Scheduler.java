@@ -0,0 +1,359 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javolution.lang.Configurable;
+
+/**
+ * <p> This class schedules the parallel execution of the matrix/vector
+ *     operations. A {@link Task task} covers a range of indices (typically
+ *     rows or tiles of the result); the range is split into chunks which
+ *     are claimed dynamically by the calling thread and by up to
+ *     <code>CONCURRENCY - 1</code> helper threads of the {@link #setExecutor
+ *     executor}. Load balancing is then automatic (fast threads claim more
+ *     chunks) and the caller never waits for a chunk not yet started.</p>
+ *
+ * <p> Operations whose estimated cost is below the
+ *     {@link #SEQUENTIAL_THRESHOLD} are executed sequentially by the calling
+ *     thread, so are the operations scheduled from within a task
+ *     (nested parallelism is flattened).</p>
+ *
+ * <p> Tasks should not depend upon the calling thread context, in particular
+ *     {@link javolution.context.LocalContext context-local} settings are not
+ *     inherited by the helper threads.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Scheduler {
+
+    /**
+     * Holds the maximum number of threads (including the calling thread)
+     * executing a task concurrently (default the number of available
+     * processors). Parallel execution is disabled if this number is
+     * <code>1</code>.
+     */
+    public static final Configurable<Integer> CONCURRENCY = new Configurable<Integer>(
+            Runtime.getRuntime().availableProcessors()) {};
+
+    /**
+     * Holds the estimated cost (in floating point operations) below which
+     * operations are executed sequentially (default <code>65536</code>).
+     */
+    public static final Configurable<Integer> SEQUENTIAL_THRESHOLD = new Configurable<Integer>(
+            65536) {};
+
+    /**
+     * Holds the estimated cost of a generic field operation (e.g. addition
+     * of two {@link org.jscience.mathematics.number.Rational Rational})
+     * relatively to a floating point operation.
+     */
+    public static final int FIELD_OPERATION_COST = 64;
+
+    /**
+     * Holds the number of chunks per thread (over-decomposition for load
+     * balancing).
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Indicates if the current thread is executing a task.
+     */
+    private static final ThreadLocal<Boolean> INSIDE_TASK = new ThreadLocal<Boolean>() {
+
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+    };
+
+    /**
+     * Holds the user executor or <code>null</code> for the default one.
+     */
+    private static volatile Executor _executor;
+
+    /**
+     * Holds the default executor (lazily created).
+     */
+    private static ExecutorService _defaultExecutor;
+
+    /**
+     * Default constructor (private for utility class).
+     */
+    private Scheduler() {
+    }
+
+    /**
+     * This class represents a task operating on a range of indices.
+     * Distinct ranges may be executed concurrently.
+     */
+    public static abstract class Task {
+
+        /**
+         * Executes this task for the indices <code>[start, end)</code>.
+         *
+         * @param start the first index (inclusive).
+         * @param end the last index (exclusive).
+         */
+        public abstract void run(int start, int end);
+    }
+
+    /**
+     * Sets the executor of the helper threads or <code>null</code> to use
+     * the default executor (daemon threads created on demand).
+     *
+     * @param executor the executor to use or <code>null</code>.
+     */
+    public static void setExecutor(Executor executor) {
+        _executor = executor;
+    }
+
+    /**
+     * Returns the executor of the helper threads.
+     *
+     * @return the current executor.
+     */
+    public static Executor getExecutor() {
+        Executor executor = _executor;
+        return (executor != null) ? executor : defaultExecutor();
+    }
+
+    /**
+     * Indicates if an operation of the specified cost is executed in
+     * parallel when scheduled from the current thread.
+     *
+     * @param cost the estimated number of floating point operations.
+     * @return <code>true</code> if the operation is split between threads;
+     *         <code>false</code> otherwise.
+     */
+    public static boolean isParallel(long cost) {
+        return (CONCURRENCY.get() > 1)
+                && (cost >= SEQUENTIAL_THRESHOLD.get())
+                && !INSIDE_TASK.get();
+    }
+
+    /**
+     * Executes the specified task for the indices <code>[0, size)</code>
+     * and waits for its completion.
+     *
+     * @param size the number of indices.
+     * @param cost the estimated number of floating point operations of
+     *        the whole task.
+     * @param task the task to execute.
+     * @throws RuntimeException or Error raised by the task (the first one
+     *         if the task fails concurrently).
+     */
+    public static void execute(int size, long cost, Task task) {
+        if (size <= 0)
+            return;
+        if ((size == 1) || !isParallel(cost)) {
+            task.run(0, size);
+            return;
+        }
+        final int concurrency = CONCURRENCY.get();
+        int grain = size / (concurrency * CHUNKS_PER_THREAD);
+        if (grain < 1) {
+            grain = 1;
+        }
+        Execution execution = new Execution(task, size, grain);
+        start(execution, concurrency);
+    }
+
+    /**
+     * Executes the specified task for the indices <code>[0, size)</code>
+     * split into chunks of balanced weights and waits for its completion.
+     * The weights are cumulative: the weight of the indices
+     * <code>[i, j)</code> is <code>weights[j] - weights[i]</code> (e.g.
+     * the rows pointers of a compressed sparse matrix, chunks having then
+     * about the same number of non-zero elements).
+     *
+     * @param size the number of indices.
+     * @param weights the cumulative weights (non-decreasing,
+     *        <code>size + 1</code> elements).
+     * @param cost the estimated number of floating point operations of
+     *        the whole task.
+     * @param task the task to execute.
+     * @throws RuntimeException or Error raised by the task (the first one
+     *         if the task fails concurrently).
+     */
+    public static void execute(int size, int[] weights, long cost, Task task) {
+        if (size <= 0)
+            return;
+        if ((size == 1) || !isParallel(cost)) {
+            task.run(0, size);
+            return;
+        }
+        final int concurrency = CONCURRENCY.get();
+        final int chunks = Math.min(size, concurrency * CHUNKS_PER_THREAD);
+        final long first = weights[0];
+        final long total = weights[size] - first;
+        int[] bounds = new int[chunks + 1];
+        int count = 0;
+        for (int c = 1; c < chunks; c++) {
+            long target = first + total * c / chunks;
+            int low = bounds[count];
+            int high = size;
+            while (low < high) { // First index whose weight reaches target.
+                int mid = (low + high) >>> 1;
+                if (weights[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > bounds[count] && low < size) {
+                bounds[++count] = low;
+            }
+        }
+        bounds[++count] = size;
+        Execution execution = new Execution(task, bounds, count);
+        start(execution, concurrency);
+    }
+
+    /**
+     * Starts the helper threads, participates to the specified execution
+     * and waits for its completion.
+     */
+    private static void start(Execution execution, int concurrency) {
+        int helpers = Math.min(concurrency, execution._chunks) - 1;
+        Executor executor = getExecutor();
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(execution);
+            } catch (RejectedExecutionException e) {
+                break; // The calling thread does the work.
+            }
+        }
+        execution.run();
+        execution.await();
+    }
+
+    /**
+     * Returns the default executor.
+     */
+    private static synchronized ExecutorService defaultExecutor() {
+        if (_defaultExecutor == null) {
+            _defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+                private final AtomicInteger _count = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "JScience-Scheduler-"
+                            + _count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return _defaultExecutor;
+    }
+
+    /**
+     * Represents the execution of a task (shared by the participating
+     * threads).
+     */
+    private static final class Execution implements Runnable {
+
+        private final Task _task;
+
+        private final int _size;
+
+        private final int _grain;
+
+        private final int[] _bounds; // Explicit chunk bounds or null.
+
+        private final int _chunks;
+
+        private final AtomicInteger _next = new AtomicInteger();
+
+        private int _completed; // Guarded by this.
+
+        private volatile Throwable _error;
+
+        Execution(Task task, int size, int grain) {
+            _task = task;
+            _size = size;
+            _grain = grain;
+            _bounds = null;
+            _chunks = (size + grain - 1) / grain;
+        }
+
+        Execution(Task task, int[] bounds, int chunks) {
+            _task = task;
+            _size = bounds[chunks];
+            _grain = 0;
+            _bounds = bounds;
+            _chunks = chunks;
+        }
+
+        public void run() {
+            Boolean inside = INSIDE_TASK.get();
+            INSIDE_TASK.set(Boolean.TRUE);
+            try {
+                for (int chunk; (chunk = _next.getAndIncrement()) < _chunks;) {
+                    try {
+                        if (_error == null) {
+                            if (_bounds != null) {
+                                _task.run(_bounds[chunk], _bounds[chunk + 1]);
+                            } else {
+                                int start = chunk * _grain;
+                                _task.run(start, Math.min(start + _grain, _size));
+                            }
+                        }
+                    } catch (Throwable error) {
+                        if (_error == null) {
+                            _error = error;
+                        }
+                    } finally {
+                        synchronized (this) {
+                            if (++_completed == _chunks) {
+                                this.notifyAll();
+                            }
+                        }
+                    }
+                }
+            } finally {
+                INSIDE_TASK.set(inside);
+            }
+        }
+
+        /**
+         * Waits for the chunks being executed by helper threads.
+         */
+        void await() {
+            boolean interrupted = false;
+            synchronized (this) {
+                while (_completed < _chunks) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable error = _error;
+            if (error instanceof RuntimeException)
+                throw (RuntimeException) error;
+            if (error instanceof Error)
+                throw (Error) error;
+            if (error != null)
+                throw new RuntimeException(error);
+        }
+    }
+}
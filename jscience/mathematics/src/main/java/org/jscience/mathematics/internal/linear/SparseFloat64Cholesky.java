@@ -0,0 +1,265 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.DimensionException;
+
+/**
+ * <p> This class represents the Cholesky decomposition
+ *     <code>P·A·P<sup>T</sup> = L·L<sup>T</sup></code> of a sparse
+ *     symmetric positive definite matrix of <code>double</code> values,
+ *     the permutation <code>P</code> and the structure of <code>L</code>
+ *     being those of a {@link SparseSymbolic symbolic analysis}.</p>
+ *
+ * <p> The factorization is left-looking: each column of <code>L</code> is
+ *     scattered into a dense work vector, updated by the previous columns
+ *     having a non-zero in its row (these columns are linked by their next
+ *     non-zero row, no search is performed) and gathered back into the
+ *     preallocated structure. The values of <code>A</code> are read from
+ *     its compressed structure (CSR or CSC, both triangles being
+ *     stored).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SparseFloat64Cholesky {
+
+    /**
+     * Holds the symbolic analysis.
+     */
+    private final SparseSymbolic _symbolic;
+
+    /**
+     * Holds the values of <code>L</code> (structure of the symbolic
+     * analysis).
+     */
+    private final double[] _values;
+
+    /**
+     * Creates the decomposition of the specified matrix.
+     */
+    private SparseFloat64Cholesky(SparseSymbolic symbolic, int[] pointers,
+            int[] indices, double[] values) {
+        _symbolic = symbolic;
+        final int n = symbolic._n;
+        final int[] perm = symbolic._perm;
+        final int[] inverse = symbolic._inverse;
+        final int[] lp = symbolic._lPointers;
+        final int[] li = symbolic._lIndices;
+        final double[] lx = new double[lp[n]];
+        double[] x = new double[n];
+        int[] first = new int[n]; // Position of the next row of each column.
+        int[] head = new int[n]; // Columns whose next row is i.
+        int[] link = new int[n];
+        Arrays.fill(head, -1);
+        for (int j = 0; j < n; j++) {
+            for (int t = pointers[perm[j]], end = pointers[perm[j] + 1]; t < end; t++) {
+                int i = inverse[indices[t]];
+                if (i >= j) {
+                    x[i] = values[t];
+                }
+            }
+            for (int k = head[j]; k != -1;) {
+                final int next = link[k];
+                int q = first[k];
+                final double ljk = lx[q];
+                final int end = lp[k + 1];
+                for (int t = q; t < end; t++) {
+                    x[li[t]] -= lx[t] * ljk;
+                }
+                first[k] = ++q;
+                if (q < end) {
+                    int i = li[q];
+                    link[k] = head[i];
+                    head[i] = k;
+                }
+                k = next;
+            }
+            final double d = x[j];
+            x[j] = 0.0;
+            if (!(d > 0.0))
+                throw new ArithmeticException(
+                        "Matrix not positive definite (pivot " + j + ")");
+            final double ljj = Math.sqrt(d);
+            lx[lp[j]] = ljj;
+            final int end = lp[j + 1];
+            for (int t = lp[j] + 1; t < end; t++) {
+                lx[t] = x[li[t]] / ljj;
+                x[li[t]] = 0.0;
+            }
+            first[j] = lp[j] + 1;
+            if (first[j] < end) {
+                int i = li[first[j]];
+                link[j] = head[i];
+                head[i] = j;
+            }
+        }
+        _values = lx;
+    }
+
+    /**
+     * Returns the decomposition of the specified symmetric positive
+     * definite matrix, ordered by approximate minimum degree. The
+     * decomposition of a matrix instance is calculated once (see
+     * {@link FactorizationCache}).
+     *
+     * @param A the square sparse matrix (both triangles stored).
+     * @return the sparse Cholesky decomposition.
+     * @throws DimensionException if <code>A</code> is not square.
+     * @throws ArithmeticException if the matrix is not positive definite.
+     */
+    public static SparseFloat64Cholesky valueOf(FloatSparseMatrixImpl A) {
+        if (A.getRowDimension() != A.getColumnDimension())
+            throw new DimensionException("Square matrix expected");
+        SparseFloat64Cholesky cholesky = FactorizationCache.get(A,
+                SparseFloat64Cholesky.class);
+        if (cholesky != null)
+            return cholesky;
+        FloatSparseMatrixImpl csr = A.toRowMajor();
+        cholesky = valueOf(csr, SparseSymbolic.valueOf(csr, SparseOrdering
+                .approximateMinimumDegree(csr)));
+        return FactorizationCache.put(A, SparseFloat64Cholesky.class,
+                cholesky);
+    }
+
+    /**
+     * Returns the decomposition of the specified symmetric positive
+     * definite matrix.
+     *
+     * @param A the square sparse matrix (both triangles stored).
+     * @param symbolic the symbolic analysis of the structure of
+     *        <code>A</code>.
+     * @return the sparse Cholesky decomposition.
+     * @throws IllegalArgumentException if <code>A</code> does not have the
+     *         structure analyzed.
+     * @throws ArithmeticException if the matrix is not positive definite.
+     */
+    public static SparseFloat64Cholesky valueOf(FloatSparseMatrixImpl A,
+            SparseSymbolic symbolic) {
+        if (!symbolic.matches(A))
+            throw new IllegalArgumentException(
+                    "Structure different from the structure analyzed");
+        return new SparseFloat64Cholesky(symbolic, A._pointers, A._indices,
+                A._values);
+    }
+
+    /**
+     * Returns the symbolic analysis of this decomposition.
+     *
+     * @return the symbolic analysis.
+     */
+    public SparseSymbolic getSymbolic() {
+        return _symbolic;
+    }
+
+    /**
+     * Returns the dimension.
+     *
+     * @return the number of rows and columns.
+     */
+    public int getDimension() {
+        return _symbolic._n;
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code> for
+     * the specified right-hand sides.
+     *
+     * @param p the number of right-hand sides (columns of <code>B</code>).
+     * @param b the row-major values of <code>B</code> (<code>n * p</code>).
+     * @return the row-major values of <code>X</code> (new array).
+     * @throws IllegalArgumentException if <code>b.length != n * p</code>
+     */
+    public double[] solve(int p, double[] b) {
+        final int n = _symbolic._n;
+        if (b.length != n * p)
+            throw new IllegalArgumentException(b.length + " values for a "
+                    + n + "x" + p + " matrix");
+        final int[] perm = _symbolic._perm;
+        final int[] lp = _symbolic._lPointers;
+        final int[] li = _symbolic._lIndices;
+        final double[] lx = _values;
+        double[] y = new double[n * p];
+        for (int k = 0; k < n; k++) {
+            System.arraycopy(b, perm[k] * p, y, k * p, p);
+        }
+        // Forward: L · Z = P · B
+        for (int j = 0; j < n; j++) {
+            scale(1.0 / lx[lp[j]], y, j * p, p);
+            for (int t = lp[j] + 1, end = lp[j + 1]; t < end; t++) {
+                axpy(-lx[t], y, j * p, y, li[t] * p, p);
+            }
+        }
+        // Backward: Lᵀ · W = Z
+        for (int j = n - 1; j >= 0; j--) {
+            for (int t = lp[j] + 1, end = lp[j + 1]; t < end; t++) {
+                axpy(-lx[t], y, li[t] * p, y, j * p, p);
+            }
+            scale(1.0 / lx[lp[j]], y, j * p, p);
+        }
+        double[] x = new double[n * p];
+        for (int k = 0; k < n; k++) {
+            System.arraycopy(y, k * p, x, perm[k] * p, p);
+        }
+        return x;
+    }
+
+    /**
+     * Returns the determinant of the decomposed matrix.
+     *
+     * @return <code>det(A)</code>
+     */
+    public double determinant() {
+        final int[] lp = _symbolic._lPointers;
+        double product = 1.0;
+        for (int j = 0; j < _symbolic._n; j++) {
+            double ljj = _values[lp[j]];
+            product *= ljj * ljj;
+        }
+        return product;
+    }
+
+    /**
+     * Returns the logarithm of the determinant of the decomposed matrix.
+     *
+     * @return <code>log(det(A))</code>
+     */
+    public double logDeterminant() {
+        final int[] lp = _symbolic._lPointers;
+        double sum = 0.0;
+        for (int j = 0; j < _symbolic._n; j++) {
+            sum += Math.log(_values[lp[j]]);
+        }
+        return 2 * sum;
+    }
+
+    /**
+     * Calculates <code>y[yOffset..] += alpha · x[xOffset..]</code> for
+     * <code>length</code> values.
+     */
+    static void axpy(double alpha, double[] x, int xOffset, double[] y,
+            int yOffset, int length) {
+        if (alpha == 0.0)
+            return;
+        for (int j = 0; j < length; j++) {
+            y[yOffset + j] += alpha * x[xOffset + j];
+        }
+    }
+
+    /**
+     * Multiplies <code>length</code> values by the specified factor.
+     */
+    static void scale(double factor, double[] x, int offset, int length) {
+        for (int j = offset, end = offset + length; j < end; j++) {
+            x[j] *= factor;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.DimensionException;
+
+/**
+ * <p> This class represents the LU decomposition
+ *     <code>P·A·Q = L·U</code> of a sparse square matrix of
+ *     <code>double</code> values; the column permutation <code>Q</code>
+ *     is the fill-reducing ordering of a {@link SparseSymbolic symbolic
+ *     analysis}, the row permutation <code>P</code> results from partial
+ *     pivoting.</p>
+ *
+ * <p> The factorization is left-looking (Gilbert-Peierls): each column
+ *     of <code>A</code> is solved by the previous columns of
+ *     <code>L</code> as a sparse triangular system whose non-zero
+ *     structure (reach of the column in the graph of <code>L</code>) is
+ *     found by depth-first search, in time proportional to the number of
+ *     floating point operations. The pivot is the diagonal element of the
+ *     ordered matrix if its magnitude is at least {@link #TOLERANCE}
+ *     times the largest magnitude of its column (preserving the ordering
+ *     for diagonally dominant matrices), the largest element
+ *     otherwise.</p>
+ *
+ * <p> Matrices having the same structure are {@link #refactor
+ *     refactorized} with the pivots and the structure of the factors
+ *     already calculated: no search nor pivoting is performed (a full
+ *     factorization being performed if a pivot becomes too small).
+ *     Instances are immutable.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://dx.doi.org/10.1137/0909058">Gilbert and Peierls,
+ *      Sparse Partial Pivoting in Time Proportional to Arithmetic
+ *      Operations</a>
+ */
+public final class SparseFloat64LU {
+
+    /**
+     * Holds the threshold of the diagonal pivots relatively to the largest
+     * magnitude of their column.
+     */
+    public static final double TOLERANCE = 0.1;
+
+    /**
+     * Holds the threshold of the pivots relatively to the largest
+     * magnitude of their column below which a refactorization is replaced
+     * by a full factorization.
+     */
+    private static final double REFACTOR_TOLERANCE = 1E-8;
+
+    /**
+     * Holds the symbolic analysis (column ordering).
+     */
+    private final SparseSymbolic _symbolic;
+
+    /**
+     * Holds the row of <code>A</code> of each row of the factors.
+     */
+    private final int[] _rows;
+
+    /**
+     * Holds the columns pointers of <code>L</code>.
+     */
+    private final int[] _lPointers;
+
+    /**
+     * Holds the row indices of <code>L</code> (unit diagonal first).
+     */
+    private final int[] _lIndices;
+
+    /**
+     * Holds the values of <code>L</code>.
+     */
+    private final double[] _lValues;
+
+    /**
+     * Holds the columns pointers of <code>U</code> (diagonal excluded).
+     */
+    private final int[] _uPointers;
+
+    /**
+     * Holds the row indices of <code>U</code> (sorted).
+     */
+    private final int[] _uIndices;
+
+    /**
+     * Holds the values of <code>U</code>.
+     */
+    private final double[] _uValues;
+
+    /**
+     * Holds the diagonal of <code>U</code>.
+     */
+    private final double[] _diagonal;
+
+    /**
+     * Creates a decomposition holding the specified factors.
+     */
+    private SparseFloat64LU(SparseSymbolic symbolic, int[] rows,
+            int[] lPointers, int[] lIndices, double[] lValues,
+            int[] uPointers, int[] uIndices, double[] uValues,
+            double[] diagonal) {
+        _symbolic = symbolic;
+        _rows = rows;
+        _lPointers = lPointers;
+        _lIndices = lIndices;
+        _lValues = lValues;
+        _uPointers = uPointers;
+        _uIndices = uIndices;
+        _uValues = uValues;
+        _diagonal = diagonal;
+    }
+
+    /**
+     * Returns the decomposition of the specified square matrix, its columns
+     * being ordered by approximate minimum degree. The decomposition (or
+     * the singularity) of a matrix instance is calculated once (see
+     * {@link FactorizationCache}).
+     *
+     * @param A the square sparse matrix.
+     * @return the sparse LU decomposition.
+     * @throws DimensionException if <code>A</code> is not square.
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    public static SparseFloat64LU valueOf(FloatSparseMatrixImpl A) {
+        if (A.getRowDimension() != A.getColumnDimension())
+            throw new DimensionException("Square matrix expected");
+        SparseFloat64LU lu = FactorizationCache.get(A, SparseFloat64LU.class);
+        if (lu != null)
+            return lu;
+        FloatSparseMatrixImpl csr = A.toRowMajor();
+        SparseSymbolic symbolic = SparseSymbolic.valueOf(csr, SparseOrdering
+                .approximateMinimumDegree(csr));
+        try {
+            lu = valueOf(csr, symbolic);
+        } catch (ArithmeticException e) {
+            FactorizationCache.putSingular(A, SparseFloat64LU.class);
+            throw e;
+        }
+        return FactorizationCache.put(A, SparseFloat64LU.class, lu);
+    }
+
+    /**
+     * Returns the decomposition of the specified square matrix.
+     *
+     * @param A the square sparse matrix.
+     * @param symbolic the symbolic analysis of the structure of
+     *        <code>A</code>.
+     * @return the sparse LU decomposition.
+     * @throws IllegalArgumentException if <code>A</code> does not have the
+     *         structure analyzed.
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    public static SparseFloat64LU valueOf(FloatSparseMatrixImpl A,
+            SparseSymbolic symbolic) {
+        if (!symbolic.matches(A))
+            throw new IllegalArgumentException(
+                    "Structure different from the structure analyzed");
+        return factorize(symbolic, A.toColumnMajor());
+    }
+
+    /**
+     * Returns the decomposition of the specified matrix having the
+     * structure of the matrix decomposed, reusing the pivots and the
+     * structure of the factors of this decomposition.
+     *
+     * @param A the square sparse matrix (same structure).
+     * @return the sparse LU decomposition of <code>A</code>.
+     * @throws IllegalArgumentException if <code>A</code> does not have the
+     *         structure analyzed.
+     * @throws ArithmeticException if the matrix is singular.
+     */
+    public SparseFloat64LU refactor(FloatSparseMatrixImpl A) {
+        if (!_symbolic.matches(A))
+            throw new IllegalArgumentException(
+                    "Structure different from the structure analyzed");
+        FloatSparseMatrixImpl csc = A.toColumnMajor();
+        final int n = _symbolic._n;
+        final int[] q = _symbolic._perm;
+        final int[] cp = csc._pointers;
+        final int[] ci = csc._indices;
+        final double[] cx = csc._values;
+        final int[] lp = _lPointers;
+        final int[] li = _lIndices;
+        final int[] up = _uPointers;
+        final int[] ui = _uIndices;
+        double[] lx = new double[_lValues.length];
+        double[] ux = new double[_uValues.length];
+        double[] diagonal = new double[n];
+        int[] step = new int[n]; // Row of the factors of each row of A.
+        for (int k = 0; k < n; k++) {
+            step[_rows[k]] = k;
+        }
+        double[] x = new double[n];
+        for (int k = 0; k < n; k++) {
+            final int col = q[k];
+            for (int t = cp[col], end = cp[col + 1]; t < end; t++) {
+                x[step[ci[t]]] = cx[t];
+            }
+            for (int t = up[k], end = up[k + 1]; t < end; t++) {
+                final int s = ui[t];
+                final double xs = x[s];
+                x[s] = 0.0;
+                ux[t] = xs;
+                for (int h = lp[s] + 1, hEnd = lp[s + 1]; h < hEnd; h++) {
+                    x[li[h]] -= lx[h] * xs;
+                }
+            }
+            final double pivot = x[k];
+            x[k] = 0.0;
+            double max = 0.0;
+            for (int h = lp[k] + 1, end = lp[k + 1]; h < end; h++) {
+                max = Math.max(max, Math.abs(x[li[h]]));
+            }
+            if (!(Math.abs(pivot) > REFACTOR_TOLERANCE * max)
+                    || (pivot == 0.0))
+                return factorize(_symbolic, csc); // Pivoting required.
+            diagonal[k] = pivot;
+            lx[lp[k]] = 1.0;
+            for (int h = lp[k] + 1, end = lp[k + 1]; h < end; h++) {
+                lx[h] = x[li[h]] / pivot;
+                x[li[h]] = 0.0;
+            }
+        }
+        return new SparseFloat64LU(_symbolic, _rows, lp, li, lx, up, ui, ux,
+                diagonal);
+    }
+
+    /**
+     * Factorizes the specified CSC matrix.
+     */
+    private static SparseFloat64LU factorize(SparseSymbolic symbolic,
+            FloatSparseMatrixImpl csc) {
+        final int n = symbolic._n;
+        final int[] q = symbolic._perm;
+        final int[] cp = csc._pointers;
+        final int[] ci = csc._indices;
+        final double[] cx = csc._values;
+        final int estimate = symbolic._lPointers[n];
+        int[] lp = new int[n + 1];
+        int[] li = new int[estimate];
+        double[] lx = new double[estimate];
+        int[] up = new int[n + 1];
+        int[] ui = new int[estimate];
+        double[] ux = new double[estimate];
+        double[] diagonal = new double[n];
+        int[] pinv = new int[n]; // Row of the factors of each row of A.
+        Arrays.fill(pinv, -1);
+        int[] rows = new int[n];
+        double[] x = new double[n];
+        int[] xi = new int[n]; // Reach (topological order).
+        int[] stack = new int[n];
+        int[] resume = new int[n];
+        int[] mark = new int[n];
+        int lnz = 0;
+        int unz = 0;
+        for (int k = 0; k < n; k++) {
+            lp[k] = lnz;
+            up[k] = unz;
+            if (lnz + n > li.length) {
+                int length = 2 * li.length + n;
+                li = AbstractSparseMatrix.resize(li, length);
+                lx = AbstractSparseMatrix.resize(lx, length);
+            }
+            if (unz + n > ui.length) {
+                int length = 2 * ui.length + n;
+                ui = AbstractSparseMatrix.resize(ui, length);
+                ux = AbstractSparseMatrix.resize(ux, length);
+            }
+            final int col = q[k];
+            final int stamp = k + 1;
+            // Reach of the column in the graph of L.
+            int top = n;
+            for (int t = cp[col], end = cp[col + 1]; t < end; t++) {
+                if (mark[ci[t]] != stamp) {
+                    top = reach(ci[t], stamp, lp, li, pinv, mark, stack,
+                            resume, xi, top);
+                }
+            }
+            // Sparse triangular solve L · x = A[:, col]
+            for (int t = cp[col], end = cp[col + 1]; t < end; t++) {
+                x[ci[t]] = cx[t];
+            }
+            for (int h = top; h < n; h++) {
+                final int j = pinv[xi[h]];
+                if (j < 0)
+                    continue;
+                final double xj = x[xi[h]];
+                for (int t = lp[j] + 1, end = lp[j + 1]; t < end; t++) {
+                    x[li[t]] -= lx[t] * xj;
+                }
+            }
+            // Column of U and pivot selection.
+            int ipiv = -1;
+            double max = -1.0;
+            for (int h = top; h < n; h++) {
+                final int i = xi[h];
+                if (pinv[i] < 0) {
+                    double a = Math.abs(x[i]);
+                    if (a > max) {
+                        max = a;
+                        ipiv = i;
+                    }
+                } else {
+                    ui[unz] = pinv[i];
+                    ux[unz++] = x[i];
+                }
+            }
+            if (!(max > 0.0))
+                throw new ArithmeticException("Singular matrix (column "
+                        + col + ")");
+            if ((pinv[col] < 0) && (Math.abs(x[col]) >= TOLERANCE * max)) {
+                ipiv = col; // Diagonal of the ordered matrix.
+            }
+            final double pivot = x[ipiv];
+            diagonal[k] = pivot;
+            pinv[ipiv] = k;
+            rows[k] = ipiv;
+            li[lnz] = ipiv;
+            lx[lnz++] = 1.0;
+            for (int h = top; h < n; h++) {
+                final int i = xi[h];
+                if (pinv[i] < 0) {
+                    li[lnz] = i;
+                    lx[lnz++] = x[i] / pivot;
+                }
+                x[i] = 0.0;
+            }
+        }
+        lp[n] = lnz;
+        up[n] = unz;
+        for (int t = 0; t < lnz; t++) { // Rows of A to rows of the factors.
+            li[t] = pinv[li[t]];
+        }
+        // Sorts the rows of U (double transposition).
+        int[] tp = new int[n + 1];
+        int[] ti = new int[unz];
+        int[] first = SparseKernel.transpose(n, n, up, ui, tp, ti);
+        int[] sortedIndices = new int[unz];
+        int[] second = SparseKernel.transpose(n, n, tp, ti, new int[n + 1],
+                sortedIndices);
+        double[] sortedValues = new double[unz];
+        for (int t = 0; t < unz; t++) {
+            sortedValues[t] = ux[first[second[t]]];
+        }
+        return new SparseFloat64LU(symbolic, rows, lp,
+                AbstractSparseMatrix.resize(li, lnz),
+                AbstractSparseMatrix.resize(lx, lnz), up, sortedIndices,
+                sortedValues, diagonal);
+    }
+
+    /**
+     * Pushes onto <code>xi[..top]</code> the rows reachable from the
+     * specified row in the graph of <code>L</code> (non-recursive depth
+     * first search, rows in topological order) and returns the new top.
+     */
+    private static int reach(int root, int stamp, int[] lp, int[] li,
+            int[] pinv, int[] mark, int[] stack, int[] resume, int[] xi,
+            int top) {
+        int head = 0;
+        stack[0] = root;
+        while (head >= 0) {
+            final int i = stack[head];
+            final int j = pinv[i];
+            if (mark[i] != stamp) {
+                mark[i] = stamp;
+                resume[head] = (j < 0) ? 0 : lp[j] + 1;
+            }
+            final int end = (j < 0) ? 0 : lp[j + 1];
+            boolean done = true;
+            for (int t = resume[head]; t < end; t++) {
+                final int r = li[t];
+                if (mark[r] == stamp)
+                    continue;
+                resume[head] = t + 1;
+                stack[++head] = r;
+                done = false;
+                break;
+            }
+            if (done) {
+                head--;
+                xi[--top] = i;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Returns the symbolic analysis of this decomposition.
+     *
+     * @return the symbolic analysis.
+     */
+    public SparseSymbolic getSymbolic() {
+        return _symbolic;
+    }
+
+    /**
+     * Returns the dimension.
+     *
+     * @return the number of rows and columns.
+     */
+    public int getDimension() {
+        return _symbolic._n;
+    }
+
+    /**
+     * Returns the number of non-zero elements of the factors.
+     *
+     * @return <code>nnz(L) + nnz(U)</code> (diagonals included).
+     */
+    public int getFactorNonZeroCount() {
+        return _lPointers[_symbolic._n] + _uPointers[_symbolic._n]
+                + _symbolic._n;
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code> for
+     * the specified right-hand sides.
+     *
+     * @param p the number of right-hand sides (columns of <code>B</code>).
+     * @param b the row-major values of <code>B</code> (<code>n * p</code>).
+     * @return the row-major values of <code>X</code> (new array).
+     * @throws IllegalArgumentException if <code>b.length != n * p</code>
+     */
+    public double[] solve(int p, double[] b) {
+        final int n = _symbolic._n;
+        if (b.length != n * p)
+            throw new IllegalArgumentException(b.length + " values for a "
+                    + n + "x" + p + " matrix");
+        final int[] q = _symbolic._perm;
+        double[] y = new double[n * p];
+        for (int k = 0; k < n; k++) {
+            System.arraycopy(b, _rows[k] * p, y, k * p, p);
+        }
+        // Forward: L · Z = P · B
+        for (int j = 0; j < n; j++) {
+            for (int t = _lPointers[j] + 1, end = _lPointers[j + 1]; t < end; t++) {
+                SparseFloat64Cholesky.axpy(-_lValues[t], y, j * p, y,
+                        _lIndices[t] * p, p);
+            }
+        }
+        // Backward: U · W = Z
+        for (int k = n - 1; k >= 0; k--) {
+            SparseFloat64Cholesky.scale(1.0 / _diagonal[k], y, k * p, p);
+            for (int t = _uPointers[k], end = _uPointers[k + 1]; t < end; t++) {
+                SparseFloat64Cholesky.axpy(-_uValues[t], y, k * p, y,
+                        _uIndices[t] * p, p);
+            }
+        }
+        double[] x = new double[n * p];
+        for (int k = 0; k < n; k++) {
+            System.arraycopy(y, k * p, x, q[k] * p, p);
+        }
+        return x;
+    }
+
+    /**
+     * Returns the determinant of the decomposed matrix.
+     *
+     * @return <code>det(A)</code>
+     */
+    public double determinant() {
+        double product = 1.0;
+        for (int k = 0; k < _symbolic._n; k++) {
+            product *= _diagonal[k];
+        }
+        return (isOdd(_rows) != isOdd(_symbolic._perm)) ? -product : product;
+    }
+
+    /**
+     * Indicates if the specified permutation is odd.
+     */
+    private static boolean isOdd(int[] perm) {
+        boolean[] visited = new boolean[perm.length];
+        int transpositions = 0;
+        for (int i = 0; i < perm.length; i++) {
+            if (visited[i])
+                continue;
+            for (int j = i; !visited[j]; j = perm[j]) {
+                visited[j] = true;
+                transpositions++;
+            }
+            transpositions--; // A cycle of length l is l-1 transpositions.
+        }
+        return (transpositions & 1) != 0;
+    }
+}
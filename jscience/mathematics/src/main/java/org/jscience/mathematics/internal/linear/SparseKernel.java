@@ -0,0 +1,535 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.internal.vector.LocalSettings;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class holds the structural algorithms of the compressed sparse
+ *     row (CSR) and compressed sparse column (CSC) formats, and their
+ *     matrix-vector and matrix-matrix products.</p>
+ *
+ * <p> A compressed structure of <code>majors</code> slices (rows for CSR,
+ *     columns for CSC) is made of a <code>pointers</code> array of length
+ *     <code>majors + 1</code> and an <code>indices</code> array: the
+ *     non-zero elements of the slice <code>p</code> are at the positions
+ *     <code>[pointers[p], pointers[p + 1])</code> and their minor indices
+ *     (column for CSR, row for CSC) are sorted in increasing order.
+ *     The values are held separately by the callers (generic or
+ *     <code>double</code> arrays); the algorithms below return the
+ *     positions of the source values instead of moving them.</p>
+ *
+ * <p> The same structure read as CSR for a <code>m x n</code> matrix is
+ *     the CSC structure of its <code>n x m</code> transpose; hence the
+ *     conversion between CSR and CSC is a structural {@link #transpose
+ *     transposition} in <code>O(nnz + majors + minors)</code>.</p>
+ *
+ * <p> The product of two CSR matrices follows Gustavson's algorithm: the
+ *     row <code>i</code> of <code>C = A · B</code> is the linear combination
+ *     of the rows of <code>B</code> selected by the non-zero elements of the
+ *     row <code>i</code> of <code>A</code>, accumulated in a dense array
+ *     of <code>p</code> elements (sparse accumulator). A {@link
+ *     #multiplySymbolic symbolic} phase first calculates the exact size of
+ *     each row of <code>C</code>; the {@link #multiplyNumeric numeric}
+ *     phase then fills the rows in place. Both phases execute the rows
+ *     concurrently (chunks of rows having about the same number of
+ *     multiplications); the total cost is proportional to the number of
+ *     multiplications, independently of the dimensions.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SparseKernel {
+
+    /**
+     * Default constructor (private, utility class).
+     */
+    private SparseKernel() {
+    }
+
+    /**
+     * Transposes the specified compressed structure (counting sort).
+     * The minor indices of the result are sorted since the source slices
+     * are visited in increasing order.
+     *
+     * @param majors the number of slices of the source structure.
+     * @param minors the number of slices of the transposed structure.
+     * @param pointers the source pointers (<code>majors + 1</code>).
+     * @param indices the source minor indices.
+     * @param tPointers the transposed pointers (<code>minors + 1</code>,
+     *        zero filled, set by this method).
+     * @param tIndices the transposed indices (<code>nnz</code>, set by
+     *        this method).
+     * @return the source position of each transposed element.
+     */
+    public static int[] transpose(int majors, int minors, int[] pointers,
+            int[] indices, int[] tPointers, int[] tIndices) {
+        final int nnz = pointers[majors];
+        for (int k = 0; k < nnz; k++) {
+            tPointers[indices[k] + 1]++;
+        }
+        for (int q = 0; q < minors; q++) {
+            tPointers[q + 1] += tPointers[q];
+        }
+        int[] next = new int[minors];
+        System.arraycopy(tPointers, 0, next, 0, minors);
+        int[] positions = new int[nnz];
+        for (int p = 0; p < majors; p++) {
+            for (int k = pointers[p], end = pointers[p + 1]; k < end; k++) {
+                int t = next[indices[k]]++;
+                tIndices[t] = p;
+                positions[t] = k;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Compresses the specified coordinates (two stable counting sorts, by
+     * minor then by major index).
+     *
+     * @param majors the number of slices.
+     * @param minors the number of minor indices.
+     * @param nnz the number of coordinates.
+     * @param majorIndices the major index of each coordinate.
+     * @param minorIndices the minor index of each coordinate.
+     * @param pointers the pointers (<code>majors + 1</code>, zero filled,
+     *        set by this method).
+     * @param indices the minor indices (<code>nnz</code>, set by this
+     *        method).
+     * @return the coordinate of each compressed element.
+     * @throws IndexOutOfBoundsException if an index is out of range.
+     * @throws IllegalArgumentException if the same coordinates appear twice.
+     */
+    public static int[] compress(int majors, int minors, int nnz,
+            int[] majorIndices, int[] minorIndices, int[] pointers,
+            int[] indices) {
+        int[] count = new int[minors + 1];
+        for (int k = 0; k < nnz; k++) {
+            int q = minorIndices[k];
+            if ((q < 0) || (q >= minors))
+                throw new IndexOutOfBoundsException("index: " + q
+                        + ", size: " + minors);
+            count[q + 1]++;
+            int p = majorIndices[k];
+            if ((p < 0) || (p >= majors))
+                throw new IndexOutOfBoundsException("index: " + p
+                        + ", size: " + majors);
+            pointers[p + 1]++;
+        }
+        for (int q = 0; q < minors; q++) {
+            count[q + 1] += count[q];
+        }
+        int[] byMinor = new int[nnz];
+        for (int k = 0; k < nnz; k++) {
+            byMinor[count[minorIndices[k]]++] = k;
+        }
+        for (int p = 0; p < majors; p++) {
+            pointers[p + 1] += pointers[p];
+        }
+        int[] next = new int[majors];
+        System.arraycopy(pointers, 0, next, 0, majors);
+        int[] positions = new int[nnz];
+        for (int s = 0; s < nnz; s++) {
+            int k = byMinor[s];
+            int t = next[majorIndices[k]]++;
+            indices[t] = minorIndices[k];
+            positions[t] = k;
+        }
+        for (int p = 0; p < majors; p++) {
+            for (int k = pointers[p] + 1, end = pointers[p + 1]; k < end; k++) {
+                if (indices[k] == indices[k - 1])
+                    throw new IllegalArgumentException("Duplicate element ("
+                            + p + ", " + indices[k] + ")");
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Checks that the specified arrays form a valid compressed structure.
+     *
+     * @param majors the number of slices.
+     * @param minors the number of minor indices.
+     * @param pointers the pointers.
+     * @param indices the minor indices.
+     * @throws IllegalArgumentException if the structure is not valid.
+     */
+    public static void check(int majors, int minors, int[] pointers,
+            int[] indices) {
+        if ((pointers.length != majors + 1) || (pointers[0] != 0)
+                || (pointers[majors] > indices.length))
+            throw new IllegalArgumentException("Invalid pointers");
+        for (int p = 0; p < majors; p++) {
+            int start = pointers[p];
+            int end = pointers[p + 1];
+            if (start > end)
+                throw new IllegalArgumentException("Decreasing pointers at "
+                        + p);
+            for (int k = start; k < end; k++) {
+                int q = indices[k];
+                if ((q < 0) || (q >= minors) || ((k > start) && (q <= indices[k - 1])))
+                    throw new IllegalArgumentException("Invalid index " + q
+                            + " at position " + k);
+            }
+        }
+    }
+
+    /**
+     * Calculates <code>y = A · x</code> for the CSR matrix <code>A</code>
+     * of <code>double</code> values. Rows are executed concurrently by
+     * the {@link Scheduler}, the chunks of rows having about the same
+     * number of non-zero elements.
+     *
+     * @param m the number of rows.
+     * @param pointers the rows pointers.
+     * @param indices the column indices.
+     * @param values the non-zero values.
+     * @param x the multiplier values.
+     * @param xOffset the index of the first multiplier value.
+     * @param xStride the index increment between two multiplier values.
+     * @param y the result (<code>m</code> values set by this method).
+     * @param yOffset the index of the first result value.
+     */
+    public static void multiply(int m, final int[] pointers,
+            final int[] indices, final double[] values, final double[] x,
+            final int xOffset, final int xStride, final double[] y,
+            final int yOffset) {
+        Scheduler.execute(m, pointers, 2L * pointers[m], new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                if (xStride == 1) {
+                    for (int i = start; i < end; i++) {
+                        double sum = 0.0;
+                        for (int k = pointers[i], last = pointers[i + 1]; k < last; k++) {
+                            sum += values[k] * x[xOffset + indices[k]];
+                        }
+                        y[yOffset + i] = sum;
+                    }
+                } else {
+                    for (int i = start; i < end; i++) {
+                        double sum = 0.0;
+                        for (int k = pointers[i], last = pointers[i + 1]; k < last; k++) {
+                            sum += values[k] * x[xOffset + indices[k] * xStride];
+                        }
+                        y[yOffset + i] = sum;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Calculates <code>y = A · x</code> for the CSC matrix <code>A</code>
+     * of <code>double</code> values (sequential scatter of the columns).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param pointers the columns pointers.
+     * @param indices the row indices.
+     * @param values the non-zero values.
+     * @param x the multiplier values.
+     * @param xOffset the index of the first multiplier value.
+     * @param xStride the index increment between two multiplier values.
+     * @param y the result (<code>m</code> values set by this method).
+     * @param yOffset the index of the first result value.
+     */
+    public static void multiplyColumns(int m, int n, int[] pointers,
+            int[] indices, double[] values, double[] x, int xOffset,
+            int xStride, double[] y, int yOffset) {
+        for (int i = 0; i < m; i++) {
+            y[yOffset + i] = 0.0;
+        }
+        for (int j = 0; j < n; j++) {
+            double xj = x[xOffset + j * xStride];
+            if (xj == 0.0)
+                continue;
+            for (int k = pointers[j], end = pointers[j + 1]; k < end; k++) {
+                y[yOffset + indices[k]] += values[k] * xj;
+            }
+        }
+    }
+
+    /**
+     * Calculates the rows pointers of the product <code>C = A · B</code> of
+     * the CSR matrices <code>A</code> (<code>m x n</code>) and <code>B</code>
+     * (<code>n x p</code>), symbolic phase of Gustavson's algorithm.
+     *
+     * @param m the number of rows of <code>A</code>.
+     * @param p the number of columns of <code>B</code>.
+     * @param aPointers the rows pointers of <code>A</code>.
+     * @param aIndices the column indices of <code>A</code>.
+     * @param bPointers the rows pointers of <code>B</code>.
+     * @param bIndices the column indices of <code>B</code>.
+     * @param cPointers the rows pointers of <code>C</code> (<code>m + 1</code>,
+     *        set by this method).
+     * @return the number of elements of <code>C</code> (upper bound of
+     *         its number of non-zero elements).
+     */
+    public static int multiplySymbolic(int m, final int p,
+            final int[] aPointers, final int[] aIndices,
+            final int[] bPointers, final int[] bIndices, final int[] cPointers) {
+        int[] weights = products(m, aPointers, aIndices, bPointers);
+        Scheduler.execute(m, weights, weights[m], new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                int[] marker = new int[p];
+                Arrays.fill(marker, -1);
+                for (int i = start; i < end; i++) {
+                    int count = 0;
+                    for (int k = aPointers[i], kEnd = aPointers[i + 1]; k < kEnd; k++) {
+                        int r = aIndices[k];
+                        for (int h = bPointers[r], hEnd = bPointers[r + 1]; h < hEnd; h++) {
+                            int j = bIndices[h];
+                            if (marker[j] != i) {
+                                marker[j] = i;
+                                count++;
+                            }
+                        }
+                    }
+                    cPointers[i + 1] = count;
+                }
+            }
+        });
+        cPointers[0] = 0;
+        for (int i = 0; i < m; i++) {
+            cPointers[i + 1] += cPointers[i];
+        }
+        return cPointers[m];
+    }
+
+    /**
+     * Calculates the product <code>C = A · B</code> of the CSR matrices of
+     * <code>double</code> values, numeric phase of Gustavson's algorithm
+     * (see {@link #multiplySymbolic}). The elements of <code>C</code> include
+     * the zeros resulting from cancellation (see {@link #compact(int, int[],
+     * int[], double[])}).
+     *
+     * @param m the number of rows of <code>A</code>.
+     * @param p the number of columns of <code>B</code>.
+     * @param aPointers the rows pointers of <code>A</code>.
+     * @param aIndices the column indices of <code>A</code>.
+     * @param aValues the values of <code>A</code>.
+     * @param bPointers the rows pointers of <code>B</code>.
+     * @param bIndices the column indices of <code>B</code>.
+     * @param bValues the values of <code>B</code>.
+     * @param cPointers the rows pointers of <code>C</code>.
+     * @param cIndices the column indices of <code>C</code> (set by this
+     *        method).
+     * @param cValues the values of <code>C</code> (set by this method).
+     */
+    public static void multiplyNumeric(int m, final int p,
+            final int[] aPointers, final int[] aIndices,
+            final double[] aValues, final int[] bPointers,
+            final int[] bIndices, final double[] bValues,
+            final int[] cPointers, final int[] cIndices, final double[] cValues) {
+        int[] weights = products(m, aPointers, aIndices, bPointers);
+        Scheduler.execute(m, weights, 2L * weights[m], new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                double[] accumulator = new double[p];
+                int[] marker = new int[p];
+                Arrays.fill(marker, -1);
+                for (int i = start; i < end; i++) {
+                    int nnz = cPointers[i];
+                    for (int k = aPointers[i], kEnd = aPointers[i + 1]; k < kEnd; k++) {
+                        int r = aIndices[k];
+                        double a = aValues[k];
+                        for (int h = bPointers[r], hEnd = bPointers[r + 1]; h < hEnd; h++) {
+                            int j = bIndices[h];
+                            if (marker[j] != i) {
+                                marker[j] = i;
+                                cIndices[nnz++] = j;
+                                accumulator[j] = a * bValues[h];
+                            } else {
+                                accumulator[j] += a * bValues[h];
+                            }
+                        }
+                    }
+                    Arrays.sort(cIndices, cPointers[i], nnz);
+                    for (int t = cPointers[i]; t < nnz; t++) {
+                        cValues[t] = accumulator[cIndices[t]];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Calculates the product <code>C = A · B</code> of the CSR matrices of
+     * field elements, numeric phase of Gustavson's algorithm (see {@link
+     * #multiplySymbolic}). The elements of <code>C</code> include the zeros
+     * resulting from cancellation (see {@link #compact(int, int[], int[],
+     * Object[], Object)}). The current {@link LocalSettings} apply to the
+     * concurrent threads.
+     *
+     * @param m the number of rows of <code>A</code>.
+     * @param p the number of columns of <code>B</code>.
+     * @param aPointers the rows pointers of <code>A</code>.
+     * @param aIndices the column indices of <code>A</code>.
+     * @param aElements the elements of <code>A</code>.
+     * @param bPointers the rows pointers of <code>B</code>.
+     * @param bIndices the column indices of <code>B</code>.
+     * @param bElements the elements of <code>B</code>.
+     * @param cPointers the rows pointers of <code>C</code>.
+     * @param cIndices the column indices of <code>C</code> (set by this
+     *        method).
+     * @param cElements the elements of <code>C</code> (set by this method).
+     */
+    public static <F extends Field<F>> void multiplyNumeric(int m,
+            final int p, final int[] aPointers, final int[] aIndices,
+            final Object[] aElements, final int[] bPointers,
+            final int[] bIndices, final Object[] bElements,
+            final int[] cPointers, final int[] cIndices,
+            final Object[] cElements) {
+        int[] weights = products(m, aPointers, aIndices, bPointers);
+        final LocalSettings settings = LocalSettings.current();
+        Scheduler.execute(m, weights, 2L * weights[m]
+                * Scheduler.FIELD_OPERATION_COST, new Scheduler.Task() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run(int start, int end) {
+                boolean entered = settings.enter();
+                try {
+                    Object[] accumulator = new Object[p];
+                    for (int i = start; i < end; i++) {
+                        int nnz = cPointers[i];
+                        for (int k = aPointers[i], kEnd = aPointers[i + 1]; k < kEnd; k++) {
+                            int r = aIndices[k];
+                            F a = (F) aElements[k];
+                            for (int h = bPointers[r], hEnd = bPointers[r + 1]; h < hEnd; h++) {
+                                int j = bIndices[h];
+                                F e = a.times((F) bElements[h]);
+                                if (accumulator[j] == null) {
+                                    cIndices[nnz++] = j;
+                                    accumulator[j] = e;
+                                } else {
+                                    accumulator[j] = ((F) accumulator[j]).plus(e);
+                                }
+                            }
+                        }
+                        Arrays.sort(cIndices, cPointers[i], nnz);
+                        for (int t = cPointers[i]; t < nnz; t++) {
+                            cElements[t] = accumulator[cIndices[t]];
+                            accumulator[cIndices[t]] = null; // Reset.
+                        }
+                    }
+                } finally {
+                    settings.exit(entered);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the zero values of the specified CSR structure (in place).
+     *
+     * @param m the number of rows.
+     * @param pointers the rows pointers (updated).
+     * @param indices the column indices (updated).
+     * @param values the values (updated).
+     * @return the number of non-zero values.
+     */
+    public static int compact(int m, int[] pointers, int[] indices,
+            double[] values) {
+        int nnz = 0;
+        for (int i = 0, k = 0; i < m; i++) {
+            for (int end = pointers[i + 1]; k < end; k++) {
+                if (values[k] != 0.0) {
+                    indices[nnz] = indices[k];
+                    values[nnz++] = values[k];
+                }
+            }
+            pointers[i + 1] = nnz;
+        }
+        return nnz;
+    }
+
+    /**
+     * Removes the elements equal to the specified zero from the specified
+     * CSR structure (in place).
+     *
+     * @param m the number of rows.
+     * @param pointers the rows pointers (updated).
+     * @param indices the column indices (updated).
+     * @param elements the elements (updated).
+     * @param zero the zero element.
+     * @return the number of non-zero elements.
+     */
+    public static int compact(int m, int[] pointers, int[] indices,
+            Object[] elements, Object zero) {
+        int nnz = 0;
+        for (int i = 0, k = 0; i < m; i++) {
+            for (int end = pointers[i + 1]; k < end; k++) {
+                if (!zero.equals(elements[k])) {
+                    indices[nnz] = indices[k];
+                    elements[nnz++] = elements[k];
+                }
+            }
+            pointers[i + 1] = nnz;
+        }
+        return nnz;
+    }
+
+    /**
+     * Returns the cumulative number of multiplications of the rows of
+     * <code>A · B</code> or the rows pointers of <code>A</code> if this
+     * number exceeds the <code>int</code> range.
+     */
+    private static int[] products(int m, int[] aPointers, int[] aIndices,
+            int[] bPointers) {
+        int[] weights = new int[m + 1];
+        long total = 0;
+        for (int i = 0; i < m; i++) {
+            for (int k = aPointers[i], end = aPointers[i + 1]; k < end; k++) {
+                int r = aIndices[k];
+                total += bPointers[r + 1] - bPointers[r];
+            }
+            if (total > Integer.MAX_VALUE)
+                return aPointers;
+            weights[i + 1] = (int) total;
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the position of the specified minor index in the sorted
+     * range <code>[from, to)</code> of the indices (binary search).
+     *
+     * @param indices the sorted minor indices.
+     * @param from the first position (inclusive).
+     * @param to the last position (exclusive).
+     * @param key the minor index searched for.
+     * @return the position of <code>key</code> or <code>-1</code> if not
+     *         found.
+     */
+    public static int search(int[] indices, int from, int to, int key) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int q = indices[mid];
+            if (q < key) {
+                low = mid + 1;
+            } else if (q > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import javolution.util.function.Predicate;
+
+import org.jscience.mathematics.internal.vector.LocalSettings;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.SparseVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class represents a compressed sparse matrix (CSR or CSC) of
+ *     generic elements, the non-zero elements being held in an array
+ *     parallel to the minor indices.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SparseMatrixImpl<F extends Field<F>> extends
+        AbstractSparseMatrix<F> {
+
+    /**
+     * Holds the non-zero elements (never modified).
+     */
+    final Object[] _elements;
+
+    /**
+     * Creates a sparse matrix having the specified structure and elements.
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param columnMajor <code>true</code> for CSC; <code>false</code> for
+     *        CSR.
+     * @param pointers the slices pointers (shared).
+     * @param indices the minor indices (shared).
+     * @param elements the non-zero elements (shared).
+     * @param zero the zero element.
+     */
+    SparseMatrixImpl(int m, int n, boolean columnMajor, int[] pointers,
+            int[] indices, Object[] elements, F zero) {
+        super(m, n, columnMajor, pointers, indices, zero);
+        _elements = elements;
+    }
+
+    /**
+     * Returns the CSR matrix having the specified structure and elements
+     * (arrays are copied).
+     *
+     * @param m the number of rows.
+     * @param n the number of columns.
+     * @param zero the zero element.
+     * @param rowPointers the rows pointers (<code>m + 1</code>).
+     * @param columnIndices the column indices (sorted for each row).
+     * @param elements the non-zero elements.
+     * @return the corresponding matrix.
+     * @throws IllegalArgumentException if the structure is not valid.
+     */
+    public static <F extends Field<F>> SparseMatrixImpl<F> valueOf(int m,
+            int n, F zero, int[] rowPointers, int[] columnIndices,
+            F... elements) {
+        SparseKernel.check(m, n, rowPointers, columnIndices);
+        final int nnz = rowPointers[m];
+        if (elements.length < nnz)
+            throw new IllegalArgumentException(elements.length
+                    + " elements for " + nnz + " indices");
+        return new SparseMatrixImpl<F>(m, n, false, rowPointers.clone(),
+                resize(columnIndices.clone(), nnz), resize(
+                        elements.clone(), nnz), zero);
+    }
+
+    /**
+     * Returns the CSR matrix having the specified rows.
+     *
+     * @param zero the zero element.
+     * @param rows the rows.
+     * @return the corresponding matrix.
+     * @throws DimensionException if the rows do not have the same dimension.
+     */
+    public static <F extends Field<F>> SparseMatrixImpl<F> valueOf(F zero,
+            Vector<F>... rows) {
+        final int m = rows.length;
+        final int n = (m == 0) ? 0 : rows[0].getDimension();
+        SparseVectorImpl<F>[] vectors = newArray(m);
+        int[] pointers = new int[m + 1];
+        for (int i = 0; i < m; i++) {
+            vectors[i] = SparseVectorImpl.valueOf(rows[i], zero);
+            AbstractVector.checkDimension(n, vectors[i]._dimension);
+            pointers[i + 1] = pointers[i] + vectors[i]._indices.length;
+        }
+        int[] indices = new int[pointers[m]];
+        Object[] elements = new Object[pointers[m]];
+        for (int i = 0; i < m; i++) {
+            int nnz = pointers[i + 1] - pointers[i];
+            System.arraycopy(vectors[i]._indices, 0, indices, pointers[i], nnz);
+            System.arraycopy(vectors[i]._elements, 0, elements, pointers[i], nnz);
+        }
+        return new SparseMatrixImpl<F>(m, n, false, pointers, indices,
+                elements, zero);
+    }
+
+    /**
+     * Returns a sparse matrix equivalent to the specified matrix.
+     *
+     * @param that the matrix to convert.
+     * @param zero the zero element.
+     * @return <code>that</code> or a CSR matrix holding the elements of
+     *         <code>that</code> different from <code>zero</code>.
+     */
+    public static <F extends Field<F>> SparseMatrixImpl<F> valueOf(
+            Matrix<F> that, F zero) {
+        if (that instanceof SparseMatrixImpl)
+            return (SparseMatrixImpl<F>) that;
+        return valueOf(that, zero, null);
+    }
+
+    /**
+     * Returns the CSR matrix equivalent to the specified matrix, the zero
+     * elements being identified using the specified predicate.
+     *
+     * @param that the matrix to convert.
+     * @param zero the zero element.
+     * @param isZero the zero predicate or <code>null</code> to test for
+     *        equality with <code>zero</code>.
+     * @return a CSR matrix holding the non-zero elements of <code>that</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public static <F extends Field<F>> SparseMatrixImpl<F> valueOf(
+            Matrix<F> that, F zero, Predicate<F> isZero) {
+        final int m = that.getRowDimension();
+        final int n = that.getColumnDimension();
+        int[] pointers = new int[m + 1];
+        int[] indices = new int[16];
+        Object[] elements = new Object[16];
+        int nnz = 0;
+        AbstractSparseMatrix<F> csr = (that instanceof AbstractSparseMatrix) ? ((AbstractSparseMatrix<F>) that)
+                .toRowMajor() : null;
+        for (int i = 0; i < m; i++) {
+            int start = (csr != null) ? csr._pointers[i] : 0;
+            int end = (csr != null) ? csr._pointers[i + 1] : n;
+            for (int k = start; k < end; k++) {
+                int j = (csr != null) ? csr._indices[k] : k;
+                F e = (csr != null) ? csr.value(k) : that.get(i, j);
+                if ((isZero == null) ? zero.equals(e) : isZero.test(e))
+                    continue;
+                if (nnz == indices.length) {
+                    indices = resize(indices, 2 * nnz);
+                    elements = resize(elements, 2 * nnz);
+                }
+                indices[nnz] = j;
+                elements[nnz++] = e;
+            }
+            pointers[i + 1] = nnz;
+        }
+        return new SparseMatrixImpl<F>(m, n, false, pointers, resize(indices,
+                nnz), resize(elements, nnz), zero);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    F value(int k) {
+        return (F) _elements[k];
+    }
+
+    @Override
+    SparseMatrixImpl<F> gather(int m, int n, boolean columnMajor,
+            int[] pointers, int[] indices, int[] positions) {
+        Object[] elements = new Object[positions.length];
+        for (int k = 0; k < positions.length; k++) {
+            elements[k] = _elements[positions[k]];
+        }
+        return new SparseMatrixImpl<F>(m, n, columnMajor, pointers, indices,
+                elements, _zero);
+    }
+
+    @Override
+    SparseMatrixImpl<F> toSparse(Matrix<F> that) {
+        return SparseMatrixImpl.valueOf(that, _zero);
+    }
+
+    @Override
+    public SparseMatrixImpl<F> toRowMajor() {
+        return (SparseMatrixImpl<F>) super.toRowMajor();
+    }
+
+    @Override
+    public SparseMatrixImpl<F> toColumnMajor() {
+        return (SparseMatrixImpl<F>) super.toColumnMajor();
+    }
+
+    @Override
+    public SparseMatrix<F> opposite() {
+        final int nnz = getNonZeroCount();
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = value(k).opposite();
+        }
+        return new SparseMatrixImpl<F>(_m, _n, _columnMajor, _pointers,
+                _indices, elements, _zero);
+    }
+
+    @Override
+    public SparseMatrix<F> plus(Matrix<F> that) {
+        if ((that.getRowDimension() != _m) || (that.getColumnDimension() != _n))
+            throw new DimensionException();
+        SparseMatrixImpl<F> a = this.toRowMajor();
+        SparseMatrixImpl<F> b = SparseMatrixImpl.valueOf(that, _zero)
+                .toRowMajor();
+        final int capacity = a.getNonZeroCount() + b.getNonZeroCount();
+        int[] pointers = new int[_m + 1];
+        int[] indices = new int[capacity];
+        Object[] elements = new Object[capacity];
+        int nnz = 0;
+        for (int i = 0; i < _m; i++) {
+            int k = a._pointers[i];
+            int l = b._pointers[i];
+            final int kEnd = a._pointers[i + 1];
+            final int lEnd = b._pointers[i + 1];
+            while ((k < kEnd) || (l < lEnd)) {
+                int jA = (k < kEnd) ? a._indices[k] : Integer.MAX_VALUE;
+                int jB = (l < lEnd) ? b._indices[l] : Integer.MAX_VALUE;
+                F e;
+                if (jA < jB) {
+                    e = a.value(k++);
+                } else if (jB < jA) {
+                    e = b.value(l++);
+                } else {
+                    e = a.value(k++).plus(b.value(l++));
+                    if (_zero.equals(e))
+                        continue;
+                }
+                indices[nnz] = Math.min(jA, jB);
+                elements[nnz++] = e;
+            }
+            pointers[i + 1] = nnz;
+        }
+        return new SparseMatrixImpl<F>(_m, _n, false, pointers, resize(
+                indices, nnz), resize(elements, nnz), _zero);
+    }
+
+    @Override
+    public SparseMatrix<F> times(F k) {
+        final int nnz = getNonZeroCount();
+        Object[] elements = new Object[nnz];
+        for (int i = 0; i < nnz; i++) {
+            elements[i] = value(i).times(k);
+        }
+        return new SparseMatrixImpl<F>(_m, _n, _columnMajor, _pointers,
+                _indices, elements, _zero);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SparseVector<F> times(Vector<F> v) {
+        Object[] y = new Field<?>[_m];
+        times(v, (F[]) y);
+        int[] indices = new int[_m];
+        for (int i = 0; i < _m; i++) {
+            indices[i] = i;
+        }
+        return SparseVectorImpl.compact(_m, _zero, indices, y, _m);
+    }
+
+    @Override
+    public void times(final Vector<F> v, final F[] result) {
+        AbstractVector.checkDimension(_n, v.getDimension());
+        if (result.length < _m)
+            throw new DimensionException(result.length + " instead of " + _m);
+        if (_columnMajor) { // Scatters the columns (sequential).
+            for (int i = 0; i < _m; i++) {
+                result[i] = null;
+            }
+            for (int j = 0; j < _n; j++) {
+                F xj = v.get(j);
+                if (_zero.equals(xj))
+                    continue;
+                for (int k = _pointers[j], end = _pointers[j + 1]; k < end; k++) {
+                    int i = _indices[k];
+                    F e = value(k).times(xj);
+                    result[i] = (result[i] == null) ? e : result[i].plus(e);
+                }
+            }
+            for (int i = 0; i < _m; i++) {
+                if (result[i] == null) {
+                    result[i] = _zero;
+                }
+            }
+            return;
+        }
+        // Dot product of the rows, chunks balanced by number of elements.
+        final LocalSettings settings = LocalSettings.current();
+        Scheduler.execute(_m, _pointers, 2L * _pointers[_m]
+                * Scheduler.FIELD_OPERATION_COST, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                boolean entered = settings.enter();
+                try {
+                    for (int i = start; i < end; i++) {
+                        F sum = null;
+                        for (int k = _pointers[i], last = _pointers[i + 1]; k < last; k++) {
+                            F e = value(k).times(v.get(_indices[k]));
+                            sum = (sum == null) ? e : sum.plus(e);
+                        }
+                        result[i] = (sum == null) ? _zero : sum;
+                    }
+                } finally {
+                    settings.exit(entered);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the product of this matrix with the specified matrix
+     * (Gustavson's algorithm, see {@link SparseKernel}).
+     */
+    @Override
+    public SparseMatrix<F> times(Matrix<F> that) {
+        if (that.getRowDimension() != _n)
+            throw new DimensionException(
+                    "Number of columns of this matrix different from the "
+                            + "number of rows of the matrix multiplier");
+        SparseMatrixImpl<F> a = this.toRowMajor();
+        SparseMatrixImpl<F> b = SparseMatrixImpl.valueOf(that, _zero)
+                .toRowMajor();
+        final int p = b._n;
+        int[] pointers = new int[_m + 1];
+        int nnz = SparseKernel.multiplySymbolic(_m, p, a._pointers,
+                a._indices, b._pointers, b._indices, pointers);
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        SparseKernel.multiplyNumeric(_m, p, a._pointers, a._indices,
+                a._elements, b._pointers, b._indices, b._elements, pointers,
+                indices, elements);
+        nnz = SparseKernel.compact(_m, pointers, indices, elements, _zero);
+        return new SparseMatrixImpl<F>(_m, p, false, pointers, resize(indices,
+                nnz), resize(elements, nnz), _zero);
+    }
+
+    @Override
+    public SparseMatrixImpl<F> transpose() {
+        return new SparseMatrixImpl<F>(_n, _m, !_columnMajor, _pointers,
+                _indices, _elements, _zero);
+    }
+
+    @Override
+    public SparseMatrix<F> tensor(Matrix<F> that) {
+        // If this is a m-by-n matrix and that is a p-by-q matrix,
+        // then the Kronecker product is the mp-by-nq block.
+        SparseMatrixImpl<F> a = this.toRowMajor();
+        SparseMatrixImpl<F> b = SparseMatrixImpl.valueOf(that, _zero)
+                .toRowMajor();
+        final int p = b._m;
+        final int q = b._n;
+        final int nnz = a.getNonZeroCount() * b.getNonZeroCount();
+        int[] pointers = new int[_m * p + 1];
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        int count = 0;
+        for (int i0 = 0; i0 < _m; i0++) {
+            for (int i1 = 0; i1 < p; i1++) {
+                for (int k = a._pointers[i0]; k < a._pointers[i0 + 1]; k++) {
+                    F e = a.value(k);
+                    int offset = a._indices[k] * q;
+                    for (int l = b._pointers[i1]; l < b._pointers[i1 + 1]; l++) {
+                        indices[count] = offset + b._indices[l];
+                        elements[count++] = e.times(b.value(l));
+                    }
+                }
+                pointers[i0 * p + i1 + 1] = count;
+            }
+        }
+        return new SparseMatrixImpl<F>(_m * p, _n * q, false, pointers,
+                indices, elements, _zero);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SparseMatrixImpl<F> copy() {
+        final int nnz = getNonZeroCount();
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = (F) value(k).copy();
+        }
+        return new SparseMatrixImpl<F>(_m, _n, _columnMajor,
+                _pointers.clone(), _indices.clone(), elements, (F) _zero
+                        .copy());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <F extends Field<F>> SparseVectorImpl<F>[] newArray(
+            int length) {
+        return new SparseVectorImpl[length];
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.DimensionException;
+
+/**
+ * <p> This class holds the fill-reducing orderings of the rows and columns
+ *     of square sparse matrices. The orderings are calculated upon the
+ *     graph of <code>A + A<sup>T</sup></code> (diagonal excluded) from the
+ *     compressed structure of <code>A</code> (CSR or CSC, the
+ *     symmetrized graph being the same).</p>
+ *
+ * <p> The permutations returned hold the original index of each new
+ *     index (<code>perm[k]</code> is the row and column of <code>A</code>
+ *     moved to <code>k</code>).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://dx.doi.org/10.1137/S0895479894278952">Amestoy,
+ *      Davis and Duff, An Approximate Minimum Degree Ordering
+ *      Algorithm</a>
+ */
+public final class SparseOrdering {
+
+    /**
+     * Holds the state of the uneliminated nodes (variables).
+     */
+    private static final byte VARIABLE = 0;
+
+    /**
+     * Holds the state of the eliminated nodes (elements).
+     */
+    private static final byte ELEMENT = 1;
+
+    /**
+     * Holds the state of the elements absorbed by another element.
+     */
+    private static final byte ABSORBED = 2;
+
+    /**
+     * Holds the state of the dense nodes (ordered last).
+     */
+    private static final byte DENSE = 3;
+
+    /**
+     * Returns the identity permutation.
+     *
+     * @param n the dimension.
+     * @return <code>{0, 1, ..., n-1}</code>
+     */
+    public static int[] natural(int n) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        return perm;
+    }
+
+    /**
+     * Returns the approximate minimum degree ordering of the specified
+     * square matrix.
+     *
+     * @param A the square sparse matrix.
+     * @return <code>approximateMinimumDegree(n, pointers, indices)</code>
+     * @throws DimensionException if <code>A</code> is not square.
+     */
+    public static int[] approximateMinimumDegree(AbstractSparseMatrix<?> A) {
+        checkSquare(A);
+        return approximateMinimumDegree(A._m, A._pointers, A._indices);
+    }
+
+    /**
+     * Returns the reverse Cuthill-McKee ordering of the specified square
+     * matrix.
+     *
+     * @param A the square sparse matrix.
+     * @return <code>reverseCuthillMcKee(n, pointers, indices)</code>
+     * @throws DimensionException if <code>A</code> is not square.
+     */
+    public static int[] reverseCuthillMcKee(AbstractSparseMatrix<?> A) {
+        checkSquare(A);
+        return reverseCuthillMcKee(A._m, A._pointers, A._indices);
+    }
+
+    /**
+     * Returns the approximate minimum degree ordering of the specified
+     * structure. The elimination is simulated upon the quotient graph
+     * (eliminated nodes become elements absorbing their adjacent elements);
+     * the external degree of the nodes adjacent to each pivot is bounded by
+     * <code>|A<sub>i</sub>| + |L<sub>p</sub> \ i| + Σ |L<sub>e</sub> \
+     * L<sub>p</sub>|</code> instead of being calculated exactly. Nodes of
+     * degree greater than <code>max(16, 10·√n)</code> are ordered last.
+     *
+     * @param n the dimension.
+     * @param pointers the slices pointers (<code>n + 1</code>).
+     * @param indices the minor indices.
+     * @return the fill-reducing permutation.
+     */
+    public static int[] approximateMinimumDegree(int n, int[] pointers,
+            int[] indices) {
+        int[] sp = new int[n + 1];
+        int[] si = symmetric(n, pointers, indices, sp);
+        int[][] vars = new int[n][]; // Adjacent variables.
+        int[] varCount = new int[n];
+        int[][] elems = new int[n][]; // Adjacent elements.
+        int[] elemCount = new int[n];
+        int[][] lists = new int[n][]; // Variables of each element.
+        int[] listCount = new int[n];
+        byte[] state = new byte[n];
+        int[] degree = new int[n];
+        int[] head = new int[n + 1]; // Degree buckets.
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(head, -1);
+        final int dense = Math.max(16, (int) (10 * Math.sqrt(n)));
+        int denseCount = 0;
+        for (int i = 0; i < n; i++) {
+            int d = sp[i + 1] - sp[i];
+            vars[i] = new int[d];
+            System.arraycopy(si, sp[i], vars[i], 0, d);
+            varCount[i] = d;
+            elems[i] = new int[4];
+            if ((d > dense) && (n > dense)) {
+                state[i] = DENSE;
+                denseCount++;
+                continue;
+            }
+            degree[i] = d;
+            insert(i, d, head, next, prev);
+        }
+        int[] perm = new int[n];
+        int[] flag = new int[n]; // Stamp of the nodes of the pivot element.
+        int[] wflag = new int[n]; // Stamp of the weights calculated.
+        int[] w = new int[n]; // |Le \ Lp|
+        int[] lp = new int[n];
+        int minDegree = 0;
+        for (int k = 0, stamp = 1; k < n - denseCount; k++, stamp++) {
+            while (head[minDegree] < 0) {
+                minDegree++;
+            }
+            final int p = head[minDegree];
+            remove(p, degree[p], head, next, prev);
+            perm[k] = p;
+            state[p] = ELEMENT;
+            // Calculates Lp (variables adjacent to p or to its elements).
+            flag[p] = stamp;
+            int size = 0;
+            for (int t = 0; t < varCount[p]; t++) {
+                int j = vars[p][t];
+                if ((state[j] == VARIABLE) && (flag[j] != stamp)) {
+                    flag[j] = stamp;
+                    lp[size++] = j;
+                }
+            }
+            for (int t = 0; t < elemCount[p]; t++) {
+                int e = elems[p][t];
+                if (state[e] != ELEMENT)
+                    continue;
+                for (int s = 0; s < listCount[e]; s++) {
+                    int j = lists[e][s];
+                    if ((state[j] == VARIABLE) && (flag[j] != stamp)) {
+                        flag[j] = stamp;
+                        lp[size++] = j;
+                    }
+                }
+                state[e] = ABSORBED;
+                lists[e] = null;
+            }
+            lists[p] = AbstractSparseMatrix.resize(lp, size);
+            listCount[p] = size;
+            vars[p] = null;
+            elems[p] = null;
+            // Calculates |Le \ Lp| for the elements adjacent to Lp.
+            for (int t = 0; t < size; t++) {
+                int i = lp[t];
+                remove(i, degree[i], head, next, prev);
+                for (int s = 0; s < elemCount[i]; s++) {
+                    int e = elems[i][s];
+                    if (state[e] != ELEMENT)
+                        continue;
+                    if (wflag[e] != stamp) { // Prunes Le to its variables.
+                        wflag[e] = stamp;
+                        int count = 0;
+                        for (int r = 0; r < listCount[e]; r++) {
+                            int j = lists[e][r];
+                            if (state[j] == VARIABLE) {
+                                lists[e][count++] = j;
+                            }
+                        }
+                        listCount[e] = count;
+                        w[e] = count;
+                    }
+                    w[e]--;
+                }
+            }
+            // Updates the adjacency and the degree of the nodes in Lp.
+            final int remaining = n - denseCount - k - 1;
+            for (int t = 0; t < size; t++) {
+                int i = lp[t];
+                int external = 0;
+                int count = 0;
+                for (int s = 0; s < elemCount[i]; s++) {
+                    int e = elems[i][s];
+                    if (state[e] != ELEMENT)
+                        continue;
+                    if (w[e] == 0) { // Le ⊆ Lp (aggressive absorption).
+                        state[e] = ABSORBED;
+                        lists[e] = null;
+                        continue;
+                    }
+                    external += w[e];
+                    elems[i][count++] = e;
+                }
+                if (count == elems[i].length) {
+                    elems[i] = AbstractSparseMatrix.resize(elems[i], 2 * count);
+                }
+                elems[i][count++] = p;
+                elemCount[i] = count;
+                count = 0;
+                for (int s = 0; s < varCount[i]; s++) {
+                    int j = vars[i][s];
+                    if ((state[j] == VARIABLE) && (flag[j] != stamp)) {
+                        vars[i][count++] = j;
+                    }
+                }
+                varCount[i] = count;
+                int d = Math.min(degree[i] + size - 1, count + size - 1
+                        + external);
+                d = Math.max(0, Math.min(d, remaining - 1));
+                degree[i] = d;
+                insert(i, d, head, next, prev);
+                if (d < minDegree) {
+                    minDegree = d;
+                }
+            }
+        }
+        for (int i = 0, k = n - denseCount; i < n; i++) {
+            if (state[i] == DENSE) {
+                perm[k++] = i;
+            }
+        }
+        return perm;
+    }
+
+    /**
+     * Returns the reverse Cuthill-McKee ordering of the specified structure
+     * (bandwidth and profile reduction). Each connected component is
+     * traversed breadth-first from a pseudo-peripheral node, the neighbors
+     * of each node being visited by increasing degree; the resulting order
+     * is reversed.
+     *
+     * @param n the dimension.
+     * @param pointers the slices pointers (<code>n + 1</code>).
+     * @param indices the minor indices.
+     * @return the bandwidth-reducing permutation.
+     */
+    public static int[] reverseCuthillMcKee(int n, int[] pointers,
+            int[] indices) {
+        int[] sp = new int[n + 1];
+        int[] si = symmetric(n, pointers, indices, sp);
+        int[] perm = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] level = new int[n];
+        int[] queue = new int[n];
+        long[] keys = new long[n];
+        Arrays.fill(level, -1);
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) (sp[i + 1] - sp[i]) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] byDegree = new int[n];
+        for (int i = 0; i < n; i++) {
+            byDegree[i] = (int) keys[i];
+        }
+        int count = 0;
+        for (int next = 0; count < n; next++) {
+            int root = byDegree[next]; // Unvisited node of minimum degree.
+            if (visited[root])
+                continue;
+            // Pseudo-peripheral node (George and Liu).
+            int size = levels(root, sp, si, visited, level, queue);
+            int eccentricity = level[queue[size - 1]];
+            while (true) {
+                int candidate = -1;
+                for (int t = size - 1; (t >= 0)
+                        && (level[queue[t]] == eccentricity); t--) {
+                    int i = queue[t];
+                    if ((candidate < 0)
+                            || (sp[i + 1] - sp[i] < sp[candidate + 1]
+                                    - sp[candidate])) {
+                        candidate = i;
+                    }
+                }
+                clear(queue, size, level);
+                levels(candidate, sp, si, visited, level, queue);
+                int depth = level[queue[size - 1]];
+                if (depth <= eccentricity)
+                    break;
+                root = candidate;
+                eccentricity = depth;
+            }
+            clear(queue, size, level);
+            // Cuthill-McKee traversal.
+            int start = count;
+            perm[count++] = root;
+            visited[root] = true;
+            for (int h = start; h < count; h++) {
+                int v = perm[h];
+                int first = count;
+                for (int t = sp[v]; t < sp[v + 1]; t++) {
+                    int j = si[t];
+                    if (!visited[j]) {
+                        visited[j] = true;
+                        keys[count - first] = ((long) (sp[j + 1] - sp[j]) << 32)
+                                | j;
+                        count++;
+                    }
+                }
+                Arrays.sort(keys, 0, count - first);
+                for (int t = first; t < count; t++) {
+                    perm[t] = (int) keys[t - first];
+                }
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+        }
+        return perm;
+    }
+
+    /**
+     * Returns the inverse of the specified permutation.
+     *
+     * @param perm the permutation.
+     * @return <code>inverse</code> such as
+     *         <code>inverse[perm[k]] == k</code>
+     */
+    public static int[] inverse(int[] perm) {
+        int[] inverse = new int[perm.length];
+        for (int k = 0; k < perm.length; k++) {
+            inverse[perm[k]] = k;
+        }
+        return inverse;
+    }
+
+    /**
+     * Checks that the specified matrix is square.
+     */
+    private static void checkSquare(AbstractSparseMatrix<?> A) {
+        if (A._m != A._n)
+            throw new DimensionException("Square matrix expected");
+    }
+
+    /**
+     * Returns the structure of <code>A + A<sup>T</sup></code> without the
+     * diagonal.
+     *
+     * @param n the dimension.
+     * @param pointers the slices pointers of <code>A</code>.
+     * @param indices the minor indices of <code>A</code>.
+     * @param sp the slices pointers of the result (<code>n + 1</code>,
+     *        output).
+     * @return the minor indices of the result (unsorted).
+     */
+    static int[] symmetric(int n, int[] pointers, int[] indices, int[] sp) {
+        int[] tp = new int[n + 1];
+        int[] ti = new int[pointers[n]];
+        SparseKernel.transpose(n, n, pointers, indices, tp, ti);
+        int[] mark = new int[n];
+        Arrays.fill(mark, -1);
+        for (int pass = 0, nnz = 0; pass < 2; pass++) {
+            int[] si = (pass == 0) ? null : new int[nnz];
+            nnz = 0;
+            for (int i = 0; i < n; i++) {
+                mark[i] = i + pass * n; // Excludes the diagonal.
+                for (int t = pointers[i]; t < pointers[i + 1]; t++) {
+                    nnz = add(indices[t], i + pass * n, mark, si, nnz);
+                }
+                for (int t = tp[i]; t < tp[i + 1]; t++) {
+                    nnz = add(ti[t], i + pass * n, mark, si, nnz);
+                }
+                sp[i + 1] = nnz;
+            }
+            if (pass == 1)
+                return si;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Adds the specified index if not already marked.
+     */
+    private static int add(int j, int stamp, int[] mark, int[] si, int nnz) {
+        if (mark[j] == stamp)
+            return nnz;
+        mark[j] = stamp;
+        if (si != null) {
+            si[nnz] = j;
+        }
+        return nnz + 1;
+    }
+
+    /**
+     * Calculates the level structure rooted at the specified node (nodes in
+     * breadth-first order in <code>queue</code>, level of each node in
+     * <code>level</code>) and returns the number of nodes.
+     */
+    private static int levels(int root, int[] sp, int[] si,
+            boolean[] visited, int[] level, int[] queue) {
+        int size = 0;
+        queue[size++] = root;
+        level[root] = 0;
+        for (int h = 0; h < size; h++) {
+            int v = queue[h];
+            for (int t = sp[v]; t < sp[v + 1]; t++) {
+                int j = si[t];
+                if (!visited[j] && (level[j] < 0)) {
+                    level[j] = level[v] + 1;
+                    queue[size++] = j;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Clears the levels of the specified nodes.
+     */
+    private static void clear(int[] queue, int size, int[] level) {
+        for (int t = 0; t < size; t++) {
+            level[queue[t]] = -1;
+        }
+    }
+
+    /**
+     * Inserts the specified node in the bucket of the specified degree.
+     */
+    private static void insert(int i, int d, int[] head, int[] next,
+            int[] prev) {
+        next[i] = head[d];
+        prev[i] = -1;
+        if (head[d] >= 0) {
+            prev[head[d]] = i;
+        }
+        head[d] = i;
+    }
+
+    /**
+     * Removes the specified node from the bucket of the specified degree.
+     */
+    private static void remove(int i, int d, int[] head, int[] next,
+            int[] prev) {
+        if (prev[i] >= 0) {
+            next[prev[i]] = next[i];
+        } else {
+            head[d] = next[i];
+        }
+        if (next[i] >= 0) {
+            prev[next[i]] = prev[i];
+        }
+    }
+
+    /**
+     * Default constructor (private, utility class).
+     */
+    private SparseOrdering() {
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.solver.Preconditioner;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> This class holds the preconditioners calculated upon the compressed
+ *     sparse rows of a square matrix of 64 bits floating points numbers
+ *     (see {@link org.jscience.mathematics.linear.solver.Preconditioners}).
+ *     The column indices being sorted, the strictly lower part of each row
+ *     precedes its diagonal element and the strictly upper part follows
+ *     it.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public abstract class SparsePreconditioner implements Preconditioner {
+
+    /**
+     * Holds the dimension.
+     */
+    final int _n;
+
+    /**
+     * Holds the rows pointers.
+     */
+    final int[] _pointers;
+
+    /**
+     * Holds the column indices.
+     */
+    final int[] _indices;
+
+    /**
+     * Holds the values.
+     */
+    final double[] _values;
+
+    /**
+     * Holds the position of the diagonal element of each row.
+     */
+    final int[] _diagonal;
+
+    /**
+     * Creates a preconditioner upon the specified CSR matrix.
+     *
+     * @param S the square CSR matrix.
+     * @param values the values (same structure as <code>S</code>).
+     * @throws ArithmeticException if a diagonal element is zero.
+     */
+    SparsePreconditioner(FloatSparseMatrixImpl S, double[] values) {
+        _n = S._m;
+        _pointers = S._pointers;
+        _indices = S._indices;
+        _values = values;
+        _diagonal = new int[_n];
+        for (int i = 0; i < _n; i++) {
+            int k = SparseKernel.search(_indices, _pointers[i],
+                    _pointers[i + 1], i);
+            if ((k < 0) || (values[k] == 0.0))
+                throw new ArithmeticException("Zero diagonal element at " + i);
+            _diagonal[i] = k;
+        }
+    }
+
+    /**
+     * Returns the Jacobi preconditioner of the specified matrix.
+     *
+     * @param A the square matrix.
+     * @return the diagonal preconditioner.
+     */
+    public static SparsePreconditioner jacobi(Matrix<Float64> A) {
+        FloatSparseMatrixImpl S = rows(A);
+        final double[] inverse = new double[S._m];
+        SparsePreconditioner M = new SparsePreconditioner(S, S._values) {
+
+            @Override
+            public void solve(double[] r, double[] z) {
+                for (int i = 0; i < _n; i++) {
+                    z[i] = r[i] * inverse[i];
+                }
+            }
+        };
+        for (int i = 0; i < S._m; i++) {
+            inverse[i] = 1.0 / S._values[M._diagonal[i]];
+        }
+        return M;
+    }
+
+    /**
+     * Returns the SSOR preconditioner of the specified matrix.
+     *
+     * @param A the square matrix.
+     * @param omega the relaxation factor.
+     * @return the SSOR preconditioner.
+     */
+    public static SparsePreconditioner ssor(Matrix<Float64> A,
+            final double omega) {
+        if (!((omega > 0) && (omega < 2)))
+            throw new IllegalArgumentException("omega: " + omega);
+        final double scale = (2 - omega) / (omega * omega);
+        FloatSparseMatrixImpl S = rows(A);
+        return new SparsePreconditioner(S, S._values) {
+
+            @Override
+            public void solve(double[] r, double[] z) {
+                // Forward: (D/ω + L) · y = r
+                for (int i = 0; i < _n; i++) {
+                    double sum = r[i];
+                    for (int k = _pointers[i], d = _diagonal[i]; k < d; k++) {
+                        sum -= _values[k] * z[_indices[k]];
+                    }
+                    z[i] = sum * omega / _values[_diagonal[i]];
+                }
+                // (2-ω)/ω · (D/ω) · y
+                for (int i = 0; i < _n; i++) {
+                    z[i] *= scale * _values[_diagonal[i]];
+                }
+                // Backward: (D/ω + U) · z = w
+                for (int i = _n - 1; i >= 0; i--) {
+                    double sum = z[i];
+                    for (int k = _diagonal[i] + 1, end = _pointers[i + 1]; k < end; k++) {
+                        sum -= _values[k] * z[_indices[k]];
+                    }
+                    z[i] = sum * omega / _values[_diagonal[i]];
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the ILU(0) preconditioner of the specified matrix, the
+     * factors overwriting a copy of the values (<code>L</code> below the
+     * diagonal, unit diagonal implicit; <code>U</code> on and above).
+     *
+     * @param A the square matrix.
+     * @return the ILU(0) preconditioner.
+     */
+    public static SparsePreconditioner incompleteLU(Matrix<Float64> A) {
+        FloatSparseMatrixImpl S = rows(A);
+        final int n = S._m;
+        final int[] pointers = S._pointers;
+        final int[] indices = S._indices;
+        final double[] values = S._values.clone();
+        int[] diagonal = new int[n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i] = SparseKernel.search(indices, pointers[i],
+                    pointers[i + 1], i);
+            if (diagonal[i] < 0)
+                throw new ArithmeticException("Zero diagonal element at " + i);
+        }
+        int[] marker = new int[n]; // Position of each column in the row i.
+        Arrays.fill(marker, -1);
+        for (int i = 0; i < n; i++) {
+            final int end = pointers[i + 1];
+            for (int k = pointers[i]; k < end; k++) {
+                marker[indices[k]] = k;
+            }
+            for (int k = pointers[i]; k < diagonal[i]; k++) {
+                int c = indices[k];
+                double l = values[k] / values[diagonal[c]];
+                values[k] = l;
+                for (int h = diagonal[c] + 1, hEnd = pointers[c + 1]; h < hEnd; h++) {
+                    int position = marker[indices[h]];
+                    if (position >= 0) {
+                        values[position] -= l * values[h];
+                    }
+                }
+            }
+            for (int k = pointers[i]; k < end; k++) {
+                marker[indices[k]] = -1;
+            }
+            if (values[diagonal[i]] == 0.0)
+                throw new ArithmeticException("Zero pivot at " + i);
+        }
+        return new SparsePreconditioner(S, values) {
+
+            @Override
+            public void solve(double[] r, double[] z) {
+                // Forward: L · y = r
+                for (int i = 0; i < _n; i++) {
+                    double sum = r[i];
+                    for (int k = _pointers[i], d = _diagonal[i]; k < d; k++) {
+                        sum -= _values[k] * z[_indices[k]];
+                    }
+                    z[i] = sum;
+                }
+                // Backward: U · z = y
+                for (int i = _n - 1; i >= 0; i--) {
+                    double sum = z[i];
+                    for (int k = _diagonal[i] + 1, end = _pointers[i + 1]; k < end; k++) {
+                        sum -= _values[k] * z[_indices[k]];
+                    }
+                    z[i] = sum / _values[_diagonal[i]];
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the compressed sparse rows of the specified square matrix.
+     */
+    private static FloatSparseMatrixImpl rows(Matrix<Float64> A) {
+        if (A.getRowDimension() != A.getColumnDimension())
+            throw new DimensionException("Square matrix expected");
+        return FloatSparseMatrixImpl.valueOf(A).toRowMajor();
+    }
+}
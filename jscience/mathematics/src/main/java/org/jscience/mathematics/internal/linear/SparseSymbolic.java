@@ -0,0 +1,252 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Arrays;
+
+import org.jscience.mathematics.linear.DimensionException;
+
+/**
+ * <p> This class holds the symbolic analysis of the structure of a square
+ *     sparse matrix <code>A</code> for a given permutation <code>P</code>:
+ *     the elimination tree, the column counts and the non-zero structure
+ *     of the Cholesky factor <code>L</code> of
+ *     <code>P·(A + A<sup>T</sup>)·P<sup>T</sup></code>. It depends only
+ *     upon the structure of <code>A</code> and is shared by the numeric
+ *     factorizations of all the matrices having this structure
+ *     ({@link SparseFloat64Cholesky}, {@link SparseFloat64LU}).</p>
+ *
+ * <p> The elimination tree is calculated by Liu's algorithm (path
+ *     compression), the rows of <code>L</code> by traversing the row
+ *     subtrees of the elimination tree; the total cost is
+ *     <code>O(|L|)</code>. Instances are immutable.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SparseSymbolic {
+
+    /**
+     * Holds the dimension.
+     */
+    final int _n;
+
+    /**
+     * Holds the rows pointers of the structure analyzed.
+     */
+    private final int[] _rowPointers;
+
+    /**
+     * Holds the column indices of the structure analyzed.
+     */
+    private final int[] _columnIndices;
+
+    /**
+     * Holds the permutation (original index of each new index).
+     */
+    final int[] _perm;
+
+    /**
+     * Holds the inverse permutation (new index of each original index).
+     */
+    final int[] _inverse;
+
+    /**
+     * Holds the parent of each node in the elimination tree
+     * (<code>-1</code> for the roots).
+     */
+    final int[] _parent;
+
+    /**
+     * Holds the columns pointers of <code>L</code>.
+     */
+    final int[] _lPointers;
+
+    /**
+     * Holds the row indices of <code>L</code> (sorted, diagonal first).
+     */
+    final int[] _lIndices;
+
+    /**
+     * Creates the symbolic analysis of the specified structure.
+     */
+    private SparseSymbolic(int n, int[] rowPointers, int[] columnIndices,
+            int[] perm) {
+        _n = n;
+        _rowPointers = rowPointers;
+        _columnIndices = columnIndices;
+        _perm = perm;
+        _inverse = SparseOrdering.inverse(perm);
+        int[] sp = new int[n + 1];
+        int[] si = SparseOrdering.symmetric(n, rowPointers, columnIndices, sp);
+        // Elimination tree.
+        _parent = new int[n];
+        int[] ancestor = new int[n];
+        for (int k = 0; k < n; k++) {
+            _parent[k] = -1;
+            ancestor[k] = -1;
+            for (int t = sp[perm[k]], end = sp[perm[k] + 1]; t < end; t++) {
+                int i = _inverse[si[t]];
+                while ((i != -1) && (i < k)) {
+                    int next = ancestor[i];
+                    ancestor[i] = k;
+                    if (next == -1) {
+                        _parent[i] = k;
+                    }
+                    i = next;
+                }
+            }
+        }
+        // Column counts then row indices (row subtrees).
+        int[] count = ancestor; // Reused.
+        Arrays.fill(count, 1);
+        rowSubtrees(sp, si, count, null);
+        _lPointers = new int[n + 1];
+        for (int j = 0; j < n; j++) {
+            _lPointers[j + 1] = _lPointers[j] + count[j];
+            count[j] = _lPointers[j] + 1;
+        }
+        _lIndices = new int[_lPointers[n]];
+        for (int j = 0; j < n; j++) { // Diagonal first.
+            _lIndices[_lPointers[j]] = j;
+        }
+        rowSubtrees(sp, si, count, _lIndices);
+    }
+
+    /**
+     * Traverses the row subtrees of the elimination tree: for each
+     * non-zero <code>L[k, i]</code> (<code>i &lt; k</code>), increments
+     * <code>count[i]</code> or (if <code>li</code> is not
+     * <code>null</code>) sets <code>li[count[i]++]</code> to
+     * <code>k</code>.
+     */
+    private void rowSubtrees(int[] sp, int[] si, int[] count, int[] li) {
+        int[] flag = new int[_n];
+        Arrays.fill(flag, -1);
+        for (int k = 0; k < _n; k++) {
+            flag[k] = k;
+            for (int t = sp[_perm[k]], end = sp[_perm[k] + 1]; t < end; t++) {
+                for (int i = _inverse[si[t]]; (i < k) && (flag[i] != k); i = _parent[i]) {
+                    flag[i] = k;
+                    if (li == null) {
+                        count[i]++;
+                    } else {
+                        li[count[i]++] = k;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the symbolic analysis of the structure of the specified
+     * square matrix for the specified permutation.
+     *
+     * @param A the square sparse matrix.
+     * @param perm the permutation (original index of each new index).
+     * @return the corresponding symbolic analysis.
+     * @throws DimensionException if <code>A</code> is not square or the
+     *         permutation has not the dimension of <code>A</code>.
+     * @throws IllegalArgumentException if <code>perm</code> is not a
+     *         permutation.
+     */
+    public static SparseSymbolic valueOf(AbstractSparseMatrix<?> A, int[] perm) {
+        final int n = A.getRowDimension();
+        if (n != A.getColumnDimension())
+            throw new DimensionException("Square matrix expected");
+        if (perm.length != n)
+            throw new DimensionException(perm.length
+                    + " indices for a matrix of dimension " + n);
+        boolean[] found = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int j = perm[i];
+            if ((j < 0) || (j >= n) || found[j])
+                throw new IllegalArgumentException("Not a permutation");
+            found[j] = true;
+        }
+        AbstractSparseMatrix<?> csr = A.toRowMajor();
+        return new SparseSymbolic(n, csr._pointers, csr._indices, perm.clone());
+    }
+
+    /**
+     * Indicates if the specified matrix has the structure analyzed.
+     *
+     * @param A the sparse matrix.
+     * @return <code>true</code> if <code>A</code> has the same dimension
+     *         and the same non-zero structure; <code>false</code>
+     *         otherwise.
+     */
+    public boolean matches(AbstractSparseMatrix<?> A) {
+        if ((A.getRowDimension() != _n) || (A.getColumnDimension() != _n))
+            return false;
+        AbstractSparseMatrix<?> csr = A.toRowMajor();
+        if ((csr._pointers == _rowPointers)
+                && (csr._indices == _columnIndices))
+            return true;
+        if (!Arrays.equals(csr._pointers, _rowPointers))
+            return false;
+        for (int k = 0, nnz = _rowPointers[_n]; k < nnz; k++) {
+            if (csr._indices[k] != _columnIndices[k])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the dimension.
+     *
+     * @return the number of rows and columns.
+     */
+    public int getDimension() {
+        return _n;
+    }
+
+    /**
+     * Returns the permutation.
+     *
+     * @return the original index of each new index (copy).
+     */
+    public int[] getPermutation() {
+        return _perm.clone();
+    }
+
+    /**
+     * Returns the elimination tree.
+     *
+     * @return the parent of each (permuted) node or <code>-1</code> for
+     *         the roots (copy).
+     */
+    public int[] getEliminationTree() {
+        return _parent.clone();
+    }
+
+    /**
+     * Returns the number of non-zero elements of each column of
+     * <code>L</code> (diagonal included).
+     *
+     * @return the column counts (permuted order).
+     */
+    public int[] getColumnCounts() {
+        int[] counts = new int[_n];
+        for (int j = 0; j < _n; j++) {
+            counts[j] = _lPointers[j + 1] - _lPointers[j];
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of non-zero elements of <code>L</code> (diagonal
+     * included).
+     *
+     * @return the column counts sum.
+     */
+    public int getFactorNonZeroCount() {
+        return _lPointers[_n];
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.util.List;
+
+import javolution.util.FastTable;
+import javolution.util.Index;
+import javolution.util.function.Predicate;
+
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.SparseVector;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class represents a sparse vector holding the indices of its
+ *     non-zero elements in a sorted <code>int</code> array and the
+ *     elements in a parallel array. The rows and columns of the
+ *     {@link AbstractSparseMatrix sparse matrices} are sparse vectors.</p>
+ *
+ * <p> Elements are located by binary search (<code>O(log(nnz))</code>);
+ *     operations between sparse vectors merge their indices
+ *     (<code>O(nnz)</code>) and never visit the zero elements.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SparseVectorImpl<F extends Field<F>> extends
+        AbstractVector<F> implements SparseVector<F> {
+
+    /**
+     * Holds the dimension.
+     */
+    final int _dimension;
+
+    /**
+     * Holds the zero element.
+     */
+    final F _zero;
+
+    /**
+     * Holds the indices of the non-zero elements (sorted, never modified).
+     */
+    final int[] _indices;
+
+    /**
+     * Holds the non-zero elements (never modified).
+     */
+    final Object[] _elements;
+
+    /**
+     * Creates a sparse vector having the specified non-zero elements.
+     *
+     * @param dimension the vector dimension.
+     * @param zero the zero element.
+     * @param indices the sorted indices of the non-zero elements (shared).
+     * @param elements the non-zero elements (shared).
+     */
+    SparseVectorImpl(int dimension, F zero, int[] indices, Object[] elements) {
+        _dimension = dimension;
+        _zero = zero;
+        _indices = indices;
+        _elements = elements;
+    }
+
+    /**
+     * Returns a sparse vector having the specified non-zero elements.
+     *
+     * @param dimension the vector dimension.
+     * @param zero the zero element.
+     * @param indices the indices of the elements (sorted).
+     * @param elements the elements.
+     * @return the corresponding sparse vector.
+     * @throws IllegalArgumentException if the number of indices and
+     *         elements differ or if the indices are not sorted.
+     */
+    public static <F extends Field<F>> SparseVectorImpl<F> valueOf(
+            int dimension, F zero, List<Index> indices, F... elements) {
+        final int nnz = elements.length;
+        if (indices.size() != nnz)
+            throw new IllegalArgumentException(indices.size()
+                    + " indices for " + nnz + " elements");
+        int[] array = new int[nnz];
+        for (int k = 0; k < nnz; k++) {
+            array[k] = indices.get(k).intValue();
+        }
+        SparseKernel.check(1, dimension, new int[] { 0, nnz }, array);
+        return new SparseVectorImpl<F>(dimension, zero, array,
+                elements.clone());
+    }
+
+    /**
+     * Returns a sparse vector equivalent to the specified vector.
+     *
+     * @param that the vector to convert.
+     * @param zero the zero element.
+     * @return <code>that</code> or a sparse vector holding the elements of
+     *         <code>that</code> different from <code>zero</code>.
+     */
+    public static <F extends Field<F>> SparseVectorImpl<F> valueOf(
+            Vector<F> that, F zero) {
+        if (that instanceof SparseVectorImpl)
+            return (SparseVectorImpl<F>) that;
+        return valueOf(that, zero, null);
+    }
+
+    /**
+     * Returns a sparse vector equivalent to the specified vector, the
+     * zero elements being identified using the specified predicate.
+     *
+     * @param that the vector to convert.
+     * @param zero the zero element.
+     * @param isZero the zero predicate or <code>null</code> to test for
+     *        equality with <code>zero</code>.
+     * @return a sparse vector holding the non-zero elements of
+     *         <code>that</code>.
+     */
+    public static <F extends Field<F>> SparseVectorImpl<F> valueOf(
+            Vector<F> that, F zero, Predicate<F> isZero) {
+        final int n = that.getDimension();
+        int[] indices = new int[n];
+        Object[] elements = new Object[n];
+        int nnz = 0;
+        if (that instanceof SparseVectorImpl) { // Non-zero elements only.
+            SparseVectorImpl<F> v = (SparseVectorImpl<F>) that;
+            for (int k = 0; k < v._indices.length; k++) {
+                F e = v.element(k);
+                if ((isZero == null) ? zero.equals(e) : isZero.test(e))
+                    continue;
+                indices[nnz] = v._indices[k];
+                elements[nnz++] = e;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                F e = that.get(i);
+                if ((isZero == null) ? zero.equals(e) : isZero.test(e))
+                    continue;
+                indices[nnz] = i;
+                elements[nnz++] = e;
+            }
+        }
+        return new SparseVectorImpl<F>(n, zero,
+                AbstractSparseMatrix.resize(indices, nnz),
+                AbstractSparseMatrix.resize(elements, nnz));
+    }
+
+    /**
+     * Returns a sparse vector holding the specified elements except the
+     * ones equal to zero.
+     *
+     * @param dimension the vector dimension.
+     * @param zero the zero element.
+     * @param indices the sorted indices.
+     * @param elements the elements.
+     * @param count the number of elements.
+     * @return the corresponding sparse vector.
+     */
+    static <F extends Field<F>> SparseVectorImpl<F> compact(int dimension,
+            F zero, int[] indices, Object[] elements, int count) {
+        int nnz = 0;
+        for (int k = 0; k < count; k++) {
+            if (zero.equals(elements[k]))
+                continue;
+            indices[nnz] = indices[k];
+            elements[nnz++] = elements[k];
+        }
+        return new SparseVectorImpl<F>(dimension, zero,
+                AbstractSparseMatrix.resize(indices, nnz),
+                AbstractSparseMatrix.resize(elements, nnz));
+    }
+
+    /**
+     * Returns the non-zero element at the specified position.
+     */
+    @SuppressWarnings("unchecked")
+    F element(int k) {
+        return (F) _elements[k];
+    }
+
+    @Override
+    public F get(int i) {
+        checkIndex(i, _dimension);
+        int k = SparseKernel.search(_indices, 0, _indices.length, i);
+        return (k < 0) ? _zero : element(k);
+    }
+
+    @Override
+    public int getDimension() {
+        return _dimension;
+    }
+
+    @Override
+    public F getZero() {
+        return _zero;
+    }
+
+    @Override
+    public FastTable<F> getData() {
+        FastTable<F> data = new FastTable<F>();
+        for (int k = 0; k < _indices.length; k++) {
+            data.add(element(k));
+        }
+        return data.unmodifiable();
+    }
+
+    @Override
+    public List<Index> getIndices() {
+        FastTable<Index> indices = new FastTable<Index>();
+        for (int k = 0; k < _indices.length; k++) {
+            indices.add(Index.valueOf(_indices[k]));
+        }
+        return indices.unmodifiable();
+    }
+
+    @Override
+    public SparseMatrix<F> asColumn() {
+        return new SparseMatrixImpl<F>(_dimension, 1, true, new int[] { 0,
+                _indices.length }, _indices, _elements, _zero);
+    }
+
+    @Override
+    public SparseMatrix<F> asRow() {
+        return new SparseMatrixImpl<F>(1, _dimension, false, new int[] { 0,
+                _indices.length }, _indices, _elements, _zero);
+    }
+
+    @Override
+    public SparseMatrix<F> asDiagonal() {
+        int[] pointers = new int[_dimension + 1];
+        for (int k = 0; k < _indices.length; k++) {
+            pointers[_indices[k] + 1] = 1;
+        }
+        for (int i = 0; i < _dimension; i++) {
+            pointers[i + 1] += pointers[i];
+        }
+        return new SparseMatrixImpl<F>(_dimension, _dimension, false,
+                pointers, _indices, _elements, _zero);
+    }
+
+    @Override
+    public SparseVector<F> getSubVector(List<Index> indices) {
+        final int n = indices.size();
+        int[] subIndices = new int[n];
+        Object[] elements = new Object[n];
+        int nnz = 0;
+        for (int i = 0; i < n; i++) {
+            int ii = indices.get(i).intValue();
+            checkIndex(ii, _dimension);
+            int k = SparseKernel.search(_indices, 0, _indices.length, ii);
+            if (k < 0)
+                continue;
+            subIndices[nnz] = i;
+            elements[nnz++] = _elements[k];
+        }
+        return new SparseVectorImpl<F>(n, _zero,
+                AbstractSparseMatrix.resize(subIndices, nnz),
+                AbstractSparseMatrix.resize(elements, nnz));
+    }
+
+    @Override
+    public SparseVector<F> cross(Vector<F> that) {
+        if ((_dimension != 3) || (that.getDimension() != 3))
+            throw new DimensionException(
+                    "The cross product of two vectors requires "
+                            + "3-dimensional vectors");
+        F x = get(1).times(that.get(2)).plus((get(2).times(that.get(1))).opposite());
+        F y = get(2).times(that.get(0)).plus((get(0).times(that.get(2))).opposite());
+        F z = get(0).times(that.get(1)).plus((get(1).times(that.get(0))).opposite());
+        return compact(3, _zero, new int[] { 0, 1, 2 },
+                new Object[] { x, y, z }, 3);
+    }
+
+    @Override
+    public SparseVector<F> opposite() {
+        final int nnz = _indices.length;
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = element(k).opposite();
+        }
+        return new SparseVectorImpl<F>(_dimension, _zero, _indices, elements);
+    }
+
+    @Override
+    public SparseVector<F> plus(Vector<F> that) {
+        checkDimension(_dimension, that.getDimension());
+        SparseVectorImpl<F> v = SparseVectorImpl.valueOf(that, _zero);
+        final int nnz = _indices.length + v._indices.length;
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        int count = 0;
+        int k = 0;
+        int l = 0;
+        while ((k < _indices.length) || (l < v._indices.length)) {
+            int i = (k < _indices.length) ? _indices[k] : Integer.MAX_VALUE;
+            int j = (l < v._indices.length) ? v._indices[l] : Integer.MAX_VALUE;
+            if (i < j) {
+                indices[count] = i;
+                elements[count++] = _elements[k++];
+            } else if (j < i) {
+                indices[count] = j;
+                elements[count++] = v._elements[l++];
+            } else {
+                indices[count] = i;
+                elements[count++] = element(k++).plus(v.element(l++));
+            }
+        }
+        return compact(_dimension, _zero, indices, elements, count);
+    }
+
+    @Override
+    public SparseVector<F> minus(Vector<F> that) {
+        return this.plus(that.opposite());
+    }
+
+    @Override
+    public SparseVector<F> times(F k) {
+        final int nnz = _indices.length;
+        Object[] elements = new Object[nnz];
+        for (int i = 0; i < nnz; i++) {
+            elements[i] = element(i).times(k);
+        }
+        return compact(_dimension, _zero, _indices.clone(), elements, nnz);
+    }
+
+    @Override
+    public F times(Vector<F> that) {
+        checkDimension(_dimension, that.getDimension());
+        F sum = _zero;
+        if (that instanceof SparseVectorImpl) { // Merge.
+            SparseVectorImpl<F> v = (SparseVectorImpl<F>) that;
+            for (int k = 0, l = 0; (k < _indices.length)
+                    && (l < v._indices.length);) {
+                int i = _indices[k];
+                int j = v._indices[l];
+                if (i < j) {
+                    k++;
+                } else if (j < i) {
+                    l++;
+                } else {
+                    sum = sum.plus(element(k++).times(v.element(l++)));
+                }
+            }
+        } else {
+            for (int k = 0; k < _indices.length; k++) {
+                sum = sum.plus(element(k).times(that.get(_indices[k])));
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public SparseMatrix<F> tensor(Vector<F> that) {
+        SparseVectorImpl<F> v = SparseVectorImpl.valueOf(that, _zero);
+        final int m = _dimension;
+        final int n = v._dimension;
+        final int nnz = _indices.length * v._indices.length;
+        int[] pointers = new int[m + 1];
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        int count = 0;
+        for (int k = 0; k < _indices.length; k++) {
+            F e = element(k);
+            for (int l = 0; l < v._indices.length; l++) {
+                indices[count] = v._indices[l];
+                elements[count++] = e.times(v.element(l));
+            }
+            pointers[_indices[k] + 1] = v._indices.length;
+        }
+        for (int i = 0; i < m; i++) {
+            pointers[i + 1] += pointers[i];
+        }
+        return new SparseMatrixImpl<F>(m, n, false, pointers, indices,
+                elements, _zero);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SparseVectorImpl<F> copy() {
+        final int nnz = _indices.length;
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = (F) element(k).copy();
+        }
+        return new SparseVectorImpl<F>(_dimension, (F) _zero.copy(),
+                _indices.clone(), elements);
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.linear;
+
+import java.io.IOException;
+
+/**
+ * <p> This class represents the LU decomposition with partial pivoting
+ *     <code>P·A = L·U</code> of a square matrix held in
+ *     {@link MappedTiles mapped tiles}, the factors being calculated in a
+ *     temporary copy of the matrix file.</p>
+ *
+ * <p> The factorization is right-looking by columns of tiles (same
+ *     algorithm as {@link Float64LU} with a panel width of one tile): the
+ *     panel (one column of tiles) is loaded on the heap and factorized,
+ *     then each column of tiles on its right is updated by streaming its
+ *     tiles through the {@link Float64Kernel#multiply GEMM kernel}, the
+ *     columns being processed concurrently. The working set is the panel
+ *     (<code>n · tile</code> values) plus two tiles per thread, whatever
+ *     the matrix size.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+final class TiledFloat64LU {
+
+    /**
+     * Holds the merged factors (<code>L</code> strictly below the diagonal,
+     * unit diagonal implicit; <code>U</code> on and above).
+     */
+    private final MappedTiles _lu;
+
+    /**
+     * Holds the row exchanged with the row <code>k</code> at step
+     * <code>k</code>.
+     */
+    private final int[] _swaps;
+
+    /**
+     * Holds the number of row exchanges.
+     */
+    private int _permutationCount;
+
+    /**
+     * Creates the decomposition overwriting the specified tiles.
+     */
+    private TiledFloat64LU(MappedTiles lu) {
+        _lu = lu;
+        _swaps = new int[lu._n];
+        factorize();
+    }
+
+    /**
+     * Returns the decomposition of the specified square matrix (the file
+     * is copied).
+     *
+     * @param tiles the matrix tiles.
+     * @return the LU decomposition.
+     * @throws IOException if the temporary copy cannot be created.
+     */
+    static TiledFloat64LU valueOf(MappedTiles tiles) throws IOException {
+        return new TiledFloat64LU(tiles.copy());
+    }
+
+    /**
+     * Calculates the factors.
+     */
+    private void factorize() {
+        final MappedTiles a = _lu;
+        final int n = a._n;
+        final int T = a._tile;
+        final int N = a._tileCols;
+        for (int K = 0; K < N; K++) {
+            final int k0 = K * T;
+            final int kb = a.cols(K);
+            final int K1 = K;
+            final double[] panel = new double[(N - K) * T * T];
+            for (int I = K; I < N; I++) { // Stacked tiles (row stride T).
+                a.readTile(I, K, panel, (I - K) * T * T);
+            }
+            factorizePanel(panel, n - k0, kb, T, k0);
+            for (int I = K; I < N; I++) {
+                a.writeTile(I, K, panel, (I - K) * T * T);
+            }
+            for (int c = 0; c < kb; c++) {
+                if (_swaps[k0 + c] != k0 + c) {
+                    a.swapRows(k0 + c, _swaps[k0 + c], K);
+                }
+            }
+            if (K == N - 1)
+                break;
+            long cost = 2L * (n - k0) * T * (n - k0 - T);
+            Scheduler.execute(N - K - 1, cost, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    double[] u = new double[T * T];
+                    double[] t = new double[T * T];
+                    for (int J = K1 + 1 + start; J < K1 + 1 + end; J++) {
+                        // U12 = inv(L11) · A12 (unit lower triangular solve).
+                        a.readTile(K1, J, u);
+                        for (int c = 0; c < T; c++) {
+                            for (int r = c + 1; r < T; r++) {
+                                double l = panel[r * T + c];
+                                if (l == 0.0)
+                                    continue;
+                                for (int j = 0; j < T; j++) {
+                                    u[r * T + j] -= l * u[c * T + j];
+                                }
+                            }
+                        }
+                        a.writeTile(K1, J, u);
+                        // A22 = A22 - L21 · U12
+                        for (int I = K1 + 1; I < N; I++) {
+                            a.readTile(I, J, t);
+                            Float64Kernel.multiply(T, T, T, -1.0, panel, (I - K1)
+                                    * T * T, T, 1, u, 0, T, 1, 1.0, t, 0, T);
+                            a.writeTile(I, J, t);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Factorizes the <code>kb</code> first columns of the specified panel
+     * (<code>rows</code> rows of stride <code>T</code>), rows being
+     * exchanged within the panel.
+     */
+    private void factorizePanel(double[] panel, int rows, int kb, int T,
+            int k0) {
+        for (int c = 0; c < kb; c++) {
+            int pivot = c;
+            double max = Math.abs(panel[c * T + c]);
+            for (int r = c + 1; r < rows; r++) {
+                double abs = Math.abs(panel[r * T + c]);
+                if (abs > max) {
+                    max = abs;
+                    pivot = r;
+                }
+            }
+            _swaps[k0 + c] = k0 + pivot;
+            if (pivot != c) {
+                for (int j = 0; j < T; j++) {
+                    double tmp = panel[c * T + j];
+                    panel[c * T + j] = panel[pivot * T + j];
+                    panel[pivot * T + j] = tmp;
+                }
+                _permutationCount++;
+            }
+            double ukk = panel[c * T + c];
+            if (ukk == 0.0)
+                continue; // Singular, the column is already eliminated.
+            double inv = 1.0 / ukk;
+            for (int r = c + 1; r < rows; r++) {
+                double l = panel[r * T + c] * inv;
+                panel[r * T + c] = l;
+                if (l == 0.0)
+                    continue;
+                for (int j = c + 1; j < kb; j++) {
+                    panel[r * T + j] -= l * panel[c * T + j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the dimension of the decomposed matrix.
+     */
+    int getDimension() {
+        return _lu._n;
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code>.
+     *
+     * @param p the number of columns of <code>B</code>.
+     * @param b the row-major values of <code>B</code> (<code>n x p</code>),
+     *        replaced by the solution.
+     */
+    void solve(int p, double[] b) {
+        final MappedTiles a = _lu;
+        final int n = a._n;
+        final int T = a._tile;
+        final int N = a._tileCols;
+        for (int k = 0; k < n; k++) {
+            int s = _swaps[k];
+            if (s == k)
+                continue;
+            for (int j = 0; j < p; j++) {
+                double tmp = b[k * p + j];
+                b[k * p + j] = b[s * p + j];
+                b[s * p + j] = tmp;
+            }
+        }
+        double[] t = new double[T * T];
+        for (int I = 0; I < N; I++) { // L · Y = P · B
+            final int rows = a.rows(I);
+            for (int K = 0; K < I; K++) {
+                a.readTile(I, K, t);
+                Float64Kernel.multiply(rows, T, p, -1.0, t, 0, T, 1, b, K * T
+                        * p, p, 1, 1.0, b, I * T * p, p);
+            }
+            a.readTile(I, I, t);
+            for (int c = 0; c < rows; c++) {
+                for (int r = c + 1; r < rows; r++) {
+                    double l = t[r * T + c];
+                    if (l == 0.0)
+                        continue;
+                    for (int j = 0, rj = (I * T + r) * p, cj = (I * T + c) * p; j < p; j++) {
+                        b[rj++] -= l * b[cj++];
+                    }
+                }
+            }
+        }
+        for (int I = N - 1; I >= 0; I--) { // U · X = Y
+            final int rows = a.rows(I);
+            for (int J = I + 1; J < N; J++) {
+                a.readTile(I, J, t);
+                Float64Kernel.multiply(rows, a.cols(J), p, -1.0, t, 0, T, 1,
+                        b, J * T * p, p, 1, 1.0, b, I * T * p, p);
+            }
+            a.readTile(I, I, t);
+            for (int r = rows - 1; r >= 0; r--) {
+                final int rj0 = (I * T + r) * p;
+                for (int c = r + 1; c < rows; c++) {
+                    double u = t[r * T + c];
+                    if (u == 0.0)
+                        continue;
+                    for (int j = 0, rj = rj0, cj = (I * T + c) * p; j < p; j++) {
+                        b[rj++] -= u * b[cj++];
+                    }
+                }
+                double inv = 1.0 / t[r * T + r];
+                for (int j = 0, rj = rj0; j < p; j++) {
+                    b[rj++] *= inv;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the determinant of the decomposed matrix.
+     */
+    double determinant() {
+        double det = ((_permutationCount & 1) == 0) ? 1.0 : -1.0;
+        for (int i = 0; i < _lu._n; i++) {
+            det *= _lu.get(i, i);
+        }
+        return det;
+    }
+
+    /**
+     * Releases the factors (temporary file deleted).
+     */
+    void close() throws IOException {
+        _lu.close();
+    }
+}
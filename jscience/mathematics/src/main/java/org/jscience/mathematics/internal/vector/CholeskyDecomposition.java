@@ -0,0 +1,292 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2006 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.vector;
+
+import org.jscience.mathematics.internal.linear.Float64Cholesky;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.Number;
+import org.jscience.mathematics.structure.Field;
+
+import javolution.context.ObjectFactory;
+
+/**
+ * <p> This class represents the decomposition of a symmetric
+ *     {@link Matrix matrix} <code>A</code> into the product
+ *     <code>A = L·D·Lᵀ</code> with <code>L</code> a {@link #getLower lower}
+ *     triangular matrix and <code>D</code> a {@link #getDiagonal diagonal}
+ *     matrix; only the lower triangle of <code>A</code> is read.</p>
+ *
+ * <p> For symmetric positive definite matrices of {@link Float64} elements
+ *     this is the Cholesky decomposition <code>A = L·Lᵀ</code>
+ *     (<code>D</code> identity) calculated upon <code>double</code> values by
+ *     the blocked and concurrent {@link Float64Cholesky} algorithm. For others
+ *     elements (e.g. {@link org.jscience.mathematics.number.Rational
+ *     Rational}) the square root free decomposition <code>L·D·Lᵀ</code> with
+ *     unit diagonal <code>L</code> is calculated (no pivoting).</p>
+ *
+ * <p> In both cases the factors are kept in packed storage (lower triangle
+ *     by rows) and the decomposition requires about half the operations of
+ *     the {@link LUDecomposition}; solving and the (log-)determinant reuse
+ *     the factors.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, December 12, 2007
+ * @see <a href="http://en.wikipedia.org/wiki/Cholesky_decomposition">
+ *      Wikipedia: Cholesky decomposition</a>
+ */
+public final class CholeskyDecomposition<F extends Field<F>> {
+
+    /**
+     * Holds the object factory.
+     */
+    static final ObjectFactory<CholeskyDecomposition> FACTORY = new ObjectFactory<CholeskyDecomposition>() {
+        protected CholeskyDecomposition create() {
+            return new CholeskyDecomposition();
+        }
+
+        @Override
+        protected void cleanup(CholeskyDecomposition cholesky) {
+            cholesky._packed = null;
+            cholesky._float64 = null;
+        }
+    };
+
+    /**
+     * Holds the dimension of the square matrix source.
+     */
+    private int _n;
+
+    /**
+     * Holds the factors in packed storage (<code>L</code> strictly below
+     * the diagonal, <code>D</code> on the diagonal) for generic elements.
+     */
+    private Object[] _packed;
+
+    /**
+     * Holds the Cholesky decomposition of <code>double</code> values
+     * (<code>null</code> if elements are not {@link Float64}).
+     */
+    private Float64Cholesky _float64;
+
+    /**
+     * Default constructor.
+     */
+    private CholeskyDecomposition() {
+    }
+
+    /**
+     * Returns the decomposition of the specified symmetric matrix.
+     *
+     * @param  source the symmetric matrix (positive definite for
+     *         {@link Float64} elements).
+     * @return the decomposition of the specified matrix.
+     * @throws DimensionException if the specified matrix is not square.
+     * @throws ArithmeticException if the matrix is not positive definite
+     *         (or if a pivot is zero for generic elements).
+     */
+    @SuppressWarnings("unchecked")
+    public static <F extends Field<F>> CholeskyDecomposition<F> valueOf(
+            Matrix<F> source) {
+        if (!source.isSquare())
+            throw new DimensionException("Matrix is not square");
+        final int n = source.getNumberOfRows();
+        CholeskyDecomposition<F> cholesky = FACTORY.object();
+        cholesky._n = n;
+        if ((n > 0) && (source.get(0, 0) instanceof Float64)) {
+            cholesky._float64 = Float64Cholesky.wrap(n, Float64Matrix
+                    .values((Matrix<Float64>) source));
+        } else {
+            cholesky.construct(source);
+        }
+        return cholesky;
+    }
+
+    /**
+     * Constructs the <code>L·D·Lᵀ</code> decomposition row by row:
+     * <code>L[i][j] = (A[i][j] - Σ L[i][k]·D[k]·L[j][k]) / D[j]</code> and
+     * <code>D[i] = A[i][i] - Σ L[i][k]·D[k]·L[i][k]</code>.
+     */
+    @SuppressWarnings("unchecked")
+    private void construct(Matrix<F> source) {
+        final int n = _n;
+        Object[] packed = new Object[n * (n + 1) / 2];
+        Object[] inverses = new Object[n]; // Of D elements.
+        Object[] u = new Object[n]; // L[i][k]·D[k] for the current row.
+        for (int i = 0; i < n; i++) {
+            final int ri = i * (i + 1) / 2;
+            for (int j = 0; j < i; j++) {
+                final int rj = j * (j + 1) / 2;
+                F sum = source.get(i, j);
+                for (int k = 0; k < j; k++) {
+                    sum = sum.plus(((F) u[k]).times((F) packed[rj + k])
+                            .opposite());
+                }
+                u[j] = sum;
+                packed[ri + j] = sum.times((F) inverses[j]);
+            }
+            F d = source.get(i, i);
+            for (int k = 0; k < i; k++) {
+                d = d.plus(((F) u[k]).times((F) packed[ri + k]).opposite());
+            }
+            if (isZero(d))
+                throw new ArithmeticException("Zero pivot at " + i);
+            packed[ri + i] = d;
+            inverses[i] = d.inverse();
+        }
+        _packed = packed;
+    }
+
+    /**
+     * Indicates if the specified element is the additive identity.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isZero(Field e) {
+        return e.equals(e.plus(e));
+    }
+
+    /**
+     * Returns the element of the packed factors at the specified position.
+     */
+    @SuppressWarnings("unchecked")
+    private F packed(int i, int j) {
+        return (F) _packed[i * (i + 1) / 2 + j];
+    }
+
+    /**
+     * Returns the solution X of the equation: A * X = B  using forward,
+     * diagonal and backward substitutions upon the factors.
+     *
+     * @param  B the input matrix.
+     * @return the solution X = (1 / A) * B.
+     * @throws DimensionException if the dimensions do not match.
+     */
+    @SuppressWarnings("unchecked")
+    public DenseMatrix<F> solve(Matrix<F> B) {
+        if (_n != B.getNumberOfRows())
+            throw new DimensionException("Input vector has "
+                    + B.getNumberOfRows() + " rows instead of " + _n);
+        final int p = B.getNumberOfColumns();
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, p,
+                    _float64.solve(p, Float64Matrix.values((Matrix<Float64>) B)));
+        final int n = _n;
+        F[][] X = (F[][]) new Field[n][p];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < p; j++) {
+                X[i][j] = B.get(i, j);
+            }
+        }
+        // Solves L * Y = B
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < i; k++) {
+                F lik = packed(i, k).opposite();
+                for (int j = 0; j < p; j++) {
+                    X[i][j] = X[i][j].plus(lik.times(X[k][j]));
+                }
+            }
+        }
+        // Solves D * Z = Y
+        for (int i = 0; i < n; i++) {
+            F inv = packed(i, i).inverse();
+            for (int j = 0; j < p; j++) {
+                X[i][j] = inv.times(X[i][j]);
+            }
+        }
+        // Solves Lᵀ * X = Z
+        for (int i = n - 1; i >= 0; i--) {
+            for (int k = 0; k < i; k++) {
+                F lik = packed(i, k).opposite();
+                for (int j = 0; j < p; j++) {
+                    X[k][j] = X[k][j].plus(lik.times(X[i][j]));
+                }
+            }
+        }
+        return DenseMatrix.valueOf(X);
+    }
+
+    /**
+     * Returns the determinant of the {@link Matrix} having this
+     * decomposition.
+     *
+     * @return the determinant of the matrix source.
+     * @throws DimensionException if the matrix source is empty (generic
+     *         elements, no unit element to return).
+     */
+    @SuppressWarnings("unchecked")
+    public F determinant() {
+        if (_float64 != null)
+            return (F) Float64.valueOf(_float64.determinant());
+        if (_n == 0)
+            throw new DimensionException("Empty matrix");
+        F product = packed(0, 0);
+        for (int i = 1; i < _n; i++) {
+            product = product.times(packed(i, i));
+        }
+        return product;
+    }
+
+    /**
+     * Returns the natural logarithm of the determinant of the {@link Matrix}
+     * having this decomposition (no overflow); the elements must be
+     * {@link Number numbers} and the matrix positive definite.
+     *
+     * @return <code>log(det(A))</code>
+     * @throws ClassCastException if the elements are not numbers.
+     */
+    public double logDeterminant() {
+        if (_float64 != null)
+            return _float64.logDeterminant();
+        double sum = 0.0;
+        for (int i = 0; i < _n; i++) {
+            sum += Math.log(((Number<?>) packed(i, i)).doubleValue());
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the lower matrix decomposition (<code>L</code>); its
+     * diagonal elements are the multiplicative identity for generic
+     * elements (<code>L·D·Lᵀ</code> decomposition).
+     *
+     * @param zero the additive identity for F.
+     * @param one the multiplicative identity for F.
+     * @return the lower matrix.
+     */
+    @SuppressWarnings("unchecked")
+    public DenseMatrix<F> getLower(F zero, F one) {
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, _n,
+                    _float64.getLower());
+        F[][] L = (F[][]) new Field[_n][_n];
+        for (int i = 0; i < _n; i++) {
+            for (int j = 0; j < _n; j++) {
+                L[i][j] = (j < i) ? packed(i, j) : (j == i) ? one : zero;
+            }
+        }
+        return DenseMatrix.valueOf(L);
+    }
+
+    /**
+     * Returns the diagonal elements of <code>D</code> (multiplicative
+     * identities for the Cholesky decomposition of {@link Float64}
+     * elements).
+     *
+     * @param one the multiplicative identity for F.
+     * @return the diagonal elements.
+     */
+    @SuppressWarnings("unchecked")
+    public DenseVector<F> getDiagonal(F one) {
+        F[] D = (F[]) new Field[_n];
+        for (int i = 0; i < _n; i++) {
+            D[i] = (_float64 != null) ? one : packed(i, i);
+        }
+        return DenseVector.valueOf(D);
+    }
+
+}
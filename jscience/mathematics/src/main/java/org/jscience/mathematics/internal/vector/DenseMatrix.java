@@ -163,40 +163,32 @@ public abstract class DenseMatrix<F extends Field<F>> extends Matrix<F> {
 
     /**
      * Returns the inverse of this matrix (must be square).
-     * The default implementation returns
-     * <code>LUDecomposition.valueOf(this).inverse()</code>
+     * The default implementation delegates to {@link Elimination}
+     * (fraction-free elimination for exact fields, LU decomposition
+     * otherwise).
      *
-     * @return <code>1 / this</code>
+     * @return <code>Elimination.inverse(this)</code>
      * @throws DimensionException if this matrix is not square.
      */
     @Override
     public DenseMatrix<F> inverse() {
-        return LUDecomposition.valueOf(this).inverse();
-    }
-
-    /**
-     * Returns the determinant of this matrix. The default implementation
-     * for {@link DenseMatrix} uses the LU decomposition.
-     *
-     * @return <code>LUDecomposition.valueOf(this).determinant()</code>
-     * @throws DimensionException if this matrix is not square.
-     */
-    @Override
-    public F determinant() {
-        return LUDecomposition.valueOf(this).determinant();
+        return Elimination.inverse(this);
     }
 
     /**
      * Solves this matrix for the specified matrix (returns <code>x</code>
      * such as <code>this · x = y</code>). The default implementation
-     * for {@link DenseMatrix} uses the LU decomposition.
+     * for {@link DenseMatrix} delegates to {@link Elimination}
+     * (least squares or minimum norm solution if this matrix is not
+     * square).
      *
-     * @return <code>LUDecomposition.valueOf(this).solve(y)</code>
-     * @throws DimensionException if this matrix is not square.
+     * @return <code>Elimination.solve(this, y)</code>
+     * @throws DimensionException if the number of rows of <code>y</code>
+     *         is different from the number of rows of this matrix.
      */
     @Override
     public DenseMatrix<F> solve(Matrix<F> y) {
-        return LUDecomposition.valueOf(this).solve(y);
+        return Elimination.solve(this, y);
     }
 
     @Override
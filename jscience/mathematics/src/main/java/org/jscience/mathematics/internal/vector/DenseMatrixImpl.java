@@ -13,6 +13,7 @@ import java.util.List;
 import javolution.context.ObjectFactory;
 import javolution.util.FastTable;
 import javolution.util.Index;
+import org.jscience.mathematics.internal.linear.Scheduler;
 import org.jscience.mathematics.structure.Field;
 
 /**
@@ -128,35 +129,47 @@ final class DenseMatrixImpl<F extends Field<F>> extends DenseMatrix<F> {
 
     @Override
     public DenseMatrixImpl<F> opposite() {
-        DenseMatrixImpl<F> M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).opposite());
-        }
-        return M;
+        final int m = _rows.size();
+        return DenseMatrixImpl.rows(m, (long) m * getNumberOfColumns(),
+                new RowOperation<F>() {
+
+                    @Override
+                    DenseVectorImpl<F> row(int i) {
+                        return _rows.get(i).opposite();
+                    }
+                });
     }
 
     @Override
-    public DenseMatrixImpl<F> plus(Matrix<F> that) {
-        DenseMatrixImpl<F> M = FACTORY.object();
+    public DenseMatrixImpl<F> plus(final Matrix<F> that) {
         final int m = _rows.size();
         if (that.getNumberOfRows() != m)
             throw new DimensionException();
-        for (int i = 0; i < m; i++) {
-            M._rows.add(_rows.get(i).plus(that.getRow(i)));
-        }
-        return M;
+        return DenseMatrixImpl.rows(m, (long) m * getNumberOfColumns(),
+                new RowOperation<F>() {
+
+                    @Override
+                    DenseVectorImpl<F> row(int i) {
+                        return _rows.get(i).plus(that.getRow(i));
+                    }
+                });
     }
 
     @Override
-    public DenseMatrixImpl<F> times(F k) {
-        DenseMatrixImpl<F> M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).times(k));
-        }
-        return M;
+    public DenseMatrixImpl<F> times(final F k) {
+        final int m = _rows.size();
+        return DenseMatrixImpl.rows(m, (long) m * getNumberOfColumns(),
+                new RowOperation<F>() {
+
+                    @Override
+                    DenseVectorImpl<F> row(int i) {
+                        return _rows.get(i).times(k);
+                    }
+                });
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public DenseMatrixImpl<F> times(Matrix<F> that) {
         //  This is a m-by-n matrix and that is a n-by-p matrix, the matrix result is mxp
         final int m = _rows.size();
@@ -164,18 +177,70 @@ final class DenseMatrixImpl<F extends Field<F>> extends DenseMatrix<F> {
         final int p = that.getNumberOfColumns(); // Number of columns of that.
         if (n != that.getNumberOfRows())
             throw new DimensionException();
+        final Vector<F>[] columns = new Vector[p]; // Extracted once.
+        for (int j = 0; j < p; j++) {
+            columns[j] = that.getColumn(j);
+        }
+        return DenseMatrixImpl.rows(m, 2L * m * n * p, new RowOperation<F>() {
+
+            @Override
+            DenseVectorImpl<F> row(int i) {
+                DenseVectorImpl<F> row = _rows.get(i);
+                DenseVectorImpl<F> V = DenseVectorImpl.FACTORY.object();
+                for (int j = 0; j < p; j++) {
+                    V._elements.add(row.times(columns[j]));
+                }
+                return V;
+            }
+        });
+    }
+
+    /**
+     * Returns the matrix whose rows are calculated by the specified
+     * operation. Rows are calculated concurrently by the {@link Scheduler}
+     * if the operation is costly enough.
+     *
+     * @param m the number of rows.
+     * @param operations the estimated number of field operations.
+     * @param operation the row operation.
+     * @return the corresponding matrix.
+     */
+    @SuppressWarnings("unchecked")
+    private static <F extends Field<F>> DenseMatrixImpl<F> rows(int m,
+            long operations, final RowOperation<F> operation) {
+        final Object[] rows = new Object[m];
+        final LocalSettings settings = LocalSettings.current();
+        Scheduler.execute(m, operations * Scheduler.FIELD_OPERATION_COST,
+                new Scheduler.Task() {
+
+                    @Override
+                    public void run(int start, int end) {
+                        boolean entered = settings.enter();
+                        try {
+                            for (int i = start; i < end; i++) {
+                                rows[i] = operation.row(i);
+                            }
+                        } finally {
+                            settings.exit(entered);
+                        }
+                    }
+                });
         DenseMatrixImpl<F> M = FACTORY.object();
         for (int i = 0; i < m; i++) {
-            DenseVectorImpl<F> V = DenseVectorImpl.FACTORY.object();
-            for (int j = 0; j < p; j++) {
-                F element = _rows.get(i).times(that.getColumn(j));
-                V._elements.add(element);
-            }
-            M._rows.add(V);
+            M._rows.add((DenseVectorImpl<F>) rows[i]);
         }
         return M;
     }
 
+    /**
+     * Represents an operation calculating the rows of a matrix
+     * independently.
+     */
+    private static abstract class RowOperation<F extends Field<F>> {
+
+        abstract DenseVectorImpl<F> row(int i);
+    }
+
     @Override
     public DenseMatrix<F> transpose() {
         return _transposedView;
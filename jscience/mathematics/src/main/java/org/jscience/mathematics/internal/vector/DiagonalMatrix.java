@@ -211,6 +211,28 @@ public class DiagonalMatrix<F extends Field<F>> extends SparseMatrix<F> {
         return DiagonalMatrix.valueOf(V);
     }
 
+    @Override
+    public DiagonalMatrix<F> inverse() {
+        final int n = _diagonal.getDimension();
+        DenseVectorImpl<F> V = DenseVectorImpl.FACTORY.object();
+        for (int i = 0; i < n; i++) {
+            V._elements.add(_diagonal.get(i).inverse());
+        }
+        return DiagonalMatrix.valueOf(V);
+    }
+
+    @Override
+    public F determinant() {
+        final int n = _diagonal.getDimension();
+        if (n == 0)
+            throw new DimensionException("Empty matrix");
+        F product = _diagonal.get(0);
+        for (int i = 1; i < n; i++) {
+            product = product.times(_diagonal.get(i));
+        }
+        return product;
+    }
+
     @Override
     public SparseMatrix<F> transpose() {
         return this;
@@ -0,0 +1,573 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2006 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.vector;
+
+import org.jscience.mathematics.internal.linear.Scheduler;
+import org.jscience.mathematics.number.LargeInteger;
+import org.jscience.mathematics.number.ModuloInteger;
+import org.jscience.mathematics.number.Rational;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> This class holds the <code>O(n³)</code> elimination algorithms used
+ *     by the default {@link Matrix#determinant determinant},
+ *     {@link Matrix#rank rank}, {@link Matrix#inverse inverse} and
+ *     {@link Matrix#solve(Matrix) solve} implementations.</p>
+ *
+ * <p> The determinant and the solutions of rational systems (except the
+ *     smallest ones) are calculated by {@link MultiModular multi-modular}
+ *     reduction and Chinese remaindering. The rank of rational matrices
+ *     and the modular ({@link ModuloInteger}) systems are resolved through
+ *     a fraction-free (Bareiss) elimination on integers once the rows
+ *     denominators are cleared (all intermediate values are exact minors
+ *     of the source matrix, which keeps their size bounded without gcd
+ *     calculations), respectively on the residues (the modulus has to be
+ *     prime). The rows of the trailing update are processed concurrently
+ *     by the {@link Scheduler}.
+ *     Others matrices are resolved through their {@link LUDecomposition}
+ *     (pivoting strategy selected according to the elements type).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, December 12, 2007
+ * @see <a href="http://en.wikipedia.org/wiki/Bareiss_algorithm">
+ *      Wikipedia: Bareiss algorithm</a>
+ */
+final class Elimination {
+
+    /**
+     * Holds the minimum dimension for which rational systems are resolved
+     * by the {@link MultiModular multi-modular} algorithms rather than by
+     * fraction-free elimination.
+     */
+    private static final int MULTI_MODULAR_THRESHOLD = 8;
+
+    /**
+     * Default constructor (private for utility class).
+     */
+    private Elimination() {
+    }
+
+    /**
+     * Returns the determinant of the specified square matrix.
+     *
+     * @param  A the matrix.
+     * @return <code>det(A)</code>
+     * @throws DimensionException if the specified matrix is not square.
+     */
+    @SuppressWarnings("unchecked")
+    static <F extends Field<F>> F determinant(Matrix<F> A) {
+        if (!A.isSquare())
+            throw new DimensionException("Matrix not square");
+        if (A.getNumberOfRows() == 1)
+            return A.get(0, 0);
+        if (isRational(A))
+            return (F) rationalDeterminant((Matrix<Rational>) (Matrix) A);
+        if (isModular(A))
+            return (F) modularDeterminant((Matrix<ModuloInteger>) (Matrix) A);
+        return LUDecomposition.valueOf(A).determinant();
+    }
+
+    /**
+     * Returns the rank of the specified matrix; exact for rational and
+     * modular matrices, based upon an exact zero test otherwise.
+     *
+     * @param  A the matrix.
+     * @return the maximum number of linearly independent rows (or columns).
+     */
+    @SuppressWarnings("unchecked")
+    static <F extends Field<F>> int rank(Matrix<F> A) {
+        final int m = A.getNumberOfRows();
+        final int n = A.getNumberOfColumns();
+        if ((m == 0) || (n == 0))
+            return 0;
+        LargeInteger[][] M = new LargeInteger[m][n];
+        Domain domain;
+        if (isRational(A)) {
+            domain = INTEGERS;
+            for (int i = 0; i < m; i++) {
+                clearDenominators((Matrix<Rational>) (Matrix) A, i, null, M[i]);
+            }
+        } else if (isModular(A)) {
+            domain = modular();
+            residues((Matrix<ModuloInteger>) (Matrix) A, null, M);
+        } else
+            return fieldRank(A);
+        return Math.abs(eliminate(M, n, domain));
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code>
+     * (least squares or minimum norm solution if <code>A</code> is not
+     * square).
+     *
+     * @param  A the matrix of coefficients.
+     * @param  B the right-hand side matrix.
+     * @return <code>X</code> such as <code>A · X = B</code>
+     * @throws DimensionException if the dimensions do not match.
+     */
+    @SuppressWarnings("unchecked")
+    static <F extends Field<F>> DenseMatrix<F> solve(Matrix<F> A, Matrix<F> B) {
+        if (A.getNumberOfRows() != B.getNumberOfRows())
+            throw new DimensionException("Right-hand side has "
+                    + B.getNumberOfRows() + " rows instead of "
+                    + A.getNumberOfRows());
+        if (A.getNumberOfRows() > A.getNumberOfColumns()) // Least squares.
+            return QRDecomposition.valueOf(A).solve(B);
+        if (A.getNumberOfRows() < A.getNumberOfColumns()) // Minimum norm.
+            return DenseMatrix.valueOf(A.pseudoInverse().times(B));
+        if (isRational(A) && isRational(B))
+            return (DenseMatrix<F>) (DenseMatrix) rationalSolve(
+                    (Matrix<Rational>) (Matrix) A,
+                    (Matrix<Rational>) (Matrix) B);
+        if (isModular(A) && isModular(B))
+            return (DenseMatrix<F>) (DenseMatrix) modularSolve(
+                    (Matrix<ModuloInteger>) (Matrix) A,
+                    (Matrix<ModuloInteger>) (Matrix) B);
+        return LUDecomposition.valueOf(A).solve(B);
+    }
+
+    /**
+     * Returns the inverse of the specified square matrix.
+     *
+     * @param  A the matrix to inverse.
+     * @return <code>1 / A</code>
+     * @throws DimensionException if the specified matrix is not square.
+     */
+    @SuppressWarnings("unchecked")
+    static <F extends Field<F>> DenseMatrix<F> inverse(Matrix<F> A) {
+        if (!A.isSquare())
+            throw new DimensionException("Matrix not square");
+        if (isRational(A)) {
+            DiagonalMatrix<Rational> I = DiagonalMatrix.valueOf(
+                    A.getNumberOfRows(), Rational.ONE);
+            return (DenseMatrix<F>) (DenseMatrix) rationalSolve(
+                    (Matrix<Rational>) (Matrix) A, I);
+        }
+        if (isModular(A)) {
+            DiagonalMatrix<ModuloInteger> I = DiagonalMatrix.valueOf(
+                    A.getNumberOfRows(), ModuloInteger.ONE);
+            return (DenseMatrix<F>) (DenseMatrix) modularSolve(
+                    (Matrix<ModuloInteger>) (Matrix) A, I);
+        }
+        return LUDecomposition.valueOf(A).inverse();
+    }
+
+    /**
+     * Indicates if the specified matrix holds rational elements.
+     */
+    private static boolean isRational(Matrix<?> M) {
+        return (M.getNumberOfRows() > 0) && (M.getNumberOfColumns() > 0)
+                && (M.get(0, 0) instanceof Rational);
+    }
+
+    /**
+     * Indicates if the specified matrix holds modular elements (modulus
+     * set).
+     */
+    private static boolean isModular(Matrix<?> M) {
+        return (M.getNumberOfRows() > 0) && (M.getNumberOfColumns() > 0)
+                && (M.get(0, 0) instanceof ModuloInteger)
+                && (ModuloInteger.getModulus() != null);
+    }
+
+    /**
+     * Calculates the determinant of a rational matrix (fraction-free).
+     */
+    private static Rational rationalDeterminant(Matrix<Rational> A) {
+        final int n = A.getNumberOfRows();
+        LargeInteger[][] M = new LargeInteger[n][];
+        LargeInteger scale = LargeInteger.ONE;
+        for (int i = 0; i < n; i++) {
+            M[i] = new LargeInteger[n];
+            scale = scale.times(clearDenominators(A, i, null, M[i]));
+        }
+        if (n >= MULTI_MODULAR_THRESHOLD)
+            return Rational.valueOf(MultiModular.determinant(M), scale);
+        int rank = eliminate(M, n, INTEGERS);
+        if (Math.abs(rank) < n)
+            return Rational.ZERO;
+        LargeInteger det = M[n - 1][n - 1];
+        return Rational.valueOf(rank > 0 ? det : det.opposite(), scale);
+    }
+
+    /**
+     * Calculates the determinant of a modular matrix.
+     */
+    private static ModuloInteger modularDeterminant(Matrix<ModuloInteger> A) {
+        final int n = A.getNumberOfRows();
+        LargeInteger[][] M = new LargeInteger[n][n];
+        residues(A, null, M);
+        Modular domain = modular();
+        int rank = eliminate(M, n, domain);
+        if (Math.abs(rank) < n)
+            return ModuloInteger.ZERO;
+        LargeInteger det = M[n - 1][n - 1];
+        return ModuloInteger.valueOf(rank > 0 ? det : domain.reduce(det
+                .opposite()));
+    }
+
+    /**
+     * Solves a rational system of equations (fraction-free).
+     */
+    private static DenseMatrixImpl<Rational> rationalSolve(
+            Matrix<Rational> A, Matrix<Rational> B) {
+        final int n = A.getNumberOfRows();
+        final int m = B.getNumberOfColumns();
+        LargeInteger[][] M = new LargeInteger[n][];
+        for (int i = 0; i < n; i++) {
+            M[i] = new LargeInteger[n + m];
+            clearDenominators(A, i, B, M[i]);
+        }
+        LargeInteger[][] Y;
+        LargeInteger d;
+        if (n >= MULTI_MODULAR_THRESHOLD) {
+            Y = MultiModular.solve(M, n);
+            d = Y[n][0];
+        } else {
+            Y = substitute(M, n, INTEGERS);
+            d = M[n - 1][n - 1];
+        }
+        DenseMatrixImpl<Rational> X = newMatrix(n, m);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                X.set(i, j, Rational.valueOf(Y[i][j], d));
+            }
+        }
+        return X;
+    }
+
+    /**
+     * Solves a modular system of equations.
+     */
+    private static DenseMatrixImpl<ModuloInteger> modularSolve(
+            Matrix<ModuloInteger> A, Matrix<ModuloInteger> B) {
+        final int n = A.getNumberOfRows();
+        final int m = B.getNumberOfColumns();
+        LargeInteger[][] M = new LargeInteger[n][n + m];
+        residues(A, B, M);
+        Modular domain = modular();
+        LargeInteger[][] Y = substitute(M, n, domain);
+        LargeInteger inverse = domain.divisor(M[n - 1][n - 1]);
+        DenseMatrixImpl<ModuloInteger> X = newMatrix(n, m);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                X.set(i, j, ModuloInteger.valueOf(domain.quotient(Y[i][j],
+                        inverse)));
+            }
+        }
+        return X;
+    }
+
+    /**
+     * Performs the elimination of <code>[A | B]</code> (<code>A</code>
+     * square of dimension <code>n</code>) followed by the fraction-free
+     * back substitution.
+     *
+     * @return <code>Y = det(A) · X</code> (integral), the determinant
+     *         (up to the sign) being <code>M[n - 1][n - 1]</code>.
+     * @throws ArithmeticException if <code>A</code> is singular.
+     */
+    private static LargeInteger[][] substitute(final LargeInteger[][] M,
+            final int n, final Domain domain) {
+        if (Math.abs(eliminate(M, n, domain)) < n)
+            throw new ArithmeticException("Matrix is singular");
+        final int m = M[0].length - n;
+        final LargeInteger d = M[n - 1][n - 1];
+        final LargeInteger[][] Y = new LargeInteger[n][m];
+        final LargeInteger[] divisors = new LargeInteger[n];
+        for (int i = 0; i < n; i++) {
+            divisors[i] = domain.divisor(M[i][i]);
+        }
+        long cost = (long) n * n * m * Scheduler.FIELD_OPERATION_COST
+                * (1 + d.bitLength() / 64);
+        Scheduler.execute(m, cost, new Scheduler.Task() { // Per column.
+
+            @Override
+            public void run(int start, int end) {
+                for (int j = start; j < end; j++) {
+                    Y[n - 1][j] = domain.reduce(M[n - 1][n + j]);
+                    for (int i = n - 2; i >= 0; i--) {
+                        LargeInteger[] row = M[i];
+                        LargeInteger sum = d.times(row[n + j]);
+                        for (int k = i + 1; k < n; k++) {
+                            if (!row[k].isZero()) {
+                                sum = sum.minus(row[k].times(Y[k][j]));
+                            }
+                        }
+                        Y[i][j] = domain.quotient(sum, divisors[i]); // Exact.
+                    }
+                }
+            }
+        });
+        return Y;
+    }
+
+    /**
+     * Performs the Bareiss elimination in place on the <code>n</code>
+     * first columns (others columns are updated accordingly); columns
+     * without pivot are skipped. On return the rows <code>[0..r[</code>
+     * are in echelon form (<code>r</code> the rank); if <code>r == n</code>,
+     * <code>M[k][k]</code> is the leading principal minor of order
+     * <code>k + 1</code> (row exchanges included).
+     *
+     * @return the rank <code>r</code>, negated if the row permutation is
+     *         odd.
+     */
+    private static int eliminate(final LargeInteger[][] M, final int n,
+            final Domain domain) {
+        final int m = M.length;
+        final int width = M[0].length;
+        int sign = 1;
+        int r = 0; // Current pivot row.
+        LargeInteger previous = null; // Previous pivot (none initially).
+        for (int k = 0; (k < n) && (r < m); k++) {
+            // The smallest non-zero pivot limits the size of the minors.
+            int pivot = -1;
+            for (int i = r; i < m; i++) {
+                if (M[i][k].isZero())
+                    continue;
+                if ((pivot < 0)
+                        || (domain.size(M[i][k]) < domain.size(M[pivot][k]))) {
+                    pivot = i;
+                }
+            }
+            if (pivot < 0)
+                continue; // No pivot in this column.
+            if (pivot != r) {
+                LargeInteger[] tmp = M[pivot];
+                M[pivot] = M[r];
+                M[r] = tmp;
+                sign = -sign;
+            }
+            update(M, r, k, width, (previous == null) ? null : domain
+                    .divisor(previous), domain);
+            previous = M[r][k];
+            r++;
+        }
+        return sign * r;
+    }
+
+    /**
+     * Updates the rows below the specified pivot row (concurrently for
+     * large matrices):
+     * <code>M[i][j] = (M[i][j]·M[r][k] - M[i][k]·M[r][j]) / previous</code>
+     * (exact division, Sylvester's identity).
+     */
+    private static void update(final LargeInteger[][] M, final int r,
+            final int k, final int width, final LargeInteger divisor,
+            final Domain domain) {
+        final LargeInteger[] rowr = M[r];
+        final LargeInteger mrk = rowr[k];
+        final int rows = M.length - r - 1;
+        long cost = (long) rows * (width - k) * Scheduler.FIELD_OPERATION_COST
+                * (1 + mrk.bitLength() / 64);
+        Scheduler.execute(rows, cost, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = r + 1 + start; i < r + 1 + end; i++) {
+                    LargeInteger[] rowi = M[i];
+                    LargeInteger mik = rowi[k];
+                    for (int j = k + 1; j < width; j++) {
+                        LargeInteger e = rowi[j].times(mrk);
+                        if (!mik.isZero()) {
+                            e = e.minus(mik.times(rowr[j]));
+                        }
+                        rowi[j] = (divisor == null) ? domain.reduce(e)
+                                : domain.quotient(e, divisor);
+                    }
+                    rowi[k] = LargeInteger.ZERO;
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the specified integer row to the row <code>i</code> of
+     * <code>[A | B]</code> multiplied by the least common multiple of its
+     * denominators.
+     *
+     * @return the multiplier.
+     */
+    private static LargeInteger clearDenominators(Matrix<Rational> A, int i,
+            Matrix<Rational> B, LargeInteger[] row) {
+        final int n = A.getNumberOfColumns();
+        final int m = (B == null) ? 0 : B.getNumberOfColumns();
+        LargeInteger lcm = LargeInteger.ONE;
+        for (int j = 0; j < n + m; j++) {
+            Rational r = (j < n) ? A.get(i, j) : B.get(i, j - n);
+            LargeInteger divisor = r.getDivisor();
+            if (!divisor.equals(1)) {
+                lcm = lcm.times(divisor.divide(lcm.gcd(divisor)));
+            }
+        }
+        for (int j = 0; j < n + m; j++) {
+            Rational r = (j < n) ? A.get(i, j) : B.get(i, j - n);
+            row[j] = r.getDividend().times(lcm.divide(r.getDivisor()));
+        }
+        return lcm;
+    }
+
+    /**
+     * Sets the specified integer matrix to the residues of
+     * <code>[A | B]</code>.
+     */
+    private static void residues(Matrix<ModuloInteger> A,
+            Matrix<ModuloInteger> B, LargeInteger[][] M) {
+        final int n = A.getNumberOfColumns();
+        final int m = (B == null) ? 0 : B.getNumberOfColumns();
+        for (int i = 0; i < M.length; i++) {
+            for (int j = 0; j < n + m; j++) {
+                M[i][j] = ((j < n) ? A.get(i, j) : B.get(i, j - n))
+                        .moduloValue();
+            }
+        }
+    }
+
+    /**
+     * Returns a dense matrix whose elements are to be set.
+     */
+    private static <F extends Field<F>> DenseMatrixImpl<F> newMatrix(int n,
+            int m) {
+        DenseMatrixImpl<F> X = DenseMatrixImpl.FACTORY.object();
+        for (int i = 0; i < n; i++) {
+            DenseVectorImpl<F> V = DenseVectorImpl.FACTORY.object();
+            for (int j = 0; j < m; j++) {
+                V._elements.add(null);
+            }
+            X._rows.add(V);
+        }
+        return X;
+    }
+
+    /**
+     * Calculates the rank of a matrix through Gaussian elimination, the
+     * zero test being exact.
+     */
+    private static <F extends Field<F>> int fieldRank(Matrix<F> A) {
+        final int m = A.getNumberOfRows();
+        final int n = A.getNumberOfColumns();
+        Object[][] M = new Object[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                M[i][j] = A.get(i, j);
+            }
+        }
+        F zero = A.get(0, 0).plus(A.get(0, 0).opposite());
+        int r = 0;
+        for (int k = 0; (k < n) && (r < m); k++) {
+            int pivot = r;
+            while ((pivot < m) && zero.equals(M[pivot][k])) {
+                pivot++;
+            }
+            if (pivot == m)
+                continue;
+            Object[] tmp = M[pivot];
+            M[pivot] = M[r];
+            M[r] = tmp;
+            @SuppressWarnings("unchecked")
+            F inverse = ((F) M[r][k]).inverse();
+            for (int i = r + 1; i < m; i++) {
+                @SuppressWarnings("unchecked")
+                F factor = ((F) M[i][k]).times(inverse).opposite();
+                for (int j = k + 1; j < n; j++) {
+                    @SuppressWarnings("unchecked")
+                    F e = ((F) M[i][j]).plus(factor.times((F) M[r][j]));
+                    M[i][j] = e;
+                }
+                M[i][k] = zero;
+            }
+            r++;
+        }
+        return r;
+    }
+
+    /**
+     * Returns the modular domain for the current modulus.
+     */
+    private static Modular modular() {
+        return new Modular(ModuloInteger.getModulus());
+    }
+
+    /**
+     * Holds the integers domain.
+     */
+    private static final Domain INTEGERS = new Domain();
+
+    /**
+     * The integral domain over which the elimination is performed
+     * (integers by default).
+     */
+    private static class Domain {
+
+        /**
+         * Returns the size of the specified element (smaller pivots are
+         * preferred).
+         */
+        int size(LargeInteger a) {
+            return a.bitLength();
+        }
+
+        /**
+         * Returns the canonical representative of the specified element.
+         */
+        LargeInteger reduce(LargeInteger a) {
+            return a;
+        }
+
+        /**
+         * Returns the divisor to be used by {@link #quotient} for exact
+         * divisions by the specified element.
+         */
+        LargeInteger divisor(LargeInteger a) {
+            return a;
+        }
+
+        /**
+         * Returns the exact quotient of the specified element by the
+         * specified divisor.
+         */
+        LargeInteger quotient(LargeInteger a, LargeInteger divisor) {
+            return a.divide(divisor);
+        }
+    }
+
+    /**
+     * The integers modulo a prime (divisions are multiplications by the
+     * modular inverse).
+     */
+    private static final class Modular extends Domain {
+
+        private final LargeInteger _modulus;
+
+        Modular(LargeInteger modulus) {
+            _modulus = modulus;
+        }
+
+        @Override
+        int size(LargeInteger a) {
+            return 0; // Any non-zero pivot.
+        }
+
+        @Override
+        LargeInteger reduce(LargeInteger a) {
+            return a.mod(_modulus);
+        }
+
+        @Override
+        LargeInteger divisor(LargeInteger a) {
+            return a.modInverse(_modulus);
+        }
+
+        @Override
+        LargeInteger quotient(LargeInteger a, LargeInteger divisor) {
+            return a.times(divisor).mod(_modulus);
+        }
+    }
+}
@@ -11,9 +11,12 @@ package org.jscience.mathematics.internal.vector;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import javolution.context.ArrayFactory;
 import javolution.context.ObjectFactory;
 import javolution.util.FastTable;
 import javolution.util.Index;
+import org.jscience.mathematics.internal.linear.Float64Kernel;
+import org.jscience.mathematics.internal.linear.Scheduler;
 import org.jscience.mathematics.number.Float64;
 
 /**
@@ -144,32 +147,35 @@ public class Float64Matrix extends DenseMatrix<Float64> {
 
     @Override
     public Float64Matrix opposite() {
-        Float64Matrix M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).opposite());
-        }
-        return M;
+        final int m = _rows.size();
+        return Float64Matrix.rows(m, (long) m * getNumberOfColumns(),
+                new RowOperation() {
+
+                    @Override
+                    Float64Vector row(int i) {
+                        return _rows.get(i).opposite();
+                    }
+                });
     }
 
     @Override
-    public Float64Matrix plus(Matrix<Float64> that) {
-        Float64Matrix M = FACTORY.object();
+    public Float64Matrix plus(final Matrix<Float64> that) {
         final int m = _rows.size();
         if (that.getNumberOfRows() != m)
             throw new DimensionException();
-        for (int i = 0; i < m; i++) {
-            M._rows.add(_rows.get(i).plus(that.getRow(i)));
-        }
-        return M;
+        return Float64Matrix.rows(m, (long) m * getNumberOfColumns(),
+                new RowOperation() {
+
+                    @Override
+                    Float64Vector row(int i) {
+                        return _rows.get(i).plus(that.getRow(i));
+                    }
+                });
     }
 
     @Override
     public Float64Matrix times(Float64 k) {
-        Float64Matrix M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).times(k));
-        }
-        return M;
+        return this.times(k.doubleValue());
     }
 
     /**
@@ -178,35 +184,169 @@ public class Float64Matrix extends DenseMatrix<Float64> {
      * @param k the coefficient.
      * @return <code>this * k</code>
      */
-    public Float64Matrix times(double k) {
+    public Float64Matrix times(final double k) {
+        final int m = _rows.size();
+        return Float64Matrix.rows(m, (long) m * getNumberOfColumns(),
+                new RowOperation() {
+
+                    @Override
+                    Float64Vector row(int i) {
+                        return _rows.get(i).times(k);
+                    }
+                });
+    }
+
+    /**
+     * Returns the matrix whose rows are calculated by the specified
+     * operation. Rows are calculated concurrently by the {@link Scheduler}
+     * if the operation is costly enough.
+     *
+     * @param m the number of rows.
+     * @param cost the estimated number of floating point operations.
+     * @param operation the row operation.
+     * @return the corresponding matrix.
+     */
+    private static Float64Matrix rows(int m, long cost,
+            final RowOperation operation) {
+        final Float64Vector[] rows = new Float64Vector[m];
+        Scheduler.execute(m, cost, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    rows[i] = operation.row(i);
+                }
+            }
+        });
         Float64Matrix M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).times(k));
+        for (int i = 0; i < m; i++) {
+            M._rows.add(rows[i]);
         }
         return M;
     }
 
+    /**
+     * Represents an operation calculating the rows of a matrix
+     * independently.
+     */
+    private static abstract class RowOperation {
+
+        abstract Float64Vector row(int i);
+    }
+
+    /**
+     * Returns the product of this matrix by the one specified. 
+     * The calculation is performed by the cache-blocked (and concurrent for
+     * large matrices) {@link Float64Kernel#multiply kernel} on contiguous
+     * copies of the operands (transposed views are not copied twice).
+     *
+     * @param  that the matrix multiplier.
+     * @return <code>this · that</code>.
+     * @throws DimensionException if 
+     *         <code>this.getNumberOfColumns() != that.getNumberOfRows()</code>
+     */
     @Override
     public Float64Matrix times(Matrix<Float64> that) {
-        //  This is a m-by-n matrix and that is a n-by-p matrix, the matrix result is mxp
-        final int m = _rows.size();
-        final int n = _rows.get(0).getDimension(); // Number of columns of this.
-        final int p = that.getNumberOfColumns(); // Number of columns of that.
-        if (n != that.getNumberOfRows())
+        return Float64Matrix.multiply(this, that);
+    }
+
+    /**
+     * Returns the product of the specified matrices (blocked kernel).
+     */
+    static Float64Matrix multiply(Matrix<Float64> left, Matrix<Float64> right) {
+        //  Left is a m-by-n matrix and right is a n-by-p matrix, the matrix result is mxp
+        final int m = left.getNumberOfRows();
+        final int n = left.getNumberOfColumns();
+        final int p = right.getNumberOfColumns();
+        if (n != right.getNumberOfRows())
             throw new DimensionException();
+        double[] a = ArrayFactory.DOUBLES_FACTORY.array(m * n);
+        double[] b = ArrayFactory.DOUBLES_FACTORY.array(n * p);
+        double[] c = ArrayFactory.DOUBLES_FACTORY.array(m * p);
+        try {
+            boolean aTransposed = toArray(left, a);
+            boolean bTransposed = toArray(right, b);
+            Float64Kernel.multiply(m, n, p, 1.0,
+                    a, 0, aTransposed ? 1 : n, aTransposed ? m : 1,
+                    b, 0, bTransposed ? 1 : p, bTransposed ? n : 1,
+                    0.0, c, 0, p);
+            Float64Matrix M = FACTORY.object();
+            for (int i = 0; i < m; i++) {
+                Float64Vector V = Float64Vector.FACTORY.array(p);
+                V._dimension = p;
+                System.arraycopy(c, i * p, V._values, 0, p);
+                M._rows.add(V);
+            }
+            return M;
+        } finally {
+            ArrayFactory.DOUBLES_FACTORY.recycle(a);
+            ArrayFactory.DOUBLES_FACTORY.recycle(b);
+            ArrayFactory.DOUBLES_FACTORY.recycle(c);
+        }
+    }
+
+    /**
+     * Returns a matrix holding the specified row-major values.
+     */
+    static Float64Matrix valueOf(int m, int n, double[] values) {
         Float64Matrix M = FACTORY.object();
         for (int i = 0; i < m; i++) {
-            Float64Vector V = Float64Vector.FACTORY.array(p);
-            V._dimension = p;
-            for (int j = 0; j < p; j++) {
-                Float64 element = _rows.get(i).times(that.getColumn(j));
-                V._values[j] = element.doubleValue();
-            }
+            Float64Vector V = Float64Vector.FACTORY.array(n);
+            V._dimension = n;
+            System.arraycopy(values, i * n, V._values, 0, n);
             M._rows.add(V);
         }
         return M;
     }
 
+    /**
+     * Returns the row-major values of the specified matrix (new array of
+     * <code>m * n</code> values).
+     */
+    static double[] values(Matrix<Float64> matrix) {
+        final int m = matrix.getNumberOfRows();
+        final int n = matrix.getNumberOfColumns();
+        double[] values = new double[m * n];
+        if (!toArray(matrix, values))
+            return values;
+        double[] transposed = new double[m * n]; // Column-major copy.
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                transposed[i * n + j] = values[j * m + i];
+            }
+        }
+        return transposed;
+    }
+
+    /**
+     * Copies the elements of the specified matrix into the specified array
+     * (row-major); transposed views are copied column-major.
+     *
+     * @return <code>true</code> if the elements are stored column-major;
+     *         <code>false</code> otherwise.
+     */
+    private static boolean toArray(Matrix<Float64> matrix, double[] values) {
+        if (matrix instanceof Float64Matrix.TransposedView) {
+            toArray(((Float64Matrix.TransposedView) matrix).transpose(), values);
+            return true;
+        }
+        final int m = matrix.getNumberOfRows();
+        final int n = matrix.getNumberOfColumns();
+        if (matrix instanceof Float64Matrix) {
+            FastTable<Float64Vector> rows = ((Float64Matrix) matrix)._rows;
+            for (int i = 0; i < m; i++) {
+                System.arraycopy(rows.get(i)._values, 0, values, i * n, n);
+            }
+        } else {
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < n; j++) {
+                    values[i * n + j] = matrix.get(i, j).doubleValue();
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public DenseMatrix<Float64> transpose() {
         return _transposedView;
@@ -258,7 +398,7 @@ public class Float64Matrix extends DenseMatrix<Float64> {
 
         @Override
         public DenseMatrix<Float64> times(Matrix<Float64> that) {
-            return Float64Matrix.valueOf(this).times(that);
+            return Float64Matrix.multiply(this, that);
         }
 
         @Override
@@ -10,8 +10,12 @@ package org.jscience.mathematics.internal.vector;
 
 import java.util.Comparator;
 
+import org.jscience.mathematics.internal.linear.Float64LU;
 import org.jscience.mathematics.structure.Field;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.ModuloInteger;
 import org.jscience.mathematics.number.Number;
+import org.jscience.mathematics.number.Rational;
 
 import javolution.context.LocalContext;
 import javolution.context.ObjectFactory;
@@ -29,16 +33,25 @@ import javolution.util.Index;
  *     of equations (Gaussian elimination) or to calculate the determinant
  *     of a square {@link Matrix} (<code>O(m³)</code>).</p>
  *     
- * <p> Numerical stability is guaranteed through pivoting if the
- *     {@link Field} elements are {@link Number numbers}
- *     For others elements types, numerical stability can be ensured by setting
- *     the {@link javolution.context.LocalContext context-local} pivot 
- *     comparator (see {@link #setPivotComparator}).</p>
+ * <p> The pivoting strategy is selected according to the elements type
+ *     (see {@link #DEFAULT_COMPARATOR}): numerical stability is guaranteed
+ *     through partial pivoting if the {@link Field} elements are inexact
+ *     {@link Number numbers}; for exact elements (e.g. {@link Rational},
+ *     {@link ModuloInteger}) rows are only exchanged when a zero pivot
+ *     is encountered. For others elements types, numerical stability can
+ *     be ensured by setting the {@link javolution.context.LocalContext 
+ *     context-local} pivot comparator (see {@link #setPivotComparator}).</p>
  *     
  * <p> Pivoting can be disabled by setting the {@link #setPivotComparator 
  *     pivot comparator} to <code>null</code> ({@link #getPermutation P} 
  *     is then the matrix identity).</p>
  *     
+ * <p> Matrices of {@link Float64} elements with numeric partial pivoting
+ *     (default) are decomposed in place upon a <code>double</code> array
+ *     by the blocked {@link Float64LU} algorithm (no boxing; the trailing
+ *     updates and the substitutions for many right-hand sides are matrix
+ *     products).</p>
+ *     
  * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @version 3.3, January 2, 2007
  * @see <a href="http://en.wikipedia.org/wiki/LU_decomposition">
@@ -63,12 +76,38 @@ public final class LUDecomposition<F extends Field<F>>  {
         }
     };
 
+    /**
+     * Holds the comparator for exact elements. Any non-zero element is an
+     * acceptable pivot; rows are exchanged only to avoid a zero pivot
+     * (exchanges do not improve the accuracy of exact calculations).
+     */
+    public static final Comparator<Field<?>> EXACT_COMPARATOR = new Comparator<Field<?>>() {
+
+        @SuppressWarnings("unchecked")
+        public int compare(Field left, Field right) {
+            return (isZero(right) && !isZero(left)) ? 1 : -1;
+        }
+    };
+
+    /**
+     * Holds the default comparator for pivoting; it behaves as the 
+     * {@link #EXACT_COMPARATOR} for {@link Rational} and {@link ModuloInteger}
+     * elements and as the {@link #NUMERIC_COMPARATOR} otherwise.
+     */
+    public static final Comparator<Field<?>> DEFAULT_COMPARATOR = new Comparator<Field<?>>() {
+
+        public int compare(Field<?> left, Field<?> right) {
+            return isExact(left) ? EXACT_COMPARATOR.compare(left, right)
+                    : NUMERIC_COMPARATOR.compare(left, right);
+        }
+    };
+
     /**
      * Holds the local comparator.
      */
     private static final LocalContext.Reference<Comparator<Field<?>>> 
        PIVOT_COMPARATOR = new LocalContext.Reference<Comparator<Field<?>>>(
-            NUMERIC_COMPARATOR);
+            DEFAULT_COMPARATOR);
 
    /**
      * Holds the object factory.
@@ -81,6 +120,7 @@ public final class LUDecomposition<F extends Field<F>>  {
         @Override
         protected void cleanup(LUDecomposition lu) {
             lu._LU = null;
+            lu._float64 = null;
         }
     };
 
@@ -104,6 +144,12 @@ public final class LUDecomposition<F extends Field<F>>  {
      */
     private int _permutationCount;
 
+    /**
+     * Holds the decomposition of <code>double</code> values 
+     * (<code>null</code> if elements are not {@link Float64}).
+     */
+    private Float64LU _float64;
+
     /**
      * Default constructor.
      */
@@ -117,6 +163,7 @@ public final class LUDecomposition<F extends Field<F>>  {
      * @return the lower/upper decomposition of the specified matrix.
      * @throws DimensionException if the specified matrix is not square.
      */
+    @SuppressWarnings("unchecked")
     public static <F extends Field<F>> LUDecomposition<F> valueOf(
             Matrix<F> source) {
         if (!source.isSquare())
@@ -125,10 +172,31 @@ public final class LUDecomposition<F extends Field<F>>  {
         LUDecomposition lu = FACTORY.object();
         lu._n = dimension;
         lu._permutationCount = 0;
-        lu.construct(source);
+        Comparator<Field<?>> cmp = LUDecomposition.getPivotComparator();
+        if ((dimension > 0) && (source.get(0, 0) instanceof Float64)
+                && ((cmp == DEFAULT_COMPARATOR) || (cmp == NUMERIC_COMPARATOR))) {
+            lu.constructFloat64((Matrix<Float64>) source);
+        } else {
+            lu.construct(source);
+        }
         return lu;
     }
 
+    /**
+     * Constructs the LU decomposition of the specified matrix of 
+     * {@link Float64} elements (blocked, in place).
+     *
+     * @param  source the matrix to decompose.
+     */
+    private void constructFloat64(Matrix<Float64> source) {
+        _float64 = Float64LU.wrap(_n, Float64Matrix.values(source));
+        _permutationCount = _float64.getPermutationCount();
+        _pivots.clear();
+        for (int pivot : _float64.getPivots()) {
+            _pivots.add(Index.valueOf(pivot));
+        }
+    }
+
     /**
      * Constructs the LU decomposition of the specified matrix.
      * We make the choise of Lii = ONE (diagonal elements of the
@@ -147,6 +215,9 @@ public final class LUDecomposition<F extends Field<F>>  {
 
         // Main loop.
         Comparator<Field<?>> cmp = LUDecomposition.getPivotComparator();
+        if ((cmp == DEFAULT_COMPARATOR) && (_n > 0)) { // Resolves once.
+            cmp = isExact(_LU.get(0, 0)) ? EXACT_COMPARATOR : NUMERIC_COMPARATOR;
+        }
         final int n = _n;
         for (int k = 0; k < _n; k++) {
 
@@ -174,19 +245,47 @@ public final class LUDecomposition<F extends Field<F>>  {
             }
 
             // Computes multipliers and eliminate k-th column.
-            F lukkInv = _LU.get(k, k).inverse();
+            F lukk = _LU.get(k, k);
+            if (isZero(lukk))
+                continue; // Singular, the k-th column is already eliminated.
+            F lukkInv = lukk.inverse();
             for (int i = k + 1; i < n; i++) {
                 // Multiplicative order is important
                 // for non-commutative elements.
-                _LU.set(i, k, _LU.get(i, k).times(lukkInv));
+                F luik = _LU.get(i, k).times(lukkInv);
+                _LU.set(i, k, luik);
+                if (isZero(luik))
+                    continue; // Nothing to eliminate.
+                F luikOpposite = luik.opposite();
                 for (int j = k + 1; j < n; j++) {
                     _LU.set(i, j, _LU.get(i, j).plus(
-                            _LU.get(i, k).times(_LU.get(k, j).opposite())));
+                            luikOpposite.times(_LU.get(k, j))));
                 }
             }
         }
     }
 
+    /**
+     * Indicates if the specified element is exactly the additive identity
+     * (infinite elements are not zero even though <code>e + e = e</code>).
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isZero(Field e) {
+        if (e instanceof Rational)
+            return ((Rational) e).isZero();
+        if (e instanceof Number)
+            return ((Number) e).doubleValue() == 0.0;
+        return e.equals(e.plus(e.opposite()));
+    }
+
+    /**
+     * Indicates if the specified element calculations are exact (no
+     * rounding errors).
+     */
+    private static boolean isExact(Field<?> e) {
+        return (e instanceof Rational) || (e instanceof ModuloInteger);
+    }
+
     /**
      * Sets the {@link javolution.context.LocalContext local} comparator used 
      * for pivoting or <code>null</code> to disable pivoting.
@@ -200,7 +299,7 @@ public final class LUDecomposition<F extends Field<F>>  {
     /**
      * Returns the {@link javolution.context.LocalContext local} 
      * comparator used for pivoting or <code>null</code> if pivoting 
-     * is not performed (default {@link #NUMERIC_COMPARATOR}).
+     * is not performed (default {@link #DEFAULT_COMPARATOR}).
      *
      * @return the comparator for pivoting or <code>null</code>.
      */
@@ -216,10 +315,16 @@ public final class LUDecomposition<F extends Field<F>>  {
      * @return the solution X = (1 / A) * B.
      * @throws DimensionException if the dimensions do not match.
      */
+    @SuppressWarnings("unchecked")
     public DenseMatrix<F> solve(Matrix<F> B) {
         if (_n != B.getNumberOfRows())
             throw new DimensionException("Input vector has "
                     + B.getNumberOfRows() + " rows instead of " + _n);
+        if (_float64 != null) {
+            final int p = B.getNumberOfColumns();
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, p,
+                    _float64.solve(p, Float64Matrix.values((Matrix<Float64>) B)));
+        }
 
         // Copies B with pivoting.
         final int n = B.getNumberOfColumns();
@@ -243,8 +348,9 @@ public final class LUDecomposition<F extends Field<F>>  {
 
         // Solves U * X = Y;
         for (int k = _n - 1; k >= 0; k--) {
+            F lukkInv = _LU.get(k, k).inverse();
             for (int j = 0; j < n; j++) {
-                X.set(k, j, (_LU.get(k, k).inverse()).times(X.get(k, j)));
+                X.set(k, j, lukkInv.times(X.get(k, j)));
             }
             for (int i = 0; i < k; i++) {
                 F luik = _LU.get(i, k);
@@ -275,7 +381,11 @@ public final class LUDecomposition<F extends Field<F>>  {
      *
      * @return <code>this.solve(Identity)</code>
      */
+    @SuppressWarnings("unchecked")
     public DenseMatrix<F> inverse() {
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, _n,
+                    _float64.inverse());
         // Calculates inv(U).
         final int n = _n;
         DenseMatrixImpl<F> R = createNullDenseMatrix(n, n);
@@ -329,7 +439,10 @@ public final class LUDecomposition<F extends Field<F>>  {
      *
      * @return the determinant of the matrix source.
      */
+    @SuppressWarnings("unchecked")
     public F determinant() {
+        if (_float64 != null)
+            return (F) Float64.valueOf(_float64.determinant());
         F product = _LU.get(0, 0);
         for (int i = 1; i < _n; i++) {
             product = product.times(_LU.get(i, i));
@@ -345,7 +458,11 @@ public final class LUDecomposition<F extends Field<F>>  {
      * @param one the multiplicative identity for F.
      * @return the lower matrix.
      */
+    @SuppressWarnings("unchecked")
     public DenseMatrix<F> getLower(F zero, F one) {
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, _n,
+                    _float64.getLower());
         DenseMatrixImpl<F> L = _LU.copy();
         for (int j = 0; j < _n; j++) {
             for (int i = 0; i < j; i++) {
@@ -362,7 +479,11 @@ public final class LUDecomposition<F extends Field<F>>  {
      * @param zero the additive identity for F.
      * @return the upper matrix.
      */
+    @SuppressWarnings("unchecked")
     public DenseMatrix<F> getUpper(F zero) {
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, _n,
+                    _float64.getUpper());
         DenseMatrixImpl<F> U = _LU.copy();
         for (int j = 0; j < _n; j++) {
             for (int i = j + 1; i < _n; i++) {
@@ -381,16 +502,17 @@ public final class LUDecomposition<F extends Field<F>>  {
      */
     public SparseMatrix<F> getPermutation(F zero, F one) {
         SparseMatrixImpl<F> P = SparseMatrixImpl.FACTORY.object();
-        for (int i=0; i < _n; i++) {
-            SparseVectorImpl<F> V = SparseVectorImpl.FACTORY.object();
-            V._dimension = _n;
-            V._zero = zero;
-            P._rows.add(V);
-        }
-        // Sets elements.
+        P._m = _n;
+        P._n = _n;
+        P._zero = zero;
+        P._pointers = new int[_n + 1];
+        P._indices = new int[_n];
+        P._elements = new Object[_n];
+        // Sets elements (one per row).
         for (int i = 0; i < _n; i++) {
-            P.getRow(_pivots.get(i).intValue())._elements.put(Index.valueOf(i),
-                    one);
+            P._indices[_pivots.get(i).intValue()] = i;
+            P._elements[i] = one;
+            P._pointers[i + 1] = i + 1;
         }
         return P;
     }
@@ -400,7 +522,11 @@ public final class LUDecomposition<F extends Field<F>>  {
      *
      * @return the lower/upper matrix merged in a single matrix.
      */
+    @SuppressWarnings("unchecked")
     public DenseMatrix<F> getLU() {
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, _n,
+                    _float64.getLU());
         return _LU;
     }
 
@@ -0,0 +1,93 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2006 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.vector;
+
+import javolution.context.LocalContext;
+import org.jscience.mathematics.number.Decimal;
+import org.jscience.mathematics.number.FixedPoint;
+import org.jscience.mathematics.number.LargeInteger;
+import org.jscience.mathematics.number.ModuloInteger;
+import org.jscience.mathematics.number.Real;
+
+/**
+ * <p> This class holds a snapshot of the {@link LocalContext context-local}
+ *     settings of the number classes (modulus, precision, exactness);
+ *     it allows tasks executed by helper threads of the
+ *     {@link org.jscience.mathematics.internal.linear.Scheduler Scheduler}
+ *     to perform their calculations with the settings of the calling
+ *     thread.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, December 12, 2007
+ */
+public final class LocalSettings {
+
+    private final Thread _thread;
+
+    private final LargeInteger _modulus;
+
+    private final int _decimalDigits;
+
+    private final int _fractionalDigits;
+
+    private final int _realExactness;
+
+    private final int _realDigitsForError;
+
+    /**
+     * Captures the settings of the current thread.
+     */
+    private LocalSettings() {
+        _thread = Thread.currentThread();
+        _modulus = ModuloInteger.getModulus();
+        _decimalDigits = Decimal.getDigits();
+        _fractionalDigits = FixedPoint.getFractionalDigits();
+        _realExactness = Real.getExactness();
+        _realDigitsForError = Real.getMaximumDigitsForError();
+    }
+
+    /**
+     * Returns the settings of the current thread.
+     *
+     * @return the current settings.
+     */
+    public static LocalSettings current() {
+        return new LocalSettings();
+    }
+
+    /**
+     * Enters a local context holding these settings, unless the current
+     * thread is the one these settings have been captured from.
+     *
+     * @return <code>true</code> if a local context has been entered
+     *         (to be {@link #exit exited}); <code>false</code> otherwise.
+     */
+    public boolean enter() {
+        if (Thread.currentThread() == _thread)
+            return false;
+        LocalContext.enter();
+        ModuloInteger.setModulus(_modulus);
+        Decimal.setDigits(_decimalDigits);
+        FixedPoint.setFractionalDigits(_fractionalDigits);
+        Real.setExactness(_realExactness);
+        Real.setMaximumDigitsForError(_realDigitsForError);
+        return true;
+    }
+
+    /**
+     * Exits the local context entered by {@link #enter}.
+     *
+     * @param entered the value returned by {@link #enter}.
+     */
+    public void exit(boolean entered) {
+        if (entered) {
+            LocalContext.exit();
+        }
+    }
+}
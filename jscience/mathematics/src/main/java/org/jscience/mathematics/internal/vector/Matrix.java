@@ -69,10 +69,15 @@ import org.jscience.mathematics.structure.VectorSpace;
  *     equations with matrix coefficients.</p>
  *     
  * <p> Implementation Note: Matrices may use {@link 
- *     javolution.context.StackContext StackContext} and {@link 
- *     javolution.context.ConcurrentContext ConcurrentContext} in order to 
- *     minimize heap allocation and accelerate calculations on multi-core 
- *     systems.</p>
+ *     javolution.context.StackContext StackContext} in order to minimize
+ *     heap allocation. Dense matrices operations (products, sums, scaling)
+ *     are split by rows or tiles and executed concurrently by the
+ *     {@link org.jscience.mathematics.internal.linear.Scheduler Scheduler}
+ *     to accelerate calculations on multi-core systems (see 
+ *     {@link org.jscience.mathematics.internal.linear.Scheduler#CONCURRENCY
+ *     CONCURRENCY} and {@link 
+ *     org.jscience.mathematics.internal.linear.Scheduler#SEQUENTIAL_THRESHOLD
+ *     SEQUENTIAL_THRESHOLD}).</p>
  * 
  * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @version 3.3, December 24, 2006
@@ -267,19 +272,16 @@ public abstract class Matrix<F extends Field<F>>
 
     /**
      * Returns the inverse of this matrix (must be square).
-     * The default implementation returns
-     * <code>determinant.inverse().times(this.adjoint())</code>
+     * The default implementation uses Gaussian elimination
+     * (<code>O(n³)</code>): fraction-free for {@link 
+     * org.jscience.mathematics.number.Rational Rational} elements,
+     * {@link LUDecomposition LU decomposition} otherwise.
      *
      * @return <code>1 / this</code>
      * @throws DimensionException if this matrix is not square.
      */
     public Matrix<F> inverse() {
-        if (!isSquare())
-            throw new DimensionException("Matrix not square");
-        // F product might not be commutative.
-        DiagonalMatrix<F> detInv = DiagonalMatrix.valueOf(this.getNumberOfRows(),
-                this.determinant().inverse());
-        return detInv.times(this.adjoint());
+        return Elimination.inverse(this);
     }
 
     /**
@@ -296,44 +298,44 @@ public abstract class Matrix<F extends Field<F>>
 
     /**
      * Returns the inverse or pseudo-inverse if this matrix if not square.
+     * The pseudo-inverse is calculated from the {@link QRDecomposition} of
+     * this matrix (or of its transpose if it has more columns than rows).
      *
      * @return the inverse or pseudo-inverse of this matrix.
      */
     public Matrix<F> pseudoInverse() {
         if (isSquare())
             return this.inverse();
-        Matrix<F> thisTranspose = this.transpose();
-        return (thisTranspose.times(this)).inverse().times(thisTranspose);
+        if (getNumberOfRows() > getNumberOfColumns())
+            return QRDecomposition.valueOf(this).pseudoInverse();
+        return QRDecomposition.valueOf(this.transpose()).pseudoInverse()
+                .transpose();
     }
 
     /**
      * Returns the determinant of this matrix. The default implementation
-     * uses an expansion by minors (also known as Laplacian).
-     * This algorithm is division free but too slow for {@link DenseMatrix}
-     * which uses the LU decomposition.
+     * uses Gaussian elimination (<code>O(n³)</code>): fraction-free for 
+     * {@link org.jscience.mathematics.number.Rational Rational} elements,
+     * {@link LUDecomposition LU decomposition} otherwise.
      *
      * @return this matrix determinant.
      * @throws DimensionException if this matrix is not square.
      */
     public F determinant() {
-        if (!isSquare())
-            throw new DimensionException("Matrix not square");
-        if (this.getNumberOfRows() == 1)
-            return this.get(0, 0);
-        // This algorithm is division free but too slow for dense matrix.
-        Vector<F> row0 = this.getRow(0);
-        F det = null;
-        for (int i = 0; i < row0.getDimension(); i++) {
-            F e = row0.get(i);
-            if (e.equals(e.opposite()))
-                continue; // Optimization.
-            F d = e.times(cofactor(0, i));
-            if (i % 2 != 0) {
-                d = d.opposite();
-            }
-            det = (det == null) ? d : det.plus(d);
-        }
-        return det == null ? row0.get(0) : det; // det null only if zero everywhere.
+        return Elimination.determinant(this);
+    }
+
+    /**
+     * Returns the rank of this matrix. The default implementation uses
+     * Gaussian elimination (<code>O(n³)</code>): fraction-free for
+     * {@link org.jscience.mathematics.number.Rational Rational} and
+     * {@link org.jscience.mathematics.number.ModuloInteger ModuloInteger}
+     * elements (exact), with an exact zero test otherwise.
+     *
+     * @return the maximum number of linearly independent rows.
+     */
+    public int rank() {
+        return Elimination.rank(this);
     }
 
     /**
@@ -426,15 +428,17 @@ public abstract class Matrix<F extends Field<F>>
     /**
      * Solves this matrix for the specified matrix (returns <code>x</code>
      * such as <code>this · x = y</code>). The default implementation
-     * returns <code>this.inverse().times(y)</code>
+     * uses Gaussian elimination (<code>O(n³)</code>), the inverse of this
+     * matrix is not calculated. Non-square matrices are resolved through
+     * their {@link QRDecomposition}: least squares solution if this matrix
+     * has more rows than columns, minimum norm solution otherwise.
      * 
      * @param  y the matrix for which the solution is calculated.
      * @return <code>x</code> such as <code>this · x = y</code>
-     * @throws DimensionException if that matrix is not square or dimensions 
-     *         do not match.
+     * @throws DimensionException if the dimensions do not match.
      */
     public Matrix<F> solve(Matrix<F> y) {
-        return this.inverse().times(y); // Default implementation.
+        return Elimination.solve(this, y);
     }
 
     /**
@@ -0,0 +1,502 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2006 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.vector;
+
+import org.jscience.mathematics.internal.linear.Scheduler;
+import org.jscience.mathematics.number.LargeInteger;
+
+/**
+ * <p> This class holds the multi-modular algorithms for the exact
+ *     determinant and solution of integer systems of equations.</p>
+ *
+ * <p> The integer matrix is reduced modulo word-size primes (less than
+ *     <code>2<sup>31</sup></code> in order for the products to hold on a
+ *     <code>long</code>); each image is resolved by Gaussian elimination
+ *     using primitive arithmetic, the primes being processed concurrently
+ *     by the {@link Scheduler}. The results are then lifted using the
+ *     Chinese remainder theorem:<ul>
+ *     <li> The determinant once the product of the primes exceeds twice
+ *          the Hadamard bound.</li>
+ *     <li> The solution by rational reconstruction as soon as the
+ *          reconstructed solution verifies the system (often well before
+ *          the Hadamard bound when the denominators are small); at the
+ *          latest from the numerators of Cramer's rule when the bound is
+ *          reached.</li></ul>
+ *     In both cases the result is certified (it does not depend upon the
+ *     choice of the primes).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, December 12, 2007
+ * @see <a href="http://en.wikipedia.org/wiki/Chinese_remainder_theorem">
+ *      Wikipedia: Chinese remainder theorem</a>
+ */
+final class MultiModular {
+
+    /**
+     * Holds the number of bits of the primes (at least).
+     */
+    private static final int PRIME_BITS = 30;
+
+    /**
+     * Holds the primes generated so far (decreasing from
+     * <code>2<sup>31</sup></code>).
+     */
+    private static long[] _Primes = new long[0];
+
+    /**
+     * Default constructor (private for utility class).
+     */
+    private MultiModular() {
+    }
+
+    /**
+     * Returns the determinant of the specified square integer matrix.
+     *
+     * @param  A the matrix (<code>n x n</code>).
+     * @return <code>det(A)</code>
+     */
+    static LargeInteger determinant(final LargeInteger[][] A) {
+        final int n = A.length;
+        int count = hadamardBits(A, n) / PRIME_BITS + 2; // Sign bit included.
+        final long[] primes = primes(count);
+        final long[] dets = new long[count];
+        long cost = (long) count * n * n * n;
+        Scheduler.execute(count, cost, new Scheduler.Task() { // Per prime.
+
+            @Override
+            public void run(int start, int end) {
+                for (int k = start; k < end; k++) {
+                    long p = primes[k];
+                    dets[k] = eliminate(reduce(A, n, p), n, n, p);
+                }
+            }
+        });
+        LargeInteger det = LargeInteger.ZERO;
+        LargeInteger modulus = LargeInteger.ONE;
+        for (int k = 0; k < count; k++) {
+            det = lift(det, modulus, dets[k], primes[k]);
+            modulus = modulus.times(primes[k]);
+        }
+        return symmetric(det, modulus);
+    }
+
+    /**
+     * Returns the solution <code>X</code> of <code>A · X = B</code> as
+     * numerators over a common denominator.
+     *
+     * @param  AB the augmented matrix <code>[A | B]</code> (<code>A</code>
+     *         square of dimension <code>n</code>).
+     * @param  n the number of unknowns.
+     * @return <code>Y</code> such as <code>X = Y / D</code> with
+     *         <code>D = Y[n][0]</code> positive (<code>n + 1</code> rows).
+     * @throws ArithmeticException if <code>A</code> is singular.
+     */
+    static LargeInteger[][] solve(final LargeInteger[][] AB, final int n) {
+        final int m = AB[0].length - n;
+        final int bound = hadamardBits(AB, AB[0].length) + 1;
+        final int width = n + m;
+        LargeInteger[][] X = new LargeInteger[n][m]; // Residues of A⁻¹·B.
+        LargeInteger[][] Y = new LargeInteger[n][m]; // Residues of det·A⁻¹·B.
+        LargeInteger det = LargeInteger.ZERO;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                X[i][j] = LargeInteger.ZERO;
+                Y[i][j] = LargeInteger.ZERO;
+            }
+        }
+        LargeInteger modulus = LargeInteger.ONE;
+        int bits = 0; // Number of bits of the modulus (at least).
+        int unlucky = 0; // Number of primes dividing the determinant.
+        int next = 0; // Index of the next prime.
+        int batch = Math.max(4, Scheduler.CONCURRENCY.get());
+        while (true) {
+            final long[] primes = primes(next + batch);
+            final int first = next;
+            final long[][] images = new long[batch][];
+            final long[] dets = new long[batch];
+            long cost = (long) batch * n * n * width;
+            Scheduler.execute(batch, cost, new Scheduler.Task() { // Per prime.
+
+                @Override
+                public void run(int start, int end) {
+                    for (int k = start; k < end; k++) {
+                        long p = primes[first + k];
+                        long[] M = reduce(AB, width, p);
+                        dets[k] = eliminate(M, n, width, p);
+                        if (dets[k] != 0) {
+                            substitute(M, n, width, p);
+                            images[k] = M;
+                        }
+                    }
+                }
+            });
+            next += batch;
+            for (int k = 0; k < batch; k++) {
+                if (images[k] == null) {
+                    unlucky++;
+                    continue;
+                }
+                long p = primes[first + k];
+                long[] M = images[k];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < m; j++) {
+                        long x = M[i * width + n + j];
+                        X[i][j] = lift(X[i][j], modulus, x, p);
+                        Y[i][j] = lift(Y[i][j], modulus, x * dets[k] % p, p);
+                    }
+                }
+                det = lift(det, modulus, dets[k], p);
+                modulus = modulus.times(p);
+                bits += PRIME_BITS;
+            }
+            if (unlucky > bound / PRIME_BITS) // Too many primes divide det.
+                throw new ArithmeticException("Matrix is singular");
+            if (bits >= bound) { // Cramer's rule: X = Y / det (exact).
+                det = symmetric(det, modulus);
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < m; j++) {
+                        Y[i][j] = symmetric(Y[i][j], modulus);
+                    }
+                }
+                return result(Y, det);
+            }
+            if (bits > 0) {
+                LargeInteger[][] Z = reconstruct(X, modulus);
+                if ((Z != null) && verify(AB, n, Z))
+                    return Z;
+            }
+            batch *= 2;
+        }
+    }
+
+    /**
+     * Returns an upper bound of the number of bits of the absolute value
+     * of the determinants of the square sub-matrices of the specified
+     * matrix (Hadamard bound on the rows).
+     */
+    private static int hadamardBits(LargeInteger[][] A, int width) {
+        int bits = 0;
+        for (int i = 0; i < A.length; i++) {
+            LargeInteger sumOfSquares = LargeInteger.ZERO;
+            for (int j = 0; j < width; j++) {
+                sumOfSquares = sumOfSquares.plus(A[i][j].times(A[i][j]));
+            }
+            bits += sumOfSquares.bitLength() / 2 + 1;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the residues (row-major) of the specified integer matrix.
+     */
+    private static long[] reduce(LargeInteger[][] A, int width, long p) {
+        final int n = A.length;
+        final LargeInteger modulus = LargeInteger.valueOf(p);
+        long[] M = new long[n * width];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < width; j++) {
+                LargeInteger e = A[i][j];
+                long r;
+                if (e.bitLength() < 63) {
+                    r = e.longValue() % p;
+                } else {
+                    r = e.abs().mod(modulus).longValue();
+                    if (e.isNegative()) {
+                        r = -r;
+                    }
+                }
+                M[i * width + j] = (r < 0) ? r + p : r;
+            }
+        }
+        return M;
+    }
+
+    /**
+     * Performs the Gauss-Jordan elimination modulo <code>p</code> of the
+     * <code>n</code> first columns of the specified matrix; on return the
+     * <code>n</code> first columns are upper triangular with unit diagonal.
+     *
+     * @return the determinant modulo <code>p</code> (<code>0</code> if
+     *         singular in which case the matrix state is undefined).
+     */
+    private static long eliminate(long[] M, int n, int width, long p) {
+        long det = 1;
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            while ((pivot < n) && (M[pivot * width + k] == 0)) {
+                pivot++;
+            }
+            if (pivot == n)
+                return 0;
+            if (pivot != k) {
+                for (int j = k; j < width; j++) {
+                    long tmp = M[pivot * width + j];
+                    M[pivot * width + j] = M[k * width + j];
+                    M[k * width + j] = tmp;
+                }
+                det = p - det;
+            }
+            final int rowk = k * width;
+            long pkk = M[rowk + k];
+            det = det * pkk % p;
+            long inverse = inverse(pkk, p);
+            for (int j = k; j < width; j++) {
+                M[rowk + j] = M[rowk + j] * inverse % p;
+            }
+            for (int i = k + 1; i < n; i++) {
+                final int rowi = i * width;
+                long factor = M[rowi + k];
+                if (factor == 0)
+                    continue;
+                factor = p - factor;
+                for (int j = k; j < width; j++) {
+                    M[rowi + j] = (M[rowi + j] + factor * M[rowk + j]) % p;
+                }
+            }
+        }
+        return det;
+    }
+
+    /**
+     * Performs the back substitution modulo <code>p</code> of an eliminated
+     * matrix; on return the columns <code>[n, width[</code> hold
+     * <code>A⁻¹·B</code> modulo <code>p</code>.
+     */
+    private static void substitute(long[] M, int n, int width, long p) {
+        for (int k = n - 1; k > 0; k--) {
+            final int rowk = k * width;
+            for (int i = 0; i < k; i++) {
+                final int rowi = i * width;
+                long factor = M[rowi + k];
+                if (factor == 0)
+                    continue;
+                factor = p - factor;
+                for (int j = n; j < width; j++) {
+                    M[rowi + j] = (M[rowi + j] + factor * M[rowk + j]) % p;
+                }
+                M[rowi + k] = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the inverse of <code>a</code> modulo <code>p</code>
+     * (extended Euclidean algorithm).
+     */
+    private static long inverse(long a, long p) {
+        long r0 = p, r1 = a;
+        long t0 = 0, t1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1;
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+        return (t0 < 0) ? t0 + p : t0;
+    }
+
+    /**
+     * Returns the integer in <code>[0, modulus·p[</code> congruent to
+     * <code>x</code> modulo <code>modulus</code> and to <code>r</code>
+     * modulo <code>p</code> (Garner's algorithm).
+     */
+    private static LargeInteger lift(LargeInteger x, LargeInteger modulus,
+            long r, long p) {
+        long xp = x.isZero() ? 0 : x.mod(LargeInteger.valueOf(p)).longValue();
+        long mp = modulus.mod(LargeInteger.valueOf(p)).longValue();
+        long t = (r - xp + p) % p * inverse(mp, p) % p;
+        return (t == 0) ? x : x.plus(modulus.times(t));
+    }
+
+    /**
+     * Returns the representative of <code>x</code> in
+     * <code>]-modulus/2, modulus/2]</code>.
+     */
+    private static LargeInteger symmetric(LargeInteger x, LargeInteger modulus) {
+        return x.times2pow(1).compareTo(modulus) > 0 ? x.minus(modulus) : x;
+    }
+
+    /**
+     * Reconstructs the rational numbers whose residues are specified (with
+     * a common denominator, each denominator found being factored out of
+     * the subsequent residues).
+     *
+     * @return the numerators with the common denominator as last row or
+     *         <code>null</code> if the reconstruction fails.
+     */
+    private static LargeInteger[][] reconstruct(LargeInteger[][] X,
+            LargeInteger modulus) {
+        final int n = X.length;
+        final int m = X[0].length;
+        final LargeInteger bound = modulus.shiftRight(1).sqrt();
+        LargeInteger[][] Y = new LargeInteger[n][m];
+        LargeInteger denominator = LargeInteger.ONE;
+        for (int j = 0; j < m; j++) {
+            for (int i = 0; i < n; i++) {
+                LargeInteger u = X[i][j].times(denominator).mod(modulus);
+                LargeInteger[] ab = reconstruct(u, modulus, bound);
+                if (ab == null)
+                    return null;
+                if (!ab[1].equals(1)) { // Scales previous numerators.
+                    for (int jj = 0; jj <= j; jj++) {
+                        for (int ii = 0; ii < ((jj < j) ? n : i); ii++) {
+                            Y[ii][jj] = Y[ii][jj].times(ab[1]);
+                        }
+                    }
+                    denominator = denominator.times(ab[1]);
+                    if (denominator.compareTo(bound) > 0)
+                        return null;
+                }
+                Y[i][j] = ab[0];
+            }
+        }
+        return result(Y, denominator);
+    }
+
+    /**
+     * Returns the fraction <code>{a, b}</code> such as
+     * <code>a = b·u mod modulus</code>, <code>|a| &lt;= bound</code> and
+     * <code>0 &lt; b &lt;= bound</code> or <code>null</code> if none
+     * (extended Euclidean algorithm stopped halfway).
+     */
+    private static LargeInteger[] reconstruct(LargeInteger u,
+            LargeInteger modulus, LargeInteger bound) {
+        LargeInteger r0 = modulus, r1 = u;
+        LargeInteger t0 = LargeInteger.ZERO, t1 = LargeInteger.ONE;
+        while (r1.compareTo(bound) > 0) {
+            LargeInteger q = r0.divide(r1);
+            LargeInteger r = r0.minus(q.times(r1));
+            r0 = r1;
+            r1 = r;
+            LargeInteger t = t0.minus(q.times(t1));
+            t0 = t1;
+            t1 = t;
+        }
+        if (t1.abs().compareTo(bound) > 0)
+            return null;
+        if (!r1.gcd(t1.abs()).equals(1))
+            return null;
+        return t1.isNegative() ? new LargeInteger[] { r1.opposite(),
+                t1.opposite() } : new LargeInteger[] { r1, t1 };
+    }
+
+    /**
+     * Indicates if the specified solution verifies <code>A · Y = D · B</code>
+     * (exact arithmetic).
+     */
+    private static boolean verify(LargeInteger[][] AB, int n, LargeInteger[][] Y) {
+        final int m = AB[0].length - n;
+        final LargeInteger d = Y[n][0];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                LargeInteger sum = d.times(AB[i][n + j]).opposite();
+                for (int k = 0; k < n; k++) {
+                    if (!AB[i][k].isZero() && !Y[k][j].isZero()) {
+                        sum = sum.plus(AB[i][k].times(Y[k][j]));
+                    }
+                }
+                if (!sum.isZero())
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the specified numerators with the specified denominator
+     * (made positive) appended as last row.
+     */
+    private static LargeInteger[][] result(LargeInteger[][] Y,
+            LargeInteger denominator) {
+        final int n = Y.length;
+        final boolean negate = denominator.isNegative();
+        LargeInteger[][] Z = new LargeInteger[n + 1][];
+        for (int i = 0; i < n; i++) {
+            Z[i] = Y[i];
+            if (negate) {
+                for (int j = 0; j < Y[i].length; j++) {
+                    Z[i][j] = Z[i][j].opposite();
+                }
+            }
+        }
+        Z[n] = new LargeInteger[] { denominator.abs() };
+        return Z;
+    }
+
+    /**
+     * Returns the <code>count</code> first primes (word-size, decreasing).
+     */
+    private static synchronized long[] primes(int count) {
+        if (_Primes.length < count) {
+            long[] primes = new long[Math.max(count, 2 * _Primes.length)];
+            System.arraycopy(_Primes, 0, primes, 0, _Primes.length);
+            long candidate = (_Primes.length == 0) ? (1L << 31) + 1
+                    : _Primes[_Primes.length - 1];
+            for (int i = _Primes.length; i < primes.length; i++) {
+                do {
+                    candidate -= 2;
+                } while (!isPrime(candidate));
+                primes[i] = candidate;
+            }
+            _Primes = primes;
+        }
+        return _Primes;
+    }
+
+    /**
+     * Indicates if the specified odd number (less than
+     * <code>2<sup>31</sup></code>) is prime (deterministic Miller-Rabin
+     * test with the bases 2, 7 and 61).
+     */
+    private static boolean isPrime(long n) {
+        long d = n - 1;
+        int s = 0;
+        while ((d & 1) == 0) {
+            d >>= 1;
+            s++;
+        }
+        for (long a : new long[] { 2, 7, 61 }) {
+            if (a % n == 0)
+                continue;
+            long x = power(a, d, n);
+            if ((x == 1) || (x == n - 1))
+                continue;
+            boolean composite = true;
+            for (int r = 1; r < s; r++) {
+                x = x * x % n;
+                if (x == n - 1) {
+                    composite = false;
+                    break;
+                }
+            }
+            if (composite)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns <code>a<sup>e</sup> mod n</code>.
+     */
+    private static long power(long a, long e, long n) {
+        long result = 1;
+        a %= n;
+        while (e > 0) {
+            if ((e & 1) != 0) {
+                result = result * a % n;
+            }
+            a = a * a % n;
+            e >>= 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2006 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.internal.vector;
+
+import org.jscience.mathematics.internal.linear.Float64QR;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.structure.Field;
+
+import javolution.context.ObjectFactory;
+
+/**
+ * <p> This class represents the decomposition of a <code>m x n</code>
+ *     {@link Matrix matrix} <code>A</code> (<code>m &gt;= n</code>) into
+ *     the product <code>A = Q·R</code> of a matrix with orthogonal columns
+ *     and an upper triangular matrix.</p>
+ *
+ * <p> This decomposition is used to calculate {@link #leastSquares least
+ *     squares} solutions of over-determined systems and the {@link
+ *     #pseudoInverse pseudo-inverse} of non-square matrices without forming
+ *     the normal equations <code>Aᵀ·A·x = Aᵀ·b</code> (which square the
+ *     condition number).</p>
+ *
+ * <p> Matrices of {@link Float64} elements are decomposed upon a
+ *     <code>double</code> array by the blocked Householder {@link
+ *     Float64QR} algorithm (<code>Q</code> orthonormal). For others
+ *     elements (e.g. {@link org.jscience.mathematics.number.Rational
+ *     Rational}), which have no square root, the square root free modified
+ *     Gram-Schmidt decomposition <code>A = Q·D⁻¹·R</code> is calculated:
+ *     the columns of <code>Q</code> are orthogonal (<code>Qᵀ·Q = D</code>
+ *     diagonal) and <code>R</code> has the elements of <code>D</code> on
+ *     its diagonal; exact elements give exact solutions.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, December 12, 2007
+ * @see <a href="http://en.wikipedia.org/wiki/QR_decomposition">
+ *      Wikipedia: QR decomposition</a>
+ */
+public final class QRDecomposition<F extends Field<F>> {
+
+    /**
+     * Holds the object factory.
+     */
+    static final ObjectFactory<QRDecomposition> FACTORY = new ObjectFactory<QRDecomposition>() {
+        protected QRDecomposition create() {
+            return new QRDecomposition();
+        }
+
+        @Override
+        protected void cleanup(QRDecomposition qr) {
+            qr._q = null;
+            qr._r = null;
+            qr._d = null;
+            qr._float64 = null;
+        }
+    };
+
+    /**
+     * Holds the number of rows.
+     */
+    private int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    private int _n;
+
+    /**
+     * Holds the orthogonal columns of <code>Q</code> (generic elements).
+     */
+    private Object[][] _q;
+
+    /**
+     * Holds the elements of the unit upper triangular matrix
+     * <code>D⁻¹·R</code> above the diagonal (generic elements).
+     */
+    private Object[][] _r;
+
+    /**
+     * Holds the squared norms of the columns of <code>Q</code>
+     * (generic elements).
+     */
+    private Object[] _d;
+
+    /**
+     * Holds the Householder decomposition of <code>double</code> values
+     * (<code>null</code> if elements are not {@link Float64}).
+     */
+    private Float64QR _float64;
+
+    /**
+     * Default constructor.
+     */
+    private QRDecomposition() {
+    }
+
+    /**
+     * Returns the QR decomposition of the specified matrix.
+     *
+     * @param  source the matrix to decompose (<code>m &gt;= n</code>).
+     * @return the decomposition of the specified matrix.
+     * @throws DimensionException if the specified matrix has more columns
+     *         than rows.
+     * @throws ArithmeticException if the columns of a matrix of generic
+     *         elements are linearly dependent.
+     */
+    @SuppressWarnings("unchecked")
+    public static <F extends Field<F>> QRDecomposition<F> valueOf(
+            Matrix<F> source) {
+        final int m = source.getNumberOfRows();
+        final int n = source.getNumberOfColumns();
+        if (m < n)
+            throw new DimensionException("More columns (" + n
+                    + ") than rows (" + m + ")");
+        QRDecomposition<F> qr = FACTORY.object();
+        qr._m = m;
+        qr._n = n;
+        if ((n > 0) && (source.get(0, 0) instanceof Float64)) {
+            qr._float64 = Float64QR.wrap(m, n, Float64Matrix
+                    .values((Matrix<Float64>) source));
+        } else {
+            qr.construct(source);
+        }
+        return qr;
+    }
+
+    /**
+     * Constructs the square root free decomposition (modified Gram-Schmidt).
+     */
+    @SuppressWarnings("unchecked")
+    private void construct(Matrix<F> source) {
+        final int m = _m;
+        final int n = _n;
+        _q = new Object[n][m];
+        _r = new Object[n][n];
+        _d = new Object[n];
+        for (int j = 0; j < n; j++) {
+            Object[] qj = _q[j];
+            for (int i = 0; i < m; i++) {
+                qj[i] = source.get(i, j);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            Object[] qk = _q[k];
+            F dk = dot(qk, qk);
+            if (dk.equals(dk.plus(dk)))
+                throw new ArithmeticException("Rank deficient matrix (column "
+                        + k + ")");
+            _d[k] = dk;
+            F inv = dk.inverse();
+            for (int j = k + 1; j < n; j++) { // Orthogonalizes next columns.
+                Object[] qj = _q[j];
+                F rkj = dot(qk, qj).times(inv);
+                _r[k][j] = rkj;
+                subtract(qj, rkj, qk);
+            }
+        }
+    }
+
+    /**
+     * Returns the dot product of the specified columns.
+     */
+    @SuppressWarnings("unchecked")
+    private F dot(Object[] x, Object[] y) {
+        F sum = ((F) x[0]).times((F) y[0]);
+        for (int i = 1; i < x.length; i++) {
+            sum = sum.plus(((F) x[i]).times((F) y[i]));
+        }
+        return sum;
+    }
+
+    /**
+     * Sets <code>y = y - a · x</code>.
+     */
+    @SuppressWarnings("unchecked")
+    private void subtract(Object[] y, F a, Object[] x) {
+        F opposite = a.opposite();
+        for (int i = 0; i < y.length; i++) {
+            y[i] = ((F) y[i]).plus(opposite.times((F) x[i]));
+        }
+    }
+
+    /**
+     * Returns the least squares solution of <code>A · x = b</code>
+     * (minimizes <code>|A · x - b|</code>).
+     *
+     * @param  b the right-hand side vector.
+     * @return <code>x</code> minimizing <code>|A · x - b|</code>
+     * @throws DimensionException if the vector dimension is not the number
+     *         of rows of the decomposed matrix.
+     */
+    @SuppressWarnings("unchecked")
+    public DenseVector<F> leastSquares(Vector<F> b) {
+        if (b.getDimension() != _m)
+            throw new DimensionException("Vector dimension "
+                    + b.getDimension() + " instead of " + _m);
+        if (_float64 != null) {
+            double[] values = new double[_m];
+            for (int i = 0; i < _m; i++) {
+                values[i] = ((Float64) b.get(i)).doubleValue();
+            }
+            return (DenseVector<F>) (DenseVector) Float64Vector
+                    .valueOf(_float64.solve(1, values));
+        }
+        Object[] y = new Object[_m];
+        for (int i = 0; i < _m; i++) {
+            y[i] = b.get(i);
+        }
+        return DenseVector.valueOf(leastSquares(y));
+    }
+
+    /**
+     * Returns the least squares solutions for each column of the specified
+     * matrix.
+     *
+     * @param  B the right-hand side matrix.
+     * @return <code>X</code> minimizing <code>|A · X - B|</code>
+     * @throws DimensionException if the number of rows do not match.
+     */
+    @SuppressWarnings("unchecked")
+    public DenseMatrix<F> solve(Matrix<F> B) {
+        if (B.getNumberOfRows() != _m)
+            throw new DimensionException("Matrix has " + B.getNumberOfRows()
+                    + " rows instead of " + _m);
+        final int p = B.getNumberOfColumns();
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, p,
+                    _float64.solve(p, Float64Matrix.values((Matrix<Float64>) B)));
+        F[][] X = (F[][]) new Field[_n][p];
+        Object[] y = new Object[_m];
+        for (int j = 0; j < p; j++) {
+            for (int i = 0; i < _m; i++) {
+                y[i] = B.get(i, j);
+            }
+            F[] x = leastSquares(y);
+            for (int i = 0; i < _n; i++) {
+                X[i][j] = x[i];
+            }
+        }
+        return DenseMatrix.valueOf(X);
+    }
+
+    /**
+     * Returns the least squares solution for the specified right-hand side
+     * (generic elements), the right-hand side is modified.
+     */
+    @SuppressWarnings("unchecked")
+    private F[] leastSquares(Object[] y) {
+        final int n = _n;
+        F[] x = (F[]) new Field[n];
+        for (int k = 0; k < n; k++) { // x = D⁻¹·Qᵀ·y
+            x[k] = dot(_q[k], y).times(((F) _d[k]).inverse());
+            subtract(y, x[k], _q[k]);
+        }
+        for (int i = n - 1; i >= 0; i--) { // Unit upper triangular.
+            for (int k = i + 1; k < n; k++) {
+                x[i] = x[i].plus(((F) _r[i][k]).times(x[k]).opposite());
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Returns the pseudo-inverse of the decomposed matrix
+     * (<code>inv(R) · Qᵀ</code>).
+     *
+     * @return the <code>n x m</code> pseudo-inverse.
+     */
+    @SuppressWarnings("unchecked")
+    public DenseMatrix<F> pseudoInverse() {
+        if (_float64 != null)
+            return (DenseMatrix<F>) (DenseMatrix) Float64Matrix.valueOf(_n, _m,
+                    _float64.pseudoInverse());
+        final int m = _m;
+        final int n = _n;
+        F[][] X = (F[][]) new Field[n][m];
+        for (int k = 0; k < n; k++) { // D⁻¹·Qᵀ
+            F inv = ((F) _d[k]).inverse();
+            for (int j = 0; j < m; j++) {
+                X[k][j] = inv.times((F) _q[k][j]);
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) { // Unit upper triangular.
+            for (int k = i + 1; k < n; k++) {
+                F rik = ((F) _r[i][k]).opposite();
+                for (int j = 0; j < m; j++) {
+                    X[i][j] = X[i][j].plus(rik.times(X[k][j]));
+                }
+            }
+        }
+        return DenseMatrix.valueOf(X);
+    }
+
+}
@@ -159,6 +159,43 @@ public abstract class SparseMatrix<F extends Field<F>> extends Matrix<F> {
     @Override
     public abstract SparseMatrix<F> times(F k);
 
+    /**
+     * Returns the product of this matrix by the specified column vector
+     * (see {@link #times(Vector, Field[])}).
+     *
+     * @param  v the column vector.
+     * @return <code>this · v</code>
+     * @throws DimensionException if <code>
+     *         v.getDimension() != this.getNumberOfColumns()<code>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public DenseVector<F> times(Vector<F> v) {
+        F[] result = (F[]) new Field[getNumberOfRows()];
+        times(v, result);
+        return DenseVector.valueOf(result);
+    }
+
+    /**
+     * Multiplies this matrix by the specified column vector, the elements
+     * of the result being written into the specified array (no allocation).
+     * The default implementation calculates the product of each row with
+     * the specified vector.
+     *
+     * @param  v the column vector.
+     * @param  result the array receiving the elements of <code>this · v</code>
+     *         (length greater or equal to the number of rows).
+     * @throws DimensionException if <code>
+     *         v.getDimension() != this.getNumberOfColumns()<code>
+     */
+    public void times(Vector<F> v, F[] result) {
+        if (v.getDimension() != getNumberOfColumns())
+            throw new DimensionException();
+        for (int i = 0, m = getNumberOfRows(); i < m; i++) {
+            result[i] = getRow(i).times(v);
+        }
+    }
+
     @Override
     public abstract SparseMatrix<F> transpose();
 
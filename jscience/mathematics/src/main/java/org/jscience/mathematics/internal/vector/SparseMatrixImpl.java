@@ -2,7 +2,7 @@
  * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
  * Copyright (C) 2006 - JScience (http://jscience.org/)
  * All rights reserved.
- * 
+ *
  * Permission to use, copy, modify, and distribute this software is
  * freely granted, provided that this notice is preserved.
  */
@@ -11,13 +11,24 @@ package org.jscience.mathematics.internal.vector;
 import java.util.Arrays;
 import java.util.List;
 import javolution.context.ObjectFactory;
+import javolution.util.FastMap;
 import javolution.util.FastTable;
 import javolution.util.Index;
+
+import org.jscience.mathematics.internal.linear.Scheduler;
+import org.jscience.mathematics.internal.linear.SparseKernel;
 import org.jscience.mathematics.structure.Field;
 
 /**
  * <p> This class represents the sparse matrix default implementation.</p>
  *
+ * <p> Elements are stored in compressed sparse row format (CSR): the
+ *     column indices of the non-zero elements in an <code>int</code> array
+ *     (sorted for each row) and the elements in a parallel array; the
+ *     compressed sparse column structure (CSC) used to extract the columns
+ *     is calculated once in <code>O(nnz)</code> (see {@link SparseKernel}).
+ *     Rows and columns are sparse vectors created on demand.</p>
+ *
  * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @version 5.0, December 12, 2007
  */
@@ -35,14 +46,49 @@ final class SparseMatrixImpl<F extends Field<F>> extends SparseMatrix<F> {
 
         @Override
         protected void cleanup(SparseMatrixImpl matrix) {
-            matrix._rows.reset();
+            matrix._pointers = null;
+            matrix._indices = null;
+            matrix._elements = null;
+            matrix._zero = null;
+            matrix._csc = null;
         }
     };
 
     /**
-     * Holds this matrix rows.
+     * Holds the number of rows.
+     */
+    int _m;
+
+    /**
+     * Holds the number of columns.
+     */
+    int _n;
+
+    /**
+     * Holds the position of the first element of each row (<code>m + 1</code>).
+     */
+    int[] _pointers;
+
+    /**
+     * Holds the column index of each element (sorted for each row).
+     */
+    int[] _indices;
+
+    /**
+     * Holds the non-zero elements.
+     */
+    Object[] _elements;
+
+    /**
+     * Holds the zero element.
+     */
+    transient F _zero;
+
+    /**
+     * Holds the column pointers, row indices and element positions of the
+     * compressed sparse column structure (calculated once).
      */
-    final FastTable<SparseVectorImpl<F>> _rows = new FastTable<SparseVectorImpl<F>>();
+    private int[][] _csc;
 
     /**
      * Holds the transposed view of this matrix
@@ -56,80 +102,169 @@ final class SparseMatrixImpl<F extends Field<F>> extends SparseMatrix<F> {
 
     // See parent static method.
     public static <F extends Field<F>> SparseMatrixImpl<F> valueOf(List<? extends Vector<F>> rows) {
-        SparseMatrixImpl<F> M = SparseMatrixImpl.FACTORY.object();
+        final int m = rows.size();
         final int n = rows.get(0).getDimension();
-        for (Vector<F> row : rows) {
-            if (row.getDimension() != n)
-                throw new DimensionException();
-            M._rows.add(SparseVectorImpl.valueOf(row));
+        FastTable<SparseVectorImpl<F>> vectors = FastTable.newInstance();
+        try {
+            int nnz = 0;
+            for (Vector<F> row : rows) {
+                if (row.getDimension() != n)
+                    throw new DimensionException();
+                SparseVectorImpl<F> V = SparseVectorImpl.valueOf(row);
+                vectors.add(V);
+                nnz += V._elements.size();
+            }
+            // Map entries are not ordered by index, compresses the coordinates.
+            int[] rowIndices = new int[nnz];
+            int[] columnIndices = new int[nnz];
+            Object[] elements = new Object[nnz];
+            int k = 0;
+            for (int i = 0; i < m; i++) {
+                FastMap<Index, F> map = vectors.get(i)._elements;
+                for (FastMap.Entry<Index, F> e = map.head(), end = map.tail(); (e = e.getNext()) != end;) {
+                    rowIndices[k] = i;
+                    columnIndices[k] = e.getKey().intValue();
+                    elements[k++] = e.getValue();
+                }
+            }
+            SparseMatrixImpl<F> M = FACTORY.object();
+            M._m = m;
+            M._n = n;
+            M._zero = vectors.get(0)._zero;
+            M._pointers = new int[m + 1];
+            M._indices = new int[nnz];
+            int[] positions = SparseKernel.compress(m, n, nnz, rowIndices,
+                    columnIndices, M._pointers, M._indices);
+            M._elements = new Object[nnz];
+            for (k = 0; k < nnz; k++) {
+                M._elements[k] = elements[positions[k]];
+            }
+            return M;
+        } finally {
+            FastTable.recycle(vectors);
         }
-        return M;
     }
 
     // See parent static method.
     public static <F extends Field<F>> SparseMatrixImpl<F> valueOf(Matrix<F> that) {
         if (that instanceof SparseMatrixImpl)
             return (SparseMatrixImpl) that;
-        SparseMatrixImpl<F> M = SparseMatrixImpl.FACTORY.object();
-        for (int i = 0, m = that.getNumberOfRows(); i < m; i++) {
-            M._rows.add(SparseVectorImpl.valueOf(that.getRow(i)));
+        FastTable<Vector<F>> rows = FastTable.newInstance();
+        try {
+            for (int i = 0, m = that.getNumberOfRows(); i < m; i++) {
+                rows.add(that.getRow(i));
+            }
+            return SparseMatrixImpl.valueOf(rows);
+        } finally {
+            FastTable.recycle(rows);
         }
+    }
+
+    /**
+     * Returns a matrix having the same structure as this matrix and the
+     * specified elements.
+     */
+    private SparseMatrixImpl<F> newInstance(Object[] elements) {
+        SparseMatrixImpl<F> M = FACTORY.object();
+        M._m = _m;
+        M._n = _n;
+        M._zero = _zero;
+        M._pointers = _pointers; // Never modified.
+        M._indices = _indices;
+        M._elements = elements;
+        M._csc = _csc;
         return M;
     }
 
+    /**
+     * Returns the compressed sparse column structure of this matrix.
+     */
+    private synchronized int[][] csc() {
+        if (_csc == null) {
+            int[] pointers = new int[_n + 1];
+            int[] indices = new int[_pointers[_m]];
+            int[] positions = SparseKernel.transpose(_m, _n, _pointers,
+                    _indices, pointers, indices);
+            _csc = new int[][] { pointers, indices, positions };
+        }
+        return _csc;
+    }
+
     @Override
     public int getNumberOfRows() {
-        return _rows.size();
+        return _m;
     }
 
     @Override
     public int getNumberOfColumns() {
-        return _rows.get(0).getDimension();
+        return _n;
     }
 
     @Override
     public F get(int i, int j) {
-        return _rows.get(i).get(j);
+        if ((i < 0) || (i >= _m) || (j < 0) || (j >= _n))
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ")");
+        int k = SparseKernel.search(_indices, _pointers[i], _pointers[i + 1], j);
+        return (k < 0) ? _zero : element(k);
+    }
+
+    /**
+     * Returns the element at the specified position.
+     */
+    @SuppressWarnings("unchecked")
+    F element(int k) {
+        return (F) _elements[k];
     }
 
     @Override
     public SparseVectorImpl<F> getRow(int i) {
-        return _rows.get(i);
+        if ((i < 0) || (i >= _m))
+            throw new IndexOutOfBoundsException("i: " + i);
+        SparseVectorImpl<F> V = SparseVectorImpl.FACTORY.object();
+        V._dimension = _n;
+        V._zero = _zero;
+        for (int k = _pointers[i], end = _pointers[i + 1]; k < end; k++) {
+            V._elements.put(Index.valueOf(_indices[k]), element(k));
+        }
+        return V;
     }
 
     @Override
     public SparseVectorImpl<F> getColumn(int j) {
+        if ((j < 0) || (j >= _n))
+            throw new IndexOutOfBoundsException("j: " + j);
+        int[][] csc = csc();
         SparseVectorImpl<F> V = SparseVectorImpl.FACTORY.object();
-        final Index indexJ = Index.valueOf(j);
-        final int m = _rows.size();
-        V._dimension = m;
-        V._zero = _rows.get(0)._zero;
-        for (int i = 0; i < m; i++) {
-            F e = _rows.get(i)._elements.get(indexJ);
-            if (e != null) {
-                V._elements.put(Index.valueOf(i), e);
-            }
+        V._dimension = _m;
+        V._zero = _zero;
+        for (int k = csc[0][j], end = csc[0][j + 1]; k < end; k++) {
+            V._elements.put(Index.valueOf(csc[1][k]), element(csc[2][k]));
         }
         return V;
     }
 
     @Override
     public SparseMatrixImpl<F> getSubMatrix(List<Index> rows, List<Index> columns) {
-        SparseMatrixImpl<F> M = FACTORY.object();
-        for (int i = 0, m = rows.size(); i < m; i++) {
-            SparseVectorImpl<F> row = this.getRow(rows.get(i).intValue());
-            M._rows.add(row.getSubVector(columns));
+        FastTable<SparseVectorImpl<F>> vectors = FastTable.newInstance();
+        try {
+            for (int i = 0, m = rows.size(); i < m; i++) {
+                SparseVectorImpl<F> row = this.getRow(rows.get(i).intValue());
+                vectors.add(row.getSubVector(columns));
+            }
+            return SparseMatrixImpl.valueOf(vectors);
+        } finally {
+            FastTable.recycle(vectors);
         }
-        return M;
     }
 
     @Override
     public SparseMatrixImpl<F> opposite() {
-        SparseMatrixImpl<F> M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).opposite());
+        final int nnz = _pointers[_m];
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = element(k).opposite();
         }
-        return M;
+        return newInstance(elements);
     }
 
     @Override
@@ -140,23 +275,55 @@ final class SparseMatrixImpl<F extends Field<F>> extends SparseMatrix<F> {
     }
 
     private SparseMatrixImpl<F> plus(SparseMatrix<F> that) {
-        SparseMatrixImpl<F> M = FACTORY.object();
-        final int m = _rows.size();
-        if (that.getNumberOfRows() != m)
+        if ((that.getNumberOfRows() != _m) || (that.getNumberOfColumns() != _n))
             throw new DimensionException();
-        for (int i = 0; i < m; i++) {
-            M._rows.add(_rows.get(i).plus(that.getRow(i)));
+        SparseMatrixImpl<F> B = SparseMatrixImpl.valueOf(that);
+        final int capacity = _pointers[_m] + B._pointers[_m];
+        int[] pointers = new int[_m + 1];
+        int[] indices = new int[capacity];
+        Object[] elements = new Object[capacity];
+        int nnz = 0;
+        for (int i = 0; i < _m; i++) {
+            int k = _pointers[i];
+            int l = B._pointers[i];
+            final int kEnd = _pointers[i + 1];
+            final int lEnd = B._pointers[i + 1];
+            while ((k < kEnd) || (l < lEnd)) {
+                int jA = (k < kEnd) ? _indices[k] : Integer.MAX_VALUE;
+                int jB = (l < lEnd) ? B._indices[l] : Integer.MAX_VALUE;
+                F e;
+                if (jA < jB) {
+                    e = element(k++);
+                } else if (jB < jA) {
+                    e = B.element(l++);
+                } else {
+                    e = element(k++).plus(B.element(l++));
+                    if (e.equals(_zero))
+                        continue;
+                }
+                indices[nnz] = Math.min(jA, jB);
+                elements[nnz++] = e;
+            }
+            pointers[i + 1] = nnz;
         }
+        SparseMatrixImpl<F> M = FACTORY.object();
+        M._m = _m;
+        M._n = _n;
+        M._zero = _zero;
+        M._pointers = pointers;
+        M._indices = resize(indices, nnz);
+        M._elements = resize(elements, nnz);
         return M;
     }
 
     @Override
     public SparseMatrixImpl<F> times(F k) {
-        SparseMatrixImpl<F> M = FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).times(k));
+        final int nnz = _pointers[_m];
+        Object[] elements = new Object[nnz];
+        for (int i = 0; i < nnz; i++) {
+            elements[i] = element(i).times(k);
         }
-        return M;
+        return newInstance(elements);
     }
 
     @Override
@@ -167,27 +334,65 @@ final class SparseMatrixImpl<F extends Field<F>> extends SparseMatrix<F> {
         return that.transpose().times(this.transpose()).transpose();
     }
 
+    /**
+     * Returns the product of this matrix with the specified sparse matrix
+     * (Gustavson's algorithm, see {@link SparseKernel}).
+     */
     private SparseMatrixImpl<F> times(SparseMatrix<F> that) {
         //  This is a m-by-n matrix and that is a n-by-p matrix, the matrix result is mxp
-        final int m = _rows.size();
-        final int n = _rows.get(0).getDimension(); // Number of columns of this.
         final int p = that.getNumberOfColumns(); // Number of columns of that.
-        if (n != that.getNumberOfRows())
+        if (_n != that.getNumberOfRows())
             throw new DimensionException();
+        SparseMatrixImpl<F> B = SparseMatrixImpl.valueOf(that);
+        int[] pointers = new int[_m + 1];
+        int nnz = SparseKernel.multiplySymbolic(_m, p, _pointers, _indices,
+                B._pointers, B._indices, pointers);
+        int[] indices = new int[nnz];
+        Object[] elements = new Object[nnz];
+        SparseKernel.multiplyNumeric(_m, p, _pointers, _indices, _elements,
+                B._pointers, B._indices, B._elements, pointers, indices,
+                elements);
+        nnz = SparseKernel.compact(_m, pointers, indices, elements, _zero);
         SparseMatrixImpl<F> M = FACTORY.object();
-        for (int i = 0; i < m; i++) {
-            SparseVectorImpl<F> V = SparseVectorImpl.FACTORY.object();
-            V._dimension = p;
-            V._zero = this._rows.get(i)._zero;
-            for (int j = 0; j < p; j++) {
-                F e = _rows.get(i).times(that.getColumn(j));
-                if (!e.equals(V._zero)) {
-                    V._elements.put(Index.valueOf(j), e);
+        M._m = _m;
+        M._n = p;
+        M._zero = _zero;
+        M._pointers = pointers;
+        M._indices = resize(indices, nnz);
+        M._elements = resize(elements, nnz);
+        return M;
+    }
+
+    /**
+     * Calculates the dot product of the rows with the specified vector;
+     * rows are processed concurrently by the {@link Scheduler}, each thread
+     * receiving about the same number of non-zero elements.
+     */
+    @Override
+    public void times(final Vector<F> v, final F[] result) {
+        if (v.getDimension() != _n)
+            throw new DimensionException();
+        final LocalSettings settings = LocalSettings.current();
+        Scheduler.execute(_m, _pointers, 2L * _pointers[_m]
+                * Scheduler.FIELD_OPERATION_COST, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                boolean entered = settings.enter();
+                try {
+                    for (int i = start; i < end; i++) {
+                        F sum = null;
+                        for (int k = _pointers[i], last = _pointers[i + 1]; k < last; k++) {
+                            F e = element(k).times(v.get(_indices[k]));
+                            sum = (sum == null) ? e : sum.plus(e);
+                        }
+                        result[i] = (sum == null) ? _zero : sum;
+                    }
+                } finally {
+                    settings.exit(entered);
                 }
             }
-            M._rows.add(V);
-        }
-        return M;
+        });
     }
 
     @Override
@@ -197,11 +402,34 @@ final class SparseMatrixImpl<F extends Field<F>> extends SparseMatrix<F> {
 
     @Override
     public SparseMatrixImpl<F> copy() {
-        SparseMatrixImpl<F> M = SparseMatrixImpl.FACTORY.object();
-        for (int i = 0, m = _rows.size(); i < m; i++) {
-            M._rows.add(_rows.get(i).copy());
+        final int nnz = _pointers[_m];
+        Object[] elements = new Object[nnz];
+        for (int k = 0; k < nnz; k++) {
+            elements[k] = element(k).copy();
         }
-        return M;
+        return newInstance(elements);
+    }
+
+    /**
+     * Returns an array holding the first elements of the specified array.
+     */
+    static int[] resize(int[] array, int length) {
+        if (array.length == length)
+            return array;
+        int[] tmp = new int[length];
+        System.arraycopy(array, 0, tmp, 0, Math.min(length, array.length));
+        return tmp;
+    }
+
+    /**
+     * Returns an array holding the first elements of the specified array.
+     */
+    static Object[] resize(Object[] array, int length) {
+        if (array.length == length)
+            return array;
+        Object[] tmp = new Object[length];
+        System.arraycopy(array, 0, tmp, 0, Math.min(length, array.length));
+        return tmp;
     }
 
     /**
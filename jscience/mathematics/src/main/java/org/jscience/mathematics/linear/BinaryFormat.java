@@ -0,0 +1,304 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jscience.mathematics.internal.linear.BinaryCodec;
+import org.jscience.mathematics.number.Complex;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> Static methods to read and write matrices and vectors of 
+ *     {@link Float64} or {@link Complex} elements in a compact, versioned
+ *     binary format: a 32 bytes header (magic number, version, storage, 
+ *     element kind, dimensions, number of non-zero elements) followed by
+ *     the raw little-endian payload (dense values in row-major order, 
+ *     compressed sparse structures and values).
+ * [code]
+ * // Stage 1
+ * BinaryFormat.write(A, new File("A.bin")); // Mapped, no intermediate copy.
+ * // Stage 2
+ * Matrix<Float64> A = BinaryFormat.readMatrix(new File("A.bin"));
+ * [/code]</p>
+ *
+ * <p> Payloads are transferred in bulk between the arrays of the matrices
+ *     and the buffers; files are memory-mapped. Sparse matrices keep their
+ *     compressed format (CSR or CSC) and dense matrices their kind (float
+ *     or complex). Channels are read exactly up to the end of each object,
+ *     several objects can be sent over the same channel.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class BinaryFormat {
+
+	/**
+	 * Holds the current version of the format (objects of newer versions 
+	 * cannot be read).
+	 */
+	public static final int VERSION = BinaryCodec.VERSION;
+
+	/**
+	 * Returns the number of bytes of the specified matrix once written.
+	 *
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static long sizeOf(Matrix<?> matrix) {
+		return BinaryCodec.sizeOf(matrix);
+	}
+
+	/**
+	 * Returns the number of bytes of the specified vector once written.
+	 *
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static long sizeOf(Vector<?> vector) {
+		return BinaryCodec.sizeOf(vector);
+	}
+
+	/**
+	 * Writes the specified matrix to the specified buffer (position 
+	 * advanced by {@link #sizeOf(Matrix)}).
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer is too small.
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static void write(Matrix<?> matrix, ByteBuffer buffer) {
+		ByteOrder order = buffer.order();
+		try {
+			new BinaryCodec(buffer).write(matrix);
+		} catch (IOException e) { // No channel.
+			throw new IllegalStateException(e);
+		} finally {
+			buffer.order(order);
+		}
+	}
+
+	/**
+	 * Writes the specified vector to the specified buffer (position 
+	 * advanced by {@link #sizeOf(Vector)}).
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer is too small.
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static void write(Vector<?> vector, ByteBuffer buffer) {
+		ByteOrder order = buffer.order();
+		try {
+			new BinaryCodec(buffer).write(vector);
+		} catch (IOException e) { // No channel.
+			throw new IllegalStateException(e);
+		} finally {
+			buffer.order(order);
+		}
+	}
+
+	/**
+	 * Writes the specified matrix to the specified channel.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static void write(Matrix<?> matrix, WritableByteChannel out)
+			throws IOException {
+		new BinaryCodec(out).write(matrix);
+	}
+
+	/**
+	 * Writes the specified vector to the specified channel.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static void write(Vector<?> vector, WritableByteChannel out)
+			throws IOException {
+		new BinaryCodec(out).write(vector);
+	}
+
+	/**
+	 * Writes the specified matrix to the specified file (replaced if it 
+	 * exists) through a memory mapping of the file.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static void write(Matrix<?> matrix, File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			long size = sizeOf(matrix);
+			raf.setLength(size);
+			if (size > Integer.MAX_VALUE) {
+				write(matrix, raf.getChannel());
+			} else {
+				write(matrix, raf.getChannel().map(
+						FileChannel.MapMode.READ_WRITE, 0, size));
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Writes the specified vector to the specified file (replaced if it 
+	 * exists) through a memory mapping of the file.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 * @throws IllegalArgumentException if the elements are not 
+	 *         {@link Float64} or {@link Complex} numbers.
+	 */
+	public static void write(Vector<?> vector, File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			long size = sizeOf(vector);
+			raf.setLength(size);
+			if (size > Integer.MAX_VALUE) {
+				write(vector, raf.getChannel());
+			} else {
+				write(vector, raf.getChannel().map(
+						FileChannel.MapMode.READ_WRITE, 0, size));
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads a matrix from the specified buffer (e.g. a mapped file or a 
+	 * shared memory region). Sparse matrices are returned in their original
+	 * compressed format; the elements are {@link Float64} or {@link Complex}
+	 * numbers.
+	 *
+	 * @throws IOException if the content is not a valid matrix.
+	 * @throws java.nio.BufferUnderflowException if the buffer is incomplete.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <F extends Field<F>> Matrix<F> readMatrix(ByteBuffer buffer)
+			throws IOException {
+		ByteOrder order = buffer.order();
+		try {
+			return (Matrix<F>) new BinaryCodec(buffer).readMatrix();
+		} finally {
+			buffer.order(order);
+		}
+	}
+
+	/**
+	 * Reads a vector from the specified buffer.
+	 *
+	 * @throws IOException if the content is not a valid vector.
+	 * @throws java.nio.BufferUnderflowException if the buffer is incomplete.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <F extends Field<F>> Vector<F> readVector(ByteBuffer buffer)
+			throws IOException {
+		ByteOrder order = buffer.order();
+		try {
+			return (Vector<F>) new BinaryCodec(buffer).readVector();
+		} finally {
+			buffer.order(order);
+		}
+	}
+
+	/**
+	 * Reads a matrix from the specified channel.
+	 *
+	 * @throws IOException if an I/O error occurs or the content is not a 
+	 *         valid matrix.
+	 * @see #readMatrix(ByteBuffer)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <F extends Field<F>> Matrix<F> readMatrix(
+			ReadableByteChannel in) throws IOException {
+		return (Matrix<F>) new BinaryCodec(in).readMatrix();
+	}
+
+	/**
+	 * Reads a vector from the specified channel.
+	 *
+	 * @throws IOException if an I/O error occurs or the content is not a 
+	 *         valid vector.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <F extends Field<F>> Vector<F> readVector(
+			ReadableByteChannel in) throws IOException {
+		return (Vector<F>) new BinaryCodec(in).readVector();
+	}
+
+	/**
+	 * Reads the matrix in the specified file (memory-mapped).
+	 *
+	 * @throws IOException if the file cannot be read or is not valid.
+	 * @see #readMatrix(ByteBuffer)
+	 */
+	public static <F extends Field<F>> Matrix<F> readMatrix(File file)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE)
+				return readMatrix(channel);
+			return BinaryFormat.<F> readMatrix(map(channel));
+		} catch (BufferUnderflowException e) {
+			throw new EOFException(file + " truncated");
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the vector in the specified file (memory-mapped).
+	 *
+	 * @throws IOException if the file cannot be read or is not valid.
+	 */
+	public static <F extends Field<F>> Vector<F> readVector(File file)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE)
+				return readVector(channel);
+			return BinaryFormat.<F> readVector(map(channel));
+		} catch (BufferUnderflowException e) {
+			throw new EOFException(file + " truncated");
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Maps the specified channel (read-only).
+	 */
+	private static ByteBuffer map(FileChannel channel) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+	}
+
+	/**
+	 * Default constructor (private).
+	 */
+	private BinaryFormat() {
+	}
+
+}
@@ -14,7 +14,6 @@ import javolution.context.ComputeContext;
 import javolution.util.Index;
 
 import org.jscience.mathematics.number.Complex;
-import org.jscience.mathematics.number.Float64;
 
 /**
  * <p> A {@link DenseMatrix dense matrix} of 64 bits floating points complex
@@ -24,9 +23,33 @@ import org.jscience.mathematics.number.Float64;
  * @version 5.0, January 26, 2014
  * @see SparseMatrix
  */
-public interface ComplexMatrix extends DenseMatrix<Complex<Float64>>,
+public interface ComplexMatrix extends DenseMatrix<Complex>,
 		ComputeContext.Local {
 
+	/**
+	 * Returns the {@code double} real value of a single complex number
+	 * element of this matrix.
+	 *
+	 * @param  i the row index (range [0..m[).
+	 * @param  j the column index (range [0..n[).
+	 * @return <code>get(i, j).getReal()</code>.
+	 * @throws IndexOutOfBoundsException <code>((i &lt; 0) || (i &gt;= m))
+	 *         || ((j &lt; 0) || (j &gt;= n))</code>
+	 */
+	double getRealValue(int i, int j);
+
+	/**
+	 * Returns the {@code double} imaginary value of a single complex number
+	 * element of this matrix.
+	 *
+	 * @param  i the row index (range [0..m[).
+	 * @param  j the column index (range [0..n[).
+	 * @return <code>get(i, j).getImaginary()</code>.
+	 * @throws IndexOutOfBoundsException <code>((i &lt; 0) || (i &gt;= m))
+	 *         || ((j &lt; 0) || (j &gt;= n))</code>
+	 */
+	double getImaginaryValue(int i, int j);
+
 	@Override
 	ComplexVector getRow(int i);
 
@@ -39,29 +62,33 @@ public interface ComplexMatrix extends DenseMatrix<Complex<Float64>>,
 	@Override
 	ComplexMatrix getSubMatrix(List<Index> rows, List<Index> columns);
 
+	@Override
+	ComplexMatrix getSubMatrix(int fromRow, int toRow, int fromColumn,
+			int toColumn);
+
 	@Override
 	ComplexMatrix opposite();
 
 	@Override
-	ComplexMatrix plus(Matrix<Complex<Float64>> that);
+	ComplexMatrix plus(Matrix<Complex> that);
 
 	@Override
-	ComplexMatrix minus(Matrix<Complex<Float64>> that);
+	ComplexMatrix minus(Matrix<Complex> that);
 
 	@Override
-	ComplexMatrix times(Complex<Float64> k);
+	ComplexMatrix times(Complex k);
 
 	@Override
-	ComplexVector times(Vector<Complex<Float64>> v);
+	ComplexVector times(Vector<Complex> v);
 
 	@Override
-	ComplexMatrix times(Matrix<Complex<Float64>> that);
+	ComplexMatrix times(Matrix<Complex> that);
 
 	@Override
 	ComplexMatrix inverse();
 
 	@Override
-	ComplexMatrix divide(Matrix<Complex<Float64>> that);
+	ComplexMatrix divide(Matrix<Complex> that);
 
 	@Override
 	ComplexMatrix pseudoInverse();
@@ -73,16 +100,16 @@ public interface ComplexMatrix extends DenseMatrix<Complex<Float64>>,
 	ComplexMatrix adjoint();
 
 	@Override
-	ComplexVector solve(Vector<Complex<Float64>> y);
+	ComplexVector solve(Vector<Complex> y);
 
 	@Override
-	ComplexMatrix solve(Matrix<Complex<Float64>> y);
+	ComplexMatrix solve(Matrix<Complex> y);
 
 	@Override
 	ComplexMatrix pow(int exp);
 
 	@Override
-	ComplexMatrix tensor(Matrix<Complex<Float64>> that);
+	ComplexMatrix tensor(Matrix<Complex> that);
 
 	@Override
 	ComplexVector vectorization();
@@ -14,15 +14,14 @@ import javolution.util.Index;
 import javolution.context.ComputeContext;
 
 import org.jscience.mathematics.number.Complex;
-import org.jscience.mathematics.number.Float64;
-import org.jscience.mathematics.structure.NormedVectorSpace;
+import org.jscience.mathematics.structure.VectorSpaceNormed;
 
 /**
  * <p> A {@link DenseVector dense vector} of 64 bits floating points 
  *     complex numbers.
  * [code]
  * // Creates a complex vector of dimension 3.
- * FloatVector V = Vectors.floatVector(new double[]{0.1, 0.2, 0.3}, 
+ * ComplexVector V = Vectors.complexVector(new double[]{0.1, 0.2, 0.3}, 
  *     new double[]{0.7, 0.7, 0.7});
  * double x1 = V.getRealValue(0);
  * double x2 = V.getImaginaryValue(0);
@@ -33,8 +32,8 @@ import org.jscience.mathematics.structure.NormedVectorSpace;
  * @version 5.0, December 12, 2009
  * @see SparseVector
  */
-public interface ComplexVector extends DenseVector<Complex<Float64>>, 
-		NormedVectorSpace<Vector<Complex<Float64>>, Complex<Float64>>,
+public interface ComplexVector extends DenseVector<Complex>, 
+		VectorSpaceNormed<Vector<Complex>, Complex>,
 		ComputeContext.Local {
 
 	/**
@@ -42,7 +41,7 @@ public interface ComplexVector extends DenseVector<Complex<Float64>>,
 	 * element of this vector.
 	 *
 	 * @param  i the element index (range [0..dimension[).
-	 * @return <code>get(i).getReal().doubleValue()</code>.
+	 * @return <code>get(i).getReal()</code>.
 	 * @throws IndexOutOfBoundsException <code>(i &lt; 0) || (i &gt;= getDimension())</code>
 	 */
 	double getRealValue(int i);
@@ -52,13 +51,13 @@ public interface ComplexVector extends DenseVector<Complex<Float64>>,
 	 * element of this vector.
 	 *
 	 * @param  i the element index (range [0..dimension[).
-	 * @return <code>get(i).getImaginary().doubleValue()</code>.
+	 * @return <code>get(i).getImaginary()</code>.
 	 * @throws IndexOutOfBoundsException <code>(i &lt; 0) || (i &gt;= getDimension())</code>
 	 */
 	double getImaginaryValue(int i);
 	
 	/**
-	 * Returns the {@code double} value of the {@link NormedVectorSpace#norm()
+	 * Returns the {@code double} value of the {@link VectorSpaceNormed#norm()
 	 *  norm} of this vector.
 	 *
 	 * @return <code>norm().magnitude()</code>.
@@ -72,24 +71,24 @@ public interface ComplexVector extends DenseVector<Complex<Float64>>,
 	ComplexMatrix asRow();
 
 	@Override
-	ComplexVector cross(Vector<Complex<Float64>> that);
+	ComplexVector cross(Vector<Complex> that);
 
     @Override
 	ComplexVector getSubVector(List<Index> indices);
 
 	@Override
-	ComplexVector minus(Vector<Complex<Float64>> that);
+	ComplexVector minus(Vector<Complex> that);
 
 	@Override
 	ComplexVector opposite();
 
 	@Override
-	ComplexVector plus(Vector<Complex<Float64>> that);
+	ComplexVector plus(Vector<Complex> that);
 
 	@Override
-	ComplexMatrix tensor(Vector<Complex<Float64>> that);
+	ComplexMatrix tensor(Vector<Complex> that);
 
 	@Override
-	ComplexVector times(Complex<Float64> k);
+	ComplexVector times(Complex k);
 
 }
@@ -36,6 +36,10 @@ public interface DenseMatrix<F extends Field<F>> extends Matrix<F> {
 	@Override
 	DenseMatrix<F> getSubMatrix(List<Index> rows, List<Index> columns);
 
+	@Override
+	DenseMatrix<F> getSubMatrix(int fromRow, int toRow, int fromColumn,
+			int toColumn);
+
 	@Override
 	DenseMatrix<F> opposite();
 
@@ -0,0 +1,120 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import org.jscience.mathematics.internal.linear.Float64Eigen;
+import org.jscience.mathematics.internal.linear.FloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatVectorImpl;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> The eigen decomposition {@code A = V·Λ·Vᵀ} of a symmetric matrix of 
+ *     {@link Float64} elements: real eigenvalues {@code Λ} (ascending) and 
+ *     orthonormal eigenvectors (columns of {@code V}).</p>
+ *     
+ * <p> The matrix values are copied once into a {@code double} array 
+ *     which is reduced in place to the tridiagonal form (Householder) 
+ *     then diagonalized (implicit QL); the eigenvectors are accumulated 
+ *     in the same array. When only the {@link #eigenvalues eigenvalues} 
+ *     are needed the accumulation, which dominates the cost, is skipped.
+ * [code]
+ * // Principal components of a covariance matrix.
+ * EigenDecomposition pca = EigenDecomposition.valueOf(covariance);
+ * FloatVector variances = pca.getEigenvalues(); // Ascending.
+ * FloatVector first = pca.getEigenvector(variances.getDimension() - 1);
+ * [/code]</p>
+ *      
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://en.wikipedia.org/wiki/Eigendecomposition_of_a_matrix">
+ *      Wikipedia: Eigendecomposition of a matrix</a>
+ */
+public final class EigenDecomposition {
+
+	/**
+	 * Holds the decomposition of the {@code double} values.
+	 */
+	private final Float64Eigen _eigen;
+
+	/**
+	 * Creates a decomposition wrapping the specified one.
+	 */
+	private EigenDecomposition(Float64Eigen eigen) {
+		_eigen = eigen;
+	}
+
+	/**
+	 * Returns the eigen decomposition (eigenvalues and eigenvectors) of the
+	 * specified symmetric matrix.
+	 * 
+	 * @param symmetric the symmetric matrix (symmetry is not checked, only
+	 *        the lower triangle is significant).
+	 * @return the corresponding decomposition.
+	 * @throws DimensionException if the matrix is not square.
+	 * @throws ArithmeticException if the iterations do not converge.
+	 */
+	public static EigenDecomposition valueOf(Matrix<Float64> symmetric) {
+		return new EigenDecomposition(decompose(symmetric, true));
+	}
+
+	/**
+	 * Returns the eigenvalues of the specified symmetric matrix (the
+	 * eigenvectors are not calculated).
+	 * 
+	 * @param symmetric the symmetric matrix.
+	 * @return the eigenvalues in ascending order.
+	 * @throws DimensionException if the matrix is not square.
+	 * @throws ArithmeticException if the iterations do not converge.
+	 */
+	public static FloatVector eigenvalues(Matrix<Float64> symmetric) {
+		return FloatVectorImpl.valueOf(decompose(symmetric, false)
+				.getEigenvalues());
+	}
+
+	/**
+	 * Decomposes a copy of the values of the specified matrix.
+	 */
+	private static Float64Eigen decompose(Matrix<Float64> symmetric,
+			boolean vectors) {
+		if (!symmetric.isSquare())
+			throw new DimensionException("Matrix not square");
+		return Float64Eigen.wrap(symmetric.getRowDimension(), FloatMatrixImpl
+				.valueOf(symmetric).toArray(), vectors);
+	}
+
+	/**
+	 * Returns the eigenvalues of the decomposed matrix.
+	 * 
+	 * @return the diagonal of {@code Λ} in ascending order.
+	 */
+	public FloatVector getEigenvalues() {
+		return FloatVectorImpl.valueOf(_eigen.getEigenvalues());
+	}
+
+	/**
+	 * Returns the matrix whose columns are the eigenvectors.
+	 * 
+	 * @return {@code V} (orthonormal).
+	 */
+	public FloatMatrix getEigenvectors() {
+		final int n = _eigen.getDimension();
+		return FloatMatrixImpl.wrap(n, n, _eigen.getEigenvectorRows())
+				.transpose();
+	}
+
+	/**
+	 * Returns the eigenvector of the eigenvalue at the specified index.
+	 * 
+	 * @param i the index of the eigenvalue.
+	 * @return the column {@code i} of {@code V} (unit norm).
+	 */
+	public FloatVector getEigenvector(int i) {
+		return getEigenvectors().getColumn(i);
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import javolution.lang.Configurable;
+
+import org.jscience.mathematics.internal.linear.FactorizationCache;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> Static methods to monitor the cache of the factorizations (LU, QR,
+ *     Cholesky) of immutable matrices. The first call to
+ *     {@link Matrix#solve solve}, {@link Matrix#inverse inverse} or
+ *     {@link Matrix#determinant determinant} upon a dense or sparse matrix
+ *     of {@link Float64} elements factorizes the matrix; the subsequent
+ *     calls upon the same instance reuse its factorization.
+ * [code]
+ * FloatMatrix A = ...;
+ * for (FloatVector b : rightHandSides) {
+ *     FloatVector x = A.solve(b); // A factorized only once.
+ *     ...
+ * }
+ * System.out.println(Factorizations.getHitCount() + " hits, "
+ *     + Factorizations.getMissCount() + " misses");[/code]</p>
+ *
+ * <p> Matrices are identified by reference (not by value) and weakly
+ *     referenced; their factorizations are discarded when they are garbage
+ *     collected or when the {@link #CAPACITY capacity} of the cache is
+ *     exceeded (least recently used first). Mutable and memory-mapped
+ *     matrices are never cached.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Factorizations {
+
+	/**
+	 * Holds the maximum number of factorizations cached (default {@code 64},
+	 * {@code 0} disables the cache).
+	 */
+	public static final Configurable<Integer> CAPACITY = FactorizationCache.CAPACITY;
+
+	/**
+	 * Returns the number of factorizations reused since the last reset.
+	 *
+	 * @return the number of cache hits.
+	 */
+	public static long getHitCount() {
+		return FactorizationCache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of factorizations calculated (not found in the
+	 * cache) since the last reset.
+	 *
+	 * @return the number of cache misses.
+	 */
+	public static long getMissCount() {
+		return FactorizationCache.getMissCount();
+	}
+
+	/**
+	 * Returns the number of factorizations discarded because the capacity
+	 * was exceeded since the last reset.
+	 *
+	 * @return the number of evictions.
+	 */
+	public static long getEvictionCount() {
+		return FactorizationCache.getEvictionCount();
+	}
+
+	/**
+	 * Returns the number of factorizations currently cached.
+	 *
+	 * @return the size of the cache.
+	 */
+	public static int getCacheSize() {
+		return FactorizationCache.size();
+	}
+
+	/**
+	 * Discards all the factorizations cached.
+	 */
+	public static void clear() {
+		FactorizationCache.clear();
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counts.
+	 */
+	public static void resetStatistics() {
+		FactorizationCache.resetStatistics();
+	}
+
+	/**
+	 * Default constructor (private).
+	 */
+	private Factorizations() {
+	}
+}
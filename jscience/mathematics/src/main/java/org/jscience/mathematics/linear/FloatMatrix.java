@@ -24,6 +24,17 @@ import org.jscience.mathematics.number.Float64;
  */
 public interface FloatMatrix extends DenseMatrix<Float64>, ComputeContext.Local {
 
+	/**
+	 * Returns the {@code double} value of a single element of this matrix.
+	 *
+	 * @param  i the row index (range [0..m[).
+	 * @param  j the column index (range [0..n[).
+	 * @return <code>get(i, j).doubleValue()</code>.
+	 * @throws IndexOutOfBoundsException <code>((i &lt; 0) || (i &gt;= m))
+	 *         || ((j &lt; 0) || (j &gt;= n))</code>
+	 */
+	double getValue(int i, int j);
+
 	@Override
 	FloatVector getRow(int i);
 
@@ -36,6 +47,10 @@ public interface FloatMatrix extends DenseMatrix<Float64>, ComputeContext.Local
 	@Override
 	FloatMatrix getSubMatrix(List<Index> rows, List<Index> columns);
 
+	@Override
+	FloatMatrix getSubMatrix(int fromRow, int toRow, int fromColumn,
+			int toColumn);
+
 	@Override
 	FloatMatrix opposite();
 
@@ -14,7 +14,7 @@ import javolution.context.ComputeContext;
 import javolution.util.Index;
 
 import org.jscience.mathematics.number.Float64;
-import org.jscience.mathematics.structure.NormedVectorSpace;
+import org.jscience.mathematics.structure.VectorSpaceNormed;
 
 /**
  * <p> A {@link DenseVector dense vector} of 64 bits floating points 
@@ -31,7 +31,7 @@ import org.jscience.mathematics.structure.NormedVectorSpace;
  * @see SparseVector
  */
 public interface FloatVector extends DenseVector<Float64>,
-		NormedVectorSpace<Vector<Float64>, Float64>, ComputeContext.Local {
+		VectorSpaceNormed<Vector<Float64>, Float64>, ComputeContext.Local {
 
 	/**
 	 * Returns the {@code double} value of a single element of this vector.
@@ -43,7 +43,7 @@ public interface FloatVector extends DenseVector<Float64>,
 	double getValue(int i);
 
 	/**
-	 * Returns the {@code double} value of the {@link NormedVectorSpace#norm()
+	 * Returns the {@code double} value of the {@link VectorSpaceNormed#norm()
 	 *  norm} of this vector.
 	 *
 	 * @return <code>norm().doubleValue()</code>.
@@ -0,0 +1,135 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> A {@link FloatMatrix float matrix} stored in a file and accessed
+ *     through memory mappings; the matrix can be larger than the heap
+ *     (e.g. a 60000x60000 covariance matrix of 29 GB).
+ * [code]
+ * MappedFloatMatrix C = Matrices.mappedFloatMatrix(new File("cov.tiles"), n, n);
+ * for (...) C.setValue(i, j, value); // Written through to the file.
+ * C.close();
+ * ...
+ * MappedFloatMatrix C = Matrices.mappedFloatMatrix(new File("cov.tiles")); // No copy.
+ * FloatVector x = C.solve(y); // Out-of-core LU.
+ * [/code]</p>
+ *
+ * <p> The values are stored in square tiles; creating or opening a matrix
+ *     does not read or write any value. Products, sums, transposes,
+ *     inverses and LU decompositions (determinant, solve) stream the tiles
+ *     through a bounded working set on the heap; the resulting matrices
+ *     are held in temporary files (deleted when closed or at exit), or in
+ *     the file specified ({@link #times(Matrix, File)}). Operations without
+ *     out-of-core algorithm (e.g. rank, pseudo-inverse of non-square
+ *     matrices) load the matrix on the heap.</p>
+ *
+ * <p> Unlike others float matrices, mapped matrices can be
+ *     {@link #setValue modified}; they should not be modified while
+ *     being read by others threads.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see Matrices#mappedFloatMatrix(File, int, int)
+ * @see Matrices#mappedFloatMatrix(File)
+ */
+public interface MappedFloatMatrix extends FloatMatrix, Closeable {
+
+	/**
+	 * Returns the file holding the values of this matrix.
+	 */
+	File getFile();
+
+	/**
+	 * Returns the number of rows (and columns) of the tiles.
+	 */
+	int getTileSize();
+
+	/**
+	 * Sets the value of a single element of this matrix (written through
+	 * to the file).
+	 *
+	 * @param i the row index (range [0..m[).
+	 * @param j the column index (range [0..n[).
+	 * @param value the new value.
+	 * @return {@code this}
+	 * @throws IndexOutOfBoundsException if the indices are out of range.
+	 */
+	MappedFloatMatrix setValue(int i, int j, double value);
+
+	/**
+	 * Sets the values of this matrix to the values of the specified matrix
+	 * (copied tile by tile).
+	 *
+	 * @param that the matrix whose values are copied.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MappedFloatMatrix set(Matrix<Float64> that);
+
+	/**
+	 * Returns the product of this matrix by the specified matrix stored
+	 * in the specified file (blocked product streaming the tiles of both
+	 * operands).
+	 *
+	 * @param that the matrix multiplier.
+	 * @param file the file receiving the product (replaced if it exists).
+	 * @return {@code this · that}
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws IOException if the file cannot be created.
+	 */
+	MappedFloatMatrix times(Matrix<Float64> that, File file) throws IOException;
+
+	/**
+	 * Writes the values modified to the file.
+	 */
+	void flush();
+
+	/**
+	 * Closes the file of this matrix (deleted if temporary); this matrix
+	 * should not be used afterward.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 */
+	void close() throws IOException;
+
+	@Override
+	MappedFloatMatrix opposite();
+
+	@Override
+	MappedFloatMatrix plus(Matrix<Float64> that);
+
+	@Override
+	MappedFloatMatrix minus(Matrix<Float64> that);
+
+	@Override
+	MappedFloatMatrix times(Float64 k);
+
+	@Override
+	MappedFloatMatrix times(Matrix<Float64> that);
+
+	@Override
+	MappedFloatMatrix inverse();
+
+	@Override
+	MappedFloatMatrix divide(Matrix<Float64> that);
+
+	@Override
+	MappedFloatMatrix transpose();
+
+	@Override
+	MappedFloatMatrix pow(int exp);
+
+}
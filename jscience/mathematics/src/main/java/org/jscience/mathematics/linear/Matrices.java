@@ -8,14 +8,41 @@
  */
 package org.jscience.mathematics.linear;
 
+import java.io.File;
+import java.io.IOException;
+
 import javolution.util.function.Predicate;
 
+import org.jscience.mathematics.internal.linear.AbstractSparseMatrix;
+import org.jscience.mathematics.internal.linear.ComplexMatrixImpl;
+import org.jscience.mathematics.internal.linear.DenseMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatSparseMatrixImpl;
+import org.jscience.mathematics.internal.linear.LazyFloatMatrix;
+import org.jscience.mathematics.internal.linear.MappedFloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.MutableFloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.SparseMatrixImpl;
 import org.jscience.mathematics.number.Complex;
 import org.jscience.mathematics.number.Float64;
 import org.jscience.mathematics.structure.Field;
 
 /**
  * <p> Sets of static factory methods to create {@link Matrix} instances.</p>
+ * 
+ * <p> Dense matrices are backed by a single array (row-major) with an offset
+ *     and row/column strides; their transpose, rows, columns and diagonal
+ *     are views (no copy). Float matrices hold {@code double} values and 
+ *     complex matrices two {@code double} arrays (real and imaginary parts).
+ *     Dense matrices of {@link Float64} or {@link Complex} elements are 
+ *     automatically float or complex matrices.</p>
+ *
+ * <p> Sparse matrices are stored in compressed sparse row (CSR) or 
+ *     compressed sparse column (CSC) format: {@code int} arrays of row/column
+ *     pointers and of column/row indices plus an array of the non-zero 
+ *     elements ({@code double} values for {@link Float64} elements).
+ *     The transpose of a CSR matrix is the CSC matrix sharing the same 
+ *     arrays; conversions between CSR and CSC ({@link #rowCompressed},
+ *     {@link #columnCompressed}) are performed in <code>O(nnz)</code>.</p>
  *      
  * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @version 5.0, January 26, 2014
@@ -26,30 +53,47 @@ public class Matrices {
 	 * Returns a dense matrix of 64 bits floating points complex numbers 
 	 * having the specified rows.
 	 */
-	public static ComplexMatrix complexMatrix(ComplexVector rows) {
-		return null;
+	public static ComplexMatrix complexMatrix(ComplexVector... rows) {
+		return ComplexMatrixImpl.valueOf(rows);
 	}
 
 	/**
 	 * Returns a dense matrix of 64 bits floating points complex numbers 
 	 * equivalent to the generic matrix specified.
 	 */
-	public static ComplexMatrix complexMatrix(Matrix<Complex<Float64>> that) {
-		return (that instanceof ComplexMatrix) ? (ComplexMatrix) that : null;
+	public static ComplexMatrix complexMatrix(Matrix<Complex> that) {
+		return (that instanceof ComplexMatrix) ? (ComplexMatrix) that
+				: ComplexMatrixImpl.valueOf(that);
 	}
 
 	/**
 	 * Returns a dense matrix having the specified rows.
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static <F extends Field<F>> DenseMatrix<F> denseMatrix(Vector<F>... rows) {
-		return null;
+		Object e = ((rows.length == 0) || (rows[0].getDimension() == 0)) ? null
+				: rows[0].get(0);
+		if (e instanceof Float64)
+			return (DenseMatrix<F>) FloatMatrixImpl.valueOf((Vector[]) rows);
+		if (e instanceof Complex)
+			return (DenseMatrix<F>) ComplexMatrixImpl.valueOf((Vector[]) rows);
+		return DenseMatrixImpl.valueOf(rows);
 	}
 
 	/**
 	 * Returns a dense matrix equivalent to the generic matrix specified.
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static <F extends Field<F>> DenseMatrix<F> denseMatrix(Matrix<F> that) {
-		return (that instanceof DenseMatrix) ? (DenseMatrix<F>) that : null;
+		if (that instanceof DenseMatrix)
+			return (DenseMatrix<F>) that;
+		Object e = ((that.getRowDimension() == 0) || (that
+				.getColumnDimension() == 0)) ? null : that.get(0, 0);
+		if (e instanceof Float64)
+			return (DenseMatrix<F>) FloatMatrixImpl.valueOf((Matrix) that);
+		if (e instanceof Complex)
+			return (DenseMatrix<F>) ComplexMatrixImpl.valueOf((Matrix) that);
+		return DenseMatrixImpl.valueOf(that);
 	}
 
 	/**
@@ -57,7 +101,15 @@ public class Matrices {
 	 * the specified rows.
 	 */
 	public static FloatMatrix floatMatrix(FloatVector... rows) {
-		return null;
+		return FloatMatrixImpl.valueOf(rows);
+	}
+
+	/**
+	 * Returns a dense matrix of 64 bits floating points numbers having 
+	 * the specified {@code double} values (first dimension being the rows).
+	 */
+	public static FloatMatrix floatMatrix(double[][] values) {
+		return FloatMatrixImpl.valueOf(values);
 	}
 
 	/**
@@ -65,23 +117,148 @@ public class Matrices {
 	 * to the generic matrix specified.
 	 */
 	public static FloatMatrix floatMatrix(Matrix<Float64> that) {
-		return (that instanceof FloatMatrix) ? (FloatMatrix) that : null;
+		return (that instanceof FloatMatrix) ? (FloatMatrix) that
+				: FloatMatrixImpl.valueOf(that);
+	}
+
+	/**
+	 * Returns a mutable dense matrix of 64 bits floating points numbers of
+	 * the specified dimensions (all values zero).
+	 */
+	public static MutableFloatMatrix mutableFloatMatrix(int m, int n) {
+		return new MutableFloatMatrixImpl(m, n, new double[m * n]);
 	}
 
 	/**
-	 * Returns a sparse matrix having the specified rows.
+	 * Returns a mutable dense matrix of 64 bits floating points numbers
+	 * having the values of the specified matrix (copied).
 	 */
-	public static <F extends Field<F>> SparseVector<F> sparseVector(Vector<F>... rows) {
-		return null;
+	public static MutableFloatMatrix mutableFloatMatrix(Matrix<Float64> that) {
+		return MutableFloatMatrixImpl.valueOf(that);
+	}
+
+	/**
+	 * Returns a dense matrix of 64 bits floating points numbers of the
+	 * specified dimensions (all values zero) held in the specified file
+	 * (replaced if it exists); no value is written, the file is mapped in
+	 * memory on demand.
+	 *
+	 * @throws IOException if the file cannot be created.
+	 */
+	public static MappedFloatMatrix mappedFloatMatrix(File file, int m, int n)
+			throws IOException {
+		return MappedFloatMatrixImpl.create(file, m, n);
+	}
+
+	/**
+	 * Returns the dense matrix of 64 bits floating points numbers held in
+	 * the specified file, previously created by
+	 * {@link #mappedFloatMatrix(File, int, int)}; no value is read (the file
+	 * is mapped in memory on demand).
+	 *
+	 * @throws IOException if the file cannot be read or does not hold a
+	 *         matrix.
+	 */
+	public static MappedFloatMatrix mappedFloatMatrix(File file)
+			throws IOException {
+		return MappedFloatMatrixImpl.open(file);
+	}
+
+	/**
+	 * Returns a lazy dense matrix of 64 bits floating points numbers having
+	 * the same values as the specified matrix: the sums, differences, 
+	 * scalings, transposes and products of lazy matrices are not calculated
+	 * but recorded in an expression, evaluated in a single pass when its 
+	 * elements are read (products chains being reordered to minimize the
+	 * number of multiplications).
+	 * [code]
+	 * FloatMatrix X = Matrices.lazy(A).times(k).plus(B).minus(C); // No array allocated.
+	 * double x00 = X.getValue(0, 0); // One pass over A, B and C.
+	 * FloatMatrix P = Matrices.lazy(A).times(B).times(v.asColumn()); // (A·B)·v evaluated as A·(B·v)
+	 * [/code]
+	 */
+	public static FloatMatrix lazy(Matrix<Float64> that) {
+		return LazyFloatMatrix.valueOf(that);
+	}
+
+	/**
+	 * Returns a sparse matrix having the specified rows (compressed sparse
+	 * row format).
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static <F extends Field<F>> SparseMatrix<F> sparseMatrix(SparseVector<F>... rows) {
+		F zero = (rows.length == 0) ? null : rows[0].getZero();
+		if (zero instanceof Float64)
+			return (SparseMatrix<F>) FloatSparseMatrixImpl.valueOf((Vector[]) rows);
+		return SparseMatrixImpl.valueOf(zero, rows);
+	}
+
+	/**
+	 * Returns a sparse matrix in compressed sparse row format having the
+	 * specified structure and non-zero elements (arrays are copied).
+	 *
+	 * @param m the number of rows.
+	 * @param n the number of columns.
+	 * @param zero the zero element.
+	 * @param rowPointers the position of the first element of each row
+	 *        (<code>m + 1</code> positions, the last one being the number of
+	 *        non-zero elements).
+	 * @param columnIndices the column index of each element (increasing
+	 *        within a row).
+	 * @param elements the non-zero elements.
+	 * @return the corresponding sparse matrix.
+	 * @throws IllegalArgumentException if the structure is not valid.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <F extends Field<F>> SparseMatrix<F> sparseMatrix(int m,
+			int n, F zero, int[] rowPointers, int[] columnIndices, F... elements) {
+		if (zero instanceof Float64) {
+			double[] values = new double[elements.length];
+			for (int k = 0; k < values.length; k++) {
+				values[k] = ((Float64) elements[k]).doubleValue();
+			}
+			return (SparseMatrix<F>) FloatSparseMatrixImpl.valueOf(m, n,
+					rowPointers, columnIndices, values);
+		}
+		return SparseMatrixImpl.valueOf(m, n, zero, rowPointers,
+				columnIndices, elements);
+	}
+
+	/**
+	 * Returns a sparse matrix of 64 bits floating points numbers in 
+	 * compressed sparse row format having the specified structure and 
+	 * {@code double} values (arrays are copied).
+	 *
+	 * @param m the number of rows.
+	 * @param n the number of columns.
+	 * @param rowPointers the position of the first value of each row
+	 *        (<code>m + 1</code> positions, the last one being the number of
+	 *        non-zero values).
+	 * @param columnIndices the column index of each value (increasing
+	 *        within a row).
+	 * @param values the non-zero values.
+	 * @return the corresponding sparse matrix.
+	 * @throws IllegalArgumentException if the structure is not valid.
+	 */
+	public static SparseMatrix<Float64> floatSparseMatrix(int m, int n,
+			int[] rowPointers, int[] columnIndices, double[] values) {
+		return FloatSparseMatrixImpl.valueOf(m, n, rowPointers, columnIndices,
+				values);
 	}
 
 	/**
 	 * Returns a sparse matrix having the specified zero element and equivalent
 	 * to the generic matrix specified.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <F extends Field<F>> SparseMatrix<F> sparseMatrix(
 			Matrix<F> that, F zero) {
-		return (that instanceof SparseMatrix) ? (SparseMatrix<F>) that : null;
+		if (that instanceof SparseMatrix)
+			return (SparseMatrix<F>) that;
+		if (zero instanceof Float64)
+			return (SparseMatrix<F>) FloatSparseMatrixImpl
+					.valueOf((Matrix<Float64>) that);
+		return SparseMatrixImpl.valueOf(that, zero);
 	}
 
 	/**
@@ -93,7 +270,30 @@ public class Matrices {
 	 */
 	public static <F extends Field<F>> SparseMatrix<F> sparseMatrix(
 			Matrix<F> that, F zero, Predicate<F> isZero) {
-		return null;
+		return SparseMatrixImpl.valueOf(that, zero, isZero);
+	}
+
+	/**
+	 * Returns the specified sparse matrix in compressed sparse row format
+	 * (conversion performed in <code>O(nnz)</code> if the matrix is
+	 * in compressed sparse column format).
+	 */
+	public static <F extends Field<F>> SparseMatrix<F> rowCompressed(
+			SparseMatrix<F> that) {
+		if (that instanceof AbstractSparseMatrix)
+			return ((AbstractSparseMatrix<F>) that).toRowMajor();
+		F zero = (that.getRowDimension() == 0) ? null : that.getRow(0).getZero();
+		return SparseMatrixImpl.valueOf(that, zero);
+	}
+
+	/**
+	 * Returns the specified sparse matrix in compressed sparse column format
+	 * (conversion performed in <code>O(nnz)</code> if the matrix is
+	 * in compressed sparse row format).
+	 */
+	public static <F extends Field<F>> SparseMatrix<F> columnCompressed(
+			SparseMatrix<F> that) {
+		return ((AbstractSparseMatrix<F>) rowCompressed(that)).toColumnMajor();
 	}
 
 	/**
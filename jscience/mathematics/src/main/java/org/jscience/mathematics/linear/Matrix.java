@@ -119,7 +119,8 @@ public interface Matrix<F extends Field<F>>
      * rows and columns. The indices don't have to be ordered, for example
      * {@code getSubMatrix(Index.listOf(1,0), Index.rangeOf(0,3))}
      * applied on a 3x3 matrix would result in a 2x3 matrix holding
-     * the first and second row exchanged.
+     * the first and second row exchanged. Dense matrices return a view
+     * (no copy) when the row and column indices are equally spaced.
      *
      * @return the corresponding sub-matrix.
      * @throws IndexOutOfBoundsException if any of the indices is greater
@@ -127,6 +128,24 @@ public interface Matrix<F extends Field<F>>
      */
     Matrix<F> getSubMatrix(List<Index> rows, List<Index> columns);
 
+    /**
+     * Returns the sub-matrix formed by the specified ranges of rows and
+     * columns. For dense matrices the sub-matrix is a view sharing the
+     * elements of this matrix (constant time, no copy); block algorithms
+     * can then slice matrices at no cost.
+     *
+     * @param fromRow the first row (inclusive).
+     * @param toRow the last row (exclusive).
+     * @param fromColumn the first column (inclusive).
+     * @param toColumn the last column (exclusive).
+     * @return the {@code (toRow - fromRow) x (toColumn - fromColumn)}
+     *         sub-matrix.
+     * @throws IndexOutOfBoundsException if a range is not within the
+     *         associated dimension.
+     */
+    Matrix<F> getSubMatrix(int fromRow, int toRow, int fromColumn,
+            int toColumn);
+
     /**
      * Returns the negation of this matrix.
      *
@@ -184,8 +203,9 @@ public interface Matrix<F extends Field<F>>
 
     /**
      * Returns the inverse of this matrix (must be square).
-     * The default implementation returns
-     * <code>determinant.inverse().times(this.adjoint())</code>
+     * The implementations solve <code>this · X = I</code> by LU
+     * decomposition with pivoting (floating points elements) or
+     * fraction-free elimination (exact elements) in <code>O(n³)</code>.
      *
      * @return <code>1 / this</code>
      * @throws DimensionException if this matrix is not square.
@@ -204,20 +224,36 @@ public interface Matrix<F extends Field<F>>
 
     /**
      * Returns the inverse or pseudo-inverse if this matrix if not square.
+     * The pseudo-inverse is calculated from the QR decomposition of this
+     * matrix (or of its transpose if it has more columns than rows), the
+     * normal equations are not formed.
      *
      * @return the inverse or pseudo-inverse of this matrix.
      */
     Matrix<F> pseudoInverse();
 
     /**
-     * Returns the determinant of this matrix. The implementations
-     * may uses an expansion by minors (also known as Laplacian) or 
-     * LU decomposition ({@link DenseMatrix}).
+     * Returns the determinant of this matrix. The implementations use
+     * a LU decomposition with pivoting (floating points elements) or a
+     * fraction-free elimination (exact elements) in <code>O(n³)</code>.
      *
      * @return this matrix determinant.
      * @throws DimensionException if this matrix is not square.
      */
     F determinant();
+
+    /**
+     * Returns the rank of this matrix (maximum number of linearly
+     * independent rows or columns). The rank is exact for exact elements
+     * ({@link org.jscience.mathematics.number.Rational Rational},
+     * {@link org.jscience.mathematics.number.ModuloInteger ModuloInteger}
+     * through fraction-free elimination) and numerical for
+     * {@link FloatMatrix float matrices} (number of non-negligible singular
+     * values).
+     *
+     * @return this matrix rank.
+     */
+    int rank();
     
     /**
      * Returns the transpose of this matrix.
@@ -263,20 +299,20 @@ public interface Matrix<F extends Field<F>>
      * 
      * @param  y the vector for which the solution is calculated.
      * @return {@code solve(y.asColumn()).getColumn(0)}
-     * @throws DimensionException if that matrix is not square or dimensions 
-     *         do not match.
+     * @throws DimensionException if the dimensions do not match.
      * @see #solve(org.jscience.mathematics.vector.Matrix)
      */
     Vector<F> solve(Vector<F> y);
 
     /**
      * Solves this matrix for the specified matrix (returns <code>x</code>
-     * such as <code>this · x = y</code>). 
+     * such as <code>this · x = y</code>). If this matrix is not square the
+     * least squares solution (more rows than columns) or the minimum norm
+     * solution (more columns than rows) is returned.
      * 
      * @param  y the matrix for which the solution is calculated.
      * @return <code>x</code> such as <code>this · x = y</code>
-     * @throws DimensionException if that matrix is not square or dimensions 
-     *         do not match.
+     * @throws DimensionException if the dimensions do not match.
      */
     Matrix<F> solve(Matrix<F> y);
 
@@ -0,0 +1,142 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jscience.mathematics.internal.linear.MatrixMarketReader;
+import org.jscience.mathematics.internal.linear.MatrixMarketWriter;
+import org.jscience.mathematics.number.Complex;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * <p> Static methods to read and write matrices in the
+ *     <a href="http://math.nist.gov/MatrixMarket/formats.html">Matrix Market</a>
+ *     exchange format ({@code .mtx} files).
+ * [code]
+ * Matrix<Float64> A = MatrixMarket.read(new File("bcsstk17.mtx")); // Sparse (CSR).
+ * Vector<Float64> x = A.solve(b);
+ * MatrixMarket.write(x.asColumn(), new File("x.mtx")); // Array format.
+ * [/code]</p>
+ *
+ * <p> Files are streamed: the entries are parsed from a byte buffer
+ *     directly into the primitive arrays of compressed sparse (CSR or CSC)
+ *     or dense matrices, no object is created per entry for real matrices.
+ *     Symmetric, skew-symmetric and hermitian files are expanded (both
+ *     triangles stored).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class MatrixMarket {
+
+	/**
+	 * Reads the matrix in the specified file (coordinate matrices in 
+	 * compressed sparse row format).
+	 *
+	 * @param file the Matrix Market file.
+	 * @return the matrix read.
+	 * @throws IOException if the file cannot be read or is not valid.
+	 * @see #read(ReadableByteChannel, boolean)
+	 */
+	public static <F extends Field<F>> Matrix<F> read(File file)
+			throws IOException {
+		return read(file, false);
+	}
+
+	/**
+	 * Reads the matrix in the specified file.
+	 *
+	 * @param file the Matrix Market file.
+	 * @param columnCompressed {@code true} if coordinate matrices are 
+	 *        returned in compressed sparse column format; {@code false} for
+	 *        compressed sparse row format.
+	 * @return the matrix read.
+	 * @throws IOException if the file cannot be read or is not valid.
+	 * @see #read(ReadableByteChannel, boolean)
+	 */
+	public static <F extends Field<F>> Matrix<F> read(File file,
+			boolean columnCompressed) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			return read(in.getChannel(), columnCompressed);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a matrix from the specified channel. Coordinate matrices are 
+	 * returned as {@link SparseMatrix sparse matrices}, array matrices as 
+	 * {@link DenseMatrix dense matrices}. The elements are {@link Float64}
+	 * for real, integer and pattern matrices (pattern entries being 
+	 * {@code 1.0}) and {@link Complex} for complex matrices.
+	 *
+	 * @param in the channel read (not closed).
+	 * @param columnCompressed {@code true} if coordinate matrices are 
+	 *        returned in compressed sparse column format; {@code false} for
+	 *        compressed sparse row format.
+	 * @return the matrix read.
+	 * @throws IOException if an I/O error occurs or the content is not 
+	 *         valid (e.g. duplicate entries).
+	 */
+	@SuppressWarnings("unchecked")
+	public static <F extends Field<F>> Matrix<F> read(ReadableByteChannel in,
+			boolean columnCompressed) throws IOException {
+		return (Matrix<F>) new MatrixMarketReader(in).read(columnCompressed);
+	}
+
+	/**
+	 * Writes the specified matrix to the specified file (replaced if it 
+	 * exists).
+	 *
+	 * @param matrix the matrix of {@link Float64} or {@link Complex} 
+	 *        elements.
+	 * @param file the Matrix Market file.
+	 * @throws IOException if the file cannot be written.
+	 * @see #write(Matrix, WritableByteChannel)
+	 */
+	public static void write(Matrix<?> matrix, File file) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			write(matrix, out.getChannel());
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the specified matrix to the specified channel; sparse 
+	 * matrices are written in coordinate format, others in array format.
+	 *
+	 * @param matrix the matrix of real numbers (e.g. {@link Float64}) or 
+	 *        {@link Complex} elements.
+	 * @param out the channel written (not closed).
+	 * @throws IOException if an I/O error occurs.
+	 * @throws IllegalArgumentException if the elements are not real or 
+	 *         complex numbers.
+	 */
+	public static void write(Matrix<?> matrix, WritableByteChannel out)
+			throws IOException {
+		new MatrixMarketWriter(out).write(matrix);
+	}
+
+	/**
+	 * Default constructor (private).
+	 */
+	private MatrixMarket() {
+	}
+
+}
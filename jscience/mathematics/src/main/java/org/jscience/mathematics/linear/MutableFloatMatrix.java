@@ -0,0 +1,171 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> A mutable dense matrix of 64 bits floating points numbers (row-major
+ *     {@code double} array) whose operations are performed in place.
+ * [code]
+ * MutableFloatMatrix X = Matrices.mutableFloatMatrix(n, n);
+ * MutableFloatMatrix tmp = Matrices.mutableFloatMatrix(n, n);
+ * for (int k = 0; k < steps; k++) {
+ *     A.multiplyInto(X, tmp);     // tmp = A·X
+ *     X.scale(1 - dt).axpy(dt, tmp); // X = (1 - dt)·X + dt·A·X
+ * }
+ * FloatMatrix result = X.freeze(); // No copy.
+ * [/code]</p>
+ *
+ * <p> As for {@link MutableFloatVector}, the current values are
+ *     {@link #freeze frozen} into an immutable {@link FloatMatrix} sharing
+ *     the same array (copy-on-write if this matrix is modified
+ *     afterward).</p>
+ *
+ * <p> Mutable matrices are not thread-safe.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see Matrices#mutableFloatMatrix(int, int)
+ */
+public interface MutableFloatMatrix {
+
+	/**
+	 * Returns the number of rows of this matrix.
+	 */
+	int getRowDimension();
+
+	/**
+	 * Returns the number of columns of this matrix.
+	 */
+	int getColumnDimension();
+
+	/**
+	 * Returns the value of a single element of this matrix.
+	 *
+	 * @param i the row index (range [0..m[).
+	 * @param j the column index (range [0..n[).
+	 * @throws IndexOutOfBoundsException if the indices are out of range.
+	 */
+	double getValue(int i, int j);
+
+	/**
+	 * Sets the value of a single element of this matrix.
+	 *
+	 * @param i the row index (range [0..m[).
+	 * @param j the column index (range [0..n[).
+	 * @param value the new value.
+	 * @return {@code this}
+	 * @throws IndexOutOfBoundsException if the indices are out of range.
+	 */
+	MutableFloatMatrix setValue(int i, int j, double value);
+
+	/**
+	 * Sets all the elements of this matrix to the specified value.
+	 *
+	 * @param value the new value.
+	 * @return {@code this}
+	 */
+	MutableFloatMatrix fill(double value);
+
+	/**
+	 * Sets the values of this matrix to the values of the specified matrix.
+	 *
+	 * @param that the matrix whose values are copied.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatMatrix set(Matrix<Float64> that);
+
+	/**
+	 * Sets the values of this matrix to the values of the specified mutable
+	 * matrix.
+	 *
+	 * @param that the matrix whose values are copied.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatMatrix set(MutableFloatMatrix that);
+
+	/**
+	 * Multiplies this matrix by the specified coefficient:
+	 * {@code this = k · this}.
+	 *
+	 * @param k the coefficient.
+	 * @return {@code this}
+	 */
+	MutableFloatMatrix scale(double k);
+
+	/**
+	 * Adds the specified matrix scaled: {@code this = this + a · X}.
+	 *
+	 * @param a the coefficient.
+	 * @param X the matrix added.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatMatrix axpy(double a, Matrix<Float64> X);
+
+	/**
+	 * Adds the specified mutable matrix scaled: {@code this = this + a · X}.
+	 *
+	 * @param a the coefficient.
+	 * @param X the matrix added.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatMatrix axpy(double a, MutableFloatMatrix X);
+
+	/**
+	 * Adds this matrix to the specified matrix: {@code dst = dst + this}.
+	 *
+	 * @param dst the matrix modified.
+	 * @return {@code dst}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatMatrix addTo(MutableFloatMatrix dst);
+
+	/**
+	 * Calculates the product of this matrix by the specified vector:
+	 * {@code dst = this · x}.
+	 *
+	 * @param x the multiplier.
+	 * @param dst the vector receiving the product (different from
+	 *        {@code x}).
+	 * @return {@code dst}
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws IllegalArgumentException if {@code x == dst}
+	 */
+	MutableFloatVector multiplyInto(MutableFloatVector x,
+			MutableFloatVector dst);
+
+	/**
+	 * Calculates the product of this matrix by the specified matrix:
+	 * {@code dst = this · B} (blocked and concurrent for large matrices).
+	 *
+	 * @param B the multiplier.
+	 * @param dst the matrix receiving the product (different from
+	 *        {@code this} and {@code B}).
+	 * @return {@code dst}
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws IllegalArgumentException if {@code dst} is an operand.
+	 */
+	MutableFloatMatrix multiplyInto(MutableFloatMatrix B,
+			MutableFloatMatrix dst);
+
+	/**
+	 * Returns an immutable matrix holding the current values of this
+	 * matrix (no copy, the values are copied by the next modification of
+	 * this matrix).
+	 *
+	 * @return the current values as an immutable float matrix.
+	 */
+	FloatMatrix freeze();
+
+}
@@ -0,0 +1,167 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> A mutable vector of 64 bits floating points numbers whose operations
+ *     are performed in place (no allocation), typically for the inner loops
+ *     of iterative algorithms.
+ * [code]
+ * // Richardson iteration x = x + ω·(b - A·x), allocation free.
+ * MutableFloatVector x = Vectors.mutableFloatVector(n);
+ * MutableFloatVector r = Vectors.mutableFloatVector(n);
+ * for (int k = 0; k < iterations; k++) {
+ *     r.setProduct(A, x).scale(-1).axpy(1.0, b); // r = b - A·x
+ *     x.axpy(omega, r);
+ * }
+ * FloatVector solution = x.freeze(); // No copy.
+ * [/code]</p>
+ *
+ * <p> Mutable vectors are not {@link Vector vectors} (which are immutable);
+ *     their current values are {@link #freeze frozen} into an immutable
+ *     {@link FloatVector} sharing the same array, the array being copied
+ *     only if this vector is modified afterward (copy-on-write).</p>
+ *
+ * <p> Mutable vectors are not thread-safe.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see Vectors#mutableFloatVector(int)
+ */
+public interface MutableFloatVector {
+
+	/**
+	 * Returns the number of elements held by this vector.
+	 */
+	int getDimension();
+
+	/**
+	 * Returns the value of a single element of this vector.
+	 *
+	 * @param i the element index (range [0..dimension[).
+	 * @throws IndexOutOfBoundsException {@code (i < 0) || (i >= getDimension())}
+	 */
+	double getValue(int i);
+
+	/**
+	 * Sets the value of a single element of this vector.
+	 *
+	 * @param i the element index (range [0..dimension[).
+	 * @param value the new value.
+	 * @return {@code this}
+	 * @throws IndexOutOfBoundsException {@code (i < 0) || (i >= getDimension())}
+	 */
+	MutableFloatVector setValue(int i, double value);
+
+	/**
+	 * Sets all the elements of this vector to the specified value.
+	 *
+	 * @param value the new value.
+	 * @return {@code this}
+	 */
+	MutableFloatVector fill(double value);
+
+	/**
+	 * Sets the values of this vector to the values of the specified vector.
+	 *
+	 * @param that the vector whose values are copied.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatVector set(Vector<Float64> that);
+
+	/**
+	 * Sets the values of this vector to the values of the specified mutable
+	 * vector.
+	 *
+	 * @param that the vector whose values are copied.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatVector set(MutableFloatVector that);
+
+	/**
+	 * Multiplies this vector by the specified coefficient:
+	 * {@code this = k · this}.
+	 *
+	 * @param k the coefficient.
+	 * @return {@code this}
+	 */
+	MutableFloatVector scale(double k);
+
+	/**
+	 * Adds the specified vector scaled: {@code this = this + a · x}.
+	 *
+	 * @param a the coefficient.
+	 * @param x the vector added.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatVector axpy(double a, Vector<Float64> x);
+
+	/**
+	 * Adds the specified mutable vector scaled: {@code this = this + a · x}.
+	 *
+	 * @param a the coefficient.
+	 * @param x the vector added.
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatVector axpy(double a, MutableFloatVector x);
+
+	/**
+	 * Adds this vector to the specified vector: {@code dst = dst + this}.
+	 *
+	 * @param dst the vector modified.
+	 * @return {@code dst}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	MutableFloatVector addTo(MutableFloatVector dst);
+
+	/**
+	 * Sets this vector to the product of the specified matrix by the
+	 * specified vector: {@code this = A · x} (no allocation for float and
+	 * sparse float matrices).
+	 *
+	 * @param A the matrix.
+	 * @param x the multiplier (different from {@code this}).
+	 * @return {@code this}
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws IllegalArgumentException if {@code x == this}
+	 */
+	MutableFloatVector setProduct(Matrix<Float64> A, MutableFloatVector x);
+
+	/**
+	 * Returns the dot product of this vector with the one specified.
+	 *
+	 * @param that the other vector.
+	 * @return {@code this · that}
+	 * @throws DimensionException if the dimensions are different.
+	 */
+	double dot(MutableFloatVector that);
+
+	/**
+	 * Returns the euclidian norm of this vector.
+	 *
+	 * @return {@code sqrt(this · this)}
+	 */
+	double normValue();
+
+	/**
+	 * Returns an immutable vector holding the current values of this
+	 * vector (no copy, the values are copied by the next modification of
+	 * this vector).
+	 *
+	 * @return the current values as an immutable float vector.
+	 */
+	FloatVector freeze();
+
+}
@@ -0,0 +1,132 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear;
+
+import org.jscience.mathematics.internal.linear.Float64SVD;
+import org.jscience.mathematics.internal.linear.FloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatVectorImpl;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> The thin singular value decomposition {@code A = U·Σ·Vᵀ} of a 
+ *     {@code m x n} matrix of {@link Float64} elements, with 
+ *     {@code k = min(m, n)} singular values in descending order and 
+ *     orthonormal columns for {@code U} ({@code m x k}) and {@code V}
+ *     ({@code n x k}).</p>
+ *     
+ * <p> The matrix values are copied once into a {@code double} array 
+ *     which is reduced in place to a bidiagonal form (Householder) then 
+ *     diagonalized (implicit shifted QR). When only the 
+ *     {@link #singularValues singular values} are needed the singular
+ *     vectors are neither allocated nor accumulated.</p>
+ *      
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://en.wikipedia.org/wiki/Singular_value_decomposition">
+ *      Wikipedia: Singular value decomposition</a>
+ */
+public final class SingularValueDecomposition {
+
+	/**
+	 * Holds the decomposition of the {@code double} values.
+	 */
+	private final Float64SVD _svd;
+
+	/**
+	 * Creates a decomposition wrapping the specified one.
+	 */
+	private SingularValueDecomposition(Float64SVD svd) {
+		_svd = svd;
+	}
+
+	/**
+	 * Returns the singular value decomposition (singular values and 
+	 * vectors) of the specified matrix.
+	 * 
+	 * @param matrix the matrix to decompose.
+	 * @return the corresponding decomposition.
+	 * @throws ArithmeticException if the iterations do not converge.
+	 */
+	public static SingularValueDecomposition valueOf(Matrix<Float64> matrix) {
+		return new SingularValueDecomposition(decompose(matrix, true));
+	}
+
+	/**
+	 * Returns the singular values of the specified matrix (the singular 
+	 * vectors are not calculated).
+	 * 
+	 * @param matrix the matrix.
+	 * @return the singular values in descending order.
+	 * @throws ArithmeticException if the iterations do not converge.
+	 */
+	public static FloatVector singularValues(Matrix<Float64> matrix) {
+		return FloatVectorImpl.valueOf(decompose(matrix, false)
+				.getSingularValues());
+	}
+
+	/**
+	 * Decomposes a copy of the values of the specified matrix.
+	 */
+	private static Float64SVD decompose(Matrix<Float64> matrix,
+			boolean vectors) {
+		return Float64SVD.wrap(matrix.getRowDimension(),
+				matrix.getColumnDimension(), FloatMatrixImpl.valueOf(matrix)
+						.toArray(), vectors);
+	}
+
+	/**
+	 * Returns the singular values of the decomposed matrix.
+	 * 
+	 * @return the diagonal of {@code Σ} in descending order.
+	 */
+	public FloatVector getSingularValues() {
+		return FloatVectorImpl.valueOf(_svd.getSingularValues());
+	}
+
+	/**
+	 * Returns the left singular vectors.
+	 * 
+	 * @return {@code U} ({@code m x k}, orthonormal columns).
+	 */
+	public FloatMatrix getU() {
+		int k = Math.min(_svd.getRowDimension(), _svd.getColumnDimension());
+		return FloatMatrixImpl.wrap(k, _svd.getRowDimension(),
+				_svd.getLeftVectorRows()).transpose();
+	}
+
+	/**
+	 * Returns the right singular vectors.
+	 * 
+	 * @return {@code V} ({@code n x k}, orthonormal columns).
+	 */
+	public FloatMatrix getV() {
+		int k = Math.min(_svd.getRowDimension(), _svd.getColumnDimension());
+		return FloatMatrixImpl.wrap(k, _svd.getColumnDimension(),
+				_svd.getRightVectorRows()).transpose();
+	}
+
+	/**
+	 * Returns the numerical rank of the decomposed matrix.
+	 * 
+	 * @return the number of singular values greater than
+	 *         {@code max(m, n) · max(Σ) · ulp(1)}
+	 */
+	public int rank() {
+		return _svd.rank();
+	}
+
+	/**
+	 * Returns the two norm condition number of the decomposed matrix.
+	 * 
+	 * @return {@code max(Σ) / min(Σ)}
+	 */
+	public double conditionNumber() {
+		return _svd.conditionNumber();
+	}
+}
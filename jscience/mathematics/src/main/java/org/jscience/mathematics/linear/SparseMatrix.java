@@ -36,6 +36,10 @@ public interface SparseMatrix<F extends Field<F>> extends Matrix<F> {
 	@Override
 	SparseMatrix<F> getSubMatrix(List<Index> rows, List<Index> columns);
 
+	@Override
+	SparseMatrix<F> getSubMatrix(int fromRow, int toRow, int fromColumn,
+			int toColumn);
+
 	@Override
 	SparseMatrix<F> opposite();
 
@@ -51,6 +55,20 @@ public interface SparseMatrix<F extends Field<F>> extends Matrix<F> {
 	@Override
 	SparseVector<F> times(Vector<F> v);
 
+	/**
+	 * Multiplies this matrix by the specified column vector, the elements of
+	 * the result being written into the specified array (no allocation).
+	 * Rows of large matrices are processed concurrently, each thread 
+	 * receiving about the same number of non-zero elements.
+	 *
+	 * @param v the column vector.
+	 * @param result the array receiving the elements of {@code this · v}
+	 *        (length greater or equal to the number of rows).
+	 * @throws DimensionException if {@code v.getDimension() != 
+	 *         this.getColumnDimension()}
+	 */
+	void times(Vector<F> v, F[] result);
+
 	@Override
 	SparseMatrix<F> times(Matrix<F> that);
 
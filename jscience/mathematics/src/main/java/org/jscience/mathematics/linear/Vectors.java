@@ -13,12 +13,27 @@ import java.util.List;
 import javolution.util.Index;
 import javolution.util.function.Predicate;
 
+import org.jscience.mathematics.internal.linear.ComplexVectorImpl;
+import org.jscience.mathematics.internal.linear.DenseVectorImpl;
+import org.jscience.mathematics.internal.linear.FloatVectorImpl;
+import org.jscience.mathematics.internal.linear.MutableFloatVectorImpl;
+import org.jscience.mathematics.internal.linear.SparseVectorImpl;
 import org.jscience.mathematics.number.Complex;
 import org.jscience.mathematics.number.Float64;
 import org.jscience.mathematics.structure.Field;
 
 /**
  * <p> Sets of static factory methods to create {@link Vector} instances.</p>
+ * 
+ * <p> Dense vectors are backed by an array with an offset and a stride
+ *     (rows, columns and diagonals of dense matrices are vectors sharing 
+ *     the matrix array). Float vectors hold {@code double} values and
+ *     complex vectors two {@code double} arrays (real and imaginary parts).
+ *     Dense vectors of {@link Float64} or {@link Complex} elements are 
+ *     automatically float or complex vectors.</p>
+ *
+ * <p> Sparse vectors hold the sorted indices of their non-zero elements
+ *     in an {@code int} array and the elements in a parallel array.</p>
  *      
  * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @version 5.0, January 26, 2014
@@ -31,37 +46,61 @@ public class Vectors {
 	 */
 	public static ComplexVector complexVector(double[] realValues,
 			double[] imaginaryValues) {
-		return null;
+		return ComplexVectorImpl.valueOf(realValues, imaginaryValues);
 	}
 
 	/**
 	 * Returns a dense vector of 64 bits floating points complex numbers 
 	 * having the specified complex elements.
 	 */
-	public static ComplexVector complexVector(Complex<Float64>... elements) {
-		return null;
+	public static ComplexVector complexVector(Complex... elements) {
+		return ComplexVectorImpl.valueOf(elements);
 	}
 
 	/**
 	 * Returns a dense vector of 64 bits floating points complex numbers 
 	 * equivalent to the generic vector specified.
 	 */
-	public static ComplexVector complexVector(Vector<Complex<Float64>> that) {
-		return (that instanceof ComplexVector) ? (ComplexVector) that : null;
+	public static ComplexVector complexVector(Vector<Complex> that) {
+		return (that instanceof ComplexVector) ? (ComplexVector) that
+				: ComplexVectorImpl.valueOf(that);
 	}
 
 	/**
 	 * Returns a dense vector having the specified elements.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <F extends Field<F>> DenseVector<F> denseVector(F... elements) {
-		return null;
+		Object e = (elements.length == 0) ? null : elements[0];
+		if (e instanceof Float64)
+			return (DenseVector<F>) FloatVectorImpl.valueOf((Float64[]) elements);
+		if (e instanceof Complex)
+			return (DenseVector<F>) ComplexVectorImpl.valueOf((Complex[]) elements);
+		return DenseVectorImpl.valueOf(elements);
 	}
 
 	/**
 	 * Returns a dense vector equivalent to the generic vector specified.
 	 */
 	public static <F extends Field<F>> DenseVector<F> denseVector(Vector<F> that) {
-		return (that instanceof DenseVector) ? (DenseVector<F>) that : null;
+		return (that instanceof DenseVector) ? (DenseVector<F>) that
+				: DenseVectorImpl.valueOf(that);
+	}
+
+	/**
+	 * Returns a mutable vector of 64 bits floating points numbers of the 
+	 * specified dimension (all values zero).
+	 */
+	public static MutableFloatVector mutableFloatVector(int dimension) {
+		return new MutableFloatVectorImpl(new double[dimension]);
+	}
+
+	/**
+	 * Returns a mutable vector of 64 bits floating points numbers having
+	 * the values of the specified vector (copied).
+	 */
+	public static MutableFloatVector mutableFloatVector(Vector<Float64> that) {
+		return MutableFloatVectorImpl.valueOf(that);
 	}
 
 	/**
@@ -69,7 +108,7 @@ public class Vectors {
 	 * the specified {@code double} values.
 	 */
 	public static FloatVector floatVector(double... values) {
-		return null;
+		return FloatVectorImpl.valueOf(values);
 	}
 
 	/**
@@ -77,7 +116,7 @@ public class Vectors {
 	 * the specified elements.
 	 */
 	public static FloatVector floatVector(Float64... elements) {
-		return null;
+		return FloatVectorImpl.valueOf(elements);
 	}
 
 	/**
@@ -85,7 +124,8 @@ public class Vectors {
 	 * to the generic vector specified.
 	 */
 	public static FloatVector floatVector(Vector<Float64> that) {
-		return (that instanceof FloatVector) ? (FloatVector) that : null;
+		return (that instanceof FloatVector) ? (FloatVector) that
+				: FloatVectorImpl.valueOf(that);
 	}
 
 	/**
@@ -101,7 +141,7 @@ public class Vectors {
 	 */
 	public static <F extends Field<F>> SparseVector<F> sparseVector(
 			int dimension, F zero, List<Index> indices, F... data) {
-		return null;
+		return SparseVectorImpl.valueOf(dimension, zero, indices, data);
 	}
 
 	/**
@@ -110,7 +150,8 @@ public class Vectors {
 	 */
 	public static <F extends Field<F>> SparseVector<F> sparseVector(
 			Vector<F> that, F zero) {
-		return (that instanceof SparseVector) ? (SparseVector<F>) that : null;
+		return (that instanceof SparseVector) ? (SparseVector<F>) that
+				: SparseVectorImpl.valueOf(that, zero);
 	}
 
 	/**
@@ -122,7 +163,7 @@ public class Vectors {
 	 */
 	public static <F extends Field<F>> SparseVector<F> sparseVector(
 			Vector<F> that, F zero, Predicate<F> isZero) {
-		return null;
+		return SparseVectorImpl.valueOf(that, zero, isZero);
 	}
 
 	/**
@@ -58,6 +58,20 @@ to be <code>(70.0 ± 7.3E-1) mA</code>. When the inputs have no error specified,
 the error on the result corresponds to calculations numeric errors only
 (which might increase significantly if the matrix is close to singularity).</p>
 
+<p> Symmetric matrices and rectangular matrices of 64 bits floating points numbers
+    have their {@link org.jscience.mathematics.linear.EigenDecomposition eigen decomposition}
+    and {@link org.jscience.mathematics.linear.SingularValueDecomposition singular value decomposition}
+    (optionally the values only).</p>
+
+<p> Immutable matrices of 64 bits floating points numbers (dense or sparse) are
+    factorized only once: subsequent {@code solve}, {@code inverse} or {@code determinant}
+    calls upon the same instance reuse the cached factorization
+    (see {@link org.jscience.mathematics.linear.Factorizations Factorizations}).</p>
+
+<p> Large sparse systems of 64 bits floating points numbers are better
+    solved iteratively (no inverse or factorization) using the 
+    {@link org.jscience.mathematics.linear.solver} package.</p>
+
 <p> A few vectors/matrices such as {@link FloatVector}/{@link FloatMatrix} or 
     {@link ComplexVector}/{@link ComplexMatrix} are accelerated through Javolution 
     {@link javolution.context.ComputeContext ComputeContext} and there operations
@@ -0,0 +1,307 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> The implicitly restarted Arnoldi method for general (non-symmetric)
+ *     matrices: the projected matrix is upper Hessenberg, its eigenvalues
+ *     are calculated by the Francis double shift QR algorithm and complex
+ *     conjugate shifts are applied in real arithmetic (double implicit QR
+ *     steps).</p>
+ *
+ * <p> Complex eigenvalues are returned with their conjugates kept together
+ *     (positive imaginary part first); their eigenvectors have an
+ *     {@link Eigenpairs#getEigenvectorImaginaryPart imaginary part}.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://en.wikipedia.org/wiki/Arnoldi_iteration">
+ *      Wikipedia: Arnoldi iteration</a>
+ */
+public class Arnoldi extends EigenSolver {
+
+	/**
+	 * Holds the maximum number of QR iterations per eigenvalue.
+	 */
+	private static final int MAX_ITERATIONS = 30;
+
+	/**
+	 * Holds the number of inverse iterations per Ritz vector.
+	 */
+	private static final int INVERSE_ITERATIONS = 2;
+
+	/**
+	 * Creates an Arnoldi solver for the eigenvalues of largest magnitude.
+	 */
+	public Arnoldi() {
+	}
+
+	@Override
+	protected void ritz(int m, double[][] H, double[] re, double[] im) {
+		double[][] a = new double[m][];
+		for (int i = 0; i < m; i++) {
+			a[i] = H[i].clone();
+		}
+		hqr(m, a, re, im);
+	}
+
+	/**
+	 * Calculates the eigenvalues of the specified upper Hessenberg matrix
+	 * (destroyed) by the shifted QR algorithm.
+	 */
+	private static void hqr(int n, double[][] a, double[] wr, double[] wi) {
+		double norm = 0.0;
+		for (int i = 0; i < n; i++) {
+			for (int j = Math.max(i - 1, 0); j < n; j++) {
+				norm += Math.abs(a[i][j]);
+			}
+		}
+		int nn = n - 1;
+		double t = 0.0; // Accumulated exceptional shifts.
+		double p = 0.0, q = 0.0, r = 0.0, s, u, v, w, x, y, z;
+		while (nn >= 0) {
+			int its = 0;
+			int l;
+			do {
+				for (l = nn; l >= 1; l--) { // Small sub-diagonal element.
+					s = Math.abs(a[l - 1][l - 1]) + Math.abs(a[l][l]);
+					if (s == 0.0) {
+						s = norm;
+					}
+					if (Math.abs(a[l][l - 1]) + s == s) {
+						a[l][l - 1] = 0.0;
+						break;
+					}
+				}
+				x = a[nn][nn];
+				if (l == nn) { // One root found.
+					wr[nn] = x + t;
+					wi[nn--] = 0.0;
+				} else {
+					y = a[nn - 1][nn - 1];
+					w = a[nn][nn - 1] * a[nn - 1][nn];
+					if (l == nn - 1) { // Two roots found.
+						p = 0.5 * (y - x);
+						q = p * p + w;
+						z = Math.sqrt(Math.abs(q));
+						x += t;
+						if (q >= 0.0) { // Real pair.
+							z = p + ((p >= 0) ? z : -z);
+							wr[nn - 1] = wr[nn] = x + z;
+							if (z != 0.0) {
+								wr[nn] = x - w / z;
+							}
+							wi[nn - 1] = wi[nn] = 0.0;
+						} else { // Complex pair.
+							wr[nn - 1] = wr[nn] = x + p;
+							wi[nn - 1] = z;
+							wi[nn] = -z;
+						}
+						nn -= 2;
+					} else { // No roots found, continues iteration.
+						if (its == MAX_ITERATIONS)
+							throw new ConvergenceException(
+									"No convergence of the Ritz values");
+						if ((its == 10) || (its == 20)) { // Exceptional shift.
+							t += x;
+							for (int i = 0; i <= nn; i++) {
+								a[i][i] -= x;
+							}
+							s = Math.abs(a[nn][nn - 1])
+									+ Math.abs(a[nn - 1][nn - 2]);
+							y = x = 0.75 * s;
+							w = -0.4375 * s * s;
+						}
+						++its;
+						int mm;
+						for (mm = nn - 2; mm >= l; mm--) {
+							z = a[mm][mm];
+							r = x - z;
+							s = y - z;
+							p = (r * s - w) / a[mm + 1][mm] + a[mm][mm + 1];
+							q = a[mm + 1][mm + 1] - z - r - s;
+							r = a[mm + 2][mm + 1];
+							s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+							p /= s;
+							q /= s;
+							r /= s;
+							if (mm == l)
+								break;
+							u = Math.abs(a[mm][mm - 1])
+									* (Math.abs(q) + Math.abs(r));
+							v = Math.abs(p)
+									* (Math.abs(a[mm - 1][mm - 1])
+											+ Math.abs(z) + Math
+											.abs(a[mm + 1][mm + 1]));
+							if (u + v == v)
+								break;
+						}
+						for (int i = mm + 2; i <= nn; i++) {
+							a[i][i - 2] = 0.0;
+							if (i != mm + 2) {
+								a[i][i - 3] = 0.0;
+							}
+						}
+						for (int k = mm; k <= nn - 1; k++) { // Double QR step.
+							if (k != mm) {
+								p = a[k][k - 1];
+								q = a[k + 1][k - 1];
+								r = (k != nn - 1) ? a[k + 2][k - 1] : 0.0;
+								if ((x = Math.abs(p) + Math.abs(q)
+										+ Math.abs(r)) != 0.0) {
+									p /= x;
+									q /= x;
+									r /= x;
+								}
+							}
+							s = Math.sqrt(p * p + q * q + r * r);
+							if (p < 0) {
+								s = -s;
+							}
+							if (s != 0.0) {
+								if (k == mm) {
+									if (l != mm) {
+										a[k][k - 1] = -a[k][k - 1];
+									}
+								} else {
+									a[k][k - 1] = -s * x;
+								}
+								p += s;
+								x = p / s;
+								y = q / s;
+								z = r / s;
+								q /= p;
+								r /= p;
+								for (int j = k; j <= nn; j++) { // Rows.
+									p = a[k][j] + q * a[k + 1][j];
+									if (k != nn - 1) {
+										p += r * a[k + 2][j];
+										a[k + 2][j] -= p * z;
+									}
+									a[k + 1][j] -= p * y;
+									a[k][j] -= p * x;
+								}
+								int max = Math.min(nn, k + 3);
+								for (int i = l; i <= max; i++) { // Columns.
+									p = x * a[i][k] + y * a[i][k + 1];
+									if (k != nn - 1) {
+										p += z * a[i][k + 2];
+										a[i][k + 2] -= p * r;
+									}
+									a[i][k + 1] -= p * q;
+									a[i][k] -= p;
+								}
+							}
+						}
+					}
+				}
+			} while (l < nn - 1);
+		}
+	}
+
+	/**
+	 * Calculates the eigenvector by inverse iteration upon the complex
+	 * matrix {@code H - (re + i·im)·I} (slightly perturbed shift).
+	 */
+	@Override
+	protected void ritzVector(int m, double[][] H, int index, double re,
+			double im, double[] yRe, double[] yIm) {
+		double norm = 0.0;
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < m; j++) {
+				norm = Math.max(norm, Math.abs(H[i][j]));
+			}
+		}
+		final double tiny = Math.max(norm, Double.MIN_NORMAL) * EPSILON;
+		double[][] ar = new double[m][];
+		double[][] ai = new double[m][m];
+		for (int i = 0; i < m; i++) {
+			ar[i] = H[i].clone();
+			ar[i][i] -= re + tiny;
+			ai[i][i] = -im;
+		}
+		int[] pivots = new int[m];
+		for (int k = 0; k < m; k++) { // LU with partial pivoting.
+			int pivot = k;
+			double max = -1.0;
+			for (int i = k; i < m; i++) {
+				double abs = ar[i][k] * ar[i][k] + ai[i][k] * ai[i][k];
+				if (abs > max) {
+					max = abs;
+					pivot = i;
+				}
+			}
+			pivots[k] = pivot;
+			double[] tmp = ar[k];
+			ar[k] = ar[pivot];
+			ar[pivot] = tmp;
+			tmp = ai[k];
+			ai[k] = ai[pivot];
+			ai[pivot] = tmp;
+			if (max <= tiny * tiny) { // Singular, perturbs the pivot.
+				ar[k][k] = tiny;
+				ai[k][k] = 0.0;
+			}
+			double dr = ar[k][k];
+			double di = ai[k][k];
+			double d = dr * dr + di * di;
+			for (int i = k + 1; i < m; i++) {
+				double lr = (ar[i][k] * dr + ai[i][k] * di) / d;
+				double li = (ai[i][k] * dr - ar[i][k] * di) / d;
+				ar[i][k] = lr;
+				ai[i][k] = li;
+				for (int j = k + 1; j < m; j++) {
+					ar[i][j] -= lr * ar[k][j] - li * ai[k][j];
+					ai[i][j] -= lr * ai[k][j] + li * ar[k][j];
+				}
+			}
+		}
+		for (int i = 0; i < m; i++) {
+			yRe[i] = 1.0;
+			yIm[i] = 0.0;
+		}
+		for (int iteration = 0; iteration < INVERSE_ITERATIONS; iteration++) {
+			for (int k = 0; k < m; k++) { // Permutation and L.
+				int pivot = pivots[k];
+				double tmp = yRe[k];
+				yRe[k] = yRe[pivot];
+				yRe[pivot] = tmp;
+				tmp = yIm[k];
+				yIm[k] = yIm[pivot];
+				yIm[pivot] = tmp;
+				for (int i = k + 1; i < m; i++) {
+					yRe[i] -= ar[i][k] * yRe[k] - ai[i][k] * yIm[k];
+					yIm[i] -= ar[i][k] * yIm[k] + ai[i][k] * yRe[k];
+				}
+			}
+			for (int i = m - 1; i >= 0; i--) { // U
+				double sr = yRe[i];
+				double si = yIm[i];
+				for (int j = i + 1; j < m; j++) {
+					sr -= ar[i][j] * yRe[j] - ai[i][j] * yIm[j];
+					si -= ar[i][j] * yIm[j] + ai[i][j] * yRe[j];
+				}
+				double dr = ar[i][i];
+				double di = ai[i][i];
+				double d = dr * dr + di * di;
+				yRe[i] = (sr * dr + si * di) / d;
+				yIm[i] = (si * dr - sr * di) / d;
+			}
+			double sum = 0.0;
+			for (int i = 0; i < m; i++) {
+				sum += yRe[i] * yRe[i] + yIm[i] * yIm[i];
+			}
+			double scale = 1.0 / Math.sqrt(sum);
+			for (int i = 0; i < m; i++) {
+				yRe[i] *= scale;
+				yIm[i] *= scale;
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> The biconjugate gradient stabilized method (van der Vorst) for 
+ *     general non-symmetric systems, right-preconditioned.</p>
+ *     
+ * <p> Each iteration performs two products by the matrix and two 
+ *     preconditioner solves; nine work arrays of the system dimension are
+ *     allocated per solve.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class BiCGStab extends IterativeSolver {
+
+	/**
+	 * Default constructor.
+	 */
+	public BiCGStab() {
+	}
+
+	/**
+	 * @throws ConvergenceException if the method breaks down.
+	 */
+	@Override
+	protected int iterate(LinearOperator A, double[] b, double[] x,
+			double bNorm) {
+		final int n = b.length;
+		double[] r = new double[n];
+		double rNorm = residual(A, b, x, r);
+		if (hasConverged(0, rNorm, bNorm))
+			return 0;
+		double[] rHat = r.clone();
+		double[] p = new double[n];
+		double[] pHat = new double[n];
+		double[] v = new double[n];
+		double[] s = new double[n];
+		double[] sHat = new double[n];
+		double[] t = new double[n];
+		double rho = 1.0;
+		double alpha = 1.0;
+		double omega = 1.0;
+		for (int k = 1;; k++) {
+			double rhoNew = dot(rHat, r);
+			if (rhoNew == 0.0)
+				throw new ConvergenceException("Breakdown (rho = 0) at iteration "
+						+ k);
+			if (k == 1) {
+				System.arraycopy(r, 0, p, 0, n);
+			} else {
+				double beta = (rhoNew / rho) * (alpha / omega);
+				for (int i = 0; i < n; i++) {
+					p[i] = r[i] + beta * (p[i] - omega * v[i]);
+				}
+			}
+			rho = rhoNew;
+			precondition(p, pHat);
+			A.apply(pHat, v);
+			alpha = rho / dot(rHat, v);
+			for (int i = 0; i < n; i++) {
+				s[i] = r[i] - alpha * v[i];
+			}
+			double sNorm = norm(s);
+			if (getStoppingCriterion().isSatisfied(k, sNorm, bNorm)) {
+				axpy(alpha, pHat, x);
+				isSatisfied(k, sNorm, bNorm); // Notifies the listener.
+				return k;
+			}
+			precondition(s, sHat);
+			A.apply(sHat, t);
+			double tt = dot(t, t);
+			if (tt == 0.0)
+				throw new ConvergenceException("Breakdown (t = 0) at iteration "
+						+ k);
+			omega = dot(t, s) / tt;
+			for (int i = 0; i < n; i++) {
+				x[i] += alpha * pHat[i] + omega * sHat[i];
+				r[i] = s[i] - omega * t[i];
+			}
+			rNorm = norm(r);
+			if (hasConverged(k, rNorm, bNorm))
+				return k;
+			if (omega == 0.0)
+				throw new ConvergenceException(
+						"Breakdown (omega = 0) at iteration " + k);
+		}
+	}
+}
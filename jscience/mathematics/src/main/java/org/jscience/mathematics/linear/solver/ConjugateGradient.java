@@ -0,0 +1,71 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> The (preconditioned) conjugate gradient method for symmetric 
+ *     positive definite systems. The preconditioner, if any, must also be
+ *     symmetric positive definite (e.g. {@link Preconditioners#jacobi 
+ *     Jacobi} or {@link Preconditioners#ssor SSOR}).</p>
+ *     
+ * <p> Each iteration performs one product by the matrix, one 
+ *     preconditioner solve and five vector operations; four work arrays 
+ *     of the system dimension are allocated per solve.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class ConjugateGradient extends IterativeSolver {
+
+	/**
+	 * Default constructor.
+	 */
+	public ConjugateGradient() {
+	}
+
+	/**
+	 * @throws ConvergenceException if the matrix is detected not positive
+	 *         definite.
+	 */
+	@Override
+	protected int iterate(LinearOperator A, double[] b, double[] x,
+			double bNorm) {
+		final int n = b.length;
+		double[] r = new double[n];
+		double[] z = new double[n];
+		double[] p = new double[n];
+		double[] q = new double[n];
+		double rNorm = residual(A, b, x, r);
+		if (hasConverged(0, rNorm, bNorm))
+			return 0;
+		precondition(r, z);
+		System.arraycopy(z, 0, p, 0, n);
+		double rz = dot(r, z);
+		for (int k = 1;; k++) {
+			A.apply(p, q);
+			double pq = dot(p, q);
+			if (!(pq > 0))
+				throw new ConvergenceException(
+						"Matrix not positive definite (iteration " + k + ")");
+			double alpha = rz / pq;
+			axpy(alpha, p, x);
+			axpy(-alpha, q, r);
+			rNorm = norm(r);
+			if (hasConverged(k, rNorm, bNorm))
+				return k;
+			precondition(r, z);
+			double rzNew = dot(r, z);
+			double beta = rzNew / rz;
+			rz = rzNew;
+			for (int i = 0; i < n; i++) {
+				p[i] = z[i] + beta * p[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * Signals that an iterative solver did not reach its stopping criterion
+ * (maximum number of iterations exceeded or breakdown).
+ * 
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class ConvergenceException extends ArithmeticException {
+
+	private static final long serialVersionUID = 0x500L; // Version.
+
+	/**
+	 * Constructs a convergence exception with no detail message.
+	 */
+	public ConvergenceException() {
+		super();
+	}
+
+	/**
+	 * Constructs a convergence exception with the specified message.
+	 * 
+	 * @param message the error message.
+	 */
+	public ConvergenceException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,664 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import java.util.Random;
+
+import org.jscience.mathematics.internal.linear.Scheduler;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> An implicitly restarted Krylov subspace solver calculating a few
+ *     eigenvalues (and their eigenvectors) at one end of the spectrum of
+ *     large (typically sparse) matrices of 64 bits floating points numbers.
+ * [code]
+ * SparseMatrix<Float64> A = ...; // Symmetric.
+ * Eigenpairs largest = new Lanczos().solve(A, 6);
+ * Eigenpairs smallest = new Lanczos().setTarget(Target.SMALLEST_REAL)
+ *     .setSubspaceDimension(40).solve(A, 6);
+ * [/code]</p>
+ *
+ * <p> The matrix is accessed only through its products with vectors
+ *     ({@link LinearOperator}): an orthonormal basis of {@code m}
+ *     vectors of the Krylov subspace is built, the small {@code m x m}
+ *     projected matrix is diagonalized and its unwanted eigenvalues are
+ *     used as shifts to compress the basis to the wanted part of the
+ *     spectrum (implicit restart), until the residuals of the {@code k}
+ *     wanted Ritz pairs are below the tolerance. Memory is
+ *     {@code O(n·m)} with {@code m} about {@code 2·k}.</p>
+ *
+ * <p> Eigenvalues of small magnitude or inside the spectrum converge
+ *     slowly (if at all) without a shift-invert transformation of the
+ *     operator; a larger subspace dimension improves the convergence.</p>
+ *
+ * <p> Solvers instances can be reused but are not thread-safe.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see Lanczos
+ * @see Arnoldi
+ * @see <a href="http://www.caam.rice.edu/software/ARPACK/">ARPACK</a>
+ */
+public abstract class EigenSolver {
+
+	/**
+	 * The part of the spectrum calculated.
+	 */
+	public static enum Target {
+
+		/**
+		 * The eigenvalues of largest magnitude.
+		 */
+		LARGEST_MAGNITUDE,
+
+		/**
+		 * The eigenvalues of smallest magnitude.
+		 */
+		SMALLEST_MAGNITUDE,
+
+		/**
+		 * The eigenvalues of largest real part.
+		 */
+		LARGEST_REAL,
+
+		/**
+		 * The eigenvalues of smallest real part.
+		 */
+		SMALLEST_REAL
+	}
+
+	/**
+	 * Holds the default relative tolerance upon the Ritz residuals.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1E-10;
+
+	/**
+	 * Holds the default maximum number of restarts.
+	 */
+	public static final int DEFAULT_MAXIMUM_RESTARTS = 300;
+
+	/**
+	 * Holds the minimum default subspace dimension.
+	 */
+	private static final int MINIMUM_SUBSPACE = 20;
+
+	/**
+	 * Holds the machine epsilon.
+	 */
+	static final double EPSILON = Math.ulp(1.0);
+
+	/**
+	 * Holds the part of the spectrum calculated.
+	 */
+	private Target _target = Target.LARGEST_MAGNITUDE;
+
+	/**
+	 * Holds the relative tolerance.
+	 */
+	private double _tolerance = DEFAULT_TOLERANCE;
+
+	/**
+	 * Holds the maximum number of restarts.
+	 */
+	private int _maximumRestarts = DEFAULT_MAXIMUM_RESTARTS;
+
+	/**
+	 * Holds the subspace dimension ({@code 0} for automatic).
+	 */
+	private int _subspaceDimension;
+
+	/**
+	 * Holds the start vector ({@code null} for pseudo-random).
+	 */
+	private double[] _start;
+
+	/**
+	 * Default constructor.
+	 */
+	protected EigenSolver() {
+	}
+
+	/**
+	 * Sets the part of the spectrum calculated (default
+	 * {@link Target#LARGEST_MAGNITUDE}).
+	 *
+	 * @param target the wanted eigenvalues.
+	 * @return {@code this}
+	 */
+	public EigenSolver setTarget(Target target) {
+		if (target == null)
+			throw new NullPointerException();
+		_target = target;
+		return this;
+	}
+
+	/**
+	 * Returns the part of the spectrum calculated.
+	 */
+	public Target getTarget() {
+		return _target;
+	}
+
+	/**
+	 * Sets the relative tolerance (default {@link #DEFAULT_TOLERANCE}): a
+	 * Ritz pair {@code (θ, x)} is accepted when the norm of its residual
+	 * {@code A·x - θ·x} is at most {@code tolerance · |θ|}.
+	 *
+	 * @param tolerance the relative tolerance.
+	 * @return {@code this}
+	 * @throws IllegalArgumentException if {@code tolerance < 0}
+	 */
+	public EigenSolver setTolerance(double tolerance) {
+		if (!(tolerance >= 0))
+			throw new IllegalArgumentException("tolerance: " + tolerance);
+		_tolerance = tolerance;
+		return this;
+	}
+
+	/**
+	 * Returns the relative tolerance.
+	 */
+	public double getTolerance() {
+		return _tolerance;
+	}
+
+	/**
+	 * Sets the maximum number of restarts (default
+	 * {@link #DEFAULT_MAXIMUM_RESTARTS}).
+	 *
+	 * @param maximumRestarts the maximum number of restarts.
+	 * @return {@code this}
+	 * @throws IllegalArgumentException if {@code maximumRestarts < 0}
+	 */
+	public EigenSolver setMaximumRestarts(int maximumRestarts) {
+		if (maximumRestarts < 0)
+			throw new IllegalArgumentException("maximumRestarts: "
+					+ maximumRestarts);
+		_maximumRestarts = maximumRestarts;
+		return this;
+	}
+
+	/**
+	 * Returns the maximum number of restarts.
+	 */
+	public int getMaximumRestarts() {
+		return _maximumRestarts;
+	}
+
+	/**
+	 * Sets the dimension {@code m} of the Krylov subspace; it must be
+	 * greater than the number of eigenvalues requested (default
+	 * {@code max(2·k + 1, 20)}, at most the matrix dimension).
+	 *
+	 * @param m the subspace dimension or {@code 0} for automatic.
+	 * @return {@code this}
+	 * @throws IllegalArgumentException if {@code m < 0}
+	 */
+	public EigenSolver setSubspaceDimension(int m) {
+		if (m < 0)
+			throw new IllegalArgumentException("m: " + m);
+		_subspaceDimension = m;
+		return this;
+	}
+
+	/**
+	 * Returns the dimension of the Krylov subspace ({@code 0} for
+	 * automatic).
+	 */
+	public int getSubspaceDimension() {
+		return _subspaceDimension;
+	}
+
+	/**
+	 * Sets the start vector of the Krylov subspace (default pseudo-random).
+	 *
+	 * @param start the start vector (copied) or {@code null} for the
+	 *        default.
+	 * @return {@code this}
+	 */
+	public EigenSolver setStartVector(double[] start) {
+		_start = (start != null) ? start.clone() : null;
+		return this;
+	}
+
+	/**
+	 * Calculates the {@code k} eigenvalues of the specified square matrix
+	 * at the {@link #getTarget target} end of its spectrum (sparse matrices
+	 * are converted to compressed sparse rows).
+	 *
+	 * @param A the square matrix.
+	 * @param k the number of eigenvalues requested.
+	 * @return the eigenvalues and eigenvectors found.
+	 * @throws DimensionException if {@code A} is not square.
+	 * @throws IllegalArgumentException if {@code k <= 0} or
+	 *         {@code k >= n}
+	 * @throws ConvergenceException if the eigenvalues did not converge
+	 *         within the maximum number of restarts.
+	 */
+	public Eigenpairs solve(Matrix<Float64> A, int k) {
+		return solve(IterativeSolver.operator(A), k);
+	}
+
+	/**
+	 * Calculates the {@code k} eigenvalues of the specified linear operator
+	 * at the {@link #getTarget target} end of its spectrum.
+	 *
+	 * @param A the linear operator.
+	 * @param k the number of eigenvalues requested.
+	 * @return the eigenvalues and eigenvectors found.
+	 * @throws IllegalArgumentException if {@code k <= 0}, {@code k >= n}
+	 *         or if the subspace dimension is not greater than {@code k}.
+	 * @throws ConvergenceException if the eigenvalues did not converge
+	 *         within the maximum number of restarts.
+	 */
+	public Eigenpairs solve(LinearOperator A, int k) {
+		final int n = A.getDimension();
+		if ((k <= 0) || (k >= n))
+			throw new IllegalArgumentException("k: " + k + " (dimension "
+					+ n + ")");
+		final int m = Math.min(n, (_subspaceDimension > 0) ?
+				_subspaceDimension : Math.max(2 * k + 1, MINIMUM_SUBSPACE));
+		if (m <= k)
+			throw new IllegalArgumentException("Subspace dimension " + m
+					+ " not greater than " + k);
+		Random random = new Random(0);
+		double[][] V = new double[m][];
+		double[][] H = new double[m][m];
+		double[] f = new double[n];
+		double[] re = new double[m];
+		double[] im = new double[m];
+		double[] yRe = new double[m];
+		double[] yIm = new double[m];
+		double[] h = new double[m];
+		V[0] = new double[n];
+		if (_start != null) {
+			if (_start.length != n)
+				throw new DimensionException("Start vector dimension "
+						+ _start.length + " instead of " + n);
+			System.arraycopy(_start, 0, V[0], 0, n);
+		} else {
+			randomize(V[0], random);
+		}
+		double norm = IterativeSolver.norm(V[0]);
+		if (norm == 0.0)
+			throw new IllegalArgumentException("Zero start vector");
+		scale(1.0 / norm, V[0]);
+		final double eps23 = Math.pow(EPSILON, 2.0 / 3.0);
+		int products = 0;
+		int kk = 0; // Current length of the Arnoldi factorization.
+		for (int restart = 0;; restart++) {
+			products += extend(A, V, H, f, h, kk, m, random);
+			double beta = IterativeSolver.norm(f);
+			ritz(m, H, re, im);
+			int[] order = order(m, re, im);
+			int converged = 0;
+			for (int i = 0; i < k; i++) {
+				int j = order[i];
+				ritzVector(m, H, j, re[j], im[j], yRe, yIm);
+				double residual = beta * Math.hypot(yRe[m - 1], yIm[m - 1]);
+				if (residual <= _tolerance
+						* Math.max(eps23, Math.hypot(re[j], im[j]))) {
+					converged++;
+				}
+			}
+			if (converged == k)
+				return eigenpairs(n, m, k, V, H, re, im, order, restart,
+						products);
+			if (restart >= _maximumRestarts)
+				throw new ConvergenceException("Only " + converged + " of "
+						+ k + " eigenvalues converged after " + restart
+						+ " restarts");
+			// Keeps more Ritz vectors as they converge (faster convergence).
+			kk = k + Math.min(converged, (m - k) / 2);
+			if (isConjugate(re, im, order[kk - 1], order[kk])) {
+				if (kk + 1 < m) { // Keeps conjugate pairs together.
+					kk++;
+				} else if (kk > 1) {
+					kk--;
+				}
+			}
+			double[][] Q = new double[m][m];
+			for (int i = 0; i < m; i++) {
+				Q[i][i] = 1.0;
+			}
+			for (int i = kk; i < m; i++) { // Exact shifts.
+				int j = order[i];
+				if (im[j] == 0.0) {
+					shift(m, H, Q, re[j]);
+				} else {
+					shift(m, H, Q, re[j], im[j]);
+					if ((i + 1 < m) && isConjugate(re, im, j, order[i + 1])) {
+						i++;
+					}
+				}
+			}
+			compress(n, m, kk, V, Q, f, H[kk][kk - 1], Q[m - 1][kk - 1]);
+			for (int i = 0; i < m; i++) { // Truncates H to kk x kk.
+				for (int j = 0; j < m; j++) {
+					if ((i >= kk) || (j >= kk) || (i > j + 1)) {
+						H[i][j] = 0.0;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the eigenvalues of the {@code m x m} projected (upper
+	 * Hessenberg) matrix; this method may modify {@code H} within the
+	 * rounding errors (e.g. to enforce its symmetry).
+	 *
+	 * @param m the subspace dimension.
+	 * @param H the projected matrix.
+	 * @param re the array receiving the real parts of the Ritz values.
+	 * @param im the array receiving the imaginary parts of the Ritz values.
+	 * @throws ConvergenceException if the eigenvalues cannot be calculated.
+	 */
+	protected abstract void ritz(int m, double[][] H, double[] re,
+			double[] im);
+
+	/**
+	 * Calculates the unit eigenvector of the projected matrix for one of the
+	 * Ritz values of the last {@link #ritz} call.
+	 *
+	 * @param m the subspace dimension.
+	 * @param H the projected matrix.
+	 * @param index the index of the Ritz value.
+	 * @param re the real part of the Ritz value.
+	 * @param im the imaginary part of the Ritz value.
+	 * @param yRe the array receiving the real part of the eigenvector.
+	 * @param yIm the array receiving the imaginary part of the eigenvector.
+	 */
+	protected abstract void ritzVector(int m, double[][] H, int index,
+			double re, double im, double[] yRe, double[] yIm);
+
+	/**
+	 * Extends the Arnoldi factorization {@code A·V = V·H + f·eᵀ} from
+	 * {@code start} to {@code m} vectors (classical Gram-Schmidt with
+	 * reorthogonalization); returns the number of products by {@code A}.
+	 */
+	private static int extend(LinearOperator A, double[][] V, double[][] H,
+			double[] f, double[] h, int start, int m, Random random) {
+		final int n = f.length;
+		for (int j = start; j < m; j++) {
+			if (j > 0) {
+				double[] v = (V[j] == null) ? (V[j] = new double[n]) : V[j];
+				double beta = IterativeSolver.norm(f);
+				double scale = 0.0;
+				for (int i = 0; i < j; i++) {
+					scale = Math.max(scale, Math.abs(H[i][j - 1]));
+				}
+				if (beta > 4 * n * EPSILON * scale) {
+					H[j][j - 1] = beta;
+					for (int i = 0; i < n; i++) {
+						v[i] = f[i] / beta;
+					}
+				} else { // Invariant subspace, restarts with a new vector.
+					H[j][j - 1] = 0.0;
+					randomize(v, random);
+					orthogonalize(V, j, v, h);
+					orthogonalize(V, j, v, h);
+					scale(1.0 / IterativeSolver.norm(v), v);
+				}
+			}
+			A.apply(V[j], f);
+			for (int pass = 0; pass < 2; pass++) {
+				orthogonalize(V, j + 1, f, h);
+				for (int i = 0; i <= j; i++) {
+					H[i][j] += h[i];
+				}
+			}
+		}
+		return m - start;
+	}
+
+	/**
+	 * Removes from {@code w} its components along the first {@code j}
+	 * basis vectors, the components being stored in {@code h}.
+	 */
+	private static void orthogonalize(double[][] V, int j, double[] w,
+			double[] h) {
+		for (int i = 0; i < j; i++) {
+			h[i] = IterativeSolver.dot(V[i], w);
+		}
+		for (int i = 0; i < j; i++) {
+			IterativeSolver.axpy(-h[i], V[i], w);
+		}
+	}
+
+	/**
+	 * Applies an implicit QR step of real shift {@code μ} to the
+	 * Hessenberg matrix {@code H} and accumulates the transformation in
+	 * {@code Q}.
+	 */
+	private static void shift(int m, double[][] H, double[][] Q, double mu) {
+		double[] x = { H[0][0] - mu, H[1][0], 0.0 };
+		chase(m, H, Q, x, 2);
+	}
+
+	/**
+	 * Applies an implicit double QR step of complex conjugate shifts
+	 * {@code re ± i·im} (real arithmetic).
+	 */
+	private static void shift(int m, double[][] H, double[][] Q, double re,
+			double im) {
+		double s = 2 * re;
+		double t = re * re + im * im;
+		double[] x = {
+				H[0][0] * H[0][0] + H[0][1] * H[1][0] - s * H[0][0] + t,
+				H[1][0] * (H[0][0] + H[1][1] - s),
+				(m > 2) ? H[1][0] * H[2][1] : 0.0 };
+		chase(m, H, Q, x, Math.min(3, m));
+	}
+
+	/**
+	 * Applies the Householder reflector of the first column {@code x} and
+	 * chases the bulge down the Hessenberg matrix (reflectors of size
+	 * {@code r}).
+	 */
+	private static void chase(int m, double[][] H, double[][] Q, double[] x,
+			int r) {
+		double[] v = new double[3];
+		for (int k = 0; k < m - 1; k++) {
+			final int size = Math.min(r, m - k);
+			if (k > 0) {
+				for (int i = 0; i < size; i++) {
+					x[i] = H[k + i][k - 1];
+				}
+			}
+			double norm = 0.0;
+			for (int i = 0; i < size; i++) {
+				norm += x[i] * x[i];
+			}
+			norm = Math.sqrt(norm);
+			if (norm == 0.0)
+				continue;
+			double alpha = (x[0] > 0) ? -norm : norm;
+			double vv = 0.0;
+			for (int i = 0; i < size; i++) {
+				v[i] = (i == 0) ? x[0] - alpha : x[i];
+				vv += v[i] * v[i];
+			}
+			final double beta = 2.0 / vv;
+			for (int j = 0; j < m; j++) { // H = P·H
+				double sum = 0.0;
+				for (int i = 0; i < size; i++) {
+					sum += v[i] * H[k + i][j];
+				}
+				sum *= beta;
+				for (int i = 0; i < size; i++) {
+					H[k + i][j] -= sum * v[i];
+				}
+			}
+			for (int i = 0; i < m; i++) { // H = H·P and Q = Q·P
+				reflect(H[i], k, v, size, beta);
+				reflect(Q[i], k, v, size, beta);
+			}
+			if (k > 0) {
+				H[k][k - 1] = alpha;
+				for (int i = 1; i < size; i++) {
+					H[k + i][k - 1] = 0.0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the reflector {@code I - β·v·vᵀ} to the specified row.
+	 */
+	private static void reflect(double[] row, int k, double[] v, int size,
+			double beta) {
+		double sum = 0.0;
+		for (int i = 0; i < size; i++) {
+			sum += v[i] * row[k + i];
+		}
+		sum *= beta;
+		for (int i = 0; i < size; i++) {
+			row[k + i] -= sum * v[i];
+		}
+	}
+
+	/**
+	 * Compresses the factorization after the shifts:
+	 * {@code V = V·Q[:, 0..kk]} and
+	 * {@code f = V[kk]·H[kk][kk-1] + f·Q[m-1][kk-1]}.
+	 */
+	private static void compress(final int n, final int m, final int kk,
+			final double[][] V, final double[][] Q, final double[] f,
+			final double hk, final double qk) {
+		Scheduler.execute(n, (long) n * m * (kk + 1), new Scheduler.Task() {
+
+			@Override
+			public void run(int start, int end) {
+				double[] tmp = new double[kk + 1];
+				for (int i = start; i < end; i++) {
+					for (int j = 0; j <= kk; j++) {
+						double sum = 0.0;
+						for (int l = 0; l < m; l++) {
+							sum += V[l][i] * Q[l][j];
+						}
+						tmp[j] = sum;
+					}
+					for (int j = 0; j <= kk; j++) {
+						V[j][i] = tmp[j];
+					}
+					f[i] = tmp[kk] * hk + f[i] * qk;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the converged eigenpairs (Ritz vectors {@code x = V·y}).
+	 */
+	private Eigenpairs eigenpairs(int n, int m, int k, double[][] V,
+			double[][] H, double[] re, double[] im, int[] order,
+			int restarts, int products) {
+		double[] values = new double[k];
+		double[] imaginaryParts = new double[k];
+		double[][] vectors = new double[k][];
+		double[][] imaginaryVectors = new double[k][];
+		double[] yRe = new double[m];
+		double[] yIm = new double[m];
+		for (int i = 0; i < k; i++) {
+			int j = order[i];
+			values[i] = re[j];
+			imaginaryParts[i] = im[j];
+			ritzVector(m, H, j, re[j], im[j], yRe, yIm);
+			vectors[i] = combine(n, m, V, yRe);
+			imaginaryVectors[i] = (im[j] != 0.0) ? combine(n, m, V, yIm)
+					: null;
+		}
+		return new Eigenpairs(n, values, imaginaryParts, vectors,
+				imaginaryVectors, restarts, products);
+	}
+
+	/**
+	 * Returns {@code V·y}.
+	 */
+	private static double[] combine(int n, int m, double[][] V, double[] y) {
+		double[] x = new double[n];
+		for (int l = 0; l < m; l++) {
+			IterativeSolver.axpy(y[l], V[l], x);
+		}
+		return x;
+	}
+
+	/**
+	 * Returns the indices of the Ritz values, wanted first (conjugate
+	 * pairs are adjacent, positive imaginary part first).
+	 */
+	private int[] order(int m, double[] re, double[] im) {
+		int[] order = new int[m];
+		for (int i = 0; i < m; i++) { // Insertion sort (m small).
+			int j = i;
+			while ((j > 0) && (compare(re, im, i, order[j - 1]) < 0)) {
+				order[j] = order[j - 1];
+				j--;
+			}
+			order[j] = i;
+		}
+		return order;
+	}
+
+	/**
+	 * Compares the specified Ritz values (negative if the first one is
+	 * more wanted).
+	 */
+	private int compare(double[] re, double[] im, int i, int j) {
+		double a, b;
+		switch (_target) {
+		case LARGEST_MAGNITUDE:
+			a = -Math.hypot(re[i], im[i]);
+			b = -Math.hypot(re[j], im[j]);
+			break;
+		case SMALLEST_MAGNITUDE:
+			a = Math.hypot(re[i], im[i]);
+			b = Math.hypot(re[j], im[j]);
+			break;
+		case LARGEST_REAL:
+			a = -re[i];
+			b = -re[j];
+			break;
+		default:
+			a = re[i];
+			b = re[j];
+		}
+		if (a != b)
+			return (a < b) ? -1 : 1;
+		return (im[i] > im[j]) ? -1 : (im[i] < im[j]) ? 1 : 0;
+	}
+
+	/**
+	 * Indicates if the specified Ritz values are complex conjugates.
+	 */
+	private static boolean isConjugate(double[] re, double[] im, int i, int j) {
+		return (im[i] != 0.0) && (re[i] == re[j]) && (im[i] == -im[j]);
+	}
+
+	/**
+	 * Fills the specified array with pseudo-random values.
+	 */
+	private static void randomize(double[] v, Random random) {
+		for (int i = 0; i < v.length; i++) {
+			v[i] = random.nextDouble() - 0.5;
+		}
+	}
+
+	/**
+	 * Calculates {@code x = a · x}.
+	 */
+	private static void scale(double a, double[] x) {
+		for (int i = 0; i < x.length; i++) {
+			x[i] *= a;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Vectors;
+
+/**
+ * <p> The eigenvalues and unit eigenvectors calculated by an
+ *     {@link EigenSolver}, most wanted first. Eigenvalues of non-symmetric
+ *     matrices may be complex, their eigenvectors having then an imaginary
+ *     part ({@code A·(x + i·y) = (λ + i·μ)·(x + i·y)}).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class Eigenpairs {
+
+	private final int _n;
+
+	private final double[] _values;
+
+	private final double[] _imaginaryParts;
+
+	private final double[][] _vectors;
+
+	private final double[][] _imaginaryVectors;
+
+	private final int _restarts;
+
+	private final int _products;
+
+	/**
+	 * Creates the eigenpairs from the specified values (not copied).
+	 */
+	Eigenpairs(int n, double[] values, double[] imaginaryParts,
+			double[][] vectors, double[][] imaginaryVectors, int restarts,
+			int products) {
+		_n = n;
+		_values = values;
+		_imaginaryParts = imaginaryParts;
+		_vectors = vectors;
+		_imaginaryVectors = imaginaryVectors;
+		_restarts = restarts;
+		_products = products;
+	}
+
+	/**
+	 * Returns the number of eigenpairs.
+	 */
+	public int getCount() {
+		return _values.length;
+	}
+
+	/**
+	 * Returns the real parts of the eigenvalues.
+	 *
+	 * @return the eigenvalues (real parts), most wanted first.
+	 */
+	public double[] getEigenvalues() {
+		return _values.clone();
+	}
+
+	/**
+	 * Returns the real part of the specified eigenvalue.
+	 *
+	 * @param i the eigenvalue index.
+	 */
+	public double getEigenvalue(int i) {
+		return _values[i];
+	}
+
+	/**
+	 * Returns the imaginary part of the specified eigenvalue ({@code 0}
+	 * for symmetric matrices).
+	 *
+	 * @param i the eigenvalue index.
+	 */
+	public double getImaginaryPart(int i) {
+		return _imaginaryParts[i];
+	}
+
+	/**
+	 * Returns the real part of the eigenvector of the specified eigenvalue.
+	 *
+	 * @param i the eigenvalue index.
+	 * @return the eigenvector (real part).
+	 */
+	public FloatVector getEigenvector(int i) {
+		return Vectors.floatVector(_vectors[i]);
+	}
+
+	/**
+	 * Returns the imaginary part of the eigenvector of the specified
+	 * eigenvalue (zero vector if the eigenvalue is real).
+	 *
+	 * @param i the eigenvalue index.
+	 * @return the eigenvector imaginary part.
+	 */
+	public FloatVector getEigenvectorImaginaryPart(int i) {
+		return Vectors.floatVector((_imaginaryVectors[i] != null) ?
+				_imaginaryVectors[i] : new double[_n]);
+	}
+
+	/**
+	 * Returns the number of implicit restarts performed.
+	 */
+	public int getRestarts() {
+		return _restarts;
+	}
+
+	/**
+	 * Returns the number of products by the matrix performed.
+	 */
+	public int getProducts() {
+		return _products;
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import java.util.Arrays;
+
+/**
+ * <p> The restarted generalized minimal residual method, GMRES(m), for 
+ *     general non-symmetric systems, right-preconditioned.</p>
+ *     
+ * <p> Each iteration performs one product by the matrix and one 
+ *     preconditioner solve; the Krylov basis is orthogonalized with the 
+ *     modified Gram-Schmidt process and the least squares problem is updated
+ *     with Givens rotations, the residual norm being available at each 
+ *     iteration without calculating the solution. The basis holds
+ *     {@code restart + 1} arrays of the system dimension.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class GMRES extends IterativeSolver {
+
+	/**
+	 * Holds the default number of iterations between restarts.
+	 */
+	public static final int DEFAULT_RESTART = 30;
+
+	/**
+	 * Holds the number of iterations between restarts.
+	 */
+	private final int _restart;
+
+	/**
+	 * Creates a GMRES solver restarting every {@link #DEFAULT_RESTART}
+	 * iterations.
+	 */
+	public GMRES() {
+		this(DEFAULT_RESTART);
+	}
+
+	/**
+	 * Creates a GMRES solver restarting after the specified number of 
+	 * iterations.
+	 * 
+	 * @param restart the number of iterations between restarts.
+	 * @throws IllegalArgumentException if {@code restart <= 0}
+	 */
+	public GMRES(int restart) {
+		if (restart <= 0)
+			throw new IllegalArgumentException("restart: " + restart);
+		_restart = restart;
+	}
+
+	/**
+	 * Returns the number of iterations between restarts.
+	 */
+	public int getRestart() {
+		return _restart;
+	}
+
+	@Override
+	protected int iterate(LinearOperator A, double[] b, double[] x,
+			double bNorm) {
+		final int n = b.length;
+		final int m = Math.min(_restart, Math.max(n, 1));
+		double[] r = new double[n];
+		double[] z = new double[n];
+		double[][] V = new double[m + 1][];
+		double[][] H = new double[m + 1][m];
+		double[] cs = new double[m];
+		double[] sn = new double[m];
+		double[] g = new double[m + 1];
+		double[] y = new double[m];
+		double beta = residual(A, b, x, r);
+		if (hasConverged(0, beta, bNorm))
+			return 0;
+		int iteration = 0;
+		while (true) {
+			V[0] = (V[0] == null) ? new double[n] : V[0];
+			for (int i = 0; i < n; i++) {
+				V[0][i] = r[i] / beta;
+			}
+			Arrays.fill(g, 0.0);
+			g[0] = beta;
+			int j = 0;
+			while (j < m) {
+				double[] w = (V[j + 1] == null) ? (V[j + 1] = new double[n])
+						: V[j + 1];
+				precondition(V[j], z);
+				A.apply(z, w);
+				for (int i = 0; i <= j; i++) { // Modified Gram-Schmidt.
+					double h = dot(w, V[i]);
+					H[i][j] = h;
+					axpy(-h, V[i], w);
+				}
+				double h = norm(w);
+				H[j + 1][j] = h;
+				if (h != 0.0) {
+					for (int i = 0; i < n; i++) {
+						w[i] /= h;
+					}
+				}
+				for (int i = 0; i < j; i++) { // Previous rotations.
+					double tmp = cs[i] * H[i][j] + sn[i] * H[i + 1][j];
+					H[i + 1][j] = -sn[i] * H[i][j] + cs[i] * H[i + 1][j];
+					H[i][j] = tmp;
+				}
+				double d = Math.hypot(H[j][j], H[j + 1][j]);
+				cs[j] = (d == 0.0) ? 1.0 : H[j][j] / d;
+				sn[j] = (d == 0.0) ? 0.0 : H[j + 1][j] / d;
+				H[j][j] = d;
+				H[j + 1][j] = 0.0;
+				g[j + 1] = -sn[j] * g[j];
+				g[j] = cs[j] * g[j];
+				j++;
+				iteration++;
+				double estimate = Math.abs(g[j]);
+				if (isSatisfied(iteration, estimate, bNorm) || (h == 0.0)
+						|| (iteration >= getStoppingCriterion()
+								.getMaximumIterations()))
+					break;
+			}
+			// Solves the upper triangular system H · y = g
+			for (int i = j - 1; i >= 0; i--) {
+				double sum = g[i];
+				for (int k = i + 1; k < j; k++) {
+					sum -= H[i][k] * y[k];
+				}
+				if (H[i][i] == 0.0)
+					throw new ConvergenceException("Singular matrix");
+				y[i] = sum / H[i][i];
+			}
+			// x = x + M⁻¹ · V · y
+			Arrays.fill(r, 0.0);
+			for (int i = 0; i < j; i++) {
+				axpy(y[i], V[i], r);
+			}
+			precondition(r, z);
+			axpy(1.0, z, x);
+			beta = residual(A, b, x, r);
+			if (getStoppingCriterion().isSatisfied(iteration, beta, bNorm))
+				return iteration;
+			checkIterations(iteration, beta);
+		}
+	}
+}
@@ -0,0 +1,359 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.internal.linear.FloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatSparseMatrixImpl;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> A Krylov subspace solver of the linear system {@code A · x = b} for
+ *     large (typically sparse) matrices of 64 bits floating points numbers.
+ *     Unlike {@link Matrix#solve(Vector)} no factorization or inverse of 
+ *     {@code A} is calculated; each iteration costs one or two products 
+ *     by {@code A} (concurrent for sparse matrices) plus a few vector 
+ *     operations upon {@code double} arrays.
+ * [code]
+ * SparseMatrix<Float64> A = ...; // Symmetric positive definite.
+ * FloatVector b = ...;
+ * IterativeSolver solver = new ConjugateGradient()
+ *     .setPreconditioner(Preconditioners.ssor(A, 1.2))
+ *     .setStoppingCriterion(new StoppingCriterion(1E-8, 0.0, 1000));
+ * FloatVector x = solver.solve(A, b);
+ * [/code]</p>
+ *      
+ * <p> Solvers instances can be reused but are not thread-safe.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see ConjugateGradient
+ * @see BiCGStab
+ * @see GMRES
+ */
+public abstract class IterativeSolver {
+
+	/**
+	 * Holds the stopping criterion.
+	 */
+	private StoppingCriterion _criterion = StoppingCriterion.DEFAULT;
+
+	/**
+	 * Holds the preconditioner (<code>null</code> if none).
+	 */
+	private Preconditioner _preconditioner;
+
+	/**
+	 * Holds the residual listener (<code>null</code> if none).
+	 */
+	private ResidualListener _listener;
+
+	/**
+	 * Default constructor.
+	 */
+	protected IterativeSolver() {
+	}
+
+	/**
+	 * Returns the linear operator of the specified square matrix (sparse 
+	 * matrices are converted to compressed sparse rows, other matrices to 
+	 * dense float matrices).
+	 * 
+	 * @param A the square matrix.
+	 * @return the operator calculating the products by {@code A}.
+	 * @throws DimensionException if {@code A} is not square.
+	 */
+	public static LinearOperator operator(Matrix<Float64> A) {
+		final int n = A.getRowDimension();
+		if (A.getColumnDimension() != n)
+			throw new DimensionException("Square matrix expected");
+		if (A instanceof SparseMatrix) {
+			final FloatSparseMatrixImpl S = FloatSparseMatrixImpl.valueOf(A)
+					.toRowMajor();
+			return new LinearOperator() {
+
+				@Override
+				public int getDimension() {
+					return n;
+				}
+
+				@Override
+				public void apply(double[] x, double[] y) {
+					S.times(x, y);
+				}
+			};
+		}
+		final FloatMatrixImpl D = FloatMatrixImpl.valueOf(A);
+		return new LinearOperator() {
+
+			@Override
+			public int getDimension() {
+				return n;
+			}
+
+			@Override
+			public void apply(double[] x, double[] y) {
+				D.times(x, y);
+			}
+		};
+	}
+
+	/**
+	 * Sets the stopping criterion (default {@link StoppingCriterion#DEFAULT}).
+	 * 
+	 * @param criterion the new stopping criterion.
+	 * @return {@code this}
+	 */
+	public IterativeSolver setStoppingCriterion(StoppingCriterion criterion) {
+		if (criterion == null)
+			throw new NullPointerException();
+		_criterion = criterion;
+		return this;
+	}
+
+	/**
+	 * Returns the stopping criterion.
+	 */
+	public StoppingCriterion getStoppingCriterion() {
+		return _criterion;
+	}
+
+	/**
+	 * Sets the preconditioner (default none).
+	 * 
+	 * @param preconditioner the preconditioner or {@code null} if none.
+	 * @return {@code this}
+	 */
+	public IterativeSolver setPreconditioner(Preconditioner preconditioner) {
+		_preconditioner = preconditioner;
+		return this;
+	}
+
+	/**
+	 * Returns the preconditioner or {@code null} if none.
+	 */
+	public Preconditioner getPreconditioner() {
+		return _preconditioner;
+	}
+
+	/**
+	 * Sets the listener notified of the residual norm at each iteration.
+	 * 
+	 * @param listener the residual listener or {@code null} if none.
+	 * @return {@code this}
+	 */
+	public IterativeSolver setResidualListener(ResidualListener listener) {
+		_listener = listener;
+		return this;
+	}
+
+	/**
+	 * Returns the residual listener or {@code null} if none.
+	 */
+	public ResidualListener getResidualListener() {
+		return _listener;
+	}
+
+	/**
+	 * Solves {@code A · x = b} starting from {@code x = 0}.
+	 * 
+	 * @param A the square matrix.
+	 * @param b the right-hand side.
+	 * @return the solution {@code x}.
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws ConvergenceException if the stopping criterion is not reached.
+	 */
+	public FloatVector solve(Matrix<Float64> A, Vector<Float64> b) {
+		return solve(A, b, null);
+	}
+
+	/**
+	 * Solves {@code A · x = b} starting from the specified initial guess.
+	 * 
+	 * @param A the square matrix.
+	 * @param b the right-hand side.
+	 * @param x0 the initial guess or {@code null} for zero.
+	 * @return the solution {@code x}.
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws ConvergenceException if the stopping criterion is not reached.
+	 */
+	public FloatVector solve(Matrix<Float64> A, Vector<Float64> b,
+			Vector<Float64> x0) {
+		LinearOperator operator = operator(A);
+		double[] x = (x0 != null) ? values(x0) : new double[b.getDimension()];
+		solve(operator, values(b), x);
+		return Vectors.floatVector(x);
+	}
+
+	/**
+	 * Solves {@code A · x = b} in place.
+	 * 
+	 * @param A the linear operator.
+	 * @param b the right-hand side values.
+	 * @param x the initial guess, replaced by the solution.
+	 * @return the number of iterations performed.
+	 * @throws DimensionException if the dimensions do not match.
+	 * @throws ConvergenceException if the stopping criterion is not reached.
+	 */
+	public int solve(LinearOperator A, double[] b, double[] x) {
+		final int n = A.getDimension();
+		if ((b.length != n) || (x.length != n))
+			throw new DimensionException();
+		return iterate(A, b, x, norm(b));
+	}
+
+	/**
+	 * Performs the iterations of this solver.
+	 * 
+	 * @param A the linear operator.
+	 * @param b the right-hand side values.
+	 * @param x the initial guess, replaced by the solution.
+	 * @param bNorm the norm of {@code b}.
+	 * @return the number of iterations performed.
+	 * @throws ConvergenceException if the stopping criterion is not reached.
+	 */
+	protected abstract int iterate(LinearOperator A, double[] b, double[] x,
+			double bNorm);
+
+	/**
+	 * Notifies the residual listener and indicates if the stopping 
+	 * criterion is satisfied.
+	 * 
+	 * @param iteration the current iteration.
+	 * @param residualNorm the norm of the current residual.
+	 * @param bNorm the norm of the right-hand side.
+	 * @return {@code true} if the iterations can stop; {@code false} 
+	 *         otherwise.
+	 */
+	protected final boolean isSatisfied(int iteration, double residualNorm,
+			double bNorm) {
+		if (_listener != null) {
+			_listener.residual(iteration, residualNorm);
+		}
+		return _criterion.isSatisfied(iteration, residualNorm, bNorm);
+	}
+
+	/**
+	 * Same as {@link #isSatisfied} but throws a convergence exception if 
+	 * the criterion is not satisfied after the maximum number of iterations
+	 * or if the residual norm is not a number.
+	 * 
+	 * @param iteration the current iteration.
+	 * @param residualNorm the norm of the current residual.
+	 * @param bNorm the norm of the right-hand side.
+	 * @return {@code true} if the iterations can stop; {@code false} 
+	 *         otherwise.
+	 * @throws ConvergenceException if the iterations cannot continue.
+	 */
+	protected final boolean hasConverged(int iteration, double residualNorm,
+			double bNorm) {
+		if (isSatisfied(iteration, residualNorm, bNorm))
+			return true;
+		checkIterations(iteration, residualNorm);
+		return false;
+	}
+
+	/**
+	 * Throws a convergence exception if the maximum number of iterations
+	 * is reached or if the residual norm is not a number.
+	 * 
+	 * @param iteration the current iteration.
+	 * @param residualNorm the norm of the current residual.
+	 * @throws ConvergenceException if the iterations cannot continue.
+	 */
+	protected final void checkIterations(int iteration, double residualNorm) {
+		if (Double.isNaN(residualNorm) || Double.isInfinite(residualNorm))
+			throw new ConvergenceException("Divergence at iteration "
+					+ iteration);
+		if (iteration >= _criterion.getMaximumIterations())
+			throw new ConvergenceException("No convergence after "
+					+ iteration + " iterations (residual norm: "
+					+ residualNorm + ")");
+	}
+
+	/**
+	 * Applies the preconditioner: {@code z = M⁻¹ · r} ({@code z = r} if 
+	 * none).
+	 * 
+	 * @param r the residual values.
+	 * @param z the array receiving the preconditioned values.
+	 */
+	protected final void precondition(double[] r, double[] z) {
+		if (_preconditioner != null) {
+			_preconditioner.solve(r, z);
+		} else {
+			System.arraycopy(r, 0, z, 0, r.length);
+		}
+	}
+
+	/**
+	 * Calculates the residual {@code r = b - A · x}.
+	 * 
+	 * @param A the linear operator.
+	 * @param b the right-hand side values.
+	 * @param x the current solution.
+	 * @param r the array receiving the residual.
+	 * @return the norm of the residual.
+	 */
+	protected static double residual(LinearOperator A, double[] b,
+			double[] x, double[] r) {
+		A.apply(x, r);
+		double sum = 0.0;
+		for (int i = 0; i < r.length; i++) {
+			double ri = b[i] - r[i];
+			r[i] = ri;
+			sum += ri * ri;
+		}
+		return Math.sqrt(sum);
+	}
+
+	/**
+	 * Returns the dot product of the specified arrays.
+	 */
+	protected static double dot(double[] x, double[] y) {
+		double sum = 0.0;
+		for (int i = 0; i < x.length; i++) {
+			sum += x[i] * y[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the euclidian norm of the specified array.
+	 */
+	protected static double norm(double[] x) {
+		return Math.sqrt(dot(x, x));
+	}
+
+	/**
+	 * Calculates {@code y = y + a · x}.
+	 */
+	protected static void axpy(double a, double[] x, double[] y) {
+		for (int i = 0; i < x.length; i++) {
+			y[i] += a * x[i];
+		}
+	}
+
+	/**
+	 * Returns the values of the specified vector (new array).
+	 */
+	private static double[] values(Vector<Float64> v) {
+		FloatVector fv = Vectors.floatVector(v);
+		double[] values = new double[fv.getDimension()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = fv.getValue(i);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.internal.linear.Float64Eigen;
+
+/**
+ * <p> The implicitly restarted Lanczos method for symmetric matrices: the
+ *     projected matrix is symmetric tridiagonal, Ritz values are real and
+ *     the shifts are applied by real implicit QR steps. The Lanczos vectors
+ *     are fully reorthogonalized (no spurious copies of converged
+ *     eigenvalues).</p>
+ *
+ * <p> Only the symmetry of the matrix is assumed (not checked), the
+ *     eigenvalues calculated are real and the eigenvectors orthonormal.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see <a href="http://en.wikipedia.org/wiki/Lanczos_algorithm">
+ *      Wikipedia: Lanczos algorithm</a>
+ */
+public class Lanczos extends EigenSolver {
+
+	/**
+	 * Holds the eigenvectors (as rows) of the last tridiagonal matrix.
+	 */
+	private double[] _vectors;
+
+	/**
+	 * Creates a Lanczos solver for the eigenvalues of largest magnitude.
+	 */
+	public Lanczos() {
+	}
+
+	@Override
+	protected void ritz(int m, double[][] H, double[] re, double[] im) {
+		double[] T = new double[m * m];
+		for (int j = 0; j < m; j++) { // Symmetric tridiagonal.
+			T[j * m + j] = H[j][j];
+			for (int i = 0; i < j - 1; i++) {
+				H[i][j] = 0.0;
+			}
+			if (j > 0) {
+				H[j - 1][j] = H[j][j - 1];
+				T[j * m + j - 1] = H[j][j - 1];
+				T[(j - 1) * m + j] = H[j][j - 1];
+			}
+		}
+		Float64Eigen eigen = Float64Eigen.wrap(m, T, true);
+		System.arraycopy(eigen.getEigenvalues(), 0, re, 0, m);
+		for (int i = 0; i < m; i++) {
+			im[i] = 0.0;
+		}
+		_vectors = eigen.getEigenvectorRows();
+	}
+
+	@Override
+	protected void ritzVector(int m, double[][] H, int index, double re,
+			double im, double[] yRe, double[] yIm) {
+		System.arraycopy(_vectors, index * m, yRe, 0, m);
+		for (int i = 0; i < m; i++) {
+			yIm[i] = 0.0;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> A square linear operator upon {@code double} values; the matrix
+ *     of the system solved by an {@link IterativeSolver} is only accessed
+ *     through its product with a vector (matrix-free solvers).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see IterativeSolver#operator
+ */
+public interface LinearOperator {
+
+	/**
+	 * Returns the number of rows (and columns) of this operator.
+	 * 
+	 * @return the operator dimension.
+	 */
+	int getDimension();
+
+	/**
+	 * Calculates {@code y = A · x} (no allocation).
+	 * 
+	 * @param x the multiplier values.
+	 * @param y the array receiving the result.
+	 */
+	void apply(double[] x, double[] y);
+
+}
@@ -0,0 +1,31 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> An approximation {@code M} of the matrix {@code A} of a linear system 
+ *     whose inverse is cheap to apply; iterative solvers converge faster
+ *     upon the preconditioned system.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see Preconditioners
+ */
+public interface Preconditioner {
+
+	/**
+	 * Calculates {@code z = M⁻¹ · r} (no allocation).
+	 * 
+	 * @param r the residual values.
+	 * @param z the array receiving the preconditioned residual (distinct
+	 *        from {@code r}).
+	 */
+	void solve(double[] r, double[] z);
+
+}
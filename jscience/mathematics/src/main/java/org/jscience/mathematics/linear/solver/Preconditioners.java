@@ -0,0 +1,71 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.internal.linear.SparsePreconditioner;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> Sets of static factory methods to create {@link Preconditioner} 
+ *     instances. The matrices are converted to compressed sparse rows 
+ *     (zero elements are ignored); their diagonal elements must be 
+ *     non-zero.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class Preconditioners {
+
+	/**
+	 * Default constructor (private, utility class).
+	 */
+	private Preconditioners() {
+	}
+
+	/**
+	 * Returns the Jacobi (diagonal) preconditioner of the specified matrix.
+	 * 
+	 * @param A the square matrix.
+	 * @return {@code M = D}
+	 * @throws ArithmeticException if a diagonal element is zero.
+	 */
+	public static Preconditioner jacobi(Matrix<Float64> A) {
+		return SparsePreconditioner.jacobi(A);
+	}
+
+	/**
+	 * Returns the symmetric successive over-relaxation preconditioner of the
+	 * specified matrix (symmetric positive definite if {@code A} is).
+	 * 
+	 * @param A the square matrix.
+	 * @param omega the relaxation factor ({@code 0 < omega < 2}, 
+	 *        {@code 1} for symmetric Gauss-Seidel).
+	 * @return {@code M = ω/(2-ω) · (D/ω + L) · (D/ω)⁻¹ · (D/ω + U)}
+	 * @throws IllegalArgumentException if {@code omega} is out of range.
+	 * @throws ArithmeticException if a diagonal element is zero.
+	 */
+	public static Preconditioner ssor(Matrix<Float64> A, double omega) {
+		return SparsePreconditioner.ssor(A, omega);
+	}
+
+	/**
+	 * Returns the incomplete LU factorization with zero fill-in, ILU(0), of
+	 * the specified matrix: the factors {@code L} (unit lower triangular) 
+	 * and {@code U} have the same non-zero structure as {@code A}.
+	 * 
+	 * @param A the square matrix.
+	 * @return {@code M = L · U}
+	 * @throws ArithmeticException if a pivot is zero.
+	 */
+	public static Preconditioner incompleteLU(Matrix<Float64> A) {
+		return SparsePreconditioner.incompleteLU(A);
+	}
+
+}
@@ -0,0 +1,30 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> A listener notified of the residual norm at each iteration of an
+ *     {@link IterativeSolver} (instrumentation, convergence plots).</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public interface ResidualListener {
+
+	/**
+	 * Called at each iteration (iteration {@code 0} for the initial guess).
+	 * 
+	 * @param iteration the iteration number.
+	 * @param residualNorm the euclidian norm of the residual 
+	 *        {@code b - A · x} (estimation for restarted GMRES inner 
+	 *        iterations).
+	 */
+	void residual(int iteration, double residualNorm);
+
+}
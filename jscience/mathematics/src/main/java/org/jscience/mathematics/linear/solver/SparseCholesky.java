@@ -0,0 +1,171 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.internal.linear.FloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatSparseMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatVectorImpl;
+import org.jscience.mathematics.internal.linear.SparseFloat64Cholesky;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> The direct solver of sparse symmetric positive definite linear
+ *     systems {@code A · x = b} of {@link Float64} elements by the
+ *     Cholesky decomposition {@code P·A·Pᵀ = L·Lᵀ} of the matrix, without
+ *     conversion to a dense matrix.</p>
+ *
+ * <p> The ordering {@code P} and the structure of {@code L} are those of
+ *     the {@link SymbolicAnalysis symbolic analysis} of the structure of
+ *     {@code A} (approximate minimum degree by default), calculated once
+ *     for all the matrices having this structure; the numeric
+ *     factorization is left-looking and performs no pivoting (half the
+ *     operations of the {@link SparseLU LU decomposition}).</p>
+ *
+ * <p> Instances are immutable and can be shared by concurrent
+ *     solvers.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see SparseLU
+ */
+public final class SparseCholesky {
+
+	/**
+	 * Holds the decomposition of the {@code double} values.
+	 */
+	private final SparseFloat64Cholesky _cholesky;
+
+	/**
+	 * Holds the symbolic analysis.
+	 */
+	private final SymbolicAnalysis _analysis;
+
+	/**
+	 * Creates a decomposition wrapping the specified one.
+	 */
+	private SparseCholesky(SparseFloat64Cholesky cholesky, SymbolicAnalysis analysis) {
+		_cholesky = cholesky;
+		_analysis = analysis;
+	}
+
+	/**
+	 * Returns the Cholesky decomposition of the specified symmetric
+	 * positive definite matrix, ordered by approximate minimum degree.
+	 * The decomposition of a sparse matrix instance is calculated once
+	 * and shared (see {@link org.jscience.mathematics.linear.Factorizations}).
+	 *
+	 * @param A the symmetric positive definite matrix (both triangles
+	 *        stored).
+	 * @return the corresponding decomposition.
+	 * @throws DimensionException if the matrix is not square.
+	 * @throws ArithmeticException if the matrix is not positive definite.
+	 */
+	public static SparseCholesky valueOf(Matrix<Float64> A) {
+		if (!(A instanceof FloatSparseMatrixImpl))
+			return valueOf(A, SymbolicAnalysis.valueOf(A));
+		SparseFloat64Cholesky cholesky = SparseFloat64Cholesky.valueOf((FloatSparseMatrixImpl) A);
+		return new SparseCholesky(cholesky, SymbolicAnalysis.wrap(cholesky.getSymbolic()));
+	}
+
+	/**
+	 * Returns the Cholesky decomposition of the specified symmetric
+	 * positive definite matrix for the specified analysis of its structure.
+	 *
+	 * @param A the symmetric positive definite matrix.
+	 * @param analysis the symbolic analysis of the structure of {@code A}.
+	 * @return the corresponding decomposition.
+	 * @throws IllegalArgumentException if {@code A} does not have the
+	 *         structure analyzed.
+	 * @throws ArithmeticException if the matrix is not positive definite.
+	 */
+	public static SparseCholesky valueOf(Matrix<Float64> A,
+			SymbolicAnalysis analysis) {
+		return new SparseCholesky(SparseFloat64Cholesky.valueOf(
+				SymbolicAnalysis.rows(A), analysis.symbolic()), analysis);
+	}
+
+	/**
+	 * Returns the Cholesky decomposition of the specified matrix having the
+	 * structure of the matrix decomposed (the symbolic analysis being
+	 * reused).
+	 *
+	 * @param A the symmetric positive definite matrix having the structure
+	 *        analyzed.
+	 * @return the decomposition of {@code A}.
+	 * @throws IllegalArgumentException if {@code A} does not have the
+	 *         structure analyzed.
+	 * @throws ArithmeticException if the matrix is not positive definite.
+	 */
+	public SparseCholesky refactor(Matrix<Float64> A) {
+		return valueOf(A, _analysis);
+	}
+
+	/**
+	 * Returns the symbolic analysis of this decomposition.
+	 *
+	 * @return the analysis of the structure of the matrix decomposed.
+	 */
+	public SymbolicAnalysis getSymbolicAnalysis() {
+		return _analysis;
+	}
+
+	/**
+	 * Returns the solution of {@code A · x = b}.
+	 *
+	 * @param b the right-hand side.
+	 * @return {@code x}
+	 * @throws DimensionException if the dimensions do not match.
+	 */
+	public FloatVector solve(Vector<Float64> b) {
+		if (b.getDimension() != _cholesky.getDimension())
+			throw new DimensionException();
+		double[] x = _cholesky.solve(1, FloatVectorImpl.valueOf(b).toArray());
+		return FloatVectorImpl.valueOf(x);
+	}
+
+	/**
+	 * Returns the solution of {@code A · X = B} (all the right-hand sides
+	 * being solved in a single pass over the factors).
+	 *
+	 * @param B the right-hand sides.
+	 * @return {@code X}
+	 * @throws DimensionException if the dimensions do not match.
+	 */
+	public FloatMatrix solve(Matrix<Float64> B) {
+		if (B.getRowDimension() != _cholesky.getDimension())
+			throw new DimensionException();
+		final int p = B.getColumnDimension();
+		double[] x = _cholesky.solve(p, FloatMatrixImpl.valueOf(B).toArray());
+		return FloatMatrixImpl.wrap(_cholesky.getDimension(), p, x);
+	}
+
+	/**
+	 * Returns the determinant of the decomposed matrix.
+	 *
+	 * @return {@code det(A)}
+	 */
+	public Float64 determinant() {
+		return Float64.valueOf(_cholesky.determinant());
+	}
+
+	/**
+	 * Returns the logarithm of the determinant of the decomposed matrix
+	 * (no overflow for large matrices).
+	 *
+	 * @return {@code log(det(A))}
+	 */
+	public double logDeterminant() {
+		return _cholesky.logDeterminant();
+	}
+}
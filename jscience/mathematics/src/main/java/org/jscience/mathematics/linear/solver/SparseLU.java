@@ -0,0 +1,170 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.internal.linear.FloatMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatSparseMatrixImpl;
+import org.jscience.mathematics.internal.linear.FloatVectorImpl;
+import org.jscience.mathematics.internal.linear.SparseFloat64LU;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> The direct solver of sparse linear systems {@code A · x = b} of
+ *     {@link Float64} elements by the LU decomposition {@code P·A·Q = L·U}
+ *     of the matrix, without conversion to a dense matrix.</p>
+ *
+ * <p> The columns are ordered by the {@link SymbolicAnalysis symbolic
+ *     analysis} of the structure of {@code A} (approximate minimum degree
+ *     by default); the factorization is left-looking with threshold
+ *     partial pivoting (diagonal pivots preferred), in time proportional
+ *     to the number of floating point operations. Matrices having the same
+ *     structure (e.g. successive Jacobians of a circuit simulation) are
+ *     {@link #refactor refactorized} with the pivots and the structure of
+ *     the factors already calculated.</p>
+ *
+ * <p> Instances are immutable and can be shared by concurrent
+ *     solvers.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ * @see SparseCholesky
+ */
+public final class SparseLU {
+
+	/**
+	 * Holds the decomposition of the {@code double} values.
+	 */
+	private final SparseFloat64LU _lu;
+
+	/**
+	 * Holds the symbolic analysis.
+	 */
+	private final SymbolicAnalysis _analysis;
+
+	/**
+	 * Creates a decomposition wrapping the specified one.
+	 */
+	private SparseLU(SparseFloat64LU lu, SymbolicAnalysis analysis) {
+		_lu = lu;
+		_analysis = analysis;
+	}
+
+	/**
+	 * Returns the LU decomposition of the specified matrix, its columns
+	 * being ordered by approximate minimum degree.
+	 * The decomposition of a sparse matrix instance is calculated once
+	 * and shared (see {@link org.jscience.mathematics.linear.Factorizations}).
+	 *
+	 * @param A the square matrix.
+	 * @return the corresponding decomposition.
+	 * @throws DimensionException if the matrix is not square.
+	 * @throws ArithmeticException if the matrix is singular.
+	 */
+	public static SparseLU valueOf(Matrix<Float64> A) {
+		if (!(A instanceof FloatSparseMatrixImpl))
+			return valueOf(A, SymbolicAnalysis.valueOf(A));
+		SparseFloat64LU lu = SparseFloat64LU.valueOf((FloatSparseMatrixImpl) A);
+		return new SparseLU(lu, SymbolicAnalysis.wrap(lu.getSymbolic()));
+	}
+
+	/**
+	 * Returns the LU decomposition of the specified matrix for the
+	 * specified analysis of its structure.
+	 *
+	 * @param A the square matrix.
+	 * @param analysis the symbolic analysis of the structure of {@code A}.
+	 * @return the corresponding decomposition.
+	 * @throws IllegalArgumentException if {@code A} does not have the
+	 *         structure analyzed.
+	 * @throws ArithmeticException if the matrix is singular.
+	 */
+	public static SparseLU valueOf(Matrix<Float64> A,
+			SymbolicAnalysis analysis) {
+		return new SparseLU(SparseFloat64LU.valueOf(SymbolicAnalysis
+				.rows(A), analysis.symbolic()), analysis);
+	}
+
+	/**
+	 * Returns the LU decomposition of the specified matrix having the
+	 * structure of the matrix decomposed; the pivots and the structure of
+	 * the factors of this decomposition are reused (unless a pivot becomes
+	 * too small, in which case a full factorization is performed).
+	 *
+	 * @param A the square matrix having the structure analyzed.
+	 * @return the decomposition of {@code A}.
+	 * @throws IllegalArgumentException if {@code A} does not have the
+	 *         structure analyzed.
+	 * @throws ArithmeticException if the matrix is singular.
+	 */
+	public SparseLU refactor(Matrix<Float64> A) {
+		return new SparseLU(_lu.refactor(SymbolicAnalysis.rows(A)), _analysis);
+	}
+
+	/**
+	 * Returns the symbolic analysis of this decomposition.
+	 *
+	 * @return the analysis of the structure of the matrix decomposed.
+	 */
+	public SymbolicAnalysis getSymbolicAnalysis() {
+		return _analysis;
+	}
+
+	/**
+	 * Returns the number of non-zero elements of the factors.
+	 *
+	 * @return {@code nnz(L) + nnz(U)} (diagonals included).
+	 */
+	public int getFactorNonZeroCount() {
+		return _lu.getFactorNonZeroCount();
+	}
+
+	/**
+	 * Returns the solution of {@code A · x = b}.
+	 *
+	 * @param b the right-hand side.
+	 * @return {@code x}
+	 * @throws DimensionException if the dimensions do not match.
+	 */
+	public FloatVector solve(Vector<Float64> b) {
+		if (b.getDimension() != _lu.getDimension())
+			throw new DimensionException();
+		double[] x = _lu.solve(1, FloatVectorImpl.valueOf(b).toArray());
+		return FloatVectorImpl.valueOf(x);
+	}
+
+	/**
+	 * Returns the solution of {@code A · X = B} (all the right-hand sides
+	 * being solved in a single pass over the factors).
+	 *
+	 * @param B the right-hand sides.
+	 * @return {@code X}
+	 * @throws DimensionException if the dimensions do not match.
+	 */
+	public FloatMatrix solve(Matrix<Float64> B) {
+		if (B.getRowDimension() != _lu.getDimension())
+			throw new DimensionException();
+		final int p = B.getColumnDimension();
+		double[] x = _lu.solve(p, FloatMatrixImpl.valueOf(B).toArray());
+		return FloatMatrixImpl.wrap(_lu.getDimension(), p, x);
+	}
+
+	/**
+	 * Returns the determinant of the decomposed matrix.
+	 *
+	 * @return {@code det(A)}
+	 */
+	public Float64 determinant() {
+		return Float64.valueOf(_lu.determinant());
+	}
+}
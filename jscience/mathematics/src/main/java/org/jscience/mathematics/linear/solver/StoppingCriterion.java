@@ -0,0 +1,99 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+/**
+ * <p> The stopping criterion of an {@link IterativeSolver}: the iterations
+ *     stop when {@code |b - A · x| <= max(absoluteTolerance,
+ *     relativeTolerance · |b|)}. Solvers throw a {@link ConvergenceException}
+ *     when the maximum number of iterations is reached first.</p>
+ *     
+ * <p> Sub-classes may override {@link #isSatisfied} for custom criteria.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public class StoppingCriterion {
+
+	/**
+	 * Holds the default criterion (relative tolerance {@code 1E-10}, 
+	 * at most {@code 10000} iterations).
+	 */
+	public static final StoppingCriterion DEFAULT = new StoppingCriterion(
+			1E-10, 0.0, 10000);
+
+	private final double _relativeTolerance;
+
+	private final double _absoluteTolerance;
+
+	private final int _maximumIterations;
+
+	/**
+	 * Creates a stopping criterion.
+	 * 
+	 * @param relativeTolerance the tolerance relative to the norm of the 
+	 *        right-hand side.
+	 * @param absoluteTolerance the absolute tolerance upon the residual norm.
+	 * @param maximumIterations the maximum number of iterations.
+	 * @throws IllegalArgumentException if a tolerance is negative or
+	 *         {@code maximumIterations <= 0}
+	 */
+	public StoppingCriterion(double relativeTolerance,
+			double absoluteTolerance, int maximumIterations) {
+		if ((relativeTolerance < 0) || (absoluteTolerance < 0)
+				|| (maximumIterations <= 0))
+			throw new IllegalArgumentException("Invalid stopping criterion");
+		_relativeTolerance = relativeTolerance;
+		_absoluteTolerance = absoluteTolerance;
+		_maximumIterations = maximumIterations;
+	}
+
+	/**
+	 * Returns the tolerance relative to the norm of the right-hand side.
+	 */
+	public double getRelativeTolerance() {
+		return _relativeTolerance;
+	}
+
+	/**
+	 * Returns the absolute tolerance upon the residual norm.
+	 */
+	public double getAbsoluteTolerance() {
+		return _absoluteTolerance;
+	}
+
+	/**
+	 * Returns the maximum number of iterations.
+	 */
+	public int getMaximumIterations() {
+		return _maximumIterations;
+	}
+
+	/**
+	 * Indicates if the iterations can stop.
+	 * 
+	 * @param iteration the current iteration.
+	 * @param residualNorm the norm of the current residual.
+	 * @param rhsNorm the norm of the right-hand side {@code b}.
+	 * @return {@code residualNorm <= max(absoluteTolerance,
+	 *         relativeTolerance · rhsNorm)}
+	 */
+	public boolean isSatisfied(int iteration, double residualNorm,
+			double rhsNorm) {
+		return residualNorm <= Math.max(_absoluteTolerance, _relativeTolerance
+				* rhsNorm);
+	}
+
+	@Override
+	public String toString() {
+		return "{relativeTolerance: " + _relativeTolerance
+				+ ", absoluteTolerance: " + _absoluteTolerance
+				+ ", maximumIterations: " + _maximumIterations + "}";
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2014 - JScience (http://jscience.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.internal.linear.FloatSparseMatrixImpl;
+import org.jscience.mathematics.internal.linear.SparseOrdering;
+import org.jscience.mathematics.internal.linear.SparseSymbolic;
+import org.jscience.mathematics.linear.DimensionException;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * <p> The symbolic analysis of the non-zero structure of a square sparse
+ *     matrix: fill-reducing {@link Ordering ordering}, elimination tree
+ *     and column counts of the factor. It depends only upon the structure
+ *     of the matrix and is reused by the numeric factorizations
+ *     ({@link SparseLU}, {@link SparseCholesky}) of all the matrices having
+ *     this structure.
+ * [code]
+ * SymbolicAnalysis analysis = SymbolicAnalysis.valueOf(A); // Once.
+ * SparseLU lu = SparseLU.valueOf(A, analysis);
+ * for (int step = 0; step < steps; step++) {
+ *     lu = lu.refactor(jacobian(step)); // Same structure, new values.
+ *     FloatVector dx = lu.solve(residual(step));
+ *     ...
+ * }[/code]</p>
+ *
+ * <p> The matrices are converted to compressed sparse rows (zero elements
+ *     are ignored); orderings are calculated upon the structure of
+ *     {@code A + Aᵀ}. Instances are immutable.</p>
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 5.0, January 26, 2014
+ */
+public final class SymbolicAnalysis {
+
+	/**
+	 * The ordering of the rows and columns of the matrix factorized.
+	 */
+	public static enum Ordering {
+
+		/**
+		 * The original order (no permutation).
+		 */
+		NATURAL,
+
+		/**
+		 * The approximate minimum degree ordering, reducing the fill-in of
+		 * the factors (general purpose).
+		 */
+		APPROXIMATE_MINIMUM_DEGREE,
+
+		/**
+		 * The reverse Cuthill-McKee ordering, reducing the bandwidth and
+		 * the profile (e.g. meshes of one or two dimensions).
+		 */
+		REVERSE_CUTHILL_MCKEE
+	}
+
+	/**
+	 * Holds the analysis of the structure.
+	 */
+	private final SparseSymbolic _symbolic;
+
+	/**
+	 * Creates an analysis wrapping the specified one.
+	 */
+	private SymbolicAnalysis(SparseSymbolic symbolic) {
+		_symbolic = symbolic;
+	}
+
+	/**
+	 * Returns the analysis of the specified matrix structure for the
+	 * approximate minimum degree ordering.
+	 *
+	 * @param A the square matrix.
+	 * @return the symbolic analysis of {@code A}.
+	 * @throws DimensionException if the matrix is not square.
+	 */
+	public static SymbolicAnalysis valueOf(Matrix<Float64> A) {
+		return valueOf(A, Ordering.APPROXIMATE_MINIMUM_DEGREE);
+	}
+
+	/**
+	 * Returns the analysis of the specified matrix structure for the
+	 * specified ordering.
+	 *
+	 * @param A the square matrix.
+	 * @param ordering the ordering of the rows and columns.
+	 * @return the symbolic analysis of {@code A}.
+	 * @throws DimensionException if the matrix is not square.
+	 */
+	public static SymbolicAnalysis valueOf(Matrix<Float64> A,
+			Ordering ordering) {
+		FloatSparseMatrixImpl S = rows(A);
+		int[] perm = (ordering == Ordering.APPROXIMATE_MINIMUM_DEGREE) ? SparseOrdering
+				.approximateMinimumDegree(S)
+				: (ordering == Ordering.REVERSE_CUTHILL_MCKEE) ? SparseOrdering
+						.reverseCuthillMcKee(S) : SparseOrdering.natural(S
+						.getRowDimension());
+		return new SymbolicAnalysis(SparseSymbolic.valueOf(S, perm));
+	}
+
+	/**
+	 * Returns the analysis of the specified matrix structure for the
+	 * specified (user-defined) ordering.
+	 *
+	 * @param A the square matrix.
+	 * @param permutation the original index of each row and column of the
+	 *        ordered matrix.
+	 * @return the symbolic analysis of {@code A}.
+	 * @throws DimensionException if the matrix is not square or the
+	 *         permutation dimension is not the matrix dimension.
+	 * @throws IllegalArgumentException if {@code permutation} is not a
+	 *         permutation.
+	 */
+	public static SymbolicAnalysis valueOf(Matrix<Float64> A,
+			int[] permutation) {
+		return new SymbolicAnalysis(SparseSymbolic.valueOf(rows(A),
+				permutation));
+	}
+
+	/**
+	 * Returns the compressed sparse rows of the specified square matrix.
+	 */
+	static FloatSparseMatrixImpl rows(Matrix<Float64> A) {
+		if (!A.isSquare())
+			throw new DimensionException("Matrix not square");
+		return FloatSparseMatrixImpl.valueOf(A).toRowMajor();
+	}
+
+	/**
+	 * Returns the analysis wrapping the specified one.
+	 */
+	static SymbolicAnalysis wrap(SparseSymbolic symbolic) {
+		return new SymbolicAnalysis(symbolic);
+	}
+
+	/**
+	 * Returns the analysis wrapped.
+	 */
+	SparseSymbolic symbolic() {
+		return _symbolic;
+	}
+
+	/**
+	 * Indicates if the specified matrix has the structure analyzed.
+	 *
+	 * @param A the matrix.
+	 * @return {@code true} if {@code A} has the dimension and the non-zero
+	 *         structure analyzed; {@code false} otherwise.
+	 */
+	public boolean matches(Matrix<Float64> A) {
+		return A.isSquare() && _symbolic.matches(rows(A));
+	}
+
+	/**
+	 * Returns the dimension of the matrices analyzed.
+	 *
+	 * @return the number of rows and columns.
+	 */
+	public int getDimension() {
+		return _symbolic.getDimension();
+	}
+
+	/**
+	 * Returns the ordering of the rows and columns.
+	 *
+	 * @return the original index of each row and column of the ordered
+	 *         matrix.
+	 */
+	public int[] getPermutation() {
+		return _symbolic.getPermutation();
+	}
+
+	/**
+	 * Returns the elimination tree of the ordered matrix.
+	 *
+	 * @return the parent of each column or {@code -1} for the roots.
+	 */
+	public int[] getEliminationTree() {
+		return _symbolic.getEliminationTree();
+	}
+
+	/**
+	 * Returns the number of non-zero elements of each column of the
+	 * Cholesky factor {@code L} of the ordered matrix (the lower factor of
+	 * {@code A + Aᵀ} for unsymmetric matrices).
+	 *
+	 * @return the column counts (diagonal included).
+	 */
+	public int[] getColumnCounts() {
+		return _symbolic.getColumnCounts();
+	}
+
+	/**
+	 * Returns the number of non-zero elements of the Cholesky factor
+	 * {@code L} of the ordered matrix (the fill-in measure of the ordering).
+	 *
+	 * @return the sum of the column counts.
+	 */
+	public int getFactorNonZeroCount() {
+		return _symbolic.getFactorNonZeroCount();
+	}
+}
@@ -0,0 +1,57 @@
+/**
+<p> Provides iterative (Krylov subspace) solvers of large linear systems
+    {@code A · x = b} of 64 bits floating points numbers, typically 
+    {@link org.jscience.mathematics.linear.SparseMatrix sparse}.</p>
+    
+<p> The {@link org.jscience.mathematics.linear.solver.ConjugateGradient 
+    conjugate gradient} method solves symmetric positive definite systems;
+    {@link org.jscience.mathematics.linear.solver.BiCGStab BiCGSTAB} and 
+    restarted {@link org.jscience.mathematics.linear.solver.GMRES GMRES}
+    solve general systems. Convergence is accelerated by the
+    {@link org.jscience.mathematics.linear.solver.Preconditioners Jacobi, 
+    SSOR or ILU(0)} preconditioners (or any user defined 
+    {@link org.jscience.mathematics.linear.solver.Preconditioner}).
+[code]
+SparseMatrix<Float64> A = Matrices.floatSparseMatrix(n, n, rowPointers, columnIndices, values);
+FloatVector b = ...;
+FloatVector x = new BiCGStab()
+    .setPreconditioner(Preconditioners.incompleteLU(A))
+    .setStoppingCriterion(new StoppingCriterion(1E-8, 0.0, 500))
+    .setResidualListener(new ResidualListener() {
+         public void residual(int iteration, double residualNorm) {
+             System.out.println(iteration + ": " + residualNorm);
+         }
+     })
+    .solve(A, b);[/code]</p>
+    
+<p> Solvers operate upon {@code double} arrays and access the matrix only
+    through its products with vectors ({@link 
+    org.jscience.mathematics.linear.solver.LinearOperator}); no inverse 
+    or factorization of the matrix is calculated.</p>
+
+<p> Sparse systems are also solved directly by the {@link 
+    org.jscience.mathematics.linear.solver.SparseLU LU} or (symmetric 
+    positive definite) {@link org.jscience.mathematics.linear.solver.SparseCholesky
+    Cholesky} decompositions, after a fill-reducing {@link 
+    org.jscience.mathematics.linear.solver.SymbolicAnalysis symbolic analysis}
+    (approximate minimum degree or reverse Cuthill-McKee ordering,
+    elimination tree, column counts) reused by all the matrices having the
+    same structure.
+[code]
+SymbolicAnalysis analysis = SymbolicAnalysis.valueOf(A);
+SparseLU lu = SparseLU.valueOf(A, analysis);
+FloatVector x = lu.solve(b);
+FloatVector y = lu.refactor(A2).solve(b); // A2 has the structure of A.[/code]</p>
+
+<p> The implicitly restarted {@link org.jscience.mathematics.linear.solver.Lanczos
+    Lanczos} (symmetric) and {@link org.jscience.mathematics.linear.solver.Arnoldi
+    Arnoldi} (general) {@link org.jscience.mathematics.linear.solver.EigenSolver
+    eigen solvers} calculate a few eigenvalues at one end of the spectrum
+    with {@code O(n·k)} memory, also through matrix-vector products only.
+[code]
+Eigenpairs pairs = new Lanczos().setTarget(EigenSolver.Target.LARGEST_REAL).solve(A, 10);
+double lambda = pairs.getEigenvalue(0);
+FloatVector x = pairs.getEigenvector(0);[/code]</p>
+ */
+package org.jscience.mathematics.linear.solver;
+
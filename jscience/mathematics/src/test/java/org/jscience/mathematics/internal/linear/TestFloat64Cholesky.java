@@ -0,0 +1,92 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the blocked Cholesky decomposition (dimensions larger than the
+ * block).
+ */
+public class TestFloat64Cholesky extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testFactor() {
+        final int n = 150;
+        double[] a = spd(n);
+        double[] l = Float64Cholesky.valueOf(n, a).getLower();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += l[i * n + k] * l[j * n + k];
+                }
+                assertEquals(a[i * n + j], sum, EPSILON);
+            }
+        }
+    }
+
+    public void testPacked() {
+        final int n = 90;
+        double[] a = spd(n);
+        double[] packed = new double[n * (n + 1) / 2];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a, i * n, packed, i * (i + 1) / 2, i + 1);
+        }
+        double[] expected = Float64Cholesky.valueOf(n, a).getPacked();
+        double[] actual = Float64Cholesky.wrapPacked(n, packed).getPacked();
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], EPSILON);
+        }
+    }
+
+    public void testSolve() {
+        final int n = 131, p = 70;
+        double[] a = spd(n);
+        double[] b = _helper.values(n * p);
+        double[] x = Float64Cholesky.valueOf(n, a).solve(p, b);
+        double[] ax = new double[n * p];
+        Float64Kernel.multiply(n, n, p, a, x, ax);
+        for (int i = 0; i < n * p; i++) {
+            assertEquals(b[i], ax[i], EPSILON);
+        }
+    }
+
+    public void testLogDeterminant() {
+        final int n = 100;
+        double[] a = spd(n);
+        double expected = 0;
+        double[] u = Float64LU.valueOf(n, a).getUpper();
+        for (int i = 0; i < n; i++) {
+            expected += Math.log(Math.abs(u[i * n + i]));
+        }
+        assertEquals(expected, Float64Cholesky.valueOf(n, a).logDeterminant(),
+                EPSILON * Math.abs(expected));
+    }
+
+    public void testNotPositiveDefinite() {
+        double[] a = { 1, 2, 2, 1 };
+        try {
+            Float64Cholesky.valueOf(2, a);
+            fail("ArithmeticException expected");
+        } catch (ArithmeticException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Returns AᵀA + n·I for a random A (symmetric positive definite).
+     */
+    private double[] spd(int n) {
+        double[] r = _helper.values(n * n);
+        double[] a = new double[n * n];
+        Float64Kernel.multiply(n, n, n, 1.0, r, 0, 1, n, r, 0, n, 1, 0.0, a, 0, n);
+        for (int i = 0; i < n; i++) {
+            a[i * n + i] += n;
+        }
+        return a;
+    }
+}
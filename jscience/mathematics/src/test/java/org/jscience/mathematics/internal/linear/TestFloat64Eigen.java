@@ -0,0 +1,79 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the symmetric eigen decomposition.
+ */
+public class TestFloat64Eigen extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testDecomposition() {
+        final int n = 150;
+        double[] a = symmetric(n);
+        Float64Eigen eigen = Float64Eigen.valueOf(n, a, true);
+        double[] lambda = eigen.getEigenvalues();
+        double[] vt = eigen.getEigenvectorRows();
+        for (int k = 0; k < n; k++) { // A·v = λ·v
+            if (k > 0) {
+                assertTrue(lambda[k - 1] <= lambda[k]);
+            }
+            for (int i = 0; i < n; i++) {
+                double sum = 0.0;
+                for (int j = 0; j < n; j++) {
+                    sum += a[i * n + j] * vt[k * n + j];
+                }
+                assertEquals(lambda[k] * vt[k * n + i], sum, EPSILON);
+            }
+        }
+        double[] identity = new double[n * n]; // Vᵀ·V
+        Float64Kernel.multiply(n, n, n, 1.0, vt, 0, n, 1, vt, 0, 1, n, 0.0,
+                identity, 0, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, identity[i * n + j], EPSILON);
+            }
+        }
+    }
+
+    public void testValuesOnly() {
+        final int n = 90;
+        double[] a = symmetric(n);
+        double[] expected = Float64Eigen.valueOf(n, a, true).getEigenvalues();
+        Float64Eigen eigen = Float64Eigen.wrap(n, a, false);
+        assertFalse(eigen.hasEigenvectors());
+        double[] actual = eigen.getEigenvalues();
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected[i], actual[i], EPSILON);
+        }
+    }
+
+    public void testSmall() {
+        double[] values = Float64Eigen.valueOf(2, new double[] { 2, 1, 1, 2 },
+                false).getEigenvalues();
+        assertEquals(1.0, values[0], EPSILON);
+        assertEquals(3.0, values[1], EPSILON);
+        Float64Eigen one = Float64Eigen.valueOf(1, new double[] { 5 }, true);
+        assertEquals(5.0, one.getEigenvalues()[0], 0.0);
+        assertEquals(1.0, one.getEigenvectorRows()[0], 0.0);
+        double[] diagonal = { 3, 0, 0, 0, 1, 0, 0, 0, 2 }; // Already diagonal.
+        values = Float64Eigen.valueOf(3, diagonal, true).getEigenvalues();
+        assertEquals(1.0, values[0], 0.0);
+        assertEquals(3.0, values[2], 0.0);
+    }
+
+    private double[] symmetric(int n) {
+        double[] a = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                a[i * n + j] = a[j * n + i] = _helper.nextValue();
+            }
+        }
+        return a;
+    }
+}
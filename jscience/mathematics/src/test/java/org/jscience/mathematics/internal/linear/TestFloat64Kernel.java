@@ -0,0 +1,76 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the blocked matrix multiplication kernel against the naive product.
+ */
+public class TestFloat64Kernel extends TestCase {
+
+    private static final double EPSILON = 1e-10;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testSmall() {
+        checkMultiply(3, 5, 7);
+    }
+
+    public void testEdges() {
+        // Dimensions not multiple of the register/cache blocks.
+        checkMultiply(37, 300, 129);
+        checkMultiply(131, 257, 2051);
+    }
+
+    public void testTransposed() {
+        final int m = 65, n = 70, p = 33;
+        double[] a = _helper.values(n * m); // Column-major A.
+        double[] b = _helper.values(n * p);
+        double[] c = new double[m * p];
+        Float64Kernel.multiply(m, n, p, 1.0, a, 0, 1, m, b, 0, p, 1, 0.0, c, 0, p);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[k * m + i] * b[k * p + j];
+                }
+                assertEquals(sum, c[i * p + j], EPSILON);
+            }
+        }
+    }
+
+    public void testNonFinite() {
+        // 0 · Inf is NaN whatever the path (small or packed).
+        for (int size : new int[] { 2, 100 }) {
+            double[] a = _helper.values(size * size);
+            double[] b = _helper.values(size * size);
+            a[0] = 0.0; // A(0,0)
+            b[0] = Double.POSITIVE_INFINITY; // B(0,0)
+            double[] c = new double[size * size];
+            Float64Kernel.multiply(size, size, size, 1.0, a, 0, size, 1, b, 0,
+                    size, 1, 0.0, c, 0, size);
+            assertTrue(Double.isNaN(c[0]));
+        }
+    }
+
+    private void checkMultiply(int m, int n, int p) {
+        double[] a = _helper.values(m * n);
+        double[] b = _helper.values(n * p);
+        double[] c = _helper.values(m * p);
+        double[] expected = new double[m * p];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[i * n + k] * b[k * p + j];
+                }
+                expected[i * p + j] = 2.0 * sum - c[i * p + j];
+            }
+        }
+        Float64Kernel.multiply(m, n, p, 2.0, a, 0, n, 1, b, 0, p, 1, -1.0, c, 0, p);
+        for (int i = 0; i < m * p; i++) {
+            assertEquals(expected[i], c[i], EPSILON);
+        }
+    }
+}
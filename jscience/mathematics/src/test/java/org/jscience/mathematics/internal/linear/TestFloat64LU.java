@@ -0,0 +1,68 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the blocked LU decomposition (dimensions larger than the block).
+ */
+public class TestFloat64LU extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testFactors() {
+        final int n = 150;
+        double[] a = _helper.values(n * n);
+        Float64LU lu = Float64LU.valueOf(n, a);
+        double[] l = lu.getLower();
+        double[] u = lu.getUpper();
+        int[] pivots = lu.getPivots();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += l[i * n + k] * u[k * n + j];
+                }
+                assertEquals(a[pivots[i] * n + j], sum, EPSILON);
+                assertTrue(Math.abs(l[i * n + j]) <= 1.0); // Partial pivoting.
+            }
+        }
+    }
+
+    public void testSolve() {
+        final int n = 131, p = 70;
+        double[] a = _helper.values(n * n);
+        double[] b = _helper.values(n * p);
+        double[] x = Float64LU.valueOf(n, a).solve(p, b);
+        double[] ax = new double[n * p];
+        Float64Kernel.multiply(n, n, p, a, x, ax);
+        for (int i = 0; i < n * p; i++) {
+            assertEquals(b[i], ax[i], EPSILON);
+        }
+    }
+
+    public void testInverse() {
+        final int n = 100;
+        double[] a = _helper.values(n * n);
+        double[] inv = Float64LU.valueOf(n, a).inverse();
+        double[] identity = new double[n * n];
+        Float64Kernel.multiply(n, n, n, a, inv, identity);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, identity[i * n + j], EPSILON);
+            }
+        }
+    }
+
+    public void testDeterminant() {
+        double[] a = { 0, 2, 1, 1, 1, 0, 3, 0, 1 }; // Requires pivoting.
+        assertEquals(-5.0, Float64LU.valueOf(3, a).determinant(), EPSILON);
+        double[] singular = { 1, 2, 3, 2, 4, 6, 1, 0, 1 };
+        Float64LU lu = Float64LU.valueOf(3, singular);
+        assertTrue(lu.isSingular());
+        assertEquals(0.0, lu.determinant(), 0.0);
+    }
+}
@@ -0,0 +1,93 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the blocked Householder QR decomposition and the single pass
+ * least squares solver.
+ */
+public class TestFloat64QR extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testFactors() {
+        final int m = 230, n = 100; // Several panels.
+        double[] a = _helper.values(m * n);
+        Float64QR qr = Float64QR.valueOf(m, n, a);
+        double[] q = qr.getQ();
+        double[] r = qr.getR();
+        double[] product = new double[m * n];
+        Float64Kernel.multiply(m, n, n, q, r, product);
+        for (int i = 0; i < m * n; i++) {
+            assertEquals(a[i], product[i], EPSILON);
+        }
+        double[] identity = new double[n * n]; // Qᵀ·Q
+        Float64Kernel.multiply(n, m, n, 1.0, q, 0, 1, n, q, 0, n, 1, 0.0,
+                identity, 0, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, identity[i * n + j], EPSILON);
+            }
+        }
+    }
+
+    public void testLeastSquares() {
+        final int m = 20000, n = 10, p = 2; // Chunked.
+        double[] a = _helper.values(m * n);
+        double[] b = _helper.values(m * p);
+        double[] x = Float64QR.leastSquares(m, n, a, p, b);
+        double[] expected = Float64QR.valueOf(m, n, a).solve(p, b);
+        for (int i = 0; i < n * p; i++) {
+            assertEquals(expected[i], x[i], EPSILON);
+        }
+        // The residual is orthogonal to the columns of A.
+        double[] residual = new double[m * p];
+        Float64Kernel.multiply(m, n, p, a, x, residual);
+        for (int i = 0; i < m * p; i++) {
+            residual[i] -= b[i];
+        }
+        double[] normal = new double[n * p];
+        Float64Kernel.multiply(n, m, p, 1.0, a, 0, 1, n, residual, 0, p, 1,
+                0.0, normal, 0, p);
+        for (int i = 0; i < n * p; i++) {
+            assertEquals(0.0, normal[i], EPSILON);
+        }
+    }
+
+    public void testSolveTransposed() {
+        final int m = 80, n = 45;
+        double[] a = _helper.values(m * n);
+        double[] b = _helper.values(n);
+        double[] x = Float64QR.valueOf(m, n, a).solveTransposed(1, b);
+        double[] y = new double[n];
+        Float64Kernel.multiply(n, m, 1, 1.0, a, 0, 1, n, x, 0, 1, 1, 0.0, y,
+                0, 1);
+        for (int i = 0; i < n; i++) {
+            assertEquals(b[i], y[i], EPSILON);
+        }
+        // Minimum norm: x = A·z for z the least squares solution of A·z = x
+        double[] z = Float64QR.valueOf(m, n, a).solve(1, x);
+        double[] az = new double[m];
+        Float64Kernel.multiply(m, n, 1, a, z, az);
+        for (int i = 0; i < m; i++) {
+            assertEquals(x[i], az[i], EPSILON);
+        }
+    }
+
+    public void testPseudoInverse() {
+        final int m = 70, n = 40;
+        double[] a = _helper.values(m * n);
+        double[] pinv = Float64QR.valueOf(m, n, a).pseudoInverse();
+        double[] identity = new double[n * n];
+        Float64Kernel.multiply(n, m, n, pinv, a, identity);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, identity[i * n + j], EPSILON);
+            }
+        }
+    }
+}
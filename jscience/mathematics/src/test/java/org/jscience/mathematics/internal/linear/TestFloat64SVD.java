@@ -0,0 +1,84 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the singular value decomposition (tall and wide matrices).
+ */
+public class TestFloat64SVD extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testTall() {
+        check(120, 70);
+    }
+
+    public void testWide() {
+        check(40, 90);
+    }
+
+    public void testValuesOnly() {
+        final int m = 60, n = 50;
+        double[] a = _helper.values(m * n);
+        double[] expected = Float64SVD.valueOf(m, n, a, true)
+                .getSingularValues();
+        Float64SVD svd = Float64SVD.wrap(m, n, a, false);
+        assertFalse(svd.hasSingularVectors());
+        double[] actual = svd.getSingularValues();
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected[i], actual[i], EPSILON);
+        }
+    }
+
+    public void testRank() {
+        final int m = 30, n = 20, r = 7;
+        double[] a = new double[m * n]; // Product of m x r and r x n.
+        Float64Kernel.multiply(m, r, n, _helper.values(m * r), _helper.values(r * n), a);
+        assertEquals(r, Float64SVD.valueOf(m, n, a, false).rank());
+        double[] values = Float64SVD.valueOf(2, 2, new double[] { 3, 0, 0,
+                -4 }, false).getSingularValues();
+        assertEquals(4.0, values[0], EPSILON);
+        assertEquals(3.0, values[1], EPSILON);
+    }
+
+    private void check(int m, int n) {
+        final int k = Math.min(m, n);
+        double[] a = _helper.values(m * n);
+        Float64SVD svd = Float64SVD.valueOf(m, n, a, true);
+        double[] s = svd.getSingularValues();
+        double[] ut = svd.getLeftVectorRows();
+        double[] vt = svd.getRightVectorRows();
+        assertEquals(k, s.length);
+        double[] us = new double[m * k]; // U·Σ
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < k; j++) {
+                us[i * k + j] = ut[j * m + i] * s[j];
+                if (i == 0 && j > 0) {
+                    assertTrue(s[j - 1] >= s[j]);
+                }
+            }
+        }
+        double[] product = new double[m * n];
+        Float64Kernel.multiply(m, k, n, us, vt, product);
+        for (int i = 0; i < m * n; i++) {
+            assertEquals(a[i], product[i], EPSILON);
+        }
+        checkOrthonormalRows(ut, k, m);
+        checkOrthonormalRows(vt, k, n);
+    }
+
+    private void checkOrthonormalRows(double[] x, int k, int length) {
+        double[] identity = new double[k * k];
+        Float64Kernel.multiply(k, length, k, 1.0, x, 0, length, 1, x, 0, 1,
+                length, 0.0, identity, 0, k);
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, identity[i * k + j], EPSILON);
+            }
+        }
+    }
+}
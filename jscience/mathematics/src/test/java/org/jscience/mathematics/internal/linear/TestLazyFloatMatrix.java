@@ -0,0 +1,91 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the lazy evaluation of matrix expressions against the eager
+ * operations.
+ */
+public class TestLazyFloatMatrix extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testLinearCombination() {
+        FloatMatrix A = _helper.matrix(70, 50);
+        FloatMatrix B = _helper.matrix(70, 50);
+        FloatMatrix C = _helper.matrix(50, 70);
+        FloatMatrix expected = A.times(Float64.valueOf(2.5)).plus(B).minus(
+                C.transpose()).opposite();
+        FloatMatrix lazy = Matrices.lazy(A).times(Float64.valueOf(2.5))
+                .plus(B).minus(C.transpose()).opposite();
+        assertTrue(lazy instanceof LazyFloatMatrix);
+        assertEquals(expected, lazy, EPSILON);
+        assertEquals(expected.transpose(), lazy.transpose(), EPSILON);
+    }
+
+    public void testProductChain() {
+        FloatMatrix A = _helper.matrix(60, 5);
+        FloatMatrix B = _helper.matrix(5, 80);
+        FloatMatrix C = _helper.matrix(80, 4);
+        FloatMatrix D = _helper.matrix(60, 4);
+        FloatMatrix expected = A.times(B).times(C).times(
+                Float64.valueOf(3.0)).plus(D);
+        FloatMatrix lazy = Matrices.lazy(A).times(B).times(C).times(
+                Float64.valueOf(3.0)).plus(D);
+        assertEquals(expected, lazy, EPSILON);
+        assertEquals(expected.transpose(), lazy.transpose(), EPSILON);
+        // Nested combinations within products.
+        FloatMatrix E = _helper.matrix(60, 5);
+        expected = A.plus(E).times(B).minus(A.times(B));
+        lazy = Matrices.lazy(A).plus(E).times(B).minus(
+                Matrices.lazy(A).times(B));
+        assertEquals(expected, lazy, EPSILON);
+    }
+
+    public void testTimesVector() {
+        FloatMatrix A = _helper.matrix(40, 30);
+        FloatMatrix B = _helper.matrix(30, 50);
+        FloatMatrix C = _helper.matrix(40, 50);
+        FloatVector v = _helper.vector(50);
+        FloatMatrix lazy = Matrices.lazy(A).times(B).minus(C).times(
+                Float64.valueOf(0.5));
+        FloatVector expected = A.times(B).minus(C).times(
+                Float64.valueOf(0.5)).times(v);
+        FloatVector y = lazy.times(v);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(expected.getValue(i), y.getValue(i), EPSILON);
+        }
+    }
+
+    public void testEagerInteroperability() {
+        FloatMatrix A = _helper.matrix(20, 20);
+        FloatMatrix B = _helper.matrix(20, 20);
+        FloatMatrix lazy = Matrices.lazy(A).plus(B);
+        assertEquals(A.plus(B).times(A), A.plus(B).times(
+                Matrices.lazy(A)), EPSILON);
+        assertEquals(A.times(A.plus(B)), A.times(lazy), EPSILON);
+        assertEquals(A.plus(B).determinant().doubleValue(), lazy
+                .determinant().doubleValue(), EPSILON);
+    }
+
+    private static void assertEquals(FloatMatrix expected, FloatMatrix actual,
+            double epsilon) {
+        assertEquals(expected.getRowDimension(), actual.getRowDimension());
+        assertEquals(expected.getColumnDimension(), actual
+                .getColumnDimension());
+        for (int i = 0; i < expected.getRowDimension(); i++) {
+            for (int j = 0; j < expected.getColumnDimension(); j++) {
+                assertEquals(expected.getValue(i, j), actual.getValue(i, j),
+                        epsilon);
+            }
+        }
+    }
+}
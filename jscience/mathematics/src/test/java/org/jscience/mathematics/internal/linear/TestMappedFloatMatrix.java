@@ -0,0 +1,128 @@
+package org.jscience.mathematics.internal.linear;
+
+import java.io.File;
+import java.io.IOException;
+
+import javolution.lang.Configurable;
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.MappedFloatMatrix;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the tiled operations of memory-mapped matrices against heap
+ * matrices (small tiles, dimensions not multiple of the tile size).
+ */
+public class TestMappedFloatMatrix extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    private int _tile;
+
+    private File _file;
+
+    @Override
+    protected void setUp() throws Exception {
+        _tile = MappedFloatMatrixImpl.TILE_SIZE.get();
+        Configurable.configure(MappedFloatMatrixImpl.TILE_SIZE, 8);
+        _file = File.createTempFile("test", ".tiles");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Configurable.configure(MappedFloatMatrixImpl.TILE_SIZE, _tile);
+        _file.delete();
+    }
+
+    public void testCreateAndReopen() throws IOException {
+        FloatMatrix A = _helper.matrix(19, 13);
+        MappedFloatMatrix M = Matrices.mappedFloatMatrix(_file, 19, 13);
+        assertEquals(0.0, M.getValue(18, 12));
+        M.set(A).setValue(18, 12, 5.0);
+        M.close();
+        M = Matrices.mappedFloatMatrix(_file);
+        assertEquals(19, M.getRowDimension());
+        assertEquals(13, M.getColumnDimension());
+        assertEquals(8, M.getTileSize());
+        assertEquals(5.0, M.getValue(18, 12));
+        assertEquals(A.getValue(7, 9), M.getValue(7, 9));
+        assertEquals(A.getRow(3), M.getRow(3));
+        M.close();
+        assertTrue(_file.exists()); // Not temporary.
+    }
+
+    public void testInvalidFile() throws IOException {
+        try {
+            Matrices.mappedFloatMatrix(_file); // Empty file.
+            fail("IOException expected");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    public void testOperations() throws IOException {
+        FloatMatrix A = _helper.matrix(37, 29);
+        FloatMatrix B = _helper.matrix(29, 21);
+        FloatMatrix C = _helper.matrix(37, 29);
+        MappedFloatMatrix M = Matrices.mappedFloatMatrix(_file, 37, 29).set(A);
+        assertClose(A.times(B), M.times(B));
+        assertClose(A.plus(C), M.plus(C));
+        assertClose(A.minus(C), M.minus(C));
+        assertClose(A.times(Float64.valueOf(3)), M.times(Float64.valueOf(3)));
+        assertClose(A.transpose(), M.transpose());
+        assertClose(A.transpose().times(A), M.transpose().times(M));
+        FloatVector v = _helper.matrix(1, 29).getRow(0);
+        FloatVector Av = A.times(v);
+        FloatVector Mv = M.times(v);
+        for (int i = 0; i < 37; i++) {
+            assertEquals(Av.getValue(i), Mv.getValue(i), EPSILON);
+        }
+        File product = File.createTempFile("test", ".tiles");
+        try {
+            M.times(B, product).close();
+            MappedFloatMatrix P = Matrices.mappedFloatMatrix(product);
+            assertClose(A.times(B), P);
+            P.close();
+        } finally {
+            product.delete();
+        }
+        M.close();
+    }
+
+    public void testLU() throws IOException {
+        final int n = 45;
+        FloatMatrix A = _helper.matrix(n, n);
+        MappedFloatMatrix M = Matrices.mappedFloatMatrix(_file, n, n).set(A);
+        assertEquals(A.determinant().doubleValue(), M.determinant()
+                .doubleValue(), EPSILON * Math.abs(A.determinant()
+                .doubleValue()));
+        FloatMatrix Y = _helper.matrix(n, 3);
+        assertClose(A.solve(Y), M.solve(Y));
+        assertClose(A.inverse(), M.inverse());
+        M.setValue(0, 0, M.getValue(0, 0) + 1.0); // Decomposition discarded.
+        FloatMatrix A1 = Matrices.floatMatrix(M.getSubMatrix(0, n, 0, n));
+        assertClose(A1.solve(Y), M.solve(Y));
+        M.close();
+    }
+
+
+    private static void assertClose(Matrix<Float64> expected,
+            Matrix<Float64> actual) {
+        assertEquals(expected.getRowDimension(), actual.getRowDimension());
+        assertEquals(expected.getColumnDimension(), actual
+                .getColumnDimension());
+        for (int i = 0; i < expected.getRowDimension(); i++) {
+            for (int j = 0; j < expected.getColumnDimension(); j++) {
+                assertEquals(expected.get(i, j).doubleValue(), actual
+                        .get(i, j).doubleValue(), EPSILON);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.jscience.mathematics.internal.linear;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.MutableFloatMatrix;
+import org.jscience.mathematics.linear.MutableFloatVector;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the in place operations and the copy-on-write freezing of mutable
+ * vectors and matrices.
+ */
+public class TestMutableFloatMatrix extends TestCase {
+
+    private static final double EPSILON = 1e-10;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testVectorOperations() {
+        FloatVector a = _helper.vector(50);
+        FloatVector b = _helper.vector(50);
+        MutableFloatVector x = Vectors.mutableFloatVector(a);
+        x.scale(2.0).axpy(-3.0, b);
+        MutableFloatVector y = Vectors.mutableFloatVector(50).fill(1.0);
+        x.addTo(y);
+        for (int i = 0; i < 50; i++) {
+            double expected = 2 * a.getValue(i) - 3 * b.getValue(i);
+            assertEquals(expected, x.getValue(i), EPSILON);
+            assertEquals(expected + 1, y.getValue(i), EPSILON);
+        }
+        assertEquals(Math.sqrt(x.dot(x)), x.normValue(), EPSILON);
+        // Strided source (column view of a matrix).
+        FloatMatrix M = Matrices.floatMatrix(new double[][] { { 1, 2 },
+                { 3, 4 } });
+        x = Vectors.mutableFloatVector(2).set(M.getColumn(1));
+        assertEquals(2.0, x.getValue(0));
+        assertEquals(4.0, x.getValue(1));
+    }
+
+    public void testFreeze() {
+        MutableFloatVector x = Vectors.mutableFloatVector(3).fill(1.0);
+        FloatVector frozen = x.freeze();
+        x.setValue(0, 5.0).scale(2.0);
+        assertEquals(1.0, frozen.getValue(0)); // Unchanged (copy-on-write).
+        assertEquals(10.0, x.getValue(0));
+        MutableFloatMatrix X = Matrices.mutableFloatMatrix(2, 2).fill(1.0);
+        FloatMatrix F = X.freeze();
+        X.setValue(1, 1, 3.0);
+        assertEquals(1.0, F.getValue(1, 1));
+        assertEquals(3.0, X.freeze().getValue(1, 1));
+    }
+
+    public void testSetProduct() {
+        final int n = 40;
+        FloatMatrix A = _helper.matrix(n, n);
+        SparseMatrix<Float64> S = MatrixHelper.tridiagonal(n, 2);
+        MutableFloatVector x = Vectors.mutableFloatVector(n).set(_helper.vector(n));
+        MutableFloatVector y = Vectors.mutableFloatVector(n);
+        FloatVector expected = A.times(x.freeze());
+        y.setProduct(A, x);
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected.getValue(i), y.getValue(i), EPSILON);
+        }
+        y.setProduct(A.transpose(), x); // Strided.
+        expected = A.transpose().times(x.freeze());
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected.getValue(i), y.getValue(i), EPSILON);
+        }
+        y.setProduct(S, x);
+        for (int i = 0; i < n; i++) {
+            assertEquals(S.times(x.freeze()).get(i).doubleValue(), y
+                    .getValue(i), EPSILON);
+        }
+        try {
+            y.setProduct(A, y);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // Ok.
+        }
+    }
+
+    public void testMatrixOperations() {
+        FloatMatrix A = _helper.matrix(30, 20);
+        FloatMatrix B = _helper.matrix(20, 25);
+        FloatMatrix C = _helper.matrix(30, 25);
+        MutableFloatMatrix X = Matrices.mutableFloatMatrix(A);
+        MutableFloatMatrix Y = Matrices.mutableFloatMatrix(B);
+        MutableFloatMatrix Z = Matrices.mutableFloatMatrix(30, 25);
+        X.multiplyInto(Y, Z).scale(2.0).axpy(-1.0, C);
+        FloatMatrix expected = A.times(B).times(Float64.valueOf(2.0)).minus(C);
+        for (int i = 0; i < 30; i++) {
+            for (int j = 0; j < 25; j++) {
+                assertEquals(expected.getValue(i, j), Z.getValue(i, j),
+                        EPSILON);
+            }
+        }
+        MutableFloatVector v = Vectors.mutableFloatVector(_helper.vector(20));
+        MutableFloatVector w = X.multiplyInto(v, Vectors
+                .mutableFloatVector(30));
+        FloatVector e = A.times(v.freeze());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(e.getValue(i), w.getValue(i), EPSILON);
+        }
+        MutableFloatMatrix T = Matrices.mutableFloatMatrix(20, 30).set(
+                A.transpose());
+        assertEquals(A.getValue(3, 7), T.getValue(7, 3));
+        Z.set(C).addTo(Matrices.mutableFloatMatrix(30, 25));
+    }
+}
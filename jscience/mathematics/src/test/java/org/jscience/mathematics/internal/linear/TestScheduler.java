@@ -0,0 +1,249 @@
+package org.jscience.mathematics.internal.linear;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javolution.lang.Configurable;
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.DenseMatrix;
+import org.jscience.mathematics.linear.DenseVector;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.number.Rational;
+
+/**
+ * Checks the parallel execution of tasks (forced on any number of processors).
+ */
+public class TestScheduler extends TestCase {
+
+    private int _concurrency;
+
+    private int _threshold;
+
+    @Override
+    protected void setUp() throws Exception {
+        _concurrency = Scheduler.CONCURRENCY.get();
+        _threshold = Scheduler.SEQUENTIAL_THRESHOLD.get();
+        Configurable.configure(Scheduler.CONCURRENCY, 4);
+        Configurable.configure(Scheduler.SEQUENTIAL_THRESHOLD, 1);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Configurable.configure(Scheduler.CONCURRENCY, _concurrency);
+        Configurable.configure(Scheduler.SEQUENTIAL_THRESHOLD, _threshold);
+    }
+
+    public void testEachIndexOnce() {
+        final int size = 1001;
+        final AtomicIntegerArray counts = new AtomicIntegerArray(size);
+        Scheduler.execute(size, size, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    counts.incrementAndGet(i);
+                }
+            }
+        });
+        for (int i = 0; i < size; i++) {
+            assertEquals(1, counts.get(i));
+        }
+    }
+
+    public void testWeightedEachIndexOnce() {
+        final int size = 500;
+        int[] weights = new int[size + 1];
+        for (int i = 0; i < size; i++) { // Skewed: heavy rows at the end.
+            weights[i + 1] = weights[i] + ((i < 450) ? 1 : 100);
+        }
+        final AtomicIntegerArray counts = new AtomicIntegerArray(size);
+        Scheduler.execute(size, weights, weights[size], new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    counts.incrementAndGet(i);
+                }
+            }
+        });
+        for (int i = 0; i < size; i++) {
+            assertEquals(1, counts.get(i));
+        }
+    }
+
+    public void testNestedIsSequential() {
+        final AtomicIntegerArray nested = new AtomicIntegerArray(1);
+        Scheduler.execute(16, 16, new Scheduler.Task() {
+
+            @Override
+            public void run(int start, int end) {
+                if (Scheduler.isParallel(Long.MAX_VALUE)) {
+                    nested.incrementAndGet(0);
+                }
+            }
+        });
+        assertEquals(0, nested.get(0));
+        assertTrue(Scheduler.isParallel(Long.MAX_VALUE));
+    }
+
+    public void testExceptionPropagated() {
+        try {
+            Scheduler.execute(100, 100, new Scheduler.Task() {
+
+                @Override
+                public void run(int start, int end) {
+                    if ((start <= 50) && (50 < end))
+                        throw new IllegalStateException("50");
+                }
+            });
+            fail("Exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals("50", e.getMessage());
+        }
+    }
+
+    public void testParallelMultiply() {
+        final int m = 97, n = 130, p = 211;
+        Random random = new Random(1);
+        double[] a = new double[m * n];
+        double[] b = new double[n * p];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextDouble();
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] = random.nextDouble();
+        }
+        double[] c = new double[m * p];
+        Float64Kernel.multiply(m, n, p, a, b, c);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[i * n + k] * b[k * p + j];
+                }
+                assertEquals(sum, c[i * p + j], 1e-10);
+            }
+        }
+    }
+
+    public void testParallelSparseMultiply() {
+        final int m = 300, n = 200;
+        Random random = new Random(2);
+        int[] pointers = new int[m + 1];
+        int[] indices = new int[m * n];
+        double[] values = new double[m * n];
+        double[] dense = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            int k = pointers[i];
+            int density = (i % 50 == 0) ? 1 : 20; // Some dense rows.
+            for (int j = 0; j < n; j++) {
+                if (random.nextInt(density) == 0) {
+                    indices[k] = j;
+                    values[k++] = dense[i * n + j] = random.nextDouble();
+                }
+            }
+            pointers[i + 1] = k;
+        }
+        double[] x = new double[2 * n];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextDouble();
+        }
+        double[] y = new double[m + 1];
+        SparseKernel.multiply(m, pointers, indices, values, x, 1, 2, y, 1);
+        for (int i = 0; i < m; i++) {
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += dense[i * n + j] * x[1 + 2 * j];
+            }
+            assertEquals(sum, y[i + 1], 1e-10);
+        }
+    }
+
+    public void testParallelSparseProduct() {
+        final int m = 150, n = 120, p = 170;
+        Random random = new Random(3);
+        double[] a = new double[m * n];
+        double[] b = new double[n * p];
+        int[] aPointers = new int[m + 1];
+        int[] aIndices = new int[m * n];
+        double[] aValues = new double[m * n];
+        int[] bPointers = new int[n + 1];
+        int[] bIndices = new int[n * p];
+        double[] bValues = new double[n * p];
+        sparse(random, m, n, a, aPointers, aIndices, aValues);
+        sparse(random, n, p, b, bPointers, bIndices, bValues);
+        int[] cPointers = new int[m + 1];
+        int nnz = SparseKernel.multiplySymbolic(m, p, aPointers, aIndices,
+                bPointers, bIndices, cPointers);
+        int[] cIndices = new int[nnz];
+        double[] cValues = new double[nnz];
+        SparseKernel.multiplyNumeric(m, p, aPointers, aIndices, aValues,
+                bPointers, bIndices, bValues, cPointers, cIndices, cValues);
+        nnz = SparseKernel.compact(m, cPointers, cIndices, cValues);
+        SparseKernel.check(m, p, cPointers, cIndices);
+        double[] c = new double[m * p];
+        for (int i = 0; i < m; i++) {
+            for (int k = cPointers[i]; k < cPointers[i + 1]; k++) {
+                c[i * p + cIndices[k]] = cValues[k];
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[i * n + k] * b[k * p + j];
+                }
+                assertEquals(sum, c[i * p + j], 1e-10);
+            }
+        }
+    }
+
+    public void testParallelWinograd() {
+        int winograd = DenseMatrixImpl.WINOGRAD_THRESHOLD.get();
+        Random random = new Random(4);
+        DenseMatrix<Rational> A = rational(random, 37, 23);
+        DenseMatrix<Rational> B = rational(random, 23, 42);
+        DenseMatrix<Rational> S = rational(random, 20, 20);
+        Matrix<Rational> AB, S5;
+        try {
+            Configurable.configure(DenseMatrixImpl.WINOGRAD_THRESHOLD, 4);
+            AB = A.times(B); // Odd and even dimensions peeled off.
+            S5 = S.pow(5);
+        } finally {
+            Configurable.configure(DenseMatrixImpl.WINOGRAD_THRESHOLD,
+                    winograd);
+        }
+        assertEquals(A.times(B), AB);
+        assertEquals(S.times(S).times(S).times(S).times(S), S5);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DenseMatrix<Rational> rational(Random random, int m, int n) {
+        DenseVector<Rational>[] rows = new DenseVector[m];
+        for (int i = 0; i < m; i++) {
+            Rational[] row = new Rational[n];
+            for (int j = 0; j < n; j++) {
+                row[j] = Rational.valueOf(random.nextInt(21) - 10,
+                        random.nextInt(3) + 1);
+            }
+            rows[i] = Vectors.denseVector(row);
+        }
+        return DenseMatrixImpl.valueOf(rows);
+    }
+
+    private static void sparse(Random random, int m, int n, double[] dense,
+            int[] pointers, int[] indices, double[] values) {
+        for (int i = 0; i < m; i++) {
+            int k = pointers[i];
+            for (int j = 0; j < n; j++) {
+                if (random.nextInt(10) == 0) {
+                    indices[k] = j;
+                    values[k++] = dense[i * n + j] = random.nextDouble();
+                }
+            }
+            pointers[i + 1] = k;
+        }
+    }
+}
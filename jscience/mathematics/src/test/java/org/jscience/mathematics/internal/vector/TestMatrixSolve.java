@@ -0,0 +1,146 @@
+package org.jscience.mathematics.internal.vector;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.Rational;
+
+/**
+ * Checks the elimination based determinant, inverse and solve of matrices.
+ */
+public class TestMatrixSolve extends TestCase {
+
+    private static final double EPSILON = 1e-9;
+
+    public void testRationalDeterminant() {
+        DenseMatrix<Rational> M = DenseMatrix.valueOf(new Rational[][] {
+                { Rational.valueOf(1, 2), Rational.valueOf(1, 3), Rational.valueOf(1, 4) },
+                { Rational.valueOf(1, 3), Rational.valueOf(1, 4), Rational.valueOf(1, 5) },
+                { Rational.valueOf(1, 4), Rational.valueOf(1, 5), Rational.valueOf(1, 6) } });
+        // Hilbert-like matrix H(i+1, j+1), exact determinant is 1/43200.
+        assertEquals(Rational.valueOf(1, 43200), M.determinant());
+    }
+
+    public void testRationalSingular() {
+        DenseMatrix<Rational> M = DenseMatrix.valueOf(new Rational[][] {
+                { Rational.valueOf(0, 1), Rational.valueOf(2, 3) },
+                { Rational.valueOf(0, 1), Rational.valueOf(-5, 7) } });
+        assertTrue(M.determinant().isZero());
+    }
+
+    public void testRationalSolve() {
+        final int n = 12;
+        Rational[][] a = new Rational[n][n];
+        Rational[][] x = new Rational[n][1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = Rational.valueOf(1, i + j + 1); // Hilbert.
+            }
+            x[i][0] = Rational.valueOf(i - 3, 7);
+        }
+        DenseMatrix<Rational> A = DenseMatrix.valueOf(a);
+        DenseMatrix<Rational> X = DenseMatrix.valueOf(x);
+        Matrix<Rational> Y = A.times(X);
+        assertEquals(X, A.solve(Y));
+        assertEquals(X, A.inverse().times(Y));
+    }
+
+    public void testRationalCholesky() {
+        final int n = 8;
+        Rational[][] a = new Rational[n][n];
+        Rational[][] x = new Rational[n][1];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = Rational.valueOf(1, i + j + 1); // Hilbert.
+            }
+            x[i][0] = Rational.valueOf(2 * i - 5, 3);
+        }
+        DenseMatrix<Rational> A = DenseMatrix.valueOf(a);
+        DenseMatrix<Rational> X = DenseMatrix.valueOf(x);
+        CholeskyDecomposition<Rational> ldl = CholeskyDecomposition.valueOf(A);
+        assertEquals(X, ldl.solve(A.times(X)));
+        assertEquals(A.determinant(), ldl.determinant());
+        DenseMatrix<Rational> L = ldl.getLower(Rational.ZERO, Rational.ONE);
+        DenseVector<Rational> D = ldl.getDiagonal(Rational.ONE);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Rational sum = Rational.ZERO;
+                for (int k = 0; k < n; k++) {
+                    sum = sum.plus(L.get(i, k).times(D.get(k)).times(L.get(j, k)));
+                }
+                assertEquals(a[i][j], sum);
+            }
+        }
+        CholeskyDecomposition<Rational> empty = CholeskyDecomposition
+                .valueOf(DiagonalMatrix.valueOf(0, Rational.ONE));
+        try {
+            empty.determinant();
+            fail("Determinant of an empty matrix");
+        } catch (DimensionException e) {
+            // Expected.
+        }
+        try {
+            DiagonalMatrix.valueOf(0, Rational.ONE).determinant();
+            fail("Determinant of an empty diagonal matrix");
+        } catch (DimensionException e) {
+            // Expected.
+        }
+    }
+
+    public void testFloat64Cholesky() {
+        Float64Matrix A = Float64Matrix.valueOf(new double[][] {
+                { 4, 2, -2 }, { 2, 10, 2 }, { -2, 2, 5 } });
+        CholeskyDecomposition<Float64> cholesky = CholeskyDecomposition.valueOf(A);
+        assertEquals(A.determinant().doubleValue(), cholesky.determinant().doubleValue(), EPSILON);
+        assertEquals(Math.log(A.determinant().doubleValue()), cholesky.logDeterminant(), EPSILON);
+        Matrix<Float64> I = A.times(cholesky.solve(Float64Matrix.valueOf(new double[][] {
+                { 1, 0, 0 }, { 0, 1, 0 }, { 0, 0, 1 } })));
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(i == j ? 1.0 : 0.0, I.get(i, j).doubleValue(), EPSILON);
+            }
+        }
+    }
+
+    public void testFloat64Solve() {
+        final int n = 200;
+        double[][] a = new double[n][n];
+        java.util.Random random = new java.util.Random(0);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        Float64Matrix A = Float64Matrix.valueOf(a);
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = i;
+        }
+        Float64Vector y = Float64Vector.valueOf(b);
+        Vector<Float64> solution = A.solve(y);
+        Vector<Float64> residual = A.times(solution).minus(y);
+        for (int i = 0; i < n; i++) {
+            assertEquals(0.0, residual.get(i).doubleValue(), EPSILON);
+        }
+        assertEquals(n, solution.getDimension());
+    }
+
+    public void testFloat64Inverse() {
+        Float64Matrix A = Float64Matrix.valueOf(new double[][] {
+                { 0, 2, 1 }, { 1, 1, 0 }, { 3, 0, 2 } });
+        assertEquals(-7.0, A.determinant().doubleValue(), EPSILON);
+        Matrix<Float64> I = A.times(A.inverse());
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(i == j ? 1.0 : 0.0, I.get(i, j).doubleValue(), EPSILON);
+            }
+        }
+    }
+
+    public void testDiagonal() {
+        DiagonalMatrix<Rational> D = DiagonalMatrix.valueOf(
+                Rational.valueOf(2, 3), Rational.valueOf(-5, 1), Rational.valueOf(1, 7));
+        assertEquals(Rational.valueOf(-10, 21), D.determinant());
+        assertEquals(Rational.valueOf(-1, 5), D.inverse().get(1, 1));
+    }
+}
@@ -0,0 +1,50 @@
+package org.jscience.mathematics.internal.vector;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.Rational;
+
+/**
+ * Checks the compressed sparse row implementation of sparse matrices.
+ */
+public class TestSparseMatrix extends TestCase {
+
+    private static final Rational ZERO = Rational.ZERO;
+
+    private final DenseMatrix<Rational> _dense = DenseMatrix.valueOf(new Rational[][] {
+            { Rational.valueOf(1, 2), ZERO, Rational.valueOf(-3, 1), ZERO },
+            { ZERO, ZERO, Rational.valueOf(2, 7), ZERO },
+            { Rational.valueOf(5, 3), Rational.valueOf(1, 1), ZERO, Rational.valueOf(1, 9) } });
+
+    public void testStructure() {
+        SparseMatrix<Rational> S = SparseMatrix.valueOf(_dense);
+        assertEquals(3, S.getNumberOfRows());
+        assertEquals(4, S.getNumberOfColumns());
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(_dense.get(i, j), S.get(i, j));
+                assertEquals(_dense.get(i, j), S.getColumn(j).get(i));
+                assertEquals(_dense.get(i, j), S.transpose().get(j, i));
+            }
+        }
+        assertEquals(2, S.getColumn(0).getElements().size());
+        assertEquals(0, S.getRow(1).get(0).compareTo(ZERO));
+    }
+
+    public void testOperations() {
+        SparseMatrix<Rational> S = SparseMatrix.valueOf(_dense);
+        SparseMatrix<Rational> T = SparseMatrix.valueOf(_dense.transpose());
+        Matrix<Rational> product = S.times(T);
+        assertTrue(product instanceof SparseMatrix);
+        assertEquals(_dense.times(_dense.transpose()), product);
+        assertEquals(_dense.plus(_dense), S.plus(S));
+        assertEquals(_dense.times(Rational.valueOf(2, 3)), S.times(Rational.valueOf(2, 3)));
+        Vector<Rational> x = _dense.getRow(2);
+        Rational[] y = new Rational[3];
+        S.times(x, y);
+        assertEquals(_dense.times(x), DenseVector.valueOf(y));
+        assertEquals(_dense.times(x), S.times(x));
+        SparseMatrix<Rational> Z = (SparseMatrix<Rational>) S.plus(S.opposite());
+        assertTrue(Z.getRow(2).getElements().isEmpty());
+    }
+}
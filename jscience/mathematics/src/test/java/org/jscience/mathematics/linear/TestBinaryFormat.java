@@ -0,0 +1,159 @@
+package org.jscience.mathematics.linear;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.Complex;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.Rational;
+import org.jscience.mathematics.number.util.MatrixHelper;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * Checks the binary format round trips (buffers, channels and files).
+ */
+public class TestBinaryFormat extends TestCase {
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testDense() throws IOException {
+        FloatMatrix A = _helper.matrix(13, 7);
+        assertRoundTrip(A);
+        assertRoundTrip(A.transpose()); // Strided view.
+        assertRoundTrip(A.getSubMatrix(2, 9, 1, 5));
+        ComplexMatrix C = Matrices.complexMatrix(Vectors.complexVector(
+                new double[] { 1, 2, 3 }, new double[] { -1, 0, 0.5 }),
+                Vectors.complexVector(new double[] { 4, 5, 6 }, new double[] {
+                        7, 8, 9 }));
+        assertRoundTrip(C);
+        assertRoundTrip(C.transpose());
+        assertRoundTrip(Matrices.floatMatrix(new double[0][0]));
+    }
+
+    public void testSparse() throws IOException {
+        SparseMatrix<Float64> S = Matrices.sparseMatrix(
+                _helper.sparse(30, 20, 6), Float64.ZERO);
+        Matrix<Float64> csr = assertRoundTrip(S);
+        assertTrue(csr instanceof SparseMatrix);
+        assertRoundTrip(Matrices.columnCompressed(S));
+        SparseMatrix<Complex> Z = Matrices.sparseMatrix(Matrices
+                .complexMatrix(Vectors.complexVector(new double[] { 0, 2, 0 },
+                        new double[] { 0, -1, 0 })), Complex.ZERO);
+        assertRoundTrip(Z);
+    }
+
+    public void testVectors() throws IOException {
+        FloatVector v = _helper.matrix(1, 25).getRow(0);
+        assertEquals(v, readVector(write(v)));
+        FloatVector column = _helper.matrix(9, 4).getColumn(2); // Strided.
+        assertEquals(column, readVector(write(column)));
+        ComplexVector z = Vectors.complexVector(new double[] { 1, 2 },
+                new double[] { 3, 4 });
+        assertEquals(z, readVector(write(z)));
+        SparseVector<Float64> s = Matrices.sparseMatrix(
+                _helper.sparse(3, 40, 6), Float64.ZERO).getRow(1);
+        Vector<Float64> t = readVector(write(s));
+        assertTrue(t instanceof SparseVector);
+        assertEquals(s, t);
+    }
+
+    public void testChannel() throws IOException {
+        // Larger than the channel buffer.
+        FloatMatrix A = _helper.matrix(200, 150);
+        SparseMatrix<Float64> S = Matrices.sparseMatrix(
+                _helper.sparse(50, 60, 6), Float64.ZERO);
+        FloatVector v = _helper.matrix(1, 10).getRow(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel out = Channels.newChannel(bytes);
+        BinaryFormat.write(A, out);
+        BinaryFormat.write(S, out);
+        BinaryFormat.write(v, out);
+        assertEquals(BinaryFormat.sizeOf(A) + BinaryFormat.sizeOf(S)
+                + BinaryFormat.sizeOf(v), bytes.size());
+        ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(
+                bytes.toByteArray()));
+        assertEquals(A, BinaryFormat.readMatrix(in));
+        assertEquals(S, BinaryFormat.readMatrix(in));
+        assertEquals(v, BinaryFormat.readVector(in));
+    }
+
+    public void testFile() throws IOException {
+        File file = File.createTempFile("test", ".bin");
+        try {
+            FloatMatrix A = _helper.matrix(40, 30);
+            BinaryFormat.write(A, file);
+            assertEquals(BinaryFormat.sizeOf(A), file.length());
+            assertEquals(A, BinaryFormat.readMatrix(file));
+            FloatVector v = _helper.matrix(1, 30).getRow(0);
+            BinaryFormat.write(v, file);
+            assertEquals(v, BinaryFormat.readVector(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testInvalid() throws IOException {
+        ByteBuffer buffer = write(_helper.matrix(3, 3));
+        buffer.putShort(4, (short) (BinaryFormat.VERSION + 1));
+        try {
+            BinaryFormat.readMatrix(buffer);
+            fail("Newer version accepted");
+        } catch (IOException e) {
+            // Expected.
+        }
+        try {
+            BinaryFormat.readVector(write(_helper.matrix(3, 3)));
+            fail("Matrix read as vector");
+        } catch (IOException e) {
+            // Expected.
+        }
+        try {
+            Matrix<Rational> R = Matrices.denseMatrix(Vectors
+                    .denseVector(Rational.ONE));
+            BinaryFormat.sizeOf(R);
+            fail("Rational elements accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    private <F extends Field<F>> Matrix<F> assertRoundTrip(Matrix<F> matrix)
+            throws IOException {
+        ByteBuffer buffer = write(matrix);
+        Matrix<F> read = BinaryFormat.readMatrix(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(matrix, read);
+        return read;
+    }
+
+    private static ByteBuffer write(Matrix<?> matrix) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) BinaryFormat
+                .sizeOf(matrix));
+        BinaryFormat.write(matrix, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer write(Vector<?> vector) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) BinaryFormat
+                .sizeOf(vector));
+        BinaryFormat.write(vector, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static <F extends Field<F>> Vector<F> readVector(ByteBuffer buffer)
+            throws IOException {
+        return BinaryFormat.readVector(buffer);
+    }
+}
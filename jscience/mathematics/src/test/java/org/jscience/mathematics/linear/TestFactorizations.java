@@ -0,0 +1,137 @@
+package org.jscience.mathematics.linear;
+
+import javolution.lang.Configurable;
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.solver.SparseCholesky;
+import org.jscience.mathematics.linear.solver.SparseLU;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the reuse of the factorizations of immutable matrices.
+ */
+public class TestFactorizations extends TestCase {
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    private int _capacity;
+
+    @Override
+    protected void setUp() throws Exception {
+        _capacity = Factorizations.CAPACITY.get();
+        Factorizations.clear();
+        Factorizations.resetStatistics();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Configurable.configure(Factorizations.CAPACITY, _capacity);
+        Factorizations.clear();
+    }
+
+    public void testSquare() {
+        FloatMatrix A = _helper.matrix(30, 30);
+        FloatVector b = _helper.vector(30);
+        FloatVector x = A.solve(b);
+        assertStatistics(0, 1);
+        assertTrue(A.times(x).minus(b).normValue() < 1e-10 * b.normValue());
+        assertEquals(x, A.solve(b)); // Same factorization, same result.
+        double determinant = A.determinant().doubleValue();
+        FloatMatrix inverse = A.inverse();
+        assertStatistics(3, 1);
+        assertEquals(1, Factorizations.getCacheSize());
+        FloatMatrix copy = A.transpose().transpose(); // Same values.
+        assertEquals(determinant, copy.determinant().doubleValue(), 0.0);
+        assertEquals(inverse, copy.inverse());
+        assertStatistics(4, 2); // Identity, not value, lookup.
+    }
+
+    public void testRectangular() {
+        FloatMatrix A = _helper.matrix(40, 10);
+        FloatVector b = _helper.vector(40);
+        FloatVector x = A.solve(b);
+        FloatVector r = Vectors.floatVector(A.times(x).minus(b));
+        assertTrue(Vectors.floatVector(A.transpose().times(r)).normValue() < 1e-10);
+        A.solve(_helper.vector(40));
+        A.pseudoInverse();
+        assertStatistics(2, 1);
+        FloatMatrix W = A.transpose(); // New instance (wide).
+        FloatVector c = _helper.vector(10);
+        assertTrue(W.times(W.solve(c)).minus(c).normValue() < 1e-10);
+        W.pseudoInverse();
+        assertStatistics(3, 2);
+    }
+
+    public void testSparse() {
+        SparseMatrix<Float64> A = MatrixHelper.tridiagonal(50, 4);
+        FloatVector b = _helper.vector(50);
+        Vector<Float64> x = A.solve(b);
+        assertEquals(x, A.solve(b));
+        double determinant = A.determinant().doubleValue();
+        assertStatistics(2, 1);
+        SparseCholesky cholesky = SparseCholesky.valueOf(A);
+        assertEquals(determinant, cholesky.determinant().doubleValue(),
+                1e-9 * determinant);
+        SparseCholesky.valueOf(A);
+        assertStatistics(3, 2);
+        SparseLU lu = SparseLU.valueOf(A); // Shares the LU of A.solve(b).
+        assertEquals(x, lu.solve(b));
+        assertStatistics(4, 2);
+        assertEquals(2, Factorizations.getCacheSize());
+    }
+
+    public void testSingular() {
+        SparseMatrix<Float64> S = Matrices.floatSparseMatrix(2, 2, new int[] {
+                0, 2, 4 }, new int[] { 0, 1, 0, 1 }, new double[] { 1, 2, 2,
+                4 });
+        assertEquals(0.0, S.determinant().doubleValue(), 1e-12);
+        assertEquals(0.0, S.determinant().doubleValue(), 1e-12);
+        assertStatistics(1, 1); // Not factorized again.
+        try {
+            SparseLU.valueOf(S);
+            fail("Singular matrix factorized");
+        } catch (ArithmeticException e) {
+            // Expected.
+        }
+        assertStatistics(2, 1);
+        assertEquals(1, Factorizations.getCacheSize());
+    }
+
+    public void testCapacity() {
+        Configurable.configure(Factorizations.CAPACITY, 2);
+        FloatMatrix[] matrices = new FloatMatrix[3];
+        for (int i = 0; i < matrices.length; i++) {
+            matrices[i] = _helper.matrix(8, 8);
+            matrices[i].determinant();
+        }
+        assertEquals(2, Factorizations.getCacheSize());
+        assertEquals(1, Factorizations.getEvictionCount());
+        matrices[2].determinant(); // Most recently used.
+        matrices[0].determinant(); // Evicted (least recently used).
+        assertStatistics(1, 4);
+        Configurable.configure(Factorizations.CAPACITY, 0);
+        matrices[1].determinant();
+        matrices[1].determinant();
+        assertEquals(0, Factorizations.getCacheSize());
+        assertStatistics(1, 6);
+    }
+
+    public void testMutable() {
+        MutableFloatMatrix M = Matrices
+                .mutableFloatMatrix(_helper.matrix(6, 6));
+        FloatMatrix before = M.freeze();
+        FloatVector b = _helper.vector(6);
+        FloatVector x = before.solve(b);
+        M.setValue(0, 0, M.getValue(0, 0) + 1); // Copy on write.
+        FloatMatrix after = M.freeze();
+        assertEquals(x, before.solve(b));
+        assertTrue(after.times(after.solve(b)).minus(b).normValue() < 1e-10);
+        assertStatistics(1, 2);
+    }
+
+    private static void assertStatistics(long hits, long misses) {
+        assertEquals(hits, Factorizations.getHitCount());
+        assertEquals(misses, Factorizations.getMissCount());
+    }
+}
@@ -0,0 +1,406 @@
+package org.jscience.mathematics.linear;
+
+import java.util.Random;
+
+import javolution.context.LocalContext;
+import javolution.util.FastTable;
+import javolution.util.Index;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.Complex;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.LargeInteger;
+import org.jscience.mathematics.number.ModuloInteger;
+import org.jscience.mathematics.number.Rational;
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the matrices/vectors created by the {@link Matrices} and
+ * {@link Vectors} factories.
+ */
+public class TestMatrices extends TestCase {
+
+    private static final double EPSILON = 1e-10;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testFloatViews() {
+        FloatMatrix A = Matrices.floatMatrix(new double[][] { { 1, 2, 3 },
+                { 4, 5, 6 } });
+        assertEquals(6.0, A.getValue(1, 2));
+        assertEquals(Vectors.floatVector(4, 5, 6), A.getRow(1));
+        assertEquals(Vectors.floatVector(2, 5), A.getColumn(1));
+        assertEquals(Vectors.floatVector(1, 5), A.getDiagonal());
+        FloatMatrix T = A.transpose();
+        assertEquals(3, T.getRowDimension());
+        assertEquals(6.0, T.getValue(2, 1));
+        assertEquals(Vectors.floatVector(3, 6), T.getRow(2));
+        assertEquals(A, T.transpose());
+    }
+
+    public void testFloatSubMatrixViews() {
+        FloatMatrix A = _helper.matrix(8, 9);
+        FloatMatrix S = A.getSubMatrix(2, 6, 1, 4); // Range view.
+        assertEquals(4, S.getRowDimension());
+        assertEquals(3, S.getColumnDimension());
+        assertEquals(A.getValue(5, 3), S.getValue(3, 2));
+        assertEquals(A.getValue(3, 1), S.transpose().getValue(0, 1));
+        assertEquals(A.getRow(4).getValue(2), S.getRow(2).getValue(1));
+        FloatMatrix B = _helper.matrix(3, 5);
+        FloatMatrix C = S.times(B);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 5; j++) {
+                double sum = 0;
+                for (int k = 0; k < 3; k++) {
+                    sum += A.getValue(i + 2, k + 1) * B.getValue(k, j);
+                }
+                assertEquals(sum, C.getValue(i, j), EPSILON);
+            }
+        }
+        // Equally spaced (reversed rows, every other column) indices.
+        FastTable<Index> rows = new FastTable<Index>();
+        FastTable<Index> columns = new FastTable<Index>();
+        for (int i = 7; i >= 0; i--) {
+            rows.add(Index.valueOf(i));
+        }
+        for (int j = 0; j < 9; j += 2) {
+            columns.add(Index.valueOf(j));
+        }
+        FloatMatrix R = A.getSubMatrix(rows, columns);
+        assertEquals(A.getValue(7, 8), R.getValue(0, 4));
+        assertEquals(A.getValue(1, 2), R.getValue(6, 1));
+        assertEquals(Vectors.floatVector(A.getValue(7, 0), A.getValue(6, 2),
+                A.getValue(5, 4), A.getValue(4, 6), A.getValue(3, 8)),
+                R.getDiagonal());
+        FloatMatrix square = A.getSubMatrix(0, 8, 0, 8);
+        assertEquals(A.getSubMatrix(0, 4, 0, 4).determinant().doubleValue(),
+                square.getSubMatrix(0, 4, 0, 4).determinant().doubleValue(),
+                EPSILON);
+        try {
+            A.getSubMatrix(0, 9, 0, 2);
+            fail("IndexOutOfBoundsException expected");
+        } catch (IndexOutOfBoundsException e) {
+            // Ok.
+        }
+    }
+
+    public void testDenseSubMatrixViews() {
+        DenseMatrix<Rational> A = Matrices.denseMatrix(
+                Vectors.denseVector(Rational.valueOf(1, 2), Rational.valueOf(1, 3), Rational.valueOf(1, 4)),
+                Vectors.denseVector(Rational.valueOf(1, 3), Rational.valueOf(1, 4), Rational.valueOf(1, 5)),
+                Vectors.denseVector(Rational.valueOf(1, 4), Rational.valueOf(1, 5), Rational.valueOf(1, 6)));
+        DenseMatrix<Rational> S = A.getSubMatrix(1, 3, 1, 3);
+        assertEquals(Rational.valueOf(1, 6), S.get(1, 1));
+        assertEquals(A.cofactor(0, 0), S.determinant());
+        SparseMatrix<Rational> Z = Matrices.sparseMatrix(A, Rational.ZERO);
+        assertEquals(S, Matrices.denseMatrix(Z.getSubMatrix(1, 3, 1, 3)));
+    }
+
+    public void testFloatTimes() {
+        final int m = 37, n = 41, p = 29;
+        FloatMatrix A = _helper.matrix(m, n);
+        FloatMatrix B = _helper.matrix(p, n).transpose(); // Strided operand.
+        FloatMatrix C = A.times(B);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += A.getValue(i, k) * B.getValue(k, j);
+                }
+                assertEquals(sum, C.getValue(i, j), EPSILON);
+            }
+        }
+        FloatVector x = B.getColumn(3);
+        FloatVector y = A.times(x);
+        for (int i = 0; i < m; i++) {
+            assertEquals(C.getValue(i, 3), y.getValue(i), EPSILON);
+        }
+    }
+
+    public void testFloatSolve() {
+        final int n = 30;
+        FloatMatrix A = _helper.matrix(n, n);
+        FloatVector x = _helper.vector(n);
+        FloatVector y = A.times(x);
+        FloatVector z = A.solve(y);
+        for (int i = 0; i < n; i++) {
+            assertEquals(x.getValue(i), z.getValue(i), 1e-8);
+        }
+        FloatMatrix I = A.times(A.inverse());
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, I.getValue(i, j), 1e-8);
+            }
+        }
+    }
+
+    public void testFloatLeastSquares() {
+        FloatMatrix A = _helper.matrix(200, 6);
+        FloatVector x = _helper.vector(6);
+        FloatVector y = A.times(x); // Consistent system.
+        FloatVector z = A.solve(y);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(x.getValue(i), z.getValue(i), 1e-8);
+        }
+        FloatMatrix P = A.pseudoInverse();
+        FloatMatrix I = P.times(A);
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 6; j++) {
+                assertEquals((i == j) ? 1.0 : 0.0, I.getValue(i, j), 1e-8);
+            }
+        }
+        FloatMatrix W = A.transpose(); // Under-determined, minimum norm.
+        FloatVector w = W.solve(x);
+        FloatVector Ww = W.times(w);
+        FloatVector v = P.transpose().times(x);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(x.getValue(i), Ww.getValue(i), 1e-8);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(v.getValue(i), w.getValue(i), 1e-8);
+        }
+    }
+
+    public void testFloatEigen() {
+        FloatMatrix R = _helper.matrix(40, 40);
+        FloatMatrix A = R.transpose().times(R); // Covariance like.
+        EigenDecomposition eigen = EigenDecomposition.valueOf(A);
+        FloatVector lambda = eigen.getEigenvalues();
+        FloatMatrix V = eigen.getEigenvectors();
+        FloatMatrix AV = A.times(V);
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                assertEquals(V.getValue(i, j) * lambda.getValue(j),
+                        AV.getValue(i, j), 1e-9);
+            }
+        }
+        FloatVector values = EigenDecomposition.eigenvalues(A);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(lambda.getValue(i), values.getValue(i), 1e-9);
+        }
+    }
+
+    public void testFloatSingularValues() {
+        FloatMatrix A = _helper.matrix(25, 10);
+        SingularValueDecomposition svd = SingularValueDecomposition.valueOf(A);
+        FloatMatrix U = svd.getU();
+        FloatMatrix V = svd.getV();
+        FloatVector s = svd.getSingularValues();
+        assertEquals(10, s.getDimension());
+        FloatMatrix AV = A.times(V); // A·V = U·Σ
+        for (int i = 0; i < 25; i++) {
+            for (int j = 0; j < 10; j++) {
+                assertEquals(U.getValue(i, j) * s.getValue(j),
+                        AV.getValue(i, j), 1e-9);
+            }
+        }
+        FloatVector t = SingularValueDecomposition.singularValues(A
+                .transpose());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(s.getValue(i), t.getValue(i), 1e-9);
+        }
+        assertEquals(10, svd.rank());
+    }
+
+    public void testDenseOfFloat64IsFloat() {
+        DenseMatrix<Float64> M = Matrices.denseMatrix(
+                Vectors.denseVector(Float64.valueOf(1), Float64.valueOf(2)),
+                Vectors.denseVector(Float64.valueOf(3), Float64.valueOf(4)));
+        assertTrue(M instanceof FloatMatrix);
+        assertEquals(-2.0, M.determinant().doubleValue(), EPSILON);
+        assertEquals(M, Matrices.floatMatrix(new double[][] { { 1, 2 },
+                { 3, 4 } }));
+        DenseMatrix<Float64> D = Matrices.denseMatrix(Matrices.sparseMatrix(M,
+                Float64.ZERO));
+        assertTrue(D instanceof FloatMatrix);
+        assertEquals(M, D);
+        DenseMatrix<Complex> C = Matrices.denseMatrix(Matrices.sparseMatrix(
+                Matrices.complexMatrix(Vectors.complexVector(new double[] { 1,
+                        0 }, new double[] { 0, 2 })), Complex.ZERO));
+        assertTrue(C instanceof ComplexMatrix);
+    }
+
+    public void testComplexTimes() {
+        ComplexMatrix A = Matrices.complexMatrix(
+                Vectors.complexVector(new double[] { 1, 2 }, new double[] { 1, 0 }),
+                Vectors.complexVector(new double[] { 0, 3 }, new double[] { -1, 2 }));
+        ComplexMatrix B = A.transpose();
+        ComplexMatrix C = A.times(B);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 2; j++) {
+                Complex sum = A.get(i, 0).times(B.get(0, j)).plus(
+                        A.get(i, 1).times(B.get(1, j)));
+                assertEquals(sum.getReal(), C.getRealValue(i, j), EPSILON);
+                assertEquals(sum.getImaginary(), C.getImaginaryValue(i, j), EPSILON);
+            }
+        }
+        assertEquals(Math.sqrt(2 + 4), A.getRow(0).normValue(), EPSILON);
+    }
+
+    public void testRationalSolve() {
+        DenseMatrix<Rational> A = Matrices.denseMatrix(
+                Vectors.denseVector(Rational.valueOf(1, 2), Rational.valueOf(1, 3)),
+                Vectors.denseVector(Rational.valueOf(1, 3), Rational.valueOf(1, 4)));
+        assertEquals(Rational.valueOf(1, 72), A.determinant());
+        DenseVector<Rational> x = Vectors.denseVector(Rational.valueOf(2, 5),
+                Rational.valueOf(-7, 3));
+        assertEquals(x, A.solve(A.times(x)));
+        assertEquals(A, A.inverse().inverse());
+    }
+
+    public void testRationalPseudoInverse() {
+        DenseMatrix<Rational> A = Matrices.denseMatrix(
+                Vectors.denseVector(Rational.valueOf(1, 1), Rational.valueOf(0, 1)),
+                Vectors.denseVector(Rational.valueOf(1, 1), Rational.valueOf(1, 1)),
+                Vectors.denseVector(Rational.valueOf(1, 1), Rational.valueOf(2, 1)));
+        DenseMatrix<Rational> P = A.pseudoInverse(); // Exact.
+        assertEquals(Matrices.denseMatrix(
+                Vectors.denseVector(Rational.valueOf(5, 6), Rational.valueOf(1, 3), Rational.valueOf(-1, 6)),
+                Vectors.denseVector(Rational.valueOf(-1, 2), Rational.valueOf(0, 1), Rational.valueOf(1, 2))), P);
+        DenseVector<Rational> y = Vectors.denseVector(Rational.valueOf(1, 1),
+                Rational.valueOf(2, 1), Rational.valueOf(2, 1));
+        assertEquals(P.times(y), A.solve(y)); // Least squares fit.
+    }
+
+    public void testIntegerDeterminant() {
+        final Random random = _helper.getRandom();
+        final int n = 60;
+        long[][] L = new long[n][n];
+        long[][] U = new long[n][n];
+        LargeInteger det = LargeInteger.ONE;
+        for (int i = 0; i < n; i++) {
+            L[i][i] = 1;
+            U[i][i] = (random.nextInt(3) + 1) * (random.nextBoolean() ? 1 : -1);
+            det = det.times(U[i][i]);
+            for (int j = 0; j < i; j++) {
+                L[i][j] = random.nextInt(7) - 3;
+                U[j][i] = random.nextInt(7) - 3;
+            }
+        }
+        DenseMatrix<Rational> A = rational(L).times(rational(U));
+        assertEquals(Rational.valueOf(det, LargeInteger.ONE), A.determinant());
+        assertEquals(n, A.rank());
+        DenseVector<Rational> x = A.getRow(3);
+        assertEquals(x, A.solve(A.times(x)));
+        // Last row linear combination of the two first ones.
+        long[][] S = new long[4][];
+        S[0] = new long[] { 1, 2, 3, 4 };
+        S[1] = new long[] { 2, 0, -1, 5 };
+        S[2] = new long[] { 0, 0, 7, 1 };
+        S[3] = new long[] { 4, 4, 5, 13 };
+        assertEquals(Rational.ZERO, rational(S).determinant());
+        assertEquals(3, rational(S).rank());
+        assertEquals(2, rational(S).getSubMatrix(0, 4, 0, 2).rank());
+    }
+
+    public void testMultiModular() {
+        final Random random = _helper.getRandom();
+        final int n = 20;
+        @SuppressWarnings("unchecked")
+        DenseVector<Rational>[] rows = new DenseVector[n];
+        @SuppressWarnings("unchecked")
+        DenseVector<Rational>[] solutions = new DenseVector[n];
+        for (int i = 0; i < n; i++) {
+            Rational[] row = new Rational[n];
+            for (int j = 0; j < n; j++) {
+                row[j] = Rational.valueOf(random.nextInt(101) - 50,
+                        random.nextInt(9) + 1);
+            }
+            rows[i] = Vectors.denseVector(row);
+            solutions[i] = Vectors.denseVector(Rational.valueOf(
+                    random.nextInt(11) - 5, 1), Rational.valueOf(
+                    random.nextInt(1000), random.nextInt(1000) + 1),
+                    Rational.ZERO);
+        }
+        DenseMatrix<Rational> A = Matrices.denseMatrix(rows);
+        DenseMatrix<Rational> X = Matrices.denseMatrix(solutions);
+        assertEquals(X, A.solve(A.times(X))); // Early reconstruction.
+        Matrix<Rational> I = A.inverse().times(A);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals((i == j) ? Rational.ONE : Rational.ZERO, I.get(i, j));
+            }
+        }
+        // Entries larger than 64 bits (A = L · U).
+        final LargeInteger large = LargeInteger.ONE.shiftLeft(90);
+        LargeInteger det = LargeInteger.ONE;
+        @SuppressWarnings("unchecked")
+        DenseVector<Rational>[] lower = new DenseVector[n];
+        for (int i = 0; i < n; i++) {
+            Rational[] row = new Rational[n];
+            Rational[] lrow = new Rational[n];
+            for (int j = 0; j < n; j++) {
+                LargeInteger e = (j < i) ? LargeInteger.ZERO : large.minus(i + j);
+                row[j] = Rational.valueOf(e, LargeInteger.ONE);
+                lrow[j] = (j < i) ? Rational.valueOf(random.nextInt(7) - 3, 1)
+                        : (j == i) ? Rational.ONE : Rational.ZERO;
+            }
+            det = det.times(large.minus(2 * i));
+            rows[i] = Vectors.denseVector(row);
+            lower[i] = Vectors.denseVector(lrow);
+        }
+        A = Matrices.denseMatrix(lower).times(Matrices.denseMatrix(rows));
+        assertEquals(Rational.valueOf(det, LargeInteger.ONE), A.determinant());
+        DenseVector<Rational> x = A.getRow(n - 1);
+        assertEquals(x, A.solve(A.times(x)));
+        // Singular.
+        rows[n - 1] = Vectors.denseVector(rows[0].plus(rows[1]));
+        A = Matrices.denseMatrix(lower).times(Matrices.denseMatrix(rows));
+        assertEquals(Rational.ZERO, A.determinant());
+        try {
+            A.solve(A.getColumn(0));
+            fail("Singular matrix");
+        } catch (ArithmeticException e) {
+            // Expected.
+        }
+    }
+
+    public void testModular() {
+        final Random random = _helper.getRandom();
+        final LargeInteger p = LargeInteger.valueOf(1000003);
+        LocalContext.enter();
+        try {
+            ModuloInteger.setModulus(p);
+            final int n = 25;
+            @SuppressWarnings("unchecked")
+            DenseVector<ModuloInteger>[] rows = new DenseVector[n];
+            for (int i = 0; i < n; i++) {
+                ModuloInteger[] row = new ModuloInteger[n];
+                for (int j = 0; j < n; j++) {
+                    row[j] = ModuloInteger.valueOf(random.nextInt(1000003));
+                }
+                rows[i] = Vectors.denseVector(row);
+            }
+            DenseMatrix<ModuloInteger> A = Matrices.denseMatrix(rows);
+            DenseVector<ModuloInteger> x = A.getColumn(0);
+            DenseVector<ModuloInteger> y = A.times(x);
+            assertEquals(x, A.solve(y));
+            Matrix<ModuloInteger> I = A.times(A.inverse());
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals((i == j) ? 1 : 0, I.get(i, j).longValue());
+                }
+            }
+            assertEquals(n, A.rank());
+            // det(A) · det(A⁻¹) = 1
+            assertEquals(1, A.determinant().times(A.inverse().determinant())
+                    .longValue());
+        } finally {
+            LocalContext.exit();
+        }
+    }
+
+    private static DenseMatrix<Rational> rational(long[][] values) {
+        @SuppressWarnings("unchecked")
+        DenseVector<Rational>[] rows = new DenseVector[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Rational[] row = new Rational[values[i].length];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = Rational.valueOf(values[i][j], 1);
+            }
+            rows[i] = Vectors.denseVector(row);
+        }
+        return Matrices.denseMatrix(rows);
+    }
+}
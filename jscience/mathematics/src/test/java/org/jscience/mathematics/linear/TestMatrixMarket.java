@@ -0,0 +1,134 @@
+package org.jscience.mathematics.linear;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.Complex;
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.structure.Field;
+
+/**
+ * Checks the reading and writing of Matrix Market files.
+ */
+public class TestMatrixMarket extends TestCase {
+
+    private final Random _random = new Random(0);
+
+    public void testCoordinateSymmetric() throws IOException {
+        Matrix<Float64> A = read("%%MatrixMarket matrix coordinate real symmetric\n"
+                + "% Comment line\n"
+                + "%\n"
+                + "  3 3 4\n"
+                + "1 1 1.5\n"
+                + "3 1 -2e-3\n"
+                + "2 2 4\n"
+                + "3 3 0.25\n", false);
+        assertTrue(A instanceof SparseMatrix);
+        FloatMatrix D = Matrices.floatMatrix(new double[][] {
+                { 1.5, 0, -2e-3 }, { 0, 4, 0 }, { -2e-3, 0, 0.25 } });
+        assertEquals(D, A);
+        assertEquals(D, read("%%MatrixMarket matrix coordinate real symmetric\n"
+                + "3 3 4\n1 1 1.5\n3 1 -2e-3\n2 2 4\n3 3 0.25", true));
+    }
+
+    public void testCoordinatePatternAndComplex() throws IOException {
+        Matrix<Float64> P = read("%%MatrixMarket matrix coordinate pattern general\n"
+                + "2 3 2\n1 3\n2 1\n", false);
+        assertEquals(Matrices.floatMatrix(new double[][] { { 0, 0, 1 },
+                { 1, 0, 0 } }), P);
+        Matrix<Complex> H = read("%%MatrixMarket matrix coordinate complex hermitian\n"
+                + "2 2 2\n1 1 1 0\n2 1 3 -4\n", false);
+        assertEquals(Complex.valueOf(3, 4), H.get(0, 1));
+        assertEquals(Complex.valueOf(3, -4), H.get(1, 0));
+        assertEquals(Complex.ZERO, H.get(1, 1));
+    }
+
+    public void testArray() throws IOException {
+        Matrix<Float64> A = read("%%MatrixMarket matrix array real general\n"
+                + "2 3\n1\n4\n2\n5\n3\n6\n", false);
+        assertTrue(A instanceof FloatMatrix);
+        assertEquals(Matrices.floatMatrix(new double[][] { { 1, 2, 3 },
+                { 4, 5, 6 } }), A);
+        Matrix<Float64> S = read("%%MatrixMarket matrix array real skew-symmetric\n"
+                + "3 3\n1\n2\n3\n", false);
+        assertEquals(Matrices.floatMatrix(new double[][] { { 0, -1, -2 },
+                { 1, 0, -3 }, { 2, 3, 0 } }), S);
+    }
+
+    public void testNumbers() throws IOException {
+        String[] numbers = { "0.1", "-0.0", "1e22", "1e23", "4.9e-324",
+                "1.7976931348623157e308", "0.30000000000000004",
+                "123456789012345678", "1.2345678901234567e-300", "1500",
+                "+2.50E+01", "0.000123", "9007199254740993", "NaN" };
+        StringBuilder text = new StringBuilder(
+                "%%MatrixMarket matrix array real general\n");
+        text.append(numbers.length).append(" 1\n");
+        for (String number : numbers) {
+            text.append(number).append('\n');
+        }
+        Matrix<Float64> A = read(text.toString(), false);
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(numbers[i], Double.doubleToLongBits(Double
+                    .parseDouble(numbers[i])), Double.doubleToLongBits(A
+                    .get(i, 0).doubleValue()));
+        }
+    }
+
+    public void testInvalid() {
+        String[] invalids = {
+                "%%MatrixMarket matrix coordinate real\n1 1 0\n",
+                "%%MatrixMarket matrix coordinate real general\n2 2 1\n3 1 1.0\n",
+                "%%MatrixMarket matrix coordinate real general\n2 2 2\n1 1 1.0\n1 1 2.0\n",
+                "%%MatrixMarket matrix coordinate real general\n2 2 2\n1 1 1.0\n",
+                "%%MatrixMarket matrix array real general\n1 1\n1.0x\n",
+                "%%MatrixMarket matrix array real symmetric\n2 3\n" };
+        for (String invalid : invalids) {
+            try {
+                read(invalid, false);
+                fail("IOException expected for " + invalid);
+            } catch (IOException e) {
+                // Expected.
+            }
+        }
+    }
+
+    public void testWriteRead() throws IOException {
+        final int m = 40, n = 30;
+        double[][] values = new double[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i][j] = (_random.nextInt(5) != 0) ? 0.0 : (_random
+                        .nextInt(3) == 0) ? _random.nextInt(100) : _random
+                        .nextGaussian();
+            }
+        }
+        FloatMatrix D = Matrices.floatMatrix(values);
+        SparseMatrix<Float64> A = Matrices.sparseMatrix(D, Float64.ZERO);
+        assertEquals(A, write(A, false));
+        assertTrue(write(A, false) instanceof SparseMatrix);
+        assertEquals(A, write(Matrices.columnCompressed(A), true));
+        assertEquals(D, write(D, false));
+        ComplexMatrix C = Matrices.complexMatrix(Vectors.complexVector(
+                new double[] { 1.5, -2 }, new double[] { 0.1, 3 }));
+        assertEquals(C, write(C, false));
+    }
+
+    private static <F extends Field<F>> Matrix<F> read(String text,
+            boolean columnCompressed) throws IOException {
+        return MatrixMarket.read(Channels.newChannel(new ByteArrayInputStream(
+                text.getBytes("US-ASCII"))), columnCompressed);
+    }
+
+    private static <F extends Field<F>> Matrix<F> write(Matrix<F> matrix,
+            boolean columnCompressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixMarket.write(matrix, Channels.newChannel(out));
+        return read(new String(out.toByteArray(), "US-ASCII"),
+                columnCompressed);
+    }
+}
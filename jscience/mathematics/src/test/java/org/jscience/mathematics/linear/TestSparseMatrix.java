@@ -0,0 +1,130 @@
+package org.jscience.mathematics.linear;
+
+import javolution.util.FastTable;
+import javolution.util.Index;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.number.Float64;
+import org.jscience.mathematics.number.Rational;
+import org.jscience.mathematics.number.util.MatrixHelper;
+
+/**
+ * Checks the compressed sparse row/column matrices.
+ */
+public class TestSparseMatrix extends TestCase {
+
+    private static final double EPSILON = 1e-10;
+
+    private final MatrixHelper _helper = new MatrixHelper();
+
+    public void testStructure() {
+        // { 1 0 2 }
+        // { 0 0 3 }
+        // { 4 5 0 }
+        SparseMatrix<Float64> A = Matrices.floatSparseMatrix(3, 3, new int[] {
+                0, 2, 3, 5 }, new int[] { 0, 2, 2, 0, 1 }, new double[] { 1,
+                2, 3, 4, 5 });
+        FloatMatrix D = Matrices.floatMatrix(new double[][] { { 1, 0, 2 },
+                { 0, 0, 3 }, { 4, 5, 0 } });
+        assertEquals(D, A);
+        assertEquals(Vectors.floatVector(2, 3, 0), A.getColumn(2));
+        assertEquals(Vectors.floatVector(1, 0, 0), A.getDiagonal());
+        assertEquals(D.transpose(), A.transpose());
+        assertEquals(Float64.valueOf(5), A.transpose().get(1, 2));
+        SparseMatrix<Float64> csc = Matrices.columnCompressed(A);
+        assertEquals(A, csc);
+        assertEquals(A, Matrices.rowCompressed(csc));
+        assertEquals(D.vectorization(), A.vectorization());
+        FastTable<Index> rows = new FastTable<Index>();
+        rows.add(Index.valueOf(2));
+        rows.add(Index.valueOf(0));
+        FastTable<Index> columns = new FastTable<Index>();
+        columns.add(Index.valueOf(2));
+        columns.add(Index.valueOf(0));
+        columns.add(Index.valueOf(0));
+        assertEquals(D.getSubMatrix(rows, columns), A.getSubMatrix(rows, columns));
+        assertEquals(D.getSubMatrix(rows, columns), csc.getSubMatrix(rows, columns));
+    }
+
+    public void testInvalidStructure() {
+        try {
+            Matrices.floatSparseMatrix(2, 2, new int[] { 0, 2, 2 }, new int[] {
+                    1, 0 }, new double[] { 1, 2 });
+            fail("Unsorted column indices");
+        } catch (IllegalArgumentException e) {
+            // Ok.
+        }
+    }
+
+    public void testFloatOperations() {
+        final int m = 40, n = 30, p = 20;
+        FloatMatrix A = _helper.sparse(m, n, 5); // About 20% non-zero.
+        FloatMatrix B = _helper.sparse(n, p, 5);
+        SparseMatrix<Float64> SA = Matrices.sparseMatrix(A, Float64.ZERO);
+        SparseMatrix<Float64> SB = Matrices.columnCompressed(Matrices
+                .sparseMatrix(B, Float64.ZERO));
+        assertEquals(A, SA);
+        assertEquals(B, SB);
+        assertClose(A.times(B), SA.times(SB));
+        assertClose(A.times(B), SA.times(B));
+        assertClose(A.plus(A), SA.plus(Matrices.columnCompressed(SA)));
+        assertClose(A.minus(A.times(Float64.valueOf(2))), SA.minus(SA
+                .times(Float64.valueOf(2))));
+        FloatVector x = _helper.sparse(n, 1, 5).getColumn(0);
+        assertClose(A.times(x).asColumn(), SA.times(x).asColumn());
+        assertClose(A.times(x).asColumn(), Matrices.columnCompressed(SA)
+                .times(x).asColumn());
+        assertClose(A.transpose().times(A), SA.transpose().times(SA));
+        Float64[] y = new Float64[m];
+        SA.times(x, y);
+        assertClose(A.times(x).asColumn(), Vectors.denseVector(y).asColumn());
+    }
+
+    public void testCancellation() {
+        // { 1 1 } x { 1  1 } = { 0 2 }
+        // { 0 1 }   {-1  1 }   {-1 1 }
+        SparseMatrix<Float64> A = Matrices.floatSparseMatrix(2, 2, new int[] {
+                0, 2, 3 }, new int[] { 0, 1, 1 }, new double[] { 1, 1, 1 });
+        SparseMatrix<Float64> B = Matrices.floatSparseMatrix(2, 2, new int[] {
+                0, 2, 4 }, new int[] { 0, 1, 0, 1 }, new double[] { 1, 1, -1, 1 });
+        SparseMatrix<Float64> C = A.times(B);
+        assertEquals(Matrices.floatMatrix(new double[][] { { 0, 2 }, { -1, 1 } }), C);
+        assertEquals(1, C.getRow(0).getData().size());
+    }
+
+    public void testRational() {
+        Rational zero = Rational.ZERO;
+        SparseVector<Rational> r0 = Vectors.sparseVector(Vectors.denseVector(
+                Rational.valueOf(1, 2), zero, Rational.valueOf(1, 3)), zero);
+        SparseVector<Rational> r1 = Vectors.sparseVector(Vectors.denseVector(
+                zero, Rational.valueOf(2, 3), zero), zero);
+        SparseVector<Rational> r2 = Vectors.sparseVector(Vectors.denseVector(
+                Rational.valueOf(-1, 5), zero, Rational.valueOf(1, 1)), zero);
+        SparseMatrix<Rational> A = Matrices.sparseMatrix(r0, r1, r2);
+        DenseMatrix<Rational> D = Matrices.denseMatrix(A);
+        assertEquals(2, r0.getData().size());
+        assertEquals(D, A);
+        assertEquals(D.times(D), A.times(A));
+        assertEquals(D.determinant(), A.determinant());
+        SparseVector<Rational> x = r0.plus(r2);
+        assertEquals(D.times(x), A.times(x));
+        Rational[] y = new Rational[3];
+        A.times(x, y);
+        assertEquals(D.times(x), Vectors.denseVector(y));
+        assertEquals(x, A.solve(A.times(x)));
+        assertEquals(D.tensor(D), A.tensor(A));
+        assertEquals(r0.tensor(r2), r0.asColumn().times(r2.asRow()));
+    }
+
+    private void assertClose(Matrix<Float64> expected, Matrix<Float64> actual) {
+        assertEquals(expected.getRowDimension(), actual.getRowDimension());
+        assertEquals(expected.getColumnDimension(), actual.getColumnDimension());
+        for (int i = 0; i < expected.getRowDimension(); i++) {
+            for (int j = 0; j < expected.getColumnDimension(); j++) {
+                assertEquals(expected.get(i, j).doubleValue(), actual.get(i, j)
+                        .doubleValue(), EPSILON);
+            }
+        }
+    }
+}
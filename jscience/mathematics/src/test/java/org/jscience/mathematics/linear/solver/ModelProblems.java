@@ -0,0 +1,64 @@
+package org.jscience.mathematics.linear.solver;
+
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * Holds the model problems shared by the direct and iterative solvers tests.
+ */
+final class ModelProblems {
+
+    /**
+     * Returns the five points finite differences matrix of the convection
+     * diffusion operator on a k x k grid (symmetric for c = 0).
+     */
+    static SparseMatrix<Float64> grid(int k, double c) {
+        final int n = k * k;
+        int[] pointers = new int[n + 1];
+        int[] indices = new int[5 * n];
+        double[] values = new double[5 * n];
+        int nnz = 0;
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                int row = i * k + j;
+                if (i > 0) {
+                    indices[nnz] = row - k;
+                    values[nnz++] = -1;
+                }
+                if (j > 0) {
+                    indices[nnz] = row - 1;
+                    values[nnz++] = -1 - c;
+                }
+                indices[nnz] = row;
+                values[nnz++] = 4;
+                if (j < k - 1) {
+                    indices[nnz] = row + 1;
+                    values[nnz++] = -1 + c;
+                }
+                if (i < k - 1) {
+                    indices[nnz] = row + k;
+                    values[nnz++] = -1;
+                }
+                pointers[row + 1] = nnz;
+            }
+        }
+        return Matrices.floatSparseMatrix(n, n, pointers, indices, values);
+    }
+
+    /**
+     * Returns the smooth right-hand side <code>b[i] = sin(i)</code>.
+     */
+    static FloatVector rhs(int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.sin(i);
+        }
+        return Vectors.floatVector(values);
+    }
+
+    private ModelProblems() {
+    }
+}
@@ -0,0 +1,285 @@
+package org.jscience.mathematics.linear.solver;
+
+import static org.jscience.mathematics.linear.solver.ModelProblems.grid;
+import static org.jscience.mathematics.linear.solver.ModelProblems.rhs;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.linear.solver.SymbolicAnalysis.Ordering;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * Checks the orderings and the sparse LU and Cholesky decompositions.
+ */
+public class TestDirectSolver extends TestCase {
+
+    private static final int K = 20; // Grid of K x K unknowns.
+
+    private final Random _random = new Random(0);
+
+    public void testOrderings() {
+        int[] shuffle = shuffle(K * K);
+        SparseMatrix<Float64> A = permute(grid(K, 0.0), shuffle);
+        int natural = fill(A, Ordering.NATURAL);
+        int amd = fill(A, Ordering.APPROXIMATE_MINIMUM_DEGREE);
+        int rcm = fill(A, Ordering.REVERSE_CUTHILL_MCKEE);
+        assertTrue(amd < rcm);
+        assertTrue(rcm < natural);
+        SymbolicAnalysis analysis = SymbolicAnalysis.valueOf(A);
+        int[] tree = analysis.getEliminationTree();
+        int roots = 0;
+        for (int j = 0; j < tree.length; j++) {
+            assertTrue((tree[j] == -1) || (tree[j] > j));
+            roots += (tree[j] == -1) ? 1 : 0;
+        }
+        assertEquals(1, roots); // Connected.
+        int sum = 0;
+        for (int count : analysis.getColumnCounts()) {
+            sum += count;
+        }
+        assertEquals(analysis.getFactorNonZeroCount(), sum);
+    }
+
+    public void testCholesky() {
+        SparseMatrix<Float64> A = grid(K, 0.0);
+        FloatVector b = rhs(K * K);
+        for (Ordering ordering : Ordering.values()) {
+            SparseCholesky cholesky = SparseCholesky.valueOf(A,
+                    SymbolicAnalysis.valueOf(A, ordering));
+            assertResidual(A, cholesky.solve(b), b);
+        }
+        SparseMatrix<Float64> S = grid(5, 0.0);
+        double expected = dense(S).determinant().doubleValue();
+        SparseCholesky cholesky = SparseCholesky.valueOf(S);
+        assertEquals(expected, cholesky.determinant().doubleValue(),
+                1e-9 * expected);
+        assertEquals(Math.log(expected), cholesky.logDeterminant(), 1e-9);
+        FloatMatrix B = dense(grid(5, 0.3)); // Several right-hand sides.
+        FloatMatrix X = cholesky.solve(B);
+        assertTrue(maxAbs(dense(S).times(X).minus(B)) < 1e-10);
+        try {
+            SparseCholesky.valueOf(S.opposite());
+            fail("Negative definite matrix factorized");
+        } catch (ArithmeticException e) {
+            // Expected.
+        }
+    }
+
+    public void testLU() {
+        SparseMatrix<Float64> A = grid(K, 0.4);
+        FloatVector b = rhs(K * K);
+        for (Ordering ordering : Ordering.values()) {
+            SparseLU lu = SparseLU.valueOf(A, SymbolicAnalysis.valueOf(A,
+                    ordering));
+            assertResidual(A, lu.solve(b), b);
+        }
+        // Zero diagonal (pivoting required).
+        SparseMatrix<Float64> P = permute(random(60), shuffle(60), null);
+        SparseLU lu = SparseLU.valueOf(P);
+        assertResidual(P, lu.solve(rhs(60)), rhs(60));
+        double expected = dense(P).determinant().doubleValue();
+        assertEquals(expected, lu.determinant().doubleValue(), 1e-9 * Math
+                .abs(expected));
+        try {
+            SparseLU.valueOf(Matrices.floatSparseMatrix(2, 2, new int[] { 0,
+                    1, 2 }, new int[] { 0, 0 }, new double[] { 1, 2 }));
+            fail("Singular matrix factorized");
+        } catch (ArithmeticException e) {
+            // Expected.
+        }
+    }
+
+    public void testRefactor() {
+        SparseMatrix<Float64> A = random(80);
+        SymbolicAnalysis analysis = SymbolicAnalysis.valueOf(A);
+        SparseLU lu = SparseLU.valueOf(A, analysis);
+        FloatVector b = rhs(80);
+        for (int step = 0; step < 5; step++) {
+            SparseMatrix<Float64> B = revalue(A);
+            assertTrue(analysis.matches(B));
+            lu = lu.refactor(B);
+            assertSame(analysis, lu.getSymbolicAnalysis());
+            assertResidual(B, lu.solve(b), b);
+        }
+        // Pivot of the previous sequence becoming zero.
+        SparseMatrix<Float64> D = grid(4, 0.0);
+        SparseLU first = SparseLU.valueOf(D, SymbolicAnalysis.valueOf(D,
+                Ordering.NATURAL));
+        SparseMatrix<Float64> Z = zeroFirstPivot(D);
+        assertResidual(Z, first.refactor(Z).solve(rhs(16)), rhs(16));
+        try {
+            lu.refactor(random(80));
+            fail("Different structure accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    public void testSparseMatrixSolve() {
+        SparseMatrix<Float64> A = grid(K, 0.4);
+        FloatVector b = rhs(K * K);
+        assertResidual(A, A.solve(b), b);
+        SparseMatrix<Float64> S = random(30);
+        FloatMatrix D = dense(S);
+        double expected = D.determinant().doubleValue();
+        assertEquals(expected, S.determinant().doubleValue(), 1e-9 * Math
+                .abs(expected));
+        assertTrue(maxAbs(D.times(S.inverse()).minus(
+                Matrices.floatMatrix(identity(30)))) < 1e-9);
+        SparseMatrix<Float64> singular = Matrices.floatSparseMatrix(2, 2,
+                new int[] { 0, 2, 4 }, new int[] { 0, 1, 0, 1 },
+                new double[] { 1, 2, 2, 4 });
+        assertEquals(0.0, singular.determinant().doubleValue(), 1e-12);
+    }
+
+    private static int fill(SparseMatrix<Float64> A, Ordering ordering) {
+        SymbolicAnalysis analysis = SymbolicAnalysis.valueOf(A, ordering);
+        int[] perm = analysis.getPermutation();
+        boolean[] found = new boolean[perm.length];
+        for (int i : perm) {
+            assertFalse(found[i]);
+            found[i] = true;
+        }
+        return analysis.getFactorNonZeroCount();
+    }
+
+    private static void assertResidual(Matrix<Float64> A, Vector<Float64> x,
+            FloatVector b) {
+        FloatVector r = Vectors.floatVector(b.minus(A.times(x)));
+        assertTrue(r.normValue() <= 1e-10 * b.normValue());
+    }
+
+    /**
+     * Returns a random unsymmetric matrix with a dominant diagonal.
+     */
+    private SparseMatrix<Float64> random(int n) {
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if ((i != j) && (_random.nextInt(n) < 3)) {
+                    values[i][j] = _random.nextGaussian();
+                }
+            }
+            values[i][i] = 5 + _random.nextDouble();
+        }
+        return Matrices.sparseMatrix(Matrices.floatMatrix(values),
+                Float64.ZERO);
+    }
+
+    /**
+     * Returns a matrix having the structure of the specified one with new
+     * values.
+     */
+    private SparseMatrix<Float64> revalue(SparseMatrix<Float64> A) {
+        FloatMatrix D = dense(A);
+        final int n = D.getRowDimension();
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (D.getValue(i, j) != 0.0) {
+                    values[i][j] = D.getValue(i, j)
+                            * (0.5 + _random.nextDouble());
+                }
+            }
+        }
+        return Matrices.sparseMatrix(Matrices.floatMatrix(values),
+                Float64.ZERO);
+    }
+
+    /**
+     * Returns the specified matrix with the 2x2 leading block
+     * <code>[[1e-20, 1], [1, 1]]</code> (same structure, zero pivot in
+     * the original order).
+     */
+    private static SparseMatrix<Float64> zeroFirstPivot(SparseMatrix<Float64> A) {
+        FloatMatrix D = dense(A);
+        final int n = D.getRowDimension();
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i][j] = D.getValue(i, j);
+            }
+        }
+        values[0][0] = 1e-20;
+        values[0][1] = values[1][0] = values[1][1] = 1;
+        return Matrices.sparseMatrix(Matrices.floatMatrix(values),
+                Float64.ZERO);
+    }
+
+    /**
+     * Returns <code>P·A·Pᵀ</code> (or <code>P·A</code> if the second
+     * permutation is <code>null</code>).
+     */
+    private static SparseMatrix<Float64> permute(SparseMatrix<Float64> A,
+            int[] perm) {
+        return permute(A, perm, perm);
+    }
+
+    private static SparseMatrix<Float64> permute(SparseMatrix<Float64> A,
+            int[] rows, int[] columns) {
+        FloatMatrix D = dense(A);
+        final int n = D.getRowDimension();
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i][j] = D.getValue(rows[i], (columns != null) ? columns[j]
+                        : j);
+            }
+        }
+        return Matrices.sparseMatrix(Matrices.floatMatrix(values),
+                Float64.ZERO);
+    }
+
+    private int[] shuffle(int n) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = _random.nextInt(i + 1);
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+        }
+        return perm;
+    }
+
+    private static FloatMatrix dense(Matrix<Float64> A) {
+        final int m = A.getRowDimension();
+        final int n = A.getColumnDimension();
+        double[][] values = new double[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i][j] = A.get(i, j).doubleValue();
+            }
+        }
+        return Matrices.floatMatrix(values);
+    }
+
+    private static double maxAbs(FloatMatrix A) {
+        double max = 0.0;
+        for (int i = 0; i < A.getRowDimension(); i++) {
+            for (int j = 0; j < A.getColumnDimension(); j++) {
+                max = Math.max(max, Math.abs(A.getValue(i, j)));
+            }
+        }
+        return max;
+    }
+
+    private static double[][] identity(int n) {
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            values[i][i] = 1;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,190 @@
+package org.jscience.mathematics.linear.solver;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * Checks the implicitly restarted Lanczos and Arnoldi eigen solvers.
+ */
+public class TestEigenSolver extends TestCase {
+
+    private static final double EPSILON = 1e-8;
+
+    public void testLanczosLargest() {
+        final int n = 400;
+        SparseMatrix<Float64> A = laplacian(n);
+        Eigenpairs pairs = new Lanczos().solve(A, 5);
+        assertEquals(5, pairs.getCount());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(laplacianEigenvalue(n, n - i), pairs
+                    .getEigenvalue(i), EPSILON);
+            assertEquals(0.0, pairs.getImaginaryPart(i), 0.0);
+            checkResidual(A, pairs, i);
+        }
+        for (int i = 0; i < 5; i++) { // Orthonormal.
+            for (int j = 0; j < 5; j++) {
+                double dot = pairs.getEigenvector(i).times(
+                        pairs.getEigenvector(j)).doubleValue();
+                assertEquals((i == j) ? 1.0 : 0.0, dot, EPSILON);
+            }
+        }
+    }
+
+    public void testLanczosSmallest() {
+        final int n = 100;
+        SparseMatrix<Float64> A = laplacian(n);
+        Eigenpairs pairs = new Lanczos().setTarget(
+                EigenSolver.Target.SMALLEST_REAL).setSubspaceDimension(40)
+                .setMaximumRestarts(2000).solve(A, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(laplacianEigenvalue(n, i + 1), pairs
+                    .getEigenvalue(i), EPSILON);
+            checkResidual(A, pairs, i);
+        }
+    }
+
+    public void testArnoldi() {
+        // Block upper triangular: eigenvalues of the diagonal blocks.
+        final int n = 300;
+        double[][] dense = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            dense[i][i] = 1.5 * i / n;
+            if (i + 2 < n) {
+                dense[i][i + 2] = 0.5;
+            }
+        }
+        block(dense, 10, 3.0, 2.0); // 3 ± 2i
+        block(dense, 100, -2.5, 1.0); // -2.5 ± i
+        dense[200][200] = 2.0;
+        SparseMatrix<Float64> A = sparse(dense);
+        Eigenpairs pairs = new Arnoldi().solve(A, 5);
+        double[][] expected = { { 3, 2 }, { 3, -2 }, { -2.5, 1 },
+                { -2.5, -1 }, { 2, 0 } };
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected[i][0], pairs.getEigenvalue(i), EPSILON);
+            assertEquals(expected[i][1], pairs.getImaginaryPart(i), EPSILON);
+            checkResidual(A, pairs, i);
+        }
+        pairs = new Arnoldi().setTarget(EigenSolver.Target.LARGEST_REAL)
+                .solve(A, 2);
+        assertEquals(3.0, pairs.getEigenvalue(0), EPSILON);
+        assertEquals(3.0, pairs.getEigenvalue(1), EPSILON);
+    }
+
+    public void testArnoldiSymmetric() {
+        final int n = 200;
+        SparseMatrix<Float64> A = laplacian(n);
+        Eigenpairs pairs = new Arnoldi().solve(A, 4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(laplacianEigenvalue(n, n - i), pairs
+                    .getEigenvalue(i), EPSILON);
+            assertEquals(0.0, pairs.getImaginaryPart(i), EPSILON);
+        }
+    }
+
+    public void testInvalid() {
+        try {
+            new Lanczos().solve(laplacian(10), 10);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // Ok.
+        }
+        try {
+            new Lanczos().setMaximumRestarts(0).setSubspaceDimension(4)
+                    .solve(laplacian(500), 3);
+            fail("ConvergenceException expected");
+        } catch (ConvergenceException e) {
+            // Ok.
+        }
+    }
+
+    /**
+     * Checks |A·x - λ·x| for the specified (possibly complex) eigenpair.
+     */
+    private static void checkResidual(SparseMatrix<Float64> A,
+            Eigenpairs pairs, int i) {
+        FloatVector x = pairs.getEigenvector(i);
+        FloatVector y = pairs.getEigenvectorImaginaryPart(i);
+        double re = pairs.getEigenvalue(i);
+        double im = pairs.getImaginaryPart(i);
+        double[] ax = values(A.times(x));
+        double[] ay = values(A.times(y));
+        double sum = 0.0;
+        double norm = 0.0;
+        for (int j = 0; j < ax.length; j++) {
+            double xj = x.getValue(j);
+            double yj = y.getValue(j);
+            double rr = ax[j] - (re * xj - im * yj);
+            double ri = ay[j] - (re * yj + im * xj);
+            sum += rr * rr + ri * ri;
+            norm += xj * xj + yj * yj;
+        }
+        assertEquals(1.0, norm, EPSILON);
+        assertTrue(Math.sqrt(sum) <= 1e-7 * Math.hypot(re, im));
+    }
+
+    private static double[] values(
+            org.jscience.mathematics.linear.Vector<Float64> v) {
+        double[] values = new double[v.getDimension()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = v.get(i).doubleValue();
+        }
+        return values;
+    }
+
+    private static double laplacianEigenvalue(int n, int j) {
+        return 2 - 2 * Math.cos(j * Math.PI / (n + 1));
+    }
+
+    private static void block(double[][] dense, int i, double a, double b) {
+        dense[i][i] = a;
+        dense[i][i + 1] = b;
+        dense[i + 1][i] = -b;
+        dense[i + 1][i + 1] = a;
+    }
+
+    /**
+     * Returns the one dimensional finite differences Laplacian.
+     */
+    private static SparseMatrix<Float64> laplacian(int n) {
+        double[][] dense = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            dense[i][i] = 2;
+            if (i > 0) {
+                dense[i][i - 1] = -1;
+                dense[i - 1][i] = -1;
+            }
+        }
+        return sparse(dense);
+    }
+
+    private static SparseMatrix<Float64> sparse(double[][] dense) {
+        final int n = dense.length;
+        int[] pointers = new int[n + 1];
+        int nnz = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (dense[i][j] != 0.0) {
+                    nnz++;
+                }
+            }
+        }
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+        nnz = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (dense[i][j] != 0.0) {
+                    indices[nnz] = j;
+                    values[nnz++] = dense[i][j];
+                }
+            }
+            pointers[i + 1] = nnz;
+        }
+        return Matrices.floatSparseMatrix(n, n, pointers, indices, values);
+    }
+}
@@ -0,0 +1,124 @@
+package org.jscience.mathematics.linear.solver;
+
+import static org.jscience.mathematics.linear.solver.ModelProblems.grid;
+import static org.jscience.mathematics.linear.solver.ModelProblems.rhs;
+
+import junit.framework.TestCase;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.Matrix;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.Vector;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * Checks the Krylov solvers upon finite differences systems.
+ */
+public class TestIterativeSolver extends TestCase {
+
+    private static final int K = 30; // Grid of K x K unknowns.
+
+    private static final StoppingCriterion CRITERION = new StoppingCriterion(
+            1e-10, 0.0, 2000);
+
+    public void testConjugateGradient() {
+        SparseMatrix<Float64> A = grid(K, 0.0);
+        FloatVector b = rhs(K * K);
+        int plain = iterations(new ConjugateGradient(), A, b);
+        int jacobi = iterations(new ConjugateGradient()
+                .setPreconditioner(Preconditioners.jacobi(A)), A, b);
+        int ssor = iterations(new ConjugateGradient()
+                .setPreconditioner(Preconditioners.ssor(A, 1.5)), A, b);
+        int ilu = iterations(new ConjugateGradient()
+                .setPreconditioner(Preconditioners.incompleteLU(A)), A, b);
+        assertTrue(ssor < plain);
+        assertTrue(ilu < plain);
+        assertTrue(jacobi <= plain);
+    }
+
+    public void testBiCGStab() {
+        SparseMatrix<Float64> A = grid(K, 0.4);
+        FloatVector b = rhs(K * K);
+        int plain = iterations(new BiCGStab(), A, b);
+        int ilu = iterations(new BiCGStab().setPreconditioner(Preconditioners
+                .incompleteLU(A)), A, b);
+        iterations(new BiCGStab().setPreconditioner(Preconditioners.ssor(A,
+                1.0)), A, b);
+        assertTrue(ilu < plain);
+    }
+
+    public void testGMRES() {
+        SparseMatrix<Float64> A = grid(K, 0.4);
+        FloatVector b = rhs(K * K);
+        int plain = iterations(new GMRES(20), A, b);
+        int ilu = iterations(new GMRES(20).setPreconditioner(Preconditioners
+                .incompleteLU(A)), A, b);
+        iterations(new GMRES().setPreconditioner(Preconditioners.jacobi(A)),
+                A, b);
+        assertTrue(ilu < plain);
+    }
+
+    public void testDense() {
+        FloatMatrix A = Matrices.floatMatrix(new double[][] { { 4, 1, 0 },
+                { 1, 3, -1 }, { 0, -1, 2 } });
+        FloatVector b = Vectors.floatVector(1, 2, 3);
+        Vector<Float64> expected = A.solve(b);
+        FloatVector x = new ConjugateGradient().setStoppingCriterion(
+                CRITERION).solve(A, b);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.get(i).doubleValue(), x.getValue(i), 1e-10);
+        }
+    }
+
+    public void testResidualListener() {
+        SparseMatrix<Float64> A = grid(K, 0.0);
+        final int[] count = new int[1];
+        final double[] last = new double[1];
+        IterativeSolver solver = new ConjugateGradient().setStoppingCriterion(
+                CRITERION).setResidualListener(new ResidualListener() {
+
+            @Override
+            public void residual(int iteration, double residualNorm) {
+                assertEquals(count[0]++, iteration);
+                last[0] = residualNorm;
+            }
+        });
+        double[] b = new double[K * K];
+        b[0] = 1.0;
+        double[] x = new double[K * K];
+        int iterations = solver.solve(IterativeSolver.operator(A), b, x);
+        assertEquals(iterations + 1, count[0]);
+        assertTrue(last[0] <= 1e-10);
+    }
+
+    public void testMaximumIterations() {
+        SparseMatrix<Float64> A = grid(K, 0.0);
+        try {
+            new ConjugateGradient().setStoppingCriterion(
+                    new StoppingCriterion(1e-10, 0.0, 3)).solve(A, rhs(K * K));
+            fail("ConvergenceException expected");
+        } catch (ConvergenceException e) {
+            // Ok.
+        }
+    }
+
+    private static int iterations(IterativeSolver solver, Matrix<Float64> A,
+            FloatVector b) {
+        final int[] count = new int[1];
+        solver.setStoppingCriterion(CRITERION).setResidualListener(
+                new ResidualListener() {
+
+                    @Override
+                    public void residual(int iteration, double residualNorm) {
+                        count[0] = iteration;
+                    }
+                });
+        FloatVector x = solver.solve(A, b);
+        FloatVector r = Vectors.floatVector(b.minus(A.times(x)));
+        assertTrue(r.normValue() <= 1e-9 * b.normValue());
+        return count[0];
+    }
+}
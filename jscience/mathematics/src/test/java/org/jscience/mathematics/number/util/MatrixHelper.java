@@ -0,0 +1,106 @@
+package org.jscience.mathematics.number.util;
+
+import java.util.Random;
+
+import org.jscience.mathematics.linear.FloatMatrix;
+import org.jscience.mathematics.linear.FloatVector;
+import org.jscience.mathematics.linear.Matrices;
+import org.jscience.mathematics.linear.SparseMatrix;
+import org.jscience.mathematics.linear.Vectors;
+import org.jscience.mathematics.number.Float64;
+
+/**
+ * Generates the operands of the linear algebra tests. The values are
+ * uniformly distributed in <code>[-0.5, 0.5[</code> and reproducible (each
+ * helper is seeded with <code>0</code>).
+ */
+public class MatrixHelper {
+
+    private final Random _random = new Random(0);
+
+    /**
+     * Returns the generator of this helper (for custom elements).
+     */
+    public Random getRandom() {
+        return _random;
+    }
+
+    /**
+     * Returns the next random value.
+     */
+    public double nextValue() {
+        return _random.nextDouble() - 0.5;
+    }
+
+    /**
+     * Returns the specified number of random values.
+     */
+    public double[] values(int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = nextValue();
+        }
+        return values;
+    }
+
+    /**
+     * Returns <code>m</code> rows of <code>n</code> random values.
+     */
+    public double[][] values(int m, int n) {
+        double[][] values = new double[m][];
+        for (int i = 0; i < m; i++) {
+            values[i] = values(n);
+        }
+        return values;
+    }
+
+    /**
+     * Returns a random vector of the specified dimension.
+     */
+    public FloatVector vector(int n) {
+        return Vectors.floatVector(values(n));
+    }
+
+    /**
+     * Returns a random <code>m x n</code> matrix.
+     */
+    public FloatMatrix matrix(int m, int n) {
+        return Matrices.floatMatrix(values(m, n));
+    }
+
+    /**
+     * Returns a random <code>m x n</code> matrix whose elements are non-zero
+     * with the probability <code>1/period</code>.
+     */
+    public FloatMatrix sparse(int m, int n, int period) {
+        double[][] values = new double[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                if (_random.nextInt(period) == 0) {
+                    values[i][j] = nextValue();
+                }
+            }
+        }
+        return Matrices.floatMatrix(values);
+    }
+
+    /**
+     * Returns the <code>n x n</code> sparse tridiagonal matrix with the
+     * specified diagonal and <code>-1</code> off the diagonal (symmetric
+     * positive definite for a diagonal greater or equal to <code>2</code>).
+     */
+    public static SparseMatrix<Float64> tridiagonal(int n, double diagonal) {
+        int[] pointers = new int[n + 1];
+        int[] indices = new int[3 * n];
+        double[] values = new double[3 * n];
+        int nnz = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(i - 1, 0); j <= Math.min(i + 1, n - 1); j++) {
+                indices[nnz] = j;
+                values[nnz++] = (i == j) ? diagonal : -1;
+            }
+            pointers[i + 1] = nnz;
+        }
+        return Matrices.floatSparseMatrix(n, n, pointers, indices, values);
+    }
+}